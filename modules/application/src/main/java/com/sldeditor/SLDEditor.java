@@ -25,6 +25,7 @@ import com.sldeditor.common.coordinate.CoordManager;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.preferences.PrefData;
 import com.sldeditor.common.preferences.PrefManager;
+import com.sldeditor.common.property.PropertyFileFolder;
 import com.sldeditor.common.property.PropertyManagerFactory;
 import com.sldeditor.common.property.PropertyManagerInterface;
 import com.sldeditor.common.undo.UndoManager;
@@ -32,9 +33,11 @@ import com.sldeditor.common.watcher.ReloadManager;
 import com.sldeditor.datasource.impl.DataSourceFactory;
 import com.sldeditor.extension.ExtensionFactory;
 import com.sldeditor.extension.ExtensionInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache;
 import com.sldeditor.generated.Version;
 import com.sldeditor.map.MapRender;
 import com.sldeditor.render.RenderPanelImpl;
+import com.sldeditor.render.graphic.ExternalGraphicCache;
 import com.sldeditor.ui.layout.UILayoutFactory;
 import com.sldeditor.ui.layout.UILayoutInterface;
 import com.sldeditor.ui.menu.SLDEditorMenus;
@@ -80,6 +83,12 @@ public class SLDEditor extends JPanel {
     /** The Constant APPLICATION_ICON_MEDIUM. */
     private static final String APPLICATION_ICON_MEDIUM = "/icon/AppImage.png";
 
+    /** The Constant GEOSERVER_CACHE_FOLDER. */
+    private static final String GEOSERVER_CACHE_FOLDER = "geoservercache";
+
+    /** The Constant GRAPHIC_CACHE_FOLDER. */
+    private static final String GRAPHIC_CACHE_FOLDER = "graphiccache";
+
     /** The frame. */
     protected static JFrame frame = null;
 
@@ -200,6 +209,22 @@ public class SLDEditor extends JPanel {
 
         if (!underTestFlag) {
             PropertyManagerFactory.setNotUnderTest();
+
+            // Persist the GeoServer catalogues between sessions
+            GeoServerCatalogueCache.getInstance()
+                    .setCacheFolder(
+                            new File(
+                                    PropertyFileFolder.getConfigFolder(
+                                            System.getProperty("user.home")),
+                                    GEOSERVER_CACHE_FOLDER));
+
+            // Persist the external graphics referenced by styles between sessions
+            ExternalGraphicCache.getInstance()
+                    .setCacheFolder(
+                            new File(
+                                    PropertyFileFolder.getConfigFolder(
+                                            System.getProperty("user.home")),
+                                    GRAPHIC_CACHE_FOLDER));
         }
         PropertyManagerInterface propertyManager = PropertyManagerFactory.getInstance();
         propertyManager.readConfig();
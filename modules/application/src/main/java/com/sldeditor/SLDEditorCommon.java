@@ -137,7 +137,7 @@ public class SLDEditorCommon {
             SLDEditorFile.getInstance().setDataSource(previousDataSource);
         }
 
-        dataSource.connect(
+        dataSource.connectAsync(
                 ExternalFilenames.removeSuffix(layerName),
                 SLDEditorFile.getInstance(),
                 CheckAttributeFactory.getCheckList());
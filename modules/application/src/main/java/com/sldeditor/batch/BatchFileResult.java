@@ -0,0 +1,267 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.batch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of processing a single style file in batch mode, serialised into the summary.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BatchFileResult {
+
+    /** The file processed. */
+    private final String file;
+
+    /** The success flag. */
+    private boolean success = false;
+
+    /** The error message, null if successful. */
+    private String error = null;
+
+    /** The time taken to read and parse the file in milliseconds. */
+    private long parseTime = 0L;
+
+    /** The time taken to convert the style in milliseconds. */
+    private long convertTime = 0L;
+
+    /** The time taken to generate the legend in milliseconds. */
+    private long legendTime = 0L;
+
+    /** The time taken to check the attributes in milliseconds. */
+    private long checkTime = 0L;
+
+    /** The total time taken in milliseconds. */
+    private long totalTime = 0L;
+
+    /** The files written. */
+    private List<String> outputFiles = null;
+
+    /** The attributes referenced by the style. */
+    private List<String> attributes = null;
+
+    /** The attributes referenced by the style but not provided by the data source. */
+    private List<String> missingAttributes = null;
+
+    /**
+     * Instantiates a new batch file result.
+     *
+     * @param file the file processed
+     */
+    public BatchFileResult(File file) {
+        this.file = file.getPath();
+    }
+
+    /**
+     * Gets the file processed.
+     *
+     * @return the file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Checks if the file was processed successfully.
+     *
+     * @return true, if successful
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Sets the success flag.
+     *
+     * @param success the new success flag
+     */
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    /**
+     * Gets the error message.
+     *
+     * @return the error, null if successful
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Sets the error message, marks the file as failed.
+     *
+     * @param error the new error
+     */
+    public void setError(String error) {
+        this.error = error;
+        this.success = false;
+    }
+
+    /**
+     * Gets the parse time.
+     *
+     * @return the parse time in milliseconds
+     */
+    public long getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * Sets the parse time.
+     *
+     * @param parseTime the new parse time in milliseconds
+     */
+    public void setParseTime(long parseTime) {
+        this.parseTime = parseTime;
+    }
+
+    /**
+     * Gets the convert time.
+     *
+     * @return the convert time in milliseconds
+     */
+    public long getConvertTime() {
+        return convertTime;
+    }
+
+    /**
+     * Sets the convert time.
+     *
+     * @param convertTime the new convert time in milliseconds
+     */
+    public void setConvertTime(long convertTime) {
+        this.convertTime = convertTime;
+    }
+
+    /**
+     * Gets the legend time.
+     *
+     * @return the legend time in milliseconds
+     */
+    public long getLegendTime() {
+        return legendTime;
+    }
+
+    /**
+     * Sets the legend time.
+     *
+     * @param legendTime the new legend time in milliseconds
+     */
+    public void setLegendTime(long legendTime) {
+        this.legendTime = legendTime;
+    }
+
+    /**
+     * Gets the check time.
+     *
+     * @return the check time in milliseconds
+     */
+    public long getCheckTime() {
+        return checkTime;
+    }
+
+    /**
+     * Sets the check time.
+     *
+     * @param checkTime the new check time in milliseconds
+     */
+    public void setCheckTime(long checkTime) {
+        this.checkTime = checkTime;
+    }
+
+    /**
+     * Gets the total time.
+     *
+     * @return the total time in milliseconds
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Sets the total time.
+     *
+     * @param totalTime the new total time in milliseconds
+     */
+    public void setTotalTime(long totalTime) {
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Gets the files written.
+     *
+     * @return the output files, null if none written
+     */
+    public List<String> getOutputFiles() {
+        return outputFiles;
+    }
+
+    /**
+     * Adds a file written.
+     *
+     * @param outputFile the output file
+     */
+    public void addOutputFile(String outputFile) {
+        if (outputFiles == null) {
+            outputFiles = new ArrayList<>();
+        }
+        outputFiles.add(outputFile);
+    }
+
+    /**
+     * Gets the attributes referenced by the style.
+     *
+     * @return the attributes, null if not checked
+     */
+    public List<String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Sets the attributes referenced by the style.
+     *
+     * @param attributes the new attributes
+     */
+    public void setAttributes(List<String> attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Gets the attributes referenced by the style but not provided by the data source.
+     *
+     * @return the missing attributes, null if not checked
+     */
+    public List<String> getMissingAttributes() {
+        return missingAttributes;
+    }
+
+    /**
+     * Sets the attributes referenced by the style but not provided by the data source.
+     *
+     * @param missingAttributes the new missing attributes
+     */
+    public void setMissingAttributes(List<String> missingAttributes) {
+        this.missingAttributes = missingAttributes;
+    }
+}
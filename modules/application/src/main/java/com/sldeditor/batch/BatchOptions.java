@@ -0,0 +1,297 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.batch;
+
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The command line options for headless batch processing.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BatchOptions {
+
+    /** The Constant ARG_INPUT, a file or directory tree to process, may be repeated. */
+    public static final String ARG_INPUT = "--input";
+
+    /** The Constant ARG_OUTPUT, the folder converted styles and legends are written to. */
+    public static final String ARG_OUTPUT = "--output";
+
+    /** The Constant ARG_FORMAT, the output format, sld or ysld. */
+    public static final String ARG_FORMAT = "--format";
+
+    /** The Constant ARG_LEGEND, generate a legend image for each style. */
+    public static final String ARG_LEGEND = "--legend";
+
+    /** The Constant ARG_CHECK, report the attributes referenced by each style. */
+    public static final String ARG_CHECK = "--check";
+
+    /** The Constant ARG_ATTRIBUTES, comma separated attributes the data source provides. */
+    public static final String ARG_ATTRIBUTES = "--attributes";
+
+    /** The Constant ARG_THREADS, the number of files processed in parallel. */
+    public static final String ARG_THREADS = "--threads";
+
+    /** The Constant ARG_SUMMARY, the file the summary is written to, default standard out. */
+    public static final String ARG_SUMMARY = "--summary";
+
+    /** The input files and folders. */
+    private List<File> inputList = new ArrayList<>();
+
+    /** The output folder. */
+    private File outputFolder = null;
+
+    /** The output format, null if styles are not converted. */
+    private SLDOutputFormatEnum outputFormat = null;
+
+    /** The generate legend flag. */
+    private boolean legend = false;
+
+    /** The check attributes flag. */
+    private boolean check = false;
+
+    /** The attributes provided by the data source, null if not known. */
+    private List<String> attributeList = null;
+
+    /** The number of threads. */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** The summary file. */
+    private File summaryFile = null;
+
+    /** Default constructor. */
+    private BatchOptions() {
+        // Default constructor
+    }
+
+    /**
+     * Parses the command line arguments, arguments not starting with -- are treated as inputs.
+     *
+     * @param args the command line arguments
+     * @return the batch options
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    public static BatchOptions parse(String[] args) {
+        BatchOptions options = new BatchOptions();
+
+        int index = 0;
+        while ((args != null) && (index < args.length)) {
+            String arg = args[index];
+            switch (arg) {
+                case ARG_INPUT:
+                    options.inputList.add(new File(getValue(args, ++index, arg)));
+                    break;
+                case ARG_OUTPUT:
+                    options.outputFolder = new File(getValue(args, ++index, arg));
+                    break;
+                case ARG_FORMAT:
+                    options.outputFormat = getFormat(getValue(args, ++index, arg));
+                    break;
+                case ARG_LEGEND:
+                    options.legend = true;
+                    break;
+                case ARG_CHECK:
+                    options.check = true;
+                    break;
+                case ARG_ATTRIBUTES:
+                    options.check = true;
+                    options.attributeList =
+                            Arrays.asList(getValue(args, ++index, arg).trim().split("\\s*,\\s*"));
+                    break;
+                case ARG_THREADS:
+                    options.threads = getThreads(getValue(args, ++index, arg));
+                    break;
+                case ARG_SUMMARY:
+                    options.summaryFile = new File(getValue(args, ++index, arg));
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException(
+                                getMessage("SLDEditorBatch.unknownArgument", arg));
+                    }
+                    options.inputList.add(new File(arg));
+                    break;
+            }
+            index++;
+        }
+
+        options.validate();
+
+        return options;
+    }
+
+    /**
+     * Check the combination of options is valid.
+     *
+     * @throws IllegalArgumentException if the options are invalid
+     */
+    private void validate() {
+        if (inputList.isEmpty()) {
+            throw new IllegalArgumentException(getMessage("SLDEditorBatch.noInput"));
+        }
+
+        for (File input : inputList) {
+            if (!input.exists()) {
+                throw new IllegalArgumentException(
+                        getMessage("SLDEditorBatch.inputNotFound", input.getPath()));
+            }
+        }
+
+        if (((outputFormat != null) || legend) && (outputFolder == null)) {
+            throw new IllegalArgumentException(getMessage("SLDEditorBatch.noOutput"));
+        }
+    }
+
+    /**
+     * Gets the value following an argument.
+     *
+     * @param args the arguments
+     * @param index the index of the value
+     * @param arg the argument
+     * @return the value
+     */
+    private static String getValue(String[] args, int index, String arg) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(getMessage("SLDEditorBatch.missingValue", arg));
+        }
+        return args[index];
+    }
+
+    /**
+     * Gets the output format.
+     *
+     * @param value the value
+     * @return the output format
+     */
+    private static SLDOutputFormatEnum getFormat(String value) {
+        if (value.equalsIgnoreCase("sld")) {
+            return SLDOutputFormatEnum.SLD;
+        } else if (value.equalsIgnoreCase("ysld")) {
+            return SLDOutputFormatEnum.YSLD;
+        }
+        throw new IllegalArgumentException(getMessage("SLDEditorBatch.unknownFormat", value));
+    }
+
+    /**
+     * Gets the number of threads.
+     *
+     * @param value the value
+     * @return the number of threads
+     */
+    private static int getThreads(String value) {
+        try {
+            int threads = Integer.parseInt(value);
+            if (threads > 0) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(getMessage("SLDEditorBatch.invalidThreads", value));
+    }
+
+    /**
+     * Gets a localised message.
+     *
+     * @param key the key
+     * @param args the message arguments
+     * @return the message
+     */
+    private static String getMessage(String key, Object... args) {
+        return String.format(Localisation.getString(SLDEditorBatch.class, key), args);
+    }
+
+    /**
+     * Gets the input files and folders.
+     *
+     * @return the input list
+     */
+    public List<File> getInputList() {
+        return inputList;
+    }
+
+    /**
+     * Gets the output folder.
+     *
+     * @return the output folder
+     */
+    public File getOutputFolder() {
+        return outputFolder;
+    }
+
+    /**
+     * Gets the output format.
+     *
+     * @return the output format, null if styles are not converted
+     */
+    public SLDOutputFormatEnum getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Checks if legends are generated.
+     *
+     * @return true, if legends are generated
+     */
+    public boolean isLegend() {
+        return legend;
+    }
+
+    /**
+     * Checks if attributes are checked.
+     *
+     * @return true, if attributes are checked
+     */
+    public boolean isCheck() {
+        return check;
+    }
+
+    /**
+     * Gets the attributes provided by the data source.
+     *
+     * @return the attribute list, null if not known
+     */
+    public List<String> getAttributeList() {
+        return attributeList;
+    }
+
+    /**
+     * Gets the number of threads.
+     *
+     * @return the threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the summary file.
+     *
+     * @return the summary file, null for standard out
+     */
+    public File getSummaryFile() {
+        return summaryFile;
+    }
+}
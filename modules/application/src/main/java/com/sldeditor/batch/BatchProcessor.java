@@ -0,0 +1,495 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.batch;
+
+import com.sldeditor.common.DataSourcePropertiesInterface;
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import com.sldeditor.common.output.SLDWriterInterface;
+import com.sldeditor.common.output.impl.SLDWriterFactory;
+import com.sldeditor.common.preferences.PrefManager;
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.common.utils.ExternalFilenames;
+import com.sldeditor.datasource.SLDEditorFile;
+import com.sldeditor.datasource.SLDEditorFileInterface;
+import com.sldeditor.datasource.attribute.DataSourceAttributeData;
+import com.sldeditor.datasource.checks.CheckAttributeFactory;
+import com.sldeditor.datasource.checks.CheckAttributeInterface;
+import com.sldeditor.datasource.impl.ExtractAttributes;
+import com.sldeditor.ui.legend.LegendManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.ysld.Ysld;
+
+/**
+ * Processes directory trees of SLD and YSLD files in parallel without any user interface.
+ *
+ * <p>Each file is parsed and optionally converted to another format, has a legend image generated
+ * and has the attributes it references checked against those provided by the data source.
+ * Converted styles and legends are written to the output folder mirroring the layout of the input
+ * folders.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BatchProcessor {
+
+    /** The Constant YSLD_FILE_EXTENSION. */
+    private static final String YSLD_FILE_EXTENSION = "ysld";
+
+    /** The lock serialising legend generation, the legend builder is shared. */
+    private static final Object LEGEND_LOCK = new Object();
+
+    /** The options. */
+    private final BatchOptions options;
+
+    /** The writer, null if styles are not converted. */
+    private final SLDWriterInterface writer;
+
+    /** A file to process and the input folder it was found in. */
+    private static class BatchInput {
+
+        /** The root folder. */
+        private final File root;
+
+        /** The file. */
+        private final File file;
+
+        /**
+         * Instantiates a new batch input.
+         *
+         * @param root the root folder
+         * @param file the file
+         */
+        BatchInput(File root, File file) {
+            this.root = root;
+            this.file = file;
+        }
+    }
+
+    /** Presents a parsed style to the attribute checks. */
+    private static class BatchEditorFile implements SLDEditorFileInterface {
+
+        /** The sld data. */
+        private final SLDDataInterface sldData;
+
+        /** The sld. */
+        private final StyledLayerDescriptor sld;
+
+        /**
+         * Instantiates a new batch editor file.
+         *
+         * @param sldData the sld data
+         * @param sld the sld
+         */
+        BatchEditorFile(SLDDataInterface sldData, StyledLayerDescriptor sld) {
+            this.sldData = sldData;
+            this.sld = sld;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.datasource.SLDEditorFileInterface#getSLDData()
+         */
+        @Override
+        public SLDDataInterface getSLDData() {
+            return sldData;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.datasource.SLDEditorFileInterface#getDataSource()
+         */
+        @Override
+        public DataSourcePropertiesInterface getDataSource() {
+            return null;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.datasource.SLDEditorFileInterface#getSLD()
+         */
+        @Override
+        public StyledLayerDescriptor getSLD() {
+            return sld;
+        }
+    }
+
+    /**
+     * Instantiates a new batch processor.
+     *
+     * @param options the options
+     */
+    public BatchProcessor(BatchOptions options) {
+        this.options = options;
+        this.writer =
+                (options.getOutputFormat() == null)
+                        ? null
+                        : SLDWriterFactory.createWriter(options.getOutputFormat());
+    }
+
+    /**
+     * Process all the input files.
+     *
+     * @return the summary
+     */
+    public BatchSummary process() {
+        long startTime = System.currentTimeMillis();
+
+        List<BatchInput> inputList = findFiles();
+        List<BatchFileResult> resultList = new ArrayList<>();
+
+        TaskManager.getInstance().setPoolSize(TaskManager.BATCH_POOL, options.getThreads());
+        List<Future<BatchFileResult>> futureList = new ArrayList<>();
+        for (BatchInput input : inputList) {
+            futureList.add(
+                    TaskManager.getInstance()
+                            .submit(TaskManager.BATCH_POOL, () -> processFile(input)));
+        }
+
+        for (int index = 0; index < futureList.size(); index++) {
+            try {
+                resultList.add(futureList.get(index).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                TaskManager.getInstance().cancel(TaskManager.BATCH_POOL);
+                resultList.addAll(
+                        createFailedResults(inputList.subList(index, inputList.size()), e));
+                break;
+            } catch (ExecutionException e) {
+                resultList.addAll(
+                        createFailedResults(
+                                inputList.subList(index, index + 1),
+                                (e.getCause() == null) ? e : e.getCause()));
+            }
+        }
+
+        return new BatchSummary(
+                options.getThreads(), System.currentTimeMillis() - startTime, resultList);
+    }
+
+    /**
+     * Create a failed result for every input file, used when files could not be processed so the
+     * failure is reported in the summary and exit code.
+     *
+     * @param inputList the input list
+     * @param cause the cause of the failure
+     * @return the results
+     */
+    private static List<BatchFileResult> createFailedResults(
+            List<BatchInput> inputList, Throwable cause) {
+        String error =
+                (cause.getMessage() == null) ? cause.getClass().getName() : cause.getMessage();
+
+        List<BatchFileResult> resultList = new ArrayList<>();
+        for (BatchInput input : inputList) {
+            BatchFileResult result = new BatchFileResult(input.file);
+            result.setError(error);
+            resultList.add(result);
+        }
+        return resultList;
+    }
+
+    /**
+     * Find the SLD and YSLD files in the input files and directory trees.
+     *
+     * @return the list of files to process
+     */
+    private List<BatchInput> findFiles() {
+        List<BatchInput> inputList = new ArrayList<>();
+
+        for (File input : options.getInputList()) {
+            if (input.isFile()) {
+                inputList.add(new BatchInput(input.getAbsoluteFile().getParentFile(), input));
+            } else {
+                try (Stream<Path> stream = Files.walk(input.toPath())) {
+                    stream.filter(path -> Files.isRegularFile(path) && isSupported(path.toFile()))
+                            .sorted()
+                            .forEach(path -> inputList.add(new BatchInput(input, path.toFile())));
+                } catch (IOException e) {
+                    ConsoleManager.getInstance().exception(this, e);
+                }
+            }
+        }
+        return inputList;
+    }
+
+    /**
+     * Checks if the file is a style file that can be processed.
+     *
+     * @param file the file
+     * @return true, if supported
+     */
+    private static boolean isSupported(File file) {
+        String fileExtension = ExternalFilenames.getFileExtension(file.getName());
+
+        return fileExtension.equalsIgnoreCase(SLDEditorFile.getSLDFileExtension())
+                || fileExtension.equalsIgnoreCase(YSLD_FILE_EXTENSION);
+    }
+
+    /**
+     * Process a single file, called in parallel.
+     *
+     * @param input the input
+     * @return the result
+     */
+    private BatchFileResult processFile(BatchInput input) {
+        BatchFileResult result = new BatchFileResult(input.file);
+        long fileStartTime = System.currentTimeMillis();
+
+        try {
+            long startTime = System.currentTimeMillis();
+            SLDDataInterface sldData = readFile(input.file);
+            StyledLayerDescriptor sld = parse(sldData);
+            result.setParseTime(System.currentTimeMillis() - startTime);
+
+            if (sld == null) {
+                result.setError(
+                        Localisation.getString(SLDEditorBatch.class, "SLDEditorBatch.parseError"));
+            } else {
+                String layerName = sldData.getLayerNameWithOutSuffix();
+                File destinationFolder = getDestinationFolder(input);
+
+                if (writer != null) {
+                    startTime = System.currentTimeMillis();
+                    convert(sldData, sld, destinationFolder, layerName, result);
+                    result.setConvertTime(System.currentTimeMillis() - startTime);
+                }
+
+                if (options.isLegend()) {
+                    startTime = System.currentTimeMillis();
+                    createLegend(sld, destinationFolder, layerName, result);
+                    result.setLegendTime(System.currentTimeMillis() - startTime);
+                }
+
+                if (options.isCheck()) {
+                    startTime = System.currentTimeMillis();
+                    checkAttributes(sldData, sld, result);
+                    result.setCheckTime(System.currentTimeMillis() - startTime);
+                }
+
+                result.setSuccess(result.getError() == null);
+            }
+        } catch (IOException | RuntimeException e) {
+            result.setError(e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+        }
+
+        result.setTotalTime(System.currentTimeMillis() - fileStartTime);
+
+        return result;
+    }
+
+    /**
+     * Read a style file.
+     *
+     * @param file the file
+     * @return the sld data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static SLDDataInterface readFile(File file) throws IOException {
+        Charset fileEncoding = PrefManager.getInstance().getPrefData().getFileEncoding();
+
+        String contents = new String(Files.readAllBytes(file.toPath()), fileEncoding);
+
+        SLDDataInterface sldData = new SLDData(new StyleWrapper(file.getName()), contents);
+        sldData.setSLDFile(file);
+        sldData.setReadOnly(true);
+
+        String fileExtension = ExternalFilenames.getFileExtension(file.getName());
+        sldData.setOriginalFormat(
+                fileExtension.equalsIgnoreCase(YSLD_FILE_EXTENSION)
+                        ? SLDOutputFormatEnum.YSLD
+                        : SLDOutputFormatEnum.SLD);
+
+        return sldData;
+    }
+
+    /**
+     * Parse a style.
+     *
+     * @param sldData the sld data
+     * @return the styled layer descriptor, null if the style could not be parsed
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static StyledLayerDescriptor parse(SLDDataInterface sldData) throws IOException {
+        if (sldData.getOriginalFormat() == SLDOutputFormatEnum.YSLD) {
+            sldData.setResourceLocator(SLDUtils.getResourceLocator(sldData));
+
+            return Ysld.parse(sldData.getSld());
+        }
+        return SLDUtils.createSLDFromString(sldData);
+    }
+
+    /**
+     * Gets the destination folder, the output folder mirrors the layout of the input folder.
+     *
+     * @param input the input
+     * @return the destination folder
+     */
+    private File getDestinationFolder(BatchInput input) {
+        File outputFolder = options.getOutputFolder();
+        if (outputFolder == null) {
+            return null;
+        }
+
+        File parentFolder = input.file.getAbsoluteFile().getParentFile();
+        Path relativePath = input.root.getAbsoluteFile().toPath().relativize(parentFolder.toPath());
+
+        return new File(outputFolder, relativePath.toString());
+    }
+
+    /**
+     * Convert a style to the output format and write it to the destination folder.
+     *
+     * @param sldData the sld data
+     * @param sld the sld
+     * @param destinationFolder the destination folder
+     * @param layerName the layer name
+     * @param result the result
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void convert(
+            SLDDataInterface sldData,
+            StyledLayerDescriptor sld,
+            File destinationFolder,
+            String layerName,
+            BatchFileResult result)
+            throws IOException {
+        String encodedString = writer.encodeSLD(sldData.getResourceLocator(), sld);
+
+        String fileExtension =
+                (options.getOutputFormat() == SLDOutputFormatEnum.YSLD)
+                        ? YSLD_FILE_EXTENSION
+                        : SLDEditorFile.getSLDFileExtension();
+
+        Files.createDirectories(destinationFolder.toPath());
+        File fileToSave =
+                new File(
+                        destinationFolder,
+                        layerName + ExternalFilenames.addFileExtensionSeparator(fileExtension));
+
+        Charset fileEncoding = PrefManager.getInstance().getPrefData().getFileEncoding();
+        Files.write(fileToSave.toPath(), encodedString.getBytes(fileEncoding));
+
+        result.addOutputFile(fileToSave.getPath());
+    }
+
+    /**
+     * Create the legend image for a style.
+     *
+     * @param sld the sld
+     * @param destinationFolder the destination folder
+     * @param layerName the layer name
+     * @param result the result
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void createLegend(
+            StyledLayerDescriptor sld,
+            File destinationFolder,
+            String layerName,
+            BatchFileResult result)
+            throws IOException {
+        Files.createDirectories(destinationFolder.toPath());
+
+        List<String> filenameList = new ArrayList<>();
+        boolean ok;
+        synchronized (LEGEND_LOCK) {
+            ok =
+                    LegendManager.getInstance()
+                            .saveLegendImage(
+                                    sld, destinationFolder, layerName, null, null, filenameList);
+        }
+
+        for (String filename : filenameList) {
+            result.addOutputFile(filename);
+        }
+
+        if (!ok) {
+            result.setError(
+                    Localisation.getString(SLDEditorBatch.class, "SLDEditorBatch.legendError"));
+        }
+    }
+
+    /**
+     * Report the attributes referenced by a style, if the attributes provided by the data source
+     * are known the attribute checks are run and any missing attributes are reported.
+     *
+     * @param sldData the sld data
+     * @param sld the sld
+     * @param result the result
+     */
+    private void checkAttributes(
+            SLDDataInterface sldData, StyledLayerDescriptor sld, BatchFileResult result) {
+        ExtractAttributes extract = new ExtractAttributes();
+        extract.extractDefaultFields(sld);
+        List<DataSourceAttributeData> sldFieldList = extract.getFields();
+
+        List<String> attributeList = new ArrayList<>();
+        for (DataSourceAttributeData sldField : sldFieldList) {
+            attributeList.add(sldField.getName());
+        }
+        result.setAttributes(attributeList);
+
+        List<String> availableList = options.getAttributeList();
+        if (availableList != null) {
+            List<DataSourceAttributeData> fieldList = new ArrayList<>();
+            List<String> missingList = new ArrayList<>();
+
+            for (DataSourceAttributeData sldField : sldFieldList) {
+                if (availableList.contains(sldField.getName())) {
+                    fieldList.add(new DataSourceAttributeData(sldField));
+                } else {
+                    missingList.add(sldField.getName());
+                }
+            }
+            sldData.setFieldList(fieldList);
+            result.setMissingAttributes(missingList);
+
+            BatchEditorFile editorFile = new BatchEditorFile(sldData, sld);
+            for (CheckAttributeInterface check : CheckAttributeFactory.getCheckList()) {
+                check.checkAttributes(editorFile);
+            }
+
+            if (!missingList.isEmpty()) {
+                result.setError(
+                        Localisation.getString(
+                                        SLDEditorBatch.class, "SLDEditorBatch.missingAttributes")
+                                + " "
+                                + String.join(", ", missingList));
+            }
+        }
+    }
+}
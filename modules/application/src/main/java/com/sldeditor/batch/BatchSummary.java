@@ -0,0 +1,155 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.batch;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.List;
+
+/**
+ * The machine readable summary of a batch run, written as JSON.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BatchSummary {
+
+    /** The Constant MILLISECONDS_PER_SECOND. */
+    private static final double MILLISECONDS_PER_SECOND = 1000.0;
+
+    /** The number of threads used. */
+    private final int threads;
+
+    /** The number of files processed. */
+    private final int total;
+
+    /** The number of files processed successfully. */
+    private final int succeeded;
+
+    /** The number of files that failed. */
+    private final int failed;
+
+    /** The elapsed time in milliseconds. */
+    private final long elapsedTime;
+
+    /** The files processed per second. */
+    private final double filesPerSecond;
+
+    /** The per file results. */
+    private final List<BatchFileResult> files;
+
+    /**
+     * Instantiates a new batch summary.
+     *
+     * @param threads the number of threads used
+     * @param elapsedTime the elapsed time in milliseconds
+     * @param files the per file results
+     */
+    public BatchSummary(int threads, long elapsedTime, List<BatchFileResult> files) {
+        this.threads = threads;
+        this.elapsedTime = elapsedTime;
+        this.files = files;
+        this.total = files.size();
+
+        int count = 0;
+        for (BatchFileResult result : files) {
+            if (result.isSuccess()) {
+                count++;
+            }
+        }
+        this.succeeded = count;
+        this.failed = total - count;
+        this.filesPerSecond =
+                (elapsedTime > 0) ? (total * MILLISECONDS_PER_SECOND / elapsedTime) : 0.0;
+    }
+
+    /**
+     * Gets the number of threads used.
+     *
+     * @return the threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the number of files processed.
+     *
+     * @return the total
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of files processed successfully.
+     *
+     * @return the succeeded count
+     */
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Gets the number of files that failed.
+     *
+     * @return the failed count
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the elapsed time.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Gets the files processed per second.
+     *
+     * @return the files per second
+     */
+    public double getFilesPerSecond() {
+        return filesPerSecond;
+    }
+
+    /**
+     * Gets the per file results.
+     *
+     * @return the files
+     */
+    public List<BatchFileResult> getFiles() {
+        return files;
+    }
+
+    /**
+     * Convert the summary to JSON.
+     *
+     * @return the JSON string
+     */
+    public String toJson() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        return gson.toJson(this);
+    }
+}
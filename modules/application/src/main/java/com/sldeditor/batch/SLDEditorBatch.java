@@ -0,0 +1,105 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.batch;
+
+import com.sldeditor.common.localisation.Localisation;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Headless entry point, processes directory trees of styles from the command line without
+ * creating any windows, docking frames or setting the look and feel.
+ *
+ * <p>Usage: SLDEditorBatch [--input] &lt;file or folder&gt;... [--output &lt;folder&gt;]
+ * [--format sld|ysld] [--legend] [--check] [--attributes a,b,c] [--threads n] [--summary
+ * &lt;file&gt;]
+ *
+ * <p>A JSON summary with per file timings is written to standard out or the summary file. The
+ * exit code is 0 if all files were processed successfully, 1 if any failed and 2 if the arguments
+ * were invalid.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SLDEditorBatch {
+
+    /** The Constant EXIT_OK. */
+    public static final int EXIT_OK = 0;
+
+    /** The Constant EXIT_FAILED, returned when at least one file failed. */
+    public static final int EXIT_FAILED = 1;
+
+    /** The Constant EXIT_INVALID_ARGUMENTS. */
+    public static final int EXIT_INVALID_ARGUMENTS = 2;
+
+    /** Default constructor. */
+    private SLDEditorBatch() {
+        // Default constructor
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Run the batch.
+     *
+     * @param args the command line arguments
+     * @param out the stream the summary is written to if no summary file is specified
+     * @param err the stream errors are written to
+     * @return the exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        BatchOptions options;
+        try {
+            options = BatchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(Localisation.getString(SLDEditorBatch.class, "SLDEditorBatch.usage"));
+            return EXIT_INVALID_ARGUMENTS;
+        }
+
+        BatchSummary summary = new BatchProcessor(options).process();
+
+        String json = summary.toJson();
+        File summaryFile = options.getSummaryFile();
+        if (summaryFile == null) {
+            out.println(json);
+        } else {
+            try {
+                Files.write(summaryFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                err.println(e.getMessage());
+                return EXIT_FAILED;
+            }
+        }
+
+        return (summary.getFailed() > 0) ? EXIT_FAILED : EXIT_OK;
+    }
+}
@@ -24,6 +24,7 @@ import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.output.SLDOutputFormatEnum;
 import com.sldeditor.common.vendoroption.VersionData;
 import com.sldeditor.datasource.attribute.DataSourceAttributeData;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
 import com.sldeditor.filter.v2.envvar.EnvVar;
 import com.sldeditor.ui.legend.option.LegendOptionData;
 import java.io.File;
@@ -219,6 +220,20 @@ public interface SLDDataInterface {
      */
     void setLegendOptions(LegendOptionData legendOptions);
 
+    /**
+     * Gets the data source sampling options.
+     *
+     * @return the sampling options
+     */
+    DataSourceSamplingOptions getSamplingOptions();
+
+    /**
+     * Sets the data source sampling options.
+     *
+     * @param samplingOptions the new sampling options
+     */
+    void setSamplingOptions(DataSourceSamplingOptions samplingOptions);
+
     /**
      * Sets the resource locator.
      *
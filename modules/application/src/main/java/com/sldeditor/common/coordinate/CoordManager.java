@@ -21,6 +21,7 @@ package com.sldeditor.common.coordinate;
 
 import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
 import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VendorOptionVersion;
 import com.sldeditor.ui.widgets.ValueComboBoxData;
@@ -100,9 +101,7 @@ public class CoordManager {
     public void populateCRSList() {
 
         if (isPopulated()) {
-            Runnable runnable = () -> processCRSEntry();
-            Thread thread = new Thread(runnable);
-            thread.start();
+            TaskManager.getInstance().submit(TaskManager.BACKGROUND_POOL, () -> processCRSEntry());
         }
     }
 
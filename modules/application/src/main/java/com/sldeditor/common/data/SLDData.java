@@ -26,6 +26,7 @@ import com.sldeditor.common.output.SLDOutputFormatEnum;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.common.vendoroption.VersionData;
 import com.sldeditor.datasource.attribute.DataSourceAttributeData;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
 import com.sldeditor.filter.v2.envvar.EnvVar;
 import com.sldeditor.ui.legend.option.LegendOptionData;
 import java.io.File;
@@ -87,6 +88,9 @@ public class SLDData implements SLDDataInterface {
     /** The legend options. */
     private LegendOptionData legendOptions = new LegendOptionData();
 
+    /** The data source sampling options. */
+    private DataSourceSamplingOptions samplingOptions = new DataSourceSamplingOptions();
+
     /** The resource locator. */
     private URL resourceLocator = null;
 
@@ -397,6 +401,30 @@ public class SLDData implements SLDDataInterface {
         }
     }
 
+    /**
+     * Gets the data source sampling options.
+     *
+     * @return the samplingOptions
+     */
+    @Override
+    public DataSourceSamplingOptions getSamplingOptions() {
+        return samplingOptions;
+    }
+
+    /**
+     * Sets the data source sampling options.
+     *
+     * @param samplingOptions the samplingOptions to set
+     */
+    @Override
+    public void setSamplingOptions(DataSourceSamplingOptions samplingOptions) {
+        this.samplingOptions = samplingOptions;
+
+        if (this.samplingOptions == null) {
+            this.samplingOptions = new DataSourceSamplingOptions();
+        }
+    }
+
     /**
      * Sets the resource locator.
      *
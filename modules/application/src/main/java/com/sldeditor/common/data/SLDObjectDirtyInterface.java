@@ -0,0 +1,39 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.data;
+
+/**
+ * Interface implemented by classes that need to know when part of the SLD structure has been
+ * modified, e.g. to invalidate anything cached for it.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface SLDObjectDirtyInterface {
+
+    /**
+     * Called when an SLD object has been modified or replaced.
+     *
+     * @param sldObject the modified SLD object, may be a rule, symbolizer, feature type style etc.
+     */
+    void sldObjectDirty(Object sldObject);
+
+    /** Called when the whole SLD has changed, everything should be treated as modified. */
+    void sldAllDirty();
+}
@@ -74,6 +74,9 @@ public class SelectedSymbol {
     /** The tree update listener. */
     private List<SLDTreeUpdatedInterface> treeUpdateListenerList = new ArrayList<>();
 
+    /** The listeners notified when part of the SLD is modified. */
+    private List<SLDObjectDirtyInterface> dirtyListenerList = new ArrayList<>();
+
     /** The filename. */
     private String filename = null;
 
@@ -151,6 +154,7 @@ public class SelectedSymbol {
     public void setSld(StyledLayerDescriptor sld) {
         this.sld = sld;
         symbolData.resetData();
+        fireAllDirty();
     }
 
     /**
@@ -390,6 +394,7 @@ public class SelectedSymbol {
         } else {
             List<Symbolizer> symbolizerList = this.symbolData.getRule().symbolizers();
             symbolizerList.add(newSymbolizer);
+            fireDirty(this.symbolData.getRule());
         }
     }
 
@@ -438,6 +443,8 @@ public class SelectedSymbol {
             setRule(newRule);
         }
 
+        fireDirty(oldRule);
+
         for (SLDTreeUpdatedInterface listener : treeUpdateListenerList) {
             listener.updateNode(oldRule, newRule);
         }
@@ -470,6 +477,8 @@ public class SelectedSymbol {
             setFeatureTypeStyle(newFTS);
         }
 
+        fireDirty(oldFTS);
+
         for (SLDTreeUpdatedInterface listener : treeUpdateListenerList) {
             listener.updateNode(oldFTS, newFTS);
         }
@@ -506,6 +515,8 @@ public class SelectedSymbol {
             setStyledLayer(newNamedLayer);
         }
 
+        fireDirty(oldNamedLayer);
+
         for (SLDTreeUpdatedInterface listener : treeUpdateListenerList) {
             listener.updateNode(oldNamedLayer, newNamedLayer);
         }
@@ -542,6 +553,8 @@ public class SelectedSymbol {
             setStyledLayer(newUserLayer);
         }
 
+        fireDirty(oldUserLayer);
+
         for (SLDTreeUpdatedInterface listener : treeUpdateListenerList) {
             listener.updateNode(oldUserLayer, newUserLayer);
         }
@@ -575,6 +588,9 @@ public class SelectedSymbol {
                 setSymbolizer(newSymbolizer);
             }
 
+            // Symbolizer is replaced within the existing rule
+            fireDirty(this.symbolData.getRule());
+
             for (SLDTreeUpdatedInterface listener : treeUpdateListenerList) {
                 listener.updateNode(oldSymbolizer, newSymbolizer);
             }
@@ -609,6 +625,8 @@ public class SelectedSymbol {
             setStyle(newStyle);
         }
 
+        fireDirty(oldStyle);
+
         for (SLDTreeUpdatedInterface listener : treeUpdateListenerList) {
             listener.updateNode(oldStyle, newStyle);
         }
@@ -643,6 +661,38 @@ public class SelectedSymbol {
         }
     }
 
+    /**
+     * Adds the listener notified when part of the SLD is modified.
+     *
+     * @param listener the listener
+     */
+    public void addDirtyListener(SLDObjectDirtyInterface listener) {
+        if (!dirtyListenerList.contains(listener)) {
+            dirtyListenerList.add(listener);
+        }
+    }
+
+    /**
+     * Notify listeners that an SLD object has been modified, called directly when the SLD
+     * structure has been changed in place, e.g. by an undo/redo.
+     *
+     * @param sldObject the modified SLD object
+     */
+    public void fireDirty(Object sldObject) {
+        if (sldObject != null) {
+            for (SLDObjectDirtyInterface listener : dirtyListenerList) {
+                listener.sldObjectDirty(sldObject);
+            }
+        }
+    }
+
+    /** Notify listeners that the whole SLD has changed. */
+    private void fireAllDirty() {
+        for (SLDObjectDirtyInterface listener : dirtyListenerList) {
+            listener.sldAllDirty();
+        }
+    }
+
     /**
      * Adds the new rule.
      *
@@ -745,6 +795,7 @@ public class SelectedSymbol {
 
         if (indexFound > -1) {
             symbolizerList.remove(indexFound);
+            fireDirty(this.symbolData.getRule());
         }
     }
 
@@ -896,6 +947,7 @@ public class SelectedSymbol {
      */
     public void createNewSLD(StyledLayerDescriptor newSLD) {
         this.sld = newSLD;
+        fireAllDirty();
     }
 
     /**
@@ -957,6 +1009,7 @@ public class SelectedSymbol {
             if (selectedSymbolizer instanceof RasterSymbolizer) {
                 RasterSymbolizer rasterSymbolizer = (RasterSymbolizer) selectedSymbolizer;
                 rasterSymbolizer.setImageOutline(symbolizer);
+                fireDirty(this.symbolData.getRule());
             }
         }
     }
@@ -969,6 +1022,7 @@ public class SelectedSymbol {
     public void removeRasterImageOutline(RasterSymbolizer rasterSymbolizer) {
         if (rasterSymbolizer != null) {
             rasterSymbolizer.setImageOutline(null);
+            fireDirty(rasterSymbolizer);
         }
     }
 
@@ -0,0 +1,358 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.output.impl;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDExternalImages;
+import com.sldeditor.common.data.SLDObjectDirtyInterface;
+import com.sldeditor.common.output.SLDWriterInterface;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.transform.TransformerException;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.NamedLayer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.SLDTransformer;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleFactory;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.Symbolizer;
+
+/**
+ * Class that converts an SLD stored as a StyledLayerDescriptor to a SLD formatted string, caching
+ * the encoded xml of each rule so that only rules that have been modified are encoded again.
+ *
+ * <p>The SLD is encoded as a skeleton in which every rule is replaced by a placeholder. The
+ * placeholders are then replaced by the cached xml fragments. Rules are identified by object
+ * identity, a rule is re-encoded when it has not been seen before or it has been marked as dirty.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class IncrementalSLDWriterImpl implements SLDWriterInterface, SLDObjectDirtyInterface {
+
+    /** The Constant PLACEHOLDER_PREFIX. */
+    private static final String PLACEHOLDER_PREFIX = "sldeditor-rule-placeholder-";
+
+    /** The Constant PLACEHOLDER_PATTERN, matches a placeholder rule in the encoded skeleton. */
+    private static final Pattern PLACEHOLDER_PATTERN =
+            Pattern.compile(
+                    "(?m)^([ \\t]*)<(\\w+:)?Rule>\\s*<(\\w+:)?Name>("
+                            + PLACEHOLDER_PREFIX
+                            + "\\d+)</(\\w+:)?Name>\\s*</(\\w+:)?Rule>");
+
+    /** The Constant RULE_START_PATTERN. */
+    private static final Pattern RULE_START_PATTERN =
+            Pattern.compile("(?m)^([ \\t]*)<(\\w+:)?Rule>");
+
+    /** The Constant RULE_END_PATTERN. */
+    private static final Pattern RULE_END_PATTERN = Pattern.compile("</(\\w+:)?Rule>");
+
+    /** The Constant INDENTATION. */
+    private static final int INDENTATION = 2;
+
+    /** The style factory. */
+    private static StyleFactory styleFactory = CommonFactoryFinder.getStyleFactory();
+
+    /** The cached xml fragments for each rule, indentation removed. */
+    private Map<Rule, String> fragmentCache = new IdentityHashMap<>();
+
+    /** The resource locator used to encode the cached fragments. */
+    private URL cachedResourceLocator = null;
+
+    /** Default constructor. */
+    public IncrementalSLDWriterImpl() {
+        // Default constructor
+    }
+
+    /**
+     * Encode sld to a string.
+     *
+     * @param resourceLocator the resource locator
+     * @param sld the sld
+     * @return the string
+     */
+    @Override
+    public String encodeSLD(URL resourceLocator, StyledLayerDescriptor sld) {
+        String xml = "";
+
+        if (sld != null) {
+            if (!sameResourceLocator(resourceLocator)) {
+                sldAllDirty();
+                cachedResourceLocator = resourceLocator;
+            }
+
+            PlaceholderVisitor duplicator = new PlaceholderVisitor();
+            sld.accept(duplicator);
+            StyledLayerDescriptor skeleton = (StyledLayerDescriptor) duplicator.getCopy();
+
+            if (resourceLocator != null) {
+                SLDExternalImages.updateOnlineResources(resourceLocator, skeleton);
+            }
+
+            String skeletonXml = transform(skeleton);
+
+            // Only keep the fragments of rules still in the SLD
+            Map<Rule, String> updatedCache = new IdentityHashMap<>();
+            Map<String, String> placeholderMap = new HashMap<>();
+            for (Map.Entry<String, Rule> entry : duplicator.getPlaceholderMap().entrySet()) {
+                Rule rule = entry.getValue();
+                String fragment = fragmentCache.get(rule);
+                if (fragment == null) {
+                    fragment = encodeRule(resourceLocator, rule);
+                }
+                updatedCache.put(rule, fragment);
+                placeholderMap.put(entry.getKey(), fragment);
+            }
+            fragmentCache = updatedCache;
+
+            xml = splice(skeletonXml, placeholderMap);
+        }
+
+        return xml;
+    }
+
+    /**
+     * Checks whether the resource locator is the same as the one the fragments were encoded with.
+     *
+     * @param resourceLocator the resource locator
+     * @return true, if the same
+     */
+    private boolean sameResourceLocator(URL resourceLocator) {
+        if (resourceLocator == null) {
+            return (cachedResourceLocator == null);
+        }
+        return (cachedResourceLocator != null)
+                && resourceLocator.toExternalForm().equals(cachedResourceLocator.toExternalForm());
+    }
+
+    /**
+     * Encode a single rule, the rule is wrapped in a minimal SLD so that online resources are
+     * updated and namespaces are declared in the same way as the full SLD.
+     *
+     * @param resourceLocator the resource locator
+     * @param rule the rule
+     * @return the xml fragment with the indentation removed
+     */
+    private String encodeRule(URL resourceLocator, Rule rule) {
+        InlineDatastoreVisitor duplicator = new InlineDatastoreVisitor();
+        rule.accept(duplicator);
+        Rule ruleCopy = (Rule) duplicator.getCopy();
+
+        FeatureTypeStyle fts = styleFactory.createFeatureTypeStyle();
+        fts.rules().add(ruleCopy);
+        Style style = styleFactory.createStyle();
+        style.featureTypeStyles().add(fts);
+        NamedLayer namedLayer = styleFactory.createNamedLayer();
+        namedLayer.addStyle(style);
+        StyledLayerDescriptor wrapper = styleFactory.createStyledLayerDescriptor();
+        wrapper.addStyledLayer(namedLayer);
+
+        if (resourceLocator != null) {
+            SLDExternalImages.updateOnlineResources(resourceLocator, wrapper);
+        }
+
+        return extractRule(transform(wrapper));
+    }
+
+    /**
+     * Extract the rule element from the encoded wrapper SLD.
+     *
+     * @param wrapperXml the wrapper xml
+     * @return the rule xml fragment with the indentation removed
+     */
+    private static String extractRule(String wrapperXml) {
+        Matcher startMatcher = RULE_START_PATTERN.matcher(wrapperXml);
+        if (!startMatcher.find()) {
+            return "";
+        }
+        int start = startMatcher.start();
+        int indent = startMatcher.group(1).length();
+
+        int end = -1;
+        Matcher endMatcher = RULE_END_PATTERN.matcher(wrapperXml);
+        while (endMatcher.find()) {
+            end = endMatcher.end();
+        }
+        if (end < start) {
+            return "";
+        }
+
+        return reindent(wrapperXml.substring(start, end), indent, "");
+    }
+
+    /**
+     * Replace the placeholder rules in the skeleton with the xml fragments.
+     *
+     * @param skeletonXml the skeleton xml
+     * @param placeholderMap the placeholder map
+     * @return the complete xml
+     */
+    private static String splice(String skeletonXml, Map<String, String> placeholderMap) {
+        StringBuilder sb = new StringBuilder(skeletonXml.length() + placeholderMap.size() * 256);
+
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(skeletonXml);
+        int position = 0;
+        while (matcher.find()) {
+            sb.append(skeletonXml, position, matcher.start());
+            String fragment = placeholderMap.get(matcher.group(4));
+            if (fragment != null) {
+                sb.append(reindent(fragment, 0, matcher.group(1)));
+            }
+            position = matcher.end();
+        }
+        sb.append(skeletonXml, position, skeletonXml.length());
+
+        return sb.toString();
+    }
+
+    /**
+     * Change the indentation of each line of an xml fragment.
+     *
+     * @param fragment the fragment
+     * @param removeIndent the number of leading whitespace characters to remove
+     * @param addIndent the indentation to add
+     * @return the re-indented fragment
+     */
+    private static String reindent(String fragment, int removeIndent, String addIndent) {
+        String[] lines = fragment.split("\n", -1);
+        StringBuilder sb = new StringBuilder(fragment.length() + lines.length * addIndent.length());
+
+        for (int index = 0; index < lines.length; index++) {
+            String line = lines[index];
+            int remove = 0;
+            while ((remove < removeIndent)
+                    && (remove < line.length())
+                    && Character.isWhitespace(line.charAt(remove))
+                    && (line.charAt(remove) != '\r')) {
+                remove++;
+            }
+
+            if (index > 0) {
+                sb.append('\n');
+            }
+            sb.append(addIndent);
+            sb.append(line, remove, line.length());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Transform the SLD to a string.
+     *
+     * @param sld the sld
+     * @return the string
+     */
+    private String transform(StyledLayerDescriptor sld) {
+        String xml = "";
+        SLDTransformer transformer = new SLDTransformer();
+        transformer.setIndentation(INDENTATION);
+        try {
+            xml = transformer.transform(sld);
+        } catch (TransformerException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return xml;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.data.SLDObjectDirtyInterface#sldObjectDirty(java.lang.Object)
+     */
+    @Override
+    public void sldObjectDirty(Object sldObject) {
+        if (sldObject instanceof Rule) {
+            fragmentCache.remove(sldObject);
+        } else if (sldObject instanceof Symbolizer) {
+            List<Rule> dirtyRuleList = new ArrayList<>();
+            for (Rule rule : fragmentCache.keySet()) {
+                for (Symbolizer symbolizer : rule.symbolizers()) {
+                    if (symbolizer == sldObject) {
+                        dirtyRuleList.add(rule);
+                        break;
+                    }
+                }
+            }
+            for (Rule rule : dirtyRuleList) {
+                fragmentCache.remove(rule);
+            }
+        }
+        // Feature type styles, styles and layers are not cached,
+        // they are always encoded as part of the skeleton
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.data.SLDObjectDirtyInterface#sldAllDirty()
+     */
+    @Override
+    public void sldAllDirty() {
+        fragmentCache.clear();
+    }
+
+    /**
+     * Gets the number of cached rule fragments.
+     *
+     * @return the cache size
+     */
+    public int getCacheSize() {
+        return fragmentCache.size();
+    }
+
+    /** Duplicates the SLD, replacing each rule with a placeholder. */
+    private static class PlaceholderVisitor extends InlineDatastoreVisitor {
+
+        /** The placeholder name to original rule map. */
+        private Map<String, Rule> placeholderMap = new HashMap<>();
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see
+         * org.geotools.styling.visitor.DuplicatingStyleVisitor#visit(org.geotools.styling.Rule)
+         */
+        @Override
+        public void visit(Rule rule) {
+            String placeholderName = PLACEHOLDER_PREFIX + placeholderMap.size();
+            placeholderMap.put(placeholderName, rule);
+
+            Rule placeholder = sf.createRule();
+            placeholder.setName(placeholderName);
+            pages.push(placeholder);
+        }
+
+        /**
+         * Gets the placeholder map.
+         *
+         * @return the placeholder map
+         */
+        public Map<String, Rule> getPlaceholderMap() {
+            return placeholderMap;
+        }
+    }
+}
@@ -33,6 +33,12 @@ import java.util.List;
  */
 public class PrefData {
 
+    /** The Constant DEFAULT_PREVIEW_CACHE_MEMORY, in megabytes. */
+    public static final int DEFAULT_PREVIEW_CACHE_MEMORY = 256;
+
+    /** The Constant MIN_PREVIEW_CACHE_MEMORY, in megabytes. */
+    public static final int MIN_PREVIEW_CACHE_MEMORY = 16;
+
     /** The use anti alias flag. */
     private boolean useAntiAlias = false;
 
@@ -60,6 +66,9 @@ public class PrefData {
     /** The file encoding. */
     private Charset fileEncoding = Charset.forName("UTF-8");
 
+    /** The preview cache memory in megabytes. */
+    private int previewCacheMemory = DEFAULT_PREVIEW_CACHE_MEMORY;
+
     /** Default constructor. */
     public PrefData() {
         vendorOptionList.add(VendorOptionManager.getInstance().getDefaultVendorOptionVersionData());
@@ -79,6 +88,7 @@ public class PrefData {
         this.lastViewedKey = clone.lastViewedKey;
         this.checkAppVersionOnStartUp = clone.checkAppVersionOnStartUp;
         this.fileEncoding = clone.fileEncoding;
+        this.previewCacheMemory = clone.previewCacheMemory;
 
         if (clone.vendorOptionList != null) {
             this.vendorOptionList = new ArrayList<>();
@@ -229,6 +239,7 @@ public class PrefData {
         result = prime * result + ((fileEncoding == null) ? 0 : fileEncoding.hashCode());
         result = prime * result + ((lastFolderViewed == null) ? 0 : lastFolderViewed.hashCode());
         result = prime * result + ((lastViewedKey == null) ? 0 : lastViewedKey.hashCode());
+        result = prime * result + previewCacheMemory;
         result = prime * result + (saveLastFolderView ? 1231 : 1237);
         result = prime * result + ((uiLayoutClass == null) ? 0 : uiLayoutClass.hashCode());
         result = prime * result + (useAntiAlias ? 1231 : 1237);
@@ -280,6 +291,9 @@ public class PrefData {
         if (lastViewedKey != other.lastViewedKey) {
             return false;
         }
+        if (previewCacheMemory != other.previewCacheMemory) {
+            return false;
+        }
         if (saveLastFolderView != other.saveLastFolderView) {
             return false;
         }
@@ -338,4 +352,22 @@ public class PrefData {
     public void setFileEncoding(Charset fileEncoding) {
         this.fileEncoding = fileEncoding;
     }
+
+    /**
+     * Gets the memory used to cache preview data before geometries are spilled to disk.
+     *
+     * @return the preview cache memory in megabytes
+     */
+    public int getPreviewCacheMemory() {
+        return previewCacheMemory;
+    }
+
+    /**
+     * Sets the memory used to cache preview data before geometries are spilled to disk.
+     *
+     * @param previewCacheMemory the preview cache memory in megabytes
+     */
+    public void setPreviewCacheMemory(int previewCacheMemory) {
+        this.previewCacheMemory = previewCacheMemory;
+    }
 }
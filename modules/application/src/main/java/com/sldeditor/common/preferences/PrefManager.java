@@ -29,6 +29,7 @@ import com.sldeditor.common.undo.UndoInterface;
 import com.sldeditor.common.undo.UndoManager;
 import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VersionData;
+import com.sldeditor.datasource.cache.PreviewDataCache;
 import java.awt.Color;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -65,6 +66,15 @@ public class PrefManager implements UndoActionInterface {
     /** The Constant LAST_GEOSERVER_VIEWED_FIELD. */
     private static final String LAST_GEOSERVER_VIEWED_FIELD = "SldEditor.lastGeoServerViewed";
 
+    /** The Constant UNDO_MEMORY_BUDGET_FIELD, undo history budget in megabytes. */
+    private static final String UNDO_MEMORY_BUDGET_FIELD = "SldEditor.undoMemoryBudgetMB";
+
+    /** The Constant PREVIEW_CACHE_MEMORY_FIELD, preview cache memory in megabytes. */
+    private static final String PREVIEW_CACHE_MEMORY_FIELD = "SldEditor.previewCacheMemoryMB";
+
+    /** The Constant BYTES_PER_MEGABYTE. */
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
     /** The Constant CHECK_APP_VERSION_ON_STARTUP_FIELD. */
     private static final String CHECK_APP_VERSION_ON_STARTUP_FIELD =
             "SldEditor.checkAppVersionOnStartUp";
@@ -189,8 +199,22 @@ public class PrefManager implements UndoActionInterface {
 
             newPrefData.setUiLayoutClass(
                     propertyManagerInstance.getStringValue(UILAYOUT_FIELD, null));
+            newPrefData.setPreviewCacheMemory(
+                    Math.max(
+                            PrefData.MIN_PREVIEW_CACHE_MEMORY,
+                            (int)
+                                    propertyManagerInstance.getDoubleValue(
+                                            PREVIEW_CACHE_MEMORY_FIELD,
+                                            newPrefData.getPreviewCacheMemory())));
 
             setPrefData(newPrefData);
+
+            double undoMemoryBudget =
+                    propertyManagerInstance.getDoubleValue(
+                            UNDO_MEMORY_BUDGET_FIELD,
+                            UndoManager.DEFAULT_MEMORY_BUDGET / BYTES_PER_MEGABYTE);
+            UndoManager.getInstance()
+                    .setMemoryBudget((long) (undoMemoryBudget * BYTES_PER_MEGABYTE));
         }
     }
 
@@ -265,6 +289,7 @@ public class PrefManager implements UndoActionInterface {
                 newPrefData.getLastFolderViewed());
         setCheckAppVersionOnStartUp(newPrefData.isCheckAppVersionOnStartUp());
         setFileEncoding(newPrefData.getFileEncoding());
+        setPreviewCacheMemory(newPrefData.getPreviewCacheMemory());
 
         UndoManager.getInstance()
                 .addUndoEvent(new UndoEvent(this, "Preferences", oldValueObj, newPrefData));
@@ -284,6 +309,25 @@ public class PrefManager implements UndoActionInterface {
         }
     }
 
+    /**
+     * Sets the preview cache memory, applies to data sources loaded after it is set.
+     *
+     * @param previewCacheMemory the new preview cache memory in megabytes
+     */
+    private void setPreviewCacheMemory(int previewCacheMemory) {
+        PreviewDataCache.getInstance()
+                .setMaxMemory((long) (previewCacheMemory * BYTES_PER_MEGABYTE));
+
+        if (this.prefData.getPreviewCacheMemory() != previewCacheMemory) {
+            this.prefData.setPreviewCacheMemory(previewCacheMemory);
+
+            if (propertyManagerInstance != null) {
+                propertyManagerInstance.updateValue(
+                        PREVIEW_CACHE_MEMORY_FIELD, String.valueOf(previewCacheMemory));
+            }
+        }
+    }
+
     /**
      * Sets the vendor option list.
      *
@@ -56,6 +56,31 @@ public class PropertyFileFolder {
      */
     public static String getFolder(
             String userHome, String oldConfigProperties, String newConfigProperties) {
+        String folder = getConfigFolder(userHome);
+
+        File newConfigFile = new File(folder, newConfigProperties);
+
+        if (!newConfigFile.exists()) {
+            // Migrate if the file does not exist
+            File oldConfigFile = new File(oldConfigProperties);
+            if (oldConfigFile.exists()) {
+                boolean result = oldConfigFile.renameTo(newConfigFile);
+                if (!result) {
+                    // Do nothing
+                }
+            }
+        }
+        return newConfigFile.getAbsolutePath();
+    }
+
+    /**
+     * Gets the folder the configuration is stored in for the operating system, the folder is
+     * created if it does not exist.
+     *
+     * @param userHome the user home
+     * @return the config folder
+     */
+    public static String getConfigFolder(String userHome) {
         String folder = userHome;
 
         if (OSValidator.isWindows()) {
@@ -80,19 +105,6 @@ public class PropertyFileFolder {
                 f.mkdirs();
             }
         }
-
-        File newConfigFile = new File(folder, newConfigProperties);
-
-        if (!newConfigFile.exists()) {
-            // Migrate if the file does not exist
-            File oldConfigFile = new File(oldConfigProperties);
-            if (oldConfigFile.exists()) {
-                boolean result = oldConfigFile.renameTo(newConfigFile);
-                if (!result) {
-                    // Do nothing
-                }
-            }
-        }
-        return newConfigFile.getAbsolutePath();
+        return folder;
     }
 }
@@ -0,0 +1,532 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.task;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs background tasks on named, bounded thread pools so that the number of threads is
+ * controlled, threads are named after the pool they belong to and outstanding work can be
+ * cancelled and observed.
+ *
+ * <p>Pools are created on first use. Virtual threads are used if the Java runtime supports them,
+ * otherwise daemon platform threads. Idle threads are released after a short time.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class TaskManager {
+
+    /** The Constant GEOSERVER_POOL, reading catalogues from GeoServer. */
+    public static final String GEOSERVER_POOL = "geoserver";
+
+    /** The Constant UI_POOL, preparing user interface components off the event thread. */
+    public static final String UI_POOL = "ui";
+
+    /** The Constant BACKGROUND_POOL, general background work. */
+    public static final String BACKGROUND_POOL = "background";
+
+    /** The Constant WATCHER_POOL, long running file system watchers. */
+    public static final String WATCHER_POOL = "watcher";
+
+    /** The Constant MAP_POOL, rendering map preview tiles. */
+    public static final String MAP_POOL = "map";
+
+    /** The Constant RENDER_POOL, rendering stripes of a single image in parallel. */
+    public static final String RENDER_POOL = "render";
+
+    /** The Constant GRAPHIC_POOL, fetching external graphics. */
+    public static final String GRAPHIC_POOL = "graphic";
+
+    /** The Constant DATASOURCE_POOL, running data source connections one at a time. */
+    public static final String DATASOURCE_POOL = "datasource";
+
+    /**
+     * The Constant ANALYSIS_POOL, evaluating style rules against batches of features and scanning
+     * raster values.
+     */
+    public static final String ANALYSIS_POOL = "analysis";
+
+    /** The Constant PREVIEW_POOL, rendering the symbol preview and preparing the map preview. */
+    public static final String PREVIEW_POOL = "preview";
+
+    /** The Constant CONVERT_POOL, parsing and encoding batches of styles. */
+    public static final String CONVERT_POOL = "convert";
+
+    /** The Constant BATCH_POOL, processing style files from the command line. */
+    public static final String BATCH_POOL = "batch";
+
+    /** The Constant DEFAULT_POOL_SIZE, the size of pools not configured explicitly. */
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    /** The Constant THREAD_NAME_PREFIX. */
+    private static final String THREAD_NAME_PREFIX = "sldeditor-";
+
+    /** The Constant KEEP_ALIVE_SECONDS, how long idle threads are kept. */
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    /** The Constant NANOSECONDS_PER_MILLISECOND. */
+    private static final double NANOSECONDS_PER_MILLISECOND = 1000000.0;
+
+    /** The singleton instance. */
+    private static TaskManager instance = null;
+
+    /** The pool size map. */
+    private Map<String, Integer> poolSizeMap = new HashMap<>();
+
+    /** The pool map. */
+    private Map<String, TaskPool> poolMap = new LinkedHashMap<>();
+
+    /** The use virtual threads flag. */
+    private boolean useVirtualThreads = (createVirtualThreadFactory("test-") != null);
+
+    /** A task that records how long it was queued and how long it took to run. */
+    private static class TrackedTask<T> extends FutureTask<T> {
+
+        /** The pool the task was submitted to. */
+        private final TaskPool pool;
+
+        /** The time the task was submitted. */
+        private final long submitTime = System.nanoTime();
+
+        /** The time the task started, 0 if not started. */
+        private volatile long startTime = 0L;
+
+        /**
+         * Instantiates a new tracked task.
+         *
+         * @param pool the pool
+         * @param callable the callable
+         */
+        TrackedTask(TaskPool pool, Callable<T> callable) {
+            super(callable);
+            this.pool = pool;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.concurrent.FutureTask#run()
+         */
+        @Override
+        public void run() {
+            startTime = System.nanoTime();
+            pool.taskStarted(startTime - submitTime);
+            super.run();
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.concurrent.FutureTask#done()
+         */
+        @Override
+        protected void done() {
+            pool.taskDone(this);
+        }
+    }
+
+    /** A named, bounded thread pool. */
+    private static class TaskPool {
+
+        /** The pool name. */
+        private final String name;
+
+        /** The executor. */
+        private final ThreadPoolExecutor executor;
+
+        /** The tasks submitted but not yet done. */
+        private final Set<TrackedTask<?>> taskSet = ConcurrentHashMap.newKeySet();
+
+        /** The submitted count. */
+        private final AtomicLong submitted = new AtomicLong(0);
+
+        /** The completed count. */
+        private final AtomicLong completed = new AtomicLong(0);
+
+        /** The failed count. */
+        private final AtomicLong failed = new AtomicLong(0);
+
+        /** The cancelled count. */
+        private final AtomicLong cancelled = new AtomicLong(0);
+
+        /** The number of tasks started. */
+        private final AtomicLong started = new AtomicLong(0);
+
+        /** The total queue time in nanoseconds. */
+        private final AtomicLong totalQueueTime = new AtomicLong(0);
+
+        /** The maximum queue time in nanoseconds. */
+        private final AtomicLong maxQueueTime = new AtomicLong(0);
+
+        /** The total run time in nanoseconds, of tasks that have finished. */
+        private final AtomicLong totalRunTime = new AtomicLong(0);
+
+        /** The number of tasks that have finished running. */
+        private final AtomicLong finished = new AtomicLong(0);
+
+        /**
+         * Instantiates a new task pool.
+         *
+         * @param name the name
+         * @param size the size
+         * @param threadFactory the thread factory
+         */
+        TaskPool(String name, int size, ThreadFactory threadFactory) {
+            this.name = name;
+            executor =
+                    new ThreadPoolExecutor(
+                            size,
+                            size,
+                            KEEP_ALIVE_SECONDS,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(),
+                            threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * Submit a task.
+         *
+         * @param <T> the generic type
+         * @param callable the callable
+         * @return the future
+         */
+        <T> Future<T> submit(Callable<T> callable) {
+            TrackedTask<T> task = new TrackedTask<>(this, callable);
+            taskSet.add(task);
+            submitted.incrementAndGet();
+            executor.execute(task);
+            return task;
+        }
+
+        /**
+         * Record that a task has started.
+         *
+         * @param queueTime the time the task was queued, in nanoseconds
+         */
+        void taskStarted(long queueTime) {
+            started.incrementAndGet();
+            totalQueueTime.addAndGet(queueTime);
+            maxQueueTime.accumulateAndGet(queueTime, Math::max);
+        }
+
+        /**
+         * Record that a task is done, exceptions thrown by the task are reported to the console.
+         *
+         * @param task the task
+         */
+        void taskDone(TrackedTask<?> task) {
+            taskSet.remove(task);
+            executor.remove(task);
+
+            if (task.startTime != 0L) {
+                finished.incrementAndGet();
+                totalRunTime.addAndGet(System.nanoTime() - task.startTime);
+            }
+
+            if (task.isCancelled()) {
+                cancelled.incrementAndGet();
+                return;
+            }
+
+            try {
+                task.get();
+                completed.incrementAndGet();
+            } catch (ExecutionException e) {
+                failed.incrementAndGet();
+                ConsoleManager.getInstance().exception(TaskManager.class, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CancellationException e) {
+                cancelled.incrementAndGet();
+            }
+        }
+
+        /**
+         * Cancel all tasks, running tasks are interrupted.
+         *
+         * @return the number of tasks cancelled
+         */
+        int cancel() {
+            int count = 0;
+            for (TrackedTask<?> task : new ArrayList<>(taskSet)) {
+                if (task.cancel(true)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Gets the metrics.
+         *
+         * @return the metrics
+         */
+        TaskPoolMetrics getMetrics() {
+            long startedCount = started.get();
+            long finishedCount = finished.get();
+            return new TaskPoolMetrics(
+                    name,
+                    executor.getMaximumPoolSize(),
+                    executor.getActiveCount(),
+                    executor.getQueue().size(),
+                    submitted.get(),
+                    completed.get(),
+                    failed.get(),
+                    cancelled.get(),
+                    average(totalQueueTime.get(), startedCount),
+                    maxQueueTime.get() / NANOSECONDS_PER_MILLISECOND,
+                    average(totalRunTime.get(), finishedCount));
+        }
+
+        /**
+         * Calculate an average in milliseconds.
+         *
+         * @param total the total in nanoseconds
+         * @param count the count
+         * @return the average in milliseconds
+         */
+        private static double average(long total, long count) {
+            return (count == 0) ? 0.0 : (total / NANOSECONDS_PER_MILLISECOND) / count;
+        }
+    }
+
+    /**
+     * Gets the single instance of TaskManager.
+     *
+     * @return single instance of TaskManager
+     */
+    public static synchronized TaskManager getInstance() {
+        if (instance == null) {
+            instance = new TaskManager();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance, outstanding tasks are cancelled. */
+    public static synchronized void destroyInstance() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private TaskManager() {
+        poolSizeMap.put(GEOSERVER_POOL, 4);
+        poolSizeMap.put(UI_POOL, 1);
+        poolSizeMap.put(BACKGROUND_POOL, 2);
+        poolSizeMap.put(WATCHER_POOL, 1);
+        poolSizeMap.put(MAP_POOL, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        poolSizeMap.put(RENDER_POOL, Runtime.getRuntime().availableProcessors());
+        poolSizeMap.put(GRAPHIC_POOL, 4);
+        poolSizeMap.put(DATASOURCE_POOL, 1);
+        poolSizeMap.put(ANALYSIS_POOL, Runtime.getRuntime().availableProcessors());
+        poolSizeMap.put(PREVIEW_POOL, 2);
+        poolSizeMap.put(CONVERT_POOL, Runtime.getRuntime().availableProcessors());
+        poolSizeMap.put(BATCH_POOL, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sets the maximum number of threads in a pool.
+     *
+     * @param poolName the pool name
+     * @param size the size
+     */
+    public synchronized void setPoolSize(String poolName, int size) {
+        int poolSize = Math.max(1, size);
+        poolSizeMap.put(poolName, poolSize);
+
+        TaskPool pool = poolMap.get(poolName);
+        if (pool != null) {
+            if (poolSize > pool.executor.getMaximumPoolSize()) {
+                pool.executor.setMaximumPoolSize(poolSize);
+                pool.executor.setCorePoolSize(poolSize);
+            } else {
+                pool.executor.setCorePoolSize(poolSize);
+                pool.executor.setMaximumPoolSize(poolSize);
+            }
+        }
+    }
+
+    /**
+     * Submit a task to a pool.
+     *
+     * @param poolName the pool name
+     * @param task the task
+     * @return the future, can be used to cancel the task
+     */
+    public Future<?> submit(String poolName, Runnable task) {
+        return submit(
+                poolName,
+                () -> {
+                    task.run();
+                    return null;
+                });
+    }
+
+    /**
+     * Submit a task to a pool.
+     *
+     * @param <T> the generic type
+     * @param poolName the pool name
+     * @param task the task
+     * @return the future, can be used to cancel the task
+     */
+    public <T> Future<T> submit(String poolName, Callable<T> task) {
+        return getPool(poolName).submit(task);
+    }
+
+    /**
+     * Cancel all the outstanding tasks in a pool, running tasks are interrupted.
+     *
+     * @param poolName the pool name
+     * @return the number of tasks cancelled
+     */
+    public int cancel(String poolName) {
+        TaskPool pool;
+        synchronized (this) {
+            pool = poolMap.get(poolName);
+        }
+        return (pool == null) ? 0 : pool.cancel();
+    }
+
+    /**
+     * Gets the metrics of a pool.
+     *
+     * @param poolName the pool name
+     * @return the metrics, null if the pool has not been used
+     */
+    public synchronized TaskPoolMetrics getMetrics(String poolName) {
+        TaskPool pool = poolMap.get(poolName);
+        return (pool == null) ? null : pool.getMetrics();
+    }
+
+    /**
+     * Gets the metrics of all the pools that have been used.
+     *
+     * @return the metrics list
+     */
+    public synchronized List<TaskPoolMetrics> getMetrics() {
+        List<TaskPoolMetrics> metricsList = new ArrayList<>();
+        for (TaskPool pool : poolMap.values()) {
+            metricsList.add(pool.getMetrics());
+        }
+        return metricsList;
+    }
+
+    /**
+     * Checks if tasks are run on virtual threads.
+     *
+     * @return true, if virtual threads are used
+     */
+    public boolean isUsingVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /** Shut down all the pools, outstanding tasks are cancelled. */
+    public synchronized void shutdown() {
+        for (TaskPool pool : poolMap.values()) {
+            pool.cancel();
+            pool.executor.shutdownNow();
+        }
+        poolMap.clear();
+    }
+
+    /**
+     * Gets a pool, creating it if necessary.
+     *
+     * @param poolName the pool name
+     * @return the pool
+     */
+    private synchronized TaskPool getPool(String poolName) {
+        TaskPool pool = poolMap.get(poolName);
+        if (pool == null) {
+            int size = poolSizeMap.getOrDefault(poolName, DEFAULT_POOL_SIZE);
+            pool = new TaskPool(poolName, size, createThreadFactory(poolName));
+            poolMap.put(poolName, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Creates the thread factory for a pool.
+     *
+     * @param poolName the pool name
+     * @return the thread factory
+     */
+    private ThreadFactory createThreadFactory(String poolName) {
+        final String threadNamePrefix = THREAD_NAME_PREFIX + poolName + "-";
+
+        if (useVirtualThreads) {
+            ThreadFactory threadFactory = createVirtualThreadFactory(threadNamePrefix);
+            if (threadFactory != null) {
+                return threadFactory;
+            }
+        }
+
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates a virtual thread factory, looked up reflectively as virtual threads are not
+     * available in all supported Java versions.
+     *
+     * @param threadNamePrefix the thread name prefix
+     * @return the thread factory, null if virtual threads are not supported
+     */
+    private static ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder =
+                    builderClass
+                            .getMethod("name", String.class, long.class)
+                            .invoke(builder, threadNamePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
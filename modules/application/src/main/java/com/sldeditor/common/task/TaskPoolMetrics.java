@@ -0,0 +1,223 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.task;
+
+/**
+ * Snapshot of the metrics of a TaskManager thread pool.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class TaskPoolMetrics {
+
+    /** The pool name. */
+    private final String poolName;
+
+    /** The maximum number of threads. */
+    private final int poolSize;
+
+    /** The number of tasks running. */
+    private final int activeCount;
+
+    /** The number of tasks waiting to run. */
+    private final int queueDepth;
+
+    /** The number of tasks submitted. */
+    private final long submitted;
+
+    /** The number of tasks completed successfully. */
+    private final long completed;
+
+    /** The number of tasks that threw an exception. */
+    private final long failed;
+
+    /** The number of tasks cancelled. */
+    private final long cancelled;
+
+    /** The average time tasks waited before running, in milliseconds. */
+    private final double averageQueueTime;
+
+    /** The longest time a task waited before running, in milliseconds. */
+    private final double maxQueueTime;
+
+    /** The average time tasks took to run, in milliseconds. */
+    private final double averageRunTime;
+
+    /**
+     * Instantiates a new task pool metrics.
+     *
+     * @param poolName the pool name
+     * @param poolSize the pool size
+     * @param activeCount the active count
+     * @param queueDepth the queue depth
+     * @param submitted the submitted count
+     * @param completed the completed count
+     * @param failed the failed count
+     * @param cancelled the cancelled count
+     * @param averageQueueTime the average queue time in milliseconds
+     * @param maxQueueTime the maximum queue time in milliseconds
+     * @param averageRunTime the average run time in milliseconds
+     */
+    public TaskPoolMetrics(
+            String poolName,
+            int poolSize,
+            int activeCount,
+            int queueDepth,
+            long submitted,
+            long completed,
+            long failed,
+            long cancelled,
+            double averageQueueTime,
+            double maxQueueTime,
+            double averageRunTime) {
+        this.poolName = poolName;
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.queueDepth = queueDepth;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.failed = failed;
+        this.cancelled = cancelled;
+        this.averageQueueTime = averageQueueTime;
+        this.maxQueueTime = maxQueueTime;
+        this.averageRunTime = averageRunTime;
+    }
+
+    /**
+     * Gets the pool name.
+     *
+     * @return the pool name
+     */
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * Gets the maximum number of threads.
+     *
+     * @return the pool size
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Gets the number of tasks running.
+     *
+     * @return the active count
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Gets the number of tasks waiting to run.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the number of tasks submitted.
+     *
+     * @return the submitted count
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Gets the number of tasks completed successfully.
+     *
+     * @return the completed count
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of tasks that threw an exception.
+     *
+     * @return the failed count
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the number of tasks cancelled.
+     *
+     * @return the cancelled count
+     */
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the average time tasks waited before running.
+     *
+     * @return the average queue time in milliseconds
+     */
+    public double getAverageQueueTime() {
+        return averageQueueTime;
+    }
+
+    /**
+     * Gets the longest time a task waited before running.
+     *
+     * @return the maximum queue time in milliseconds
+     */
+    public double getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    /**
+     * Gets the average time tasks took to run.
+     *
+     * @return the average run time in milliseconds
+     */
+    public double getAverageRunTime() {
+        return averageRunTime;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%s : size %d, active %d, queued %d, submitted %d, completed %d, failed %d,"
+                        + " cancelled %d, queue time %.1f/%.1f ms (avg/max), run time %.1f ms",
+                poolName,
+                poolSize,
+                activeCount,
+                queueDepth,
+                submitted,
+                completed,
+                failed,
+                cancelled,
+                averageQueueTime,
+                maxQueueTime,
+                averageRunTime);
+    }
+}
@@ -33,6 +33,15 @@ import org.apache.log4j.Logger;
  */
 public class UndoManager {
 
+    /** The Constant DEFAULT_MEMORY_BUDGET, the default maximum size of the undo history. */
+    public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024L * 1024L;
+
+    /** The Constant EVENT_OVERHEAD, the estimated size of an undo event excluding values. */
+    private static final long EVENT_OVERHEAD = 64L;
+
+    /** The Constant OBJECT_VALUE_SIZE, the estimated size of a non-string undo value. */
+    private static final long OBJECT_VALUE_SIZE = 64L;
+
     /** The listener list. */
     private List<UndoStateInterface> listenerList = new ArrayList<>();
 
@@ -54,6 +63,12 @@ public class UndoManager {
     /** The population check object. */
     private PopulatingInterface populationCheck = null;
 
+    /** The maximum estimated size of the undo history in bytes. */
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /** The estimated size of the undo history in bytes. */
+    private long memoryUsed = 0L;
+
     /** Instantiates a new undo manager. */
     private UndoManager() {
         reset();
@@ -72,6 +87,7 @@ public class UndoManager {
     private void reset() {
         currentIndex = 0;
         undoList.clear();
+        memoryUsed = 0L;
 
         updateMenuItems();
     }
@@ -101,10 +117,13 @@ public class UndoManager {
             if (!atEndOfList) {
                 while (undoList.size() > currentIndex) {
                     int lastIndex = undoList.size() - 1;
-                    undoList.remove(lastIndex);
+                    memoryUsed -= estimateSize(undoList.remove(lastIndex));
                 }
             }
             undoList.add(event);
+            memoryUsed += estimateSize(event);
+
+            trimToMemoryBudget();
 
             currentIndex = undoList.size();
 
@@ -204,6 +223,86 @@ public class UndoManager {
         this.populationCheck = populationCheck;
     }
 
+    /**
+     * Discard the oldest undo events until the undo history fits within the memory budget, the
+     * most recent event is always kept.
+     */
+    private void trimToMemoryBudget() {
+        while ((memoryUsed > memoryBudget) && (undoList.size() > 1)) {
+            memoryUsed -= estimateSize(undoList.remove(0));
+            if (currentIndex > 0) {
+                currentIndex--;
+            }
+        }
+    }
+
+    /**
+     * Estimate the memory used by an undo event. Structural changes only hold references to the
+     * objects changed so are cheap, full SLD snapshots are charged for the string contents.
+     *
+     * @param event the event
+     * @return the estimated size in bytes
+     */
+    private static long estimateSize(UndoInterface event) {
+        if (event == null) {
+            return 0L;
+        }
+        Object oldValue = event.getOldValue();
+        Object newValue = event.getNewValue();
+
+        long size = EVENT_OVERHEAD + estimateSize(oldValue);
+        if (newValue != oldValue) {
+            size += estimateSize(newValue);
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the memory used by an undo value.
+     *
+     * @param value the value
+     * @return the estimated size in bytes
+     */
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 0L;
+        } else if (value instanceof String) {
+            return 2L * ((String) value).length();
+        }
+        return OBJECT_VALUE_SIZE;
+    }
+
+    /**
+     * Sets the maximum estimated size of the undo history, the oldest undo events are discarded
+     * when it is exceeded.
+     *
+     * @param memoryBudget the memory budget in bytes
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = (memoryBudget > 0) ? memoryBudget : DEFAULT_MEMORY_BUDGET;
+
+        trimToMemoryBudget();
+        updateMenuItems();
+    }
+
+    /**
+     * Gets the maximum estimated size of the undo history.
+     *
+     * @return the memory budget in bytes
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Gets the estimated size of the undo history.
+     *
+     * @return the memory used in bytes
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
     /** Destroy instance. */
     public static void destroyInstance() {
         instance = null;
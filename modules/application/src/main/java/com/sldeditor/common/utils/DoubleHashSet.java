@@ -0,0 +1,223 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive double values using open addressing, avoids boxing every value when
+ * collecting the unique values of large data sets.
+ *
+ * <p>Values are compared by their bit patterns so all NaN values are treated as one value and 0.0
+ * and -0.0 are different values. Not thread safe.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DoubleHashSet {
+
+    /** The Constant DEFAULT_CAPACITY. */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** The Constant MAX_CAPACITY. */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /** The keys, stored as their bit patterns. */
+    private long[] keys;
+
+    /** The slots that are in use. */
+    private boolean[] used;
+
+    /** The number of values in the set. */
+    private int size = 0;
+
+    /** The number of values at which the table is grown. */
+    private int threshold;
+
+    /** Instantiates a new double hash set. */
+    public DoubleHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new double hash set.
+     *
+     * @param expectedSize the expected number of values
+     */
+    public DoubleHashSet(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while ((capacity < MAX_CAPACITY) && (capacity / 2 < expectedSize)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Allocate the hash table.
+     *
+     * @param capacity the capacity, a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        threshold = capacity / 2;
+    }
+
+    /**
+     * Mix the bits of a key to spread similar values across the table.
+     *
+     * @param bits the bits
+     * @return the hash
+     */
+    private static int hash(long bits) {
+        long h = bits;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Find the slot containing the key or the empty slot where it would be inserted.
+     *
+     * @param bits the bits
+     * @return the slot index
+     */
+    private int findSlot(long bits) {
+        int mask = keys.length - 1;
+        int index = hash(bits) & mask;
+        while (used[index] && (keys[index] != bits)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Adds the value.
+     *
+     * @param value the value
+     * @return true, if the value was not already in the set
+     */
+    public boolean add(double value) {
+        long bits = Double.doubleToLongBits(value);
+        int index = findSlot(bits);
+        if (used[index]) {
+            return false;
+        }
+
+        keys[index] = bits;
+        used[index] = true;
+        size++;
+
+        if ((size > threshold) && (keys.length < MAX_CAPACITY)) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Adds all the values in another set.
+     *
+     * @param other the other set
+     */
+    public void addAll(DoubleHashSet other) {
+        if (other == null) {
+            return;
+        }
+
+        for (int index = 0; index < other.keys.length; index++) {
+            if (other.used[index]) {
+                add(Double.longBitsToDouble(other.keys[index]));
+            }
+        }
+    }
+
+    /**
+     * Checks if the set contains the value.
+     *
+     * @param value the value
+     * @return true, if the value is in the set
+     */
+    public boolean contains(double value) {
+        return used[findSlot(Double.doubleToLongBits(value))];
+    }
+
+    /**
+     * Gets the number of values in the set.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return true, if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Remove all the values. */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Gets the values in the set in ascending order.
+     *
+     * @return the sorted values
+     */
+    public double[] toSortedArray() {
+        double[] values = new double[size];
+        int count = 0;
+        for (int index = 0; index < keys.length; index++) {
+            if (used[index]) {
+                values[count++] = Double.longBitsToDouble(keys[index]);
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Grow the hash table.
+     *
+     * @param capacity the new capacity
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+
+        allocate(capacity);
+
+        for (int index = 0; index < oldKeys.length; index++) {
+            if (oldUsed[index]) {
+                int slot = findSlot(oldKeys[index]);
+                keys[slot] = oldKeys[index];
+                used[slot] = true;
+            }
+        }
+    }
+}
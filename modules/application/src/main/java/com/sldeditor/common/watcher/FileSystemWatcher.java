@@ -20,6 +20,7 @@
 package com.sldeditor.common.watcher;
 
 import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.task.TaskManager;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
@@ -98,7 +99,7 @@ public class FileSystemWatcher implements Runnable {
     public static synchronized FileSystemWatcher getInstance() {
         if (instance == null) {
             instance = new FileSystemWatcher();
-            (new Thread(instance)).start();
+            TaskManager.getInstance().submit(TaskManager.WATCHER_POOL, instance);
         }
 
         return instance;
@@ -136,7 +137,9 @@ public class FileSystemWatcher implements Runnable {
             try {
                 key = watchService.take();
             } catch (InterruptedException e) {
-                // Do nothing
+                // Watcher task cancelled
+                Thread.currentThread().interrupt();
+                break;
             }
 
             // once a key is obtained, we poll for events on that key
@@ -24,12 +24,17 @@ import com.sldeditor.datasource.attribute.DataSourceAttributeData;
 import com.sldeditor.datasource.attribute.DataSourceAttributeListInterface;
 import com.sldeditor.datasource.checks.CheckAttributeInterface;
 import com.sldeditor.datasource.impl.CreateDataSourceInterface;
+import com.sldeditor.datasource.impl.DataSourceConnection;
+import com.sldeditor.datasource.impl.DataSourceConnectionStage;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
+import com.sldeditor.datasource.statistics.FieldStatistics;
+import com.sldeditor.datasource.statistics.FieldStatisticsService;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
 import org.geotools.data.FeatureSource;
+import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.styling.UserLayer;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -68,6 +73,44 @@ public interface DataSourceInterface {
             SLDEditorFileInterface editorFile,
             List<CheckAttributeInterface> checkList);
 
+    /**
+     * Connect to data source without blocking the event dispatch thread, any connection still
+     * running is cancelled. By default the data source is connected on the calling thread.
+     *
+     * @param typeName the type name
+     * @param editorFile the editor file
+     * @param checkList the check list
+     * @return the connection, can be used to follow progress or cancel
+     */
+    default DataSourceConnection connectAsync(
+            String typeName,
+            SLDEditorFileInterface editorFile,
+            List<CheckAttributeInterface> checkList) {
+        DataSourceConnection connection = new DataSourceConnection();
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT, () -> connect(typeName, editorFile, checkList));
+        connection.start(false);
+        return connection;
+    }
+
+    /**
+     * Adds a listener told about the progress of every connection.
+     *
+     * @param listener the listener
+     */
+    default void addConnectionListener(DataSourceConnectionListener listener) {
+        // Connection progress is not reported by default
+    }
+
+    /**
+     * Removes the connection listener.
+     *
+     * @param listener the listener
+     */
+    default void removeConnectionListener(DataSourceConnectionListener listener) {
+        // Connection progress is not reported by default
+    }
+
     /** Reset. */
     void reset();
 
@@ -85,6 +128,17 @@ public interface DataSourceInterface {
      */
     FeatureSource<SimpleFeatureType, SimpleFeature> getExampleFeatureSource();
 
+    /**
+     * Gets the feature source reading all of the features of the data source, not the sample
+     * used to render previews.
+     *
+     * @return the unsampled feature source, null if there is no data store
+     */
+    default FeatureSource<SimpleFeatureType, SimpleFeature> getUnsampledFeatureSource() {
+        // Data sources that do not sample their features
+        return getFeatureSource();
+    }
+
     /**
      * Gets the attributes.
      *
@@ -193,4 +247,26 @@ public interface DataSourceInterface {
      * @param dataType the data type
      */
     void updateFieldType(String fieldName, Class<?> dataType);
+
+    /**
+     * Gets the bounds of the external data source, calculated when the data source was connected.
+     *
+     * @return the bounds, null if not known
+     */
+    default ReferencedEnvelope getBounds() {
+        return null;
+    }
+
+    /**
+     * Gets the statistics of a field of the data source, calculated from all of its features and
+     * cached until the data source is unloaded. May take a while the first time it is called for
+     * a field so should not be called on the event dispatch thread.
+     *
+     * @param fieldName the field name
+     * @return the field statistics, null if not available
+     */
+    default FieldStatistics getFieldStatistics(String fieldName) {
+        return FieldStatisticsService.getInstance()
+                .getFieldStatistics(getUnsampledFeatureSource(), fieldName);
+    }
 }
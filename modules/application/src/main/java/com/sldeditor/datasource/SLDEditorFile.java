@@ -27,6 +27,7 @@ import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VendorOptionUpdateInterface;
 import com.sldeditor.common.vendoroption.VersionData;
 import com.sldeditor.datasource.connector.DataSourceConnectorFactory;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
 import com.sldeditor.filter.v2.envvar.EnvVar;
 import com.sldeditor.filter.v2.envvar.EnvVarUpdateInterface;
@@ -247,6 +248,21 @@ public class SLDEditorFile
         }
     }
 
+    /**
+     * Sets the data source sampling options, marking the file as edited.
+     *
+     * @param samplingOptions the new sampling options
+     */
+    public void setSamplingOptions(DataSourceSamplingOptions samplingOptions) {
+        if (sldData != null) {
+            dataEditedFlag = true;
+
+            sldData.setSamplingOptions(samplingOptions);
+
+            notifySLDEditorFileHasUpdated();
+        }
+    }
+
     /**
      * Sets the sld editor filename.
      *
@@ -0,0 +1,198 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.cache;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+import org.geotools.data.DataAccess;
+import org.geotools.data.FeatureSource;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Cache of the data displayed in the map preview, so that editing a style does not query the
+ * data source again for every render.
+ *
+ * <p>The features of a data source are loaded the first time it is displayed and held in a
+ * {@link PreviewFeatureData} until the data source is unloaded. The memory cap applies to all
+ * cached data sources together, geometries beyond it are spilled to disk.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PreviewDataCache {
+
+    /** The Constant DEFAULT_MAX_MEMORY, 256Mb. */
+    public static final long DEFAULT_MAX_MEMORY = 256L * 1024L * 1024L;
+
+    /** The singleton instance. */
+    private static PreviewDataCache instance = null;
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(PreviewDataCache.class);
+
+    /** The cached feature sources, keyed by data store and type name. */
+    private Map<List<Object>, PreviewFeatureSource> cacheMap = new LinkedHashMap<>();
+
+    /** The maximum estimated memory used before geometries are spilled to disk. */
+    private long maxMemory = DEFAULT_MAX_MEMORY;
+
+    /** The spill folder, null for the default temporary folder. */
+    private File spillFolder = null;
+
+    /**
+     * Gets the single instance of PreviewDataCache.
+     *
+     * @return single instance of PreviewDataCache
+     */
+    public static synchronized PreviewDataCache getInstance() {
+        if (instance == null) {
+            instance = new PreviewDataCache();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance, all cached data is released. */
+    public static synchronized void destroyInstance() {
+        if (instance != null) {
+            instance.clear();
+        }
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private PreviewDataCache() {
+        // Private default constructor
+    }
+
+    /**
+     * Gets the cached feature source for a data source, the features are loaded if they are not
+     * already cached. If the features cannot be loaded the original feature source is returned.
+     *
+     * @param source the data source feature source
+     * @return the feature source to render
+     */
+    public synchronized FeatureSource<SimpleFeatureType, SimpleFeature> getFeatureSource(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source) {
+        if ((source == null) || (source instanceof PreviewFeatureSource)) {
+            return source;
+        }
+
+        List<Object> key = Arrays.asList(source.getDataStore(), source.getName());
+        PreviewFeatureSource cachedSource = cacheMap.get(key);
+        if (cachedSource == null) {
+            long startTime = System.currentTimeMillis();
+            try {
+                PreviewFeatureData data =
+                        PreviewFeatureData.load(
+                                source, Math.max(0, maxMemory - getEstimatedMemory()), spillFolder);
+                cachedSource = new PreviewFeatureSource(source, data);
+                cacheMap.put(key, cachedSource);
+
+                logger.info(
+                        String.format(
+                                "Cached %d features of %s in %d ms, %d spilled to disk",
+                                data.getFeatureCount(),
+                                source.getName(),
+                                System.currentTimeMillis() - startTime,
+                                data.getSpilledCount()));
+            } catch (IOException | RuntimeException e) {
+                ConsoleManager.getInstance().exception(this, e);
+                return source;
+            }
+        }
+        return cachedSource;
+    }
+
+    /**
+     * Release the cached data of a data store, called when the data store is unloaded.
+     *
+     * @param dataStore the data store
+     */
+    public synchronized void evict(DataAccess<?, ?> dataStore) {
+        Iterator<Map.Entry<List<Object>, PreviewFeatureSource>> iterator =
+                cacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<List<Object>, PreviewFeatureSource> entry = iterator.next();
+            if (entry.getKey().get(0) == dataStore) {
+                entry.getValue().getData().dispose();
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Release all the cached data. */
+    public synchronized void clear() {
+        for (PreviewFeatureSource cachedSource : cacheMap.values()) {
+            cachedSource.getData().dispose();
+        }
+        cacheMap.clear();
+    }
+
+    /**
+     * Gets the estimated memory used by all the cached data.
+     *
+     * @return the estimated memory in bytes
+     */
+    public synchronized long getEstimatedMemory() {
+        long total = 0;
+        for (PreviewFeatureSource cachedSource : cacheMap.values()) {
+            total += cachedSource.getData().getEstimatedMemory();
+        }
+        return total;
+    }
+
+    /**
+     * Sets the maximum estimated memory used before geometries are spilled to disk, applies to
+     * data loaded after it is set.
+     *
+     * @param maxMemory the maximum memory in bytes
+     */
+    public synchronized void setMaxMemory(long maxMemory) {
+        this.maxMemory = Math.max(0, maxMemory);
+    }
+
+    /**
+     * Gets the maximum estimated memory used before geometries are spilled to disk.
+     *
+     * @return the maximum memory in bytes
+     */
+    public synchronized long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Sets the folder spill files are written to.
+     *
+     * @param spillFolder the spill folder, null for the default temporary folder
+     */
+    public synchronized void setSpillFolder(File spillFolder) {
+        this.spillFolder = spillFolder;
+    }
+}
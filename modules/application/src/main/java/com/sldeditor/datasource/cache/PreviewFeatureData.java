@@ -0,0 +1,531 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.simple.SimpleFeatureBuilder;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Lineal;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * The features of a data source held in an STRtree spatial index.
+ *
+ * <p>Each geometry is stored at full resolution and at a number of generalised levels, the
+ * tolerances of which are derived from the extent of the data so that a whole data set displayed
+ * in the map preview is drawn using geometries generalised to roughly a pixel. Levels that do not
+ * remove any vertices share the geometry of the finer level.
+ *
+ * <p>Once the estimated memory used exceeds the memory cap, the geometries of the remaining
+ * features are written as WKB to a temporary spill file and read back when queried. Attribute
+ * values are always held in memory.
+ *
+ * <p>The data is read only once loaded and may be queried by multiple threads.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PreviewFeatureData {
+
+    /** The Constant GENERALISED_LEVELS. */
+    public static final int GENERALISED_LEVELS = 4;
+
+    /** The Constant COARSEST_LEVEL_PIXELS, width in pixels the coarsest level is aimed at. */
+    private static final double COARSEST_LEVEL_PIXELS = 1024.0;
+
+    /** The Constant LEVEL_FACTOR, ratio between the tolerances of adjacent levels. */
+    private static final double LEVEL_FACTOR = 4.0;
+
+    /** The Constant BYTES_PER_COORDINATE, estimated size of a coordinate. */
+    private static final long BYTES_PER_COORDINATE = 40;
+
+    /** The Constant BYTES_PER_OBJECT, estimated size of an object header and references. */
+    private static final long BYTES_PER_OBJECT = 64;
+
+    /** A feature held in the cache. */
+    private static class FeatureRecord {
+
+        /** The feature id. */
+        private final String id;
+
+        /** The attribute values, the geometry attribute is not set. */
+        private final Object[] values;
+
+        /** The geometries, full resolution followed by the generalised levels. */
+        private Geometry[] geometries;
+
+        /** The offsets of the geometries in the spill file. */
+        private long[] offsets;
+
+        /** The lengths of the geometries in the spill file. */
+        private int[] lengths;
+
+        /**
+         * Instantiates a new feature record.
+         *
+         * @param id the id
+         * @param values the values
+         */
+        FeatureRecord(String id, Object[] values) {
+            this.id = id;
+            this.values = values;
+        }
+    }
+
+    /** The schema. */
+    private final SimpleFeatureType schema;
+
+    /** The index of the geometry attribute. */
+    private final int geometryIndex;
+
+    /** The spatial index. */
+    private final STRtree index = new STRtree();
+
+    /** All the records, in the order read from the data source. */
+    private final List<FeatureRecord> recordList = new ArrayList<>();
+
+    /** The bounds. */
+    private ReferencedEnvelope bounds;
+
+    /** The generalisation tolerances, in ascending order. */
+    private final double[] tolerances = new double[GENERALISED_LEVELS];
+
+    /** The number of features whose geometries were spilled to disk. */
+    private int spilledCount = 0;
+
+    /** The estimated memory used. */
+    private long estimatedMemory = 0;
+
+    /** The spill file. */
+    private File spillFile = null;
+
+    /** The spill channel. */
+    private FileChannel spillChannel = null;
+
+    /** The geometry factory. */
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    /**
+     * Instantiates a new preview feature data.
+     *
+     * @param schema the schema
+     */
+    private PreviewFeatureData(SimpleFeatureType schema) {
+        this.schema = schema;
+        this.geometryIndex =
+                (schema.getGeometryDescriptor() == null)
+                        ? -1
+                        : schema.indexOf(schema.getGeometryDescriptor().getName());
+    }
+
+    /**
+     * Load all the features of a feature source.
+     *
+     * @param source the source
+     * @param maxMemory the maximum estimated memory to use before spilling geometries to disk
+     * @param spillFolder the folder in which to create the spill file, null for the default
+     *     temporary folder
+     * @return the preview feature data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static PreviewFeatureData load(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            long maxMemory,
+            File spillFolder)
+            throws IOException {
+        PreviewFeatureData data = new PreviewFeatureData(source.getSchema());
+
+        ReferencedEnvelope sourceBounds = source.getBounds();
+        if (sourceBounds == null) {
+            // Too costly for the data source to calculate, read the features twice
+            sourceBounds = source.getFeatures().getBounds();
+        }
+        data.bounds = sourceBounds;
+        data.calculateTolerances();
+
+        try (FeatureIterator<SimpleFeature> iterator = source.getFeatures().features()) {
+            while (iterator.hasNext()) {
+                SimpleFeature feature = iterator.next();
+                boolean spill = data.estimatedMemory > maxMemory;
+                if (spill && (data.spillChannel == null)) {
+                    data.createSpillFile(spillFolder);
+                }
+                data.add(feature, spill);
+            }
+        } catch (IOException | RuntimeException e) {
+            data.dispose();
+            throw e;
+        }
+
+        // Build now, queries from multiple threads must not build the index concurrently
+        data.index.build();
+        return data;
+    }
+
+    /** Calculate the generalisation tolerances from the extent of the data. */
+    private void calculateTolerances() {
+        double extent = 0.0;
+        if ((bounds != null) && !bounds.isNull()) {
+            extent = Math.max(bounds.getWidth(), bounds.getHeight());
+        }
+
+        double tolerance = extent / COARSEST_LEVEL_PIXELS;
+        for (int level = GENERALISED_LEVELS - 1; level >= 0; level--) {
+            tolerances[level] = tolerance;
+            tolerance /= LEVEL_FACTOR;
+        }
+    }
+
+    /**
+     * Creates the spill file.
+     *
+     * @param spillFolder the spill folder
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void createSpillFile(File spillFolder) throws IOException {
+        spillFile = File.createTempFile("sldeditor-preview", ".wkb", spillFolder);
+        spillFile.deleteOnExit();
+        spillChannel =
+                FileChannel.open(
+                        spillFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Adds a feature.
+     *
+     * @param feature the feature
+     * @param spill the spill flag, write the geometries to the spill file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void add(SimpleFeature feature, boolean spill) throws IOException {
+        Object[] values = feature.getAttributes().toArray();
+        Geometry geometry = null;
+        if (geometryIndex >= 0) {
+            geometry = (Geometry) values[geometryIndex];
+            values[geometryIndex] = null;
+        }
+
+        FeatureRecord record = new FeatureRecord(feature.getID(), values);
+        estimatedMemory += estimateSize(values);
+
+        Envelope envelope;
+        if ((geometry == null) || geometry.isEmpty()) {
+            envelope = new Envelope();
+            record.geometries = new Geometry[] {geometry};
+        } else {
+            envelope = geometry.getEnvelopeInternal();
+            Geometry[] geometries = generalise(geometry);
+            if (spill) {
+                spill(record, geometries);
+                spilledCount++;
+            } else {
+                record.geometries = geometries;
+                estimatedMemory += estimateSize(geometries);
+            }
+        }
+
+        // Records without a geometry are not indexed but are returned when querying all features
+        index.insert(envelope, record);
+        recordList.add(record);
+    }
+
+    /**
+     * Generalise a geometry to each of the levels.
+     *
+     * @param geometry the full resolution geometry
+     * @return the geometries, full resolution followed by the generalised levels
+     */
+    private Geometry[] generalise(Geometry geometry) {
+        Geometry[] geometries = new Geometry[GENERALISED_LEVELS + 1];
+        geometries[0] = geometry;
+
+        for (int level = 0; level < GENERALISED_LEVELS; level++) {
+            Geometry finer = geometries[level];
+            Geometry generalised = finer;
+            if (tolerances[level] > 0.0) {
+                if (finer instanceof Polygonal) {
+                    generalised = TopologyPreservingSimplifier.simplify(finer, tolerances[level]);
+                } else if (finer instanceof Lineal) {
+                    generalised = DouglasPeuckerSimplifier.simplify(finer, tolerances[level]);
+                }
+            }
+
+            if (generalised.isEmpty()
+                    || (generalised.getNumPoints() >= finer.getNumPoints())) {
+                // Nothing removed, share the finer geometry
+                generalised = finer;
+            }
+            geometries[level + 1] = generalised;
+        }
+        return geometries;
+    }
+
+    /**
+     * Write the geometries of a feature to the spill file, shared geometries are only written
+     * once.
+     *
+     * @param record the record
+     * @param geometries the geometries
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void spill(FeatureRecord record, Geometry[] geometries) throws IOException {
+        record.offsets = new long[geometries.length];
+        record.lengths = new int[geometries.length];
+
+        WKBWriter writer = new WKBWriter(2);
+        Map<Geometry, Integer> writtenMap = new IdentityHashMap<>();
+        for (int level = 0; level < geometries.length; level++) {
+            Integer previous = writtenMap.get(geometries[level]);
+            if (previous != null) {
+                record.offsets[level] = record.offsets[previous];
+                record.lengths[level] = record.lengths[previous];
+            } else {
+                byte[] bytes = writer.write(geometries[level]);
+                long offset = spillChannel.size();
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    spillChannel.write(buffer, offset + buffer.position());
+                }
+                record.offsets[level] = offset;
+                record.lengths[level] = bytes.length;
+                writtenMap.put(geometries[level], level);
+            }
+        }
+    }
+
+    /**
+     * Query the features intersecting an envelope.
+     *
+     * @param envelope the envelope, null for all features
+     * @param distance the generalisation distance the features will be displayed at, 0 for full
+     *     resolution
+     * @return the features
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public List<SimpleFeature> query(Envelope envelope, double distance) throws IOException {
+        int level = getLevel(distance);
+
+        List<?> matchList = (envelope == null) ? recordList : index.query(envelope);
+
+        List<SimpleFeature> featureList = new ArrayList<>(matchList.size());
+        for (Object obj : matchList) {
+            FeatureRecord record = (FeatureRecord) obj;
+            featureList.add(createFeature(record, getGeometry(record, level)));
+        }
+        return featureList;
+    }
+
+    /**
+     * Gets the level to use for a generalisation distance, the coarsest level whose tolerance is
+     * not greater than the distance.
+     *
+     * @param distance the distance
+     * @return the level, 0 for full resolution
+     */
+    public int getLevel(double distance) {
+        int level = 0;
+        for (int index = 0; index < GENERALISED_LEVELS; index++) {
+            if ((tolerances[index] > 0.0) && (tolerances[index] <= distance)) {
+                level = index + 1;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Gets the geometry of a feature at a level.
+     *
+     * @param record the record
+     * @param level the level
+     * @return the geometry
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private Geometry getGeometry(FeatureRecord record, int level) throws IOException {
+        if (record.geometries != null) {
+            return record.geometries[Math.min(level, record.geometries.length - 1)];
+        }
+
+        if (spillChannel == null) {
+            throw new IOException("Preview data has been disposed");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(record.lengths[level]);
+        while (buffer.hasRemaining()) {
+            int read = spillChannel.read(buffer, record.offsets[level] + buffer.position());
+            if (read < 0) {
+                throw new IOException(spillFile.getAbsolutePath());
+            }
+        }
+
+        try {
+            return new WKBReader(geometryFactory).read(buffer.array());
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Creates the feature.
+     *
+     * @param record the record
+     * @param geometry the geometry
+     * @return the simple feature
+     */
+    private SimpleFeature createFeature(FeatureRecord record, Geometry geometry) {
+        Object[] values = record.values.clone();
+        if (geometryIndex >= 0) {
+            values[geometryIndex] = geometry;
+        }
+        return SimpleFeatureBuilder.build(schema, values, record.id);
+    }
+
+    /**
+     * Estimate the memory used by the attribute values.
+     *
+     * @param values the values
+     * @return the estimated size in bytes
+     */
+    private static long estimateSize(Object[] values) {
+        long size = BYTES_PER_OBJECT;
+        for (Object value : values) {
+            if (value instanceof String) {
+                size += BYTES_PER_OBJECT + 2L * ((String) value).length();
+            } else if (value != null) {
+                size += BYTES_PER_OBJECT / 2;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the memory used by the geometries, shared geometries are counted once.
+     *
+     * @param geometries the geometries
+     * @return the estimated size in bytes
+     */
+    private static long estimateSize(Geometry[] geometries) {
+        long size = 0;
+        for (int level = 0; level < geometries.length; level++) {
+            if ((level == 0) || (geometries[level] != geometries[level - 1])) {
+                size +=
+                        BYTES_PER_OBJECT
+                                + BYTES_PER_COORDINATE * geometries[level].getNumPoints();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the schema.
+     *
+     * @return the schema
+     */
+    public SimpleFeatureType getSchema() {
+        return schema;
+    }
+
+    /**
+     * Gets the bounds.
+     *
+     * @return the bounds
+     */
+    public ReferencedEnvelope getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Gets the generalisation tolerance of a level.
+     *
+     * @param level the level, 1 to {@link #GENERALISED_LEVELS}
+     * @return the tolerance
+     */
+    public double getTolerance(int level) {
+        return tolerances[level - 1];
+    }
+
+    /**
+     * Gets the number of features.
+     *
+     * @return the feature count
+     */
+    public int getFeatureCount() {
+        return recordList.size();
+    }
+
+    /**
+     * Gets the number of features whose geometries were spilled to disk.
+     *
+     * @return the spilled count
+     */
+    public int getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * Gets the estimated memory used.
+     *
+     * @return the estimated memory in bytes
+     */
+    public long getEstimatedMemory() {
+        return estimatedMemory;
+    }
+
+    /** Release the spill file. */
+    public void dispose() {
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException e) {
+                // Nothing more can be done, the file is deleted on exit
+            }
+            spillChannel = null;
+        }
+
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile.toPath());
+            } catch (IOException e) {
+                // Nothing more can be done, the file is deleted on exit
+            }
+            spillFile = null;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.cache;
+
+import java.awt.RenderingHints.Key;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import org.geotools.data.DataAccess;
+import org.geotools.data.FeatureListener;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.data.QueryCapabilities;
+import org.geotools.data.ResourceInfo;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.Hints;
+import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.Name;
+import org.opengis.filter.Filter;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Feature source serving the features of a data source from a {@link PreviewFeatureData} cache.
+ *
+ * <p>Queries are answered from memory using the spatial index for the bounding box of the query
+ * filter, the whole filter is then evaluated against the matching features. The {@link
+ * Hints#GEOMETRY_DISTANCE} hint, set by the renderer, selects the generalised geometries to
+ * return. Features are sorted in memory when the query has a sort order.
+ *
+ * <p>The cache is a snapshot, changes made to the data source after it was loaded are not seen.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PreviewFeatureSource implements SimpleFeatureSource {
+
+    /** The supported hints. */
+    private static final Set<Key> SUPPORTED_HINTS =
+            Collections.<Key>singleton(Hints.GEOMETRY_DISTANCE);
+
+    /** The original feature source. */
+    private final FeatureSource<SimpleFeatureType, SimpleFeature> source;
+
+    /** The cached data. */
+    private final PreviewFeatureData data;
+
+    /**
+     * Instantiates a new preview feature source.
+     *
+     * @param source the original feature source
+     * @param data the cached data
+     */
+    public PreviewFeatureSource(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source, PreviewFeatureData data) {
+        this.source = source;
+        this.data = data;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getName()
+     */
+    @Override
+    public Name getName() {
+        return data.getSchema().getName();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getInfo()
+     */
+    @Override
+    public ResourceInfo getInfo() {
+        return source.getInfo();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getDataStore()
+     */
+    @Override
+    public DataAccess<SimpleFeatureType, SimpleFeature> getDataStore() {
+        return source.getDataStore();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getQueryCapabilities()
+     */
+    @Override
+    public QueryCapabilities getQueryCapabilities() {
+        return new QueryCapabilities() {
+            @Override
+            public boolean supportsSorting(SortBy[] sortAttributes) {
+                if (sortAttributes == null) {
+                    return true;
+                }
+
+                for (SortBy sortBy : sortAttributes) {
+                    PropertyName property = sortBy.getPropertyName();
+                    if ((property != null)
+                            && (data.getSchema().getDescriptor(property.getPropertyName())
+                                    == null)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#addFeatureListener(org.geotools.data.FeatureListener)
+     */
+    @Override
+    public void addFeatureListener(FeatureListener listener) {
+        // The cached data does not change
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.geotools.data.FeatureSource#removeFeatureListener(org.geotools.data.FeatureListener)
+     */
+    @Override
+    public void removeFeatureListener(FeatureListener listener) {
+        // The cached data does not change
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.simple.SimpleFeatureSource#getFeatures(org.opengis.filter.Filter)
+     */
+    @Override
+    public SimpleFeatureCollection getFeatures(Filter filter) throws IOException {
+        return getFeatures(new Query(data.getSchema().getTypeName(), filter));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.simple.SimpleFeatureSource#getFeatures(org.geotools.data.Query)
+     */
+    @Override
+    public SimpleFeatureCollection getFeatures(Query query) throws IOException {
+        Filter filter = (query.getFilter() == null) ? Filter.INCLUDE : query.getFilter();
+
+        List<SimpleFeature> featureList = new ArrayList<>();
+        if (filter != Filter.EXCLUDE) {
+            List<SimpleFeature> candidateList =
+                    data.query(getQueryEnvelope(filter), getDistance(query));
+
+            SortBy[] sortBy = query.getSortBy();
+            boolean sorted = (sortBy != null) && (sortBy.length > 0);
+
+            int maxFeatures = query.getMaxFeatures();
+            for (SimpleFeature feature : candidateList) {
+                if (!sorted && (featureList.size() >= maxFeatures)) {
+                    break;
+                }
+
+                if ((filter == Filter.INCLUDE) || filter.evaluate(feature)) {
+                    featureList.add(feature);
+                }
+            }
+
+            if (sorted) {
+                if (isReverseOrder(sortBy)) {
+                    Collections.reverse(featureList);
+                }
+                featureList.sort(getComparator(sortBy));
+                if (featureList.size() > maxFeatures) {
+                    featureList = new ArrayList<>(featureList.subList(0, maxFeatures));
+                }
+            }
+        }
+
+        return new ListFeatureCollection(data.getSchema(), featureList);
+    }
+
+    /**
+     * Checks if the sort order includes the reverse of the natural order.
+     *
+     * @param sortByArray the sort order
+     * @return true, if the features are to be reversed before they are sorted
+     */
+    private static boolean isReverseOrder(SortBy[] sortByArray) {
+        for (SortBy sortBy : sortByArray) {
+            if ((sortBy.getPropertyName() == null)
+                    && (sortBy.getSortOrder() == SortOrder.DESCENDING)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the comparator for the attributes of a sort order. The natural order is the order the
+     * features were loaded in, it is kept because the list sort is stable.
+     *
+     * @param sortByArray the sort order
+     * @return the comparator
+     */
+    private static Comparator<SimpleFeature> getComparator(SortBy[] sortByArray) {
+        Comparator<SimpleFeature> comparator = (f1, f2) -> 0;
+        for (SortBy sortBy : sortByArray) {
+            PropertyName property = sortBy.getPropertyName();
+            if (property != null) {
+                Comparator<SimpleFeature> next =
+                        (f1, f2) -> compareValues(property.evaluate(f1), property.evaluate(f2));
+                if (sortBy.getSortOrder() == SortOrder.DESCENDING) {
+                    next = next.reversed();
+                }
+                comparator = comparator.thenComparing(next);
+            }
+        }
+        return comparator;
+    }
+
+    /**
+     * Compare two attribute values, null values are sorted first.
+     *
+     * @param value1 the first value
+     * @param value2 the second value
+     * @return the comparison result
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object value1, Object value2) {
+        if ((value1 == null) || (value2 == null)) {
+            return (value1 == null) ? ((value2 == null) ? 0 : -1) : 1;
+        }
+
+        if ((value1 instanceof Comparable) && (value1.getClass().isInstance(value2))) {
+            return ((Comparable) value1).compareTo(value2);
+        }
+        return value1.toString().compareTo(value2.toString());
+    }
+
+    /**
+     * Gets the envelope to query the spatial index with.
+     *
+     * @param filter the filter
+     * @return the envelope, null to query all features
+     */
+    private static Envelope getQueryEnvelope(Filter filter) {
+        Envelope envelope =
+                (Envelope) filter.accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, null);
+        if ((envelope == null)
+                || Double.isInfinite(envelope.getWidth())
+                || Double.isInfinite(envelope.getHeight())) {
+            return null;
+        }
+        return envelope;
+    }
+
+    /**
+     * Gets the generalisation distance hint from the query.
+     *
+     * @param query the query
+     * @return the distance, 0 for full resolution
+     */
+    private static double getDistance(Query query) {
+        if (query.getHints() != null) {
+            Object distance = query.getHints().get(Hints.GEOMETRY_DISTANCE);
+            if (distance instanceof Number) {
+                return ((Number) distance).doubleValue();
+            }
+        }
+        return 0.0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.simple.SimpleFeatureSource#getFeatures()
+     */
+    @Override
+    public SimpleFeatureCollection getFeatures() throws IOException {
+        return getFeatures(Query.ALL);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getSchema()
+     */
+    @Override
+    public SimpleFeatureType getSchema() {
+        return data.getSchema();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getBounds()
+     */
+    @Override
+    public ReferencedEnvelope getBounds() throws IOException {
+        return data.getBounds();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getBounds(org.geotools.data.Query)
+     */
+    @Override
+    public ReferencedEnvelope getBounds(Query query) throws IOException {
+        if ((query.getFilter() == null) || (query.getFilter() == Filter.INCLUDE)) {
+            return data.getBounds();
+        }
+        return getFeatures(query).getBounds();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getCount(org.geotools.data.Query)
+     */
+    @Override
+    public int getCount(Query query) throws IOException {
+        if (((query.getFilter() == null) || (query.getFilter() == Filter.INCLUDE))
+                && (query.getMaxFeatures() == Query.DEFAULT_MAX)) {
+            return data.getFeatureCount();
+        }
+        return getFeatures(query).size();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.data.FeatureSource#getSupportedHints()
+     */
+    @Override
+    public Set<Key> getSupportedHints() {
+        return SUPPORTED_HINTS;
+    }
+
+    /**
+     * Gets the cached data.
+     *
+     * @return the data
+     */
+    public PreviewFeatureData getData() {
+        return data;
+    }
+}
@@ -38,11 +38,12 @@ public class CheckAttributeFactory {
     private static List<CheckAttributeInterface> checkList = new ArrayList<>();
 
     /**
-     * Gets the check list.
+     * Gets the check list, synchronized as it is called from the batch processor's parallel
+     * threads.
      *
      * @return the checkList
      */
-    public static List<CheckAttributeInterface> getCheckList() {
+    public static synchronized List<CheckAttributeInterface> getCheckList() {
         if (checkList.isEmpty()) {
             checkList.add(new MissingSLDAttributes());
         }
@@ -54,7 +55,7 @@ public class CheckAttributeFactory {
      *
      * @param checkList the checkList to set
      */
-    public static void setOverrideCheckList(List<CheckAttributeInterface> checkList) {
+    public static synchronized void setOverrideCheckList(List<CheckAttributeInterface> checkList) {
         if (checkList == null) {
             CheckAttributeFactory.checkList = new ArrayList<>();
         } else {
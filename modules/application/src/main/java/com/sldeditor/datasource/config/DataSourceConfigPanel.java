@@ -19,6 +19,7 @@
 
 package com.sldeditor.datasource.config;
 
+import com.sldeditor.common.Controller;
 import com.sldeditor.common.DataSourceConnectorInterface;
 import com.sldeditor.common.DataSourcePropertiesInterface;
 import com.sldeditor.common.localisation.Localisation;
@@ -26,13 +27,18 @@ import com.sldeditor.common.undo.UndoActionInterface;
 import com.sldeditor.common.undo.UndoEvent;
 import com.sldeditor.common.undo.UndoInterface;
 import com.sldeditor.common.undo.UndoManager;
+import com.sldeditor.datasource.DataSourceConnectionListener;
 import com.sldeditor.datasource.DataSourceInterface;
 import com.sldeditor.datasource.DataSourceUpdatedInterface;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.datasource.attribute.DataSourceAttributeList;
 import com.sldeditor.datasource.attribute.DataSourceAttributeListInterface;
+import com.sldeditor.datasource.checks.CheckAttributeFactory;
 import com.sldeditor.datasource.connector.DataSourceConnectorFactory;
+import com.sldeditor.datasource.impl.DataSourceConnection;
+import com.sldeditor.datasource.impl.DataSourceConnectionStage;
 import com.sldeditor.datasource.impl.DataSourceFactory;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
@@ -55,6 +61,9 @@ import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.TableColumn;
 import org.geotools.data.DataStore;
+import org.geotools.data.FeatureSource;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
 
 /**
  * Panel to be able to edit data source configurations.
@@ -62,7 +71,7 @@ import org.geotools.data.DataStore;
  * @author Robert Ward (SCISYS)
  */
 public class DataSourceConfigPanel extends JPanel
-        implements DataSourceUpdatedInterface, UndoActionInterface {
+        implements DataSourceUpdatedInterface, DataSourceConnectionListener, UndoActionInterface {
     /** The Constant serialVersionUID. */
     private static final long serialVersionUID = 1L;
 
@@ -84,6 +93,12 @@ public class DataSourceConfigPanel extends JPanel
     /** The btn disconnect. */
     private JButton btnDisconnect;
 
+    /** The btn stop connecting. */
+    private JButton btnStopConnecting;
+
+    /** The btn sampling. */
+    private JButton btnSampling;
+
     /** The btn add field. */
     private JButton btnAddField;
 
@@ -105,11 +120,15 @@ public class DataSourceConfigPanel extends JPanel
     /** The is connected to data source flag. */
     private boolean isConnectedToDataSourceFlag = false;
 
+    /** The data source connection in progress, null if none. */
+    private transient DataSourceConnection activeConnection = null;
+
     /** Instantiates a new data source config. */
     public DataSourceConfigPanel() {
         dataSource = DataSourceFactory.createDataSource(null);
 
         dataSource.addListener(this);
+        dataSource.addConnectionListener(this);
         setLayout(new BorderLayout());
 
         add(createDataSourceConnectorPanel(), BorderLayout.NORTH);
@@ -236,6 +255,34 @@ public class DataSourceConfigPanel extends JPanel
                 });
         buttonPanel.add(btnDisconnect);
 
+        btnStopConnecting =
+                new JButton(
+                        Localisation.getString(
+                                DataSourceConfigPanel.class, "DataSourceConfigPanel.stop"));
+        btnStopConnecting.setEnabled(false);
+        btnStopConnecting.addActionListener(
+                new ActionListener() {
+                    public void actionPerformed(ActionEvent e) {
+                        if (activeConnection != null) {
+                            activeConnection.cancel();
+                        }
+                    }
+                });
+        buttonPanel.add(btnStopConnecting);
+
+        btnSampling =
+                new JButton(
+                        Localisation.getString(
+                                DataSourceConfigPanel.class, "DataSourceConfigPanel.sampling"));
+        btnSampling.setEnabled(false);
+        btnSampling.addActionListener(
+                new ActionListener() {
+                    public void actionPerformed(ActionEvent e) {
+                        configureSampling();
+                    }
+                });
+        buttonPanel.add(btnSampling);
+
         btnAddField =
                 new JButton(
                         Localisation.getString(
@@ -287,10 +334,54 @@ public class DataSourceConfigPanel extends JPanel
         return new JScrollPane(table);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionStageStarted(com.
+     * sldeditor.datasource.impl.DataSourceConnection,
+     * com.sldeditor.datasource.impl.DataSourceConnectionStage)
+     */
+    @Override
+    public void connectionStageStarted(
+            DataSourceConnection connection, DataSourceConnectionStage stage) {
+        if (connection.isDone()) {
+            return;
+        }
+
+        activeConnection = connection;
+        if (btnStopConnecting != null) {
+            btnStopConnecting.setEnabled(true);
+            btnStopConnecting.setToolTipText(
+                    String.format(
+                            "%s : %s",
+                            Localisation.getString(
+                                    DataSourceConfigPanel.class, "DataSourceConfigPanel.stage"),
+                            stage));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionCompleted(com.
+     * sldeditor.datasource.impl.DataSourceConnection)
+     */
+    @Override
+    public void connectionCompleted(DataSourceConnection connection) {
+        if (connection == activeConnection) {
+            activeConnection = null;
+            if (btnStopConnecting != null) {
+                btnStopConnecting.setEnabled(false);
+                btnStopConnecting.setToolTipText(null);
+            }
+        }
+    }
+
     /** Update button state. */
     private void updateButtonState() {
         if (btnDisconnect != null) {
             btnDisconnect.setEnabled(isConnectedToDataSourceFlag);
+            btnSampling.setEnabled(isConnectedToDataSourceFlag);
             btnAddField.setEnabled(!isConnectedToDataSourceFlag);
             btnRemoveField.setEnabled(
                     !isConnectedToDataSourceFlag && (table.getSelectedRowCount() > 0));
@@ -465,6 +556,34 @@ public class DataSourceConfigPanel extends JPanel
         updateButtonState();
     }
 
+    /** Configure the sampling of the external data source and reconnect if changed. */
+    protected void configureSampling() {
+        SLDEditorFile sldEditorFile = SLDEditorFile.getInstance();
+        if (sldEditorFile.getSLDData() == null) {
+            return;
+        }
+
+        DataSourceSamplingOptions currentOptions = sldEditorFile.getSLDData().getSamplingOptions();
+
+        DataSourceSamplingDialog dialog =
+                new DataSourceSamplingDialog(Controller.getInstance().getFrame());
+        DataSourceSamplingOptions updatedOptions = dialog.showDialog(currentOptions);
+
+        if ((updatedOptions != null) && !updatedOptions.equals(currentOptions)) {
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource =
+                    dataSource.getFeatureSource();
+
+            sldEditorFile.setSamplingOptions(updatedOptions);
+
+            if (featureSource != null) {
+                dataSource.connectAsync(
+                        featureSource.getSchema().getName().getLocalPart(),
+                        sldEditorFile,
+                        CheckAttributeFactory.getCheckList());
+            }
+        }
+    }
+
     /** Cancel data. */
     protected void cancelData() {
         dataModel.populate(attributeData.getData());
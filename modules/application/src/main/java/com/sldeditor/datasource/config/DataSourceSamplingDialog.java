@@ -0,0 +1,298 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.datasource.config;
+
+import com.sldeditor.common.Controller;
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Dialog to configure the sampling of an external data source.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataSourceSamplingDialog extends JDialog {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The Constant MAX_GRID_SIZE. */
+    private static final int MAX_GRID_SIZE = 64;
+
+    /** The enabled check box. */
+    private JCheckBox enabledCheckBox;
+
+    /** The max features spinner. */
+    private JSpinner maxFeaturesSpinner;
+
+    /** The stratified check box. */
+    private JCheckBox stratifiedCheckBox;
+
+    /** The grid size spinner. */
+    private JSpinner gridSizeSpinner;
+
+    /** The estimated extent check box. */
+    private JCheckBox estimatedExtentCheckBox;
+
+    /** The bounding box check box. */
+    private JCheckBox bboxCheckBox;
+
+    /** The bounding box min x spinner. */
+    private JSpinner minXSpinner;
+
+    /** The bounding box min y spinner. */
+    private JSpinner minYSpinner;
+
+    /** The bounding box max x spinner. */
+    private JSpinner maxXSpinner;
+
+    /** The bounding box max y spinner. */
+    private JSpinner maxYSpinner;
+
+    /** The ok button pressed flag. */
+    private boolean okPressed = false;
+
+    /**
+     * Instantiates a new data source sampling dialog.
+     *
+     * @param frame the frame
+     */
+    public DataSourceSamplingDialog(JFrame frame) {
+        super(
+                frame,
+                Localisation.getString(
+                        DataSourceSamplingDialog.class, "DataSourceSamplingDialog.title"),
+                true);
+
+        setLayout(new BorderLayout());
+
+        JPanel optionPanel = new JPanel(new GridLayout(0, 2, 5, 5));
+        optionPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        enabledCheckBox = new JCheckBox(getLabel("enabled"));
+        enabledCheckBox.addActionListener(
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        updateEnabledState();
+                    }
+                });
+        optionPanel.add(enabledCheckBox);
+        optionPanel.add(new JLabel());
+
+        maxFeaturesSpinner =
+                new JSpinner(
+                        new SpinnerNumberModel(
+                                DataSourceSamplingOptions.DEFAULT_MAX_FEATURES,
+                                1,
+                                Integer.MAX_VALUE,
+                                1000));
+        addRow(optionPanel, "maxFeatures", maxFeaturesSpinner);
+
+        stratifiedCheckBox = new JCheckBox(getLabel("stratified"));
+        stratifiedCheckBox.addActionListener(
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        updateEnabledState();
+                    }
+                });
+        optionPanel.add(stratifiedCheckBox);
+        optionPanel.add(new JLabel());
+
+        gridSizeSpinner =
+                new JSpinner(
+                        new SpinnerNumberModel(
+                                DataSourceSamplingOptions.DEFAULT_GRID_SIZE, 1, MAX_GRID_SIZE, 1));
+        addRow(optionPanel, "gridSize", gridSizeSpinner);
+
+        estimatedExtentCheckBox = new JCheckBox(getLabel("estimatedExtent"));
+        optionPanel.add(estimatedExtentCheckBox);
+        optionPanel.add(new JLabel());
+
+        bboxCheckBox = new JCheckBox(getLabel("bbox"));
+        bboxCheckBox.addActionListener(
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        updateEnabledState();
+                    }
+                });
+        optionPanel.add(bboxCheckBox);
+        optionPanel.add(new JLabel());
+
+        minXSpinner = createCoordinateSpinner();
+        addRow(optionPanel, "minX", minXSpinner);
+        minYSpinner = createCoordinateSpinner();
+        addRow(optionPanel, "minY", minYSpinner);
+        maxXSpinner = createCoordinateSpinner();
+        addRow(optionPanel, "maxX", maxXSpinner);
+        maxYSpinner = createCoordinateSpinner();
+        addRow(optionPanel, "maxY", maxYSpinner);
+
+        add(optionPanel, BorderLayout.CENTER);
+
+        //
+        // Ok/Cancel buttons
+        //
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.setLayout(new FlowLayout(FlowLayout.TRAILING));
+        JButton okButton =
+                new JButton(Localisation.getString(DataSourceSamplingDialog.class, "common.ok"));
+        okButton.addActionListener(
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        okPressed = true;
+                        setVisible(false);
+                    }
+                });
+        buttonPanel.add(okButton);
+
+        JButton cancelButton =
+                new JButton(
+                        Localisation.getString(DataSourceSamplingDialog.class, "common.cancel"));
+        cancelButton.addActionListener(
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        setVisible(false);
+                    }
+                });
+        buttonPanel.add(cancelButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        pack();
+        Controller.getInstance().centreDialog(this);
+    }
+
+    /**
+     * Gets the localised label.
+     *
+     * @param key the key suffix
+     * @return the label
+     */
+    private static String getLabel(String key) {
+        return Localisation.getString(
+                DataSourceSamplingDialog.class, "DataSourceSamplingDialog." + key);
+    }
+
+    /**
+     * Adds a labelled row to the panel.
+     *
+     * @param panel the panel
+     * @param key the label key suffix
+     * @param spinner the spinner
+     */
+    private static void addRow(JPanel panel, String key, JSpinner spinner) {
+        panel.add(new JLabel(getLabel(key)));
+        panel.add(spinner);
+    }
+
+    /**
+     * Creates a spinner for a bounding box coordinate.
+     *
+     * @return the spinner
+     */
+    private static JSpinner createCoordinateSpinner() {
+        return new JSpinner(
+                new SpinnerNumberModel(0.0, -Double.MAX_VALUE, Double.MAX_VALUE, 1.0));
+    }
+
+    /** Update the enabled state of the components. */
+    private void updateEnabledState() {
+        boolean enabled = enabledCheckBox.isSelected();
+        boolean bbox = enabled && bboxCheckBox.isSelected();
+
+        maxFeaturesSpinner.setEnabled(enabled);
+        stratifiedCheckBox.setEnabled(enabled);
+        gridSizeSpinner.setEnabled(enabled && stratifiedCheckBox.isSelected());
+        estimatedExtentCheckBox.setEnabled(enabled);
+        bboxCheckBox.setEnabled(enabled);
+        minXSpinner.setEnabled(bbox);
+        minYSpinner.setEnabled(bbox);
+        maxXSpinner.setEnabled(bbox);
+        maxYSpinner.setEnabled(bbox);
+    }
+
+    /**
+     * Show the dialog.
+     *
+     * @param options the current sampling options
+     * @return the updated sampling options, null if cancelled
+     */
+    public DataSourceSamplingOptions showDialog(DataSourceSamplingOptions options) {
+        DataSourceSamplingOptions current =
+                (options == null) ? new DataSourceSamplingOptions() : options;
+
+        enabledCheckBox.setSelected(current.isEnabled());
+        maxFeaturesSpinner.setValue(current.getMaxFeatures());
+        stratifiedCheckBox.setSelected(current.isStratified());
+        gridSizeSpinner.setValue(Math.min(current.getGridSize(), MAX_GRID_SIZE));
+        estimatedExtentCheckBox.setSelected(current.isUseEstimatedExtent());
+
+        Envelope bbox = current.getBbox();
+        bboxCheckBox.setSelected(bbox != null);
+        if (bbox != null) {
+            minXSpinner.setValue(bbox.getMinX());
+            minYSpinner.setValue(bbox.getMinY());
+            maxXSpinner.setValue(bbox.getMaxX());
+            maxYSpinner.setValue(bbox.getMaxY());
+        }
+        updateEnabledState();
+
+        okPressed = false;
+        setVisible(true);
+
+        if (!okPressed) {
+            return null;
+        }
+
+        DataSourceSamplingOptions updated = new DataSourceSamplingOptions();
+        updated.setEnabled(enabledCheckBox.isSelected());
+        updated.setMaxFeatures((Integer) maxFeaturesSpinner.getValue());
+        updated.setStratified(stratifiedCheckBox.isSelected());
+        updated.setGridSize((Integer) gridSizeSpinner.getValue());
+        updated.setUseEstimatedExtent(estimatedExtentCheckBox.isSelected());
+        if (bboxCheckBox.isSelected()) {
+            updated.setBbox(
+                    new Envelope(
+                            (Double) minXSpinner.getValue(),
+                            (Double) maxXSpinner.getValue(),
+                            (Double) minYSpinner.getValue(),
+                            (Double) maxYSpinner.getValue()));
+        }
+        return updated;
+    }
+}
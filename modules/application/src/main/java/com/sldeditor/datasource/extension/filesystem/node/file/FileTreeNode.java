@@ -22,6 +22,7 @@ package com.sldeditor.datasource.extension.filesystem.node.file;
 import com.sldeditor.common.NodeInterface;
 import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.filesystem.FileSystemInterface;
+import com.sldeditor.common.task.TaskManager;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.common.watcher.FileSystemWatcher;
 import com.sldeditor.common.watcher.FileWatcherUpdateInterface;
@@ -33,15 +34,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import javax.swing.Icon;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileSystemView;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
@@ -49,6 +54,10 @@ import javax.swing.tree.DefaultTreeModel;
 /**
  * File system tree node representing either a file or folder.
  *
+ * <p>Folders are read when expanded. Expanding from the tree reads the folder contents in the
+ * background and adds the child nodes to the tree model in batches, so large folders do not block
+ * the user interface. Folders are only watched for changes once they have been expanded.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class FileTreeNode extends DefaultMutableTreeNode
@@ -57,6 +66,18 @@ public class FileTreeNode extends DefaultMutableTreeNode
     /** The Constant serialVersionUID. */
     private static final long serialVersionUID = 9156830446596206479L;
 
+    /** The number of child nodes added to the tree model at a time. */
+    private static final int BATCH_SIZE = 500;
+
+    /** Sorts folders first, then alphabetically, the same order as sort(). */
+    private static final Comparator<DirectoryEntry> ENTRY_COMPARATOR =
+            (o1, o2) -> {
+                if (o1.folder != o2.folder) {
+                    return o1.folder ? -1 : 1;
+                }
+                return o1.name.compareToIgnoreCase(o2.name);
+            };
+
     /** The file handler map. */
     private static Map<String, FileHandlerInterface> fileHandlerMap = null;
 
@@ -92,6 +113,39 @@ public class FileTreeNode extends DefaultMutableTreeNode
     /** The file watcher set flag. */
     private boolean fileWatcherSet = false;
 
+    /**
+     * The loading flag, true while the folder contents are read in the background. Guarded by
+     * this node, it is also changed by the file watcher thread.
+     */
+    private boolean loading = false;
+
+    /**
+     * The load generation, incremented to discard batches from a superseded load. Guarded by this
+     * node.
+     */
+    private int loadGeneration = 0;
+
+    /** A folder entry read in the background, before it is added to the tree. */
+    private static class DirectoryEntry {
+
+        /** The file or folder name. */
+        private final String name;
+
+        /** The folder flag. */
+        private final boolean folder;
+
+        /**
+         * Instantiates a new directory entry.
+         *
+         * @param name the name
+         * @param folder the folder flag
+         */
+        DirectoryEntry(String name, boolean folder) {
+            this.name = name;
+            this.folder = folder;
+        }
+    }
+
     /**
      * Instantiates a new file tree node.
      *
@@ -127,11 +181,20 @@ public class FileTreeNode extends DefaultMutableTreeNode
         isDirFlag = pathPath.toFile().isDirectory();
 
         setUserObject(this.name);
+    }
 
-        if (isDir()) {
-            FileSystemWatcher.getInstance().addWatch(this, pathPath);
-            fileWatcherSet = true;
-        }
+    /**
+     * Instantiates a new file tree node when it is already known whether it is a folder.
+     *
+     * @param parent the parent
+     * @param name the name
+     * @param isDir the is directory flag
+     */
+    private FileTreeNode(Path parent, String name, boolean isDir) {
+        this.name = name;
+        path = Paths.get(parent.toString(), name).toString();
+        isDirFlag = isDir;
+        setUserObject(this.name);
     }
 
     /**
@@ -184,13 +247,26 @@ public class FileTreeNode extends DefaultMutableTreeNode
      * addition, populate those children if the "descend" flag is true. We only descend once, to
      * avoid recursing the whole subtree.
      *
+     * <p>If the folder is being read in the background the background read is discarded and the
+     * folder is read immediately, so the children are available when this returns.
+     *
      * @param descend the descend
      * @return true, if successful
      */
-    public boolean populateDirectories(boolean descend) {
+    public synchronized boolean populateDirectories(boolean descend) {
         boolean addedNodes = false;
+        boolean loadDiscarded = false;
 
         if (!isRoot || (isRoot && descend)) {
+            if (loading) {
+                // Discard the batches still to be added and the children already added
+                loadGeneration++;
+                loading = false;
+                removeAllChildren();
+                interim = false;
+                loadDiscarded = true;
+            }
+
             // Do this only once
             if (!populated) {
                 if (interim) {
@@ -200,52 +276,15 @@ public class FileTreeNode extends DefaultMutableTreeNode
                     interim = false;
                 }
 
-                // Get list of contents
-                List<Path> names = new ArrayList<>();
-
-                DirectoryStream<Path> stream = null;
-                try {
-                    Path pathPath = Paths.get(path);
-                    stream = Files.newDirectoryStream(pathPath);
-
-                    if (stream != null) {
-                        for (Path localPath : stream) {
-                            names.add(localPath.getFileName());
-                        }
-                    }
-                } catch (AccessDeniedException e) {
-                    // Access was denied
-                } catch (NotDirectoryException e) {
-                    // Ignore
-                } catch (IOException e) {
-                    ConsoleManager.getInstance().exception(this, e);
-                } finally {
-                    try {
-                        if (stream != null) {
-                            stream.close();
-                        }
-                    } catch (IOException e) {
-                        ConsoleManager.getInstance().exception(this, e);
-                    }
-                }
-
-                // Process the directories
-                for (Path filename : names) {
-                    Path d = Paths.get(path, filename.toString());
+                // Only add one folder if not descending
+                for (DirectoryEntry entry : readDirectory(!descend)) {
                     try {
-                        if (d.toFile().isDirectory()) {
-                            addFolder(descend, filename.toString());
+                        if (entry.folder) {
+                            addFolder(descend, entry.name);
 
                             addedNodes = true;
-
-                            if (!descend) {
-                                // Only add one node if not descending
-                                break;
-                            }
-                        } else if (d.toFile().isFile()) {
-                            if (validFile(filename.toString())) {
-                                addFile(filename.toString());
-                            }
+                        } else {
+                            addFile(entry.name);
                         }
                     } catch (Exception e) {
                         // Ignore phantoms or access problems
@@ -259,20 +298,176 @@ public class FileTreeNode extends DefaultMutableTreeNode
                 // so that we look again in the future if we need to
                 if (descend || !addedNodes) {
                     populated = true;
-
-                    if (isDir() && !fileWatcherSet) {
-                        Path pathPath = Paths.get(path);
-                        FileSystemWatcher.getInstance().addWatch(this, pathPath);
-                        fileWatcherSet = true;
-                    }
-
                 } else {
                     // Just set interim state
                     interim = true;
                 }
             }
+
+            if (descend) {
+                addFileWatcher();
+            }
+        }
+        // The children added by a discarded background read have been replaced
+        return addedNodes || loadDiscarded;
+    }
+
+    /**
+     * Populate directories in the background, used when the node is expanded in the tree.
+     *
+     * <p>The folder is read on a background thread and the child nodes are added to the tree model
+     * on the event dispatch thread in batches, notifying the tree model as each batch is added.
+     * Child folders are not read until they are expanded themselves.
+     *
+     * @return true, if the existing child nodes were removed and the tree structure has changed
+     */
+    public synchronized boolean populateDirectoriesInBackground() {
+        if (!isDir() || populated || loading) {
+            if (populated) {
+                addFileWatcher();
+            }
+            return false;
+        }
+
+        boolean structureChanged = false;
+        if (interim) {
+            // Remove the nodes found by a quick look, the full contents replace them
+            removeAllChildren();
+            interim = false;
+            structureChanged = true;
+        }
+
+        loading = true;
+        final int generation = ++loadGeneration;
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.BACKGROUND_POOL,
+                        () -> {
+                            List<DirectoryEntry> entryList = readDirectory(false);
+                            entryList.sort(ENTRY_COMPARATOR);
+
+                            SwingUtilities.invokeLater(
+                                    () -> addEntries(generation, entryList, 0));
+                        });
+
+        return structureChanged;
+    }
+
+    /**
+     * Adds the next batch of folder entries as child nodes, called on the event dispatch thread.
+     *
+     * @param generation the load generation the entries were read for
+     * @param entryList the folder entries
+     * @param start the index of the first entry to add
+     */
+    private synchronized void addEntries(
+            int generation, List<DirectoryEntry> entryList, int start) {
+        if (generation != loadGeneration) {
+            // Folder has been refreshed since it was read
+            return;
+        }
+
+        int end = Math.min(start + BATCH_SIZE, entryList.size());
+        int firstChildIndex = getChildCount();
+        Path pathPath = Paths.get(path);
+        for (int index = start; index < end; index++) {
+            DirectoryEntry entry = entryList.get(index);
+            try {
+                if (entry.folder) {
+                    add(new FileTreeNode(pathPath, entry.name, true));
+                } else {
+                    addFile(entry.name);
+                }
+            } catch (Exception e) {
+                // Ignore phantoms or access problems
+            }
+        }
+
+        int[] childIndices = new int[getChildCount() - firstChildIndex];
+        for (int index = 0; index < childIndices.length; index++) {
+            childIndices[index] = firstChildIndex + index;
+        }
+
+        if ((treeModel != null) && (childIndices.length > 0)) {
+            treeModel.nodesWereInserted(this, childIndices);
+        }
+
+        if (end < entryList.size()) {
+            // Let the user interface respond before adding the next batch
+            SwingUtilities.invokeLater(() -> addEntries(generation, entryList, end));
+        } else {
+            loading = false;
+            populated = true;
+            addFileWatcher();
+        }
+    }
+
+    /**
+     * Read the folder contents, reading the attributes of each entry once.
+     *
+     * @param stopAtFolder flag to stop reading after the first folder is found
+     * @return the folders and the files there is a file handler for
+     */
+    private List<DirectoryEntry> readDirectory(boolean stopAtFolder) {
+        List<DirectoryEntry> entryList = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(path))) {
+            for (Path localPath : stream) {
+                DirectoryEntry entry = readEntry(localPath);
+                if (entry != null) {
+                    entryList.add(entry);
+
+                    if (stopAtFolder && entry.folder) {
+                        break;
+                    }
+                }
+            }
+        } catch (AccessDeniedException e) {
+            // Access was denied
+        } catch (NotDirectoryException e) {
+            // Ignore
+        } catch (IOException | DirectoryIteratorException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+
+        return entryList;
+    }
+
+    /**
+     * Read a single folder entry.
+     *
+     * @param localPath the path of the entry
+     * @return the folder entry, null if it is neither a folder nor a valid file
+     */
+    private static DirectoryEntry readEntry(Path localPath) {
+        Path filename = localPath.getFileName();
+        if (filename == null) {
+            return null;
+        }
+
+        try {
+            // One attribute read per entry, some platforms return the attributes cached by the
+            // directory stream rather than reading them again
+            BasicFileAttributes attributes =
+                    Files.readAttributes(localPath, BasicFileAttributes.class);
+
+            if (attributes.isDirectory()) {
+                return new DirectoryEntry(filename.toString(), true);
+            } else if (attributes.isRegularFile() && validFile(filename.toString())) {
+                return new DirectoryEntry(filename.toString(), false);
+            }
+        } catch (IOException | SecurityException e) {
+            // Ignore phantoms or access problems
+        }
+        return null;
+    }
+
+    /** Watch the folder for changes, if it is not already being watched. */
+    private void addFileWatcher() {
+        if (isDir() && !fileWatcherSet) {
+            FileSystemWatcher.getInstance().addWatch(this, Paths.get(path));
+            fileWatcherSet = true;
         }
-        return addedNodes;
     }
 
     /**
@@ -285,7 +480,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
      */
     private FileTreeNode addFolder(boolean descend, String name) throws FileNotFoundException {
         Path pathPath = Paths.get(path);
-        FileTreeNode node = new FileTreeNode(pathPath, name);
+        FileTreeNode node = new FileTreeNode(pathPath, name, true);
         this.add(node);
         if (descend) {
             node.populateDirectories(false);
@@ -303,7 +498,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
     private FileTreeNode addFile(String name) throws FileNotFoundException {
         Path pathPath = Paths.get(path);
 
-        FileTreeNode node = new FileTreeNode(pathPath, name);
+        FileTreeNode node = new FileTreeNode(pathPath, name, false);
         this.add(node);
 
         FileHandlerInterface handler = fileHandlerMap.get(ExternalFilenames.getFileExtension(name));
@@ -320,7 +515,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
      * @param filename the filename
      * @return true, if successful
      */
-    private boolean validFile(String filename) {
+    private static boolean validFile(String filename) {
         String fileExtension = ExternalFilenames.getFileExtension(filename);
 
         if (fileHandlerMap != null) {
@@ -409,8 +604,11 @@ public class FileTreeNode extends DefaultMutableTreeNode
                 : BuiltInDataFlavour.FILE_DATAITEM_FLAVOR;
     }
 
-    /** Refresh folder. */
-    public void refreshFolder() {
+    /** Refresh folder, called on the file watcher thread. */
+    public synchronized void refreshFolder() {
+        // Discard any batches still to be added from a background read
+        loadGeneration++;
+        loading = false;
         populated = false;
         interim = true;
         populateDirectories(false);
@@ -31,11 +31,17 @@ import com.sldeditor.datasource.SLDEditorFileInterface;
 import com.sldeditor.datasource.chooseraster.ChooseRasterFormatInterface;
 import com.sldeditor.datasource.chooseraster.ChooseRasterFormatPanel;
 import com.sldeditor.datasource.chooseraster.DetermineRasterFormat;
+import com.sldeditor.datasource.pool.DataStorePool;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
 import org.apache.log4j.Logger;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
 import org.geotools.coverage.grid.io.AbstractGridFormat;
@@ -55,15 +61,18 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  */
 public class CreateExternalDataSource implements CreateDataSourceInterface {
 
-    /** The data source info. */
-    private DataSourceInfo dsInfo = new DataSourceInfo();
-
     /** The default crs. */
     private CoordinateReferenceSystem defaultCRS;
 
     /** The logger. */
     private static Logger logger = Logger.getLogger(CreateExternalDataSource.class);
 
+    /**
+     * The connection parameter asking database data stores (e.g. PostGIS) to use estimated
+     * extents from the table statistics rather than scanning the table.
+     */
+    private static final String ESTIMATED_EXTENTS_PARAMETER = "Estimated extends";
+
     /** Default constructor. */
     public CreateExternalDataSource() {
         defaultCRS = CoordManager.getInstance().getWGS84();
@@ -80,11 +89,11 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
     @Override
     public List<DataSourceInfo> connect(
             String typeName, String geometryFieldName, SLDEditorFileInterface editorFile) {
+        // A new data source info each time, connections may overlap when made asynchronously
+        DataSourceInfo dsInfo = new DataSourceInfo();
         List<DataSourceInfo> dataSourceInfoList = new ArrayList<>();
         dataSourceInfoList.add(dsInfo);
 
-        dsInfo.reset();
-
         if (editorFile != null) {
             SLDDataInterface sldData = editorFile.getSLDData();
 
@@ -102,16 +111,26 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
                 }
             }
 
+            DataSourceSamplingOptions samplingOptions = sldData.getSamplingOptions();
+            if ((samplingOptions != null)
+                    && samplingOptions.isEnabled()
+                    && samplingOptions.isUseEstimatedExtent()) {
+                map = new HashMap<>(map);
+                map.put(ESTIMATED_EXTENTS_PARAMETER, Boolean.TRUE);
+            }
+
             DataStore dataStore = null;
             try {
-                dataStore = DataStoreFinder.getDataStore(map);
+                dataStore = DataStorePool.getInstance().borrow(map);
 
                 if (dataStore != null) {
                     // Try connecting to a vector data source
-                    connectToVectorDataSource(typeName, dataStore);
+                    dataStore =
+                            connectToVectorDataSource(
+                                    dsInfo, typeName, dataStore, map, samplingOptions);
                 } else {
                     // Try connecting to a raster data source
-                    connectToRasterDataSource(map);
+                    connectToRasterDataSource(dsInfo, map);
                 }
             } catch (IOException e) {
                 ConsoleManager.getInstance().exception(this, e);
@@ -135,15 +154,21 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
     /**
      * Connect to raster data source.
      *
+     * @param dsInfo the data source info
      * @param map the map
      */
-    private void connectToRasterDataSource(Map<String, Object> map) {
+    private void connectToRasterDataSource(DataSourceInfo dsInfo, Map<String, Object> map) {
         Object rasterFilename = map.get(DataSourceConstants.FILE_MAP_KEY);
         if (rasterFilename != null) {
             File rasterFile = new File(ExternalFilenames.convertURLToFile((String) rasterFilename));
 
             ChooseRasterFormatInterface panel =
-                    new ChooseRasterFormatPanel(Controller.getInstance().getFrame());
+                    formatList ->
+                            showOnEventDispatchThread(
+                                    () ->
+                                            new ChooseRasterFormatPanel(
+                                                            Controller.getInstance().getFrame())
+                                                    .showPanel(formatList));
 
             AbstractGridFormat format = DetermineRasterFormat.choose(rasterFile, panel);
             AbstractGridCoverage2DReader reader = format.getReader(rasterFile);
@@ -157,11 +182,20 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
     /**
      * Connect to vector data source.
      *
+     * @param dsInfo the data source info
      * @param typeName the type name
-     * @param dataStore the data store
+     * @param dataStore the data store borrowed from the pool
+     * @param map the connection parameters
+     * @param samplingOptions the sampling options
+     * @return the data store connected to, not pooled if a crs had to be forced
      * @throws IOException Signals that an I/O exception has occurred.
      */
-    private void connectToVectorDataSource(String typeName, DataStore dataStore)
+    private DataStore connectToVectorDataSource(
+            DataSourceInfo dsInfo,
+            String typeName,
+            DataStore dataStore,
+            Map<String, Object> map,
+            DataSourceSamplingOptions samplingOptions)
             throws IOException {
         dsInfo.setTypeName(typeName);
 
@@ -171,32 +205,80 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
         if (schema.getCoordinateReferenceSystem() == null) {
             // No crs found to set a default and reload
             if (dataStore instanceof ShapefileDataStore) {
-                ShapefileDataStore shapeFileDatastore = (ShapefileDataStore) dataStore;
-
                 CoordinateReferenceSystem crs =
-                        JCRSChooser.showDialog(
-                                Localisation.getString(
-                                        CreateExternalDataSource.class, "CRSPanel.title"),
-                                defaultCRS.getIdentifiers().iterator().next().toString());
+                        showOnEventDispatchThread(
+                                () ->
+                                        JCRSChooser.showDialog(
+                                                Localisation.getString(
+                                                        CreateExternalDataSource.class,
+                                                        "CRSPanel.title"),
+                                                defaultCRS
+                                                        .getIdentifiers()
+                                                        .iterator()
+                                                        .next()
+                                                        .toString()));
                 if (crs != null) {
-                    shapeFileDatastore.forceSchemaCRS(crs);
+                    // The pooled data store is shared, the crs is forced on a data store of its own
+                    DataStore crsDataStore = DataStoreFinder.getDataStore(map);
+                    if (crsDataStore instanceof ShapefileDataStore) {
+                        try {
+                            ((ShapefileDataStore) crsDataStore).forceSchemaCRS(crs);
+                            source = crsDataStore.getFeatureSource(typeName);
+                        } catch (IOException e) {
+                            crsDataStore.dispose();
+                            throw e;
+                        }
+                        DataStorePool.getInstance().release(dataStore);
+                        dataStore = crsDataStore;
+                        schema = source.getSchema();
+                    } else if (crsDataStore != null) {
+                        crsDataStore.dispose();
+                    }
                 }
-
-                source = dataStore.getFeatureSource(typeName);
-                schema = source.getSchema();
             }
         }
         dsInfo.setSchema(schema);
 
-        determineGeometryType(schema.getGeometryDescriptor().getType());
+        if ((samplingOptions != null) && samplingOptions.isEnabled()) {
+            dsInfo.setSampledDataStore(DataSourceSampler.sample(source, samplingOptions));
+        }
+
+        determineGeometryType(dsInfo, schema.getGeometryDescriptor().getType());
+
+        return dataStore;
+    }
+
+    /**
+     * Show a dialog on the event dispatch thread, data sources may be connected to on a
+     * background thread.
+     *
+     * @param <T> the type of the dialog result
+     * @param dialog the dialog
+     * @return the dialog result
+     */
+    private static <T> T showOnEventDispatchThread(Supplier<T> dialog) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            return dialog.get();
+        }
+
+        AtomicReference<T> result = new AtomicReference<>();
+        try {
+            SwingUtilities.invokeAndWait(() -> result.set(dialog.get()));
+        } catch (InvocationTargetException e) {
+            ConsoleManager.getInstance().exception(CreateExternalDataSource.class, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result.get();
     }
 
     /**
      * Determine geometry type.
      *
+     * @param dsInfo the data source info
      * @param type the type
      */
-    private void determineGeometryType(GeometryType type) {
+    private void determineGeometryType(DataSourceInfo dsInfo, GeometryType type) {
         Class<?> bindingType = type.getBinding();
 
         dsInfo.setGeometryType(GeometryTypeMapping.getGeometryType(bindingType));
@@ -51,7 +51,7 @@ public class CreateInlineDataSource implements CreateDataSourceInterface {
      * @return the list of data stores
      */
     @Override
-    public List<DataSourceInfo> connect(
+    public synchronized List<DataSourceInfo> connect(
             String typeName, String geometryFieldName, SLDEditorFileInterface editorFile) {
         for (DataSourceInfo dsInfo : dataSourceInfoList) {
             dsInfo.reset();
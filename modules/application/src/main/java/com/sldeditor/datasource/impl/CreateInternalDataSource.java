@@ -65,7 +65,7 @@ public class CreateInternalDataSource implements CreateDataSourceInterface {
      * @return the list of datastores
      */
     @Override
-    public List<DataSourceInfo> connect(
+    public synchronized List<DataSourceInfo> connect(
             String typeName, String geometryFieldName, SLDEditorFileInterface editorFile) {
         List<DataSourceInfo> dataSourceInfoList = new ArrayList<>();
         dataSourceInfoList.add(dsInfo);
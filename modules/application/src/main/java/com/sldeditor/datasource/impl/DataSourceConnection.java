@@ -0,0 +1,459 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.impl;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.datasource.DataSourceConnectionListener;
+import java.lang.reflect.InvocationTargetException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+
+/**
+ * A connection to a data source, run as a pipeline of stages (connect, schema, sample, bounds,
+ * notify).
+ *
+ * <p>When started asynchronously the pipeline runs on the data source task pool, one connection
+ * at a time. Each stage runs on the background task pool and fails the connection if it does not
+ * finish within the stage timeout, measured from when the stage starts running rather than while
+ * it is queued behind other background tasks. The notify stage runs on the event dispatch thread.
+ * Listeners are told on the event dispatch thread as each stage starts and when the connection
+ * completes.
+ *
+ * <p>Otherwise (e.g. unit tests, headless operation) the stages run immediately on the calling
+ * thread, without timeouts, and listeners are told on the calling thread.
+ *
+ * <p>A connection can be cancelled at any time, stages not yet started are skipped and the
+ * running stage is interrupted.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataSourceConnection {
+
+    /** The Constant DEFAULT_STAGE_TIMEOUT, in milliseconds. */
+    public static final long DEFAULT_STAGE_TIMEOUT = 2L * 60L * 1000L;
+
+    /** The interval to check a queued stage has not been cancelled, in milliseconds. */
+    private static final long QUEUED_POLL_INTERVAL = 100L;
+
+    /** The connection status. */
+    public enum Status {
+
+        /** Not yet started. */
+        PENDING,
+
+        /** Stages are running. */
+        RUNNING,
+
+        /** All stages completed. */
+        COMPLETED,
+
+        /** Cancelled before all stages completed. */
+        CANCELLED,
+
+        /** A stage failed or timed out. */
+        FAILED
+    }
+
+    /** A stage of the pipeline. */
+    @FunctionalInterface
+    public interface StageTask {
+
+        /**
+         * Run the stage.
+         *
+         * @throws Exception the exception
+         */
+        void run() throws Exception;
+    }
+
+    /** The stages, in the order they are run. */
+    private final Map<DataSourceConnectionStage, StageTask> stageMap =
+            new EnumMap<>(DataSourceConnectionStage.class);
+
+    /** The listener list. */
+    private final List<DataSourceConnectionListener> listenerList = new CopyOnWriteArrayList<>();
+
+    /** Counted down when the connection completes. */
+    private final CountDownLatch completedLatch = new CountDownLatch(1);
+
+    /** The started flag, set when the pipeline starts running or is cancelled beforehand. */
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    /** The stage timeout, in milliseconds. */
+    private volatile long stageTimeout = DEFAULT_STAGE_TIMEOUT;
+
+    /** The status. */
+    private volatile Status status = Status.PENDING;
+
+    /** The current stage, null if not started. */
+    private volatile DataSourceConnectionStage stage = null;
+
+    /** The cancelled flag. */
+    private volatile boolean cancelled = false;
+
+    /** The asynchronous flag. */
+    private volatile boolean async = false;
+
+    /** The future of the pipeline, when running asynchronously. */
+    private volatile Future<?> pipelineFuture = null;
+
+    /** The future of the running stage, when running asynchronously. */
+    private volatile Future<?> stageFuture = null;
+
+    /**
+     * Adds a stage, replacing any task already set for the stage.
+     *
+     * @param connectionStage the connection stage
+     * @param task the task
+     */
+    public void addStage(DataSourceConnectionStage connectionStage, StageTask task) {
+        stageMap.put(connectionStage, task);
+    }
+
+    /**
+     * Adds the listener.
+     *
+     * @param listener the listener
+     */
+    public void addListener(DataSourceConnectionListener listener) {
+        if ((listener != null) && !listenerList.contains(listener)) {
+            listenerList.add(listener);
+        }
+    }
+
+    /**
+     * Removes the listener.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(DataSourceConnectionListener listener) {
+        listenerList.remove(listener);
+    }
+
+    /**
+     * Sets the time each stage is allowed to run when running asynchronously.
+     *
+     * @param stageTimeout the stage timeout in milliseconds
+     */
+    public void setStageTimeout(long stageTimeout) {
+        this.stageTimeout = stageTimeout;
+    }
+
+    /**
+     * Start the connection.
+     *
+     * @param runAsync if true run the stages on the task pools, otherwise on the calling thread
+     */
+    public void start(boolean runAsync) {
+        synchronized (this) {
+            if (status != Status.PENDING) {
+                return;
+            }
+            status = Status.RUNNING;
+            async = runAsync;
+        }
+
+        if (cancelled) {
+            complete(Status.CANCELLED);
+        } else if (runAsync) {
+            pipelineFuture =
+                    TaskManager.getInstance().submit(TaskManager.DATASOURCE_POOL, this::run);
+        } else {
+            run();
+        }
+    }
+
+    /** Cancel the connection, stages not yet started are skipped. */
+    public void cancel() {
+        cancelled = true;
+
+        if (started.compareAndSet(false, true)) {
+            // The pipeline has not started so will never run
+            Future<?> future = pipelineFuture;
+            if (future != null) {
+                future.cancel(false);
+            }
+
+            if (status != Status.PENDING) {
+                complete(Status.CANCELLED);
+            }
+            return;
+        }
+
+        Future<?> future = stageFuture;
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    /** Run the stages in order. */
+    private void run() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        for (Map.Entry<DataSourceConnectionStage, StageTask> entry : stageMap.entrySet()) {
+            if (cancelled) {
+                complete(Status.CANCELLED);
+                return;
+            }
+
+            stage = entry.getKey();
+            fireStageStarted(stage);
+
+            try {
+                runStage(stage, entry.getValue());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                complete(Status.CANCELLED);
+                return;
+            } catch (CancellationException e) {
+                complete(Status.CANCELLED);
+                return;
+            } catch (TimeoutException e) {
+                ConsoleManager.getInstance()
+                        .error(
+                                this,
+                                String.format(
+                                        "%s : %s",
+                                        Localisation.getString(
+                                                DataSourceConnection.class,
+                                                "DataSourceConnection.timedOut"),
+                                        stage));
+                complete(Status.FAILED);
+                return;
+            } catch (Exception e) {
+                ConsoleManager.getInstance().exception(this, e);
+                complete(cancelled ? Status.CANCELLED : Status.FAILED);
+                return;
+            }
+        }
+
+        complete(Status.COMPLETED);
+    }
+
+    /**
+     * Run a stage.
+     *
+     * @param connectionStage the connection stage
+     * @param task the task
+     * @throws Exception the exception thrown by the stage
+     */
+    private void runStage(DataSourceConnectionStage connectionStage, StageTask task)
+            throws Exception {
+        if (!async) {
+            task.run();
+        } else if (connectionStage == DataSourceConnectionStage.NOTIFY) {
+            runOnEventDispatchThread(task);
+        } else {
+            // The pipeline occupies the data source pool so the stage runs on the background pool
+            CountDownLatch stageRunning = new CountDownLatch(1);
+            Future<Void> future =
+                    TaskManager.getInstance()
+                            .submit(
+                                    TaskManager.BACKGROUND_POOL,
+                                    () -> {
+                                        stageRunning.countDown();
+                                        task.run();
+                                        return null;
+                                    });
+            stageFuture = future;
+            if (cancelled) {
+                future.cancel(true);
+            }
+
+            try {
+                // Time spent queued behind other background tasks does not count
+                while (!stageRunning.await(QUEUED_POLL_INTERVAL, TimeUnit.MILLISECONDS)
+                        && !future.isDone()) {
+                    // Still queued
+                }
+                future.get(stageTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            } finally {
+                stageFuture = null;
+            }
+        }
+    }
+
+    /**
+     * Run a stage on the event dispatch thread, waiting for it to finish.
+     *
+     * @param task the task
+     * @throws Exception the exception thrown by the stage
+     */
+    private void runOnEventDispatchThread(StageTask task) throws Exception {
+        Exception[] stageException = {null};
+        try {
+            SwingUtilities.invokeAndWait(
+                    () -> {
+                        if (cancelled) {
+                            return;
+                        }
+                        try {
+                            task.run();
+                        } catch (Exception e) {
+                            stageException[0] = e;
+                        }
+                    });
+        } catch (InvocationTargetException e) {
+            throw unwrap(e.getCause());
+        }
+
+        if (stageException[0] != null) {
+            throw stageException[0];
+        }
+    }
+
+    /**
+     * Convert the cause of a failed stage to an exception.
+     *
+     * @param cause the cause
+     * @return the exception
+     */
+    private static Exception unwrap(Throwable cause) {
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new ExecutionException(cause);
+    }
+
+    /**
+     * Complete the connection.
+     *
+     * @param completedStatus the completed status
+     */
+    private void complete(Status completedStatus) {
+        synchronized (this) {
+            if (completedLatch.getCount() == 0) {
+                return;
+            }
+            status = completedStatus;
+            completedLatch.countDown();
+        }
+
+        if (completedStatus == Status.CANCELLED) {
+            ConsoleManager.getInstance()
+                    .information(
+                            this,
+                            Localisation.getString(
+                                    DataSourceConnection.class, "DataSourceConnection.cancelled"));
+        }
+
+        notifyListeners(
+                () -> {
+                    for (DataSourceConnectionListener listener : listenerList) {
+                        listener.connectionCompleted(this);
+                    }
+                });
+    }
+
+    /**
+     * Tell listeners a stage has started.
+     *
+     * @param connectionStage the connection stage
+     */
+    private void fireStageStarted(DataSourceConnectionStage connectionStage) {
+        notifyListeners(
+                () -> {
+                    for (DataSourceConnectionListener listener : listenerList) {
+                        listener.connectionStageStarted(this, connectionStage);
+                    }
+                });
+    }
+
+    /**
+     * Notify listeners, on the event dispatch thread when running asynchronously.
+     *
+     * @param notification the notification
+     */
+    private void notifyListeners(Runnable notification) {
+        if (async && !SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(notification);
+        } else {
+            notification.run();
+        }
+    }
+
+    /**
+     * Wait for the connection to complete, must not be called on the event dispatch thread when
+     * running asynchronously.
+     *
+     * @param timeout the timeout
+     * @param unit the unit
+     * @return true, if the connection completed
+     * @throws InterruptedException the interrupted exception
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return completedLatch.await(timeout, unit);
+    }
+
+    /**
+     * Checks if the connection has completed, successfully or otherwise.
+     *
+     * @return true, if done
+     */
+    public boolean isDone() {
+        return completedLatch.getCount() == 0;
+    }
+
+    /**
+     * Checks if the connection has been cancelled.
+     *
+     * @return true, if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the status.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the current stage, or the last stage run once the connection has completed.
+     *
+     * @return the stage, null if not started
+     */
+    public DataSourceConnectionStage getStage() {
+        return stage;
+    }
+}
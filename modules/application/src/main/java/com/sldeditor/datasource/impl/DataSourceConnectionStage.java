@@ -0,0 +1,43 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.impl;
+
+/**
+ * The stages a data source connection passes through, in the order they are run.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public enum DataSourceConnectionStage {
+
+    /** Open the external data store. */
+    CONNECT,
+
+    /** Read the schema and attributes of the data source. */
+    SCHEMA,
+
+    /** Create the example and user layer data used to render the style. */
+    SAMPLE,
+
+    /** Calculate the bounds of the data source. */
+    BOUNDS,
+
+    /** Publish the data source and notify listeners, runs on the event dispatch thread. */
+    NOTIFY
+}
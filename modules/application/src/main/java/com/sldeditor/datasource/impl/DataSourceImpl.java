@@ -23,6 +23,7 @@ import com.sldeditor.common.Controller;
 import com.sldeditor.common.DataSourcePropertiesInterface;
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.datasource.DataSourceConnectionListener;
 import com.sldeditor.datasource.DataSourceInterface;
 import com.sldeditor.datasource.DataSourceUpdatedInterface;
 import com.sldeditor.datasource.SLDEditorFileInterface;
@@ -30,22 +31,26 @@ import com.sldeditor.datasource.attribute.AllowedAttributeTypes;
 import com.sldeditor.datasource.attribute.DataSourceAttributeData;
 import com.sldeditor.datasource.attribute.DataSourceAttributeList;
 import com.sldeditor.datasource.attribute.DataSourceAttributeListInterface;
+import com.sldeditor.datasource.cache.PreviewDataCache;
 import com.sldeditor.datasource.checks.CheckAttributeInterface;
+import com.sldeditor.datasource.pool.DataStorePool;
+import com.sldeditor.datasource.rulehit.RuleHitAnalyser;
+import com.sldeditor.datasource.statistics.FieldStatistics;
+import com.sldeditor.datasource.statistics.FieldStatisticsService;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import javax.swing.SwingUtilities;
 import org.apache.log4j.Logger;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
-import org.geotools.data.DataAccessFactory;
 import org.geotools.data.DataStore;
-import org.geotools.data.DataStoreFactorySpi;
-import org.geotools.data.DataStoreFinder;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.styling.UserLayer;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.simple.SimpleFeature;
@@ -64,6 +69,9 @@ import org.opengis.feature.type.PropertyDescriptor;
  *
  * <p>- user layer inline data
  *
+ * <p>Connections are made in stages by a DataSourceConnection, the data sources it creates only
+ * replace the current ones once all the other stages have completed.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class DataSourceImpl implements DataSourceInterface {
@@ -107,6 +115,40 @@ public class DataSourceImpl implements DataSourceInterface {
     /** The inline data source. */
     private CreateDataSourceInterface inlineDataSource = null;
 
+    /** The connection listener list. */
+    private List<DataSourceConnectionListener> connectionListenerList = new ArrayList<>();
+
+    /** The most recent connection, null if reset. */
+    private volatile DataSourceConnection currentConnection = null;
+
+    /** The bounds of the external data source, null if not known. */
+    private ReferencedEnvelope bounds = null;
+
+    /** The data sources created by a connection, held until they are published. */
+    private static class PendingDataSource {
+
+        /** The data source info. */
+        private DataSourceInfo dataSourceInfo = new DataSourceInfo();
+
+        /** The example data source info. */
+        private DataSourceInfo exampleDataSourceInfo = null;
+
+        /** The user layer data source info. */
+        private List<DataSourceInfo> userLayerDataSourceInfo = new ArrayList<>();
+
+        /** The opened flag, set if the external data source was opened. */
+        private boolean opened = false;
+
+        /** The connected to data source flag. */
+        private boolean connected = false;
+
+        /** The bounds of the external data source. */
+        private ReferencedEnvelope bounds = null;
+
+        /** The published flag, set once the data sources have replaced the current ones. */
+        private volatile boolean published = false;
+    }
+
     /** Default constructor. */
     public DataSourceImpl() {
         populateAvailableDataStores();
@@ -157,8 +199,32 @@ public class DataSourceImpl implements DataSourceInterface {
         listenerList.remove(listener);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceInterface#addConnectionListener(com.sldeditor.
+     * datasource.DataSourceConnectionListener)
+     */
+    @Override
+    public void addConnectionListener(DataSourceConnectionListener listener) {
+        if (!connectionListenerList.contains(listener)) {
+            connectionListenerList.add(listener);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceInterface#removeConnectionListener(com.sldeditor.
+     * datasource.DataSourceConnectionListener)
+     */
+    @Override
+    public void removeConnectionListener(DataSourceConnectionListener listener) {
+        connectionListenerList.remove(listener);
+    }
+
     /**
-     * Connect to data source.
+     * Connect to data source, on the calling thread.
      *
      * @param typeName the type name
      * @param editorFile the editor file
@@ -169,116 +235,322 @@ public class DataSourceImpl implements DataSourceInterface {
             String typeName,
             SLDEditorFileInterface editorFile,
             List<CheckAttributeInterface> checkList) {
+        createConnection(typeName, editorFile, checkList).start(false);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceInterface#connectAsync(java.lang.String,
+     * com.sldeditor.datasource.SLDEditorFileInterface, java.util.List)
+     */
+    @Override
+    public DataSourceConnection connectAsync(
+            String typeName,
+            SLDEditorFileInterface editorFile,
+            List<CheckAttributeInterface> checkList) {
+        DataSourceConnection connection = createConnection(typeName, editorFile, checkList);
+        connection.start(SwingUtilities.isEventDispatchThread());
+        return connection;
+    }
+
+    /**
+     * Creates the connection pipeline, any connection still running is cancelled. The current
+     * data sources are kept until the new ones are ready to replace them.
+     *
+     * @param typeName the type name
+     * @param editorFile the editor file
+     * @param checkList the check list
+     * @return the data source connection
+     */
+    private DataSourceConnection createConnection(
+            String typeName,
+            SLDEditorFileInterface editorFile,
+            List<CheckAttributeInterface> checkList) {
         logger.debug("connect : " + typeName);
-        reset();
+        cancelConnection();
 
-        this.editorFileInterface = editorFile;
+        DataSourceConnection connection = new DataSourceConnection();
+        for (DataSourceConnectionListener listener : connectionListenerList) {
+            connection.addListener(listener);
+        }
 
-        if (editorFileInterface != null) {
-            this.dataSourceProperties = editorFileInterface.getDataSource();
+        DataSourcePropertiesInterface properties =
+                (editorFile == null) ? null : editorFile.getDataSource();
+        if (properties == null) {
+            // Nothing to connect to
+            reset();
+            this.editorFileInterface = editorFile;
 
-            if (this.dataSourceProperties != null) {
-                if (this.dataSourceProperties.isEmpty()) {
-                    openWithoutDataSource();
-                } else {
-                    openExternalDataSource(typeName);
-                }
+            if (editorFile != null) {
+                logger.error("dataSourceProperties is empty");
+            }
+        } else {
+            boolean external = !properties.isEmpty();
+            PendingDataSource pending = new PendingDataSource();
+
+            // The stages only use the editor file passed in, a connection that has been
+            // superseded must not update the file of the connection replacing it
+            connection.addStage(
+                    DataSourceConnectionStage.CONNECT,
+                    () -> {
+                        if (external) {
+                            DataSourceInfo opened = openExternalDataSource(typeName, editorFile);
+                            synchronized (pending) {
+                                if (opened != null) {
+                                    pending.dataSourceInfo = opened;
+                                    pending.opened = true;
+                                }
+
+                                if (connection.isDone()) {
+                                    // Cancelled or timed out while connecting, the data
+                                    // store has been borrowed from the pool so return it
+                                    pending.dataSourceInfo.unloadDataStore();
+                                }
+                            }
+                        }
+                    });
+            connection.addStage(
+                    DataSourceConnectionStage.SCHEMA,
+                    () -> readSchema(external, pending, editorFile));
+            connection.addStage(
+                    DataSourceConnectionStage.SAMPLE,
+                    () -> {
+                        // Create the example data to show in the render panel
+                        pending.exampleDataSourceInfo =
+                                createExampleDataSource(pending.dataSourceInfo, editorFile);
+
+                        pending.userLayerDataSourceInfo =
+                                createUserLayerDataSources(new ArrayList<>(), editorFile);
+                    });
+            connection.addStage(
+                    DataSourceConnectionStage.BOUNDS,
+                    () -> pending.bounds = calculateBounds(pending));
+            connection.addStage(
+                    DataSourceConnectionStage.NOTIFY,
+                    () -> publish(pending, editorFile, properties, checkList));
+
+            // Release anything opened by a connection that was not published
+            connection.addListener(
+                    new DataSourceConnectionListener() {
+                        @Override
+                        public void connectionStageStarted(
+                                DataSourceConnection completed, DataSourceConnectionStage stage) {
+                            // Does nothing
+                        }
+
+                        @Override
+                        public void connectionCompleted(DataSourceConnection completed) {
+                            synchronized (pending) {
+                                if (!pending.published) {
+                                    pending.dataSourceInfo.unloadDataStore();
+                                }
+                            }
+                        }
+                    });
+        }
 
-                // Create the example data to show in the render panel
-                createExampleDataSource();
+        currentConnection = connection;
+        return connection;
+    }
 
-                createUserLayerDataSources();
+    /**
+     * Publish the data sources created by a connection, replacing the current ones, and notify
+     * listeners.
+     *
+     * @param pending the pending data sources
+     * @param editorFile the editor file
+     * @param properties the data source properties
+     * @param checkList the check list
+     */
+    private void publish(
+            PendingDataSource pending,
+            SLDEditorFileInterface editorFile,
+            DataSourcePropertiesInterface properties,
+            List<CheckAttributeInterface> checkList) {
+        // Release the current data sources now the new ones are ready
+        unloadDataStore();
+        dataSourceInfo.reset();
+        if (exampleDataSourceInfo != null) {
+            exampleDataSourceInfo.reset();
+        }
 
-                // Report any attributes used in SLD but not in data source
-                if (checkList != null) {
-                    for (CheckAttributeInterface check : checkList) {
-                        check.checkAttributes(editorFile);
-                    }
-                }
+        this.editorFileInterface = editorFile;
+        this.dataSourceProperties = properties;
+
+        synchronized (pending) {
+            dataSourceInfo = pending.dataSourceInfo;
+            exampleDataSourceInfo = pending.exampleDataSourceInfo;
+            userLayerDataSourceInfo = pending.userLayerDataSourceInfo;
+            connectedToDataSourceFlag = pending.connected;
+            bounds = pending.bounds;
+            pending.published = true;
+        }
 
-                notifyDataSourceLoaded();
-            } else {
-                logger.error("dataSourceProperties is empty");
+        // Report any attributes used in SLD but not in data source
+        if (checkList != null) {
+            for (CheckAttributeInterface check : checkList) {
+                check.checkAttributes(editorFile);
             }
         }
+
+        notifyDataSourceLoaded();
     }
 
-    /** Create inline data sources. */
-    private void createUserLayerDataSources() {
+    /** Cancel the data source connection, if one is running. */
+    private void cancelConnection() {
+        DataSourceConnection connection = currentConnection;
+        if ((connection != null) && !connection.isDone()) {
+            connection.cancel();
+        }
+        currentConnection = null;
+    }
+
+    /**
+     * Create inline data sources.
+     *
+     * @param current the current user layer data sources
+     * @param editorFile the editor file
+     * @return the user layer data sources, current if they could not be created
+     */
+    private List<DataSourceInfo> createUserLayerDataSources(
+            List<DataSourceInfo> current, SLDEditorFileInterface editorFile) {
         logger.debug("createUserLayerDataSources");
         if (inlineDataSource == null) {
             ConsoleManager.getInstance().error(this, "No inline data source creation object set");
-        } else {
-            userLayerDataSourceInfo =
-                    inlineDataSource.connect(null, null, this.editorFileInterface);
-
-            if (userLayerDataSourceInfo != null) {
-                for (DataSourceInfo dsInfo : userLayerDataSourceInfo) {
-                    if (dsInfo.hasData()) {
-                        logger.debug("User layer data sources:");
-                        dsInfo.populateFieldMap();
-                    }
-                }
+            return current;
+        }
+
+        List<DataSourceInfo> dsInfoList =
+                inlineDataSource.connect(null, null, editorFile);
+
+        if (dsInfoList == null) {
+            return new ArrayList<>();
+        }
+
+        for (DataSourceInfo dsInfo : dsInfoList) {
+            if (dsInfo.hasData()) {
+                logger.debug("User layer data sources:");
+                dsInfo.populateFieldMap();
             }
         }
+        return dsInfoList;
     }
 
     /**
      * Open external data source.
      *
      * @param typeName the type name
+     * @param editorFile the editor file
+     * @return the data source info, null if the data source could not be opened
      */
-    private void openExternalDataSource(String typeName) {
+    private DataSourceInfo openExternalDataSource(
+            String typeName, SLDEditorFileInterface editorFile) {
         logger.debug("openExternalDataSource : " + typeName);
 
         if (externalDataSource == null) {
             ConsoleManager.getInstance().error(this, "No external data source creation object set");
         } else {
             List<DataSourceInfo> dataSourceInfoList =
-                    externalDataSource.connect(typeName, null, this.editorFileInterface);
+                    externalDataSource.connect(typeName, null, editorFile);
             if ((dataSourceInfoList != null) && (dataSourceInfoList.size() == 1)) {
-                dataSourceInfo = dataSourceInfoList.get(0);
+                return dataSourceInfoList.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read the schema of the data source, falling back to an internal data source created from
+     * the SLD if there is no external data.
+     *
+     * @param external the external flag, true if an external data source is configured
+     * @param pending the pending data sources
+     * @param editorFile the editor file
+     */
+    private void readSchema(
+            boolean external, PendingDataSource pending, SLDEditorFileInterface editorFile) {
+        if (!external) {
+            openWithoutDataSource(pending, editorFile);
+            return;
+        }
 
-                if (dataSourceInfo.hasData()) {
-                    logger.debug("External data sources:");
-                    dataSourceInfo.populateFieldMap();
+        if (externalDataSource == null) {
+            return;
+        }
 
-                    connectedToDataSourceFlag = true;
-                } else {
-                    openWithoutDataSource();
-                }
+        if (pending.opened) {
+            if (pending.dataSourceInfo.hasData()) {
+                logger.debug("External data sources:");
+                pending.dataSourceInfo.populateFieldMap();
+
+                pending.connected = true;
+            } else {
+                openWithoutDataSource(pending, editorFile);
             }
+        }
 
-            // Populate external fields
-            DataSourceAttributeList attributeData = new DataSourceAttributeList();
-            readAttributes(attributeData);
-            SLDDataInterface sldData = this.editorFileInterface.getSLDData();
+        // Populate external fields
+        DataSourceAttributeList attributeData = new DataSourceAttributeList();
+        readAttributes(pending.dataSourceInfo, attributeData);
+        SLDDataInterface sldData = editorFile.getSLDData();
+
+        sldData.setFieldList(attributeData.getData());
+    }
+
+    /**
+     * Calculate the bounds of an external data source.
+     *
+     * @param pending the pending data sources
+     * @return the bounds, null if not connected to an external data source
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private ReferencedEnvelope calculateBounds(PendingDataSource pending) throws IOException {
+        if (!pending.connected) {
+            return null;
+        }
 
-            sldData.setFieldList(attributeData.getData());
+        FeatureSource<SimpleFeatureType, SimpleFeature> features =
+                pending.dataSourceInfo.getFeatures();
+        if (features == null) {
+            return null;
         }
+
+        ReferencedEnvelope featureBounds = features.getBounds();
+        if ((featureBounds == null) || featureBounds.isNull()) {
+            featureBounds = features.getFeatures().getBounds();
+        }
+        return featureBounds;
     }
 
     /** Populates the list of available data stores that can be connected to. */
     private void populateAvailableDataStores() {
-        DataAccessFactory fac = null;
-
         logger.debug("Available data store factories:");
 
-        Iterator<DataStoreFactorySpi> iterator = DataStoreFinder.getAvailableDataStores();
-        while (iterator.hasNext()) {
-            fac = iterator.next();
+        for (String displayName : DataStorePool.getInstance().getAvailableDataStores()) {
+            logger.debug("\t" + displayName);
 
-            logger.debug("\t" + fac.getDisplayName());
-
-            availableDataStoreList.add(fac.getDisplayName());
+            availableDataStoreList.add(displayName);
         }
     }
 
+    /**
+     * Release the field statistics and rule hit counts calculated from a data store.
+     *
+     * @param dataStore the data store
+     */
+    private static void evictAnalysis(DataStore dataStore) {
+        FieldStatisticsService.getInstance().evict(dataStore);
+        RuleHitAnalyser.getInstance().evict(dataStore);
+    }
+
     /** Unload data store. */
     private void unloadDataStore() {
         if (dataSourceInfo != null) {
             // Tell any listeners that the data store is about to be disposed of
             notifyDataSourceAboutToUnloaded(dataSourceInfo.getDataStore());
+            PreviewDataCache.getInstance().evict(dataSourceInfo.getDataStore());
+            evictAnalysis(dataSourceInfo.getDataStore());
             dataSourceInfo.unloadDataStore();
         }
 
@@ -402,18 +674,29 @@ public class DataSourceImpl implements DataSourceInterface {
      */
     @Override
     public void readAttributes(DataSourceAttributeListInterface attributeData) {
+        readAttributes(dataSourceInfo, attributeData);
+    }
+
+    /**
+     * Read attributes from the first feature of a data source.
+     *
+     * @param dsInfo the data source
+     * @param attributeData the attribute data
+     */
+    private void readAttributes(
+            DataSourceInfo dsInfo, DataSourceAttributeListInterface attributeData) {
         if (attributeData == null) {
             return;
         }
 
         List<DataSourceAttributeData> valueMap = new ArrayList<>();
 
-        SimpleFeatureCollection featureCollection = dataSourceInfo.getFeatureCollection();
+        SimpleFeatureCollection featureCollection = dsInfo.getFeatureCollection();
         if (featureCollection != null) {
             SimpleFeatureIterator iterator = featureCollection.features();
 
-            Map<Integer, Name> fieldNameMap = dataSourceInfo.getFieldNameMap();
-            Map<Integer, Class<?>> fieldTypeMap = dataSourceInfo.getFieldTypeMap();
+            Map<Integer, Name> fieldNameMap = dsInfo.getFieldNameMap();
+            Map<Integer, Class<?>> fieldTypeMap = dsInfo.getFieldTypeMap();
 
             if (iterator.hasNext()) {
                 SimpleFeature feature = iterator.next();
@@ -474,7 +757,9 @@ public class DataSourceImpl implements DataSourceInterface {
      */
     @Override
     public void reset() {
+        cancelConnection();
         unloadDataStore();
+        bounds = null;
 
         dataSourceInfo.reset();
         dataSourceProperties = null;
@@ -485,23 +770,37 @@ public class DataSourceImpl implements DataSourceInterface {
         }
     }
 
-    /** Open without data source. */
-    private void openWithoutDataSource() {
+    /**
+     * Open without data source.
+     *
+     * @param pending the pending data sources
+     * @param editorFile the editor file
+     */
+    private void openWithoutDataSource(
+            PendingDataSource pending, SLDEditorFileInterface editorFile) {
         logger.debug("openWithoutDataSource");
 
-        connectedToDataSourceFlag = false;
+        pending.connected = false;
 
-        if (this.editorFileInterface.getSLD() == null) {
+        if (editorFile.getSLD() == null) {
             logger.debug("Missing StyledLayerDescriptor");
         } else {
-            createInternalDataSource();
+            pending.dataSourceInfo = createInternalDataSource(pending.dataSourceInfo, editorFile);
         }
     }
 
-    /** Creates the internal data source. */
-    private void createInternalDataSource() {
+    /**
+     * Creates the internal data source.
+     *
+     * @param current the current data source
+     * @param editorFile the editor file
+     * @return the internal data source, current if it could not be created
+     */
+    private DataSourceInfo createInternalDataSource(
+            DataSourceInfo current, SLDEditorFileInterface editorFile) {
         logger.debug("createInternalDataSource");
 
+        DataSourceInfo dsInfo = current;
         if (internalDataSource == null) {
             ConsoleManager.getInstance().error(this, "No internal data source creation object set");
         } else {
@@ -511,11 +810,9 @@ public class DataSourceImpl implements DataSourceInterface {
             while (retry && (attempt < MAX_RETRIES)) {
                 List<DataSourceInfo> dataSourceInfoList =
                         internalDataSource.connect(
-                                null,
-                                dataSourceInfo.getGeometryFieldName(),
-                                this.editorFileInterface);
+                                null, dsInfo.getGeometryFieldName(), editorFile);
                 if ((dataSourceInfoList != null) && (dataSourceInfoList.size() == 1)) {
-                    dataSourceInfo = dataSourceInfoList.get(0);
+                    dsInfo = dataSourceInfoList.get(0);
                 }
 
                 // Check that the field data types that were guessed are correct
@@ -528,24 +825,33 @@ public class DataSourceImpl implements DataSourceInterface {
                 }
             }
         }
+        return dsInfo;
     }
 
-    /** Creates the example data source. */
-    private void createExampleDataSource() {
+    /**
+     * Creates the example data source.
+     *
+     * @param dsInfo the data source the example data is created for
+     * @param editorFile the editor file
+     * @return the example data source, null if it could not be created
+     */
+    private DataSourceInfo createExampleDataSource(
+            DataSourceInfo dsInfo, SLDEditorFileInterface editorFile) {
         if (internalDataSource == null) {
             ConsoleManager.getInstance().error(this, "No internal data source creation object set");
         } else {
             logger.debug("Example data source:");
             List<DataSourceInfo> dataSourceInfoList =
                     internalDataSource.connect(
-                            dataSourceInfo.getTypeName(),
-                            dataSourceInfo.getGeometryFieldName(),
-                            this.editorFileInterface);
+                            dsInfo.getTypeName(),
+                            dsInfo.getGeometryFieldName(),
+                            editorFile);
 
             if ((dataSourceInfoList != null) && (dataSourceInfoList.size() == 1)) {
-                exampleDataSourceInfo = dataSourceInfoList.get(0);
+                return dataSourceInfoList.get(0);
             }
         }
+        return null;
     }
 
     /** Notify data source loaded. */
@@ -624,7 +930,9 @@ public class DataSourceImpl implements DataSourceInterface {
             }
             this.connectedToDataSourceFlag = false;
 
-            createInternalDataSource();
+            // The fields are changing so any statistics are out of date
+            evictAnalysis(dataSourceInfo.getDataStore());
+            dataSourceInfo = createInternalDataSource(dataSourceInfo, this.editorFileInterface);
 
             notifyDataSourceLoaded();
         }
@@ -647,7 +955,9 @@ public class DataSourceImpl implements DataSourceInterface {
             }
             fieldList.add(dataSourceField);
 
-            createInternalDataSource();
+            // The fields are changing so any statistics are out of date
+            evictAnalysis(dataSourceInfo.getDataStore());
+            dataSourceInfo = createInternalDataSource(dataSourceInfo, this.editorFileInterface);
 
             notifyDataSourceLoaded();
         }
@@ -705,7 +1015,8 @@ public class DataSourceImpl implements DataSourceInterface {
     /** Recreate inline data sources for user layers. */
     @Override
     public void updateUserLayers() {
-        createUserLayerDataSources();
+        userLayerDataSourceInfo =
+                createUserLayerDataSources(userLayerDataSourceInfo, this.editorFileInterface);
 
         notifyDataSourceLoaded();
     }
@@ -736,4 +1047,46 @@ public class DataSourceImpl implements DataSourceInterface {
     public String getGeometryFieldName() {
         return dataSourceInfo.getGeometryFieldName();
     }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceInterface#getBounds()
+     */
+    @Override
+    public ReferencedEnvelope getBounds() {
+        return bounds;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceInterface#getFieldStatistics(java.lang.String)
+     */
+    @Override
+    public FieldStatistics getFieldStatistics(String fieldName) {
+        // Statistics are calculated from all of the features, not the sample
+        return FieldStatisticsService.getInstance()
+                .getFieldStatistics(getUnsampledFeatureSource(), fieldName);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceInterface#getUnsampledFeatureSource()
+     */
+    @Override
+    public FeatureSource<SimpleFeatureType, SimpleFeature> getUnsampledFeatureSource() {
+        DataStore dataStore = dataSourceInfo.getDataStore();
+        if ((dataStore == null) || (dataSourceInfo.getTypeName() == null)) {
+            return null;
+        }
+
+        try {
+            return dataStore.getFeatureSource(dataSourceInfo.getTypeName());
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return null;
+    }
 }
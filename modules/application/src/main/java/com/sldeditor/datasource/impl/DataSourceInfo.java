@@ -20,6 +20,7 @@
 package com.sldeditor.datasource.impl;
 
 import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.datasource.pool.DataStorePool;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -32,6 +33,7 @@ import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
 import org.geotools.data.DataStore;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.FeatureStore;
+import org.geotools.data.memory.MemoryDataStore;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.feature.NameImpl;
@@ -72,6 +74,9 @@ public class DataSourceInfo {
     /** The data store. */
     private DataStore dataStore = null;
 
+    /** The in memory sample of the data store, null if not sampled. */
+    private MemoryDataStore sampledDataStore = null;
+
     /** The grid coverage. */
     private AbstractGridCoverage2DReader gridCoverageReader = null;
 
@@ -108,6 +113,8 @@ public class DataSourceInfo {
 
         dataStore = null;
 
+        disposeSampledDataStore();
+
         gridCoverageReader = null;
 
         fieldNameMap.clear();
@@ -178,10 +185,56 @@ public class DataSourceInfo {
         this.dataStore = dataStore;
     }
 
+    /**
+     * Gets the in memory sample of the data store.
+     *
+     * @return the sampled data store, null if the data store has not been sampled
+     */
+    public MemoryDataStore getSampledDataStore() {
+        return sampledDataStore;
+    }
+
+    /**
+     * Sets the in memory sample of the data store, features are read from the sample rather than
+     * the data store when set.
+     *
+     * @param sampledDataStore the new sampled data store
+     */
+    public void setSampledDataStore(MemoryDataStore sampledDataStore) {
+        disposeSampledDataStore();
+
+        this.sampledDataStore = sampledDataStore;
+    }
+
+    /** Dispose sampled data store. */
+    private void disposeSampledDataStore() {
+        if (sampledDataStore != null) {
+            sampledDataStore.dispose();
+            sampledDataStore = null;
+        }
+    }
+
+    /**
+     * Gets the feature source to read features from, the sample if there is one.
+     *
+     * @return the feature source
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private SimpleFeatureSource getReadFeatureSource() throws IOException {
+        if (sampledDataStore != null) {
+            return sampledDataStore.getFeatureSource(sampledDataStore.getTypeNames()[0]);
+        }
+        return dataStore.getFeatureSource(typeName);
+    }
+
     /** Unload data store. */
     public void unloadDataStore() {
+        disposeSampledDataStore();
+
         if (dataStore != null) {
-            dataStore.dispose();
+            // Returned to the pool, data stores not borrowed from the pool are disposed of
+            DataStorePool.getInstance().release(dataStore);
+            dataStore = null;
         }
     }
 
@@ -194,7 +247,9 @@ public class DataSourceInfo {
         FeatureSource<SimpleFeatureType, SimpleFeature> features = null;
 
         try {
-            if ((schema != null) && (dataStore != null)) {
+            if (sampledDataStore != null) {
+                features = getReadFeatureSource();
+            } else if ((schema != null) && (dataStore != null)) {
                 features = dataStore.getFeatureSource(schema.getName());
             }
         } catch (IOException e) {
@@ -213,7 +268,7 @@ public class DataSourceInfo {
         SimpleFeatureCollection featureCollection = null;
         try {
             if (dataStore != null) {
-                SimpleFeatureSource source = dataStore.getFeatureSource(typeName);
+                SimpleFeatureSource source = getReadFeatureSource();
                 featureCollection = source.getFeatures();
             }
         } catch (IOException e) {
@@ -0,0 +1,291 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.datasource.impl;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.log4j.Logger;
+import org.geotools.data.Query;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+
+/**
+ * Reads a bounded sample of an external vector data source into memory.
+ *
+ * <p>The extent of the data is taken from the bounding box restriction if one is set, otherwise
+ * from the data source metadata. The features themselves are only scanned to determine the extent
+ * if the data source cannot supply one and estimated extents are not allowed.
+ *
+ * <p>A spatially stratified sample divides the extent into a grid and requests an equal share of
+ * the features from each cell so that sparse areas are represented as well as dense ones. Any
+ * share left unused by empty cells is filled from the extent as a whole.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataSourceSampler {
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(DataSourceSampler.class);
+
+    /** The filter factory. */
+    private static FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+
+    /** Private default constructor. */
+    private DataSourceSampler() {
+        // Private default constructor
+    }
+
+    /**
+     * Read a sample of the feature source into a memory data store.
+     *
+     * @param source the feature source
+     * @param options the sampling options
+     * @return the memory data store containing the sample, null if sampling is not enabled
+     */
+    public static MemoryDataStore sample(
+            SimpleFeatureSource source, DataSourceSamplingOptions options) {
+        if ((source == null) || (options == null) || !options.isEnabled()) {
+            return null;
+        }
+
+        SimpleFeatureType schema = source.getSchema();
+        MemoryDataStore memory = new MemoryDataStore();
+        try {
+            memory.createSchema(schema);
+
+            List<SimpleFeature> featureList = new ArrayList<>();
+            ReferencedEnvelope extent = determineExtent(source, options);
+            GeometryDescriptor geometryDescriptor = schema.getGeometryDescriptor();
+
+            if (options.isStratified()
+                    && (geometryDescriptor != null)
+                    && (extent != null)
+                    && !extent.isEmpty()) {
+                sampleStratified(source, options, extent, featureList);
+            } else {
+                readFeatures(
+                        source,
+                        createFilter(source, options.getBbox()),
+                        options.getMaxFeatures(),
+                        new HashSet<>(),
+                        featureList);
+            }
+
+            memory.addFeatures(featureList);
+
+            logger.debug(
+                    String.format(
+                            "Sampled %d features from %s",
+                            featureList.size(), schema.getTypeName()));
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(DataSourceSampler.class, e);
+        }
+
+        return memory;
+    }
+
+    /**
+     * Determine the extent of the data to sample.
+     *
+     * @param source the feature source
+     * @param options the sampling options
+     * @return the extent, null if it could not be determined
+     */
+    public static ReferencedEnvelope determineExtent(
+            SimpleFeatureSource source, DataSourceSamplingOptions options) {
+        if ((source == null) || (options == null)) {
+            return null;
+        }
+
+        SimpleFeatureType schema = source.getSchema();
+        Envelope bbox = options.getBbox();
+        if (bbox != null) {
+            return new ReferencedEnvelope(bbox, schema.getCoordinateReferenceSystem());
+        }
+
+        ReferencedEnvelope extent = null;
+        try {
+            // Metadata or estimated extent, null if too expensive to calculate
+            extent = source.getBounds();
+
+            if ((extent == null) && !options.isUseEstimatedExtent()) {
+                extent = source.getFeatures().getBounds();
+            }
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(DataSourceSampler.class, e);
+        }
+
+        return extent;
+    }
+
+    /**
+     * Read a spatially stratified sample.
+     *
+     * @param source the feature source
+     * @param options the sampling options
+     * @param extent the extent to sample
+     * @param featureList the list the sampled features are added to
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static void sampleStratified(
+            SimpleFeatureSource source,
+            DataSourceSamplingOptions options,
+            ReferencedEnvelope extent,
+            List<SimpleFeature> featureList)
+            throws IOException {
+        int gridSize = options.getGridSize();
+        int maxFeatures = options.getMaxFeatures();
+        int cellCount = gridSize * gridSize;
+        int cellQuota = Math.max(1, (maxFeatures + cellCount - 1) / cellCount);
+
+        double cellWidth = extent.getWidth() / gridSize;
+        double cellHeight = extent.getHeight() / gridSize;
+
+        Set<String> featureIdSet = new HashSet<>();
+        boolean moreAvailable = false;
+
+        for (int row = 0; (row < gridSize) && (featureList.size() < maxFeatures); row++) {
+            for (int col = 0; (col < gridSize) && (featureList.size() < maxFeatures); col++) {
+                double minX = extent.getMinX() + (col * cellWidth);
+                double minY = extent.getMinY() + (row * cellHeight);
+                Envelope cell = new Envelope(minX, minX + cellWidth, minY, minY + cellHeight);
+
+                int quota = Math.min(cellQuota, maxFeatures - featureList.size());
+                int read =
+                        readFeatures(
+                                source,
+                                createFilter(source, cell),
+                                quota,
+                                featureIdSet,
+                                featureList);
+                if (read >= quota) {
+                    moreAvailable = true;
+                }
+            }
+        }
+
+        // Top up with the share that empty cells did not use
+        if (moreAvailable && (featureList.size() < maxFeatures)) {
+            readFeatures(
+                    source,
+                    createFilter(source, extent),
+                    maxFeatures - featureList.size() + featureIdSet.size(),
+                    featureIdSet,
+                    featureList,
+                    maxFeatures);
+        }
+    }
+
+    /**
+     * Creates the filter restricting features to an envelope.
+     *
+     * @param source the feature source
+     * @param envelope the envelope, null for no restriction
+     * @return the filter
+     */
+    private static Filter createFilter(SimpleFeatureSource source, Envelope envelope) {
+        GeometryDescriptor geometryDescriptor = source.getSchema().getGeometryDescriptor();
+        if ((envelope == null) || (geometryDescriptor == null)) {
+            return Filter.INCLUDE;
+        }
+
+        return ff.bbox(
+                ff.property(geometryDescriptor.getLocalName()),
+                new ReferencedEnvelope(
+                        envelope, geometryDescriptor.getCoordinateReferenceSystem()));
+    }
+
+    /**
+     * Read features not already sampled.
+     *
+     * @param source the feature source
+     * @param filter the filter
+     * @param maxFeatures the maximum number of features to add
+     * @param featureIdSet the ids of features already sampled
+     * @param featureList the list the sampled features are added to
+     * @return the number of features returned by the query
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static int readFeatures(
+            SimpleFeatureSource source,
+            Filter filter,
+            int maxFeatures,
+            Set<String> featureIdSet,
+            List<SimpleFeature> featureList)
+            throws IOException {
+        return readFeatures(
+                source,
+                filter,
+                maxFeatures,
+                featureIdSet,
+                featureList,
+                featureList.size() + maxFeatures);
+    }
+
+    /**
+     * Read features not already sampled, stopping once the list reaches its limit.
+     *
+     * @param source the feature source
+     * @param filter the filter
+     * @param queryMaxFeatures the maximum number of features to request
+     * @param featureIdSet the ids of features already sampled
+     * @param featureList the list the sampled features are added to
+     * @param listLimit the maximum size of the feature list
+     * @return the number of features returned by the query
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static int readFeatures(
+            SimpleFeatureSource source,
+            Filter filter,
+            int queryMaxFeatures,
+            Set<String> featureIdSet,
+            List<SimpleFeature> featureList,
+            int listLimit)
+            throws IOException {
+        Query query = new Query(source.getSchema().getTypeName(), filter);
+        query.setMaxFeatures(queryMaxFeatures);
+
+        int read = 0;
+        try (SimpleFeatureIterator iterator = source.getFeatures(query).features()) {
+            while (iterator.hasNext() && (featureList.size() < listLimit)) {
+                SimpleFeature feature = iterator.next();
+                read++;
+
+                // Features crossing cell boundaries are returned for more than one cell
+                if (featureIdSet.add(feature.getID())) {
+                    featureList.add(feature);
+                }
+            }
+        }
+        return read;
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.datasource.impl;
+
+import org.locationtech.jts.geom.Envelope;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Class encapsulating the sampling configuration of an external data source.
+ *
+ * <p>When sampling is enabled only a bounded subset of an external data source is read into the
+ * editor, either the first features found or a spatially stratified selection spread over a grid
+ * covering the data extent. The data read can also be restricted to a bounding box, expressed in
+ * the coordinate reference system of the data source.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataSourceSamplingOptions {
+
+    /** The Constant DEFAULT_MAX_FEATURES. */
+    public static final int DEFAULT_MAX_FEATURES = 10000;
+
+    /** The Constant DEFAULT_GRID_SIZE. */
+    public static final int DEFAULT_GRID_SIZE = 8;
+
+    /** The Constant ENABLED. */
+    private static final String ENABLED = "enabled";
+
+    /** The Constant MAX_FEATURES. */
+    private static final String MAX_FEATURES = "maxFeatures";
+
+    /** The Constant STRATIFIED. */
+    private static final String STRATIFIED = "stratified";
+
+    /** The Constant GRID_SIZE. */
+    private static final String GRID_SIZE = "gridSize";
+
+    /** The Constant ESTIMATED_EXTENT. */
+    private static final String ESTIMATED_EXTENT = "estimatedExtent";
+
+    /** The Constant BBOX. */
+    private static final String BBOX = "bbox";
+
+    /** The Constant BBOX_MIN_X. */
+    private static final String BBOX_MIN_X = "minx";
+
+    /** The Constant BBOX_MIN_Y. */
+    private static final String BBOX_MIN_Y = "miny";
+
+    /** The Constant BBOX_MAX_X. */
+    private static final String BBOX_MAX_X = "maxx";
+
+    /** The Constant BBOX_MAX_Y. */
+    private static final String BBOX_MAX_Y = "maxy";
+
+    /** The sampling enabled flag. */
+    private boolean enabled = false;
+
+    /** The maximum number of features to read. */
+    private int maxFeatures = DEFAULT_MAX_FEATURES;
+
+    /** The spatially stratified flag. */
+    private boolean stratified = true;
+
+    /** The number of grid cells along each axis when stratified. */
+    private int gridSize = DEFAULT_GRID_SIZE;
+
+    /** The use estimated extent flag. */
+    private boolean useEstimatedExtent = true;
+
+    /** The bounding box restriction, null if not restricted. */
+    private Envelope bbox = null;
+
+    /** Default constructor. */
+    public DataSourceSamplingOptions() {
+        // Default constructor
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param options the options to copy
+     */
+    public DataSourceSamplingOptions(DataSourceSamplingOptions options) {
+        if (options != null) {
+            this.enabled = options.enabled;
+            this.maxFeatures = options.maxFeatures;
+            this.stratified = options.stratified;
+            this.gridSize = options.gridSize;
+            this.useEstimatedExtent = options.useEstimatedExtent;
+            setBbox(options.bbox);
+        }
+    }
+
+    /**
+     * Checks if sampling is enabled.
+     *
+     * @return true, if sampling is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the sampling enabled flag.
+     *
+     * @param enabled the new enabled flag
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the maximum number of features to read.
+     *
+     * @return the max features
+     */
+    public int getMaxFeatures() {
+        return maxFeatures;
+    }
+
+    /**
+     * Sets the maximum number of features to read, values less than 1 are ignored.
+     *
+     * @param maxFeatures the new max features
+     */
+    public void setMaxFeatures(int maxFeatures) {
+        if (maxFeatures > 0) {
+            this.maxFeatures = maxFeatures;
+        }
+    }
+
+    /**
+     * Checks if the sample is spatially stratified.
+     *
+     * @return true, if stratified
+     */
+    public boolean isStratified() {
+        return stratified;
+    }
+
+    /**
+     * Sets the spatially stratified flag.
+     *
+     * @param stratified the new stratified flag
+     */
+    public void setStratified(boolean stratified) {
+        this.stratified = stratified;
+    }
+
+    /**
+     * Gets the number of grid cells along each axis used when stratified.
+     *
+     * @return the grid size
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Sets the number of grid cells along each axis used when stratified, values less than 1 are
+     * ignored.
+     *
+     * @param gridSize the new grid size
+     */
+    public void setGridSize(int gridSize) {
+        if (gridSize > 0) {
+            this.gridSize = gridSize;
+        }
+    }
+
+    /**
+     * Checks if estimated extents should be used instead of scanning the data.
+     *
+     * @return true, if estimated extents are used
+     */
+    public boolean isUseEstimatedExtent() {
+        return useEstimatedExtent;
+    }
+
+    /**
+     * Sets the use estimated extent flag.
+     *
+     * @param useEstimatedExtent the new use estimated extent flag
+     */
+    public void setUseEstimatedExtent(boolean useEstimatedExtent) {
+        this.useEstimatedExtent = useEstimatedExtent;
+    }
+
+    /**
+     * Gets the bounding box restriction.
+     *
+     * @return the bounding box, null if not restricted
+     */
+    public Envelope getBbox() {
+        return (bbox == null) ? null : new Envelope(bbox);
+    }
+
+    /**
+     * Sets the bounding box restriction, a null or empty envelope removes the restriction.
+     *
+     * @param bbox the new bounding box
+     */
+    public void setBbox(Envelope bbox) {
+        if ((bbox == null) || bbox.isNull()) {
+            this.bbox = null;
+        } else {
+            this.bbox = new Envelope(bbox);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((bbox == null) ? 0 : bbox.hashCode());
+        result = prime * result + (enabled ? 1231 : 1237);
+        result = prime * result + gridSize;
+        result = prime * result + maxFeatures;
+        result = prime * result + (stratified ? 1231 : 1237);
+        result = prime * result + (useEstimatedExtent ? 1231 : 1237);
+        return result;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        DataSourceSamplingOptions other = (DataSourceSamplingOptions) obj;
+        if (bbox == null) {
+            if (other.bbox != null) {
+                return false;
+            }
+        } else if (!bbox.equals(other.bbox)) {
+            return false;
+        }
+        return (enabled == other.enabled)
+                && (gridSize == other.gridSize)
+                && (maxFeatures == other.maxFeatures)
+                && (stratified == other.stratified)
+                && (useEstimatedExtent == other.useEstimatedExtent);
+    }
+
+    /**
+     * Encode the sampling options to XML.
+     *
+     * @param doc the doc
+     * @param root the root
+     * @param elementName the element name
+     */
+    public void encodeXML(Document doc, Element root, String elementName) {
+        if ((doc == null) || (root == null) || (elementName == null)) {
+            return;
+        }
+
+        Element samplingElement = doc.createElement(elementName);
+
+        createElement(doc, samplingElement, ENABLED, Boolean.toString(enabled));
+        createElement(doc, samplingElement, MAX_FEATURES, Integer.toString(maxFeatures));
+        createElement(doc, samplingElement, STRATIFIED, Boolean.toString(stratified));
+        createElement(doc, samplingElement, GRID_SIZE, Integer.toString(gridSize));
+        createElement(
+                doc, samplingElement, ESTIMATED_EXTENT, Boolean.toString(useEstimatedExtent));
+
+        if (bbox != null) {
+            Element bboxElement = doc.createElement(BBOX);
+            bboxElement.setAttribute(BBOX_MIN_X, Double.toString(bbox.getMinX()));
+            bboxElement.setAttribute(BBOX_MIN_Y, Double.toString(bbox.getMinY()));
+            bboxElement.setAttribute(BBOX_MAX_X, Double.toString(bbox.getMaxX()));
+            bboxElement.setAttribute(BBOX_MAX_Y, Double.toString(bbox.getMaxY()));
+            samplingElement.appendChild(bboxElement);
+        }
+
+        root.appendChild(samplingElement);
+    }
+
+    /**
+     * Creates the XML element containing a text value.
+     *
+     * @param doc the doc
+     * @param parentElement the parent element
+     * @param elementName the element name
+     * @param value the value
+     */
+    private void createElement(
+            Document doc, Element parentElement, String elementName, String value) {
+        Element element = doc.createElement(elementName);
+        element.appendChild(doc.createTextNode(value));
+
+        parentElement.appendChild(element);
+    }
+
+    /**
+     * Decode the sampling options from XML.
+     *
+     * @param document the document
+     * @param elementName the element name
+     * @return the sampling options, defaults if the element is not present
+     */
+    public static DataSourceSamplingOptions decodeXML(Document document, String elementName) {
+        DataSourceSamplingOptions options = new DataSourceSamplingOptions();
+
+        if ((document != null) && (elementName != null)) {
+            NodeList nodeList = document.getElementsByTagName(elementName);
+            if (nodeList.getLength() > 0) {
+                Node node = nodeList.item(0);
+
+                Node child = node.getFirstChild();
+
+                while (child != null) {
+                    if (child.getNodeType() == Node.ELEMENT_NODE) {
+                        String nodeName = child.getNodeName();
+                        if (nodeName.compareToIgnoreCase(ENABLED) == 0) {
+                            options.setEnabled(decodeBooleanElement(child));
+                        } else if (nodeName.compareToIgnoreCase(MAX_FEATURES) == 0) {
+                            options.setMaxFeatures(decodeIntElement(child));
+                        } else if (nodeName.compareToIgnoreCase(STRATIFIED) == 0) {
+                            options.setStratified(decodeBooleanElement(child));
+                        } else if (nodeName.compareToIgnoreCase(GRID_SIZE) == 0) {
+                            options.setGridSize(decodeIntElement(child));
+                        } else if (nodeName.compareToIgnoreCase(ESTIMATED_EXTENT) == 0) {
+                            options.setUseEstimatedExtent(decodeBooleanElement(child));
+                        } else if (nodeName.compareToIgnoreCase(BBOX) == 0) {
+                            options.setBbox(decodeBboxElement((Element) child));
+                        }
+                    }
+                    child = child.getNextSibling();
+                }
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Decode bounding box element.
+     *
+     * @param element the element
+     * @return the envelope, null if invalid
+     */
+    private static Envelope decodeBboxElement(Element element) {
+        try {
+            double minX = Double.parseDouble(element.getAttribute(BBOX_MIN_X));
+            double minY = Double.parseDouble(element.getAttribute(BBOX_MIN_Y));
+            double maxX = Double.parseDouble(element.getAttribute(BBOX_MAX_X));
+            double maxY = Double.parseDouble(element.getAttribute(BBOX_MAX_Y));
+
+            return new Envelope(minX, maxX, minY, maxY);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode boolean element.
+     *
+     * @param child the child
+     * @return true, if successful
+     */
+    private static boolean decodeBooleanElement(Node child) {
+        return Boolean.parseBoolean(child.getTextContent());
+    }
+
+    /**
+     * Decode int element.
+     *
+     * @param child the child
+     * @return the int, 0 if invalid
+     */
+    private static int decodeIntElement(Node child) {
+        try {
+            return Integer.parseInt(child.getTextContent().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
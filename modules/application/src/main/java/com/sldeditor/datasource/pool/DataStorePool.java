@@ -0,0 +1,520 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.pool;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.geotools.data.DataStore;
+import org.geotools.data.DataStoreFactorySpi;
+import org.geotools.data.DataStoreFinder;
+
+/**
+ * Pool of the data stores opened by the editor, shared between the data source, the database
+ * browser and the vector tool.
+ *
+ * <p>Data stores are keyed by their connection parameters, file paths and file URLs are
+ * normalised so that equivalent parameters share the same data store. Each borrowed data store
+ * must be returned by calling release, the data store is kept open while it is borrowed and for
+ * an idle period afterwards so it can be reused without reconnecting.
+ *
+ * <p>Data stores that have been borrowed are checked periodically by listing their type names,
+ * a data store that fails the check is no longer handed out and is disposed of once it has been
+ * released by all borrowers.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataStorePool {
+
+    /** The Constant DEFAULT_IDLE_TIMEOUT, in milliseconds. */
+    public static final long DEFAULT_IDLE_TIMEOUT = 5L * 60L * 1000L;
+
+    /** The Constant DEFAULT_HEALTH_CHECK_INTERVAL, in milliseconds. */
+    public static final long DEFAULT_HEALTH_CHECK_INTERVAL = 30L * 1000L;
+
+    /** The Constant FILE_PROTOCOL. */
+    private static final String FILE_PROTOCOL = "file";
+
+    /** The singleton instance. */
+    private static DataStorePool instance = null;
+
+    /** The pooled data stores that can be handed out, keyed by connection parameters. */
+    private Map<String, PooledDataStore> poolMap = new HashMap<>();
+
+    /** All open pooled data stores, including those that have failed a health check. */
+    private Map<DataStore, PooledDataStore> dataStoreMap = new IdentityHashMap<>();
+
+    /** The display names of the available data store factories. */
+    private List<String> availableDataStoreList = null;
+
+    /** The idle timeout, in milliseconds. */
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    /** The health check interval, in milliseconds. */
+    private long healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+
+    /** The number of borrow requests. */
+    private long borrowRequests = 0;
+
+    /** The number of borrow requests satisfied by an already open data store. */
+    private long reuseCount = 0;
+
+    /** The number of data stores created. */
+    private long createdCount = 0;
+
+    /** The number of idle data stores disposed of. */
+    private long evictionCount = 0;
+
+    /** The number of data stores that failed a health check. */
+    private long healthCheckFailures = 0;
+
+    /** A data store held in the pool. */
+    private static class PooledDataStore {
+
+        /** The key. */
+        private final String key;
+
+        /** The data store. */
+        private final DataStore dataStore;
+
+        /** The number of borrowers. */
+        private int referenceCount = 0;
+
+        /** The time the data store was last released by all borrowers. */
+        private long idleSince;
+
+        /** The time the data store was last checked. */
+        private long lastHealthCheck;
+
+        /** The retired flag, set when the data store is no longer handed out. */
+        private boolean retired = false;
+
+        /**
+         * Instantiates a new pooled data store.
+         *
+         * @param key the key
+         * @param dataStore the data store
+         * @param now the current time
+         */
+        PooledDataStore(String key, DataStore dataStore, long now) {
+            this.key = key;
+            this.dataStore = dataStore;
+            this.idleSince = now;
+            this.lastHealthCheck = now;
+        }
+    }
+
+    /**
+     * Gets the single instance of DataStorePool.
+     *
+     * @return single instance of DataStorePool
+     */
+    public static synchronized DataStorePool getInstance() {
+        if (instance == null) {
+            instance = new DataStorePool();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance, disposing of all the data stores that are not borrowed. */
+    public static synchronized void destroyInstance() {
+        if (instance != null) {
+            instance.clear();
+        }
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private DataStorePool() {
+        // Private default constructor
+    }
+
+    /**
+     * Borrow the data store for the connection parameters, opening it if necessary. The data
+     * store must be returned by calling release.
+     *
+     * @param params the connection parameters
+     * @return the data store, null if no data store factory accepts the parameters
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public DataStore borrow(Map<String, Object> params) throws IOException {
+        if (params == null) {
+            return null;
+        }
+
+        String key = createKey(params);
+        PooledDataStore entry;
+        boolean checkHealth = false;
+        List<DataStore> evictedList;
+
+        synchronized (this) {
+            borrowRequests++;
+            evictedList = removeIdle(System.currentTimeMillis());
+
+            entry = poolMap.get(key);
+            if (entry != null) {
+                entry.referenceCount++;
+                checkHealth =
+                        (System.currentTimeMillis() - entry.lastHealthCheck) >= healthCheckInterval;
+            }
+        }
+        dispose(evictedList);
+
+        if (entry != null) {
+            // Check outside the lock, a failing connection may take some time to time out
+            if (!checkHealth || isHealthy(entry.dataStore)) {
+                synchronized (this) {
+                    reuseCount++;
+                    if (checkHealth) {
+                        entry.lastHealthCheck = System.currentTimeMillis();
+                    }
+                }
+                return entry.dataStore;
+            }
+
+            synchronized (this) {
+                healthCheckFailures++;
+                retire(entry);
+            }
+            release(entry.dataStore);
+        }
+
+        return open(key, params);
+    }
+
+    /**
+     * Open a new data store and add it to the pool.
+     *
+     * @param key the key
+     * @param params the connection parameters
+     * @return the data store
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private DataStore open(String key, Map<String, Object> params) throws IOException {
+        DataStore dataStore = DataStoreFinder.getDataStore(params);
+
+        if (dataStore == null) {
+            return null;
+        }
+
+        PooledDataStore entry;
+        synchronized (this) {
+            entry = poolMap.get(key);
+            if (entry == null) {
+                createdCount++;
+                entry = new PooledDataStore(key, dataStore, System.currentTimeMillis());
+                poolMap.put(key, entry);
+                dataStoreMap.put(dataStore, entry);
+            } else {
+                // Another borrower opened the same data store first
+                reuseCount++;
+            }
+            entry.referenceCount++;
+        }
+
+        if (entry.dataStore != dataStore) {
+            dataStore.dispose();
+        }
+        return entry.dataStore;
+    }
+
+    /**
+     * Return a borrowed data store to the pool. Data stores that were not borrowed from the pool
+     * are disposed of.
+     *
+     * @param dataStore the data store
+     */
+    public void release(DataStore dataStore) {
+        if (dataStore == null) {
+            return;
+        }
+
+        List<DataStore> disposeList;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            PooledDataStore entry = dataStoreMap.get(dataStore);
+
+            if (entry == null) {
+                disposeList = new ArrayList<>();
+                disposeList.add(dataStore);
+            } else {
+                entry.referenceCount = Math.max(0, entry.referenceCount - 1);
+                if (entry.referenceCount == 0) {
+                    entry.idleSince = now;
+                }
+                disposeList = removeIdle(now);
+            }
+        }
+
+        dispose(disposeList);
+    }
+
+    /** Dispose of the data stores that have been idle for longer than the idle timeout. */
+    public void evictIdle() {
+        List<DataStore> evictedList;
+        synchronized (this) {
+            evictedList = removeIdle(System.currentTimeMillis());
+        }
+        dispose(evictedList);
+    }
+
+    /**
+     * Dispose of all the data stores that are not borrowed, borrowed data stores are no longer
+     * handed out and are disposed of when they are released.
+     */
+    public void clear() {
+        List<DataStore> disposeList = new ArrayList<>();
+        synchronized (this) {
+            for (PooledDataStore entry : new ArrayList<>(dataStoreMap.values())) {
+                retire(entry);
+                if (entry.referenceCount == 0) {
+                    dataStoreMap.remove(entry.dataStore);
+                    disposeList.add(entry.dataStore);
+                }
+            }
+        }
+        dispose(disposeList);
+    }
+
+    /**
+     * Removes the data stores that are no longer required from the pool, must be called holding
+     * the lock.
+     *
+     * @param now the current time
+     * @return the data stores to dispose of
+     */
+    private List<DataStore> removeIdle(long now) {
+        List<DataStore> evictedList = new ArrayList<>();
+
+        Iterator<PooledDataStore> iterator = dataStoreMap.values().iterator();
+        while (iterator.hasNext()) {
+            PooledDataStore entry = iterator.next();
+            if (entry.referenceCount == 0
+                    && (entry.retired || ((now - entry.idleSince) >= idleTimeout))) {
+                iterator.remove();
+                retire(entry);
+                evictedList.add(entry.dataStore);
+                evictionCount++;
+            }
+        }
+        return evictedList;
+    }
+
+    /**
+     * Stop handing out a pooled data store, must be called holding the lock.
+     *
+     * @param entry the entry
+     */
+    private void retire(PooledDataStore entry) {
+        entry.retired = true;
+        if (poolMap.get(entry.key) == entry) {
+            poolMap.remove(entry.key);
+        }
+    }
+
+    /**
+     * Dispose of data stores.
+     *
+     * @param dataStoreList the data store list
+     */
+    private void dispose(List<DataStore> dataStoreList) {
+        for (DataStore dataStore : dataStoreList) {
+            try {
+                dataStore.dispose();
+            } catch (RuntimeException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+        }
+    }
+
+    /**
+     * Checks if a data store is still usable.
+     *
+     * @param dataStore the data store
+     * @return true, if the data store responds
+     */
+    private boolean isHealthy(DataStore dataStore) {
+        try {
+            dataStore.getTypeNames();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the pool key for the connection parameters. Parameters are sorted by name, files
+     * and file URLs are converted to their canonical file URI.
+     *
+     * @param params the connection parameters
+     * @return the key
+     */
+    public static String createKey(Map<String, Object> params) {
+        Map<String, String> sortedMap = new TreeMap<>();
+
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            if ((param.getKey() != null) && (param.getValue() != null)) {
+                sortedMap.put(param.getKey(), normalise(param.getValue()));
+            }
+        }
+        return sortedMap.toString();
+    }
+
+    /**
+     * Normalise a connection parameter value.
+     *
+     * @param value the value
+     * @return the normalised value
+     */
+    private static String normalise(Object value) {
+        File file = null;
+
+        if (value instanceof File) {
+            file = (File) value;
+        } else if (value instanceof URL) {
+            file = toFile((URL) value);
+        } else if (value instanceof String) {
+            String string = ((String) value).trim();
+            if (string.startsWith(FILE_PROTOCOL + ":")) {
+                try {
+                    file = toFile(new URL(string));
+                } catch (IOException e) {
+                    // Not a valid URL, use the value as it is
+                }
+            }
+
+            if (file == null) {
+                return string;
+            }
+        }
+
+        if (file == null) {
+            return value.toString();
+        }
+
+        try {
+            return file.getCanonicalFile().toURI().toString();
+        } catch (IOException e) {
+            return file.getAbsoluteFile().toURI().toString();
+        }
+    }
+
+    /**
+     * Convert a file URL to a file.
+     *
+     * @param url the url
+     * @return the file, null if the URL does not refer to a file
+     */
+    private static File toFile(URL url) {
+        if (!FILE_PROTOCOL.equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath());
+        }
+    }
+
+    /**
+     * Gets the display names of the available data store factories, the factories are only
+     * searched for once.
+     *
+     * @return the available data stores
+     */
+    public synchronized List<String> getAvailableDataStores() {
+        if (availableDataStoreList == null) {
+            List<String> list = new ArrayList<>();
+
+            Iterator<DataStoreFactorySpi> iterator = DataStoreFinder.getAvailableDataStores();
+            while (iterator.hasNext()) {
+                list.add(iterator.next().getDisplayName());
+            }
+            availableDataStoreList = Collections.unmodifiableList(list);
+        }
+        return availableDataStoreList;
+    }
+
+    /**
+     * Sets the time a data store is kept open after it has been released by all borrowers.
+     *
+     * @param idleTimeout the idle timeout in milliseconds
+     */
+    public synchronized void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Sets the time between health checks of a data store.
+     *
+     * @param healthCheckInterval the health check interval in milliseconds
+     */
+    public synchronized void setHealthCheckInterval(long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    /**
+     * Gets the reference count of a data store.
+     *
+     * @param dataStore the data store
+     * @return the number of borrowers, 0 if the data store is not in the pool
+     */
+    public synchronized int getReferenceCount(DataStore dataStore) {
+        PooledDataStore entry = dataStoreMap.get(dataStore);
+        return (entry == null) ? 0 : entry.referenceCount;
+    }
+
+    /**
+     * Gets a snapshot of the pool statistics.
+     *
+     * @return the statistics
+     */
+    public synchronized DataStorePoolStatistics getStatistics() {
+        int borrowedCount = 0;
+        for (PooledDataStore entry : dataStoreMap.values()) {
+            if (entry.referenceCount > 0) {
+                borrowedCount++;
+            }
+        }
+
+        return new DataStorePoolStatistics(
+                dataStoreMap.size(),
+                borrowedCount,
+                dataStoreMap.size() - borrowedCount,
+                borrowRequests,
+                reuseCount,
+                createdCount,
+                evictionCount,
+                healthCheckFailures);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.pool;
+
+/**
+ * Snapshot of the statistics of the DataStorePool.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataStorePoolStatistics {
+
+    /** The number of data stores open. */
+    private final int openCount;
+
+    /** The number of data stores currently borrowed. */
+    private final int borrowedCount;
+
+    /** The number of open data stores not currently borrowed. */
+    private final int idleCount;
+
+    /** The number of borrow requests. */
+    private final long borrowRequests;
+
+    /** The number of borrow requests satisfied by an already open data store. */
+    private final long reuseCount;
+
+    /** The number of data stores created. */
+    private final long createdCount;
+
+    /** The number of idle data stores disposed of. */
+    private final long evictionCount;
+
+    /** The number of data stores that failed a health check. */
+    private final long healthCheckFailures;
+
+    /**
+     * Instantiates a new data store pool statistics.
+     *
+     * @param openCount the open count
+     * @param borrowedCount the borrowed count
+     * @param idleCount the idle count
+     * @param borrowRequests the borrow requests
+     * @param reuseCount the reuse count
+     * @param createdCount the created count
+     * @param evictionCount the eviction count
+     * @param healthCheckFailures the health check failures
+     */
+    public DataStorePoolStatistics(
+            int openCount,
+            int borrowedCount,
+            int idleCount,
+            long borrowRequests,
+            long reuseCount,
+            long createdCount,
+            long evictionCount,
+            long healthCheckFailures) {
+        this.openCount = openCount;
+        this.borrowedCount = borrowedCount;
+        this.idleCount = idleCount;
+        this.borrowRequests = borrowRequests;
+        this.reuseCount = reuseCount;
+        this.createdCount = createdCount;
+        this.evictionCount = evictionCount;
+        this.healthCheckFailures = healthCheckFailures;
+    }
+
+    /**
+     * Gets the number of data stores open.
+     *
+     * @return the open count
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Gets the number of data stores currently borrowed.
+     *
+     * @return the borrowed count
+     */
+    public int getBorrowedCount() {
+        return borrowedCount;
+    }
+
+    /**
+     * Gets the number of open data stores not currently borrowed.
+     *
+     * @return the idle count
+     */
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * Gets the number of borrow requests.
+     *
+     * @return the borrow requests
+     */
+    public long getBorrowRequests() {
+        return borrowRequests;
+    }
+
+    /**
+     * Gets the number of borrow requests satisfied by an already open data store.
+     *
+     * @return the reuse count
+     */
+    public long getReuseCount() {
+        return reuseCount;
+    }
+
+    /**
+     * Gets the number of data stores created.
+     *
+     * @return the created count
+     */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * Gets the number of idle data stores disposed of.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of data stores that failed a health check.
+     *
+     * @return the health check failures
+     */
+    public long getHealthCheckFailures() {
+        return healthCheckFailures;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "Data stores : open %d, borrowed %d, idle %d, borrows %d, reused %d,"
+                        + " created %d, evicted %d, health check failures %d",
+                openCount,
+                borrowedCount,
+                idleCount,
+                borrowRequests,
+                reuseCount,
+                createdCount,
+                evictionCount,
+                healthCheckFailures);
+    }
+}
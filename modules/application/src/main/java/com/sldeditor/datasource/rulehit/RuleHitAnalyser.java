@@ -0,0 +1,777 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.rulehit;
+
+import com.sldeditor.common.task.TaskManager;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.log4j.Logger;
+import org.geotools.data.DataAccess;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory;
+
+/**
+ * Counts the features each rule of a style matches, evaluating every rule filter and scale range
+ * in a single pass over the features.
+ *
+ * <p>Features are read once and evaluated in batches in parallel on the analysis task pool.
+ * Database data stores are asked to count the features matching each rule instead, falling back
+ * to reading the features if a filter cannot be converted to SQL. Overlaps between rules are only
+ * calculated when the features are read. Else rules match the features no other rule in the same
+ * feature type style matches, the same as when rendering.
+ *
+ * <p>The most recently used results are cached until the data store is evicted or the rules
+ * change.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleHitAnalyser {
+
+    /** The Constant DEFAULT_BATCH_SIZE, the number of features evaluated by each task. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** The Constant MAX_CACHE_SIZE, the maximum number of analyses cached. */
+    public static final int MAX_CACHE_SIZE = 20;
+
+    /** The singleton instance. */
+    private static RuleHitAnalyser instance = null;
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(RuleHitAnalyser.class);
+
+    /** The filter factory. */
+    private static FilterFactory ff = CommonFactoryFinder.getFilterFactory();
+
+    /**
+     * The cached analyses, keyed by data store, type name, scale and rules, least recently used
+     * first.
+     */
+    private Map<List<Object>, RuleHitAnalysis> cacheMap =
+            new LinkedHashMap<List<Object>, RuleHitAnalysis>(16, 0.75f, true) {
+                /** The Constant serialVersionUID. */
+                private static final long serialVersionUID = 1L;
+
+                /*
+                 * (non-Javadoc)
+                 *
+                 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+                 */
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, RuleHitAnalysis> eldest) {
+                    return size() > MAX_CACHE_SIZE;
+                }
+            };
+
+    /** The number of features evaluated by each task. */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** The rules of a feature type style prepared for evaluation. */
+    private static class RuleSet {
+
+        /** The rule names. */
+        private final String[] names;
+
+        /** The rule filters, null if the rule matches all features. */
+        private final Filter[] filters;
+
+        /** The else rule flags. */
+        private final boolean[] elseRule;
+
+        /** The flags indicating whether each rule applies at the scale analysed. */
+        private final boolean[] inScale;
+
+        /**
+         * Instantiates a new rule set.
+         *
+         * @param fts the feature type style
+         * @param scaleDenominator the scale denominator, null to ignore scale ranges
+         */
+        RuleSet(FeatureTypeStyle fts, Double scaleDenominator) {
+            List<Rule> ruleList = fts.rules();
+            int size = ruleList.size();
+            names = new String[size];
+            filters = new Filter[size];
+            elseRule = new boolean[size];
+            inScale = new boolean[size];
+
+            for (int index = 0; index < size; index++) {
+                Rule rule = ruleList.get(index);
+                names[index] = rule.getName();
+                elseRule[index] = rule.isElseFilter();
+                filters[index] =
+                        (rule.isElseFilter() || (rule.getFilter() == Filter.INCLUDE))
+                                ? null
+                                : rule.getFilter();
+                inScale[index] =
+                        (scaleDenominator == null)
+                                || ((scaleDenominator >= rule.getMinScaleDenominator())
+                                        && (scaleDenominator < rule.getMaxScaleDenominator()));
+            }
+        }
+
+        /**
+         * Checks if a rule is a filtered rule, not an else rule, applying at the scale analysed.
+         *
+         * @param index the rule index
+         * @return true, if the rule is applied before the else rules
+         */
+        boolean isFilterRule(int index) {
+            return inScale[index] && !elseRule[index];
+        }
+
+        /**
+         * Checks if a rule is an else rule applying at the scale analysed.
+         *
+         * @param index the rule index
+         * @return true, if the rule is applied to features no other rule matches
+         */
+        boolean isElseRule(int index) {
+            return inScale[index] && elseRule[index];
+        }
+
+        /**
+         * Gets the number of rules.
+         *
+         * @return the size
+         */
+        int size() {
+            return names.length;
+        }
+    }
+
+    /** The features counted for each rule. */
+    private static class HitCounter {
+
+        /** The number of features counted. */
+        private long featureCount = 0;
+
+        /** The number of features matched, per feature type style and rule. */
+        private final long[][] hits;
+
+        /** The number of features matched along with another rule, per feature type style. */
+        private final long[][] overlapped;
+
+        /** The number of features shared by each pair of rules, first rule index lowest. */
+        private final long[][][] shared;
+
+        /** The number of features no rule matches, per feature type style. */
+        private final long[] unmatched;
+
+        /** The rules matched by the current feature, reused between features. */
+        private final boolean[][] matched;
+
+        /**
+         * Instantiates a new hit counter.
+         *
+         * @param ruleSetList the rule sets
+         */
+        HitCounter(List<RuleSet> ruleSetList) {
+            int ftsCount = ruleSetList.size();
+            hits = new long[ftsCount][];
+            overlapped = new long[ftsCount][];
+            shared = new long[ftsCount][][];
+            unmatched = new long[ftsCount];
+            matched = new boolean[ftsCount][];
+            for (int ftsIndex = 0; ftsIndex < ftsCount; ftsIndex++) {
+                int size = ruleSetList.get(ftsIndex).size();
+                hits[ftsIndex] = new long[size];
+                overlapped[ftsIndex] = new long[size];
+                shared[ftsIndex] = new long[size][size];
+                matched[ftsIndex] = new boolean[size];
+            }
+        }
+
+        /**
+         * Count a feature against every rule.
+         *
+         * @param feature the feature
+         * @param ruleSetList the rule sets
+         */
+        void count(SimpleFeature feature, List<RuleSet> ruleSetList) {
+            featureCount++;
+
+            for (int ftsIndex = 0; ftsIndex < ruleSetList.size(); ftsIndex++) {
+                RuleSet ruleSet = ruleSetList.get(ftsIndex);
+                boolean[] ruleMatched = matched[ftsIndex];
+                int matchCount = 0;
+                for (int index = 0; index < ruleSet.size(); index++) {
+                    ruleMatched[index] =
+                            ruleSet.isFilterRule(index)
+                                    && ((ruleSet.filters[index] == null)
+                                            || ruleSet.filters[index].evaluate(feature));
+                    if (ruleMatched[index]) {
+                        matchCount++;
+                    }
+                }
+
+                if (matchCount == 0) {
+                    for (int index = 0; index < ruleSet.size(); index++) {
+                        if (ruleSet.isElseRule(index)) {
+                            ruleMatched[index] = true;
+                            matchCount++;
+                        }
+                    }
+                }
+
+                if (matchCount == 0) {
+                    unmatched[ftsIndex]++;
+                    continue;
+                }
+
+                for (int index = 0; index < ruleSet.size(); index++) {
+                    if (ruleMatched[index]) {
+                        hits[ftsIndex][index]++;
+                        if (matchCount > 1) {
+                            overlapped[ftsIndex][index]++;
+                            for (int other = index + 1; other < ruleSet.size(); other++) {
+                                if (ruleMatched[other]) {
+                                    shared[ftsIndex][index][other]++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add the counts of another hit counter.
+         *
+         * @param other the other hit counter
+         */
+        void merge(HitCounter other) {
+            featureCount += other.featureCount;
+            for (int ftsIndex = 0; ftsIndex < hits.length; ftsIndex++) {
+                unmatched[ftsIndex] += other.unmatched[ftsIndex];
+                for (int index = 0; index < hits[ftsIndex].length; index++) {
+                    hits[ftsIndex][index] += other.hits[ftsIndex][index];
+                    overlapped[ftsIndex][index] += other.overlapped[ftsIndex][index];
+                    for (int otherIndex = 0; otherIndex < hits[ftsIndex].length; otherIndex++) {
+                        shared[ftsIndex][index][otherIndex] +=
+                                other.shared[ftsIndex][index][otherIndex];
+                    }
+                }
+            }
+        }
+    }
+
+    /** Counts the features matching filters using the data store. */
+    private static class PushDownCounter {
+
+        /** The feature source. */
+        private final FeatureSource<SimpleFeatureType, SimpleFeature> source;
+
+        /** The flag indicating whether every count has been calculated by the data store. */
+        private boolean supported = true;
+
+        /**
+         * Instantiates a new push down counter.
+         *
+         * @param source the feature source
+         */
+        PushDownCounter(FeatureSource<SimpleFeatureType, SimpleFeature> source) {
+            this.source = source;
+        }
+
+        /**
+         * Count the features matching a filter.
+         *
+         * @param filter the filter
+         * @return the feature count, 0 if the data store could not count them
+         * @throws IOException Signals that an I/O exception has occurred.
+         */
+        long count(Filter filter) throws IOException {
+            if (!supported) {
+                return 0;
+            }
+
+            int count = source.getCount(new Query(source.getSchema().getTypeName(), filter));
+            if (count < 0) {
+                supported = false;
+                return 0;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Gets the single instance of RuleHitAnalyser.
+     *
+     * @return single instance of RuleHitAnalyser
+     */
+    public static synchronized RuleHitAnalyser getInstance() {
+        if (instance == null) {
+            instance = new RuleHitAnalyser();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance, all cached analyses are released. */
+    public static synchronized void destroyInstance() {
+        if (instance != null) {
+            instance.clear();
+        }
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private RuleHitAnalyser() {
+        // Private default constructor
+    }
+
+    /**
+     * Count the features each rule of a style matches.
+     *
+     * @param source the feature source
+     * @param style the style
+     * @param scaleDenominator the scale denominator, null to ignore rule scale ranges
+     * @return the analysis, null if there is nothing to analyse
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public RuleHitAnalysis analyse(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            Style style,
+            Double scaleDenominator)
+            throws IOException {
+        return analyse(source, style, scaleDenominator, new AtomicBoolean(false));
+    }
+
+    /**
+     * Count the features each rule of a style matches, the analysis stops when the stop flag is
+     * set.
+     *
+     * <p>The style is read while the features are counted, pass a copy if the style can be edited
+     * during the analysis.
+     *
+     * @param source the feature source
+     * @param style the style
+     * @param scaleDenominator the scale denominator, null to ignore rule scale ranges
+     * @param stopFlag the stop flag for this analysis
+     * @return the analysis, null if there is nothing to analyse or the analysis was stopped
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public RuleHitAnalysis analyse(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            Style style,
+            Double scaleDenominator,
+            AtomicBoolean stopFlag)
+            throws IOException {
+        if ((source == null) || (style == null)) {
+            return null;
+        }
+
+        List<RuleSet> ruleSetList = new ArrayList<>();
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            ruleSetList.add(new RuleSet(fts, scaleDenominator));
+        }
+
+        List<Object> key =
+                Arrays.asList(
+                        source.getDataStore(),
+                        source.getName(),
+                        scaleDenominator,
+                        getSignature(ruleSetList));
+        synchronized (this) {
+            RuleHitAnalysis analysis = cacheMap.get(key);
+            if (analysis != null) {
+                return analysis;
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        RuleHitAnalysis analysis = null;
+        if (source.getDataStore() instanceof JDBCDataStore) {
+            analysis = countPushDown(source, ruleSetList, scaleDenominator, stopFlag, startTime);
+        }
+
+        if ((analysis == null) && !stopFlag.get()) {
+            analysis = countFeatures(source, ruleSetList, scaleDenominator, stopFlag, startTime);
+        }
+
+        if (analysis != null) {
+            synchronized (this) {
+                cacheMap.put(key, analysis);
+            }
+            logger.info(analysis.toString());
+        }
+        return analysis;
+    }
+
+    /**
+     * Count the features each rule matches by reading the features once, batches of features
+     * are evaluated in parallel.
+     *
+     * @param source the feature source
+     * @param ruleSetList the rule sets
+     * @param scaleDenominator the scale denominator
+     * @param stopFlag the stop flag
+     * @param startTime the start time
+     * @return the analysis, null if stopped
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private RuleHitAnalysis countFeatures(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            List<RuleSet> ruleSetList,
+            Double scaleDenominator,
+            AtomicBoolean stopFlag,
+            long startTime)
+            throws IOException {
+        // Only read the attributes the filters use
+        Query query = new Query(source.getSchema().getTypeName());
+        String[] propertyNames = getPropertyNames(source.getSchema(), ruleSetList);
+        if (propertyNames != null) {
+            query.setPropertyNames(propertyNames);
+        }
+
+        int maxPending = 2 * Runtime.getRuntime().availableProcessors();
+        HitCounter total = new HitCounter(ruleSetList);
+        Deque<Future<HitCounter>> pendingList = new ArrayDeque<>();
+        try (FeatureIterator<SimpleFeature> iterator = source.getFeatures(query).features()) {
+            List<SimpleFeature> batch = new ArrayList<>();
+            while (iterator.hasNext() && !stopFlag.get()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize) {
+                    final List<SimpleFeature> features = batch;
+                    pendingList.add(
+                            TaskManager.getInstance()
+                                    .submit(
+                                            TaskManager.ANALYSIS_POOL,
+                                            () -> countBatch(features, ruleSetList)));
+                    batch = new ArrayList<>();
+
+                    // Limit the number of features held in memory
+                    if (pendingList.size() > maxPending) {
+                        total.merge(waitFor(pendingList.poll()));
+                    }
+                }
+            }
+
+            // The remaining features, all of them if there are fewer than a batch
+            total.merge(countBatch(batch, ruleSetList));
+            while (!pendingList.isEmpty() && !stopFlag.get()) {
+                total.merge(waitFor(pendingList.poll()));
+            }
+        } catch (InterruptedException e) {
+            stopFlag.set(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<HitCounter> future : pendingList) {
+                future.cancel(true);
+            }
+        }
+
+        if (stopFlag.get()) {
+            return null;
+        }
+        return createAnalysis(ruleSetList, total, scaleDenominator, false, startTime);
+    }
+
+    /**
+     * Count a batch of features.
+     *
+     * @param features the features
+     * @param ruleSetList the rule sets
+     * @return the hit counter
+     */
+    private static HitCounter countBatch(List<SimpleFeature> features, List<RuleSet> ruleSetList) {
+        HitCounter counter = new HitCounter(ruleSetList);
+        for (SimpleFeature feature : features) {
+            counter.count(feature, ruleSetList);
+        }
+        return counter;
+    }
+
+    /**
+     * Wait for a batch of features to be counted.
+     *
+     * @param future the future
+     * @return the hit counter
+     * @throws InterruptedException the interrupted exception
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static HitCounter waitFor(Future<HitCounter> future)
+            throws InterruptedException, IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Count the features each rule matches using the data store, each rule filter is counted by
+     * a query and one more query per feature type style counts the features any rule matches.
+     * Overlaps between rules are not calculated.
+     *
+     * @param source the feature source
+     * @param ruleSetList the rule sets
+     * @param scaleDenominator the scale denominator
+     * @param stopFlag the stop flag
+     * @param startTime the start time
+     * @return the analysis, null if the data store could not count every filter or stopped
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private RuleHitAnalysis countPushDown(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            List<RuleSet> ruleSetList,
+            Double scaleDenominator,
+            AtomicBoolean stopFlag,
+            long startTime)
+            throws IOException {
+        PushDownCounter counter = new PushDownCounter(source);
+        HitCounter total = new HitCounter(ruleSetList);
+        total.featureCount = counter.count(Filter.INCLUDE);
+
+        for (int ftsIndex = 0; ftsIndex < ruleSetList.size(); ftsIndex++) {
+            RuleSet ruleSet = ruleSetList.get(ftsIndex);
+            List<Integer> filterRuleList = new ArrayList<>();
+            List<Integer> elseRuleList = new ArrayList<>();
+            for (int index = 0; index < ruleSet.size(); index++) {
+                if (ruleSet.isFilterRule(index)) {
+                    filterRuleList.add(index);
+                } else if (ruleSet.isElseRule(index)) {
+                    elseRuleList.add(index);
+                }
+            }
+
+            for (int index : filterRuleList) {
+                if (stopFlag.get() || !counter.supported) {
+                    return null;
+                }
+                total.hits[ftsIndex][index] = counter.count(getFilter(ruleSet, index));
+            }
+
+            // Else rules match the features no other rule matches, counted by subtracting the
+            // features any rule matches so features with null attributes are included
+            long noneMatched =
+                    filterRuleList.isEmpty()
+                            ? total.featureCount
+                            : total.featureCount
+                                    - counter.count(getAnyFilter(ruleSet, filterRuleList));
+            for (int index : elseRuleList) {
+                total.hits[ftsIndex][index] = noneMatched;
+            }
+            total.unmatched[ftsIndex] = elseRuleList.isEmpty() ? noneMatched : 0;
+        }
+
+        if (stopFlag.get() || !counter.supported) {
+            return null;
+        }
+        return createAnalysis(ruleSetList, total, scaleDenominator, true, startTime);
+    }
+
+    /**
+     * Gets the filter of a rule.
+     *
+     * @param ruleSet the rule set
+     * @param index the rule index
+     * @return the filter, Filter.INCLUDE if the rule matches all features
+     */
+    private static Filter getFilter(RuleSet ruleSet, int index) {
+        Filter filter = ruleSet.filters[index];
+        return (filter == null) ? Filter.INCLUDE : filter;
+    }
+
+    /**
+     * Gets a filter matching the features any of a list of rules match.
+     *
+     * @param ruleSet the rule set
+     * @param indexList the rule indexes
+     * @return the filter
+     */
+    private static Filter getAnyFilter(RuleSet ruleSet, List<Integer> indexList) {
+        if (indexList.size() == 1) {
+            return getFilter(ruleSet, indexList.get(0));
+        }
+
+        List<Filter> filterList = new ArrayList<>();
+        for (int index : indexList) {
+            filterList.add(getFilter(ruleSet, index));
+        }
+        return ff.or(filterList);
+    }
+
+    /**
+     * Creates the analysis from the feature counts.
+     *
+     * @param ruleSetList the rule sets
+     * @param counter the hit counter
+     * @param scaleDenominator the scale denominator
+     * @param pushedDown the pushed down flag
+     * @param startTime the start time
+     * @return the rule hit analysis
+     */
+    private static RuleHitAnalysis createAnalysis(
+            List<RuleSet> ruleSetList,
+            HitCounter counter,
+            Double scaleDenominator,
+            boolean pushedDown,
+            long startTime) {
+        List<RuleHitCount> ruleList = new ArrayList<>();
+        for (int ftsIndex = 0; ftsIndex < ruleSetList.size(); ftsIndex++) {
+            RuleSet ruleSet = ruleSetList.get(ftsIndex);
+            long[][] shared = counter.shared[ftsIndex];
+            for (int index = 0; index < ruleSet.size(); index++) {
+                Map<String, Long> overlapMap = new LinkedHashMap<>();
+                for (int other = 0; other < ruleSet.size(); other++) {
+                    long count = (index < other) ? shared[index][other] : shared[other][index];
+                    if ((other != index) && (count > 0)) {
+                        overlapMap.put(RuleHitCount.getPath(ftsIndex, other), count);
+                    }
+                }
+
+                ruleList.add(
+                        new RuleHitCount(
+                                ftsIndex,
+                                index,
+                                ruleSet.names[index],
+                                ruleSet.elseRule[index],
+                                ruleSet.inScale[index],
+                                counter.hits[ftsIndex][index],
+                                counter.overlapped[ftsIndex][index],
+                                overlapMap));
+            }
+        }
+
+        return new RuleHitAnalysis(
+                counter.featureCount,
+                ruleList,
+                counter.unmatched,
+                scaleDenominator,
+                pushedDown,
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Gets the names of the attributes the rule filters use.
+     *
+     * @param schema the schema
+     * @param ruleSetList the rule sets
+     * @return the property names, null if all properties should be read
+     */
+    private static String[] getPropertyNames(SimpleFeatureType schema, List<RuleSet> ruleSetList) {
+        Set<String> nameSet = new LinkedHashSet<>();
+        for (RuleSet ruleSet : ruleSetList) {
+            for (Filter filter : ruleSet.filters) {
+                if (filter != null) {
+                    for (String name : DataUtilities.attributeNames(filter, schema)) {
+                        if (schema.getDescriptor(name) != null) {
+                            nameSet.add(name);
+                        }
+                    }
+                }
+            }
+        }
+        return nameSet.isEmpty() ? null : nameSet.toArray(new String[0]);
+    }
+
+    /**
+     * Gets a signature of the rules, rules with the same signature produce the same counts.
+     *
+     * @param ruleSetList the rule sets
+     * @return the signature
+     */
+    private static String getSignature(List<RuleSet> ruleSetList) {
+        StringBuilder sb = new StringBuilder();
+        for (RuleSet ruleSet : ruleSetList) {
+            sb.append('[');
+            for (int index = 0; index < ruleSet.size(); index++) {
+                sb.append(
+                        String.format(
+                                "(%s|%b|%b|%s)",
+                                ruleSet.names[index],
+                                ruleSet.elseRule[index],
+                                ruleSet.inScale[index],
+                                ruleSet.filters[index]));
+            }
+            sb.append(']');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sets the number of features evaluated by each task.
+     *
+     * @param batchSize the new batch size, at least 1
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Release the cached analyses of a data store, called when the data store is unloaded.
+     *
+     * @param dataStore the data store
+     */
+    public synchronized void evict(DataAccess<?, ?> dataStore) {
+        Iterator<Map.Entry<List<Object>, RuleHitAnalysis>> iterator =
+                cacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().get(0) == dataStore) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Release all the cached analyses. */
+    public synchronized void clear() {
+        cacheMap.clear();
+    }
+
+    /**
+     * Gets the number of cached analyses.
+     *
+     * @return the cache size
+     */
+    public synchronized int getCacheSize() {
+        return cacheMap.size();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.rulehit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The result of counting the features each rule of a style matches.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleHitAnalysis {
+
+    /** The number of features analysed. */
+    private final long featureCount;
+
+    /** The rule hit counts, in style order. */
+    private final List<RuleHitCount> ruleList;
+
+    /** The number of features no rule matches, per feature type style. */
+    private final long[] unmatchedCount;
+
+    /** The scale denominator analysed, null if scale ranges were ignored. */
+    private final Double scaleDenominator;
+
+    /** The flag indicating whether the counts were calculated by the data store. */
+    private final boolean pushedDown;
+
+    /** The time taken in milliseconds. */
+    private final long analysisTime;
+
+    /**
+     * Instantiates a new rule hit analysis.
+     *
+     * @param featureCount the feature count
+     * @param ruleList the rule hit counts, in style order
+     * @param unmatchedCount the unmatched count per feature type style
+     * @param scaleDenominator the scale denominator
+     * @param pushedDown the pushed down flag
+     * @param analysisTime the analysis time in milliseconds
+     */
+    public RuleHitAnalysis(
+            long featureCount,
+            List<RuleHitCount> ruleList,
+            long[] unmatchedCount,
+            Double scaleDenominator,
+            boolean pushedDown,
+            long analysisTime) {
+        this.featureCount = featureCount;
+        this.ruleList = Collections.unmodifiableList(new ArrayList<>(ruleList));
+        this.unmatchedCount = unmatchedCount.clone();
+        this.scaleDenominator = scaleDenominator;
+        this.pushedDown = pushedDown;
+        this.analysisTime = analysisTime;
+    }
+
+    /**
+     * Gets the number of features analysed.
+     *
+     * @return the feature count
+     */
+    public long getFeatureCount() {
+        return featureCount;
+    }
+
+    /**
+     * Gets the rule hit counts in style order.
+     *
+     * @return the rule hit counts
+     */
+    public List<RuleHitCount> getRules() {
+        return ruleList;
+    }
+
+    /**
+     * Gets the rules that apply at the scale analysed but match no features.
+     *
+     * @return the never matched rules
+     */
+    public List<RuleHitCount> getNeverMatchedRules() {
+        List<RuleHitCount> neverMatchedList = new ArrayList<>();
+        for (RuleHitCount rule : ruleList) {
+            if (rule.getStatus() == RuleHitCount.Status.NEVER_MATCHED) {
+                neverMatchedList.add(rule);
+            }
+        }
+        return neverMatchedList;
+    }
+
+    /**
+     * Gets the rules ordered by the number of features they match, the most first.
+     *
+     * @return the hot rules
+     */
+    public List<RuleHitCount> getHotRules() {
+        List<RuleHitCount> hotList = new ArrayList<>(ruleList);
+        hotList.sort(Comparator.comparingLong(RuleHitCount::getHitCount).reversed());
+        return hotList;
+    }
+
+    /**
+     * Gets the number of feature type styles.
+     *
+     * @return the feature type style count
+     */
+    public int getFeatureTypeStyleCount() {
+        return unmatchedCount.length;
+    }
+
+    /**
+     * Gets the number of features no rule of a feature type style matches.
+     *
+     * @param ftsIndex the feature type style index
+     * @return the unmatched count
+     */
+    public long getUnmatchedCount(int ftsIndex) {
+        return unmatchedCount[ftsIndex];
+    }
+
+    /**
+     * Gets the scale denominator analysed.
+     *
+     * @return the scale denominator, null if scale ranges were ignored
+     */
+    public Double getScaleDenominator() {
+        return scaleDenominator;
+    }
+
+    /**
+     * Checks if the counts were calculated by the data store rather than by reading the
+     * features, overlaps between rules are not calculated by the data store.
+     *
+     * @return true, if pushed down to the data store
+     */
+    public boolean isPushedDown() {
+        return pushedDown;
+    }
+
+    /**
+     * Gets the time taken to analyse the rules.
+     *
+     * @return the analysis time in milliseconds
+     */
+    public long getAnalysisTime() {
+        return analysisTime;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "Rule hits : features %d, rules %d, never matched %d, %d ms%s",
+                featureCount,
+                ruleList.size(),
+                getNeverMatchedRules().size(),
+                analysisTime,
+                pushedDown ? ", pushed down" : "");
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.rulehit;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The number of features a style rule matches.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleHitCount {
+
+    /** The rule status. */
+    public enum Status {
+
+        /** The rule matches at least one feature. */
+        MATCHED,
+
+        /** The rule applies at the scale analysed but matches no features. */
+        NEVER_MATCHED,
+
+        /** The rule does not apply at the scale analysed. */
+        OUT_OF_SCALE
+    }
+
+    /** The feature type style index. */
+    private final int ftsIndex;
+
+    /** The rule index. */
+    private final int ruleIndex;
+
+    /** The rule name. */
+    private final String name;
+
+    /** The flag indicating whether the rule is an else rule. */
+    private final boolean elseFilter;
+
+    /** The flag indicating whether the rule applies at the scale analysed. */
+    private final boolean inScale;
+
+    /** The number of features matched. */
+    private final long hitCount;
+
+    /** The number of features matched that another rule also matches. */
+    private final long overlapCount;
+
+    /** The number of features shared with each overlapping rule, keyed by rule path. */
+    private final Map<String, Long> overlapMap;
+
+    /**
+     * Instantiates a new rule hit count.
+     *
+     * @param ftsIndex the feature type style index
+     * @param ruleIndex the rule index
+     * @param name the rule name
+     * @param elseFilter the else filter flag
+     * @param inScale the in scale flag
+     * @param hitCount the hit count
+     * @param overlapCount the overlap count
+     * @param overlapMap the features shared with each overlapping rule
+     */
+    public RuleHitCount(
+            int ftsIndex,
+            int ruleIndex,
+            String name,
+            boolean elseFilter,
+            boolean inScale,
+            long hitCount,
+            long overlapCount,
+            Map<String, Long> overlapMap) {
+        this.ftsIndex = ftsIndex;
+        this.ruleIndex = ruleIndex;
+        this.name = name;
+        this.elseFilter = elseFilter;
+        this.inScale = inScale;
+        this.hitCount = hitCount;
+        this.overlapCount = overlapCount;
+        this.overlapMap =
+                (overlapMap == null)
+                        ? Collections.emptyMap()
+                        : Collections.unmodifiableMap(overlapMap);
+    }
+
+    /**
+     * Gets the feature type style index.
+     *
+     * @return the feature type style index
+     */
+    public int getFtsIndex() {
+        return ftsIndex;
+    }
+
+    /**
+     * Gets the rule index.
+     *
+     * @return the rule index
+     */
+    public int getRuleIndex() {
+        return ruleIndex;
+    }
+
+    /**
+     * Gets the path of the rule within the style.
+     *
+     * @return the path
+     */
+    public String getPath() {
+        return getPath(ftsIndex, ruleIndex);
+    }
+
+    /**
+     * Gets the path of a rule within a style.
+     *
+     * @param ftsIndex the feature type style index
+     * @param ruleIndex the rule index
+     * @return the path
+     */
+    public static String getPath(int ftsIndex, int ruleIndex) {
+        return String.format("fts[%d]/rule[%d]", ftsIndex, ruleIndex);
+    }
+
+    /**
+     * Gets the rule name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks if the rule is an else rule.
+     *
+     * @return true, if else rule
+     */
+    public boolean isElseFilter() {
+        return elseFilter;
+    }
+
+    /**
+     * Gets the number of features matched.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of features matched that another rule in the same feature type style also
+     * matches, always 0 if the counts were calculated by the data store.
+     *
+     * @return the overlap count
+     */
+    public long getOverlapCount() {
+        return overlapCount;
+    }
+
+    /**
+     * Gets the number of features shared with each overlapping rule.
+     *
+     * @return the overlaps, keyed by rule path
+     */
+    public Map<String, Long> getOverlaps() {
+        return overlapMap;
+    }
+
+    /**
+     * Gets the rule status.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        if (!inScale) {
+            return Status.OUT_OF_SCALE;
+        }
+        return (hitCount == 0) ? Status.NEVER_MATCHED : Status.MATCHED;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.rulehit;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.data.SelectedSymbol;
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.datasource.DataSourceInterface;
+import com.sldeditor.datasource.impl.DataSourceFactory;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayer;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Panel that counts the features of the connected data source each rule of the selected style
+ * matches, showing rules that never match and rules that overlap.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleHitPanel extends JPanel {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The Constant SCALE_COLUMNS. */
+    private static final int SCALE_COLUMNS = 10;
+
+    /** The table model. */
+    private RuleHitTableModel model = new RuleHitTableModel();
+
+    /** The scale denominator text field. */
+    private JTextField scaleTextField;
+
+    /** The analyse button. */
+    private JButton btnAnalyse;
+
+    /** The stop button. */
+    private JButton btnStop;
+
+    /** The status label. */
+    private JLabel lblStatus;
+
+    /** The stop flag of the analysis in progress. */
+    private transient AtomicBoolean stopFlag = new AtomicBoolean(false);
+
+    /** Instantiates a new rule hit panel. */
+    public RuleHitPanel() {
+        setLayout(new BorderLayout());
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.TRAILING));
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        lblStatus = new JLabel();
+        buttonPanel.add(lblStatus);
+
+        buttonPanel.add(
+                new JLabel(Localisation.getString(RuleHitPanel.class, "RuleHitPanel.scale")));
+        scaleTextField = new JTextField(SCALE_COLUMNS);
+        scaleTextField.setToolTipText(
+                Localisation.getString(RuleHitPanel.class, "RuleHitPanel.scale.tooltip"));
+        buttonPanel.add(scaleTextField);
+
+        btnAnalyse =
+                new JButton(Localisation.getString(RuleHitPanel.class, "RuleHitPanel.analyse"));
+        btnAnalyse.addActionListener(e -> startAnalysis());
+        buttonPanel.add(btnAnalyse);
+
+        btnStop = new JButton(Localisation.getString(RuleHitPanel.class, "RuleHitPanel.stop"));
+        btnStop.addActionListener(e -> stopFlag.set(true));
+        btnStop.setEnabled(false);
+        buttonPanel.add(btnStop);
+    }
+
+    /** Count the rule hits of the selected style on a background thread. */
+    private void startAnalysis() {
+        // Copied on the event dispatch thread so the style is not edited while it is analysed
+        final Style style = copy(getStyle());
+        DataSourceInterface dataSource = DataSourceFactory.getDataSource();
+        FeatureSource<SimpleFeatureType, SimpleFeature> featureSource =
+                (dataSource == null) ? null : dataSource.getUnsampledFeatureSource();
+        if ((featureSource == null) && (dataSource != null)) {
+            featureSource = dataSource.getExampleFeatureSource();
+        }
+
+        if ((style == null) || (featureSource == null)) {
+            ConsoleManager.getInstance()
+                    .error(
+                            this,
+                            Localisation.getString(RuleHitPanel.class, "RuleHitPanel.noStyle"));
+            return;
+        }
+
+        final Double scaleDenominator;
+        String scaleText = scaleTextField.getText().trim();
+        try {
+            scaleDenominator = scaleText.isEmpty() ? null : Double.valueOf(scaleText);
+        } catch (NumberFormatException e) {
+            ConsoleManager.getInstance()
+                    .error(
+                            this,
+                            Localisation.getString(
+                                    RuleHitPanel.class, "RuleHitPanel.invalidScale"));
+            return;
+        }
+
+        final AtomicBoolean analysisStopFlag = new AtomicBoolean(false);
+        stopFlag = analysisStopFlag;
+        setAnalysing(true);
+        lblStatus.setText(Localisation.getString(RuleHitPanel.class, "RuleHitPanel.analysing"));
+
+        final FeatureSource<SimpleFeatureType, SimpleFeature> features = featureSource;
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.BACKGROUND_POOL,
+                        () -> {
+                            RuleHitAnalysis result = null;
+                            try {
+                                result =
+                                        RuleHitAnalyser.getInstance()
+                                                .analyse(
+                                                        features,
+                                                        style,
+                                                        scaleDenominator,
+                                                        analysisStopFlag);
+                            } catch (IOException | RuntimeException e) {
+                                ConsoleManager.getInstance().exception(RuleHitPanel.class, e);
+                            }
+                            final RuleHitAnalysis analysisResult = result;
+                            SwingUtilities.invokeLater(() -> analysisComplete(analysisResult));
+                        });
+    }
+
+    /**
+     * Called on the event dispatch thread when the analysis has finished.
+     *
+     * @param result the analysis, null if the analysis failed or was stopped
+     */
+    private void analysisComplete(RuleHitAnalysis result) {
+        setAnalysing(false);
+
+        model.setAnalysis(result);
+        if (result == null) {
+            lblStatus.setText("");
+        } else {
+            StringBuilder sb = new StringBuilder();
+            for (int ftsIndex = 0; ftsIndex < result.getFeatureTypeStyleCount(); ftsIndex++) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(
+                        String.format("fts[%d] %d", ftsIndex, result.getUnmatchedCount(ftsIndex)));
+            }
+
+            lblStatus.setText(
+                    String.format(
+                            Locale.ROOT,
+                            Localisation.getString(RuleHitPanel.class, "RuleHitPanel.summary"),
+                            result.getFeatureCount(),
+                            result.getNeverMatchedRules().size(),
+                            sb.toString()));
+        }
+    }
+
+    /**
+     * Enable the buttons for whether the analysis is in progress.
+     *
+     * @param analysing the analysing flag
+     */
+    private void setAnalysing(boolean analysing) {
+        btnAnalyse.setEnabled(!analysing);
+        btnStop.setEnabled(analysing);
+    }
+
+    /**
+     * Gets the style to analyse, the selected style or the first style in the SLD.
+     *
+     * @return the style, null if there is none
+     */
+    private static Style getStyle() {
+        Style style = SelectedSymbol.getInstance().getStyle();
+        if (style != null) {
+            return style;
+        }
+
+        StyledLayerDescriptor sld = SelectedSymbol.getInstance().getSld();
+        if (sld != null) {
+            for (StyledLayer styledLayer : sld.layers()) {
+                List<Style> styleList = SLDUtils.getStylesList(styledLayer);
+                if ((styleList != null) && !styleList.isEmpty()) {
+                    return styleList.get(0);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copy a style so it can be analysed while the original is edited.
+     *
+     * @param style the style
+     * @return the copy, null if there is no style
+     */
+    private static Style copy(Style style) {
+        if (style == null) {
+            return null;
+        }
+        DuplicatingStyleVisitor visitor = new DuplicatingStyleVisitor();
+        style.accept(visitor);
+        return (Style) visitor.getCopy();
+    }
+}
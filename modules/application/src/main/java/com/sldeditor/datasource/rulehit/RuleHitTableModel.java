@@ -0,0 +1,225 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.rulehit;
+
+import com.sldeditor.common.localisation.Localisation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model displaying the number of features each rule of a style matches.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleHitTableModel extends AbstractTableModel {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The Constant COL_PATH. */
+    private static final int COL_PATH = 0;
+
+    /** The Constant COL_NAME. */
+    private static final int COL_NAME = 1;
+
+    /** The Constant COL_ELSE. */
+    private static final int COL_ELSE = 2;
+
+    /** The Constant COL_STATUS. */
+    private static final int COL_STATUS = 3;
+
+    /** The Constant COL_HITS. */
+    private static final int COL_HITS = 4;
+
+    /** The Constant COL_PERCENTAGE. */
+    private static final int COL_PERCENTAGE = 5;
+
+    /** The Constant COL_OVERLAPPING. */
+    private static final int COL_OVERLAPPING = 6;
+
+    /** The Constant COL_OVERLAPS. */
+    private static final int COL_OVERLAPS = 7;
+
+    /** The column keys. */
+    private static final String[] COLUMN_KEYS = {
+        "RuleHitTableModel.path",
+        "RuleHitTableModel.name",
+        "RuleHitTableModel.else",
+        "RuleHitTableModel.status",
+        "RuleHitTableModel.hits",
+        "RuleHitTableModel.percentage",
+        "RuleHitTableModel.overlapping",
+        "RuleHitTableModel.overlaps"
+    };
+
+    /** The column names. */
+    private String[] columnNames = new String[COLUMN_KEYS.length];
+
+    /** The rule hit counts. */
+    private transient List<RuleHitCount> ruleList = new ArrayList<>();
+
+    /** The number of features analysed. */
+    private long featureCount = 0;
+
+    /** The flag indicating whether overlaps were calculated. */
+    private boolean overlapsCalculated = false;
+
+    /** Instantiates a new rule hit table model. */
+    public RuleHitTableModel() {
+        for (int index = 0; index < COLUMN_KEYS.length; index++) {
+            columnNames[index] =
+                    Localisation.getString(RuleHitTableModel.class, COLUMN_KEYS[index]);
+        }
+    }
+
+    /**
+     * Populate the table with a rule hit analysis.
+     *
+     * @param analysis the analysis, null to clear the table
+     */
+    public void setAnalysis(RuleHitAnalysis analysis) {
+        if (analysis == null) {
+            ruleList = new ArrayList<>();
+            featureCount = 0;
+            overlapsCalculated = false;
+        } else {
+            ruleList = analysis.getRules();
+            featureCount = analysis.getFeatureCount();
+            // Rules counted by the data store are not checked for overlaps
+            overlapsCalculated = !analysis.isPushedDown();
+        }
+
+        fireTableDataChanged();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.TableModel#getRowCount()
+     */
+    @Override
+    public int getRowCount() {
+        return ruleList.size();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.TableModel#getColumnCount()
+     */
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.AbstractTableModel#getColumnName(int)
+     */
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.AbstractTableModel#getColumnClass(int)
+     */
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case COL_ELSE:
+                return Boolean.class;
+            case COL_HITS:
+            case COL_OVERLAPPING:
+                return Long.class;
+            case COL_PERCENTAGE:
+                return Double.class;
+            default:
+                return String.class;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.AbstractTableModel#isCellEditable(int, int)
+     */
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.TableModel#getValueAt(int, int)
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if ((rowIndex < 0) || (rowIndex >= ruleList.size())) {
+            return null;
+        }
+
+        RuleHitCount rule = ruleList.get(rowIndex);
+        switch (columnIndex) {
+            case COL_PATH:
+                return rule.getPath();
+            case COL_NAME:
+                return rule.getName();
+            case COL_ELSE:
+                return rule.isElseFilter();
+            case COL_STATUS:
+                return Localisation.getString(
+                        RuleHitTableModel.class, "RuleHitTableModel." + rule.getStatus().name());
+            case COL_HITS:
+                return rule.getHitCount();
+            case COL_PERCENTAGE:
+                return (featureCount == 0) ? 0.0 : (rule.getHitCount() * 100.0) / featureCount;
+            case COL_OVERLAPPING:
+                return overlapsCalculated ? rule.getOverlapCount() : null;
+            case COL_OVERLAPS:
+                return overlapsCalculated ? getOverlaps(rule) : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets the rules a rule overlaps and the number of features they share.
+     *
+     * @param rule the rule
+     * @return the overlaps
+     */
+    private static String getOverlaps(RuleHitCount rule) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : rule.getOverlaps().entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(String.format("%s (%d)", entry.getKey(), entry.getValue()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.statistics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statistics of a data source field.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class FieldStatistics {
+
+    /** The field name. */
+    private final String fieldName;
+
+    /** The number of features. */
+    private final long featureCount;
+
+    /** The number of features where the field is null. */
+    private final long nullCount;
+
+    /** The minimum value. */
+    private final Object min;
+
+    /** The maximum value. */
+    private final Object max;
+
+    /** The number of distinct values. */
+    private final long distinctCount;
+
+    /** The flag indicating whether the distinct count is exact rather than estimated. */
+    private final boolean distinctExact;
+
+    /** The sorted unique values, null if there are too many to hold. */
+    private final List<Object> uniqueValues;
+
+    /** The quantile sketch of the numeric values, null if the field is not numeric. */
+    private final TDigest quantiles;
+
+    /** The flag indicating whether the aggregates were calculated by the data store. */
+    private final boolean pushedDown;
+
+    /**
+     * Instantiates a new field statistics.
+     *
+     * @param fieldName the field name
+     * @param featureCount the feature count
+     * @param nullCount the null count
+     * @param min the minimum value
+     * @param max the maximum value
+     * @param distinctCount the distinct count
+     * @param distinctExact the distinct exact flag
+     * @param uniqueValues the sorted unique values
+     * @param quantiles the quantile sketch
+     * @param pushedDown the pushed down flag
+     */
+    public FieldStatistics(
+            String fieldName,
+            long featureCount,
+            long nullCount,
+            Object min,
+            Object max,
+            long distinctCount,
+            boolean distinctExact,
+            List<Object> uniqueValues,
+            TDigest quantiles,
+            boolean pushedDown) {
+        this.fieldName = fieldName;
+        this.featureCount = featureCount;
+        this.nullCount = nullCount;
+        this.min = min;
+        this.max = max;
+        this.distinctCount = distinctCount;
+        this.distinctExact = distinctExact;
+        this.uniqueValues =
+                (uniqueValues == null) ? null : Collections.unmodifiableList(uniqueValues);
+        this.quantiles = quantiles;
+        this.pushedDown = pushedDown;
+
+        if (quantiles != null) {
+            // Merge any buffered values so the sketch is only read from now on
+            quantiles.compress();
+        }
+    }
+
+    /**
+     * Gets the field name.
+     *
+     * @return the field name
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Gets the feature count.
+     *
+     * @return the feature count
+     */
+    public long getFeatureCount() {
+        return featureCount;
+    }
+
+    /**
+     * Gets the number of features where the field is null.
+     *
+     * @return the null count
+     */
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Gets the minimum value.
+     *
+     * @return the minimum value, null if there are no values
+     */
+    public Object getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the maximum value.
+     *
+     * @return the maximum value, null if there are no values
+     */
+    public Object getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the number of distinct values.
+     *
+     * @return the distinct count
+     */
+    public long getDistinctCount() {
+        return distinctCount;
+    }
+
+    /**
+     * Checks if the distinct count is exact, otherwise it is estimated.
+     *
+     * @return true, if the distinct count is exact
+     */
+    public boolean isDistinctExact() {
+        return distinctExact;
+    }
+
+    /**
+     * Gets the sorted unique values.
+     *
+     * @return the unique values, null if there are too many to hold
+     */
+    public List<Object> getUniqueValues() {
+        return uniqueValues;
+    }
+
+    /**
+     * Checks if the field has numeric values and so quantiles.
+     *
+     * @return true, if numeric
+     */
+    public boolean isNumeric() {
+        return (quantiles != null) && (quantiles.getCount() > 0);
+    }
+
+    /**
+     * Gets the estimated value at a quantile of the numeric values.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the value, null if the field is not numeric
+     */
+    public Double getQuantile(double quantile) {
+        if (!isNumeric()) {
+            return null;
+        }
+        return quantiles.getQuantile(quantile);
+    }
+
+    /**
+     * Gets the class breaks dividing the numeric values into classes of equal count, the first
+     * break is the minimum and the last the maximum.
+     *
+     * @param classCount the number of classes
+     * @return the class breaks, null if the field is not numeric
+     */
+    public double[] getQuantileBreaks(int classCount) {
+        if (!isNumeric() || (classCount < 1)) {
+            return null;
+        }
+
+        double[] breaks = new double[classCount + 1];
+        for (int index = 0; index <= classCount; index++) {
+            breaks[index] = quantiles.getQuantile((double) index / classCount);
+        }
+        return breaks;
+    }
+
+    /**
+     * Checks if the aggregates were calculated by the data store rather than by reading the
+     * features.
+     *
+     * @return true, if pushed down to the data store
+     */
+    public boolean isPushedDown() {
+        return pushedDown;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%s : features %d, nulls %d, min %s, max %s, distinct %s%d%s",
+                fieldName,
+                featureCount,
+                nullCount,
+                min,
+                max,
+                distinctExact ? "" : "~",
+                distinctCount,
+                pushedDown ? ", pushed down" : "");
+    }
+}
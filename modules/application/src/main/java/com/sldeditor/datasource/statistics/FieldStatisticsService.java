@@ -0,0 +1,348 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.statistics;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.Logger;
+import org.geotools.data.DataAccess;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.visitor.CountVisitor;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.UniqueVisitor;
+import org.geotools.jdbc.JDBCDataStore;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.FilterFactory;
+
+/**
+ * Calculates and caches the statistics of data source fields.
+ *
+ * <p>Where the data store can calculate aggregates itself, database data stores, the minimum and
+ * maximum of numeric fields are pushed down to it and the remaining statistics are calculated by
+ * reading the field once. The count and unique values of other fields are pushed down, limited
+ * to one more than the maximum number of unique values held. Otherwise the field alone is read in
+ * a single streaming pass using bounded memory sketches, see FieldStatisticsVisitor.
+ *
+ * <p>Statistics are cached per data store, feature type and field until the data store is
+ * evicted. Statistics are calculated outside the cache lock so cached statistics are returned
+ * while others are calculated.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class FieldStatisticsService {
+
+    /** The singleton instance. */
+    private static FieldStatisticsService instance = null;
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(FieldStatisticsService.class);
+
+    /** The filter factory. */
+    private static FilterFactory ff = CommonFactoryFinder.getFilterFactory();
+
+    /** The cached statistics, keyed by data store, type name and field name. */
+    private Map<List<Object>, FieldStatistics> cacheMap = new LinkedHashMap<>();
+
+    /** The maximum number of unique values held in the statistics. */
+    private volatile int maxUniqueValues = FieldStatisticsVisitor.DEFAULT_MAX_UNIQUE_VALUES;
+
+    /**
+     * Gets the single instance of FieldStatisticsService.
+     *
+     * @return single instance of FieldStatisticsService
+     */
+    public static synchronized FieldStatisticsService getInstance() {
+        if (instance == null) {
+            instance = new FieldStatisticsService();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance, all cached statistics are released. */
+    public static synchronized void destroyInstance() {
+        if (instance != null) {
+            instance.clear();
+        }
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private FieldStatisticsService() {
+        // Private default constructor
+    }
+
+    /**
+     * Gets the statistics of a field, calculated if they are not already cached.
+     *
+     * @param source the feature source
+     * @param fieldName the field name
+     * @return the field statistics, null if the field does not exist, is a geometry or the
+     *     statistics could not be calculated
+     */
+    public FieldStatistics getFieldStatistics(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source, String fieldName) {
+        if ((source == null) || (fieldName == null)) {
+            return null;
+        }
+
+        AttributeDescriptor descriptor = source.getSchema().getDescriptor(fieldName);
+        if ((descriptor == null) || (descriptor instanceof GeometryDescriptor)) {
+            return null;
+        }
+
+        List<Object> key = Arrays.asList(source.getDataStore(), source.getName(), fieldName);
+        int maxUnique;
+        synchronized (this) {
+            FieldStatistics statistics = cacheMap.get(key);
+            if (statistics != null) {
+                return statistics;
+            }
+            maxUnique = maxUniqueValues;
+        }
+
+        long startTime = System.currentTimeMillis();
+        FieldStatistics statistics = null;
+        try {
+            statistics = calculate(source, descriptor, maxUnique);
+
+            logger.info(
+                    String.format(
+                            "Calculated statistics of %s in %d ms, %s",
+                            source.getName(),
+                            System.currentTimeMillis() - startTime,
+                            statistics));
+        } catch (IOException | RuntimeException e) {
+            ConsoleManager.getInstance().exception(this, e);
+            return null;
+        }
+
+        synchronized (this) {
+            // Statistics calculated by another thread in the meantime are kept, statistics
+            // calculated with a previous maximum number of unique values are not cached
+            FieldStatistics cached = cacheMap.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (maxUnique == maxUniqueValues) {
+                cacheMap.put(key, statistics);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Calculate the statistics of a field, pushing the aggregates down to the data store if it
+     * supports them.
+     *
+     * @param source the feature source
+     * @param descriptor the field descriptor
+     * @param maxUnique the maximum number of unique values held
+     * @return the field statistics
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private FieldStatistics calculate(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            AttributeDescriptor descriptor,
+            int maxUnique)
+            throws IOException {
+        String fieldName = descriptor.getLocalName();
+
+        if (source.getDataStore() instanceof JDBCDataStore) {
+            boolean numeric = Number.class.isAssignableFrom(descriptor.getType().getBinding());
+            try {
+                return numeric
+                        ? calculateNumericPushDown(source, fieldName, maxUnique)
+                        : calculatePushDown(source, fieldName, maxUnique);
+            } catch (IOException | RuntimeException e) {
+                logger.debug(
+                        String.format(
+                                "Aggregates of %s not supported by the data store : %s",
+                                fieldName, e.getMessage()));
+            }
+        }
+
+        return stream(source, fieldName, maxUnique).getStatistics();
+    }
+
+    /**
+     * Calculate the statistics of a numeric field, the minimum and maximum are calculated by the
+     * data store and the remaining statistics by reading the field values once.
+     *
+     * @param source the feature source
+     * @param fieldName the field name
+     * @param maxUnique the maximum number of unique values held
+     * @return the field statistics
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private FieldStatistics calculateNumericPushDown(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            String fieldName,
+            int maxUnique)
+            throws IOException {
+        MinVisitor minVisitor = new MinVisitor(fieldName);
+        MaxVisitor maxVisitor = new MaxVisitor(fieldName);
+        source.getFeatures().accepts(minVisitor, null);
+        source.getFeatures().accepts(maxVisitor, null);
+
+        FieldStatisticsVisitor visitor = stream(source, fieldName, maxUnique);
+        FieldStatistics streamed = visitor.getStatistics();
+        TDigest quantiles = visitor.getQuantileSketch();
+
+        return new FieldStatistics(
+                fieldName,
+                streamed.getFeatureCount(),
+                streamed.getNullCount(),
+                minVisitor.getResult().getValue(),
+                maxVisitor.getResult().getValue(),
+                streamed.getDistinctCount(),
+                streamed.isDistinctExact(),
+                streamed.getUniqueValues(),
+                (quantiles.getCount() > 0) ? quantiles : null,
+                true);
+    }
+
+    /**
+     * Calculate the statistics of a non-numeric field using the data store aggregate functions.
+     * If the field has more unique values than are held the field values are read instead so the
+     * distinct count can be estimated.
+     *
+     * @param source the feature source
+     * @param fieldName the field name
+     * @param maxUnique the maximum number of unique values held
+     * @return the field statistics
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private FieldStatistics calculatePushDown(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            String fieldName,
+            int maxUnique)
+            throws IOException {
+        // Only fetch enough unique values to know whether there are too many to hold
+        UniqueVisitor uniqueVisitor = new UniqueVisitor(fieldName);
+        uniqueVisitor.setMaxFeatures(maxUnique + 1);
+        source.getFeatures().accepts(uniqueVisitor, null);
+
+        Set<Object> uniqueValueSet = new HashSet<>(uniqueVisitor.getUnique());
+        if (uniqueValueSet.size() > maxUnique) {
+            return stream(source, fieldName, maxUnique).getStatistics();
+        }
+        uniqueValueSet.remove(null);
+
+        CountVisitor countVisitor = new CountVisitor();
+        source.getFeatures().accepts(countVisitor, null);
+
+        CountVisitor nullVisitor = new CountVisitor();
+        Query nullQuery =
+                new Query(source.getSchema().getTypeName(), ff.isNull(ff.property(fieldName)));
+        source.getFeatures(nullQuery).accepts(nullVisitor, null);
+
+        // The unique values are complete so give the minimum and maximum
+        List<Object> uniqueValues = FieldStatisticsVisitor.sort(uniqueValueSet);
+        boolean empty = uniqueValues.isEmpty();
+
+        return new FieldStatistics(
+                fieldName,
+                countVisitor.getCount(),
+                nullVisitor.getCount(),
+                empty ? null : uniqueValues.get(0),
+                empty ? null : uniqueValues.get(uniqueValues.size() - 1),
+                uniqueValues.size(),
+                true,
+                uniqueValues,
+                null,
+                true);
+    }
+
+    /**
+     * Read the values of a field in a single pass.
+     *
+     * @param source the feature source
+     * @param fieldName the field name
+     * @param maxUnique the maximum number of unique values held
+     * @return the visitor holding the field statistics
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private FieldStatisticsVisitor stream(
+            FeatureSource<SimpleFeatureType, SimpleFeature> source,
+            String fieldName,
+            int maxUnique)
+            throws IOException {
+        // Only read the field being calculated
+        Query query = new Query(source.getSchema().getTypeName());
+        query.setPropertyNames(new String[] {fieldName});
+
+        FieldStatisticsVisitor visitor = new FieldStatisticsVisitor(fieldName, maxUnique);
+        source.getFeatures(query).accepts(visitor, null);
+        return visitor;
+    }
+
+    /**
+     * Release the cached statistics of a data store, called when the data store is unloaded.
+     *
+     * @param dataStore the data store
+     */
+    public synchronized void evict(DataAccess<?, ?> dataStore) {
+        Iterator<Map.Entry<List<Object>, FieldStatistics>> iterator =
+                cacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().get(0) == dataStore) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Release all the cached statistics. */
+    public synchronized void clear() {
+        cacheMap.clear();
+    }
+
+    /**
+     * Gets the number of cached statistics.
+     *
+     * @return the cache size
+     */
+    public synchronized int getCacheSize() {
+        return cacheMap.size();
+    }
+
+    /**
+     * Sets the maximum number of unique values held in the statistics, clears the cache.
+     *
+     * @param maxUniqueValues the new maximum number of unique values
+     */
+    public synchronized void setMaxUniqueValues(int maxUniqueValues) {
+        this.maxUniqueValues = maxUniqueValues;
+        clear();
+    }
+}
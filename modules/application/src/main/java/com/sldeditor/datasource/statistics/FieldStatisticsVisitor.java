@@ -0,0 +1,249 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.statistics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.Property;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Feature visitor calculating the statistics of a field in a single pass over the features.
+ *
+ * <p>Memory is bounded, unique values are only held up to a limit after which the distinct count
+ * is estimated by a HyperLogLog sketch and quantiles of numeric values by a t-digest. Visitors
+ * over different parts of the data can be merged.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class FieldStatisticsVisitor implements FeatureVisitor {
+
+    /** The Constant DEFAULT_MAX_UNIQUE_VALUES. */
+    public static final int DEFAULT_MAX_UNIQUE_VALUES = 1000;
+
+    /** The field name. */
+    private final String fieldName;
+
+    /** The maximum number of unique values to hold. */
+    private final int maxUniqueValues;
+
+    /** The number of features visited. */
+    private long featureCount = 0;
+
+    /** The number of features where the field is null. */
+    private long nullCount = 0;
+
+    /** The minimum value. */
+    private Object min = null;
+
+    /** The maximum value. */
+    private Object max = null;
+
+    /** The unique values, null once there are more than the maximum. */
+    private Set<Object> uniqueValueSet = new HashSet<>();
+
+    /** The distinct value sketch. */
+    private final HyperLogLog distinctSketch = new HyperLogLog();
+
+    /** The quantile sketch of the numeric values. */
+    private final TDigest quantileSketch = new TDigest();
+
+    /**
+     * Instantiates a new field statistics visitor.
+     *
+     * @param fieldName the field name
+     */
+    public FieldStatisticsVisitor(String fieldName) {
+        this(fieldName, DEFAULT_MAX_UNIQUE_VALUES);
+    }
+
+    /**
+     * Instantiates a new field statistics visitor.
+     *
+     * @param fieldName the field name
+     * @param maxUniqueValues the maximum number of unique values to hold
+     */
+    public FieldStatisticsVisitor(String fieldName, int maxUniqueValues) {
+        this.fieldName = fieldName;
+        this.maxUniqueValues = maxUniqueValues;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.feature.FeatureVisitor#visit(org.opengis.feature.Feature)
+     */
+    @Override
+    public void visit(Feature feature) {
+        Object value = null;
+        if (feature instanceof SimpleFeature) {
+            value = ((SimpleFeature) feature).getAttribute(fieldName);
+        } else if (feature != null) {
+            Property property = feature.getProperty(fieldName);
+            if (property != null) {
+                value = property.getValue();
+            }
+        }
+        add(value);
+    }
+
+    /**
+     * Adds the value of a feature.
+     *
+     * @param value the value, may be null
+     */
+    public void add(Object value) {
+        featureCount++;
+
+        if (value == null) {
+            nullCount++;
+            return;
+        }
+
+        if ((min == null) || (compare(value, min) < 0)) {
+            min = value;
+        }
+        if ((max == null) || (compare(value, max) > 0)) {
+            max = value;
+        }
+
+        distinctSketch.add(value);
+
+        if (uniqueValueSet != null) {
+            uniqueValueSet.add(value);
+            if (uniqueValueSet.size() > maxUniqueValues) {
+                uniqueValueSet = null;
+            }
+        }
+
+        if (value instanceof Number) {
+            quantileSketch.add(((Number) value).doubleValue());
+        }
+    }
+
+    /**
+     * Merge the values visited by another visitor of the same field.
+     *
+     * @param other the other visitor
+     */
+    public void merge(FieldStatisticsVisitor other) {
+        if (other == null) {
+            return;
+        }
+
+        featureCount += other.featureCount;
+        nullCount += other.nullCount;
+
+        if ((other.min != null) && ((min == null) || (compare(other.min, min) < 0))) {
+            min = other.min;
+        }
+        if ((other.max != null) && ((max == null) || (compare(other.max, max) > 0))) {
+            max = other.max;
+        }
+
+        distinctSketch.merge(other.distinctSketch);
+
+        if ((uniqueValueSet != null) && (other.uniqueValueSet != null)) {
+            uniqueValueSet.addAll(other.uniqueValueSet);
+            if (uniqueValueSet.size() > maxUniqueValues) {
+                uniqueValueSet = null;
+            }
+        } else {
+            uniqueValueSet = null;
+        }
+
+        quantileSketch.merge(other.quantileSketch);
+    }
+
+    /**
+     * Gets the quantile sketch of the numeric values.
+     *
+     * @return the quantile sketch
+     */
+    public TDigest getQuantileSketch() {
+        return quantileSketch;
+    }
+
+    /**
+     * Creates the field statistics from the values visited.
+     *
+     * @return the field statistics
+     */
+    public FieldStatistics getStatistics() {
+        List<Object> uniqueValues = null;
+        long distinctCount;
+        if (uniqueValueSet != null) {
+            uniqueValues = sort(uniqueValueSet);
+            distinctCount = uniqueValueSet.size();
+        } else {
+            distinctCount = distinctSketch.getEstimate();
+        }
+
+        return new FieldStatistics(
+                fieldName,
+                featureCount,
+                nullCount,
+                min,
+                max,
+                distinctCount,
+                (uniqueValueSet != null),
+                uniqueValues,
+                (quantileSketch.getCount() > 0) ? quantileSketch : null,
+                false);
+    }
+
+    /**
+     * Sort values into ascending order.
+     *
+     * @param values the values
+     * @return the sorted values
+     */
+    public static List<Object> sort(Set<?> values) {
+        List<Object> sortedList = new ArrayList<>(values);
+        sortedList.sort(FieldStatisticsVisitor::compare);
+        return sortedList;
+    }
+
+    /**
+     * Compare two non null values, numbers are compared by value whatever their class and values
+     * that cannot be compared directly by their string representation.
+     *
+     * @param value1 the first value
+     * @param value2 the second value
+     * @return the comparison result
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compare(Object value1, Object value2) {
+        if ((value1 instanceof Number) && (value2 instanceof Number)) {
+            return Double.compare(
+                    ((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        }
+
+        if ((value1 instanceof Comparable) && (value1.getClass() == value2.getClass())) {
+            return ((Comparable) value1).compareTo(value2);
+        }
+
+        return value1.toString().compareTo(value2.toString());
+    }
+}
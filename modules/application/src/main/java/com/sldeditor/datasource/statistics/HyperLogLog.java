@@ -0,0 +1,190 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.statistics;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values in a stream using a fixed amount of
+ * memory, 2^precision bytes.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class HyperLogLog {
+
+    /** The Constant DEFAULT_PRECISION, a standard error of about 0.8%. */
+    public static final int DEFAULT_PRECISION = 14;
+
+    /** The Constant MIN_PRECISION. */
+    private static final int MIN_PRECISION = 4;
+
+    /** The Constant MAX_PRECISION. */
+    private static final int MAX_PRECISION = 16;
+
+    /** The Constant FNV_OFFSET_BASIS. */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /** The Constant FNV_PRIME. */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** The precision, the number of hash bits used to select a register. */
+    private final int precision;
+
+    /** The registers, the maximum rank seen for each register. */
+    private final byte[] registers;
+
+    /** Instantiates a new hyper log log with the default precision. */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Instantiates a new hyper log log.
+     *
+     * @param precision the precision, between 4 and 16
+     */
+    public HyperLogLog(int precision) {
+        if ((precision < MIN_PRECISION) || (precision > MAX_PRECISION)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Precision must be between %d and %d : %d",
+                            MIN_PRECISION, MAX_PRECISION, precision));
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a value, null values are ignored.
+     *
+     * @param value the value
+     */
+    public void add(Object value) {
+        if (value == null) {
+            return;
+        }
+
+        long hash = hash(value.toString());
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        int rank =
+                Math.min(Long.numberOfLeadingZeros(hash << precision), Long.SIZE - precision) + 1;
+
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merge another sketch of the same precision into this one.
+     *
+     * @param other the other sketch
+     */
+    public void merge(HyperLogLog other) {
+        if (other == null) {
+            return;
+        }
+
+        if (other.precision != precision) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Cannot merge sketches of precision %d and %d",
+                            precision, other.precision));
+        }
+
+        for (int index = 0; index < registers.length; index++) {
+            if (other.registers[index] > registers[index]) {
+                registers[index] = other.registers[index];
+            }
+        }
+    }
+
+    /**
+     * Gets the estimated number of distinct values added.
+     *
+     * @return the estimated distinct count
+     */
+    public long getEstimate() {
+        int registerCount = registers.length;
+        double sum = 0.0;
+        int zeroCount = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroCount++;
+            }
+        }
+
+        double estimate = getAlpha(registerCount) * registerCount * registerCount / sum;
+
+        // Small range correction, linear counting while registers are still empty
+        if ((estimate <= 2.5 * registerCount) && (zeroCount > 0)) {
+            estimate = registerCount * Math.log((double) registerCount / zeroCount);
+        }
+
+        return Math.round(estimate);
+    }
+
+    /**
+     * Gets the precision.
+     *
+     * @return the precision
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Gets the bias correction constant for the number of registers.
+     *
+     * @param registerCount the register count
+     * @return the alpha constant
+     */
+    private static double getAlpha(int registerCount) {
+        switch (registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1.0 + 1.079 / registerCount);
+        }
+    }
+
+    /**
+     * Hash a string to 64 bits, FNV-1a followed by the MurmurHash3 finalisation mix.
+     *
+     * @param value the value
+     * @return the hash
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.statistics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Merging t-digest sketch estimating the quantiles of a stream of numbers using a bounded number
+ * of centroids, accuracy is highest near the extreme quantiles.
+ *
+ * <p>Not thread safe, once compressed the quantiles can be read concurrently.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class TDigest {
+
+    /** The Constant DEFAULT_COMPRESSION. */
+    public static final double DEFAULT_COMPRESSION = 100.0;
+
+    /** The Constant MIN_COMPRESSION. */
+    private static final double MIN_COMPRESSION = 10.0;
+
+    /** The Constant BUFFER_FACTOR, size of the unmerged buffer relative to the centroids. */
+    private static final int BUFFER_FACTOR = 5;
+
+    /** The compression, the maximum number of centroids is proportional to it. */
+    private final double compression;
+
+    /** The centroid means. */
+    private double[] centroidMean;
+
+    /** The centroid weights. */
+    private double[] centroidWeight;
+
+    /** The number of centroids. */
+    private int centroidCount = 0;
+
+    /** The means of the values not yet merged into the centroids. */
+    private final double[] bufferMean;
+
+    /** The weights of the values not yet merged into the centroids. */
+    private final double[] bufferWeight;
+
+    /** The number of values not yet merged into the centroids. */
+    private int bufferCount = 0;
+
+    /** The total weight of all values added. */
+    private double totalWeight = 0.0;
+
+    /** The minimum value added. */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /** The maximum value added. */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /** Instantiates a new t-digest with the default compression. */
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Instantiates a new t-digest.
+     *
+     * @param compression the compression, at least 10
+     */
+    public TDigest(double compression) {
+        if (compression < MIN_COMPRESSION) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Compression must be at least %.0f : %f",
+                            MIN_COMPRESSION, compression));
+        }
+        this.compression = compression;
+
+        int size = 2 * (int) Math.ceil(compression) + 10;
+        centroidMean = new double[size];
+        centroidWeight = new double[size];
+        bufferMean = new double[size * BUFFER_FACTOR];
+        bufferWeight = new double[size * BUFFER_FACTOR];
+    }
+
+    /**
+     * Adds a value, NaN values are ignored.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        add(value, 1.0);
+    }
+
+    /**
+     * Adds a weighted value, NaN values and values without weight are ignored.
+     *
+     * @param value the value
+     * @param weight the weight
+     */
+    public void add(double value, double weight) {
+        if (Double.isNaN(value) || !(weight > 0.0)) {
+            return;
+        }
+
+        if (bufferCount == bufferMean.length) {
+            compress();
+        }
+
+        bufferMean[bufferCount] = value;
+        bufferWeight[bufferCount] = weight;
+        bufferCount++;
+
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Merge another digest into this one.
+     *
+     * @param other the other digest
+     */
+    public void merge(TDigest other) {
+        if ((other == null) || (other.totalWeight == 0.0)) {
+            return;
+        }
+
+        other.compress();
+        for (int index = 0; index < other.centroidCount; index++) {
+            add(other.centroidMean[index], other.centroidWeight[index]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** Merge the buffered values into the centroids. */
+    public void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+
+        int count = centroidCount + bufferCount;
+        double[] allMean = new double[count];
+        double[] allWeight = new double[count];
+        System.arraycopy(centroidMean, 0, allMean, 0, centroidCount);
+        System.arraycopy(centroidWeight, 0, allWeight, 0, centroidCount);
+        System.arraycopy(bufferMean, 0, allMean, centroidCount, bufferCount);
+        System.arraycopy(bufferWeight, 0, allWeight, centroidCount, bufferCount);
+
+        Integer[] order = new Integer[count];
+        for (int index = 0; index < count; index++) {
+            order[index] = index;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(index -> allMean[index]));
+
+        centroidCount = 0;
+        bufferCount = 0;
+
+        double weightSoFar = 0.0;
+        double weightLimit = totalWeight * getQuantileLimit(0.0);
+        double mean = allMean[order[0]];
+        double weight = allWeight[order[0]];
+
+        for (int index = 1; index < count; index++) {
+            double nextMean = allMean[order[index]];
+            double nextWeight = allWeight[order[index]];
+
+            if (weightSoFar + weight + nextWeight <= weightLimit) {
+                weight += nextWeight;
+                mean += (nextMean - mean) * nextWeight / weight;
+            } else {
+                addCentroid(mean, weight);
+                weightSoFar += weight;
+                weightLimit = totalWeight * getQuantileLimit(weightSoFar / totalWeight);
+                mean = nextMean;
+                weight = nextWeight;
+            }
+        }
+        addCentroid(mean, weight);
+    }
+
+    /**
+     * Gets the estimated value at a quantile.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the value, NaN if no values have been added
+     */
+    public double getQuantile(double quantile) {
+        if ((quantile < 0.0) || (quantile > 1.0)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1 : " + quantile);
+        }
+
+        compress();
+
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+
+        if (centroidCount == 1) {
+            return centroidMean[0];
+        }
+
+        double index = quantile * totalWeight;
+
+        // Between the minimum and the centre of the first centroid
+        double halfWeight = centroidWeight[0] / 2.0;
+        if (index <= halfWeight) {
+            return min + (centroidMean[0] - min) * index / halfWeight;
+        }
+
+        double cumulative = halfWeight;
+        for (int centroid = 0; centroid < centroidCount - 1; centroid++) {
+            double gap = (centroidWeight[centroid] + centroidWeight[centroid + 1]) / 2.0;
+            if (cumulative + gap >= index) {
+                double fraction = (index - cumulative) / gap;
+                return centroidMean[centroid]
+                        + fraction * (centroidMean[centroid + 1] - centroidMean[centroid]);
+            }
+            cumulative += gap;
+        }
+
+        // Between the centre of the last centroid and the maximum
+        int last = centroidCount - 1;
+        double fraction = Math.min(1.0, (index - cumulative) / (centroidWeight[last] / 2.0));
+        return centroidMean[last] + fraction * (max - centroidMean[last]);
+    }
+
+    /**
+     * Gets the number of values added.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * Gets the minimum value added.
+     *
+     * @return the minimum, NaN if no values have been added
+     */
+    public double getMin() {
+        return (totalWeight == 0.0) ? Double.NaN : min;
+    }
+
+    /**
+     * Gets the maximum value added.
+     *
+     * @return the maximum, NaN if no values have been added
+     */
+    public double getMax() {
+        return (totalWeight == 0.0) ? Double.NaN : max;
+    }
+
+    /**
+     * Gets the number of centroids.
+     *
+     * @return the centroid count
+     */
+    public int getCentroidCount() {
+        compress();
+        return centroidCount;
+    }
+
+    /**
+     * Adds a merged centroid.
+     *
+     * @param mean the mean
+     * @param weight the weight
+     */
+    private void addCentroid(double mean, double weight) {
+        if (centroidCount == centroidMean.length) {
+            centroidMean = Arrays.copyOf(centroidMean, centroidCount * 2);
+            centroidWeight = Arrays.copyOf(centroidWeight, centroidCount * 2);
+        }
+        centroidMean[centroidCount] = mean;
+        centroidWeight[centroidCount] = weight;
+        centroidCount++;
+    }
+
+    /**
+     * Gets the largest quantile the centroid starting at a quantile may extend to, using the
+     * arcsine scale function which keeps centroids small at the tails.
+     *
+     * @param quantile the quantile the centroid starts at
+     * @return the quantile limit
+     */
+    private double getQuantileLimit(double quantile) {
+        double q = Math.max(0.0, Math.min(1.0, quantile));
+        double scale = compression / (2.0 * Math.PI);
+        double k = scale * Math.asin(2.0 * q - 1.0) + 1.0;
+        if (k >= compression / 4.0) {
+            return 1.0;
+        }
+        return (Math.sin(k / scale) + 1.0) / 2.0;
+    }
+}
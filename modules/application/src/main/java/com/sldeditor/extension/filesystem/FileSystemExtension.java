@@ -32,6 +32,7 @@ import com.sldeditor.common.filesystem.SelectedFiles;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.preferences.PrefData;
 import com.sldeditor.common.preferences.PrefDataLastViewedEnum;
+import com.sldeditor.common.task.TaskManager;
 import com.sldeditor.datasource.extension.filesystem.node.FSTree;
 import com.sldeditor.datasource.extension.filesystem.node.FileSystemNodeManager;
 import com.sldeditor.extension.ExtensionFactory;
@@ -46,6 +47,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 import javax.swing.BoxLayout;
 import javax.swing.JMenu;
 import javax.swing.JPanel;
@@ -103,6 +105,9 @@ public class FileSystemExtension
     /** The sld saved. */
     private boolean sldSaved = false;
 
+    /** The task building the right-click popup menu. */
+    private Future<?> popupMenuTask = null;
+
     /**
      * Initialise.
      *
@@ -579,27 +584,45 @@ public class FileSystemExtension
 
             Object selectedItem = tree.getLastSelectedPathComponent();
 
-            Thread t1 =
-                    new Thread(
-                            new Runnable() {
-                                public void run() {
-
-                                    JPopupMenu popupMenu = new JPopupMenu();
-
-                                    List<FileSystemInterface> extensionList =
-                                            FileSystemExtensionFactory.getFileExtensionList(
-                                                    toolMgr);
-
-                                    for (FileSystemInterface extension : extensionList) {
-                                        extension.rightMouseButton(popupMenu, selectedItem, e);
-                                    }
+            // Only the menu for the latest right-click is wanted
+            if (popupMenuTask != null) {
+                popupMenuTask.cancel(true);
+            }
 
-                                    if ((popupMenu.getComponentCount() > 0) && (e != null)) {
-                                        popupMenu.show(e.getComponent(), e.getX(), e.getY());
-                                    }
-                                }
-                            });
-            t1.start();
+            popupMenuTask =
+                    TaskManager.getInstance()
+                            .submit(
+                                    TaskManager.UI_POOL,
+                                    new Runnable() {
+                                        public void run() {
+
+                                            JPopupMenu popupMenu = new JPopupMenu();
+
+                                            List<FileSystemInterface> extensionList =
+                                                    FileSystemExtensionFactory
+                                                            .getFileExtensionList(toolMgr);
+
+                                            for (FileSystemInterface extension :
+                                                    extensionList) {
+                                                extension.rightMouseButton(
+                                                        popupMenu, selectedItem, e);
+                                            }
+
+                                            if (Thread.currentThread().isInterrupted()) {
+                                                return;
+                                            }
+
+                                            if ((popupMenu.getComponentCount() > 0)
+                                                    && (e != null)) {
+                                                SwingUtilities.invokeLater(
+                                                        () ->
+                                                                popupMenu.show(
+                                                                        e.getComponent(),
+                                                                        e.getX(),
+                                                                        e.getY()));
+                                            }
+                                        }
+                                    });
         }
     }
 }
@@ -22,13 +22,13 @@ package com.sldeditor.extension.filesystem.database.client;
 import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.data.DatabaseConnection;
 import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.datasource.pool.DataStorePool;
 import com.sldeditor.extension.filesystem.database.DatabaseReadProgressInterface;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.geotools.data.DataStore;
-import org.geotools.data.DataStoreFinder;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.opengis.feature.type.GeometryDescriptor;
 import org.opengis.feature.type.Name;
@@ -91,7 +91,7 @@ public class DatabaseClient implements DatabaseClientInterface {
         Map<String, Object> params = getDBConnectionParams();
 
         try {
-            DataStore dataStore = DataStoreFinder.getDataStore(params);
+            DataStore dataStore = DataStorePool.getInstance().borrow(params);
 
             if (dataStore != null) {
                 connectToDatastore(dataStore);
@@ -130,10 +130,11 @@ public class DatabaseClient implements DatabaseClientInterface {
                 }
             }
 
-            dataStore.dispose();
             connected = true;
         } catch (Exception e) {
             ConsoleManager.getInstance().exception(this, e);
+        } finally {
+            DataStorePool.getInstance().release(dataStore);
         }
     }
 
@@ -200,9 +200,9 @@ public class FileSystemInput implements FileSystemInterface {
         boolean changed = false;
         if (selectedItem instanceof FileTreeNode) {
             // Get the last component of the path and
-            // arrange to have it fully populated.
+            // arrange to have it fully populated in the background.
             FileTreeNode node = (FileTreeNode) selectedItem;
-            if (node.populateDirectories(true)) {
+            if (node.populateDirectoriesInBackground()) {
                 changed = true;
             }
         }
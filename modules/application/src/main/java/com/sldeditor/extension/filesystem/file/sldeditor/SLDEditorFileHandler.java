@@ -36,6 +36,7 @@ import com.sldeditor.datasource.extension.filesystem.FileSystemUtils;
 import com.sldeditor.datasource.extension.filesystem.node.file.FileHandlerInterface;
 import com.sldeditor.datasource.extension.filesystem.node.file.FileTreeNode;
 import com.sldeditor.datasource.impl.DataSourceProperties;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
 import com.sldeditor.extension.filesystem.file.sld.SLDFileHandler;
 import com.sldeditor.filter.v2.envvar.EnvVar;
 import com.sldeditor.ui.legend.option.LegendOptionData;
@@ -98,6 +99,8 @@ public class SLDEditorFileHandler implements FileHandlerInterface {
 
     private static final String LEGEND_OPTION_ELEMENT = "legend";
 
+    private static final String SAMPLING_ELEMENT = "sampling";
+
     /** The Constant RESOURCE_ICON. */
     private static final String RESOURCE_ICON = "ui/filesystemicons/sldeditor.png";
 
@@ -201,6 +204,11 @@ public class SLDEditorFileHandler implements FileHandlerInterface {
                     LegendOptionData.decodeXML(
                             document, SLDEditorFileHandler.LEGEND_OPTION_ELEMENT);
             sldData.setLegendOptions(legendOption);
+
+            DataSourceSamplingOptions samplingOptions =
+                    DataSourceSamplingOptions.decodeXML(
+                            document, SLDEditorFileHandler.SAMPLING_ELEMENT);
+            sldData.setSamplingOptions(samplingOptions);
         } catch (ParserConfigurationException | SAXException | IOException e) {
             ConsoleManager.getInstance().exception(this, e);
         }
@@ -405,6 +413,12 @@ public class SLDEditorFileHandler implements FileHandlerInterface {
             legendOptions.encodeXML(doc, root, SLDEditorFileHandler.LEGEND_OPTION_ELEMENT);
         }
 
+        // Write out the data source sampling options
+        DataSourceSamplingOptions samplingOptions = sldData.getSamplingOptions();
+        if (samplingOptions != null) {
+            samplingOptions.encodeXML(doc, root, SLDEditorFileHandler.SAMPLING_ELEMENT);
+        }
+
         // Generate the XML to write out
         String outputXML = generateXML(doc);
 
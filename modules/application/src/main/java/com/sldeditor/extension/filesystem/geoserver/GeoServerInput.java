@@ -31,6 +31,7 @@ import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.filesystem.FileSystemInterface;
 import com.sldeditor.common.filesystem.SelectedFiles;
 import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.datasource.extension.filesystem.GeoServerConnectUpdateInterface;
@@ -43,6 +44,9 @@ import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerOve
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerStyleHeadingNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerStyleNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerWorkspaceNode;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher.PublishResult;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher.PublishStatus;
 import com.sldeditor.extension.filesystem.geoserver.client.GeoServerClientInterface;
 import com.sldeditor.tool.ToolManager;
 import com.sldeditor.tool.batchupdatefont.BatchUpdateFontTool;
@@ -60,12 +64,15 @@ import java.awt.event.MouseEvent;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
+import javax.swing.SwingUtilities;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import org.apache.log4j.Logger;
@@ -730,6 +737,9 @@ public class GeoServerInput
     @Override
     public void updateLayerStyle(List<GeoServerLayer> layerList) {
         if (layerList != null) {
+            // Group the layers by client so each GeoServer instance is updated concurrently
+            Map<GeoServerClientInterface, List<GeoServerLayer>> clientLayerMap =
+                    new LinkedHashMap<>();
             for (GeoServerLayer layer : layerList) {
                 GeoServerClientInterface client =
                         GeoServerConnectionManager.getInstance()
@@ -737,9 +747,14 @@ public class GeoServerInput
                                 .get(layer.getConnection());
 
                 if (client != null) {
-                    client.updateLayerStyles(layer);
+                    clientLayerMap.computeIfAbsent(client, k -> new ArrayList<>()).add(layer);
                 }
             }
+
+            for (Entry<GeoServerClientInterface, List<GeoServerLayer>> entry :
+                    clientLayerMap.entrySet()) {
+                new GeoServerBulkPublisher(entry.getKey()).updateLayerStyles(entry.getValue());
+            }
         }
     }
 
@@ -879,6 +894,7 @@ public class GeoServerInput
             if (client == null) {
                 return false;
             } else {
+                List<SLDDataInterface> sldDataList = new ArrayList<>();
                 for (Entry<NodeInterface, List<SLDDataInterface>> entry :
                         droppedDataMap.entrySet()) {
                     for (SLDDataInterface sldData : entry.getValue()) {
@@ -887,11 +903,11 @@ public class GeoServerInput
                         removeStyleFileExtension(styleWrapper);
 
                         styleWrapper.setWorkspace(workspaceNode.getWorkspaceName());
-                        client.uploadSLD(styleWrapper, sldData.getSld());
+                        sldDataList.add(sldData);
                     }
                 }
 
-                client.refreshWorkspace(workspaceNode.getWorkspaceName());
+                publishStyles(client, sldDataList, workspaceNode.getWorkspaceName());
             }
 
             return true;
@@ -899,6 +915,119 @@ public class GeoServerInput
         return false;
     }
 
+    /**
+     * Publish styles to GeoServer and refresh the workspace, styles that have not changed are not
+     * uploaded. When called on the event dispatch thread the styles are published on the
+     * GeoServer task pool and progress is reported back on the event dispatch thread, otherwise
+     * they are published on the calling thread.
+     *
+     * @param client the client
+     * @param sldDataList the styles to publish
+     * @param workspaceName the workspace name
+     */
+    private void publishStyles(
+            GeoServerClientInterface client,
+            List<SLDDataInterface> sldDataList,
+            String workspaceName) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            publishStyles(client, sldDataList, workspaceName, Runnable::run);
+            return;
+        }
+
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.GEOSERVER_POOL,
+                        () ->
+                                publishStyles(
+                                        client,
+                                        sldDataList,
+                                        workspaceName,
+                                        SwingUtilities::invokeLater));
+    }
+
+    /**
+     * Publish styles to GeoServer and refresh the workspace.
+     *
+     * @param client the client
+     * @param sldDataList the styles to publish
+     * @param workspaceName the workspace name
+     * @param uiExecutor the executor used to report progress and refresh the workspace
+     */
+    private void publishStyles(
+            GeoServerClientInterface client,
+            List<SLDDataInterface> sldDataList,
+            String workspaceName,
+            Executor uiExecutor) {
+        if (!sldDataList.isEmpty()) {
+            GeoServerBulkPublisher publisher = new GeoServerBulkPublisher(client);
+            PublishResult result =
+                    publisher.publish(
+                            sldDataList,
+                            (styleWrapper, status, count, total, stylesPerSecond) ->
+                                    uiExecutor.execute(
+                                            () ->
+                                                    logPublishProgress(
+                                                            styleWrapper, status, count, total)));
+
+            uiExecutor.execute(() -> logPublishSummary(result));
+        }
+
+        uiExecutor.execute(() -> client.refreshWorkspace(workspaceName));
+    }
+
+    /**
+     * Log the result of publishing styles.
+     *
+     * @param result the publish result
+     */
+    private void logPublishSummary(PublishResult result) {
+        ConsoleManager.getInstance()
+                .information(
+                        this,
+                        String.format(
+                                Localisation.getString(
+                                        GeoServerInput.class, "GeoServerInput.publishSummary"),
+                                result.getUploaded(),
+                                result.getUnchanged(),
+                                result.getFailedList().size(),
+                                result.getStylesPerSecond()));
+    }
+
+    /**
+     * Log the progress of a style publish, uploaded styles are logged by the client.
+     *
+     * @param styleWrapper the style wrapper
+     * @param status the publish status
+     * @param count the count
+     * @param total the total
+     */
+    private void logPublishProgress(
+            StyleWrapper styleWrapper, PublishStatus status, int count, int total) {
+        if (status == PublishStatus.UNCHANGED) {
+            ConsoleManager.getInstance()
+                    .information(
+                            this,
+                            String.format(
+                                    "%s (%d/%d) : %s",
+                                    Localisation.getString(
+                                            GeoServerInput.class, "GeoServerInput.styleUnchanged"),
+                                    count,
+                                    total,
+                                    styleWrapper));
+        } else if (status == PublishStatus.FAILED) {
+            ConsoleManager.getInstance()
+                    .error(
+                            this,
+                            String.format(
+                                    "%s (%d/%d) : %s",
+                                    Localisation.getString(
+                                            GeoServerInput.class, "GeoServerInput.styleFailed"),
+                                    count,
+                                    total,
+                                    styleWrapper));
+        }
+    }
+
     /**
      * Removes the style file extension.
      *
@@ -32,6 +32,7 @@ import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerSty
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerStyleNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerWorkspaceNode;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -301,20 +302,34 @@ public class GeoServerReadProgress implements GeoServerReadProgressInterface {
         Map<String, List<GeoServerLayer>> layerMap = geoServerLayerMap.get(connection);
 
         for (Entry<String, List<GeoServerLayer>> entry : layerMap.entrySet()) {
-            List<GeoServerLayer> layerList = entry.getValue();
+            addLayerWorkspace(connection, layersNode, entry.getKey(), entry.getValue());
+        }
+    }
 
-            GeoServerWorkspaceNode workspaceNode =
-                    new GeoServerWorkspaceNode(this.handler, connection, entry.getKey(), false);
+    /**
+     * Adds a workspace node and its layers to the layers node.
+     *
+     * @param connection the connection
+     * @param layersNode the layers node
+     * @param workspaceName the workspace name
+     * @param layerList the layer list
+     */
+    private void addLayerWorkspace(
+            GeoServerConnection connection,
+            DefaultMutableTreeNode layersNode,
+            String workspaceName,
+            List<GeoServerLayer> layerList) {
+        GeoServerWorkspaceNode workspaceNode =
+                new GeoServerWorkspaceNode(this.handler, connection, workspaceName, false);
 
-            // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
-            treeModel.insertNodeInto(workspaceNode, layersNode, layersNode.getChildCount());
+        // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
+        treeModel.insertNodeInto(workspaceNode, layersNode, layersNode.getChildCount());
 
-            for (GeoServerLayer layer : layerList) {
-                GeoServerLayerNode childNode = new GeoServerLayerNode(this.handler, layer);
+        for (GeoServerLayer layer : layerList) {
+            GeoServerLayerNode childNode = new GeoServerLayerNode(this.handler, layer);
 
-                // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
-                treeModel.insertNodeInto(childNode, workspaceNode, workspaceNode.getChildCount());
-            }
+            // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
+            treeModel.insertNodeInto(childNode, workspaceNode, workspaceNode.getChildCount());
         }
     }
 
@@ -381,6 +396,39 @@ public class GeoServerReadProgress implements GeoServerReadProgressInterface {
         showProgress(connection);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface#readLayersPartial(com.sldeditor.common.data.GeoServerConnection, java.lang.String, java.util.List)
+     */
+    @Override
+    public void readLayersPartial(
+            GeoServerConnection connection, String workspaceName, List<GeoServerLayer> layerList) {
+        if ((workspaceName == null) || (layerList == null)) {
+            return;
+        }
+
+        Map<String, List<GeoServerLayer>> layerMap =
+                geoServerLayerMap.computeIfAbsent(connection, k -> new LinkedHashMap<>());
+        layerMap.put(workspaceName, layerList);
+
+        // Show the layers read so far, replaced by the full list once complete
+        GeoServerNode geoServerNode = nodeMap.get(connection);
+        if ((geoServerNode == null) || (treeModel == null)) {
+            return;
+        }
+
+        DefaultMutableTreeNode layersNode = getNode(geoServerNode, LAYERS_NODE_TITLE);
+        if (layersNode == null) {
+            layersNode = new GeoServerLayerHeadingNode(this.handler, connection, LAYERS_NODE_TITLE);
+
+            // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
+            treeModel.insertNodeInto(layersNode, geoServerNode, geoServerNode.getChildCount());
+        }
+
+        addLayerWorkspace(connection, layersNode, workspaceName, layerList);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -427,6 +475,7 @@ public class GeoServerReadProgress implements GeoServerReadProgressInterface {
 
         removeNode(geoServerNode, STYLES_NODE_TITLE);
         removeNode(geoServerNode, LAYERS_NODE_TITLE);
+        geoServerLayerMap.remove(connection);
 
         PopulateState state = populateStateMap.get(connection);
 
@@ -69,6 +69,17 @@ public interface GeoServerReadProgressInterface {
     void readLayersComplete(
             GeoServerConnection connection, Map<String, List<GeoServerLayer>> layerMap);
 
+    /**
+     * Read layers partial, all the layers in a workspace have been read. Called as each
+     * workspace is completed before readLayersComplete() is called.
+     *
+     * @param connection the connection
+     * @param workspaceName the workspace name
+     * @param layerList the layers in the workspace
+     */
+    void readLayersPartial(
+            GeoServerConnection connection, String workspaceName, List<GeoServerLayer> layerList);
+
     /**
      * Read layers progress.
      *
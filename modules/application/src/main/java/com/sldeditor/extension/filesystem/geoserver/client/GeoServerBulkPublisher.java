@@ -0,0 +1,461 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Publishes a set of styles to a GeoServer instance.
+ *
+ * <p>The SLD body of each style is compared against the body currently on the server, styles that
+ * have not changed are not uploaded. The remaining styles are uploaded concurrently on a bounded
+ * thread pool, failed uploads are retried with an increasing delay.
+ *
+ * <p>Progress is reported to the GeoServerPublishProgressInterface on the calling thread as each
+ * style completes.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerBulkPublisher {
+
+    /** The Constant DEFAULT_THREAD_COUNT. */
+    public static final int DEFAULT_THREAD_COUNT = 4;
+
+    /** The Constant DEFAULT_MAX_ATTEMPTS. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /** The Constant DEFAULT_RETRY_DELAY, in milliseconds, doubled after each failed attempt. */
+    public static final long DEFAULT_RETRY_DELAY = 500L;
+
+    /** The Constant THREAD_NAME_PREFIX. */
+    private static final String THREAD_NAME_PREFIX = "sldeditor-publish-";
+
+    /** The Constant MILLISECONDS_PER_SECOND. */
+    private static final double MILLISECONDS_PER_SECOND = 1000.0;
+
+    /** The publish status of a style. */
+    public enum PublishStatus {
+        /** The style was uploaded. */
+        UPLOADED,
+        /** The style on the server is the same, not uploaded. */
+        UNCHANGED,
+        /** The style could not be uploaded. */
+        FAILED
+    }
+
+    /** The result of a bulk publish. */
+    public static class PublishResult {
+
+        /** The uploaded count. */
+        private int uploaded = 0;
+
+        /** The unchanged count. */
+        private int unchanged = 0;
+
+        /** The failed list. */
+        private List<StyleWrapper> failedList = new ArrayList<>();
+
+        /** The number of bytes uploaded. */
+        private long bytesUploaded = 0L;
+
+        /** The elapsed time in milliseconds. */
+        private long elapsedTime = 0L;
+
+        /**
+         * Gets the number of styles uploaded.
+         *
+         * @return the uploaded count
+         */
+        public int getUploaded() {
+            return uploaded;
+        }
+
+        /**
+         * Gets the number of styles not uploaded because they had not changed.
+         *
+         * @return the unchanged count
+         */
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * Gets the styles that failed to upload.
+         *
+         * @return the failed list
+         */
+        public List<StyleWrapper> getFailedList() {
+            return Collections.unmodifiableList(failedList);
+        }
+
+        /**
+         * Gets the number of bytes uploaded.
+         *
+         * @return the bytes uploaded
+         */
+        public long getBytesUploaded() {
+            return bytesUploaded;
+        }
+
+        /**
+         * Gets the elapsed time.
+         *
+         * @return the elapsed time in milliseconds
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Gets the number of styles published per second.
+         *
+         * @return the styles per second
+         */
+        public double getStylesPerSecond() {
+            return perSecond(uploaded + unchanged + failedList.size(), elapsedTime);
+        }
+
+        /**
+         * Checks if all the styles were published.
+         *
+         * @return true, if successful
+         */
+        public boolean isSuccessful() {
+            return failedList.isEmpty();
+        }
+    }
+
+    /** The client. */
+    private final GeoServerClientInterface client;
+
+    /** The thread count. */
+    private final int threadCount;
+
+    /** The maximum number of upload attempts. */
+    private final int maxAttempts;
+
+    /** The delay before the first retry, in milliseconds. */
+    private final long retryDelay;
+
+    /** The cancelled flag. */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Instantiates a new bulk publisher with default settings.
+     *
+     * @param client the client
+     */
+    public GeoServerBulkPublisher(GeoServerClientInterface client) {
+        this(client, DEFAULT_THREAD_COUNT, DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY);
+    }
+
+    /**
+     * Instantiates a new bulk publisher.
+     *
+     * @param client the client
+     * @param threadCount the number of concurrent uploads
+     * @param maxAttempts the maximum number of attempts to upload a style
+     * @param retryDelay the delay before the first retry, in milliseconds
+     */
+    public GeoServerBulkPublisher(
+            GeoServerClientInterface client, int threadCount, int maxAttempts, long retryDelay) {
+        this.client = client;
+        this.threadCount = Math.max(1, threadCount);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = Math.max(0L, retryDelay);
+    }
+
+    /**
+     * Publish styles, the workspace and style name are taken from the style wrapper of each item.
+     *
+     * @param sldDataList the styles to publish
+     * @param progress the progress listener, may be null
+     * @return the publish result
+     */
+    public PublishResult publish(
+            List<SLDDataInterface> sldDataList, GeoServerPublishProgressInterface progress) {
+        PublishResult result = new PublishResult();
+        if ((client == null) || (sldDataList == null) || sldDataList.isEmpty()) {
+            return result;
+        }
+
+        cancelled = false;
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(threadCount, sldDataList.size()), createThreadFactory());
+        try {
+            CompletionService<Integer> completionService =
+                    new ExecutorCompletionService<>(executor);
+            List<PublishStatus> statusList =
+                    new ArrayList<>(Collections.nCopies(sldDataList.size(), PublishStatus.FAILED));
+
+            for (int index = 0; index < sldDataList.size(); index++) {
+                final int sldIndex = index;
+                SLDDataInterface sldData = sldDataList.get(sldIndex);
+                completionService.submit(
+                        () -> {
+                            statusList.set(
+                                    sldIndex,
+                                    publishStyle(sldData.getStyle(), sldData.getSld()));
+                            return sldIndex;
+                        });
+            }
+
+            int total = sldDataList.size();
+            for (int count = 1; count <= total; count++) {
+                int sldIndex = getIndex(completionService.take());
+                if (sldIndex < 0) {
+                    continue;
+                }
+
+                SLDDataInterface sldData = sldDataList.get(sldIndex);
+                PublishStatus status = statusList.get(sldIndex);
+                switch (status) {
+                    case UPLOADED:
+                        result.uploaded++;
+                        result.bytesUploaded += getSize(sldData.getSld());
+                        break;
+                    case UNCHANGED:
+                        result.unchanged++;
+                        break;
+                    default:
+                        result.failedList.add(sldData.getStyle());
+                        break;
+                }
+
+                if (progress != null) {
+                    progress.stylePublished(
+                            sldData.getStyle(),
+                            status,
+                            count,
+                            total,
+                            perSecond(count, System.currentTimeMillis() - startTime));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        result.elapsedTime = System.currentTimeMillis() - startTime;
+        return result;
+    }
+
+    /**
+     * Update the default styles of layers concurrently, failed updates are retried.
+     *
+     * @param layerList the layer list
+     * @return the number of layers that failed to update
+     */
+    public int updateLayerStyles(List<GeoServerLayer> layerList) {
+        if ((client == null) || (layerList == null) || layerList.isEmpty()) {
+            return 0;
+        }
+
+        cancelled = false;
+        int failed = 0;
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(threadCount, layerList.size()), createThreadFactory());
+        try {
+            List<Future<Boolean>> futureList = new ArrayList<>();
+            for (GeoServerLayer layer : layerList) {
+                futureList.add(
+                        executor.submit(() -> retry(() -> client.updateLayerStyles(layer))));
+            }
+
+            for (Future<Boolean> future : futureList) {
+                Boolean ok = getResult(future);
+                if ((ok == null) || !ok.booleanValue()) {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return failed;
+    }
+
+    /** Cancel the publish, styles not yet started are reported as failed. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Publish a style, it is only uploaded if it differs from the style on the server.
+     *
+     * @param styleWrapper the style wrapper
+     * @param sldBody the SLD body
+     * @return the publish status
+     */
+    private PublishStatus publishStyle(StyleWrapper styleWrapper, String sldBody) {
+        if (cancelled || (styleWrapper == null) || (sldBody == null)) {
+            return PublishStatus.FAILED;
+        }
+
+        // Compared against the server, not the cache, so deleted or changed styles are uploaded
+        String existingBody = null;
+        try {
+            existingBody = client.getStyleFromServer(styleWrapper);
+        } catch (RuntimeException e) {
+            // Style can not be read, upload it anyway
+            ConsoleManager.getInstance().exception(this, e);
+        }
+
+        if ((existingBody != null)
+                && GeoServerCatalogueCache.checksum(existingBody.trim())
+                        .equals(GeoServerCatalogueCache.checksum(sldBody.trim()))) {
+            return PublishStatus.UNCHANGED;
+        }
+
+        return retry(() -> client.uploadSLD(styleWrapper, sldBody))
+                ? PublishStatus.UPLOADED
+                : PublishStatus.FAILED;
+    }
+
+    /**
+     * Perform an operation, retrying with an increasing delay if it fails.
+     *
+     * @param operation the operation
+     * @return true, if the operation succeeded
+     */
+    private boolean retry(BooleanSupplier operation) {
+        long delay = retryDelay;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (cancelled) {
+                return false;
+            }
+
+            try {
+                if (operation.getAsBoolean()) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+
+            if (attempt < maxAttempts) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                delay *= 2;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the index of the style published by a completed task.
+     *
+     * @param future the future
+     * @return the index, -1 if the task failed
+     * @throws InterruptedException the interrupted exception
+     */
+    private int getIndex(Future<Integer> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the result of a completed task.
+     *
+     * @param future the future
+     * @return the result, null if the task failed
+     * @throws InterruptedException the interrupted exception
+     */
+    private Boolean getResult(Future<Boolean> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the size of an SLD body in bytes.
+     *
+     * @param sldBody the SLD body
+     * @return the size
+     */
+    private static long getSize(String sldBody) {
+        return (sldBody == null) ? 0L : sldBody.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Calculate a rate per second.
+     *
+     * @param count the count
+     * @param elapsedTime the elapsed time in milliseconds
+     * @return the rate per second
+     */
+    private static double perSecond(long count, long elapsedTime) {
+        if (elapsedTime <= 0) {
+            return 0.0;
+        }
+        return (count * MILLISECONDS_PER_SECOND) / elapsedTime;
+    }
+
+    /**
+     * Creates the thread factory.
+     *
+     * @return the thread factory
+     */
+    private ThreadFactory createThreadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        String connectionName =
+                (client.getConnection() == null)
+                        ? ""
+                        : client.getConnection().getConnectionName();
+        final String threadNamePrefix = THREAD_NAME_PREFIX + connectionName + "-";
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
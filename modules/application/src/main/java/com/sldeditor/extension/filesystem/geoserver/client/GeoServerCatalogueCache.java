@@ -0,0 +1,791 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Local cache of the style and layer catalogues of GeoServer instances, keyed by connection URL.
+ *
+ * <p>The cache holds the workspace/style lists, the layers and their default styles and the SLD
+ * bodies of any styles that have been read. It allows the GeoServer tree to be populated
+ * immediately on connection while the catalogue is reconciled with the server in the background.
+ *
+ * <p>SLD bodies are revalidated with a conditional GET using the ETag/Last-Modified validators
+ * returned by the server. A checksum is stored with each body, it is used to detect corrupt cache
+ * entries and body changes when the server does not return any validators.
+ *
+ * <p>If a cache folder is set the catalogues are persisted between sessions, otherwise they are
+ * only held in memory.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogueCache {
+
+    /** The Constant CACHE_FILE_EXTENSION. */
+    private static final String CACHE_FILE_EXTENSION = ".cache";
+
+    /** The Constant CHECKSUM_ALGORITHM. */
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    /** The Constant CONNECTION_TIMEOUT, in milliseconds. */
+    private static final int CONNECTION_TIMEOUT = 30000;
+
+    /** The Constant STYLE_KEY_SEPARATOR. */
+    private static final String STYLE_KEY_SEPARATOR = ":";
+
+    /** The singleton instance. */
+    private static GeoServerCatalogueCache instance = null;
+
+    /** The cache folder, null if the cache is only held in memory. */
+    private File cacheFolder = null;
+
+    /** The catalogue map, keyed by connection URL. */
+    private Map<String, Catalogue> catalogueMap = new HashMap<>();
+
+    /** A cached layer. */
+    private static class CachedLayer implements Serializable {
+
+        /** The Constant serialVersionUID. */
+        private static final long serialVersionUID = 1L;
+
+        /** The layer workspace. */
+        private final String layerWorkspace;
+
+        /** The layer name. */
+        private final String layerName;
+
+        /** The default style. */
+        private final StyleWrapper style;
+
+        /**
+         * Instantiates a new cached layer.
+         *
+         * @param layer the layer
+         */
+        CachedLayer(GeoServerLayer layer) {
+            this.layerWorkspace = layer.getLayerWorkspace();
+            this.layerName = layer.getLayerName();
+            this.style = layer.getStyle();
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(layerWorkspace, layerName, style);
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CachedLayer)) {
+                return false;
+            }
+            CachedLayer other = (CachedLayer) obj;
+            return Objects.equals(layerWorkspace, other.layerWorkspace)
+                    && Objects.equals(layerName, other.layerName)
+                    && Objects.equals(style, other.style);
+        }
+    }
+
+    /** A cached SLD body with its validators. */
+    private static class CachedStyleBody implements Serializable {
+
+        /** The Constant serialVersionUID. */
+        private static final long serialVersionUID = 1L;
+
+        /** The SLD body. */
+        private final String body;
+
+        /** The ETag returned by the server, may be null. */
+        private final String eTag;
+
+        /** The Last-Modified date returned by the server, may be null. */
+        private final String lastModified;
+
+        /** The checksum of the body. */
+        private final String checksum;
+
+        /**
+         * Instantiates a new cached style body.
+         *
+         * @param body the body
+         * @param eTag the ETag
+         * @param lastModified the last modified date
+         */
+        CachedStyleBody(String body, String eTag, String lastModified) {
+            this.body = body;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.checksum = checksum(body);
+        }
+
+        /**
+         * Checks the body matches its checksum.
+         *
+         * @return true, if valid
+         */
+        boolean isValid() {
+            return (body != null) && Objects.equals(checksum, checksum(body));
+        }
+    }
+
+    /** The cached catalogue of one GeoServer instance. */
+    private static class Catalogue implements Serializable {
+
+        /** The Constant serialVersionUID. */
+        private static final long serialVersionUID = 1L;
+
+        /** The style map, null if the styles have not been read. */
+        private Map<String, List<StyleWrapper>> styleMap = null;
+
+        /** The layer map, null if the layers have not been read. */
+        private Map<String, List<CachedLayer>> layerMap = null;
+
+        /** The SLD body map, keyed by workspace and style name. */
+        private Map<String, CachedStyleBody> styleBodyMap = new HashMap<>();
+    }
+
+    /**
+     * Gets the single instance of GeoServerCatalogueCache.
+     *
+     * @return single instance of GeoServerCatalogueCache
+     */
+    public static synchronized GeoServerCatalogueCache getInstance() {
+        if (instance == null) {
+            instance = new GeoServerCatalogueCache();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance. */
+    public static synchronized void destroyInstance() {
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private GeoServerCatalogueCache() {
+        // Private default constructor
+    }
+
+    /**
+     * Sets the folder the catalogues are persisted in, null to only hold them in memory.
+     *
+     * @param cacheFolder the new cache folder
+     */
+    public synchronized void setCacheFolder(File cacheFolder) {
+        this.cacheFolder = cacheFolder;
+        catalogueMap.clear();
+    }
+
+    /**
+     * Gets the cache folder.
+     *
+     * @return the cache folder
+     */
+    public synchronized File getCacheFolder() {
+        return cacheFolder;
+    }
+
+    /**
+     * Checks if the style and layer catalogues of a connection are cached.
+     *
+     * @param connection the connection
+     * @return true, if cached
+     */
+    public synchronized boolean hasCatalogue(GeoServerConnection connection) {
+        Catalogue catalogue = getCatalogue(connection, false);
+
+        return (catalogue != null) && (catalogue.styleMap != null) && (catalogue.layerMap != null);
+    }
+
+    /**
+     * Gets a copy of the cached style map.
+     *
+     * @param connection the connection
+     * @return the style map, null if not cached
+     */
+    public synchronized Map<String, List<StyleWrapper>> getStyleMap(
+            GeoServerConnection connection) {
+        Catalogue catalogue = getCatalogue(connection, false);
+        if ((catalogue == null) || (catalogue.styleMap == null)) {
+            return null;
+        }
+
+        Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+        for (Map.Entry<String, List<StyleWrapper>> entry : catalogue.styleMap.entrySet()) {
+            List<StyleWrapper> styleList = new ArrayList<>();
+            for (StyleWrapper styleWrapper : entry.getValue()) {
+                styleList.add(new StyleWrapper(styleWrapper));
+            }
+            styleMap.put(entry.getKey(), styleList);
+        }
+        return styleMap;
+    }
+
+    /**
+     * Gets the cached layer map, the layers are created for the supplied connection.
+     *
+     * @param connection the connection
+     * @return the layer map, null if not cached
+     */
+    public synchronized Map<String, List<GeoServerLayer>> getLayerMap(
+            GeoServerConnection connection) {
+        Catalogue catalogue = getCatalogue(connection, false);
+        if ((catalogue == null) || (catalogue.layerMap == null)) {
+            return null;
+        }
+
+        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
+        for (Map.Entry<String, List<CachedLayer>> entry : catalogue.layerMap.entrySet()) {
+            List<GeoServerLayer> layerList = new ArrayList<>();
+            for (CachedLayer cachedLayer : entry.getValue()) {
+                GeoServerLayer layer =
+                        new GeoServerLayer(cachedLayer.layerWorkspace, cachedLayer.layerName);
+                if (cachedLayer.style != null) {
+                    layer.setStyle(new StyleWrapper(cachedLayer.style));
+                }
+                layer.setConnection(connection);
+                layerList.add(layer);
+            }
+            layerMap.put(entry.getKey(), layerList);
+        }
+        return layerMap;
+    }
+
+    /**
+     * Update the cached style map, SLD bodies of styles no longer on the server are discarded.
+     *
+     * @param connection the connection
+     * @param styleMap the style map read from the server
+     * @return true, if the style map has changed
+     */
+    public synchronized boolean updateStyles(
+            GeoServerConnection connection, Map<String, List<StyleWrapper>> styleMap) {
+        Catalogue catalogue = getCatalogue(connection, true);
+        if ((catalogue == null) || (styleMap == null)) {
+            return false;
+        }
+
+        Map<String, List<StyleWrapper>> newStyleMap = new LinkedHashMap<>();
+        Map<String, CachedStyleBody> newStyleBodyMap = new HashMap<>();
+        for (Map.Entry<String, List<StyleWrapper>> entry : styleMap.entrySet()) {
+            List<StyleWrapper> styleList = new ArrayList<>();
+            for (StyleWrapper styleWrapper : entry.getValue()) {
+                styleList.add(new StyleWrapper(styleWrapper));
+
+                String key = getStyleKey(styleWrapper);
+                CachedStyleBody styleBody = catalogue.styleBodyMap.get(key);
+                if (styleBody != null) {
+                    newStyleBodyMap.put(key, styleBody);
+                }
+            }
+            newStyleMap.put(entry.getKey(), styleList);
+        }
+
+        boolean changed = !newStyleMap.equals(catalogue.styleMap);
+        if (changed || (newStyleBodyMap.size() != catalogue.styleBodyMap.size())) {
+            catalogue.styleMap = newStyleMap;
+            catalogue.styleBodyMap = newStyleBodyMap;
+            save(connection, catalogue);
+        }
+        return changed;
+    }
+
+    /**
+     * Update the cached layer map.
+     *
+     * @param connection the connection
+     * @param layerMap the layer map read from the server
+     * @return true, if the layer map has changed
+     */
+    public synchronized boolean updateLayers(
+            GeoServerConnection connection, Map<String, List<GeoServerLayer>> layerMap) {
+        Catalogue catalogue = getCatalogue(connection, true);
+        if ((catalogue == null) || (layerMap == null)) {
+            return false;
+        }
+
+        Map<String, List<CachedLayer>> newLayerMap = new LinkedHashMap<>();
+        for (Map.Entry<String, List<GeoServerLayer>> entry : layerMap.entrySet()) {
+            List<CachedLayer> layerList = new ArrayList<>();
+            for (GeoServerLayer layer : entry.getValue()) {
+                layerList.add(new CachedLayer(layer));
+            }
+            newLayerMap.put(entry.getKey(), layerList);
+        }
+
+        boolean changed = !newLayerMap.equals(catalogue.layerMap);
+        if (changed) {
+            catalogue.layerMap = newLayerMap;
+            save(connection, catalogue);
+        }
+        return changed;
+    }
+
+    /**
+     * Gets the SLD body of a style. The cached body is revalidated against the server, it is only
+     * downloaded again if it has changed. The stale cached body is only returned if the server
+     * cannot be reached or reports a server error, a style the server no longer has is removed
+     * from the cache.
+     *
+     * @param connection the connection
+     * @param styleWrapper the style wrapper
+     * @param path the path of the SLD body relative to the GeoServer URL
+     * @return the SLD body, null if the style does not exist or cannot be read
+     */
+    public String getStyleBody(
+            GeoServerConnection connection, StyleWrapper styleWrapper, String path) {
+        if ((connection == null) || (connection.getUrl() == null) || (styleWrapper == null)) {
+            return null;
+        }
+
+        CachedStyleBody cachedBody = getCachedStyleBody(connection, styleWrapper);
+
+        HttpURLConnection http = null;
+        try {
+            http = openConnection(connection, path);
+            if (cachedBody != null) {
+                if (cachedBody.eTag != null) {
+                    http.setRequestProperty("If-None-Match", cachedBody.eTag);
+                }
+                if (cachedBody.lastModified != null) {
+                    http.setRequestProperty("If-Modified-Since", cachedBody.lastModified);
+                }
+            }
+
+            int responseCode = http.getResponseCode();
+            if ((responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) && (cachedBody != null)) {
+                return cachedBody.body;
+            } else if (responseCode == HttpURLConnection.HTTP_OK) {
+                String body = read(http.getInputStream());
+                updateStyleBody(
+                        connection,
+                        styleWrapper,
+                        new CachedStyleBody(
+                                body,
+                                http.getHeaderField("ETag"),
+                                http.getHeaderField("Last-Modified")));
+                return body;
+            } else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                removeStyleBody(connection, styleWrapper);
+            } else if (responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                return getStaleBody(cachedBody, styleWrapper, "HTTP " + responseCode);
+            }
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+            return getStaleBody(cachedBody, styleWrapper, e.getMessage());
+        } finally {
+            if (http != null) {
+                http.disconnect();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the SLD body of a style from the server, bypassing the cache.
+     *
+     * @param connection the connection
+     * @param path the path of the SLD body relative to the GeoServer URL
+     * @return the SLD body, null if the style does not exist or could not be read
+     */
+    public String readStyleBody(GeoServerConnection connection, String path) {
+        if ((connection == null) || (connection.getUrl() == null)) {
+            return null;
+        }
+
+        HttpURLConnection http = null;
+        try {
+            http = openConnection(connection, path);
+            if (http.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                return read(http.getInputStream());
+            }
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        } finally {
+            if (http != null) {
+                http.disconnect();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens a connection to the GeoServer REST API.
+     *
+     * @param connection the connection
+     * @param path the path relative to the GeoServer URL
+     * @return the http connection
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static HttpURLConnection openConnection(GeoServerConnection connection, String path)
+            throws IOException {
+        HttpURLConnection http =
+                (HttpURLConnection) new URL(getBaseUrl(connection) + path).openConnection();
+        http.setConnectTimeout(CONNECTION_TIMEOUT);
+        http.setReadTimeout(CONNECTION_TIMEOUT);
+        if (connection.getUserName() != null) {
+            String credentials = connection.getUserName() + ":" + connection.getPassword();
+            http.setRequestProperty(
+                    "Authorization",
+                    "Basic "
+                            + Base64.getEncoder()
+                                    .encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        return http;
+    }
+
+    /**
+     * Gets the cached body of a style that could not be revalidated.
+     *
+     * @param cachedBody the cached body
+     * @param styleWrapper the style wrapper
+     * @param reason the reason the body could not be revalidated
+     * @return the stale body, null if the style is not cached
+     */
+    private String getStaleBody(
+            CachedStyleBody cachedBody, StyleWrapper styleWrapper, String reason) {
+        if (cachedBody == null) {
+            return null;
+        }
+
+        ConsoleManager.getInstance()
+                .error(
+                        this,
+                        "Using cached body of style "
+                                + styleWrapper.getStyle()
+                                + ", could not revalidate: "
+                                + reason);
+        return cachedBody.body;
+    }
+
+    /**
+     * Store the SLD body of a style that has been uploaded to the server. No validators are
+     * stored, the body is revalidated by checksum when next read.
+     *
+     * @param connection the connection
+     * @param styleWrapper the style wrapper
+     * @param sldBody the SLD body
+     */
+    public synchronized void setStyleBody(
+            GeoServerConnection connection, StyleWrapper styleWrapper, String sldBody) {
+        if (sldBody == null) {
+            removeStyleBody(connection, styleWrapper);
+        } else {
+            updateStyleBody(connection, styleWrapper, new CachedStyleBody(sldBody, null, null));
+        }
+    }
+
+    /**
+     * Removes the cached SLD body of a style.
+     *
+     * @param connection the connection
+     * @param styleWrapper the style wrapper
+     */
+    public synchronized void removeStyleBody(
+            GeoServerConnection connection, StyleWrapper styleWrapper) {
+        Catalogue catalogue = getCatalogue(connection, false);
+        if ((catalogue != null)
+                && (styleWrapper != null)
+                && (catalogue.styleBodyMap.remove(getStyleKey(styleWrapper)) != null)) {
+            save(connection, catalogue);
+        }
+    }
+
+    /**
+     * Removes the cached catalogue of a connection.
+     *
+     * @param connection the connection
+     */
+    public synchronized void clear(GeoServerConnection connection) {
+        String key = getKey(connection);
+        if (key != null) {
+            catalogueMap.remove(key);
+
+            File file = getCacheFile(key);
+            if ((file != null) && file.exists() && !file.delete()) {
+                ConsoleManager.getInstance()
+                        .error(this, "Failed to delete " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Calculate the checksum of a string.
+     *
+     * @param value the value
+     * @return the checksum, null if value is null
+     */
+    public static String checksum(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            ConsoleManager.getInstance().exception(GeoServerCatalogueCache.class, e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the cached SLD body of a style, corrupt entries are discarded.
+     *
+     * @param connection the connection
+     * @param styleWrapper the style wrapper
+     * @return the cached style body, null if not cached
+     */
+    private synchronized CachedStyleBody getCachedStyleBody(
+            GeoServerConnection connection, StyleWrapper styleWrapper) {
+        Catalogue catalogue = getCatalogue(connection, false);
+        if (catalogue == null) {
+            return null;
+        }
+
+        String key = getStyleKey(styleWrapper);
+        CachedStyleBody styleBody = catalogue.styleBodyMap.get(key);
+        if ((styleBody != null) && !styleBody.isValid()) {
+            catalogue.styleBodyMap.remove(key);
+            styleBody = null;
+        }
+        return styleBody;
+    }
+
+    /**
+     * Update the cached SLD body of a style, the catalogue is only saved if the body has changed.
+     *
+     * @param connection the connection
+     * @param styleWrapper the style wrapper
+     * @param styleBody the style body
+     */
+    private synchronized void updateStyleBody(
+            GeoServerConnection connection,
+            StyleWrapper styleWrapper,
+            CachedStyleBody styleBody) {
+        Catalogue catalogue = getCatalogue(connection, true);
+        if ((catalogue == null) || (styleWrapper == null)) {
+            return;
+        }
+
+        CachedStyleBody existing =
+                catalogue.styleBodyMap.put(getStyleKey(styleWrapper), styleBody);
+        if ((existing == null)
+                || !Objects.equals(existing.checksum, styleBody.checksum)
+                || !Objects.equals(existing.eTag, styleBody.eTag)
+                || !Objects.equals(existing.lastModified, styleBody.lastModified)) {
+            save(connection, catalogue);
+        }
+    }
+
+    /**
+     * Gets the catalogue of a connection, reading it from the cache folder if necessary.
+     *
+     * @param connection the connection
+     * @param create the create flag, create an empty catalogue if one does not exist
+     * @return the catalogue, null if there is no catalogue
+     */
+    private Catalogue getCatalogue(GeoServerConnection connection, boolean create) {
+        String key = getKey(connection);
+        if (key == null) {
+            return null;
+        }
+
+        Catalogue catalogue = catalogueMap.get(key);
+        if (catalogue == null) {
+            catalogue = load(key);
+            if ((catalogue == null) && create) {
+                catalogue = new Catalogue();
+            }
+
+            if (catalogue != null) {
+                catalogueMap.put(key, catalogue);
+            }
+        }
+        return catalogue;
+    }
+
+    /**
+     * Load a catalogue from the cache folder, unreadable cache files are deleted.
+     *
+     * @param key the connection key
+     * @return the catalogue, null if not found
+     */
+    private Catalogue load(String key) {
+        File file = getCacheFile(key);
+        if ((file == null) || !file.exists()) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            return (Catalogue) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+
+        if (!file.delete()) {
+            ConsoleManager.getInstance().error(this, "Failed to delete " + file.getAbsolutePath());
+        }
+        return null;
+    }
+
+    /**
+     * Save a catalogue to the cache folder.
+     *
+     * @param connection the connection
+     * @param catalogue the catalogue
+     */
+    private void save(GeoServerConnection connection, Catalogue catalogue) {
+        File file = getCacheFile(getKey(connection));
+        if (file == null) {
+            return;
+        }
+
+        if (!cacheFolder.exists() && !cacheFolder.mkdirs()) {
+            ConsoleManager.getInstance()
+                    .error(this, "Failed to create " + cacheFolder.getAbsolutePath());
+            return;
+        }
+
+        File tmpFile = new File(cacheFolder, file.getName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tmpFile))) {
+            out.writeObject(catalogue);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+            return;
+        }
+
+        if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+            ConsoleManager.getInstance().error(this, "Failed to write " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Gets the cache file for a connection key.
+     *
+     * @param key the connection key
+     * @return the cache file, null if the cache is only held in memory
+     */
+    private File getCacheFile(String key) {
+        if ((cacheFolder == null) || (key == null)) {
+            return null;
+        }
+        return new File(cacheFolder, checksum(key) + CACHE_FILE_EXTENSION);
+    }
+
+    /**
+     * Gets the cache key for a connection, the connection URL.
+     *
+     * @param connection the connection
+     * @return the key, null if the connection has no URL
+     */
+    private static String getKey(GeoServerConnection connection) {
+        if ((connection == null) || (connection.getUrl() == null)) {
+            return null;
+        }
+        return getBaseUrl(connection);
+    }
+
+    /**
+     * Gets the GeoServer URL of a connection without a trailing separator.
+     *
+     * @param connection the connection
+     * @return the base url
+     */
+    private static String getBaseUrl(GeoServerConnection connection) {
+        String baseUrl = connection.getUrl().toExternalForm();
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        return baseUrl;
+    }
+
+    /**
+     * Gets the key of a style in the SLD body map.
+     *
+     * @param styleWrapper the style wrapper
+     * @return the style key
+     */
+    private static String getStyleKey(StyleWrapper styleWrapper) {
+        return styleWrapper.getWorkspace() + STYLE_KEY_SEPARATOR + styleWrapper.getStyle();
+    }
+
+    /**
+     * Read a response body.
+     *
+     * @param inputStream the input stream
+     * @return the string
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static String read(InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -24,14 +24,12 @@ import com.sldeditor.common.data.GeoServerConnection;
 import com.sldeditor.common.data.GeoServerLayer;
 import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
 import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface;
 import it.geosolutions.geoserver.rest.GeoServerRESTManager;
 import it.geosolutions.geoserver.rest.GeoServerRESTPublisher;
 import it.geosolutions.geoserver.rest.GeoServerRESTReader;
-import it.geosolutions.geoserver.rest.decoder.RESTLayer;
-import it.geosolutions.geoserver.rest.decoder.RESTLayerList;
 import it.geosolutions.geoserver.rest.decoder.RESTStyleList;
-import it.geosolutions.geoserver.rest.decoder.utils.NameLinkElem;
 import it.geosolutions.geoserver.rest.encoder.GSLayerEncoder;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -53,6 +51,12 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
     /** The Constant DEFAULT_WORKSPACE_NAME. */
     private static final String DEFAULT_WORKSPACE_NAME = "<Default Workspace>";
 
+    /** The Constant REST_STYLE, path of an SLD body in the default workspace. */
+    private static final String REST_STYLE = "/rest/styles/%s.sld";
+
+    /** The Constant REST_WORKSPACE_STYLE, path of an SLD body in a workspace. */
+    private static final String REST_WORKSPACE_STYLE = "/rest/workspaces/%s/styles/%s.sld";
+
     /** The parent object. */
     private transient GeoServerReadProgressInterface parentObj = null;
 
@@ -91,67 +95,137 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
                     parentObj.startPopulating(connection);
                 }
 
-                List<String> localWorkspaceList = getWorkspaceList();
+                GeoServerCatalogueCache cache = GeoServerCatalogueCache.getInstance();
+                if (cache.hasCatalogue(connection)) {
+                    // Populate from the cache, then reconcile with the server in the background
+                    if (parentObj != null) {
+                        parentObj.readStylesComplete(
+                                connection, cache.getStyleMap(connection), false);
+                        parentObj.readLayersComplete(connection, cache.getLayerMap(connection));
+                    }
+
+                    reconcileCatalogue(reader);
+                } else {
+                    List<String> localWorkspaceList = getWorkspaceList();
 
-                parseStyleList(reader, localWorkspaceList);
-                parseLayerList(reader, localWorkspaceList, null);
+                    parseStyleList(reader, localWorkspaceList);
+                    parseLayerList(localWorkspaceList, null);
+                }
             }
         }
     }
 
     /**
-     * Parses the style list.
+     * Reconcile the cached catalogue with the server in the background. The styles and layers
+     * are read without reporting progress, they are only passed on if they differ from the cached
+     * catalogue.
      *
      * @param reader the reader
-     * @param localWorkspaceList the workspace list
      */
-    private void parseStyleList(GeoServerRESTReader reader, List<String> localWorkspaceList) {
-        Thread t1 =
-                new Thread(
+    private void reconcileCatalogue(GeoServerRESTReader reader) {
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.GEOSERVER_POOL,
                         new Runnable() {
                             public void run() {
+                                List<String> localWorkspaceList = getWorkspaceList();
 
-                                Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
-
-                                int count = 1;
-                                List<StyleWrapper> styleList = new ArrayList<>();
+                                Map<String, List<StyleWrapper>> styleMap =
+                                        readStyles(reader, localWorkspaceList, null);
 
-                                count = parseStyleInDefaultWorkspace(reader, count, styleList);
+                                GeoServerLayerLoader loader =
+                                        new GeoServerLayerLoader(
+                                                connection, DEFAULT_WORKSPACE_NAME);
+                                Map<String, List<GeoServerLayer>> layerMap =
+                                        loader.load(localWorkspaceList, null);
 
-                                styleMap.put(DEFAULT_WORKSPACE_NAME, styleList);
+                                GeoServerCatalogueCache cache =
+                                        GeoServerCatalogueCache.getInstance();
+                                boolean stylesChanged = cache.updateStyles(connection, styleMap);
+                                boolean layersChanged = cache.updateLayers(connection, layerMap);
 
-                                // Read styles from workspaces
-                                for (String workspaceName : localWorkspaceList) {
-                                    count =
-                                            parseStyleInWorkspace(
-                                                    reader, styleMap, count, workspaceName);
+                                if (parentObj != null) {
+                                    if (stylesChanged) {
+                                        parentObj.readStylesComplete(connection, styleMap, false);
+                                    }
+                                    if (layersChanged) {
+                                        parentObj.readLayersComplete(connection, layerMap);
+                                    }
                                 }
+                            }
+                        });
+    }
+
+    /**
+     * Read the styles in the default workspace and the supplied workspaces.
+     *
+     * @param reader the reader
+     * @param localWorkspaceList the workspace list
+     * @param progress the progress listener, may be null
+     * @return the style map
+     */
+    private Map<String, List<StyleWrapper>> readStyles(
+            GeoServerRESTReader reader,
+            List<String> localWorkspaceList,
+            GeoServerReadProgressInterface progress) {
+        Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+
+        int count = 1;
+        List<StyleWrapper> styleList = new ArrayList<>();
+
+        count = parseStyleInDefaultWorkspace(reader, count, styleList, progress);
+
+        styleMap.put(DEFAULT_WORKSPACE_NAME, styleList);
+
+        // Read styles from workspaces
+        for (String workspaceName : localWorkspaceList) {
+            count = parseStyleInWorkspace(reader, styleMap, count, workspaceName, progress);
+        }
+
+        return styleMap;
+    }
+
+    /**
+     * Parses the style list.
+     *
+     * @param reader the reader
+     * @param localWorkspaceList the workspace list
+     */
+    private void parseStyleList(GeoServerRESTReader reader, List<String> localWorkspaceList) {
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.GEOSERVER_POOL,
+                        new Runnable() {
+                            public void run() {
+
+                                Map<String, List<StyleWrapper>> styleMap =
+                                        readStyles(reader, localWorkspaceList, parentObj);
+
+                                GeoServerCatalogueCache.getInstance()
+                                        .updateStyles(connection, styleMap);
 
                                 if (parentObj != null) {
                                     parentObj.readStylesComplete(connection, styleMap, false);
                                 }
                             }
                         });
-        t1.start();
     }
 
     /**
      * Parses the layer list.
      *
-     * @param reader the reader
      * @param existingWorkspaceList the existing workspace list
      * @param workspaceName the workspace name
      */
-    private void parseLayerList(
-            GeoServerRESTReader reader, List<String> existingWorkspaceList, String workspaceName) {
-        Thread t1 =
-                new Thread(
+    private void parseLayerList(List<String> existingWorkspaceList, String workspaceName) {
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.GEOSERVER_POOL,
                         new Runnable() {
                             public void run() {
-                                parseLayerListWorker(reader, existingWorkspaceList, workspaceName);
+                                parseLayerListWorker(existingWorkspaceList, workspaceName);
                             }
                         });
-        t1.start();
     }
 
     /**
@@ -170,19 +244,41 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
             return null;
         }
 
-        GeoServerRESTManager manager = GeoServerRESTManagerFactory.getManager(connection);
-        if (manager != null) {
-            GeoServerRESTReader reader = manager.getReader();
-            if (reader != null) {
-                if (isDefaultWorkspace(styleWrapper.getWorkspace())) {
-                    return reader.getSLD(styleWrapper.getStyle());
-                } else {
-                    return reader.getSLD(styleWrapper.getWorkspace(), styleWrapper.getStyle());
-                }
-            }
+        // Only downloaded if the cached SLD body is out of date
+        return GeoServerCatalogueCache.getInstance()
+                .getStyleBody(connection, styleWrapper, getStylePath(styleWrapper));
+    }
+
+    /**
+     * Gets the style as it currently is on the server, the cached copy is not used.
+     *
+     * @param styleWrapper the style wrapper
+     * @return the style, null if it does not exist or could not be read
+     */
+    @Override
+    public String getStyleFromServer(StyleWrapper styleWrapper) {
+        if ((styleWrapper == null) || !workspaceValid(styleWrapper.getWorkspace())) {
+            return null;
         }
 
-        return null;
+        return GeoServerCatalogueCache.getInstance()
+                .readStyleBody(connection, getStylePath(styleWrapper));
+    }
+
+    /**
+     * Gets the REST API path of the SLD body of a style.
+     *
+     * @param styleWrapper the style wrapper
+     * @return the path relative to the GeoServer URL
+     */
+    private String getStylePath(StyleWrapper styleWrapper) {
+        if (isDefaultWorkspace(styleWrapper.getWorkspace())) {
+            return String.format(REST_STYLE, GeoServerLayerLoader.encode(styleWrapper.getStyle()));
+        }
+        return String.format(
+                REST_WORKSPACE_STYLE,
+                GeoServerLayerLoader.encode(styleWrapper.getWorkspace()),
+                GeoServerLayerLoader.encode(styleWrapper.getStyle()));
     }
 
     /**
@@ -251,6 +347,8 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
         }
 
         if (result) {
+            GeoServerCatalogueCache.getInstance().setStyleBody(connection, styleWrapper, sldBody);
+
             ConsoleManager.getInstance()
                     .information(
                             this,
@@ -452,6 +550,10 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
             }
         }
 
+        if (result) {
+            GeoServerCatalogueCache.getInstance().removeStyleBody(connection, styleToDelete);
+        }
+
         return result;
     }
 
@@ -491,10 +593,14 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
      * @param reader the reader
      * @param count the count
      * @param styleList the style list
+     * @param progress the progress listener, may be null
      * @return the int
      */
     private int parseStyleInDefaultWorkspace(
-            GeoServerRESTReader reader, int count, List<StyleWrapper> styleList) {
+            GeoServerRESTReader reader,
+            int count,
+            List<StyleWrapper> styleList,
+            GeoServerReadProgressInterface progress) {
         // Read styles not in a workspace
         RESTStyleList geoServerStyleList = reader.getStyles();
 
@@ -502,8 +608,8 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
             StyleWrapper newStyleWrapper = new StyleWrapper(DEFAULT_WORKSPACE_NAME, style);
             styleList.add(newStyleWrapper);
 
-            if (parentObj != null) {
-                parentObj.readStylesProgress(connection, count, count);
+            if (progress != null) {
+                progress.readStylesProgress(connection, count, count);
             }
             count++;
         }
@@ -517,13 +623,15 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
      * @param styleMap the style map
      * @param count the count
      * @param workspaceName the workspace name
+     * @param progress the progress listener, may be null
      * @return the int
      */
     private int parseStyleInWorkspace(
             GeoServerRESTReader reader,
             Map<String, List<StyleWrapper>> styleMap,
             int count,
-            String workspaceName) {
+            String workspaceName,
+            GeoServerReadProgressInterface progress) {
         List<StyleWrapper> styleList;
         if (workspaceName != null) {
             RESTStyleList geoServerWorkspaceStyleList = reader.getStyles(workspaceName);
@@ -534,8 +642,8 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
                 StyleWrapper newStyleWrapper = new StyleWrapper(workspaceName, style);
                 styleList.add(newStyleWrapper);
 
-                if (parentObj != null) {
-                    parentObj.readStylesProgress(connection, count, count);
+                if (progress != null) {
+                    progress.readStylesProgress(connection, count, count);
                 }
                 count++;
             }
@@ -563,12 +671,12 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
                 List<StyleWrapper> styleList = new ArrayList<>();
 
                 if (workspaceName.compareTo(DEFAULT_WORKSPACE_NAME) == 0) {
-                    parseStyleInDefaultWorkspace(reader, count, styleList);
+                    parseStyleInDefaultWorkspace(reader, count, styleList, parentObj);
 
                     styleMap.put(DEFAULT_WORKSPACE_NAME, styleList);
                 } else {
                     // Read styles from workspace
-                    parseStyleInWorkspace(reader, styleMap, count, workspaceName);
+                    parseStyleInWorkspace(reader, styleMap, count, workspaceName, parentObj);
                 }
 
                 if (parentObj != null) {
@@ -611,107 +719,29 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
     }
 
     /**
-     * Parses the layer list worker.
+     * Parses the layer list worker, the layers are read concurrently.
      *
-     * @param reader the reader
      * @param existingWorkspaceList the existing workspace list
      * @param workspaceName the workspace name
      */
-    private void parseLayerListWorker(
-            GeoServerRESTReader reader, List<String> existingWorkspaceList, String workspaceName) {
-        List<String> localWorkspaceList = null;
+    private void parseLayerListWorker(List<String> existingWorkspaceList, String workspaceName) {
+        List<String> localWorkspaceList = new ArrayList<>();
 
         if (workspaceName == null) {
-            localWorkspaceList = existingWorkspaceList;
-            localWorkspaceList.add(null); // Add the default workspace last
+            localWorkspaceList.addAll(existingWorkspaceList);
+        } else {
+            localWorkspaceList.add(workspaceName);
         }
 
-        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
-        RESTLayerList layers = reader.getLayers();
+        GeoServerLayerLoader loader = new GeoServerLayerLoader(connection, DEFAULT_WORKSPACE_NAME);
+        Map<String, List<GeoServerLayer>> layerMap = loader.load(localWorkspaceList, parentObj);
 
-        parseLayer(reader, localWorkspaceList, layerMap, layers);
+        if (workspaceName == null) {
+            GeoServerCatalogueCache.getInstance().updateLayers(connection, layerMap);
+        }
 
         if (parentObj != null) {
             parentObj.readLayersComplete(connection, layerMap);
         }
     }
-
-    /**
-     * Parses the layer.
-     *
-     * @param reader the reader
-     * @param localWorkspaceList the local workspace list
-     * @param layerMap the layer map
-     * @param layers the layers
-     */
-    private void parseLayer(
-            GeoServerRESTReader reader,
-            List<String> localWorkspaceList,
-            Map<String, List<GeoServerLayer>> layerMap,
-            RESTLayerList layers) {
-        int count = 1;
-        int total = layers.size();
-
-        for (NameLinkElem featureTypeName : layers) {
-            @SuppressWarnings("deprecation")
-            RESTLayer layer = reader.getLayer(featureTypeName.getName());
-
-            if (layer != null) {
-                String layerName = layer.getName();
-                String workspace = getLayerWorkspace(reader, localWorkspaceList, layerName);
-                GeoServerLayer geoServerlayer = new GeoServerLayer();
-                geoServerlayer.setLayerWorkspace(workspace);
-                geoServerlayer.setLayerName(layerName);
-                geoServerlayer.setConnection(connection);
-
-                StyleWrapper styleWrapper = new StyleWrapper();
-                styleWrapper.setStyle(layer.getDefaultStyle());
-
-                String styleWorkspace = layer.getDefaultStyleWorkspace();
-                styleWrapper.setWorkspace(
-                        (styleWorkspace == null) ? DEFAULT_WORKSPACE_NAME : styleWorkspace);
-
-                geoServerlayer.setStyle(styleWrapper);
-
-                List<GeoServerLayer> layerList = layerMap.get(workspace);
-
-                if (layerList == null) {
-                    layerList = new ArrayList<>();
-                    layerMap.put(workspace, layerList);
-                }
-                layerList.add(geoServerlayer);
-
-                if (parentObj != null) {
-                    parentObj.readLayersProgress(connection, count, total);
-                }
-            }
-
-            count++;
-        }
-    }
-
-    /**
-     * Gets the layer workspace.
-     *
-     * @param reader the reader
-     * @param localWorkspaceList the local workspace list
-     * @param layerName the layer name
-     * @return the layer workspace
-     */
-    private String getLayerWorkspace(
-            GeoServerRESTReader reader, List<String> localWorkspaceList, String layerName) {
-        String workspace = null;
-        for (String workspaceNameToTest : localWorkspaceList) {
-            if (reader.existsLayer(workspaceNameToTest, layerName, true)) {
-                if (workspaceNameToTest == null) {
-                    workspace = DEFAULT_WORKSPACE_NAME;
-                } else {
-                    workspace = workspaceNameToTest;
-                }
-
-                break;
-            }
-        }
-        return workspace;
-    }
 }
@@ -51,6 +51,16 @@ public interface GeoServerClientInterface {
      */
     String getStyle(StyleWrapper styleWrapper);
 
+    /**
+     * Gets the style as it currently is on the server, the cached copy is not used.
+     *
+     * @param styleWrapper the style wrapper
+     * @return the style, null if it does not exist or could not be read
+     */
+    default String getStyleFromServer(StyleWrapper styleWrapper) {
+        return null;
+    }
+
     /**
      * Checks if supplied workspace name is the default workspace.
      *
@@ -0,0 +1,520 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface;
+import it.geosolutions.geoserver.rest.HTTPUtils;
+import it.geosolutions.geoserver.rest.decoder.RESTLayer;
+import it.geosolutions.geoserver.rest.decoder.RESTLayerList;
+import it.geosolutions.geoserver.rest.decoder.utils.NameLinkElem;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the layer catalogue of a GeoServer instance.
+ *
+ * <p>The layers in each workspace are listed with a single REST call per workspace, so the
+ * workspace of a layer is known without probing every workspace. The details of each layer (the
+ * default style) are then fetched concurrently on a bounded thread pool, the number of
+ * simultaneous requests to any one host is limited so a large catalogue does not flood the
+ * server.
+ *
+ * <p>Results are reported to the GeoServerReadProgressInterface on the calling thread, a
+ * workspace at a time as soon as all of its layers have been read.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerLayerLoader {
+
+    /** The Constant DEFAULT_THREAD_COUNT. */
+    public static final int DEFAULT_THREAD_COUNT = 8;
+
+    /** The Constant DEFAULT_CONNECTIONS_PER_HOST. */
+    public static final int DEFAULT_CONNECTIONS_PER_HOST = 4;
+
+    /** The Constant REST_LAYERS, all layers. */
+    private static final String REST_LAYERS = "/rest/layers";
+
+    /** The Constant REST_WORKSPACES. */
+    private static final String REST_WORKSPACES = "/rest/workspaces/";
+
+    /** The Constant XML_SUFFIX. */
+    private static final String XML_SUFFIX = ".xml";
+
+    /** The Constant WORKSPACE_SEPARATOR, separates workspace and layer in a qualified name. */
+    private static final String WORKSPACE_SEPARATOR = ":";
+
+    /** The Constant THREAD_NAME_PREFIX. */
+    private static final String THREAD_NAME_PREFIX = "sldeditor-geoserver-";
+
+    /** The Constant HOST_KEY_FORMAT, host and port identifying a server. */
+    private static final String HOST_KEY_FORMAT = "%s:%d";
+
+    /** The permits limiting the concurrent requests to each host, shared by all loaders. */
+    private static Map<String, HostPermits> hostPermitMap = new ConcurrentHashMap<>();
+
+    /** The connection. */
+    private final GeoServerConnection connection;
+
+    /** The default workspace name. */
+    private final String defaultWorkspaceName;
+
+    /** The number of threads used to read layer details. */
+    private final int threadCount;
+
+    /** The maximum number of concurrent requests to a host. */
+    private final int connectionsPerHost;
+
+    /** The permits limiting the concurrent requests to a host and the limit they were sized for. */
+    private static class HostPermits {
+
+        /** The maximum number of concurrent requests. */
+        private final int limit;
+
+        /** The permits. */
+        private final Semaphore semaphore;
+
+        /**
+         * Instantiates a new host permits.
+         *
+         * @param limit the maximum number of concurrent requests
+         */
+        HostPermits(int limit) {
+            this.limit = limit;
+            this.semaphore = new Semaphore(limit);
+        }
+    }
+
+    /** The executor, only exists while loading. */
+    private ExecutorService executor = null;
+
+    /** The cancelled flag. */
+    private volatile boolean cancelled = false;
+
+    /** Internal class identifying a layer to read. */
+    private static class LayerRef {
+        /** The workspace name, null for the default workspace. */
+        private final String workspace;
+
+        /** The layer name. */
+        private final String layerName;
+
+        /**
+         * Instantiates a new layer reference.
+         *
+         * @param workspace the workspace
+         * @param layerName the layer name
+         */
+        LayerRef(String workspace, String layerName) {
+            this.workspace = workspace;
+            this.layerName = layerName;
+        }
+    }
+
+    /**
+     * Instantiates a new GeoServer layer loader with the default limits.
+     *
+     * @param connection the connection
+     * @param defaultWorkspaceName the default workspace name
+     */
+    public GeoServerLayerLoader(GeoServerConnection connection, String defaultWorkspaceName) {
+        this(connection, defaultWorkspaceName, DEFAULT_THREAD_COUNT, DEFAULT_CONNECTIONS_PER_HOST);
+    }
+
+    /**
+     * Instantiates a new GeoServer layer loader.
+     *
+     * @param connection the connection
+     * @param defaultWorkspaceName the default workspace name
+     * @param threadCount the number of threads used to read layer details
+     * @param connectionsPerHost the maximum number of concurrent requests to a host
+     */
+    public GeoServerLayerLoader(
+            GeoServerConnection connection,
+            String defaultWorkspaceName,
+            int threadCount,
+            int connectionsPerHost) {
+        this.connection = connection;
+        this.defaultWorkspaceName = defaultWorkspaceName;
+        this.threadCount = Math.max(1, threadCount);
+        this.connectionsPerHost = Math.max(1, connectionsPerHost);
+    }
+
+    /**
+     * Load the layers of all the supplied workspaces.
+     *
+     * @param workspaceList the workspace list
+     * @param progress the progress listener, may be null
+     * @return the map of workspace name to layers
+     */
+    public Map<String, List<GeoServerLayer>> load(
+            List<String> workspaceList, GeoServerReadProgressInterface progress) {
+        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
+
+        if ((connection == null) || (connection.getUrl() == null)) {
+            return layerMap;
+        }
+
+        executor = Executors.newFixedThreadPool(threadCount, createThreadFactory());
+        try {
+            Map<String, List<LayerRef>> layerRefMap = listLayers(workspaceList);
+
+            int total = 0;
+            for (List<LayerRef> refList : layerRefMap.values()) {
+                total += refList.size();
+            }
+
+            readLayers(layerRefMap, total, layerMap, progress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            executor = null;
+        }
+
+        return layerMap;
+    }
+
+    /** Cancel the load, layers already read are still returned. */
+    public void cancel() {
+        cancelled = true;
+        ExecutorService localExecutor = executor;
+        if (localExecutor != null) {
+            localExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * List the layers in each workspace, the workspace lists are requested concurrently. Any
+     * layers in the full layer list not found in a workspace are assigned using their qualified
+     * name or to the default workspace.
+     *
+     * @param workspaceList the workspace list
+     * @return the map of workspace name (null for default workspace) to layers
+     * @throws InterruptedException the interrupted exception
+     */
+    private Map<String, List<LayerRef>> listLayers(List<String> workspaceList)
+            throws InterruptedException {
+        Map<String, Future<RESTLayerList>> futureMap = new LinkedHashMap<>();
+        if (workspaceList != null) {
+            for (String workspace : workspaceList) {
+                if (workspace != null) {
+                    futureMap.put(
+                            workspace,
+                            executor.submit(
+                                    () ->
+                                            RESTLayerList.build(
+                                                    get(
+                                                            REST_WORKSPACES
+                                                                    + encode(workspace)
+                                                                    + "/layers"
+                                                                    + XML_SUFFIX))));
+                }
+            }
+        }
+        Future<RESTLayerList> allLayersFuture =
+                executor.submit(() -> RESTLayerList.build(get(REST_LAYERS + XML_SUFFIX)));
+
+        Map<String, List<LayerRef>> layerRefMap = new LinkedHashMap<>();
+        Set<String> foundSet = new HashSet<>();
+
+        for (Map.Entry<String, Future<RESTLayerList>> entry : futureMap.entrySet()) {
+            String workspace = entry.getKey();
+            RESTLayerList layerList = getResult(entry.getValue());
+            if (layerList != null) {
+                for (NameLinkElem layer : layerList) {
+                    addLayerRef(layerRefMap, workspace, layer.getName());
+                    foundSet.add(workspace + WORKSPACE_SEPARATOR + layer.getName());
+                    foundSet.add(layer.getName());
+                }
+            }
+        }
+
+        RESTLayerList allLayerList = getResult(allLayersFuture);
+        if (allLayerList != null) {
+            for (NameLinkElem layer : allLayerList) {
+                String name = layer.getName();
+                if ((name != null) && !foundSet.contains(name)) {
+                    int pos = name.indexOf(WORKSPACE_SEPARATOR);
+                    if (pos > 0) {
+                        addLayerRef(
+                                layerRefMap, name.substring(0, pos), name.substring(pos + 1));
+                    } else {
+                        addLayerRef(layerRefMap, null, name);
+                    }
+                }
+            }
+        }
+        return layerRefMap;
+    }
+
+    /**
+     * Adds the layer reference.
+     *
+     * @param layerRefMap the layer reference map
+     * @param workspace the workspace
+     * @param layerName the layer name
+     */
+    private static void addLayerRef(
+            Map<String, List<LayerRef>> layerRefMap, String workspace, String layerName) {
+        if (layerName != null) {
+            layerRefMap
+                    .computeIfAbsent(workspace, k -> new ArrayList<>())
+                    .add(new LayerRef(workspace, layerName));
+        }
+    }
+
+    /**
+     * Read the details of all the layers concurrently, results are reported as they arrive.
+     *
+     * @param layerRefMap the layer reference map
+     * @param total the total number of layers
+     * @param layerMap the layer map to populate
+     * @param progress the progress listener
+     * @throws InterruptedException the interrupted exception
+     */
+    private void readLayers(
+            Map<String, List<LayerRef>> layerRefMap,
+            int total,
+            Map<String, List<GeoServerLayer>> layerMap,
+            GeoServerReadProgressInterface progress)
+            throws InterruptedException {
+        CompletionService<GeoServerLayer> completionService =
+                new ExecutorCompletionService<>(executor);
+
+        // Results are stored by position so the layer order matches the catalogue
+        Map<String, GeoServerLayer[]> resultMap = new LinkedHashMap<>();
+        Map<String, AtomicInteger> remainingMap = new LinkedHashMap<>();
+        Map<Future<GeoServerLayer>, Integer> indexMap = new HashMap<>();
+        Map<Future<GeoServerLayer>, String> workspaceMap = new HashMap<>();
+
+        for (Map.Entry<String, List<LayerRef>> entry : layerRefMap.entrySet()) {
+            String workspaceName = getWorkspaceName(entry.getKey());
+            List<LayerRef> refList = entry.getValue();
+            resultMap.put(workspaceName, new GeoServerLayer[refList.size()]);
+            remainingMap.put(workspaceName, new AtomicInteger(refList.size()));
+
+            for (int index = 0; index < refList.size(); index++) {
+                LayerRef ref = refList.get(index);
+                Future<GeoServerLayer> future = completionService.submit(() -> readLayer(ref));
+                indexMap.put(future, index);
+                workspaceMap.put(future, workspaceName);
+            }
+        }
+
+        for (int count = 1; (count <= total) && !cancelled; count++) {
+            Future<GeoServerLayer> future = completionService.take();
+            String workspaceName = workspaceMap.get(future);
+            resultMap.get(workspaceName)[indexMap.get(future)] = getResult(future);
+
+            if (progress != null) {
+                progress.readLayersProgress(connection, count, total);
+            }
+
+            if (remainingMap.get(workspaceName).decrementAndGet() == 0) {
+                List<GeoServerLayer> layerList = new ArrayList<>();
+                for (GeoServerLayer layer : resultMap.get(workspaceName)) {
+                    if (layer != null) {
+                        layerList.add(layer);
+                    }
+                }
+
+                if (!layerList.isEmpty()) {
+                    layerMap.put(workspaceName, layerList);
+                    if (progress != null) {
+                        progress.readLayersPartial(connection, workspaceName, layerList);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the details of a single layer.
+     *
+     * @param ref the layer reference
+     * @return the GeoServer layer, null if it could not be read
+     */
+    private GeoServerLayer readLayer(LayerRef ref) {
+        String path =
+                (ref.workspace == null)
+                        ? REST_LAYERS + "/" + encode(ref.layerName) + XML_SUFFIX
+                        : REST_WORKSPACES
+                                + encode(ref.workspace)
+                                + "/layers/"
+                                + encode(ref.layerName)
+                                + XML_SUFFIX;
+
+        RESTLayer layer = RESTLayer.build(get(path));
+        if (layer == null) {
+            return null;
+        }
+
+        GeoServerLayer geoServerLayer = new GeoServerLayer();
+        geoServerLayer.setLayerWorkspace(getWorkspaceName(ref.workspace));
+        geoServerLayer.setLayerName(ref.layerName);
+        geoServerLayer.setConnection(connection);
+
+        StyleWrapper styleWrapper = new StyleWrapper();
+        styleWrapper.setStyle(layer.getDefaultStyle());
+
+        String styleWorkspace = layer.getDefaultStyleWorkspace();
+        styleWrapper.setWorkspace((styleWorkspace == null) ? defaultWorkspaceName : styleWorkspace);
+
+        geoServerLayer.setStyle(styleWrapper);
+
+        return geoServerLayer;
+    }
+
+    /**
+     * Gets the workspace name to display.
+     *
+     * @param workspace the workspace, null for the default workspace
+     * @return the workspace name
+     */
+    private String getWorkspaceName(String workspace) {
+        return (workspace == null) ? defaultWorkspaceName : workspace;
+    }
+
+    /**
+     * Perform a GET request on the GeoServer REST API, limited by the per host connection count.
+     *
+     * @param path the path relative to the GeoServer URL
+     * @return the response, null if the request failed
+     */
+    private String get(String path) {
+        URL url = connection.getUrl();
+        String baseUrl = url.toExternalForm();
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        Semaphore permits = getPermits(url);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        try {
+            if (cancelled) {
+                return null;
+            }
+            return HTTPUtils.get(
+                    baseUrl + path, connection.getUserName(), connection.getPassword());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Gets the permits limiting the concurrent requests to the host of a URL. A changed connection
+     * count replaces the permits of the host, requests already holding a permit release it to the
+     * permits they acquired it from.
+     *
+     * @param url the url
+     * @return the permits
+     */
+    private Semaphore getPermits(URL url) {
+        int port = (url.getPort() < 0) ? url.getDefaultPort() : url.getPort();
+        String hostKey = String.format(HOST_KEY_FORMAT, url.getHost(), port);
+
+        HostPermits hostPermits =
+                hostPermitMap.compute(
+                        hostKey,
+                        (key, existing) -> {
+                            if ((existing == null) || (existing.limit != connectionsPerHost)) {
+                                return new HostPermits(connectionsPerHost);
+                            }
+                            return existing;
+                        });
+        return hostPermits.semaphore;
+    }
+
+    /**
+     * Gets the result of a completed task.
+     *
+     * @param <T> the generic type
+     * @param future the future
+     * @return the result, null if the task failed
+     * @throws InterruptedException the interrupted exception
+     */
+    private <T> T getResult(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return null;
+    }
+
+    /**
+     * Encode a path element.
+     *
+     * @param value the value
+     * @return the encoded value
+     */
+    static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            return value;
+        }
+    }
+
+    /**
+     * Creates the thread factory.
+     *
+     * @return the thread factory
+     */
+    private ThreadFactory createThreadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String threadNamePrefix =
+                THREAD_NAME_PREFIX + connection.getConnectionName() + "-";
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher.PublishStatus;
+
+/**
+ * The Interface GeoServerPublishProgressInterface, reports the progress of a bulk style publish.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface GeoServerPublishProgressInterface {
+
+    /**
+     * Called when a style has been published.
+     *
+     * @param styleWrapper the style wrapper
+     * @param status the publish status
+     * @param count the number of styles published so far
+     * @param total the total number of styles
+     * @param stylesPerSecond the throughput so far
+     */
+    void stylePublished(
+            StyleWrapper styleWrapper,
+            PublishStatus status,
+            int count,
+            int total,
+            double stylesPerSecond);
+}
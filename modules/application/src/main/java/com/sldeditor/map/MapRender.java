@@ -27,15 +27,24 @@ import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDOutputInterface;
 import com.sldeditor.common.preferences.PrefManager;
 import com.sldeditor.common.preferences.iface.PrefUpdateInterface;
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.datasource.DataSourceConnectionListener;
 import com.sldeditor.datasource.DataSourceInterface;
 import com.sldeditor.datasource.DataSourceUpdatedInterface;
 import com.sldeditor.datasource.RenderSymbolInterface;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.datasource.StickyDataSourceInterface;
+import com.sldeditor.datasource.cache.PreviewDataCache;
+import com.sldeditor.datasource.impl.DataSourceConnection;
+import com.sldeditor.datasource.impl.DataSourceConnectionStage;
 import com.sldeditor.datasource.impl.DataSourceFactory;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
+import com.sldeditor.filter.v2.envvar.EnvVar;
 import com.sldeditor.filter.v2.envvar.EnvironmentVariableManager;
 import com.sldeditor.filter.v2.envvar.WMSEnvVarValues;
+import com.sldeditor.render.FeatureTypeStyleLayerCache;
+import com.sldeditor.render.RenderScheduler;
+import com.sldeditor.render.graphic.ExternalGraphicCache;
 import com.sldeditor.ui.render.RuleRenderOptions;
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
@@ -53,6 +62,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Function;
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
@@ -63,6 +73,7 @@ import javax.swing.JToolBar;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
 import org.geotools.data.DataStore;
 import org.geotools.data.FeatureSource;
+import org.geotools.data.memory.MemoryDataStore;
 import org.geotools.geometry.jts.JTS;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.map.FeatureLayer;
@@ -99,6 +110,7 @@ public class MapRender extends JPanel
         implements RenderSymbolInterface,
                 PrefUpdateInterface,
                 DataSourceUpdatedInterface,
+                DataSourceConnectionListener,
                 MouseWheelListener,
                 StickyDataSourceInterface,
                 RenderListener {
@@ -178,6 +190,39 @@ public class MapRender extends JPanel
     /** The label cache. */
     private transient SynchronizedLabelCache labelCache = new SynchronizedLabelCache();
 
+    /** The render scheduler, prepares the map layers off the event dispatch thread. */
+    private transient RenderScheduler renderScheduler =
+            new RenderScheduler(TaskManager.PREVIEW_POOL);
+
+    /**
+     * The layer cache, one layer per feature type style so unchanged feature type styles keep
+     * their rendered tiles.
+     */
+    private transient FeatureTypeStyleLayerCache<Layer> layerCache =
+            new FeatureTypeStyleLayerCache<>();
+
+    /** The data the cached layers were created for. */
+    private transient Object layerCacheData = null;
+
+    /** The environment variable values of the layers displayed in the map pane. */
+    private transient List<EnvVar> displayedEnvVarList = null;
+
+    /** The layers prepared on the render thread, ready to be added to the map content. */
+    private static class PreparedLayer {
+
+        /** The layers, in feature type style order. */
+        private List<Layer> layerList = new ArrayList<>();
+
+        /** The viewport bounds. */
+        private ReferencedEnvelope viewportBounds = null;
+
+        /** The display area. */
+        private org.opengis.geometry.Envelope displayArea = null;
+
+        /** The environment variable values the layers were prepared with. */
+        private List<EnvVar> envVarList = null;
+    }
+
     /** Default constructor. */
     public MapRender() {
         setLayout(new BorderLayout());
@@ -202,12 +247,13 @@ public class MapRender extends JPanel
         mapRenderPanel.add(createToolbar(), BorderLayout.NORTH);
         mapRenderPanel.add(mapPane, BorderLayout.CENTER);
         mapRenderPanel.add(JMapStatusBar.createDefaultStatusBar(mapPane), BorderLayout.SOUTH);
-        mapPane.getRenderer().addRenderListener(this);
+        mapPane.addRenderListener(this);
         PrefManager.getInstance().addListener(this);
 
         // Listen for changes in data sources
         DataSourceInterface dataSource = DataSourceFactory.getDataSource();
         dataSource.addListener(this);
+        dataSource.addConnectionListener(this);
 
         // Listen for mouse wheel changes
         mapPane.addMouseWheelListener(this);
@@ -287,7 +333,8 @@ public class MapRender extends JPanel
         if (!underTest) {
             if (hasError()) {
                 mapPane.resetRenderer();
-                mapPane.getRenderer().addRenderListener(this);
+                // Resetting the renderer disposes the cached layers
+                layerCache.clear();
                 resetError();
             }
             wmsEnvVarValues.setImageWidth(mapPane.getWidth());
@@ -306,28 +353,97 @@ public class MapRender extends JPanel
             mapPane.getRenderer().setRendererHints(hints);
 
             // Add the layers back with the updated style
-            renderUpdatedStyle(mapContent);
+            renderUpdatedStyle();
         }
     }
 
     /**
-     * Render updated style.
-     *
-     * @param mapContent the map content
+     * Render updated style, the layers are prepared on the render thread and only the most
+     * recently requested style is added to the map content.
      */
-    private void renderUpdatedStyle(MapContent mapContent) {
-        StyledLayerDescriptor sld = SelectedSymbol.getInstance().getSld();
+    private void renderUpdatedStyle() {
+        final StyledLayerDescriptor sld = SelectedSymbol.getInstance().getSld();
         if (sld != null) {
-            List<StyledLayer> styledLayerList = sld.layers();
+            final GeometryTypeEnum renderGeometryType = geometryType;
+            renderScheduler.submit(
+                    () -> prepareLayer(sld, renderGeometryType),
+                    preparedLayer -> applyPreparedLayer(preparedLayer));
+        }
+    }
 
-            for (StyledLayer styledLayer : styledLayerList) {
-                List<org.geotools.styling.Style> styleList = SLDUtils.getStylesList(styledLayer);
+    /**
+     * Prepare the layer to render, called on the render thread.
+     *
+     * @param sld the sld
+     * @param renderGeometryType the geometry type
+     * @return the prepared layer
+     */
+    private PreparedLayer prepareLayer(
+            StyledLayerDescriptor sld, GeometryTypeEnum renderGeometryType) {
+        StyledLayer styledLayerToRender = null;
+        Style styleToRender = null;
+        List<StyledLayer> styledLayerList = sld.layers();
+
+        // Only the last style is displayed
+        for (StyledLayer styledLayer : styledLayerList) {
+            List<org.geotools.styling.Style> styleList = SLDUtils.getStylesList(styledLayer);
+
+            for (Style style : styleList) {
+                styledLayerToRender = styledLayer;
+                styleToRender = style;
+            }
+        }
 
-                for (Style style : styleList) {
-                    renderSymbol(mapContent, styledLayer, style);
-                }
+        if (styleToRender == null) {
+            return null;
+        }
+
+        // External graphics are read from their local copies
+        styleToRender =
+                ExternalGraphicCache.getInstance()
+                        .localise((org.geotools.styling.Style) styleToRender);
+        return prepareSymbol(styledLayerToRender, styleToRender, renderGeometryType);
+    }
+
+    /**
+     * Apply the prepared layer to the map content, called on the event dispatch thread.
+     *
+     * @param preparedLayer the prepared layer
+     */
+    private void applyPreparedLayer(PreparedLayer preparedLayer) {
+        MapContent mapContent = mapPane.getMapContent();
+        if ((preparedLayer == null) || (mapContent == null)) {
+            return;
+        }
+
+        // Unchanged layers render differently when environment variable values change
+        if ((displayedEnvVarList != null)
+                && !displayedEnvVarList.equals(preparedLayer.envVarList)) {
+            mapPane.styleChanged();
+            mapPane.drawLayers(false);
+        }
+        displayedEnvVarList = preparedLayer.envVarList;
+
+        // Layers that are kept retain their rendered tiles
+        if (!preparedLayer.layerList.equals(mapContent.layers())) {
+            for (Layer layer : mapContent.layers()) {
+                mapContent.removeLayer(layer);
+            }
+            mapContent.addLayers(preparedLayer.layerList);
+        }
+
+        if (!preparedLayer.layerList.isEmpty()) {
+            if (preparedLayer.viewportBounds != null) {
+                mapContent.getViewport().setBounds(preparedLayer.viewportBounds);
+            }
+
+            if (preparedLayer.displayArea != null) {
+                mapPane.setDisplayArea(preparedLayer.displayArea);
             }
         }
+
+        wmsEnvVarValues.setMapBounds(mapBounds);
+        EnvironmentVariableManager.getInstance().setWMSEnvVarValues(wmsEnvVarValues);
     }
 
     /** Clear label cache. */
@@ -346,42 +462,43 @@ public class MapRender extends JPanel
     }
 
     /**
-     * Render symbol.
+     * Prepare the layer for a style.
      *
-     * @param mapContent the map content
      * @param styledLayer the styled layer
      * @param style the style
+     * @param renderGeometryType the geometry type
+     * @return the prepared layer
      */
-    private void renderSymbol(MapContent mapContent, StyledLayer styledLayer, Style style) {
-        for (Layer layer : mapContent.layers()) {
-            mapContent.removeLayer(layer);
-        }
+    private PreparedLayer prepareSymbol(
+            StyledLayer styledLayer, Style style, GeometryTypeEnum renderGeometryType) {
+        PreparedLayer preparedLayer = new PreparedLayer();
+        preparedLayer.envVarList = EnvironmentVariableManager.getInstance().getEnvVarList();
 
-        switch (geometryType) {
+        switch (renderGeometryType) {
             case RASTER:
-                renderRasterSymbol(mapContent, style);
+                prepareRasterSymbol(preparedLayer, style);
                 break;
             case POINT:
             case LINE:
             case POLYGON:
-                renderVectorSymbol(mapContent, styledLayer, style);
+                prepareVectorSymbol(preparedLayer, styledLayer, style);
                 break;
             default:
                 break;
         }
 
-        wmsEnvVarValues.setMapBounds(mapBounds);
-        EnvironmentVariableManager.getInstance().setWMSEnvVarValues(wmsEnvVarValues);
+        return preparedLayer;
     }
 
     /**
-     * Render vector symbol.
+     * Prepare vector symbol.
      *
-     * @param mapContent the map content
+     * @param preparedLayer the prepared layer
      * @param styledLayer the styled layer
      * @param style the style
      */
-    private void renderVectorSymbol(MapContent mapContent, StyledLayer styledLayer, Style style) {
+    private void prepareVectorSymbol(
+            PreparedLayer preparedLayer, StyledLayer styledLayer, Style style) {
         FeatureSource<SimpleFeatureType, SimpleFeature> tmpFeatureList = null;
 
         if (styledLayer instanceof UserLayer) {
@@ -390,13 +507,24 @@ public class MapRender extends JPanel
             }
         } else {
             tmpFeatureList = featureList;
+
+            // External data sources are served from memory rather than queried on every render
+            if ((tmpFeatureList != null)
+                    && !(tmpFeatureList.getDataStore() instanceof MemoryDataStore)) {
+                tmpFeatureList = PreviewDataCache.getInstance().getFeatureSource(tmpFeatureList);
+            }
         }
 
         if (tmpFeatureList != null) {
-            mapContent.addLayer(
-                    new FeatureLayer(tmpFeatureList, (org.geotools.styling.Style) style));
+            final FeatureSource<SimpleFeatureType, SimpleFeature> layerFeatureList =
+                    tmpFeatureList;
+            preparedLayer.layerList =
+                    updateLayerCache(
+                            layerFeatureList,
+                            style,
+                            ftsStyle -> new FeatureLayer(layerFeatureList, ftsStyle));
             try {
-                mapPane.setDisplayArea(tmpFeatureList.getBounds());
+                preparedLayer.displayArea = tmpFeatureList.getBounds();
             } catch (IOException e) {
                 ConsoleManager.getInstance().exception(this, e);
             }
@@ -404,21 +532,46 @@ public class MapRender extends JPanel
     }
 
     /**
-     * Render raster symbol.
+     * Prepare raster symbol.
      *
-     * @param mapContent the map content
+     * @param preparedLayer the prepared layer
      * @param style the style
      */
-    private void renderRasterSymbol(MapContent mapContent, Style style) {
-        GridReaderLayer gridLayer =
-                new GridReaderLayer(gridCoverage, (org.geotools.styling.Style) style);
-        mapContent.addLayer(gridLayer);
-        mapContent.getViewport().setBounds(gridLayer.getBounds());
+    private void prepareRasterSymbol(PreparedLayer preparedLayer, Style style) {
+        final AbstractGridCoverage2DReader layerGridCoverage = gridCoverage;
+        preparedLayer.layerList =
+                updateLayerCache(
+                        layerGridCoverage,
+                        style,
+                        ftsStyle -> new GridReaderLayer(layerGridCoverage, ftsStyle));
+        if (!preparedLayer.layerList.isEmpty()) {
+            preparedLayer.viewportBounds = preparedLayer.layerList.get(0).getBounds();
+        }
         if (gridCoverage != null) {
-            mapPane.setDisplayArea(gridCoverage.getOriginalEnvelope());
+            preparedLayer.displayArea = gridCoverage.getOriginalEnvelope();
         }
     }
 
+    /**
+     * Update the layer cache, a layer is created for each feature type style that has changed
+     * since the last update. The cache is cleared if the data to render has changed.
+     *
+     * @param data the data to render
+     * @param style the style
+     * @param layerFactory the layer factory
+     * @return the layers, in feature type style order
+     */
+    private List<Layer> updateLayerCache(
+            Object data,
+            Style style,
+            Function<org.geotools.styling.Style, Layer> layerFactory) {
+        if (data != layerCacheData) {
+            layerCache.clear();
+            layerCacheData = data;
+        }
+        return layerCache.update((org.geotools.styling.Style) style, layerFactory);
+    }
+
     /**
      * Use anti alias updated.
      *
@@ -479,7 +632,12 @@ public class MapRender extends JPanel
 
         if (featureList != null) {
             try {
-                refEnvList.add(convertToWGS84(featureList.getFeatures().getBounds()));
+                // Use the bounds calculated when the data source was connected if available
+                ReferencedEnvelope bounds = DataSourceFactory.getDataSource().getBounds();
+                if (bounds == null) {
+                    bounds = getBounds(featureList);
+                }
+                refEnvList.add(convertToWGS84(bounds));
             } catch (IOException e) {
                 ConsoleManager.getInstance().exception(MapRender.class, e);
             }
@@ -494,7 +652,7 @@ public class MapRender extends JPanel
                             userLayerFeatureListMap.get(entry.getValue());
 
                     if (featureSource != null) {
-                        refEnvList.add(convertToWGS84(featureSource.getFeatures().getBounds()));
+                        refEnvList.add(convertToWGS84(getBounds(featureSource)));
                     }
                 } catch (IOException e) {
                     ConsoleManager.getInstance().exception(MapRender.class, e);
@@ -512,6 +670,23 @@ public class MapRender extends JPanel
         }
     }
 
+    /**
+     * Gets the bounds of a feature source, using the data source metadata or estimated extent
+     * where available and only scanning the features if neither are.
+     *
+     * @param featureSource the feature source
+     * @return the bounds
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static ReferencedEnvelope getBounds(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource) throws IOException {
+        ReferencedEnvelope bounds = featureSource.getBounds();
+        if ((bounds == null) || bounds.isNull()) {
+            bounds = featureSource.getFeatures().getBounds();
+        }
+        return bounds;
+    }
+
     /**
      * Convert referenced envelope to WGS 84.
      *
@@ -698,6 +873,9 @@ public class MapRender extends JPanel
             return;
         }
 
+        // Drop any layers still being prepared for the data source being unloaded
+        renderScheduler.cancel();
+
         MapContent mapContent = mapPane.getMapContent();
 
         if (mapContent != null) {
@@ -708,6 +886,37 @@ public class MapRender extends JPanel
         }
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionStageStarted(com.
+     * sldeditor.datasource.impl.DataSourceConnection,
+     * com.sldeditor.datasource.impl.DataSourceConnectionStage)
+     */
+    @Override
+    public void connectionStageStarted(
+            DataSourceConnection connection, DataSourceConnectionStage stage) {
+        if (stage == DataSourceConnectionStage.CONNECT) {
+            // The layers being prepared are for the data source being replaced
+            renderScheduler.cancel();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionCompleted(com.
+     * sldeditor.datasource.impl.DataSourceConnection)
+     */
+    @Override
+    public void connectionCompleted(DataSourceConnection connection) {
+        if (connection.getStatus() != DataSourceConnection.Status.COMPLETED) {
+            // No data source was loaded so there is nothing to show
+            CardLayout cardLayout = (CardLayout) mapPanel.getLayout();
+            cardLayout.show(mapPanel, NOMAP_PANEL);
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
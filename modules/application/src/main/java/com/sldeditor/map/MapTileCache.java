@@ -0,0 +1,275 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.map;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least recently used cache of rendered map tiles.
+ *
+ * <p>Tiles are square, {@link #TILE_SIZE} pixels wide, and aligned to a grid in world coordinates
+ * whose origin is the world origin. The map resolution is snapped to discrete zoom levels, {@link
+ * #ZOOM_LEVELS_PER_OCTAVE} levels for each doubling of the resolution, so tiles rendered at one
+ * zoom level can be reused when the user zooms back to it and while panning.
+ *
+ * <p>Tiles are keyed by the style version, the layers rendered, the zoom level and the tile index.
+ * Class is thread safe.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class MapTileCache {
+
+    /** The Constant TILE_SIZE in pixels. */
+    public static final int TILE_SIZE = 256;
+
+    /** The Constant ZOOM_LEVELS_PER_OCTAVE. */
+    public static final int ZOOM_LEVELS_PER_OCTAVE = 16;
+
+    /** The Constant DEFAULT_MAX_TILES. */
+    public static final int DEFAULT_MAX_TILES = 512;
+
+    /** The key identifying a rendered tile. */
+    public static final class TileKey {
+
+        /** The style version. */
+        private final long styleVersion;
+
+        /** The key identifying the layers rendered. */
+        private final String layerKey;
+
+        /** The zoom level. */
+        private final int zoomLevel;
+
+        /** The tile column. */
+        private final long tileX;
+
+        /** The tile row, increasing northwards. */
+        private final long tileY;
+
+        /**
+         * Instantiates a new tile key.
+         *
+         * @param styleVersion the style version
+         * @param layerKey the key identifying the layers rendered
+         * @param zoomLevel the zoom level
+         * @param tileX the tile column
+         * @param tileY the tile row
+         */
+        public TileKey(long styleVersion, String layerKey, int zoomLevel, long tileX, long tileY) {
+            this.styleVersion = styleVersion;
+            this.layerKey = layerKey;
+            this.zoomLevel = zoomLevel;
+            this.tileX = tileX;
+            this.tileY = tileY;
+        }
+
+        /**
+         * Gets the style version.
+         *
+         * @return the style version
+         */
+        public long getStyleVersion() {
+            return styleVersion;
+        }
+
+        /**
+         * Gets the zoom level.
+         *
+         * @return the zoom level
+         */
+        public int getZoomLevel() {
+            return zoomLevel;
+        }
+
+        /**
+         * Gets the tile column.
+         *
+         * @return the tile column
+         */
+        public long getTileX() {
+            return tileX;
+        }
+
+        /**
+         * Gets the tile row.
+         *
+         * @return the tile row
+         */
+        public long getTileY() {
+            return tileY;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(styleVersion, layerKey, zoomLevel, tileX, tileY);
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+            TileKey other = (TileKey) obj;
+            return (styleVersion == other.styleVersion)
+                    && (zoomLevel == other.zoomLevel)
+                    && (tileX == other.tileX)
+                    && (tileY == other.tileY)
+                    && Objects.equals(layerKey, other.layerKey);
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d/%s/%d/%d/%d", styleVersion, layerKey, zoomLevel, tileX, tileY);
+        }
+    }
+
+    /** The maximum number of tiles cached. */
+    private int maxTiles;
+
+    /** The tile map, in access order. */
+    private final Map<TileKey, BufferedImage> tileMap;
+
+    /** Instantiates a new map tile cache. */
+    public MapTileCache() {
+        this(DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Instantiates a new map tile cache.
+     *
+     * @param maxTiles the maximum number of tiles cached
+     */
+    public MapTileCache(int maxTiles) {
+        this.maxTiles = Math.max(1, maxTiles);
+        this.tileMap =
+                new LinkedHashMap<TileKey, BufferedImage>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+                        return size() > MapTileCache.this.maxTiles;
+                    }
+                };
+    }
+
+    /**
+     * Gets the zoom level for a map resolution.
+     *
+     * @param resolution the resolution in world units per pixel
+     * @return the zoom level
+     */
+    public static int getZoomLevel(double resolution) {
+        return (int) Math.round(Math.log(resolution) / Math.log(2.0) * ZOOM_LEVELS_PER_OCTAVE);
+    }
+
+    /**
+     * Gets the resolution tiles are rendered at for a zoom level.
+     *
+     * @param zoomLevel the zoom level
+     * @return the resolution in world units per pixel
+     */
+    public static double getResolution(int zoomLevel) {
+        return Math.pow(2.0, (double) zoomLevel / ZOOM_LEVELS_PER_OCTAVE);
+    }
+
+    /**
+     * Gets a cached tile.
+     *
+     * @param key the key
+     * @return the tile, null if not cached
+     */
+    public synchronized BufferedImage get(TileKey key) {
+        return tileMap.get(key);
+    }
+
+    /**
+     * Adds a rendered tile, the least recently used tile is discarded if the cache is full.
+     *
+     * @param key the key
+     * @param tile the tile
+     */
+    public synchronized void put(TileKey key, BufferedImage tile) {
+        if ((key != null) && (tile != null)) {
+            tileMap.put(key, tile);
+        }
+    }
+
+    /**
+     * Sets the maximum number of tiles cached, the least recently used tiles are discarded if
+     * there are more.
+     *
+     * @param maxTiles the maximum number of tiles cached
+     */
+    public synchronized void setMaxTiles(int maxTiles) {
+        this.maxTiles = Math.max(1, maxTiles);
+
+        Iterator<TileKey> iterator = tileMap.keySet().iterator();
+        while ((tileMap.size() > this.maxTiles) && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets the maximum number of tiles cached.
+     *
+     * @return the maximum number of tiles
+     */
+    public synchronized int getMaxTiles() {
+        return maxTiles;
+    }
+
+    /**
+     * Gets the number of tiles cached.
+     *
+     * @return the number of tiles
+     */
+    public synchronized int size() {
+        return tileMap.size();
+    }
+
+    /** Discard all cached tiles. */
+    public synchronized void clear() {
+        tileMap.clear();
+    }
+}
@@ -19,23 +19,52 @@
 
 package com.sldeditor.map;
 
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.map.MapTileCache.TileKey;
+import com.sldeditor.render.LabelStyleSplitter;
+import com.sldeditor.render.StripedRenderer;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.Layer;
 import org.geotools.map.MapContent;
+import org.geotools.map.event.MapLayerListEvent;
 import org.geotools.renderer.GTRenderer;
+import org.geotools.renderer.RenderListener;
 import org.geotools.renderer.label.LabelCacheImpl;
 import org.geotools.renderer.lite.LabelCache;
 import org.geotools.renderer.lite.StreamingRenderer;
 import org.geotools.swing.AbstractMapPane;
 import org.geotools.swing.JMapFrame;
+import org.geotools.styling.Style;
 import org.geotools.swing.RenderingExecutor;
 
 /**
@@ -67,6 +96,133 @@ public class SLDMapPane extends AbstractMapPane {
     /** The base image graphics. */
     private transient Graphics2D baseImageGraphics;
 
+    /** The Constant TILE_GUTTER, pixels rendered around each tile so symbols are not clipped. */
+    private static final int TILE_GUTTER = 32;
+
+    /** The rendered tile cache. */
+    private final transient MapTileCache tileCache = new MapTileCache();
+
+    /** The style version, incremented whenever the style of the layers changes. */
+    private final AtomicLong styleVersion = new AtomicLong(0);
+
+    /** The tiles covering the current viewport. */
+    private transient volatile Set<TileKey> viewportTileSet = Collections.emptySet();
+
+    /** The keys of the layers in the current viewport, in layer order. */
+    private transient volatile List<String> viewportLayerKeyList = Collections.emptyList();
+
+    /** The layer keys, a layer is given a new key when it changes. */
+    private final transient Map<Layer, String> layerKeyMap =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** The layer key counter. */
+    private final AtomicLong layerKeyCounter = new AtomicLong(0);
+
+    /** The Constant VIEWPORT_CACHE_FACTOR, tiles cached for each tile in the viewport. */
+    private static final int VIEWPORT_CACHE_FACTOR = 2;
+
+    /** The Constant PENDING_TILE_DELAY, milliseconds before drawing tiles that were blocked. */
+    private static final int PENDING_TILE_DELAY = 20;
+
+    /** The rendered tiles not drawn because the base image was locked, event dispatch thread. */
+    private final transient Set<TileKey> pendingTileSet = new LinkedHashSet<>();
+
+    /** The timer drawing the pending tiles once the base image is released. */
+    private transient Timer pendingTileTimer = null;
+
+    /** The tiles being rendered. */
+    private final transient Map<TileKey, TileRender> inFlightMap = new ConcurrentHashMap<>();
+
+    /** The render listeners added to every renderer. */
+    private final transient List<RenderListener> renderListenerList =
+            new CopyOnWriteArrayList<>();
+
+    /** The parts each layer is rendered in, by layer key. */
+    private final transient Map<String, LayerParts> layerPartsMap = new ConcurrentHashMap<>();
+
+    /** The key of the labels for the current viewport. */
+    private transient volatile List<Object> viewportLabelKey = null;
+
+    /** The labels of all the layers rendered over the whole viewport. */
+    private transient volatile BufferedImage labelImage = null;
+
+    /** The key of the labels in the label image. */
+    private transient volatile List<Object> labelImageKey = null;
+
+    /** The labels being rendered, null if none. */
+    private transient TileRender labelRender = null;
+
+    /** The key of the labels being rendered. */
+    private transient List<Object> labelRenderKey = null;
+
+    /**
+     * The parts a layer is rendered in. Labels are rendered separately from the tiles so that
+     * label conflicts are resolved across the whole viewport rather than within each tile.
+     */
+    private static class LayerParts {
+
+        /** The layer rendered in tiles, null if the layer only contains labels. */
+        private final Layer tileLayer;
+
+        /** The layer containing only the labels, null if labels are rendered in the tiles. */
+        private final Layer labelLayer;
+
+        /**
+         * Instantiates a new layer parts.
+         *
+         * @param layer the layer
+         */
+        LayerParts(Layer layer) {
+            Style style =
+                    (layer instanceof FeatureLayer) ? ((FeatureLayer) layer).getStyle() : null;
+            if (LabelStyleSplitter.hasLabels(style) && LabelStyleSplitter.canSplit(style)) {
+                FeatureLayer featureLayer = (FeatureLayer) layer;
+                Style geometryStyle = LabelStyleSplitter.getGeometryStyle(style);
+                tileLayer =
+                        (geometryStyle == null)
+                                ? null
+                                : StripedRenderer.createLayer(featureLayer, geometryStyle);
+                labelLayer =
+                        StripedRenderer.createLayer(
+                                featureLayer, LabelStyleSplitter.getLabelStyle(style));
+            } else {
+                tileLayer = layer;
+                labelLayer = null;
+            }
+        }
+    }
+
+    /** A tile being rendered on the map render pool. */
+    private static class TileRender {
+
+        /** The renderer, one per tile as renderers are not thread safe. */
+        private final StreamingRenderer tileRenderer;
+
+        /** The future. */
+        private Future<?> future = null;
+
+        /** The stopped flag, set when the render is cancelled. */
+        private volatile boolean stopped = false;
+
+        /**
+         * Instantiates a new tile render.
+         *
+         * @param tileRenderer the tile renderer
+         */
+        TileRender(StreamingRenderer tileRenderer) {
+            this.tileRenderer = tileRenderer;
+        }
+
+        /** Stop rendering the tile. */
+        void stop() {
+            stopped = true;
+            tileRenderer.stopRendering();
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
     /** Creates a new map pane. */
     public SLDMapPane() {
         this(null);
@@ -154,11 +310,58 @@ public class SLDMapPane extends AbstractMapPane {
             if (mapContent != null) {
                 newRenderer.setMapContent(mapContent);
             }
+
+            for (RenderListener listener : renderListenerList) {
+                newRenderer.addRenderListener(listener);
+            }
         }
 
         renderer = newRenderer;
     }
 
+    /**
+     * Adds a render listener, informed of features rendered and errors by all renderers used by
+     * the map pane.
+     *
+     * @param listener the listener
+     */
+    public void addRenderListener(RenderListener listener) {
+        if ((listener != null) && !renderListenerList.contains(listener)) {
+            renderListenerList.add(listener);
+            if (renderer != null) {
+                renderer.addRenderListener(listener);
+            }
+        }
+    }
+
+    /**
+     * Called when the style of all the layers has changed, cached tiles are discarded and tiles
+     * being rendered are stopped.
+     */
+    public void styleChanged() {
+        styleVersion.incrementAndGet();
+        stopRendering(Collections.emptySet());
+        stopLabelRendering();
+        tileCache.clear();
+        layerPartsMap.clear();
+    }
+
+    /**
+     * Layer changed, the style of a layer may have been updated in place so the layer is given a
+     * new key and its tiles are rendered again.
+     *
+     * @param event the event
+     */
+    @Override
+    public void layerChanged(MapLayerListEvent event) {
+        if (event.getLayer() != null) {
+            layerKeyMap.remove(event.getLayer());
+        } else {
+            styleChanged();
+        }
+        super.layerChanged(event);
+    }
+
     /**
      * Retrieve the map pane's current base image.
      *
@@ -188,6 +391,11 @@ public class SLDMapPane extends AbstractMapPane {
                 if (baseImage != null) {
                     Graphics2D g2 = (Graphics2D) g;
                     g2.drawImage(baseImage, imageOrigin.x, imageOrigin.y, null);
+
+                    BufferedImage labels = labelImage;
+                    if ((labels != null) && Objects.equals(labelImageKey, viewportLabelKey)) {
+                        g2.drawImage(labels, imageOrigin.x, imageOrigin.y, null);
+                    }
                 }
             } finally {
                 drawingLock.unlock();
@@ -226,6 +434,9 @@ public class SLDMapPane extends AbstractMapPane {
                             new RenderingHints(
                                     RenderingHints.KEY_ANTIALIASING,
                                     RenderingHints.VALUE_ANTIALIAS_ON));
+                    baseImageGraphics.setRenderingHint(
+                            RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
                     clearLabelCache.set(true);
 
                 } else {
@@ -234,8 +445,11 @@ public class SLDMapPane extends AbstractMapPane {
                 }
 
                 if (mapContent != null && !mapContent.layers().isEmpty()) {
-                    getRenderingExecutor()
-                            .submit(mapContent, getRenderer(), baseImageGraphics, this);
+                    drawTiles();
+                } else {
+                    stopRendering(Collections.emptySet());
+                    stopLabelRendering();
+                    viewportLabelKey = null;
                 }
             }
         } finally {
@@ -243,8 +457,527 @@ public class SLDMapPane extends AbstractMapPane {
         }
     }
 
+    /**
+     * Draw the tiles covering the viewport into the base image. Each layer is rendered into its
+     * own tiles which are composited in layer order, so when one layer changes the tiles of the
+     * other layers are reused. Tile positions where all layer tiles are cached are drawn
+     * immediately, missing layer tiles are rendered on the map render pool and the position is
+     * drawn once they are all available. Tiles being rendered that are no longer required are
+     * stopped. The labels are rendered over the whole viewport once all the tiles are requested.
+     */
+    private void drawTiles() {
+        AffineTransform worldToScreen = getWorldToScreenTransform();
+        ReferencedEnvelope displayArea = getDisplayArea();
+        if ((worldToScreen == null) || (displayArea == null) || displayArea.isEmpty()) {
+            return;
+        }
+
+        int zoomLevel = MapTileCache.getZoomLevel(1.0 / Math.abs(worldToScreen.getScaleX()));
+        double tileResolution = MapTileCache.getResolution(zoomLevel);
+        double tileWorldSize = MapTileCache.TILE_SIZE * tileResolution;
+
+        long minTileX = (long) Math.floor(displayArea.getMinX() / tileWorldSize);
+        long maxTileX = (long) Math.floor(displayArea.getMaxX() / tileWorldSize);
+        long minTileY = (long) Math.floor(displayArea.getMinY() / tileWorldSize);
+        long maxTileY = (long) Math.floor(displayArea.getMaxY() / tileWorldSize);
+
+        long version = styleVersion.get();
+        List<LayerParts> layerList = new ArrayList<>();
+        List<String> layerKeyList = new ArrayList<>();
+        List<Layer> labelLayerList = new ArrayList<>();
+        for (Layer layer : mapContent.layers()) {
+            if (layer.isVisible()) {
+                String layerKey = getLayerKey(layer);
+                LayerParts layerParts =
+                        layerPartsMap.computeIfAbsent(layerKey, k -> new LayerParts(layer));
+                layerList.add(layerParts);
+                layerKeyList.add(layerKey);
+                if (layerParts.labelLayer != null) {
+                    labelLayerList.add(layerParts.labelLayer);
+                }
+            }
+        }
+        layerPartsMap.keySet().retainAll(layerKeyList);
+
+        Set<TileKey> tileSet = new HashSet<>();
+        for (long tileY = maxTileY; tileY >= minTileY; tileY--) {
+            for (long tileX = minTileX; tileX <= maxTileX; tileX++) {
+                for (String layerKey : layerKeyList) {
+                    tileSet.add(new TileKey(version, layerKey, zoomLevel, tileX, tileY));
+                }
+            }
+        }
+        viewportTileSet = tileSet;
+        viewportLayerKeyList = layerKeyList;
+
+        // Every layer has its own tiles, keep room for the viewport and the tiles around it
+        tileCache.setMaxTiles(
+                Math.max(MapTileCache.DEFAULT_MAX_TILES, VIEWPORT_CACHE_FACTOR * tileSet.size()));
+
+        // Stop rendering tiles that have scrolled out of view or are for an old style
+        stopRendering(tileSet);
+
+        for (long tileY = maxTileY; tileY >= minTileY; tileY--) {
+            for (long tileX = minTileX; tileX <= maxTileX; tileX++) {
+                boolean complete = true;
+                for (int index = 0; index < layerList.size(); index++) {
+                    TileKey key =
+                            new TileKey(version, layerKeyList.get(index), zoomLevel, tileX, tileY);
+                    if (tileCache.get(key) == null) {
+                        complete = false;
+                        if (!inFlightMap.containsKey(key)) {
+                            renderTile(
+                                    key,
+                                    layerList.get(index).tileLayer,
+                                    displayArea,
+                                    tileResolution);
+                        }
+                    }
+                }
+
+                if (complete) {
+                    drawTile(version, zoomLevel, tileX, tileY, worldToScreen);
+                }
+            }
+        }
+
+        drawLabels(version, layerKeyList, labelLayerList, worldToScreen);
+    }
+
+    /**
+     * Render the labels of all the layers over the whole viewport on the map render pool, using
+     * a single label cache so labels do not conflict across tile edges. The labels are drawn over
+     * the base image once rendered.
+     *
+     * @param version the style version
+     * @param layerKeyList the layer key list
+     * @param labelLayerList the layers containing labels
+     * @param worldToScreen the world to screen transform
+     */
+    private void drawLabels(
+            long version,
+            List<String> layerKeyList,
+            List<Layer> labelLayerList,
+            AffineTransform worldToScreen) {
+        Rectangle screenArea = new Rectangle(getVisibleRect().getSize());
+        ReferencedEnvelope mapArea = getDisplayArea();
+        List<Object> labelKey =
+                Arrays.asList(version, layerKeyList, mapArea, screenArea, worldToScreen);
+        viewportLabelKey = labelKey;
+
+        if (labelLayerList.isEmpty()) {
+            stopLabelRendering();
+            labelImage = null;
+            labelImageKey = null;
+            return;
+        }
+
+        if (labelKey.equals(labelImageKey) || labelKey.equals(labelRenderKey)) {
+            return;
+        }
+
+        stopLabelRendering();
+
+        TileRender render = new TileRender(createTileRenderer());
+        AffineTransform transform = new AffineTransform(worldToScreen);
+        labelRender = render;
+        labelRenderKey = labelKey;
+        render.future =
+                TaskManager.getInstance()
+                        .submit(
+                                TaskManager.MAP_POOL,
+                                () -> {
+                                    BufferedImage image =
+                                            paintLayers(
+                                                    render,
+                                                    labelLayerList,
+                                                    screenArea,
+                                                    mapArea,
+                                                    transform);
+                                    if (image != null) {
+                                        SwingUtilities.invokeLater(
+                                                () -> labelsRendered(render, labelKey, image));
+                                    }
+                                });
+    }
+
+    /**
+     * Called on the event dispatch thread when the labels have been rendered.
+     *
+     * @param render the label render
+     * @param labelKey the label key
+     * @param image the label image
+     */
+    private void labelsRendered(TileRender render, List<Object> labelKey, BufferedImage image) {
+        if (labelRender == render) {
+            labelRender = null;
+            labelRenderKey = null;
+        }
+
+        if (labelKey.equals(viewportLabelKey)) {
+            labelImage = image;
+            labelImageKey = labelKey;
+            repaint();
+        }
+    }
+
+    /**
+     * Paint layers into a new image, called on the map render pool.
+     *
+     * @param render the render
+     * @param layerList the layer list
+     * @param screenArea the screen area
+     * @param mapArea the map area
+     * @param worldToScreen the world to screen transform
+     * @return the image, null if rendering was stopped
+     */
+    private static BufferedImage paintLayers(
+            TileRender render,
+            List<Layer> layerList,
+            Rectangle screenArea,
+            ReferencedEnvelope mapArea,
+            AffineTransform worldToScreen) {
+        if (render.stopped) {
+            return null;
+        }
+
+        BufferedImage image =
+                new BufferedImage(
+                        screenArea.width, screenArea.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // The layers are removed, not disposed, as they are still displayed by the map pane
+        MapContent content = new MapContent();
+        for (Layer layer : layerList) {
+            content.addLayer(layer);
+        }
+        try {
+            render.tileRenderer.setMapContent(content);
+            render.tileRenderer.paint(graphics, screenArea, mapArea, worldToScreen);
+        } catch (RuntimeException e) {
+            ConsoleManager.getInstance().exception(SLDMapPane.class, e);
+            return null;
+        } finally {
+            graphics.dispose();
+            for (Layer layer : layerList) {
+                content.removeLayer(layer);
+            }
+        }
+
+        if (render.stopped || Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+        return image;
+    }
+
+    /** Stop rendering the labels. */
+    private void stopLabelRendering() {
+        if (labelRender != null) {
+            labelRender.stop();
+            labelRender = null;
+            labelRenderKey = null;
+        }
+    }
+
+    /**
+     * Gets the key identifying a layer, a new key is assigned when the layer changes.
+     *
+     * @param layer the layer
+     * @return the layer key
+     */
+    private String getLayerKey(Layer layer) {
+        return layerKeyMap.computeIfAbsent(
+                layer, l -> Long.toString(layerKeyCounter.incrementAndGet()));
+    }
+
+    /**
+     * Draw the layer tiles at a tile position into the base image, in layer order, at their
+     * position in the current viewport.
+     *
+     * @param version the style version
+     * @param zoomLevel the zoom level
+     * @param tileX the tile X index
+     * @param tileY the tile Y index
+     * @param worldToScreen the world to screen transform
+     * @return true, if all layer tiles were available and drawn
+     */
+    private boolean drawTile(
+            long version, int zoomLevel, long tileX, long tileY, AffineTransform worldToScreen) {
+        List<BufferedImage> layerTileList = new ArrayList<>();
+        for (String layerKey : viewportLayerKeyList) {
+            BufferedImage tile =
+                    tileCache.get(new TileKey(version, layerKey, zoomLevel, tileX, tileY));
+            if (tile == null) {
+                return false;
+            }
+            layerTileList.add(tile);
+        }
+
+        double tileWorldSize = MapTileCache.TILE_SIZE * MapTileCache.getResolution(zoomLevel);
+
+        Point2D topLeft =
+                worldToScreen.transform(
+                        new Point2D.Double(tileX * tileWorldSize, (tileY + 1) * tileWorldSize),
+                        null);
+        Point2D bottomRight =
+                worldToScreen.transform(
+                        new Point2D.Double((tileX + 1) * tileWorldSize, tileY * tileWorldSize),
+                        null);
+
+        int x = (int) Math.round(topLeft.getX());
+        int y = (int) Math.round(topLeft.getY());
+        int width = (int) Math.round(bottomRight.getX()) - x;
+        int height = (int) Math.round(bottomRight.getY()) - y;
+
+        // Clear the position so the layer tiles are only ever composited once
+        baseImageGraphics.setBackground(getBackground());
+        baseImageGraphics.clearRect(x, y, width, height);
+        for (BufferedImage tile : layerTileList) {
+            baseImageGraphics.drawImage(tile, x, y, width, height, null);
+        }
+        return true;
+    }
+
+    /**
+     * Render a layer tile on the map render pool, the tile is cached and drawn when complete.
+     *
+     * @param key the key
+     * @param layer the layer
+     * @param displayArea the display area, supplies the coordinate reference system
+     * @param tileResolution the tile resolution
+     */
+    private void renderTile(
+            TileKey key, Layer layer, ReferencedEnvelope displayArea, double tileResolution) {
+        TileRender tileRender = new TileRender(createTileRenderer());
+        inFlightMap.put(key, tileRender);
+
+        tileRender.future =
+                TaskManager.getInstance()
+                        .submit(
+                                TaskManager.MAP_POOL,
+                                () -> {
+                                    try {
+                                        BufferedImage tile =
+                                                paintTile(
+                                                        tileRender,
+                                                        key,
+                                                        layer,
+                                                        displayArea,
+                                                        tileResolution);
+                                        if (tile != null) {
+                                            tileCache.put(key, tile);
+                                            SwingUtilities.invokeLater(() -> tileRendered(key));
+                                        }
+                                    } finally {
+                                        inFlightMap.remove(key, tileRender);
+                                    }
+                                });
+    }
+
+    /**
+     * Paint a layer tile, called on the map render pool. The tile is rendered with a gutter which
+     * is then discarded so symbols near the tile edges are not clipped.
+     *
+     * @param tileRender the tile render
+     * @param key the key
+     * @param layer the layer, null for a layer that only contains labels
+     * @param displayArea the display area
+     * @param tileResolution the tile resolution
+     * @return the tile, null if rendering was stopped
+     */
+    private static BufferedImage paintTile(
+            TileRender tileRender,
+            TileKey key,
+            Layer layer,
+            ReferencedEnvelope displayArea,
+            double tileResolution) {
+        if (tileRender.stopped) {
+            return null;
+        }
+
+        if (layer == null) {
+            // Layer only contains labels, which are not rendered in tiles
+            return new BufferedImage(
+                    MapTileCache.TILE_SIZE, MapTileCache.TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        double tileWorldSize = MapTileCache.TILE_SIZE * tileResolution;
+        double gutterWorldSize = TILE_GUTTER * tileResolution;
+        ReferencedEnvelope mapArea =
+                new ReferencedEnvelope(
+                        key.getTileX() * tileWorldSize - gutterWorldSize,
+                        (key.getTileX() + 1) * tileWorldSize + gutterWorldSize,
+                        key.getTileY() * tileWorldSize - gutterWorldSize,
+                        (key.getTileY() + 1) * tileWorldSize + gutterWorldSize,
+                        displayArea.getCoordinateReferenceSystem());
+
+        int size = MapTileCache.TILE_SIZE + 2 * TILE_GUTTER;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+
+        // The layer is removed, not disposed, as it is still displayed by the map pane
+        MapContent tileContent = new MapContent();
+        tileContent.addLayer(layer);
+        try {
+            tileRender.tileRenderer.setMapContent(tileContent);
+            tileRender.tileRenderer.paint(graphics, new Rectangle(0, 0, size, size), mapArea);
+        } catch (RuntimeException e) {
+            ConsoleManager.getInstance().exception(SLDMapPane.class, e);
+            return null;
+        } finally {
+            graphics.dispose();
+            tileContent.removeLayer(layer);
+        }
+
+        if (tileRender.stopped || Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        BufferedImage tile =
+                new BufferedImage(
+                        MapTileCache.TILE_SIZE,
+                        MapTileCache.TILE_SIZE,
+                        BufferedImage.TYPE_INT_ARGB);
+        Graphics2D tileGraphics = tile.createGraphics();
+        tileGraphics.drawImage(image, -TILE_GUTTER, -TILE_GUTTER, null);
+        tileGraphics.dispose();
+
+        return tile;
+    }
+
+    /**
+     * Called on the event dispatch thread when a layer tile has been rendered, draws the tile
+     * position if it is still in the viewport and all its layer tiles are available. If the base
+     * image is being redrawn the tile is queued and drawn shortly afterwards. Layer tiles of the
+     * position that have been evicted from the cache are rendered again.
+     *
+     * @param key the key
+     */
+    private void tileRendered(TileKey key) {
+        if (!viewportTileSet.contains(key) || (baseImageGraphics == null)) {
+            return;
+        }
+
+        AffineTransform worldToScreen = getWorldToScreenTransform();
+        if (worldToScreen == null) {
+            return;
+        }
+
+        if (!drawingLock.tryLock()) {
+            pendingTileSet.add(key);
+            if (pendingTileTimer == null) {
+                pendingTileTimer = new Timer(PENDING_TILE_DELAY, e -> drawPendingTiles());
+                pendingTileTimer.setRepeats(false);
+            }
+            pendingTileTimer.restart();
+            return;
+        }
+
+        boolean drawn = false;
+        try {
+            drawn =
+                    drawTile(
+                            key.getStyleVersion(),
+                            key.getZoomLevel(),
+                            key.getTileX(),
+                            key.getTileY(),
+                            worldToScreen);
+        } finally {
+            drawingLock.unlock();
+        }
+
+        if (drawn) {
+            repaint();
+        } else {
+            renderMissingTiles(key);
+        }
+    }
+
+    /**
+     * Render the layer tiles of a tile position that are not cached or being rendered.
+     *
+     * @param key the key of a layer tile at the position
+     */
+    private void renderMissingTiles(TileKey key) {
+        ReferencedEnvelope displayArea = getDisplayArea();
+        if (displayArea == null) {
+            return;
+        }
+
+        double tileResolution = MapTileCache.getResolution(key.getZoomLevel());
+        for (String layerKey : viewportLayerKeyList) {
+            TileKey layerTileKey =
+                    new TileKey(
+                            key.getStyleVersion(),
+                            layerKey,
+                            key.getZoomLevel(),
+                            key.getTileX(),
+                            key.getTileY());
+            LayerParts layerParts = layerPartsMap.get(layerKey);
+            if ((layerParts != null)
+                    && (tileCache.get(layerTileKey) == null)
+                    && !inFlightMap.containsKey(layerTileKey)) {
+                renderTile(layerTileKey, layerParts.tileLayer, displayArea, tileResolution);
+            }
+        }
+    }
+
+    /** Draw the tiles rendered while the base image was locked. */
+    private void drawPendingTiles() {
+        List<TileKey> keyList = new ArrayList<>(pendingTileSet);
+        pendingTileSet.clear();
+        for (TileKey key : keyList) {
+            tileRendered(key);
+        }
+    }
+
+    /**
+     * Creates a renderer for a single tile, configured like the map pane renderer but with its
+     * own label cache.
+     *
+     * @return the streaming renderer
+     */
+    private StreamingRenderer createTileRenderer() {
+        GTRenderer mainRenderer = getRenderer();
+
+        StreamingRenderer tileRenderer = new StreamingRenderer();
+        Map<Object, Object> hints = new HashMap<>();
+        if (mainRenderer.getRendererHints() != null) {
+            hints.putAll(mainRenderer.getRendererHints());
+        }
+        hints.remove(StreamingRenderer.LABEL_CACHE_KEY);
+        tileRenderer.setRendererHints(hints);
+        if (mainRenderer.getJava2DHints() != null) {
+            tileRenderer.setJava2DHints(mainRenderer.getJava2DHints());
+        }
+
+        for (RenderListener listener : renderListenerList) {
+            tileRenderer.addRenderListener(listener);
+        }
+        return tileRenderer;
+    }
+
+    /**
+     * Stop rendering tiles.
+     *
+     * @param keepSet the tiles to keep rendering
+     */
+    private void stopRendering(Set<TileKey> keepSet) {
+        Iterator<Map.Entry<TileKey, TileRender>> iterator = inFlightMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TileKey, TileRender> entry = iterator.next();
+            if (!keepSet.contains(entry.getKey())) {
+                entry.getValue().stop();
+                iterator.remove();
+            }
+        }
+    }
+
     /** Reset renderer. */
     public void resetRenderer() {
+        styleChanged();
         if (renderingExecutor != null) {
             renderingExecutor.shutdown();
         }
@@ -0,0 +1,243 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleFactory;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+
+/**
+ * Splits a style into one render layer per feature type style, so that when the style is edited
+ * only the layers whose feature type style has changed need to be rendered again.
+ *
+ * <p>A snapshot of each feature type style is kept with the layer created for it. When the style
+ * is updated, a layer is reused if its snapshot is equal to the current feature type style,
+ * otherwise a new layer is created by the supplied factory. Layers are returned in feature type
+ * style order and can be composited to produce the same result as rendering the whole style.
+ *
+ * <p>Styles that blend feature type styles together (composite and sortByGroup vendor options)
+ * cannot be rendered as separate layers and are returned as a single layer.
+ *
+ * @param <T> the type of render layer
+ * @author Robert Ward (SCISYS)
+ */
+public class FeatureTypeStyleLayerCache<T> {
+
+    /** The Constant COMPOSITE. */
+    private static final String COMPOSITE = "composite";
+
+    /** The Constant COMPOSITE_BASE. */
+    private static final String COMPOSITE_BASE = "composite-base";
+
+    /** The Constant SORT_BY_GROUP. */
+    private static final String SORT_BY_GROUP = "sortByGroup";
+
+    /** The style factory. */
+    private static StyleFactory styleFactory = CommonFactoryFinder.getStyleFactory();
+
+    /** A render layer and the snapshot of the style it was created from. */
+    private static class CachedLayer<T> {
+
+        /** The snapshot, a copy of the feature type style or whole style. */
+        private final Object snapshot;
+
+        /** The layer. */
+        private final T layer;
+
+        /**
+         * Instantiates a new cached layer.
+         *
+         * @param snapshot the snapshot
+         * @param layer the layer
+         */
+        CachedLayer(Object snapshot, T layer) {
+            this.snapshot = snapshot;
+            this.layer = layer;
+        }
+    }
+
+    /** The cached layer list, in feature type style order. */
+    private List<CachedLayer<T>> cachedLayerList = new ArrayList<>();
+
+    /** The number of layers reused by the last update. */
+    private int reusedCount = 0;
+
+    /**
+     * Update the layers for the style.
+     *
+     * @param style the style
+     * @param layerFactory creates a render layer for a style containing a single feature type
+     *     style, or the whole style if it cannot be split
+     * @return the render layers in feature type style order
+     */
+    public synchronized List<T> update(Style style, Function<Style, T> layerFactory) {
+        List<CachedLayer<T>> previousList = cachedLayerList;
+        List<CachedLayer<T>> updatedList = new ArrayList<>();
+        reusedCount = 0;
+
+        if (style != null) {
+            if (canSplit(style)) {
+                for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+                    FeatureTypeStyle snapshot = copy(fts);
+                    updatedList.add(
+                            findOrCreate(
+                                    previousList,
+                                    snapshot,
+                                    () -> layerFactory.apply(createStyle(style, snapshot))));
+                }
+            } else {
+                Style snapshot = copy(style);
+                updatedList.add(
+                        findOrCreate(
+                                previousList, snapshot, () -> layerFactory.apply(snapshot)));
+            }
+        }
+
+        cachedLayerList = updatedList;
+
+        List<T> layerList = new ArrayList<>();
+        for (CachedLayer<T> cachedLayer : updatedList) {
+            layerList.add(cachedLayer.layer);
+        }
+        return layerList;
+    }
+
+    /**
+     * Find a previous layer created from an equal snapshot, or create a new one.
+     *
+     * @param previousList the previous list, matched layers are removed
+     * @param snapshot the snapshot
+     * @param creator creates the layer if no match is found
+     * @return the cached layer
+     */
+    private CachedLayer<T> findOrCreate(
+            List<CachedLayer<T>> previousList,
+            Object snapshot,
+            Supplier<T> creator) {
+        for (int index = 0; index < previousList.size(); index++) {
+            CachedLayer<T> previous = previousList.get(index);
+            if (previous.snapshot.equals(snapshot)) {
+                previousList.remove(index);
+                reusedCount++;
+                return previous;
+            }
+        }
+        return new CachedLayer<>(snapshot, creator.get());
+    }
+
+    /**
+     * Gets the number of layers reused by the last update.
+     *
+     * @return the reused count
+     */
+    public synchronized int getReusedCount() {
+        return reusedCount;
+    }
+
+    /** Discard all cached layers, e.g. when the data being rendered changes. */
+    public synchronized void clear() {
+        cachedLayerList = new ArrayList<>();
+        reusedCount = 0;
+    }
+
+    /**
+     * Checks whether the feature type styles in a style can be rendered as separate layers.
+     *
+     * @param style the style
+     * @return true, if the style can be split
+     */
+    public static boolean canSplit(Style style) {
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            if (hasBlendingOption(fts.getOptions())) {
+                return false;
+            }
+
+            for (Rule rule : fts.rules()) {
+                for (Symbolizer symbolizer : rule.symbolizers()) {
+                    if (hasBlendingOption(symbolizer.getOptions())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks for vendor options that blend with what has already been rendered.
+     *
+     * @param options the options
+     * @return true, if blending options are present
+     */
+    private static boolean hasBlendingOption(Map<String, String> options) {
+        return (options != null)
+                && (options.containsKey(COMPOSITE)
+                        || options.containsKey(COMPOSITE_BASE)
+                        || options.containsKey(SORT_BY_GROUP));
+    }
+
+    /**
+     * Creates a style containing a single feature type style.
+     *
+     * @param style the original style
+     * @param fts the feature type style
+     * @return the style
+     */
+    private static Style createStyle(Style style, FeatureTypeStyle fts) {
+        Style ftsStyle = styleFactory.createStyle();
+        ftsStyle.setName(style.getName());
+        ftsStyle.setDefault(style.isDefault());
+        ftsStyle.featureTypeStyles().add(fts);
+        return ftsStyle;
+    }
+
+    /**
+     * Take a deep copy of a style.
+     *
+     * @param style the style
+     * @return the copy
+     */
+    private static Style copy(Style style) {
+        DuplicatingStyleVisitor visitor = new DuplicatingStyleVisitor();
+        style.accept(visitor);
+        return (Style) visitor.getCopy();
+    }
+
+    /**
+     * Take a deep copy of a feature type style.
+     *
+     * @param fts the feature type style
+     * @return the copy
+     */
+    private static FeatureTypeStyle copy(FeatureTypeStyle fts) {
+        DuplicatingStyleVisitor visitor = new DuplicatingStyleVisitor();
+        fts.accept(visitor);
+        return (FeatureTypeStyle) visitor.getCopy();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render;
+
+import java.util.Iterator;
+import java.util.Map;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+
+/**
+ * Splits a style into the symbolizers that draw geometries and the text symbolizers that draw
+ * labels.
+ *
+ * <p>The geometry part can then be rendered in tiles or stripes in parallel, while the labels are
+ * rendered once over the whole map with a single label cache so that label conflicts are resolved
+ * across tile edges. Rules are kept, even if left without symbolizers, so that else filters still
+ * apply to the same features.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class LabelStyleSplitter {
+
+    /** The Constant LABEL_OBSTACLE. */
+    private static final String LABEL_OBSTACLE = "labelObstacle";
+
+    /** Private default constructor. */
+    private LabelStyleSplitter() {
+        // Private default constructor
+    }
+
+    /**
+     * Checks whether the labels can be rendered separately from the geometries. Styles that blend
+     * feature type styles together or use symbolizers as label obstacles cannot be split.
+     *
+     * @param style the style
+     * @return true, if the style can be split
+     */
+    public static boolean canSplit(Style style) {
+        if ((style == null) || !FeatureTypeStyleLayerCache.canSplit(style)) {
+            return false;
+        }
+
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            for (Rule rule : fts.rules()) {
+                for (Symbolizer symbolizer : rule.symbolizers()) {
+                    Map<String, String> options = symbolizer.getOptions();
+                    if ((options != null) && options.containsKey(LABEL_OBSTACLE)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the style contains any text symbolizers.
+     *
+     * @param style the style
+     * @return true, if the style has labels
+     */
+    public static boolean hasLabels(Style style) {
+        if (style != null) {
+            for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+                for (Rule rule : fts.rules()) {
+                    for (Symbolizer symbolizer : rule.symbolizers()) {
+                        if (symbolizer instanceof TextSymbolizer) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a copy of the style without text symbolizers.
+     *
+     * @param style the style
+     * @return the geometry style, null if there are no other symbolizers
+     */
+    public static Style getGeometryStyle(Style style) {
+        return filter(style, false);
+    }
+
+    /**
+     * Create a copy of the style containing only text symbolizers.
+     *
+     * @param style the style
+     * @return the label style, null if there are no text symbolizers
+     */
+    public static Style getLabelStyle(Style style) {
+        return filter(style, true);
+    }
+
+    /**
+     * Copy the style keeping either only the text symbolizers or only the other symbolizers.
+     * Feature type styles left without any symbolizers are removed.
+     *
+     * @param style the style
+     * @param keepLabels true to keep the text symbolizers, false to keep the others
+     * @return the style copy, null if no symbolizers are left
+     */
+    private static Style filter(Style style, boolean keepLabels) {
+        if (style == null) {
+            return null;
+        }
+
+        DuplicatingStyleVisitor visitor = new DuplicatingStyleVisitor();
+        style.accept(visitor);
+        Style copy = (Style) visitor.getCopy();
+
+        Iterator<FeatureTypeStyle> ftsIterator = copy.featureTypeStyles().iterator();
+        while (ftsIterator.hasNext()) {
+            FeatureTypeStyle fts = ftsIterator.next();
+            boolean hasSymbolizers = false;
+            for (Rule rule : fts.rules()) {
+                rule.symbolizers()
+                        .removeIf(
+                                symbolizer -> (symbolizer instanceof TextSymbolizer) != keepLabels);
+                hasSymbolizers |= !rule.symbolizers().isEmpty();
+            }
+
+            if (!hasSymbolizers) {
+                ftsIterator.remove();
+            }
+        }
+
+        return copy.featureTypeStyles().isEmpty() ? null : copy;
+    }
+}
@@ -26,18 +26,23 @@ import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDOutputInterface;
 import com.sldeditor.common.preferences.PrefManager;
 import com.sldeditor.common.preferences.iface.PrefUpdateInterface;
+import com.sldeditor.common.task.TaskManager;
 import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VendorOptionStatus;
 import com.sldeditor.common.vendoroption.VendorOptionUpdateInterface;
 import com.sldeditor.common.vendoroption.VersionData;
+import com.sldeditor.datasource.DataSourceConnectionListener;
 import com.sldeditor.datasource.DataSourceInterface;
 import com.sldeditor.datasource.DataSourceUpdatedInterface;
 import com.sldeditor.datasource.RenderSymbolInterface;
 import com.sldeditor.datasource.SLDEditorFile;
+import com.sldeditor.datasource.impl.DataSourceConnection;
+import com.sldeditor.datasource.impl.DataSourceConnectionStage;
 import com.sldeditor.datasource.impl.DataSourceFactory;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
 import com.sldeditor.filter.v2.envvar.EnvironmentVariableManager;
 import com.sldeditor.filter.v2.envvar.WMSEnvVarValues;
+import com.sldeditor.render.graphic.ExternalGraphicCache;
 import com.sldeditor.ui.render.RuleRenderOptions;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -52,6 +57,7 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -86,6 +92,7 @@ public class RenderPanelImpl extends JPanel
         implements RenderSymbolInterface,
                 PrefUpdateInterface,
                 DataSourceUpdatedInterface,
+                DataSourceConnectionListener,
                 VendorOptionUpdateInterface {
     /** The Constant serialVersionUID. */
     private static final long serialVersionUID = 1L;
@@ -146,9 +153,12 @@ public class RenderPanelImpl extends JPanel
     /** The data loaded. */
     private boolean dataLoaded = false;
 
-    /** The renderer. */
+    /** The renderer, used for raster data. */
     private transient GTRenderer renderer = new StreamingRenderer();
 
+    /** The striped renderer, renders vector data using all the available processors. */
+    private transient StripedRenderer stripedRenderer = new StripedRenderer();
+
     /** The geometry type. */
     private GeometryTypeEnum geometryType = GeometryTypeEnum.UNKNOWN;
 
@@ -167,6 +177,36 @@ public class RenderPanelImpl extends JPanel
     /** The vendor option string. */
     private String vendorOptionString = "";
 
+    /** The render scheduler, renders the symbol off the event dispatch thread. */
+    private transient RenderScheduler renderScheduler =
+            new RenderScheduler(TaskManager.PREVIEW_POOL);
+
+    /** The rendered image of each feature type style of the symbol. */
+    private transient FeatureTypeStyleLayerCache<FeatureTypeStyleImage> imageCache =
+            new FeatureTypeStyleLayerCache<>();
+
+    /** The parameters the cached images were rendered with. */
+    private transient List<Object> imageCacheKey = null;
+
+    /** The image rendered for a single feature type style. */
+    private static class FeatureTypeStyleImage {
+
+        /** The style containing the feature type style. */
+        private final Style style;
+
+        /** The rendered image, null until rendered. */
+        private BufferedImage image = null;
+
+        /**
+         * Instantiates a new feature type style image.
+         *
+         * @param style the style
+         */
+        FeatureTypeStyleImage(Style style) {
+            this.style = style;
+        }
+    }
+
     /** Instantiates a new render panel. */
     public RenderPanelImpl() {
 
@@ -180,6 +220,7 @@ public class RenderPanelImpl extends JPanel
         VendorOptionManager.getInstance().addVendorOptionListener(this);
 
         renderer.addRenderListener(RendererErrors.getInstance());
+        stripedRenderer.addRenderListener(RendererErrors.getInstance());
     }
 
     /**
@@ -281,41 +322,82 @@ public class RenderPanelImpl extends JPanel
         if (!underTest) {
             createFeature();
 
-            Rectangle imageSize = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+            final Rectangle imageSize = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+            final FeatureSource<SimpleFeatureType, SimpleFeature> features = featureList;
+            final boolean useAntiAliasFlag = useAntiAlias;
 
             switch (geometryType) {
                 case RASTER:
-                    renderRasterMap(imageSize, style, DPI);
+                    DataSourceInterface dataSource = DataSourceFactory.getDataSource();
+                    final AbstractGridCoverage2DReader gridCoverage =
+                            dataSource.getGridCoverageReader();
+                    if (gridCoverage == null) {
+                        validSymbol = false;
+                    }
+                    final boolean hasGeometry = validSymbol;
+                    renderScheduler.submit(
+                            () ->
+                                    renderRasterMap(
+                                            gridCoverage,
+                                            imageSize,
+                                            ExternalGraphicCache.getInstance().localise(style),
+                                            DPI,
+                                            hasGeometry,
+                                            useAntiAliasFlag),
+                            image -> renderComplete(image));
                     break;
                 case POINT:
                 case LINE:
                 case POLYGON:
-                    renderVectorMap(featureList, imageSize, style, DPI);
+                    renderScheduler.submit(
+                            () ->
+                                    renderVectorMap(
+                                            features,
+                                            imageSize,
+                                            ExternalGraphicCache.getInstance().localise(style),
+                                            DPI,
+                                            useAntiAliasFlag),
+                            image -> renderComplete(image));
                     break;
                 default:
+                    renderScheduler.cancel();
                     validSymbol = false;
+                    repaint();
                     break;
             }
+        }
+    }
 
-            repaint();
+    /**
+     * Called on the event dispatch thread when a render has completed.
+     *
+     * @param image the rendered image, null if nothing was rendered
+     */
+    private void renderComplete(BufferedImage image) {
+        if (image != null) {
+            this.bImage = image;
         }
+        repaint();
     }
 
     /**
      * Render raster map.
      *
+     * @param gridCoverage the grid coverage
      * @param imageSize the image size
      * @param style the style
      * @param dpi the dpi
+     * @param hasGeometry the has geometry flag
+     * @param useAntiAliasFlag the use anti alias flag
+     * @return the rendered image, null if nothing was rendered
      */
-    private void renderRasterMap(Rectangle imageSize, Style style, int dpi) {
-        DataSourceInterface dataSource = DataSourceFactory.getDataSource();
-        AbstractGridCoverage2DReader gridCoverage = dataSource.getGridCoverageReader();
-
-        if (gridCoverage == null) {
-            validSymbol = false;
-        }
-
+    private synchronized BufferedImage renderRasterMap(
+            AbstractGridCoverage2DReader gridCoverage,
+            Rectangle imageSize,
+            Style style,
+            int dpi,
+            boolean hasGeometry,
+            boolean useAntiAliasFlag) {
         GridReaderLayer rasterLayer = null;
         MapViewport viewport = null;
         List<Layer> layerList = new ArrayList<>();
@@ -325,8 +407,7 @@ public class RenderPanelImpl extends JPanel
             viewport = new MapViewport(rasterLayer.getBounds());
         }
 
-        boolean hasGeometry = validSymbol;
-
+        BufferedImage renderedImage = null;
         MapContent map = new MapContent();
         map.addLayers(layerList);
         map.setViewport(viewport);
@@ -345,7 +426,7 @@ public class RenderPanelImpl extends JPanel
                             imageSize.width, imageSize.height, BufferedImage.TYPE_INT_ARGB);
             Graphics2D graphics = image.createGraphics();
 
-            if (useAntiAlias) {
+            if (useAntiAliasFlag) {
                 graphics.setRenderingHints(
                         new RenderingHints(
                                 RenderingHints.KEY_ANTIALIASING,
@@ -368,7 +449,7 @@ public class RenderPanelImpl extends JPanel
                         renderer.paint(graphics, imageSize, bounds);
                     }
 
-                    this.bImage = image;
+                    renderedImage = image;
                 }
             } finally {
                 graphics.dispose();
@@ -376,6 +457,7 @@ public class RenderPanelImpl extends JPanel
         } finally {
             map.dispose();
         }
+        return renderedImage;
     }
 
     /**
@@ -385,23 +467,20 @@ public class RenderPanelImpl extends JPanel
      * @param imageSize the image size
      * @param style the style
      * @param dpi the dpi
+     * @param useAntiAliasFlag the use anti alias flag
+     * @return the rendered image, null if nothing was rendered
      */
-    private void renderVectorMap(
+    private synchronized BufferedImage renderVectorMap(
             FeatureSource<SimpleFeatureType, SimpleFeature> features,
             Rectangle imageSize,
             Style style,
-            int dpi) {
-        List<Layer> layerList = new ArrayList<>();
-        if (style != null) {
-            FeatureLayer featureLayer = new FeatureLayer(features, style);
-            layerList.add(featureLayer);
-        }
-
+            int dpi,
+            boolean useAntiAliasFlag) {
         boolean hasGeometry = false;
         ReferencedEnvelope bounds = null;
 
         if (features != null) {
-            bounds = calculateBounds();
+            bounds = calculateBounds(features);
 
             wmsEnvVarValues.setMapBounds(bounds);
 
@@ -412,23 +491,92 @@ public class RenderPanelImpl extends JPanel
             }
         }
 
-        internalRenderMap(layerList, bounds, imageSize, hasGeometry, dpi);
+        if ((style == null) || !hasGeometry) {
+            imageCache.clear();
+            return internalRenderMap(
+                    new ArrayList<>(), bounds, imageSize, hasGeometry, dpi, useAntiAliasFlag);
+        }
+
+        // Only feature type styles that have changed since the last render are rendered again,
+        // environment variable values can change the output of an unchanged style
+        List<Object> renderKey =
+                Arrays.asList(
+                        features,
+                        bounds,
+                        imageSize,
+                        dpi,
+                        useAntiAliasFlag,
+                        EnvironmentVariableManager.getInstance().getEnvVarList());
+        if (!renderKey.equals(imageCacheKey)) {
+            imageCache.clear();
+            imageCacheKey = renderKey;
+        }
+
+        // Labels are drawn last, over the geometries of all the feature type styles
+        Style geometryStyle = style;
+        Style labelStyle = null;
+        if (LabelStyleSplitter.hasLabels(style) && LabelStyleSplitter.canSplit(style)) {
+            geometryStyle = LabelStyleSplitter.getGeometryStyle(style);
+            labelStyle = LabelStyleSplitter.getLabelStyle(style);
+        }
+
+        List<FeatureTypeStyleImage> ftsImageList = new ArrayList<>();
+        if (geometryStyle != null) {
+            ftsImageList = imageCache.update(geometryStyle, FeatureTypeStyleImage::new);
+        } else {
+            imageCache.clear();
+        }
+
+        BufferedImage renderedImage =
+                new BufferedImage(imageSize.width, imageSize.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = renderedImage.createGraphics();
+        try {
+            for (FeatureTypeStyleImage ftsImage : ftsImageList) {
+                if (ftsImage.image == null) {
+                    List<Layer> layerList = new ArrayList<>();
+                    layerList.add(new FeatureLayer(features, ftsImage.style));
+                    ftsImage.image =
+                            internalRenderMap(
+                                    layerList, bounds, imageSize, true, dpi, useAntiAliasFlag);
+                }
+
+                if (ftsImage.image != null) {
+                    graphics.drawImage(ftsImage.image, 0, 0, null);
+                }
+            }
+
+            if (labelStyle != null) {
+                List<Layer> layerList = new ArrayList<>();
+                layerList.add(new FeatureLayer(features, labelStyle));
+                BufferedImage labelImage =
+                        internalRenderMap(
+                                layerList, bounds, imageSize, true, dpi, useAntiAliasFlag);
+                if (labelImage != null) {
+                    graphics.drawImage(labelImage, 0, 0, null);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return renderedImage;
     }
 
     /**
      * Calculate bounds.
      *
+     * @param features the features
      * @return the referenced envelope
      */
-    private ReferencedEnvelope calculateBounds() {
+    private ReferencedEnvelope calculateBounds(
+            FeatureSource<SimpleFeatureType, SimpleFeature> features) {
         ReferencedEnvelope bounds = null;
 
         try {
-            bounds = featureList.getBounds();
+            bounds = features.getBounds();
 
             if (bounds == null) {
                 // It could be that the above call was too costly!
-                bounds = featureList.getFeatures().getBounds();
+                bounds = features.getFeatures().getBounds();
             }
 
             if (bounds.getCoordinateReferenceSystem() == null) {
@@ -488,31 +636,31 @@ public class RenderPanelImpl extends JPanel
      * @param imageSize the image size
      * @param hasGeometry the has geometry
      * @param dpi the dpi
+     * @param useAntiAliasFlag the use anti alias flag
+     * @return the rendered image, null if nothing was rendered
      */
-    private void internalRenderMap(
+    private BufferedImage internalRenderMap(
             List<Layer> layers,
             ReferencedEnvelope bounds,
             Rectangle imageSize,
             boolean hasGeometry,
-            int dpi) {
-        MapContent map = new MapContent();
-        map.addLayers(layers);
+            int dpi,
+            boolean useAntiAliasFlag) {
+        BufferedImage renderedImage = null;
         try {
             Map<Object, Object> hints = new HashMap<>();
             if (OVERRIDE_DPI) {
                 hints.put(StreamingRenderer.DPI_KEY, dpi);
             }
-            // This ensures all the labelling is cleared
-            hints.put(StreamingRenderer.LABEL_CACHE_KEY, new LabelCacheImpl());
 
-            renderer.setRendererHints(hints);
-            renderer.setMapContent(map);
+            // Each render uses new label caches so all the labelling is cleared
+            stripedRenderer.setRendererHints(hints);
             BufferedImage image =
                     new BufferedImage(
                             imageSize.width, imageSize.height, BufferedImage.TYPE_INT_ARGB);
             Graphics2D graphics = image.createGraphics();
 
-            if (useAntiAlias) {
+            if (useAntiAliasFlag) {
                 graphics.setRenderingHints(
                         new RenderingHints(
                                 RenderingHints.KEY_ANTIALIASING,
@@ -530,16 +678,19 @@ public class RenderPanelImpl extends JPanel
                             10,
                             y - 14);
                 } else {
-                    renderer.paint(graphics, imageSize, bounds);
+                    stripedRenderer.paint(graphics, imageSize, bounds, layers);
 
-                    this.bImage = image;
+                    renderedImage = image;
                 }
             } finally {
                 graphics.dispose();
             }
         } finally {
-            map.dispose();
+            for (Layer layer : layers) {
+                layer.dispose();
+            }
         }
+        return renderedImage;
     }
 
     /** Creates the feature. */
@@ -644,6 +795,37 @@ public class RenderPanelImpl extends JPanel
         // Does nothing
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionStageStarted(com.
+     * sldeditor.datasource.impl.DataSourceConnection,
+     * com.sldeditor.datasource.impl.DataSourceConnectionStage)
+     */
+    @Override
+    public void connectionStageStarted(
+            DataSourceConnection connection, DataSourceConnectionStage stage) {
+        if (stage == DataSourceConnectionStage.CONNECT) {
+            // Any render in progress is of the data source being replaced
+            renderScheduler.cancel();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionCompleted(com.
+     * sldeditor.datasource.impl.DataSourceConnection)
+     */
+    @Override
+    public void connectionCompleted(DataSourceConnection connection) {
+        if (connection.getStatus() != DataSourceConnection.Status.COMPLETED) {
+            // Data source not loaded, render the symbol without it
+            this.geometryType = DataSourceFactory.getDataSource().getGeometryType();
+            renderSymbol();
+        }
+    }
+
     /**
      * Sets the under test flag.
      *
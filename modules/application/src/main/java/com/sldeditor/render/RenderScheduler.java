@@ -0,0 +1,152 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.task.TaskManager;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Schedules render requests on a task manager pool so that the Swing event dispatch thread is
+ * not blocked while a style is being rendered.
+ *
+ * <p>Each request is given a version number, only the most recently submitted request is ever
+ * rendered. Requests that are superseded before they start are dropped and results of requests
+ * that are superseded while rendering are discarded. The result of the latest request is handed
+ * back on the event dispatch thread. The requests of a scheduler are rendered one at a time, even
+ * if the pool is shared with other schedulers.
+ *
+ * <p>Requests made off the event dispatch thread (e.g. unit tests, headless operation) are
+ * rendered immediately on the calling thread.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RenderScheduler {
+
+    /** The name of the task manager pool the requests are rendered on. */
+    private final String poolName;
+
+    /** The latest version submitted. */
+    private final AtomicLong latestVersion = new AtomicLong(0);
+
+    /** The request waiting to be rendered, null if there is none. */
+    private final AtomicReference<Runnable> pendingRequest = new AtomicReference<>();
+
+    /** The scheduled flag, set while a request is queued or rendering on the pool. */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Instantiates a new render scheduler.
+     *
+     * @param poolName the name of the task manager pool the requests are rendered on
+     */
+    public RenderScheduler(String poolName) {
+        this.poolName = poolName;
+    }
+
+    /**
+     * Submit a render request, any previously submitted request that has not yet completed is
+     * superseded.
+     *
+     * @param <T> the type of the render result
+     * @param renderJob the render job, called on the render pool
+     * @param onComplete called on the event dispatch thread with the render result
+     * @return the version assigned to the request
+     */
+    public <T> long submit(Supplier<T> renderJob, Consumer<T> onComplete) {
+        final long version = latestVersion.incrementAndGet();
+
+        if (!SwingUtilities.isEventDispatchThread()) {
+            onComplete.accept(renderJob.get());
+            return version;
+        }
+
+        pendingRequest.set(
+                () -> {
+                    if (!isCurrent(version)) {
+                        return;
+                    }
+
+                    T result;
+                    try {
+                        result = renderJob.get();
+                    } catch (RuntimeException e) {
+                        ConsoleManager.getInstance().exception(RenderScheduler.class, e);
+                        return;
+                    }
+
+                    SwingUtilities.invokeLater(
+                            () -> {
+                                if (isCurrent(version)) {
+                                    onComplete.accept(result);
+                                }
+                            });
+                });
+        schedulePendingRequest();
+
+        return version;
+    }
+
+    /** Submit the pending request to the pool unless a request is already queued or rendering. */
+    private void schedulePendingRequest() {
+        if ((pendingRequest.get() != null) && scheduled.compareAndSet(false, true)) {
+            TaskManager.getInstance().submit(poolName, this::renderPendingRequest);
+        }
+    }
+
+    /** Render the pending request, called on the pool. */
+    private void renderPendingRequest() {
+        try {
+            Runnable request = pendingRequest.getAndSet(null);
+            if (request != null) {
+                request.run();
+            }
+        } finally {
+            scheduled.set(false);
+            schedulePendingRequest();
+        }
+    }
+
+    /**
+     * Checks if the version is the latest one submitted.
+     *
+     * @param version the version
+     * @return true, if the version has not been superseded
+     */
+    public boolean isCurrent(long version) {
+        return version == latestVersion.get();
+    }
+
+    /** Drop any outstanding requests. */
+    public void cancel() {
+        latestVersion.incrementAndGet();
+    }
+
+    /** Shut down the scheduler, outstanding requests are dropped. */
+    public void shutdown() {
+        cancel();
+        pendingRequest.set(null);
+    }
+}
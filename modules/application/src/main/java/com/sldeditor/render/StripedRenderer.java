@@ -0,0 +1,426 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.task.TaskManager;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.Layer;
+import org.geotools.map.MapContent;
+import org.geotools.referencing.CRS;
+import org.geotools.renderer.RenderListener;
+import org.geotools.renderer.label.LabelCacheImpl;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.styling.Style;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Renders map layers using all the available processors.
+ *
+ * <p>The image is split into horizontal stripes which are rendered concurrently on the render
+ * pool, each with its own {@link StreamingRenderer} reading from the same feature sources. The
+ * feature sources must therefore support concurrent reads. The stripes share the same world to
+ * screen scale so they join without seams once composited. Each stripe is rendered with a gutter
+ * of extra rows above and below it, so symbols of features just outside the stripe are drawn
+ * rather than clipped at the stripe edge.
+ *
+ * <p>Labels are not rendered in the stripes as each stripe would resolve label conflicts on its
+ * own. Instead the text symbolizers are rendered in a final pass over the whole image with a
+ * single label cache. Styles that cannot be split (see {@link LabelStyleSplitter#canSplit}) and
+ * images too small to be worth splitting are rendered in a single pass.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StripedRenderer {
+
+    /** The Constant MIN_STRIPE_HEIGHT, images are not split into stripes thinner than this. */
+    public static final int MIN_STRIPE_HEIGHT = 64;
+
+    /** The Constant STRIPE_GUTTER, rows rendered around each stripe so symbols are not clipped. */
+    private static final int STRIPE_GUTTER = 32;
+
+    /** The renderer hints. */
+    private Map<Object, Object> rendererHints = new HashMap<>();
+
+    /** The java 2D hints. */
+    private RenderingHints java2DHints = null;
+
+    /** The maximum number of stripes. */
+    private int maxStripes = Runtime.getRuntime().availableProcessors();
+
+    /** The render listeners added to every renderer. */
+    private final List<RenderListener> renderListenerList = new CopyOnWriteArrayList<>();
+
+    /** The paint requests currently painting. */
+    private final List<PaintRequest> activeRequestList = new CopyOnWriteArrayList<>();
+
+    /** A single call to paint, stopping it does not affect later paint requests. */
+    private static class PaintRequest {
+
+        /** The renderers painting the request. */
+        private final List<StreamingRenderer> rendererList = new CopyOnWriteArrayList<>();
+
+        /** The stopped flag, set when rendering is stopped. */
+        private volatile boolean stopped = false;
+
+        /** Stop rendering, stripes not yet started are skipped. */
+        void stop() {
+            stopped = true;
+            for (StreamingRenderer renderer : rendererList) {
+                renderer.stopRendering();
+            }
+        }
+    }
+
+    /** Default constructor. */
+    public StripedRenderer() {
+        // Default constructor
+    }
+
+    /**
+     * Sets the renderer hints passed to every renderer, any label cache is ignored.
+     *
+     * @param rendererHints the renderer hints
+     */
+    public void setRendererHints(Map<Object, Object> rendererHints) {
+        this.rendererHints = new HashMap<>();
+        if (rendererHints != null) {
+            this.rendererHints.putAll(rendererHints);
+        }
+        this.rendererHints.remove(StreamingRenderer.LABEL_CACHE_KEY);
+    }
+
+    /**
+     * Sets the java 2D hints passed to every renderer.
+     *
+     * @param java2DHints the java 2D hints
+     */
+    public void setJava2DHints(RenderingHints java2DHints) {
+        this.java2DHints = java2DHints;
+    }
+
+    /**
+     * Sets the maximum number of stripes, 1 renders in a single pass.
+     *
+     * @param maxStripes the maximum number of stripes
+     */
+    public void setMaxStripes(int maxStripes) {
+        this.maxStripes = Math.max(1, maxStripes);
+    }
+
+    /**
+     * Adds a render listener, informed of features rendered and errors by every renderer.
+     *
+     * @param listener the listener
+     */
+    public void addRenderListener(RenderListener listener) {
+        if ((listener != null) && !renderListenerList.contains(listener)) {
+            renderListenerList.add(listener);
+        }
+    }
+
+    /**
+     * Gets the number of stripes an image is split into.
+     *
+     * @param height the image height
+     * @return the stripe count
+     */
+    public int getStripeCount(int height) {
+        return Math.max(1, Math.min(maxStripes, height / MIN_STRIPE_HEIGHT));
+    }
+
+    /** Stop all paint requests in progress, stripes not yet started are skipped. */
+    public void stopRendering() {
+        for (PaintRequest request : activeRequestList) {
+            request.stop();
+        }
+    }
+
+    /**
+     * Paint the layers, returns once the whole image has been painted.
+     *
+     * @param graphics the graphics to paint to
+     * @param paintArea the paint area
+     * @param mapArea the map area
+     * @param layerList the layers to paint
+     */
+    public void paint(
+            Graphics2D graphics,
+            Rectangle paintArea,
+            ReferencedEnvelope mapArea,
+            List<Layer> layerList) {
+        PaintRequest request = new PaintRequest();
+        activeRequestList.add(request);
+        try {
+            paint(request, graphics, paintArea, mapArea, layerList);
+        } finally {
+            activeRequestList.remove(request);
+        }
+    }
+
+    /**
+     * Paint the layers for a paint request.
+     *
+     * @param request the paint request
+     * @param graphics the graphics to paint to
+     * @param paintArea the paint area
+     * @param mapArea the map area
+     * @param layerList the layers to paint
+     */
+    private void paint(
+            PaintRequest request,
+            Graphics2D graphics,
+            Rectangle paintArea,
+            ReferencedEnvelope mapArea,
+            List<Layer> layerList) {
+        int stripeCount = getStripeCount(paintArea.height);
+
+        List<Layer> geometryLayerList = new ArrayList<>();
+        List<Layer> labelLayerList = new ArrayList<>();
+        if ((stripeCount < 2) || !splitLayers(layerList, geometryLayerList, labelLayerList)) {
+            paintLayers(request, graphics, paintArea, mapArea, layerList);
+            return;
+        }
+
+        RenderingHints graphicsHints = graphics.getRenderingHints();
+        List<Future<BufferedImage>> futureList = new ArrayList<>();
+        List<Integer> stripeTopList = new ArrayList<>();
+        int top = 0;
+        for (int index = 0; index < stripeCount; index++) {
+            final int stripeHeight = (paintArea.height - top) / (stripeCount - index);
+            final ReferencedEnvelope stripeArea =
+                    getStripeArea(
+                            mapArea,
+                            paintArea.height,
+                            top - STRIPE_GUTTER,
+                            top + stripeHeight + STRIPE_GUTTER);
+            stripeTopList.add(top);
+            futureList.add(
+                    TaskManager.getInstance()
+                            .submit(
+                                    TaskManager.RENDER_POOL,
+                                    () ->
+                                            paintStripe(
+                                                    request,
+                                                    paintArea.width,
+                                                    stripeHeight,
+                                                    stripeArea,
+                                                    geometryLayerList,
+                                                    graphicsHints)));
+            top += stripeHeight;
+        }
+
+        for (int index = 0; index < futureList.size(); index++) {
+            try {
+                BufferedImage stripe = futureList.get(index).get();
+                if (stripe != null) {
+                    graphics.drawImage(
+                            stripe, paintArea.x, paintArea.y + stripeTopList.get(index), null);
+                }
+            } catch (InterruptedException e) {
+                request.stop();
+                for (Future<BufferedImage> future : futureList) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                ConsoleManager.getInstance().exception(StripedRenderer.class, e);
+            }
+        }
+
+        if (!labelLayerList.isEmpty() && !request.stopped) {
+            paintLayers(request, graphics, paintArea, mapArea, labelLayerList);
+        }
+    }
+
+    /**
+     * Split the layers into layers without labels and layers containing only labels.
+     *
+     * @param layerList the layer list
+     * @param geometryLayerList populated with the layers to paint in stripes
+     * @param labelLayerList populated with the layers to paint over the whole image
+     * @return true, if the layers could be split
+     */
+    private static boolean splitLayers(
+            List<Layer> layerList, List<Layer> geometryLayerList, List<Layer> labelLayerList) {
+        for (Layer layer : layerList) {
+            if (layer instanceof FeatureLayer) {
+                FeatureLayer featureLayer = (FeatureLayer) layer;
+                Style style = featureLayer.getStyle();
+                if (!LabelStyleSplitter.hasLabels(style)) {
+                    geometryLayerList.add(layer);
+                } else if (LabelStyleSplitter.canSplit(style)) {
+                    Style geometryStyle = LabelStyleSplitter.getGeometryStyle(style);
+                    if (geometryStyle != null) {
+                        geometryLayerList.add(createLayer(featureLayer, geometryStyle));
+                    }
+                    labelLayerList.add(
+                            createLayer(featureLayer, LabelStyleSplitter.getLabelStyle(style)));
+                } else {
+                    return false;
+                }
+            } else {
+                geometryLayerList.add(layer);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a layer reading the same features as a feature layer with a different style.
+     *
+     * @param featureLayer the feature layer
+     * @param style the style
+     * @return the layer
+     */
+    public static FeatureLayer createLayer(FeatureLayer featureLayer, Style style) {
+        FeatureLayer layer =
+                new FeatureLayer(featureLayer.getFeatureSource(), style, featureLayer.getTitle());
+        layer.setQuery(featureLayer.getQuery());
+        layer.setVisible(featureLayer.isVisible());
+        return layer;
+    }
+
+    /**
+     * Paint a stripe of the image, called on the render pool.
+     *
+     * @param request the paint request
+     * @param width the stripe width
+     * @param height the stripe height, excluding the gutters
+     * @param stripeArea the map area covered by the stripe and its gutters
+     * @param layerList the layer list
+     * @param graphicsHints the rendering hints of the destination graphics
+     * @return the stripe image without the gutters, null if rendering was stopped
+     */
+    private BufferedImage paintStripe(
+            PaintRequest request,
+            int width,
+            int height,
+            ReferencedEnvelope stripeArea,
+            List<Layer> layerList,
+            RenderingHints graphicsHints) {
+        if (request.stopped || (height <= 0)) {
+            return null;
+        }
+
+        int paintHeight = height + 2 * STRIPE_GUTTER;
+        BufferedImage stripe = new BufferedImage(width, paintHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D stripeGraphics = stripe.createGraphics();
+        try {
+            stripeGraphics.setRenderingHints(graphicsHints);
+            paintLayers(
+                    request,
+                    stripeGraphics,
+                    new Rectangle(0, 0, width, paintHeight),
+                    stripeArea,
+                    layerList);
+        } finally {
+            stripeGraphics.dispose();
+        }
+        return request.stopped ? null : stripe.getSubimage(0, STRIPE_GUTTER, width, height);
+    }
+
+    /**
+     * Paint layers with a new renderer and label cache.
+     *
+     * @param request the paint request
+     * @param graphics the graphics
+     * @param paintArea the paint area
+     * @param mapArea the map area
+     * @param layerList the layer list
+     */
+    private void paintLayers(
+            PaintRequest request,
+            Graphics2D graphics,
+            Rectangle paintArea,
+            ReferencedEnvelope mapArea,
+            List<Layer> layerList) {
+        StreamingRenderer renderer = new StreamingRenderer();
+        Map<Object, Object> hints = new HashMap<>(rendererHints);
+        hints.put(StreamingRenderer.LABEL_CACHE_KEY, new LabelCacheImpl());
+        renderer.setRendererHints(hints);
+        if (java2DHints != null) {
+            renderer.setJava2DHints(java2DHints);
+        }
+        for (RenderListener listener : renderListenerList) {
+            renderer.addRenderListener(listener);
+        }
+
+        // Layers are removed, not disposed, as they may be shared with other renderers
+        MapContent mapContent = new MapContent();
+        for (Layer layer : layerList) {
+            mapContent.addLayer(layer);
+        }
+
+        request.rendererList.add(renderer);
+        try {
+            if (!request.stopped) {
+                renderer.setMapContent(mapContent);
+                renderer.paint(graphics, paintArea, mapArea);
+            }
+        } finally {
+            request.rendererList.remove(renderer);
+            for (Layer layer : layerList) {
+                mapContent.removeLayer(layer);
+            }
+        }
+    }
+
+    /**
+     * Gets the map area covered by a horizontal stripe of an image, taking into account
+     * coordinate reference systems with north/east axis order.
+     *
+     * @param mapArea the map area of the whole image
+     * @param height the height of the whole image
+     * @param top the top row of the stripe
+     * @param bottom the row below the bottom of the stripe
+     * @return the stripe map area
+     */
+    public static ReferencedEnvelope getStripeArea(
+            ReferencedEnvelope mapArea, int height, int top, int bottom) {
+        CoordinateReferenceSystem crs = mapArea.getCoordinateReferenceSystem();
+        boolean northEast = (crs != null) && (CRS.getAxisOrder(crs) == CRS.AxisOrder.NORTH_EAST);
+        int verticalAxis = northEast ? 0 : 1;
+
+        double max = mapArea.getMaximum(verticalAxis);
+        double resolution = (max - mapArea.getMinimum(verticalAxis)) / height;
+        double stripeMax = max - (top * resolution);
+        double stripeMin = max - (bottom * resolution);
+
+        if (northEast) {
+            return new ReferencedEnvelope(
+                    stripeMin, stripeMax, mapArea.getMinimum(1), mapArea.getMaximum(1), crs);
+        }
+        return new ReferencedEnvelope(
+                mapArea.getMinimum(0), mapArea.getMaximum(0), stripeMin, stripeMax, crs);
+    }
+}
@@ -0,0 +1,889 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render.graphic;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.task.TaskManager;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.renderer.style.DynamicSymbolFactoryFinder;
+import org.geotools.renderer.style.ExternalGraphicFactory;
+import org.geotools.styling.AbstractStyleVisitor;
+import org.geotools.styling.ExternalGraphic;
+import org.geotools.styling.Style;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.expression.Expression;
+
+/**
+ * Cache of the external graphics referenced by styles, shared by the symbol preview, the map
+ * preview and the legend.
+ *
+ * <p>External graphics are fetched asynchronously on the graphic task pool and stored on disk,
+ * keyed by URL and Last-Modified date. Each graphic is fetched at most once a session, later
+ * requests are served from disk. Remote graphics are revalidated with a conditional GET, files by
+ * their modification time. If a graphic can no longer be fetched the copy on disk is used.
+ *
+ * <p>Styles can be localised without waiting for their graphics, graphics still being fetched are
+ * then drawn as a placeholder and the caller is notified when they have been fetched.
+ *
+ * <p>Decoded images, and SVG graphics rasterised at each requested size, are held in memory in
+ * least recently used order within a byte budget.
+ *
+ * <p>If a cache folder is set the graphics are kept between sessions, otherwise they are stored
+ * in a temporary folder.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class ExternalGraphicCache {
+
+    /** The Constant DEFAULT_MEMORY_BUDGET, in bytes. */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+    /** The Constant INDEX_FILE, maps each URL to its file and Last-Modified date. */
+    private static final String INDEX_FILE = "index.properties";
+
+    /** The Constant CHECKSUM_ALGORITHM. */
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    /** The Constant CONNECTION_TIMEOUT, in milliseconds. */
+    private static final int CONNECTION_TIMEOUT = 30000;
+
+    /** The Constant FETCH_TIMEOUT, the time to wait for a fetch in seconds. */
+    private static final long FETCH_TIMEOUT = 60;
+
+    /** The Constant SVG_FORMAT. */
+    private static final String SVG_FORMAT = "image/svg+xml";
+
+    /** The Constant SVG_EXTENSION. */
+    private static final String SVG_EXTENSION = "svg";
+
+    /** The Constant FILE_PROTOCOL. */
+    private static final String FILE_PROTOCOL = "file";
+
+    /** The Constant EXTENSION_PATTERN, the file extensions that are kept. */
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("[A-Za-z0-9]{1,5}");
+
+    /** The Constant PLACEHOLDER_FILE, drawn in place of graphics still being fetched. */
+    private static final String PLACEHOLDER_FILE = "placeholder.png";
+
+    /** The Constant PLACEHOLDER_SIZE, in pixels. */
+    private static final int PLACEHOLDER_SIZE = 16;
+
+    /** The Constant BYTES_PER_PIXEL, used to estimate the memory used by an image. */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /** The filter factory. */
+    private static FilterFactory ff = CommonFactoryFinder.getFilterFactory();
+
+    /** The singleton instance. */
+    private static ExternalGraphicCache instance = null;
+
+    /** The cache folder, null if graphics are only kept for the session. */
+    private File cacheFolder = null;
+
+    /** The temporary folder used when no cache folder is set. */
+    private File tempFolder = null;
+
+    /** The index, maps each URL to its file name and Last-Modified date. */
+    private Properties index = new Properties();
+
+    /** The fetches made this session, keyed by URL. */
+    private Map<String, Future<File>> fetchMap = new HashMap<>();
+
+    /** The callbacks run when each fetch in progress completes, keyed by URL. */
+    private Map<String, List<Runnable>> pendingMap = new HashMap<>();
+
+    /** The placeholder drawn in place of graphics still being fetched. */
+    private File placeholderFile = null;
+
+    /** The decoded images, in least recently used order. */
+    private Map<String, BufferedImage> imageMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The memory budget, in bytes. */
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /** The memory used by the decoded images, in bytes. */
+    private long memoryUsed = 0;
+
+    /** The number of images served from memory. */
+    private long hitCount = 0;
+
+    /** The number of images that had to be decoded. */
+    private long missCount = 0;
+
+    /**
+     * Gets the single instance of ExternalGraphicCache.
+     *
+     * @return single instance of ExternalGraphicCache
+     */
+    public static synchronized ExternalGraphicCache getInstance() {
+        if (instance == null) {
+            instance = new ExternalGraphicCache();
+        }
+
+        return instance;
+    }
+
+    /** Destroy instance. */
+    public static synchronized void destroyInstance() {
+        instance = null;
+    }
+
+    /** Private default constructor. */
+    private ExternalGraphicCache() {
+        // Private default constructor
+    }
+
+    /**
+     * Sets the folder graphics are kept in between sessions, null to only keep them for the
+     * session.
+     *
+     * @param cacheFolder the new cache folder
+     */
+    public synchronized void setCacheFolder(File cacheFolder) {
+        this.cacheFolder = cacheFolder;
+        clear();
+
+        index = new Properties();
+        if (cacheFolder != null) {
+            File indexFile = new File(cacheFolder, INDEX_FILE);
+            if (indexFile.exists()) {
+                try (InputStream in = new FileInputStream(indexFile)) {
+                    index.load(in);
+                } catch (IOException e) {
+                    ConsoleManager.getInstance().exception(this, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the cache folder.
+     *
+     * @return the cache folder
+     */
+    public synchronized File getCacheFolder() {
+        return cacheFolder;
+    }
+
+    /**
+     * Sets the memory budget for decoded images, least recently used images are evicted when it
+     * is exceeded.
+     *
+     * @param memoryBudget the new memory budget, in bytes
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = Math.max(0, memoryBudget);
+        evict();
+    }
+
+    /**
+     * Gets the memory used by the decoded images.
+     *
+     * @return the memory used, in bytes
+     */
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Gets the number of images served from memory.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of images that had to be decoded.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Clear the images held in memory, graphics are revalidated the next time they are requested.
+     * Graphics on disk are kept.
+     */
+    public synchronized void clear() {
+        fetchMap.clear();
+        imageMap.clear();
+        memoryUsed = 0;
+    }
+
+    /**
+     * Start fetching an external graphic, if it has not already been fetched this session.
+     *
+     * @param url the url
+     * @return the future, the local copy of the graphic or null if it could not be fetched
+     */
+    public synchronized Future<File> fetchAsync(URL url) {
+        String key = url.toExternalForm();
+        Future<File> future = fetchMap.get(key);
+        if ((future == null) || (future.isDone() && isModified(key, url))) {
+            pendingMap.put(key, new ArrayList<>());
+            future =
+                    TaskManager.getInstance()
+                            .submit(
+                                    TaskManager.GRAPHIC_POOL,
+                                    () -> {
+                                        try {
+                                            return fetch(url);
+                                        } finally {
+                                            fetched(key);
+                                        }
+                                    });
+            fetchMap.put(key, future);
+        }
+        return future;
+    }
+
+    /**
+     * Run the callbacks waiting for a fetch, called on the graphic task pool when the fetch
+     * completes.
+     *
+     * @param key the key
+     */
+    private void fetched(String key) {
+        List<Runnable> callbackList;
+        synchronized (this) {
+            callbackList = pendingMap.remove(key);
+        }
+
+        if (callbackList != null) {
+            for (Runnable callback : callbackList) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * Gets the local copy of an external graphic, waiting for it to be fetched if necessary.
+     *
+     * @param url the url
+     * @return the local copy of the graphic, null if it could not be fetched
+     */
+    public File getLocalFile(URL url) {
+        if (url == null) {
+            return null;
+        }
+
+        try {
+            return fetchAsync(url).get(FETCH_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the image of an external graphic. SVG graphics are rasterised at the requested height.
+     *
+     * @param url the url
+     * @param format the graphic format, may be null
+     * @param width the width of the image, 0 for the natural width
+     * @param height the height of the image, 0 for the natural height
+     * @return the image, null if the graphic could not be fetched or decoded
+     */
+    public BufferedImage getImage(URL url, String format, int width, int height) {
+        File file = getLocalFile(url);
+        if (file == null) {
+            return null;
+        }
+
+        String key = String.format(Locale.ROOT, "%s#%dx%d", file.getName(), width, height);
+        synchronized (this) {
+            BufferedImage image = imageMap.get(key);
+            if (image != null) {
+                hitCount++;
+                return image;
+            }
+            missCount++;
+        }
+
+        BufferedImage image = null;
+        try {
+            if (isSVG(format, file)) {
+                image = rasterise(file, SVG_FORMAT, (height > 0) ? height : -1);
+            } else {
+                image = ImageIO.read(file);
+                if ((image == null) && (format != null)) {
+                    image = rasterise(file, format, (height > 0) ? height : -1);
+                }
+            }
+        } catch (Exception e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+
+        if (image != null) {
+            image = scale(image, width, height);
+            putImage(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Make a copy of a style in which the external graphics refer to their local copies. The
+     * graphics are fetched in parallel, the style is returned unchanged if it contains no
+     * external graphics.
+     *
+     * @param style the style
+     * @return the style to render
+     */
+    public Style localise(Style style) {
+        return localise(style, null);
+    }
+
+    /**
+     * Make a copy of a style in which the external graphics refer to their local copies.
+     *
+     * <p>If a callback is supplied the graphics are not waited for, graphics still being fetched
+     * refer to a placeholder instead and the callback is run on the graphic task pool once they
+     * have all been fetched. Otherwise the graphics are fetched in parallel and waited for.
+     *
+     * @param style the style
+     * @param fetchedCallback the callback run when the pending graphics have been fetched, null to
+     *     wait for the graphics
+     * @return the style to render
+     */
+    public Style localise(Style style, Runnable fetchedCallback) {
+        if (style == null) {
+            return null;
+        }
+
+        List<URL> urlList = new ArrayList<>();
+        style.accept(
+                new AbstractStyleVisitor() {
+                    @Override
+                    public void visit(ExternalGraphic exgr) {
+                        URL url = getLocation(exgr);
+                        if (url != null) {
+                            urlList.add(url);
+                        }
+                    }
+                });
+
+        if (urlList.isEmpty()) {
+            return style;
+        }
+
+        Set<String> pendingSet = new HashSet<>();
+        synchronized (this) {
+            for (URL url : urlList) {
+                fetchAsync(url);
+                if (fetchedCallback != null) {
+                    String key = url.toExternalForm();
+                    if (pendingMap.containsKey(key)) {
+                        pendingSet.add(key);
+                    }
+                }
+            }
+
+            if (!pendingSet.isEmpty()) {
+                AtomicInteger remaining = new AtomicInteger(pendingSet.size());
+                Runnable callback =
+                        () -> {
+                            if (remaining.decrementAndGet() == 0) {
+                                fetchedCallback.run();
+                            }
+                        };
+                for (String key : pendingSet) {
+                    pendingMap.get(key).add(callback);
+                }
+            }
+        }
+
+        File placeholder = pendingSet.isEmpty() ? null : getPlaceholder();
+        DuplicatingStyleVisitor localiser =
+                new DuplicatingStyleVisitor() {
+                    @Override
+                    public void visit(ExternalGraphic exgr) {
+                        super.visit(exgr);
+
+                        URL url = getLocation(exgr);
+                        File file =
+                                ((url != null) && pendingSet.contains(url.toExternalForm()))
+                                        ? placeholder
+                                        : getLocalFile(url);
+                        if (file != null) {
+                            try {
+                                ((ExternalGraphic) getCopy()).setLocation(file.toURI().toURL());
+                            } catch (MalformedURLException e) {
+                                ConsoleManager.getInstance()
+                                        .exception(ExternalGraphicCache.class, e);
+                            }
+                        }
+                    }
+                };
+        style.accept(localiser);
+        return (Style) localiser.getCopy();
+    }
+
+    /**
+     * Gets the placeholder drawn in place of graphics still being fetched, written to the graphics
+     * folder the first time it is needed.
+     *
+     * @return the placeholder file, null if it could not be written
+     */
+    private synchronized File getPlaceholder() {
+        if ((placeholderFile == null) || !placeholderFile.exists()) {
+            File folder = getFolder();
+            if (folder == null) {
+                return null;
+            }
+
+            BufferedImage image =
+                    new BufferedImage(
+                            PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setColor(Color.LIGHT_GRAY);
+            g.fillRect(0, 0, PLACEHOLDER_SIZE, PLACEHOLDER_SIZE);
+            g.setColor(Color.GRAY);
+            g.drawRect(0, 0, PLACEHOLDER_SIZE - 1, PLACEHOLDER_SIZE - 1);
+            g.dispose();
+
+            File file = new File(folder, PLACEHOLDER_FILE);
+            try {
+                ImageIO.write(image, "png", file);
+                placeholderFile = file;
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
+                return null;
+            }
+        }
+        return placeholderFile;
+    }
+
+    /**
+     * Fetch an external graphic, called on the graphic task pool.
+     *
+     * @param url the url
+     * @return the local copy of the graphic, null if it could not be fetched
+     */
+    private File fetch(URL url) {
+        String key = url.toExternalForm();
+
+        File folder;
+        File cachedFile = null;
+        String cachedLastModified = null;
+        synchronized (this) {
+            folder = getFolder();
+            String[] entry = getIndexEntry(key);
+            if (entry != null) {
+                cachedFile = new File(folder, entry[0]);
+                cachedLastModified = entry[1];
+            }
+        }
+
+        if (folder == null) {
+            return null;
+        }
+
+        // Graphics that are already in the cache folder are used as they are
+        File sourceFile = getFile(url);
+        if ((sourceFile != null) && folder.equals(sourceFile.getParentFile())) {
+            return sourceFile;
+        }
+
+        if ((cachedFile != null) && !cachedFile.exists()) {
+            cachedFile = null;
+        }
+
+        URLConnection connection = null;
+        try {
+            connection = url.openConnection();
+            connection.setConnectTimeout(CONNECTION_TIMEOUT);
+            connection.setReadTimeout(CONNECTION_TIMEOUT);
+
+            String lastModified;
+            if (connection instanceof HttpURLConnection) {
+                HttpURLConnection http = (HttpURLConnection) connection;
+                if ((cachedFile != null) && !cachedLastModified.isEmpty()) {
+                    http.setRequestProperty("If-Modified-Since", cachedLastModified);
+                }
+
+                int responseCode = http.getResponseCode();
+                if ((responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) && (cachedFile != null)) {
+                    return cachedFile;
+                } else if (responseCode != HttpURLConnection.HTTP_OK) {
+                    return cachedFile;
+                }
+                lastModified = http.getHeaderField("Last-Modified");
+            } else {
+                lastModified = String.valueOf(connection.getLastModified());
+                if ((cachedFile != null) && lastModified.equals(cachedLastModified)) {
+                    return cachedFile;
+                }
+            }
+
+            if (lastModified == null) {
+                lastModified = "";
+            }
+
+            File file = new File(folder, checksum(key + "\n" + lastModified) + getExtension(url));
+            if (!file.exists()) {
+                try (InputStream in = connection.getInputStream()) {
+                    File tmpFile = File.createTempFile("fetch", ".tmp", folder);
+                    try {
+                        Files.copy(in, tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        Files.move(
+                                tmpFile.toPath(),
+                                file.toPath(),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    } finally {
+                        Files.deleteIfExists(tmpFile.toPath());
+                    }
+                }
+            }
+
+            updateIndex(key, file, lastModified, cachedFile);
+            return file;
+        } catch (IOException e) {
+            if (cachedFile == null) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+            // Use the copy on disk if the graphic cannot be fetched
+            return cachedFile;
+        } finally {
+            if (connection instanceof HttpURLConnection) {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    /**
+     * Checks if a file graphic has been modified since it was fetched, remote graphics are only
+     * revalidated once a session.
+     *
+     * @param key the key
+     * @param url the url
+     * @return true, if modified
+     */
+    private boolean isModified(String key, URL url) {
+        File sourceFile = getFile(url);
+        String[] entry = getIndexEntry(key);
+        if ((sourceFile == null) || (entry == null)) {
+            return false;
+        }
+        return !String.valueOf(sourceFile.lastModified()).equals(entry[1]);
+    }
+
+    /**
+     * Gets the folder graphics are stored in, creating a temporary folder if no cache folder is
+     * set.
+     *
+     * @return the folder, null if it could not be created
+     */
+    private File getFolder() {
+        File folder = cacheFolder;
+        if (folder == null) {
+            if (tempFolder == null) {
+                try {
+                    tempFolder = Files.createTempDirectory("sldeditor-graphics").toFile();
+                    tempFolder.deleteOnExit();
+                } catch (IOException e) {
+                    ConsoleManager.getInstance().exception(this, e);
+                }
+            }
+            folder = tempFolder;
+        }
+
+        if ((folder != null) && !folder.exists() && !folder.mkdirs()) {
+            return null;
+        }
+        return folder;
+    }
+
+    /**
+     * Gets the index entry of a URL.
+     *
+     * @param key the key
+     * @return the file name and Last-Modified date, null if the URL has not been fetched
+     */
+    private synchronized String[] getIndexEntry(String key) {
+        String value = index.getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(' ');
+        if (separator < 0) {
+            return new String[] {value, ""};
+        }
+        return new String[] {value.substring(0, separator), value.substring(separator + 1)};
+    }
+
+    /**
+     * Update the index entry of a URL, removing the previous version of the graphic.
+     *
+     * @param key the key
+     * @param file the file
+     * @param lastModified the Last-Modified date
+     * @param previousFile the previous file, may be null
+     */
+    private synchronized void updateIndex(
+            String key, File file, String lastModified, File previousFile) {
+        index.setProperty(key, file.getName() + " " + lastModified);
+
+        if ((previousFile != null) && !previousFile.equals(file)) {
+            try {
+                Files.deleteIfExists(previousFile.toPath());
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+        }
+
+        File folder = getFolder();
+        if (folder != null) {
+            try (OutputStream out = new FileOutputStream(new File(folder, INDEX_FILE))) {
+                index.store(out, null);
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+        }
+    }
+
+    /**
+     * Add a decoded image, evicting the least recently used images if the memory budget is
+     * exceeded.
+     *
+     * @param key the key
+     * @param image the image
+     */
+    private synchronized void putImage(String key, BufferedImage image) {
+        long size = getSize(image);
+        if (size > memoryBudget) {
+            return;
+        }
+
+        BufferedImage previous = imageMap.put(key, image);
+        if (previous != null) {
+            memoryUsed -= getSize(previous);
+        }
+        memoryUsed += size;
+        evict();
+    }
+
+    /** Evict the least recently used images until the memory budget is met. */
+    private void evict() {
+        Iterator<BufferedImage> iterator = imageMap.values().iterator();
+        while ((memoryUsed > memoryBudget) && iterator.hasNext()) {
+            memoryUsed -= getSize(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets the memory used by an image.
+     *
+     * @param image the image
+     * @return the size, in bytes
+     */
+    private static long getSize(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Gets the location of an external graphic.
+     *
+     * @param exgr the external graphic
+     * @return the location, null if the graphic has inline content or an invalid location
+     */
+    private static URL getLocation(ExternalGraphic exgr) {
+        try {
+            return exgr.getLocation();
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the file a URL refers to.
+     *
+     * @param url the url
+     * @return the file, null if the URL does not refer to a file
+     */
+    private static File getFile(URL url) {
+        if (FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+            try {
+                return new File(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return new File(url.getPath());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the file extension of a URL, so local copies keep the extension the renderer uses to
+     * identify the format.
+     *
+     * @param url the url
+     * @return the extension including the separator, empty if there is none
+     */
+    private static String getExtension(URL url) {
+        String path = url.getPath();
+        int separator = path.lastIndexOf('.');
+        if ((separator >= 0) && (separator > path.lastIndexOf('/'))) {
+            String extension = path.substring(separator + 1);
+            if (EXTENSION_PATTERN.matcher(extension).matches()) {
+                return "." + extension.toLowerCase(Locale.ROOT);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Checks if a graphic is an SVG graphic.
+     *
+     * @param format the format
+     * @param file the file
+     * @return true, if SVG
+     */
+    private static boolean isSVG(String format, File file) {
+        if (format != null) {
+            return format.toLowerCase(Locale.ROOT).contains(SVG_EXTENSION);
+        }
+        return file.getName().endsWith("." + SVG_EXTENSION);
+    }
+
+    /**
+     * Rasterise a graphic using the GeoTools external graphic factories.
+     *
+     * @param file the file
+     * @param format the format
+     * @param size the height of the image, -1 for the natural size
+     * @return the image, null if no factory supports the format
+     * @throws Exception the exception thrown by the factory
+     */
+    private static BufferedImage rasterise(File file, String format, int size) throws Exception {
+        Expression location = ff.literal(file.toURI().toURL().toExternalForm());
+        Iterator<ExternalGraphicFactory> iterator =
+                DynamicSymbolFactoryFinder.getExternalGraphicFactories();
+        while (iterator.hasNext()) {
+            Icon icon = iterator.next().getIcon(null, location, format, size);
+            if ((icon != null) && (icon.getIconWidth() > 0) && (icon.getIconHeight() > 0)) {
+                BufferedImage image =
+                        new BufferedImage(
+                                icon.getIconWidth(),
+                                icon.getIconHeight(),
+                                BufferedImage.TYPE_INT_ARGB);
+                Graphics2D graphics = image.createGraphics();
+                try {
+                    graphics.setRenderingHint(
+                            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    icon.paintIcon(null, graphics, 0, 0);
+                } finally {
+                    graphics.dispose();
+                }
+                return image;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scale an image to the requested size.
+     *
+     * @param image the image
+     * @param width the width, 0 for the natural width
+     * @param height the height, 0 for the natural height
+     * @return the scaled image
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        if ((width <= 0)
+                || (height <= 0)
+                || ((image.getWidth() == width) && (image.getHeight() == height))) {
+            return image;
+        }
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Calculate the checksum of a string.
+     *
+     * @param value the value
+     * @return the checksum, as a hex string
+     */
+    private static String checksum(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest(value.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
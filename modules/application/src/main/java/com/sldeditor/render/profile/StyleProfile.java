@@ -0,0 +1,177 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render.profile;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The result of profiling a style, the cost of every feature type style, rule and symbolizer.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StyleProfile {
+
+    /** The Constant NANOSECONDS_PER_MILLISECOND. */
+    private static final double NANOSECONDS_PER_MILLISECOND = 1000000.0;
+
+    /** The Constant CSV_HEADER. */
+    private static final String CSV_HEADER =
+            "rank,type,path,name,time_ms,features_evaluated,features_filtered,"
+                    + "features_painted,labels";
+
+    /** The number of times each element was rendered. */
+    private final int iterations;
+
+    /** The mean time to render the whole style in nanoseconds. */
+    private final long totalRenderTime;
+
+    /** The profiled elements, in style order. */
+    private final List<StyleProfileEntry> entries;
+
+    /**
+     * Instantiates a new style profile.
+     *
+     * @param iterations the number of times each element was rendered
+     * @param totalRenderTime the mean time to render the whole style in nanoseconds
+     * @param entries the profiled elements, in style order
+     */
+    public StyleProfile(int iterations, long totalRenderTime, List<StyleProfileEntry> entries) {
+        this.iterations = iterations;
+        this.totalRenderTime = totalRenderTime;
+        this.entries = entries;
+    }
+
+    /**
+     * Gets the number of times each element was rendered.
+     *
+     * @return the iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Gets the mean time to render the whole style.
+     *
+     * @return the total render time in nanoseconds
+     */
+    public long getTotalRenderTime() {
+        return totalRenderTime;
+    }
+
+    /**
+     * Gets the mean time to render the whole style.
+     *
+     * @return the total render time in milliseconds
+     */
+    public double getTotalRenderTimeMilliseconds() {
+        return totalRenderTime / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    /**
+     * Gets the profiled elements.
+     *
+     * @return the entries, in style order
+     */
+    public List<StyleProfileEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Gets the hot spots, the profiled elements with the most expensive first.
+     *
+     * @return the ranked entries
+     */
+    public List<StyleProfileEntry> getHotSpots() {
+        List<StyleProfileEntry> hotSpotList = new ArrayList<>(entries);
+        hotSpotList.sort(
+                Comparator.comparingLong(StyleProfileEntry::getRenderTime)
+                        .reversed()
+                        .thenComparing(StyleProfileEntry::getPath));
+        return hotSpotList;
+    }
+
+    /**
+     * Convert the hot spots to CSV.
+     *
+     * @return the CSV string
+     */
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(CSV_HEADER);
+        sb.append("\n");
+
+        int rank = 1;
+        for (StyleProfileEntry entry : getHotSpots()) {
+            sb.append(rank);
+            sb.append(",");
+            sb.append(entry.getType());
+            sb.append(",");
+            sb.append(entry.getPath());
+            sb.append(",");
+            sb.append(escapeCsv(entry.getName()));
+            sb.append(",");
+            sb.append(String.format(Locale.ROOT, "%.3f", entry.getRenderTimeMilliseconds()));
+            sb.append(",");
+            sb.append(entry.getFeaturesEvaluated());
+            sb.append(",");
+            sb.append(entry.getFeaturesFiltered());
+            sb.append(",");
+            sb.append(entry.getFeaturesPainted());
+            sb.append(",");
+            sb.append(entry.getLabels());
+            sb.append("\n");
+            rank++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Convert the profile to JSON, entries are written as ranked hot spots.
+     *
+     * @return the JSON string
+     */
+    public String toJson() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        return gson.toJson(new StyleProfile(iterations, totalRenderTime, getHotSpots()));
+    }
+
+    /**
+     * Quote a CSV value if it contains separators, quotes or new lines.
+     *
+     * @param value the value
+     * @return the escaped value
+     */
+    private static String escapeCsv(String value) {
+        if ((value.indexOf(',') < 0)
+                && (value.indexOf('"') < 0)
+                && (value.indexOf('\n') < 0)
+                && (value.indexOf('\r') < 0)) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
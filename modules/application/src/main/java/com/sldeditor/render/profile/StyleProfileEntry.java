@@ -0,0 +1,204 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render.profile;
+
+/**
+ * The measured cost of rendering one part of a style, a feature type style, a rule or a single
+ * symbolizer.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StyleProfileEntry {
+
+    /** The style element types that are profiled. */
+    public enum ElementType {
+        /** A feature type style. */
+        FEATURE_TYPE_STYLE,
+        /** A rule. */
+        RULE,
+        /** A symbolizer. */
+        SYMBOLIZER
+    }
+
+    /** The Constant NANOSECONDS_PER_MILLISECOND. */
+    private static final double NANOSECONDS_PER_MILLISECOND = 1000000.0;
+
+    /** The element type. */
+    private final ElementType type;
+
+    /** The path of the element within the style, e.g. fts[0]/rule[1]/symbolizer[0]. */
+    private final String path;
+
+    /** The element name. */
+    private final String name;
+
+    /** The mean render time in nanoseconds. */
+    private long renderTime = 0;
+
+    /** The number of features read from the data source. */
+    private int featuresEvaluated = 0;
+
+    /** The number of features that passed the rule filters. */
+    private int featuresFiltered = 0;
+
+    /** The number of features painted. */
+    private int featuresPainted = 0;
+
+    /** The number of labels handed to the label cache. */
+    private int labels = 0;
+
+    /**
+     * Instantiates a new style profile entry.
+     *
+     * @param type the element type
+     * @param path the path of the element within the style
+     * @param name the element name
+     */
+    public StyleProfileEntry(ElementType type, String path, String name) {
+        this.type = type;
+        this.path = path;
+        this.name = (name == null) ? "" : name;
+    }
+
+    /**
+     * Gets the element type.
+     *
+     * @return the element type
+     */
+    public ElementType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the path of the element within the style.
+     *
+     * @return the path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the element name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the mean render time.
+     *
+     * @return the render time in nanoseconds
+     */
+    public long getRenderTime() {
+        return renderTime;
+    }
+
+    /**
+     * Gets the mean render time.
+     *
+     * @return the render time in milliseconds
+     */
+    public double getRenderTimeMilliseconds() {
+        return renderTime / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    /**
+     * Sets the mean render time.
+     *
+     * @param renderTime the new render time in nanoseconds
+     */
+    public void setRenderTime(long renderTime) {
+        this.renderTime = renderTime;
+    }
+
+    /**
+     * Gets the number of features read from the data source.
+     *
+     * @return the features evaluated
+     */
+    public int getFeaturesEvaluated() {
+        return featuresEvaluated;
+    }
+
+    /**
+     * Sets the number of features read from the data source.
+     *
+     * @param featuresEvaluated the new features evaluated
+     */
+    public void setFeaturesEvaluated(int featuresEvaluated) {
+        this.featuresEvaluated = featuresEvaluated;
+    }
+
+    /**
+     * Gets the number of features that passed the rule filters.
+     *
+     * @return the features filtered
+     */
+    public int getFeaturesFiltered() {
+        return featuresFiltered;
+    }
+
+    /**
+     * Sets the number of features that passed the rule filters.
+     *
+     * @param featuresFiltered the new features filtered
+     */
+    public void setFeaturesFiltered(int featuresFiltered) {
+        this.featuresFiltered = featuresFiltered;
+    }
+
+    /**
+     * Gets the number of features painted.
+     *
+     * @return the features painted
+     */
+    public int getFeaturesPainted() {
+        return featuresPainted;
+    }
+
+    /**
+     * Sets the number of features painted.
+     *
+     * @param featuresPainted the new features painted
+     */
+    public void setFeaturesPainted(int featuresPainted) {
+        this.featuresPainted = featuresPainted;
+    }
+
+    /**
+     * Gets the number of labels handed to the label cache.
+     *
+     * @return the labels
+     */
+    public int getLabels() {
+        return labels;
+    }
+
+    /**
+     * Sets the number of labels handed to the label cache.
+     *
+     * @param labels the new labels
+     */
+    public void setLabels(int labels) {
+        this.labels = labels;
+    }
+}
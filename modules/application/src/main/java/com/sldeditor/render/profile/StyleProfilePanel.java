@@ -0,0 +1,316 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render.profile;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.data.SelectedSymbol;
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.datasource.DataSourceInterface;
+import com.sldeditor.datasource.impl.DataSourceFactory;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.geotools.data.FeatureSource;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayer;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Panel that profiles the selected style against the connected data source and displays the
+ * most expensive feature type styles, rules and symbolizers.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StyleProfilePanel extends JPanel {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The Constant PROFILE_IMAGE_SIZE, the width and height of the image rendered. */
+    private static final int PROFILE_IMAGE_SIZE = 512;
+
+    /** The Constant CSV_EXTENSION. */
+    private static final String CSV_EXTENSION = "csv";
+
+    /** The Constant JSON_EXTENSION. */
+    private static final String JSON_EXTENSION = "json";
+
+    /** The profiler. */
+    private transient StyleProfiler profiler = new StyleProfiler();
+
+    /** The table model. */
+    private StyleProfileTableModel model = new StyleProfileTableModel();
+
+    /** The last profile, null if none. */
+    private transient StyleProfile profile = null;
+
+    /** The profile button. */
+    private JButton btnProfile;
+
+    /** The stop button. */
+    private JButton btnStop;
+
+    /** The export CSV button. */
+    private JButton btnExportCsv;
+
+    /** The export JSON button. */
+    private JButton btnExportJson;
+
+    /** The status label. */
+    private JLabel lblStatus;
+
+    /** Instantiates a new style profile panel. */
+    public StyleProfilePanel() {
+        setLayout(new BorderLayout());
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.TRAILING));
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        lblStatus = new JLabel();
+        buttonPanel.add(lblStatus);
+
+        btnProfile =
+                new JButton(
+                        Localisation.getString(
+                                StyleProfilePanel.class, "StyleProfilePanel.profile"));
+        btnProfile.addActionListener(e -> startProfile());
+        buttonPanel.add(btnProfile);
+
+        btnStop =
+                new JButton(
+                        Localisation.getString(StyleProfilePanel.class, "StyleProfilePanel.stop"));
+        btnStop.addActionListener(e -> profiler.stopProfiling());
+        btnStop.setEnabled(false);
+        buttonPanel.add(btnStop);
+
+        btnExportCsv =
+                new JButton(
+                        Localisation.getString(
+                                StyleProfilePanel.class, "StyleProfilePanel.exportCsv"));
+        btnExportCsv.addActionListener(e -> export(CSV_EXTENSION));
+        btnExportCsv.setEnabled(false);
+        buttonPanel.add(btnExportCsv);
+
+        btnExportJson =
+                new JButton(
+                        Localisation.getString(
+                                StyleProfilePanel.class, "StyleProfilePanel.exportJson"));
+        btnExportJson.addActionListener(e -> export(JSON_EXTENSION));
+        btnExportJson.setEnabled(false);
+        buttonPanel.add(btnExportJson);
+    }
+
+    /** Profile the selected style on a background thread. */
+    private void startProfile() {
+        // Copied on the event dispatch thread so the style is not edited while it is profiled
+        final Style style = copy(getStyle());
+        DataSourceInterface dataSource = DataSourceFactory.getDataSource();
+        FeatureSource<SimpleFeatureType, SimpleFeature> featureSource =
+                (dataSource == null) ? null : dataSource.getFeatureSource();
+        if ((featureSource == null) && (dataSource != null)) {
+            featureSource = dataSource.getExampleFeatureSource();
+        }
+
+        if ((style == null) || (featureSource == null)) {
+            ConsoleManager.getInstance()
+                    .error(
+                            this,
+                            Localisation.getString(
+                                    StyleProfilePanel.class, "StyleProfilePanel.noStyle"));
+            return;
+        }
+
+        setProfiling(true);
+        lblStatus.setText(
+                Localisation.getString(StyleProfilePanel.class, "StyleProfilePanel.profiling"));
+
+        final FeatureSource<SimpleFeatureType, SimpleFeature> features = featureSource;
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.BACKGROUND_POOL,
+                        () -> {
+                            StyleProfile result = null;
+                            try {
+                                result =
+                                        profiler.profile(
+                                                features,
+                                                style,
+                                                getMapArea(features),
+                                                new Rectangle(
+                                                        0,
+                                                        0,
+                                                        PROFILE_IMAGE_SIZE,
+                                                        PROFILE_IMAGE_SIZE));
+                            } catch (IOException | RuntimeException e) {
+                                ConsoleManager.getInstance().exception(StyleProfilePanel.class, e);
+                            }
+                            final StyleProfile profileResult = result;
+                            SwingUtilities.invokeLater(() -> profileComplete(profileResult));
+                        });
+    }
+
+    /**
+     * Called on the event dispatch thread when profiling has finished.
+     *
+     * @param result the profile, null if profiling failed or was stopped
+     */
+    private void profileComplete(StyleProfile result) {
+        setProfiling(false);
+
+        profile = result;
+        model.setProfile(result);
+        if (result == null) {
+            lblStatus.setText("");
+        } else {
+            lblStatus.setText(
+                    String.format(
+                            Locale.ROOT,
+                            Localisation.getString(
+                                    StyleProfilePanel.class, "StyleProfilePanel.total"),
+                            result.getTotalRenderTimeMilliseconds()));
+        }
+        btnExportCsv.setEnabled(result != null);
+        btnExportJson.setEnabled(result != null);
+    }
+
+    /**
+     * Enable the buttons for whether profiling is in progress.
+     *
+     * @param profiling the profiling flag
+     */
+    private void setProfiling(boolean profiling) {
+        btnProfile.setEnabled(!profiling);
+        btnStop.setEnabled(profiling);
+        btnExportCsv.setEnabled(!profiling && (profile != null));
+        btnExportJson.setEnabled(!profiling && (profile != null));
+    }
+
+    /**
+     * Gets the style to profile, the selected style or the first style in the SLD.
+     *
+     * @return the style, null if there is none
+     */
+    private static Style getStyle() {
+        Style style = SelectedSymbol.getInstance().getStyle();
+        if (style != null) {
+            return style;
+        }
+
+        StyledLayerDescriptor sld = SelectedSymbol.getInstance().getSld();
+        if (sld != null) {
+            for (StyledLayer styledLayer : sld.layers()) {
+                List<Style> styleList = SLDUtils.getStylesList(styledLayer);
+                if ((styleList != null) && !styleList.isEmpty()) {
+                    return styleList.get(0);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the map area to profile, the extent of the features.
+     *
+     * @param featureSource the feature source
+     * @return the map area
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static ReferencedEnvelope getMapArea(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource) throws IOException {
+        ReferencedEnvelope bounds = featureSource.getBounds();
+        if ((bounds == null) || bounds.isNull()) {
+            bounds = featureSource.getFeatures().getBounds();
+        }
+
+        if (bounds.getCoordinateReferenceSystem() == null) {
+            bounds = ReferencedEnvelope.create(bounds, DefaultGeographicCRS.WGS84);
+        }
+        return bounds;
+    }
+
+    /**
+     * Export the last profile to a file.
+     *
+     * @param extension the file extension, csv or json
+     */
+    private void export(String extension) {
+        if (profile == null) {
+            return;
+        }
+
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(
+                new FileNameExtensionFilter(extension.toUpperCase(Locale.ROOT), extension));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File file = fileChooser.getSelectedFile();
+        if (!file.getName().toLowerCase(Locale.ROOT).endsWith("." + extension)) {
+            file = new File(file.getParentFile(), file.getName() + "." + extension);
+        }
+
+        String contents = CSV_EXTENSION.equals(extension) ? profile.toCsv() : profile.toJson();
+        try {
+            Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+    }
+
+    /**
+     * Copy a style so it can be profiled while the original is edited.
+     *
+     * @param style the style
+     * @return the copy, null if there is no style
+     */
+    private static Style copy(Style style) {
+        if (style == null) {
+            return null;
+        }
+        DuplicatingStyleVisitor visitor = new DuplicatingStyleVisitor();
+        style.accept(visitor);
+        return (Style) visitor.getCopy();
+    }
+}
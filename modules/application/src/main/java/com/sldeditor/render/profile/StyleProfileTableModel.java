@@ -0,0 +1,195 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render.profile;
+
+import com.sldeditor.common.localisation.Localisation;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model displaying the hot spots of a style profile, the most expensive first.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StyleProfileTableModel extends AbstractTableModel {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The Constant COL_RANK. */
+    private static final int COL_RANK = 0;
+
+    /** The Constant COL_TYPE. */
+    private static final int COL_TYPE = 1;
+
+    /** The Constant COL_PATH. */
+    private static final int COL_PATH = 2;
+
+    /** The Constant COL_NAME. */
+    private static final int COL_NAME = 3;
+
+    /** The Constant COL_TIME. */
+    private static final int COL_TIME = 4;
+
+    /** The Constant COL_EVALUATED. */
+    private static final int COL_EVALUATED = 5;
+
+    /** The Constant COL_FILTERED. */
+    private static final int COL_FILTERED = 6;
+
+    /** The Constant COL_PAINTED. */
+    private static final int COL_PAINTED = 7;
+
+    /** The Constant COL_LABELS. */
+    private static final int COL_LABELS = 8;
+
+    /** The column keys. */
+    private static final String[] COLUMN_KEYS = {
+        "StyleProfileTableModel.rank",
+        "StyleProfileTableModel.type",
+        "StyleProfileTableModel.path",
+        "StyleProfileTableModel.name",
+        "StyleProfileTableModel.time",
+        "StyleProfileTableModel.evaluated",
+        "StyleProfileTableModel.filtered",
+        "StyleProfileTableModel.painted",
+        "StyleProfileTableModel.labels"
+    };
+
+    /** The column names. */
+    private String[] columnNames = new String[COLUMN_KEYS.length];
+
+    /** The ranked entries. */
+    private transient List<StyleProfileEntry> entryList = new ArrayList<>();
+
+    /** Instantiates a new style profile table model. */
+    public StyleProfileTableModel() {
+        for (int index = 0; index < COLUMN_KEYS.length; index++) {
+            columnNames[index] =
+                    Localisation.getString(StyleProfileTableModel.class, COLUMN_KEYS[index]);
+        }
+    }
+
+    /**
+     * Populate the table with a style profile.
+     *
+     * @param profile the profile, null to clear the table
+     */
+    public void setProfile(StyleProfile profile) {
+        entryList = (profile == null) ? new ArrayList<>() : profile.getHotSpots();
+
+        fireTableDataChanged();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.TableModel#getRowCount()
+     */
+    @Override
+    public int getRowCount() {
+        return entryList.size();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.TableModel#getColumnCount()
+     */
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.AbstractTableModel#getColumnName(int)
+     */
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.AbstractTableModel#getColumnClass(int)
+     */
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case COL_TYPE:
+            case COL_PATH:
+            case COL_NAME:
+                return String.class;
+            case COL_TIME:
+                return Double.class;
+            default:
+                return Integer.class;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.AbstractTableModel#isCellEditable(int, int)
+     */
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.swing.table.TableModel#getValueAt(int, int)
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if ((rowIndex < 0) || (rowIndex >= entryList.size())) {
+            return null;
+        }
+
+        StyleProfileEntry entry = entryList.get(rowIndex);
+        switch (columnIndex) {
+            case COL_RANK:
+                return rowIndex + 1;
+            case COL_TYPE:
+                return entry.getType().toString();
+            case COL_PATH:
+                return entry.getPath();
+            case COL_NAME:
+                return entry.getName();
+            case COL_TIME:
+                return entry.getRenderTimeMilliseconds();
+            case COL_EVALUATED:
+                return entry.getFeaturesEvaluated();
+            case COL_FILTERED:
+                return entry.getFeaturesFiltered();
+            case COL_PAINTED:
+                return entry.getFeaturesPainted();
+            case COL_LABELS:
+                return entry.getLabels();
+            default:
+                return null;
+        }
+    }
+}
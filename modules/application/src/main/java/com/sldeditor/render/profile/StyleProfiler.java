@@ -0,0 +1,544 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.render.profile;
+
+import com.sldeditor.render.RendererErrors;
+import com.sldeditor.render.profile.StyleProfileEntry.ElementType;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.data.FeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.MapContent;
+import org.geotools.renderer.RenderListener;
+import org.geotools.renderer.label.LabelCacheImpl;
+import org.geotools.renderer.lite.RendererUtilities;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+import org.geotools.util.NumberRange;
+import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+
+/**
+ * Measures the cost of rendering each part of a style.
+ *
+ * <p>The whole style is rendered, followed by every feature type style, rule and symbolizer in
+ * isolation. Each render is repeated and the mean time taken. Renders are single threaded, the
+ * same as a WMS request, so the timings show where the style spends its time on a server.
+ *
+ * <p>Rules are isolated together with the rules that decide whether an else rule applies, so
+ * an else rule is only applied to the same features as when the whole style is rendered. Rules
+ * outside their scale range at the map scale are not counted, as they are not rendered.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StyleProfiler {
+
+    /** The Constant SCALE_TOLERANCE, the same tolerance the renderer applies to scale ranges. */
+    private static final double SCALE_TOLERANCE = 1e-6;
+
+    /** The Constant DEFAULT_ITERATIONS. */
+    public static final int DEFAULT_ITERATIONS = 3;
+
+    /** The number of times each element is rendered. */
+    private int iterations = DEFAULT_ITERATIONS;
+
+    /** The stopped flag. */
+    private volatile boolean stopped = false;
+
+    /** The renderer currently in use, null when not rendering. */
+    private volatile StreamingRenderer currentRenderer = null;
+
+    /** The render listener to report errors to. */
+    private RenderListener errorListener = RendererErrors.getInstance();
+
+    /** The feature counts for one style element. */
+    private static class FeatureCount {
+
+        /** The number of features read from the data source. */
+        private int evaluated = 0;
+
+        /** The number of features that passed the rule filters. */
+        private int filtered = 0;
+    }
+
+    /** The results of rendering a style once. */
+    private static class RenderCount {
+
+        /** The number of features painted. */
+        private final AtomicInteger painted = new AtomicInteger(0);
+
+        /** The number of labels handed to the label cache. */
+        private final AtomicInteger labels = new AtomicInteger(0);
+    }
+
+    /** Label cache that counts the labels it is given. */
+    private static class CountingLabelCache extends LabelCacheImpl {
+
+        /** The render count to update. */
+        private final RenderCount renderCount;
+
+        /**
+         * Instantiates a new counting label cache.
+         *
+         * @param renderCount the render count to update
+         */
+        CountingLabelCache(RenderCount renderCount) {
+            this.renderCount = renderCount;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see org.geotools.renderer.label.LabelCacheImpl#put(java.lang.String,
+         * org.geotools.styling.TextSymbolizer, org.opengis.feature.Feature,
+         * org.geotools.geometry.jts.LiteShape2, org.geotools.util.NumberRange)
+         */
+        @Override
+        public void put(
+                String layerId,
+                TextSymbolizer symbolizer,
+                Feature feature,
+                LiteShape2 shape,
+                NumberRange<Double> scaleRange) {
+            renderCount.labels.incrementAndGet();
+            super.put(layerId, symbolizer, feature, shape, scaleRange);
+        }
+    }
+
+    /**
+     * Sets the number of times each element is rendered.
+     *
+     * @param iterations the new iterations, at least 1
+     */
+    public void setIterations(int iterations) {
+        this.iterations = Math.max(1, iterations);
+    }
+
+    /** Stop profiling, the profile in progress returns null. */
+    public void stopProfiling() {
+        stopped = true;
+        StreamingRenderer renderer = currentRenderer;
+        if (renderer != null) {
+            renderer.stopRendering();
+        }
+    }
+
+    /**
+     * Profile a style.
+     *
+     * @param featureSource the features to render
+     * @param style the style
+     * @param mapArea the map area
+     * @param paintArea the size of the image to render
+     * @return the style profile, null if profiling was stopped
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public StyleProfile profile(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            Style style,
+            ReferencedEnvelope mapArea,
+            Rectangle paintArea)
+            throws IOException {
+        stopped = false;
+
+        Style styleCopy = copy(style);
+        Map<Object, FeatureCount> featureCountMap =
+                countFeatures(
+                        featureSource,
+                        styleCopy,
+                        mapArea,
+                        getScaleDenominator(mapArea, paintArea));
+
+        // Warm up the renderer so the first element measured is not penalised
+        render(featureSource, styleCopy, mapArea, paintArea);
+
+        long totalRenderTime = measure(featureSource, styleCopy, mapArea, paintArea, null);
+
+        List<StyleProfileEntry> entryList = new ArrayList<>();
+        List<FeatureTypeStyle> ftsList = styleCopy.featureTypeStyles();
+        for (int ftsIndex = 0; ftsIndex < ftsList.size(); ftsIndex++) {
+            FeatureTypeStyle fts = ftsList.get(ftsIndex);
+            String ftsPath = String.format("fts[%d]", ftsIndex);
+            StyleProfileEntry ftsEntry =
+                    new StyleProfileEntry(ElementType.FEATURE_TYPE_STYLE, ftsPath, fts.getName());
+            setFeatureCount(ftsEntry, featureCountMap.get(fts));
+            measure(
+                    featureSource,
+                    isolate(styleCopy, ftsIndex, -1, -1),
+                    mapArea,
+                    paintArea,
+                    ftsEntry);
+            entryList.add(ftsEntry);
+
+            List<Rule> ruleList = fts.rules();
+            for (int ruleIndex = 0; ruleIndex < ruleList.size(); ruleIndex++) {
+                Rule rule = ruleList.get(ruleIndex);
+                String rulePath = String.format("%s/rule[%d]", ftsPath, ruleIndex);
+                StyleProfileEntry ruleEntry =
+                        new StyleProfileEntry(ElementType.RULE, rulePath, rule.getName());
+                setFeatureCount(ruleEntry, featureCountMap.get(rule));
+                measure(
+                        featureSource,
+                        isolate(styleCopy, ftsIndex, ruleIndex, -1),
+                        mapArea,
+                        paintArea,
+                        ruleEntry);
+                entryList.add(ruleEntry);
+
+                List<Symbolizer> symbolizerList = rule.symbolizers();
+                for (int symbolizerIndex = 0;
+                        symbolizerIndex < symbolizerList.size();
+                        symbolizerIndex++) {
+                    StyleProfileEntry symbolizerEntry =
+                            new StyleProfileEntry(
+                                    ElementType.SYMBOLIZER,
+                                    String.format("%s/symbolizer[%d]", rulePath, symbolizerIndex),
+                                    getName(symbolizerList.get(symbolizerIndex)));
+                    setFeatureCount(symbolizerEntry, featureCountMap.get(rule));
+                    measure(
+                            featureSource,
+                            isolate(styleCopy, ftsIndex, ruleIndex, symbolizerIndex),
+                            mapArea,
+                            paintArea,
+                            symbolizerEntry);
+                    entryList.add(symbolizerEntry);
+                }
+            }
+
+            if (stopped) {
+                return null;
+            }
+        }
+
+        return stopped ? null : new StyleProfile(iterations, totalRenderTime, entryList);
+    }
+
+    /**
+     * Gets the scale denominator the renderer uses to decide which rules apply.
+     *
+     * @param mapArea the map area
+     * @param paintArea the paint area
+     * @return the scale denominator, null if it could not be calculated
+     */
+    private static Double getScaleDenominator(ReferencedEnvelope mapArea, Rectangle paintArea) {
+        if ((mapArea == null) || (paintArea == null)) {
+            return null;
+        }
+
+        try {
+            return RendererUtilities.calculateScale(
+                    mapArea, paintArea.width, paintArea.height, null);
+        } catch (Exception e) {
+            // The renderer falls back to the OGC scale when the accurate scale fails
+            return RendererUtilities.calculateOGCScale(mapArea, paintArea.width, null);
+        }
+    }
+
+    /**
+     * Checks whether a rule applies at a scale.
+     *
+     * @param rule the rule
+     * @param scaleDenominator the scale denominator, null to ignore scale ranges
+     * @return true, if the rule is rendered at the scale
+     */
+    private static boolean isWithinScale(Rule rule, Double scaleDenominator) {
+        return (scaleDenominator == null)
+                || (((rule.getMinScaleDenominator() - SCALE_TOLERANCE) <= scaleDenominator)
+                        && ((rule.getMaxScaleDenominator() + SCALE_TOLERANCE)
+                                > scaleDenominator));
+    }
+
+    /**
+     * Count the features read and the features that pass the filters of every feature type
+     * style and rule.
+     *
+     * @param featureSource the feature source
+     * @param style the style
+     * @param mapArea the map area
+     * @param scaleDenominator the scale denominator, null to ignore scale ranges
+     * @return the feature counts keyed by feature type style and rule
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static Map<Object, FeatureCount> countFeatures(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            Style style,
+            ReferencedEnvelope mapArea,
+            Double scaleDenominator)
+            throws IOException {
+        // Style elements are compared by value, identical rules must be counted separately
+        Map<Object, FeatureCount> featureCountMap = new IdentityHashMap<>();
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            featureCountMap.put(fts, new FeatureCount());
+            for (Rule rule : fts.rules()) {
+                featureCountMap.put(rule, new FeatureCount());
+            }
+        }
+
+        Filter filter = Filter.INCLUDE;
+        GeometryDescriptor geometryDescriptor = featureSource.getSchema().getGeometryDescriptor();
+        if ((mapArea != null) && (geometryDescriptor != null)) {
+            FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+            filter = ff.bbox(ff.property(geometryDescriptor.getLocalName()), mapArea);
+        }
+
+        try (FeatureIterator<SimpleFeature> iterator =
+                featureSource.getFeatures(filter).features()) {
+            while (iterator.hasNext()) {
+                SimpleFeature feature = iterator.next();
+                for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+                    countFeature(feature, fts, scaleDenominator, featureCountMap);
+                }
+            }
+        }
+        return featureCountMap;
+    }
+
+    /**
+     * Count a feature against the rules of a feature type style that apply at the scale, else
+     * rules apply only to features that no other rule applies to.
+     *
+     * @param feature the feature
+     * @param fts the feature type style
+     * @param scaleDenominator the scale denominator, null to ignore scale ranges
+     * @param featureCountMap the feature count map
+     */
+    private static void countFeature(
+            SimpleFeature feature,
+            FeatureTypeStyle fts,
+            Double scaleDenominator,
+            Map<Object, FeatureCount> featureCountMap) {
+        boolean matched = false;
+        for (Rule rule : fts.rules()) {
+            if (!isWithinScale(rule, scaleDenominator)) {
+                continue;
+            }
+            FeatureCount ruleCount = featureCountMap.get(rule);
+            ruleCount.evaluated++;
+            if (!rule.isElseFilter()
+                    && ((rule.getFilter() == null) || rule.getFilter().evaluate(feature))) {
+                ruleCount.filtered++;
+                matched = true;
+            }
+        }
+
+        boolean matchedElse = false;
+        if (!matched) {
+            for (Rule rule : fts.rules()) {
+                if (rule.isElseFilter() && isWithinScale(rule, scaleDenominator)) {
+                    featureCountMap.get(rule).filtered++;
+                    matchedElse = true;
+                }
+            }
+        }
+
+        FeatureCount ftsCount = featureCountMap.get(fts);
+        ftsCount.evaluated++;
+        if (matched || matchedElse) {
+            ftsCount.filtered++;
+        }
+    }
+
+    /**
+     * Sets the feature counts of an entry.
+     *
+     * @param entry the entry
+     * @param featureCount the feature count
+     */
+    private static void setFeatureCount(StyleProfileEntry entry, FeatureCount featureCount) {
+        if (featureCount != null) {
+            entry.setFeaturesEvaluated(featureCount.evaluated);
+            entry.setFeaturesFiltered(featureCount.filtered);
+        }
+    }
+
+    /**
+     * Render a style repeatedly and record the mean render time.
+     *
+     * @param featureSource the feature source
+     * @param style the style
+     * @param mapArea the map area
+     * @param paintArea the paint area
+     * @param entry the entry to update, may be null
+     * @return the mean render time in nanoseconds
+     */
+    private long measure(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            Style style,
+            ReferencedEnvelope mapArea,
+            Rectangle paintArea,
+            StyleProfileEntry entry) {
+        long elapsedTime = 0;
+        RenderCount renderCount = null;
+        for (int iteration = 0; (iteration < iterations) && !stopped; iteration++) {
+            long startTime = System.nanoTime();
+            renderCount = render(featureSource, style, mapArea, paintArea);
+            elapsedTime += System.nanoTime() - startTime;
+        }
+
+        long renderTime = elapsedTime / iterations;
+        if ((entry != null) && (renderCount != null)) {
+            entry.setRenderTime(renderTime);
+            entry.setFeaturesPainted(renderCount.painted.get());
+            entry.setLabels(renderCount.labels.get());
+        }
+        return renderTime;
+    }
+
+    /**
+     * Render a style once.
+     *
+     * @param featureSource the feature source
+     * @param style the style
+     * @param mapArea the map area
+     * @param paintArea the paint area
+     * @return the render count
+     */
+    private RenderCount render(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            Style style,
+            ReferencedEnvelope mapArea,
+            Rectangle paintArea) {
+        RenderCount renderCount = new RenderCount();
+
+        StreamingRenderer renderer = new StreamingRenderer();
+        Map<Object, Object> hints = new HashMap<>();
+        hints.put(StreamingRenderer.LABEL_CACHE_KEY, new CountingLabelCache(renderCount));
+        renderer.setRendererHints(hints);
+        renderer.addRenderListener(errorListener);
+        renderer.addRenderListener(
+                new RenderListener() {
+                    @Override
+                    public void featureRenderer(SimpleFeature feature) {
+                        renderCount.painted.incrementAndGet();
+                    }
+
+                    @Override
+                    public void errorOccurred(Exception e) {
+                        // Reported by the error listener
+                    }
+                });
+
+        MapContent map = new MapContent();
+        map.addLayer(new FeatureLayer(featureSource, style));
+        renderer.setMapContent(map);
+
+        BufferedImage image =
+                new BufferedImage(paintArea.width, paintArea.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        currentRenderer = renderer;
+        try {
+            if (!stopped) {
+                renderer.paint(graphics, paintArea, mapArea);
+            }
+        } finally {
+            currentRenderer = null;
+            graphics.dispose();
+            map.dispose();
+        }
+        return renderCount;
+    }
+
+    /**
+     * Create a deep copy of a style.
+     *
+     * @param style the style
+     * @return the style copy
+     */
+    private static Style copy(Style style) {
+        DuplicatingStyleVisitor visitor = new DuplicatingStyleVisitor();
+        style.accept(visitor);
+        return (Style) visitor.getCopy();
+    }
+
+    /**
+     * Create a copy of a style containing only one feature type style, rule or symbolizer.
+     *
+     * <p>When isolating an else rule the other rules are kept without any symbolizers, so that
+     * the else rule applies to the same features.
+     *
+     * @param style the style
+     * @param ftsIndex the feature type style index
+     * @param ruleIndex the rule index, -1 for all rules
+     * @param symbolizerIndex the symbolizer index, -1 for all symbolizers
+     * @return the isolated style
+     */
+    public static Style isolate(Style style, int ftsIndex, int ruleIndex, int symbolizerIndex) {
+        Style copy = copy(style);
+
+        FeatureTypeStyle fts = copy.featureTypeStyles().get(ftsIndex);
+        copy.featureTypeStyles().clear();
+        copy.featureTypeStyles().add(fts);
+
+        if (ruleIndex >= 0) {
+            Rule rule = fts.rules().get(ruleIndex);
+            List<Rule> ruleList = new ArrayList<>();
+            for (Rule otherRule : fts.rules()) {
+                if (otherRule == rule) {
+                    ruleList.add(rule);
+                } else if (rule.isElseFilter() && !otherRule.isElseFilter()) {
+                    otherRule.symbolizers().clear();
+                    ruleList.add(otherRule);
+                }
+            }
+            fts.rules().clear();
+            fts.rules().addAll(ruleList);
+
+            if (symbolizerIndex >= 0) {
+                Symbolizer symbolizer = rule.symbolizers().get(symbolizerIndex);
+                rule.symbolizers().clear();
+                rule.symbolizers().add(symbolizer);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Gets the display name of a symbolizer, its name or its type if it has no name.
+     *
+     * @param symbolizer the symbolizer
+     * @return the name
+     */
+    private static String getName(Symbolizer symbolizer) {
+        if ((symbolizer.getName() != null) && !symbolizer.getName().isEmpty()) {
+            return symbolizer.getName();
+        }
+        return symbolizer.getClass().getSimpleName().replace("Impl", "");
+    }
+}
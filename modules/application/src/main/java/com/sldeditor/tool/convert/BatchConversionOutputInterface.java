@@ -0,0 +1,44 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.convert;
+
+import com.sldeditor.common.SLDDataInterface;
+import org.geotools.styling.StyledLayerDescriptor;
+
+/**
+ * Interface called by the BatchConverter with each converted style.
+ *
+ * <p>Always called on the thread running the conversion, one style at a time, so implementations
+ * do not need to be thread safe.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+@FunctionalInterface
+public interface BatchConversionOutputInterface {
+
+    /**
+     * Write a converted style.
+     *
+     * @param sldData the sld data that was converted
+     * @param sld the parsed style
+     * @param encodedString the style encoded in the requested output format
+     */
+    void write(SLDDataInterface sldData, StyledLayerDescriptor sld, String encodedString);
+}
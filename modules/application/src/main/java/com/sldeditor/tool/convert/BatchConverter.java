@@ -0,0 +1,477 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.convert;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import com.sldeditor.common.output.SLDWriterInterface;
+import com.sldeditor.common.output.impl.SLDWriterFactory;
+import com.sldeditor.common.task.TaskManager;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import org.geotools.styling.StyledLayerDescriptor;
+
+/**
+ * Converts a list of styles to an output format, parsing and encoding the styles in parallel on
+ * the task manager convert pool.
+ *
+ * <p>Converted styles are handed to a BatchConversionOutputInterface as they complete, on the
+ * thread running the conversion, so file naming and any dialogs displayed by the output are
+ * serialised. The number of styles parsed but not yet written is bounded so that large batches do
+ * not hold every parsed style in memory at once.
+ *
+ * <p>Progress and errors are reported to the console, a conversion can be cancelled at any time
+ * and styles not yet written are then discarded. Conversions started from the event dispatch
+ * thread also display a progress monitor whose Cancel button cancels the conversion.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BatchConverter {
+
+    /** The Constant MAX_IN_FLIGHT_PER_THREAD. */
+    private static final int MAX_IN_FLIGHT_PER_THREAD = 4;
+
+    /** The Constant PROGRESS_INTERVAL, number of styles between progress messages. */
+    private static final int PROGRESS_INTERVAL = 100;
+
+    /** The Constant POLL_INTERVAL in milliseconds, how often cancellation is checked. */
+    private static final long POLL_INTERVAL = 100L;
+
+    /** The Constant MILLISECONDS_PER_SECOND. */
+    private static final double MILLISECONDS_PER_SECOND = 1000.0;
+
+    /** The writer used to encode the styles. */
+    private final SLDWriterInterface writer;
+
+    /** The number of styles parsed and encoded at a time. */
+    private final int parallelism;
+
+    /** The cancelled flag. */
+    private volatile boolean cancelled = false;
+
+    /** The result of a batch conversion. */
+    public static class BatchConversionResult {
+
+        /** The total number of styles. */
+        private final int total;
+
+        /** The number of styles converted. */
+        private int converted = 0;
+
+        /** The number of styles that failed to convert. */
+        private int failed = 0;
+
+        /** The cancelled flag. */
+        private boolean cancelled = false;
+
+        /** The elapsed time in milliseconds. */
+        private long elapsedTime = 0L;
+
+        /**
+         * Instantiates a new batch conversion result.
+         *
+         * @param total the total number of styles
+         */
+        BatchConversionResult(int total) {
+            this.total = total;
+        }
+
+        /**
+         * Gets the total number of styles.
+         *
+         * @return the total
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Gets the number of styles converted.
+         *
+         * @return the converted count
+         */
+        public int getConverted() {
+            return converted;
+        }
+
+        /**
+         * Gets the number of styles that failed to convert.
+         *
+         * @return the failed count
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * Checks if the conversion was cancelled.
+         *
+         * @return true, if cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Gets the elapsed time.
+         *
+         * @return the elapsed time in milliseconds
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Gets the number of styles processed per second.
+         *
+         * @return the styles per second
+         */
+        public double getStylesPerSecond() {
+            if (elapsedTime <= 0) {
+                return 0.0;
+            }
+            return (converted + failed) * MILLISECONDS_PER_SECOND / elapsedTime;
+        }
+    }
+
+    /** A single style converted by a worker thread. */
+    private static class Conversion {
+
+        /** The sld data. */
+        private final SLDDataInterface sldData;
+
+        /** The parsed style, null if it could not be parsed. */
+        private StyledLayerDescriptor sld = null;
+
+        /** The encoded style. */
+        private String encodedString = null;
+
+        /** The error raised during conversion. */
+        private RuntimeException error = null;
+
+        /**
+         * Instantiates a new conversion.
+         *
+         * @param sldData the sld data
+         */
+        Conversion(SLDDataInterface sldData) {
+            this.sldData = sldData;
+        }
+    }
+
+    /**
+     * Instantiates a new batch converter converting one style per available processor at a time.
+     *
+     * @param outputFormat the output format, null for the default format
+     */
+    public BatchConverter(SLDOutputFormatEnum outputFormat) {
+        this(outputFormat, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates a new batch converter.
+     *
+     * @param outputFormat the output format, null for the default format
+     * @param parallelism the number of styles parsed and encoded at a time, limited by the size of
+     *     the convert pool
+     */
+    public BatchConverter(SLDOutputFormatEnum outputFormat, int parallelism) {
+        this.writer = SLDWriterFactory.createWriter(outputFormat);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Start a conversion. When called on the event dispatch thread the conversion runs on the
+     * background task pool, otherwise (e.g. unit tests, headless operation) it runs immediately on
+     * the calling thread.
+     *
+     * @param sldDataList the styles to convert
+     * @param output the output called with each converted style
+     * @return the future result of the conversion
+     */
+    public Future<BatchConversionResult> start(
+            List<SLDDataInterface> sldDataList, BatchConversionOutputInterface output) {
+        return start(null, sldDataList, output);
+    }
+
+    /**
+     * Start a conversion. When called on the event dispatch thread the conversion runs on the
+     * background task pool and a progress monitor is displayed, cancelling the progress monitor
+     * cancels the conversion. Otherwise (e.g. unit tests, headless operation) it runs
+     * immediately on the calling thread.
+     *
+     * @param parentComponent the parent component of the progress monitor, may be null
+     * @param sldDataList the styles to convert
+     * @param output the output called with each converted style
+     * @return the future result of the conversion
+     */
+    public Future<BatchConversionResult> start(
+            Component parentComponent,
+            List<SLDDataInterface> sldDataList,
+            BatchConversionOutputInterface output) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            return CompletableFuture.completedFuture(convert(sldDataList, output));
+        }
+
+        int total = (sldDataList == null) ? 0 : sldDataList.size();
+        ProgressMonitor monitor =
+                new ProgressMonitor(
+                        parentComponent,
+                        Localisation.getString(BatchConverter.class, "BatchConverter.title"),
+                        null,
+                        0,
+                        total);
+        Timer cancelTimer =
+                new Timer(
+                        (int) POLL_INTERVAL,
+                        e -> {
+                            if (monitor.isCanceled()) {
+                                cancel();
+                            }
+                        });
+        cancelTimer.start();
+
+        return TaskManager.getInstance()
+                .submit(
+                        TaskManager.BACKGROUND_POOL,
+                        () -> {
+                            try {
+                                return convert(
+                                        sldDataList,
+                                        output,
+                                        received ->
+                                                SwingUtilities.invokeLater(
+                                                        () -> monitor.setProgress(received)));
+                            } finally {
+                                SwingUtilities.invokeLater(
+                                        () -> {
+                                            cancelTimer.stop();
+                                            monitor.close();
+                                        });
+                            }
+                        });
+    }
+
+    /**
+     * Convert the styles, blocks until all styles have been written or the conversion is
+     * cancelled.
+     *
+     * @param sldDataList the styles to convert
+     * @param output the output called with each converted style
+     * @return the result of the conversion
+     */
+    public BatchConversionResult convert(
+            List<SLDDataInterface> sldDataList, BatchConversionOutputInterface output) {
+        return convert(sldDataList, output, null);
+    }
+
+    /**
+     * Convert the styles, blocks until all styles have been written or the conversion is
+     * cancelled.
+     *
+     * @param sldDataList the styles to convert
+     * @param output the output called with each converted style
+     * @param progress called with the number of styles processed after each style, may be null
+     * @return the result of the conversion
+     */
+    private BatchConversionResult convert(
+            List<SLDDataInterface> sldDataList,
+            BatchConversionOutputInterface output,
+            IntConsumer progress) {
+        cancelled = false;
+
+        int total = (sldDataList == null) ? 0 : sldDataList.size();
+        BatchConversionResult result = new BatchConversionResult(total);
+        if ((total == 0) || (output == null)) {
+            return result;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int maxInFlight = parallelism * MAX_IN_FLIGHT_PER_THREAD;
+        BlockingQueue<Conversion> completedQueue = new LinkedBlockingQueue<>();
+        List<Future<?>> futureList = new ArrayList<>();
+
+        int submitted = 0;
+        int received = 0;
+        try {
+            while (received < total) {
+                if (cancelled || Thread.currentThread().isInterrupted()) {
+                    result.cancelled = true;
+                    break;
+                }
+
+                // Keep the pool busy without holding every parsed style in memory
+                futureList.removeIf(Future::isDone);
+                while ((submitted < total) && ((submitted - received) < maxInFlight)) {
+                    SLDDataInterface sldData = sldDataList.get(submitted);
+                    futureList.add(
+                            TaskManager.getInstance()
+                                    .submit(
+                                            TaskManager.CONVERT_POOL,
+                                            () -> completedQueue.add(convertStyle(sldData))));
+                    submitted++;
+                }
+
+                Conversion conversion = completedQueue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (conversion != null) {
+                    received++;
+                    writeStyle(conversion, output, result);
+                    if (progress != null) {
+                        progress.accept(received);
+                    }
+
+                    if ((received % PROGRESS_INTERVAL) == 0) {
+                        result.elapsedTime = System.currentTimeMillis() - startTime;
+                        reportProgress(result, received);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            result.cancelled = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            // Styles not yet converted are not required
+            for (Future<?> future : futureList) {
+                future.cancel(true);
+            }
+        }
+
+        result.elapsedTime = System.currentTimeMillis() - startTime;
+        reportComplete(result);
+
+        return result;
+    }
+
+    /**
+     * Parse and encode a single style, called on a worker thread.
+     *
+     * @param sldData the sld data
+     * @return the conversion
+     */
+    private Conversion convertStyle(SLDDataInterface sldData) {
+        Conversion conversion = new Conversion(sldData);
+
+        if (!cancelled) {
+            try {
+                conversion.sld = SLDUtils.createSLDFromString(sldData);
+                if (conversion.sld != null) {
+                    conversion.encodedString =
+                            writer.encodeSLD(sldData.getResourceLocator(), conversion.sld);
+                }
+            } catch (RuntimeException e) {
+                conversion.error = e;
+            }
+        }
+        return conversion;
+    }
+
+    /**
+     * Hand a converted style to the output.
+     *
+     * @param conversion the conversion
+     * @param output the output
+     * @param result the result to update
+     */
+    private void writeStyle(
+            Conversion conversion,
+            BatchConversionOutputInterface output,
+            BatchConversionResult result) {
+        if (conversion.error != null) {
+            ConsoleManager.getInstance().exception(this, conversion.error);
+            result.failed++;
+        } else if ((conversion.sld == null) || (conversion.encodedString == null)) {
+            // Parse errors have already been reported
+            result.failed++;
+        } else {
+            try {
+                output.write(conversion.sldData, conversion.sld, conversion.encodedString);
+                result.converted++;
+            } catch (RuntimeException e) {
+                ConsoleManager.getInstance().exception(this, e);
+                result.failed++;
+            }
+        }
+    }
+
+    /**
+     * Report progress to the console.
+     *
+     * @param result the result so far
+     * @param received the number of styles processed
+     */
+    private void reportProgress(BatchConversionResult result, int received) {
+        ConsoleManager.getInstance()
+                .information(
+                        this,
+                        String.format(
+                                Localisation.getString(
+                                        BatchConverter.class, "BatchConverter.progress"),
+                                received,
+                                result.getTotal(),
+                                result.getStylesPerSecond()));
+    }
+
+    /**
+     * Report the final result to the console.
+     *
+     * @param result the result
+     */
+    private void reportComplete(BatchConversionResult result) {
+        String key =
+                result.isCancelled() ? "BatchConverter.cancelled" : "BatchConverter.complete";
+
+        ConsoleManager.getInstance()
+                .information(
+                        this,
+                        String.format(
+                                Localisation.getString(BatchConverter.class, key),
+                                result.getConverted(),
+                                result.getFailed(),
+                                result.getTotal(),
+                                result.getElapsedTime() / MILLISECONDS_PER_SECOND));
+    }
+
+    /** Cancel the conversion in progress, styles not yet written are discarded. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks if the last conversion was cancelled.
+     *
+     * @return true, if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -22,11 +22,8 @@ package com.sldeditor.tool.mapbox;
 import com.sldeditor.common.NodeInterface;
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.console.ConsoleManager;
-import com.sldeditor.common.data.SLDUtils;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDOutputFormatEnum;
-import com.sldeditor.common.output.SLDWriterInterface;
-import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.datasource.extension.filesystem.node.file.FileTreeNode;
@@ -35,6 +32,7 @@ import com.sldeditor.tool.GenerateFilename;
 import com.sldeditor.tool.ToolButton;
 import com.sldeditor.tool.ToolInterface;
 import com.sldeditor.tool.ToolPanel;
+import com.sldeditor.tool.convert.BatchConverter;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
@@ -48,7 +46,6 @@ import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.border.TitledBorder;
-import org.geotools.styling.StyledLayerDescriptor;
 
 /**
  * Tool which given a list of SLD objects saves them to SLD files.
@@ -144,46 +141,49 @@ public class MapBoxTool implements ToolInterface {
 
     /** Export to SLD. */
     private void exportToSLD() {
-        SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(SLDOutputFormatEnum.SLD);
+        BatchConverter converter = new BatchConverter(SLDOutputFormatEnum.SLD);
 
-        for (SLDDataInterface sldData : sldDataList) {
-            StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
-
-            String layerName = sldData.getLayerNameWithOutSuffix();
-
-            if (sld != null) {
-                String sldString = sldWriter.encodeSLD(sldData.getResourceLocator(), sld);
-
-                String destinationFolder = sldData.getSLDFile().getParent();
-
-                File fileToSave =
-                        GenerateFilename.findUniqueName(
-                                destinationFolder, layerName, SLDEditorFile.getSLDFileExtension());
+        converter.start(
+                groupPanel,
+                sldDataList,
+                (sldData, sld, sldString) -> writeFile(sldData, sldString));
+    }
 
-                String sldFilename = fileToSave.getName();
-                if (fileToSave.exists()) {
-                    ConsoleManager.getInstance()
-                            .error(
-                                    this,
-                                    Localisation.getField(
-                                                    MapBoxTool.class,
-                                                    "MapBoxTool.destinationAlreadyExists")
-                                            + " "
-                                            + sldFilename);
-                } else {
-                    ConsoleManager.getInstance()
-                            .information(
-                                    this,
-                                    Localisation.getField(
-                                                    MapBoxTool.class, "MapBoxTool.exportToSLDMsg")
-                                            + " "
-                                            + sldFilename);
-                    try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
-                        out.write(sldString);
-                    } catch (IOException e) {
-                        ConsoleManager.getInstance().exception(this, e);
-                    }
-                }
+    /**
+     * Write a converted style to a uniquely named file alongside the original.
+     *
+     * @param sldData the sld data
+     * @param sldString the encoded style
+     */
+    private void writeFile(SLDDataInterface sldData, String sldString) {
+        String layerName = sldData.getLayerNameWithOutSuffix();
+
+        String destinationFolder = sldData.getSLDFile().getParent();
+
+        File fileToSave =
+                GenerateFilename.findUniqueName(
+                        destinationFolder, layerName, SLDEditorFile.getSLDFileExtension());
+
+        String sldFilename = fileToSave.getName();
+        if (fileToSave.exists()) {
+            ConsoleManager.getInstance()
+                    .error(
+                            this,
+                            Localisation.getField(
+                                            MapBoxTool.class, "MapBoxTool.destinationAlreadyExists")
+                                    + " "
+                                    + sldFilename);
+        } else {
+            ConsoleManager.getInstance()
+                    .information(
+                            this,
+                            Localisation.getField(MapBoxTool.class, "MapBoxTool.exportToSLDMsg")
+                                    + " "
+                                    + sldFilename);
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
+                out.write(sldString);
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
             }
         }
     }
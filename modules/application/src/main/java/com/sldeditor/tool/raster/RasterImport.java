@@ -138,7 +138,7 @@ public class RasterImport {
             DataSourceInterface dataSource = DataSourceFactory.createDataSource(null);
 
             if (dataSource != null) {
-                dataSource.connect(rasterFilename, SLDEditorFile.getInstance(), null);
+                dataSource.connectAsync(rasterFilename, SLDEditorFile.getInstance(), null);
             }
         }
     }
@@ -28,17 +28,11 @@ import com.sldeditor.common.output.SLDWriterInterface;
 import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.utils.ColourUtils;
 import com.sldeditor.common.utils.ExternalFilenames;
-import java.awt.image.BufferedImage;
-import java.awt.image.WritableRaster;
+import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import javax.imageio.ImageIO;
 import org.geotools.coverage.GridSampleDimension;
 import org.geotools.coverage.grid.GridCoverage2D;
-import org.geotools.coverage.grid.GridEnvelope2D;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
 import org.geotools.coverage.grid.io.AbstractGridFormat;
 import org.geotools.coverage.grid.io.GridFormatFinder;
@@ -73,6 +67,18 @@ public class RasterReader implements RasterReaderInterface {
     /** The filter factory. */
     private static FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2(null);
 
+    /** The Constant DEFAULT_MAX_UNIQUE_VALUES. */
+    public static final int DEFAULT_MAX_UNIQUE_VALUES = 256;
+
+    /** The Constant DEFAULT_HISTOGRAM_CLASSES. */
+    public static final int DEFAULT_HISTOGRAM_CLASSES = 10;
+
+    /** The maximum number of unique sample values given their own colour map entry. */
+    private int maxUniqueValues = DEFAULT_MAX_UNIQUE_VALUES;
+
+    /** The number of classes created when there are too many unique sample values. */
+    private int histogramClasses = DEFAULT_HISTOGRAM_CLASSES;
+
     /** The sld writer. */
     private SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(null);
 
@@ -104,17 +110,13 @@ public class RasterReader implements RasterReaderInterface {
             return null;
         }
 
-        BufferedImage img = null;
+        Style style;
         try {
-            img = ImageIO.read(rasterFile);
-        } catch (IOException e) {
-            ConsoleManager.getInstance().exception(this, e);
-            return null;
+            style = createRGBStyle(reader);
+        } finally {
+            reader.dispose();
         }
 
-        WritableRaster raster = img.getRaster();
-
-        Style style = createRGBStyle(reader, raster);
         sld = sf.createStyledLayerDescriptor();
         NamedLayer namedLayer = sf.createNamedLayer();
         namedLayer.addStyle(style);
@@ -135,10 +137,9 @@ public class RasterReader implements RasterReaderInterface {
      * Creates the rgb style.
      *
      * @param reader the reader
-     * @param raster the raster
      * @return the style
      */
-    private Style createRGBStyle(AbstractGridCoverage2DReader reader, WritableRaster raster) {
+    private Style createRGBStyle(AbstractGridCoverage2DReader reader) {
         RasterSymbolizer sym = sf.getDefaultRasterSymbolizer();
 
         GridCoverage2D cov = null;
@@ -150,7 +151,7 @@ public class RasterReader implements RasterReaderInterface {
         // We need at least three bands to create an RGB style
         int numBands = cov.getNumSampleDimensions();
         if (numBands < 3) {
-            createRGBImageSymbol(sym, cov, raster);
+            createRGBImageSymbol(sym, cov);
         } else {
             createRGBChannelSymbol(sym, cov, numBands);
         }
@@ -158,50 +159,79 @@ public class RasterReader implements RasterReaderInterface {
     }
 
     /**
-     * Creates the rgb image symbol.
+     * Creates the rgb image symbol, a colour map entry is created for each unique sample value. If
+     * there are too many unique values a colour map of intervals is created from a histogram of
+     * the sample values instead.
      *
      * @param sym the sym
      * @param cov the cov
-     * @param raster the raster
      */
-    private void createRGBImageSymbol(
-            RasterSymbolizer sym, GridCoverage2D cov, WritableRaster raster) {
-        double dest;
-        List<Double> valueList = new ArrayList<>();
-
-        GridEnvelope2D gridRange2D = cov.getGridGeometry().getGridRange2D();
-        for (int x = 0; x < gridRange2D.getWidth(); x++) {
-            for (int y = 0; y < gridRange2D.getHeight(); y++) {
-                try {
-                    dest = raster.getSampleDouble(x, y, 0);
-
-                    if (!valueList.contains(dest)) {
-                        valueList.add(dest);
-                    }
-                } catch (Exception e) {
-                    ConsoleManager.getInstance().exception(this, e);
-                }
-            }
-        }
+    private void createRGBImageSymbol(RasterSymbolizer sym, GridCoverage2D cov) {
+        // Read the coverage a tile at a time rather than loading the whole image
+        RenderedImage image = cov.getRenderedImage();
+        RasterValueScanner scanner =
+                new RasterValueScanner(maxUniqueValues, Runtime.getRuntime().availableProcessors());
 
         ColorMapImpl colourMap = new ColorMapImpl();
 
-        // Sort the unique sample values in ascending order
-        Collections.sort(valueList);
+        double[] valueList = scanner.getUniqueValues(image, 0);
+        if (valueList != null) {
+            // Create colour map entries in the colour map for all the sample values
+            addColourMapEntries(colourMap, valueList);
+            colourMap.setType(ColorMap.TYPE_VALUES);
+        } else {
+            ConsoleManager.getInstance()
+                    .information(
+                            this,
+                            String.format(
+                                    Localisation.getString(
+                                            RasterTool.class, "RasterReader.tooManyValues"),
+                                    maxUniqueValues,
+                                    histogramClasses));
+
+            double[] breakList = scanner.getClassBreaks(image, 0, histogramClasses);
+            addColourMapEntries(colourMap, breakList);
+            colourMap.setType(ColorMap.TYPE_INTERVALS);
+        }
+
+        sym.setColorMap(colourMap);
+    }
 
-        // Create colour amp entries in the colour map for all the sample values
-        for (Double value : valueList) {
+    /**
+     * Adds a colour map entry with a random colour for each value.
+     *
+     * @param colourMap the colour map
+     * @param valueList the values in ascending order
+     */
+    private void addColourMapEntries(ColorMapImpl colourMap, double[] valueList) {
+        for (double value : valueList) {
             ColorMapEntry entry = new ColorMapEntryImpl();
             Literal colourExpression =
                     ff.literal(ColourUtils.fromColour(ColourUtils.createRandomColour()));
             entry.setColor(colourExpression);
-            entry.setQuantity(ff.literal(value.doubleValue()));
+            entry.setQuantity(ff.literal(value));
 
             colourMap.addColorMapEntry(entry);
         }
+    }
 
-        colourMap.setType(ColorMap.TYPE_VALUES);
-        sym.setColorMap(colourMap);
+    /**
+     * Sets the maximum number of unique sample values for which a colour map entry is created
+     * for each value.
+     *
+     * @param maxUniqueValues the new maximum number of unique values
+     */
+    public void setMaxUniqueValues(int maxUniqueValues) {
+        this.maxUniqueValues = maxUniqueValues;
+    }
+
+    /**
+     * Sets the number of classes created when there are too many unique sample values.
+     *
+     * @param histogramClasses the new number of histogram classes
+     */
+    public void setHistogramClasses(int histogramClasses) {
+        this.histogramClasses = histogramClasses;
     }
 
     /**
@@ -0,0 +1,387 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.raster;
+
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.common.utils.DoubleHashSet;
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Scans the samples of a band of an image tile by tile, in parallel on the task manager analysis
+ * pool, to find the unique sample values or, when there are too many, class breaks from a
+ * histogram of the sample values.
+ *
+ * <p>Only one tile per thread is requested from the image at a time so deferred loading images
+ * (e.g. those returned by a GridCoverage reader) are never fully materialised. NaN samples are
+ * treated as no data and ignored.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RasterValueScanner {
+
+    /** The Constant HISTOGRAM_BINS. */
+    private static final int HISTOGRAM_BINS = 1024;
+
+    /** The maximum number of unique values. */
+    private final int maxUniqueValues;
+
+    /** The number of tiles scanned in parallel. */
+    private final int parallelism;
+
+    /** The summary of the samples in one or more tiles. */
+    private static class ScanResult {
+
+        /** The unique values, null if there are more than the maximum. */
+        private DoubleHashSet valueSet;
+
+        /** The minimum value. */
+        private double min = Double.POSITIVE_INFINITY;
+
+        /** The maximum value. */
+        private double max = Double.NEGATIVE_INFINITY;
+
+        /** The histogram counts, only populated by the histogram scan. */
+        private long[] counts = null;
+
+        /**
+         * Instantiates a new scan result.
+         *
+         * @param valueSet the value set
+         */
+        ScanResult(DoubleHashSet valueSet) {
+            this.valueSet = valueSet;
+        }
+    }
+
+    /**
+     * Instantiates a new raster value scanner.
+     *
+     * @param maxUniqueValues the maximum number of unique values
+     * @param parallelism the number of tiles scanned in parallel
+     */
+    public RasterValueScanner(int maxUniqueValues, int parallelism) {
+        this.maxUniqueValues = Math.max(1, maxUniqueValues);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Gets the unique sample values of a band.
+     *
+     * @param image the image
+     * @param band the band
+     * @return the unique values in ascending order, null if there are more than the maximum
+     */
+    public double[] getUniqueValues(RenderedImage image, int band) {
+        ScanResult result = scan(image, tileIndex -> scanTileValues(image, band, tileIndex));
+
+        return (result.valueSet == null) ? null : result.valueSet.toSortedArray();
+    }
+
+    /**
+     * Gets class breaks with approximately equal numbers of samples in each class, calculated
+     * from a histogram of the sample values of a band.
+     *
+     * @param image the image
+     * @param band the band
+     * @param classes the number of classes
+     * @return the class breaks in ascending order, the first is the minimum value and the last the
+     *     maximum value, empty if the band contains no data
+     */
+    public double[] getClassBreaks(RenderedImage image, int band, int classes) {
+        // First pass finds the range of the samples
+        ScanResult range = scan(image, tileIndex -> scanTileRange(image, band, tileIndex));
+        if (range.min > range.max) {
+            return new double[0];
+        }
+
+        if (range.min == range.max) {
+            return new double[] {range.min};
+        }
+
+        // Second pass builds the histogram
+        final double min = range.min;
+        final double max = range.max;
+        ScanResult histogram =
+                scan(image, tileIndex -> scanTileHistogram(image, band, tileIndex, min, max));
+
+        return calculateBreaks(histogram.counts, min, max, Math.max(1, classes));
+    }
+
+    /**
+     * Calculate class breaks from a histogram.
+     *
+     * @param counts the histogram counts
+     * @param min the minimum value
+     * @param max the maximum value
+     * @param classes the number of classes
+     * @return the class breaks
+     */
+    private static double[] calculateBreaks(long[] counts, double min, double max, int classes) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        double binWidth = (max - min) / counts.length;
+        DoubleHashSet breakSet = new DoubleHashSet(classes + 1);
+        breakSet.add(min);
+
+        long cumulative = 0;
+        int nextClass = 1;
+        for (int bin = 0; (bin < counts.length) && (nextClass < classes); bin++) {
+            cumulative += counts[bin];
+            while ((nextClass < classes) && (cumulative * classes >= total * nextClass)) {
+                breakSet.add(min + (bin + 1) * binWidth);
+                nextClass++;
+            }
+        }
+        breakSet.add(max);
+
+        return breakSet.toSortedArray();
+    }
+
+    /**
+     * Scan all the tiles of an image in parallel on the analysis pool and merge the results. Each
+     * task scans every parallelism'th tile so only one tile per task is requested at a time.
+     *
+     * @param image the image
+     * @param tileScanner the function scanning a single tile
+     * @return the merged result
+     */
+    private ScanResult scan(RenderedImage image, IntFunction<ScanResult> tileScanner) {
+        final int numTiles = image.getNumXTiles() * image.getNumYTiles();
+        final int taskCount = Math.min(parallelism, numTiles);
+
+        List<Future<ScanResult>> futureList = new ArrayList<>();
+        for (int task = 0; task < taskCount; task++) {
+            final int firstTile = task;
+            futureList.add(
+                    TaskManager.getInstance()
+                            .submit(
+                                    TaskManager.ANALYSIS_POOL,
+                                    () -> scanTiles(tileScanner, firstTile, taskCount, numTiles)));
+        }
+
+        ScanResult result = new ScanResult(new DoubleHashSet());
+        try {
+            for (Future<ScanResult> future : futureList) {
+                result = merge(result, future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<ScanResult> future : futureList) {
+                future.cancel(true);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scan every step'th tile of an image, starting at the first tile, and merge the results.
+     *
+     * @param tileScanner the function scanning a single tile
+     * @param firstTile the index of the first tile
+     * @param step the step between tile indexes
+     * @param numTiles the number of tiles in the image
+     * @return the merged result
+     */
+    private ScanResult scanTiles(
+            IntFunction<ScanResult> tileScanner, int firstTile, int step, int numTiles) {
+        ScanResult result = new ScanResult(new DoubleHashSet());
+        for (int tileIndex = firstTile; tileIndex < numTiles; tileIndex += step) {
+            result = merge(result, tileScanner.apply(tileIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Merge the results of two scans.
+     *
+     * @param a the first result
+     * @param b the second result
+     * @return the merged result
+     */
+    private ScanResult merge(ScanResult a, ScanResult b) {
+        if ((a.valueSet == null) || (b.valueSet == null)) {
+            a.valueSet = null;
+        } else {
+            a.valueSet.addAll(b.valueSet);
+            if (a.valueSet.size() > maxUniqueValues) {
+                a.valueSet = null;
+            }
+        }
+
+        a.min = Math.min(a.min, b.min);
+        a.max = Math.max(a.max, b.max);
+
+        if (a.counts == null) {
+            a.counts = b.counts;
+        } else if (b.counts != null) {
+            for (int bin = 0; bin < a.counts.length; bin++) {
+                a.counts[bin] += b.counts[bin];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Gets the bounds of a tile clipped to the image.
+     *
+     * @param image the image
+     * @param tileIndex the tile index
+     * @return the tile bounds
+     */
+    private static Rectangle getTileBounds(RenderedImage image, int tileIndex) {
+        int tileX = image.getMinTileX() + (tileIndex % image.getNumXTiles());
+        int tileY = image.getMinTileY() + (tileIndex / image.getNumXTiles());
+
+        Rectangle tileBounds =
+                new Rectangle(
+                        image.getTileGridXOffset() + tileX * image.getTileWidth(),
+                        image.getTileGridYOffset() + tileY * image.getTileHeight(),
+                        image.getTileWidth(),
+                        image.getTileHeight());
+
+        return tileBounds.intersection(
+                new Rectangle(
+                        image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight()));
+    }
+
+    /**
+     * Gets the tile.
+     *
+     * @param image the image
+     * @param tileIndex the tile index
+     * @return the tile
+     */
+    private static Raster getTile(RenderedImage image, int tileIndex) {
+        int tileX = image.getMinTileX() + (tileIndex % image.getNumXTiles());
+        int tileY = image.getMinTileY() + (tileIndex / image.getNumXTiles());
+
+        return image.getTile(tileX, tileY);
+    }
+
+    /**
+     * Find the unique values in a tile, stops collecting values once there are more than the
+     * maximum.
+     *
+     * @param image the image
+     * @param band the band
+     * @param tileIndex the tile index
+     * @return the result
+     */
+    private ScanResult scanTileValues(RenderedImage image, int band, int tileIndex) {
+        ScanResult result = new ScanResult(new DoubleHashSet());
+        Rectangle bounds = getTileBounds(image, tileIndex);
+        if (bounds.isEmpty()) {
+            return result;
+        }
+
+        Raster tile = getTile(image, tileIndex);
+        double[] row = new double[bounds.width];
+        for (int y = bounds.y; (y < bounds.y + bounds.height) && (result.valueSet != null); y++) {
+            tile.getSamples(bounds.x, y, bounds.width, 1, band, row);
+            for (double value : row) {
+                if (!Double.isNaN(value)) {
+                    result.valueSet.add(value);
+                }
+            }
+
+            if (result.valueSet.size() > maxUniqueValues) {
+                result.valueSet = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the range of the values in a tile.
+     *
+     * @param image the image
+     * @param band the band
+     * @param tileIndex the tile index
+     * @return the result
+     */
+    private ScanResult scanTileRange(RenderedImage image, int band, int tileIndex) {
+        ScanResult result = new ScanResult(null);
+        Rectangle bounds = getTileBounds(image, tileIndex);
+        if (bounds.isEmpty()) {
+            return result;
+        }
+
+        Raster tile = getTile(image, tileIndex);
+        double[] row = new double[bounds.width];
+        for (int y = bounds.y; y < bounds.y + bounds.height; y++) {
+            tile.getSamples(bounds.x, y, bounds.width, 1, band, row);
+            for (double value : row) {
+                if (!Double.isNaN(value)) {
+                    result.min = Math.min(result.min, value);
+                    result.max = Math.max(result.max, value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Build a histogram of the values in a tile.
+     *
+     * @param image the image
+     * @param band the band
+     * @param tileIndex the tile index
+     * @param min the minimum value
+     * @param max the maximum value
+     * @return the result
+     */
+    private ScanResult scanTileHistogram(
+            RenderedImage image, int band, int tileIndex, double min, double max) {
+        ScanResult result = new ScanResult(null);
+        result.counts = new long[HISTOGRAM_BINS];
+        Rectangle bounds = getTileBounds(image, tileIndex);
+        if (bounds.isEmpty()) {
+            return result;
+        }
+
+        double scale = HISTOGRAM_BINS / (max - min);
+        Raster tile = getTile(image, tileIndex);
+        double[] row = new double[bounds.width];
+        for (int y = bounds.y; y < bounds.y + bounds.height; y++) {
+            tile.getSamples(bounds.x, y, bounds.width, 1, band, row);
+            for (double value : row) {
+                if (!Double.isNaN(value)) {
+                    int bin = (int) ((value - min) * scale);
+                    result.counts[Math.min(Math.max(bin, 0), HISTOGRAM_BINS - 1)]++;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -22,13 +22,11 @@ package com.sldeditor.tool.savesld;
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.data.SLDExternalImages;
-import com.sldeditor.common.data.SLDUtils;
 import com.sldeditor.common.localisation.Localisation;
-import com.sldeditor.common.output.SLDWriterInterface;
-import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.tool.ToolPanel;
+import com.sldeditor.tool.convert.BatchConverter;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -37,9 +35,12 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
 import org.apache.log4j.Logger;
 import org.geotools.styling.StyledLayerDescriptor;
 import org.geotools.util.URLs;
@@ -75,50 +76,74 @@ public class SaveSLD implements SaveSLDInterface {
             List<SLDDataInterface> sldDataList,
             File destinationFolder,
             boolean saveExternalResources) {
-        SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(null);
-
         if (!destinationFolder.exists()) {
             destinationFolder.mkdirs();
         }
 
         logger.info(Localisation.getString(SaveSLDTool.class, "SaveSLDTool.saveAllSLD"));
 
-        boolean yesToAll = false;
-
-        for (SLDDataInterface sldData : sldDataList) {
-            StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
-
-            if (sld != null) {
-                String sldString = sldWriter.encodeSLD(sldData.getResourceLocator(), sld);
+        // Set when the user chooses to overwrite all external resources in this batch
+        AtomicBoolean yesToAll = new AtomicBoolean(false);
+
+        BatchConverter converter = new BatchConverter(null);
+
+        // The styles are written on this thread, the save is complete when this method returns
+        converter.convert(
+                sldDataList,
+                (sldData, sld, sldString) ->
+                        saveSLD(
+                                destinationFolder,
+                                saveExternalResources,
+                                yesToAll,
+                                sldData,
+                                sld,
+                                sldString));
+    }
 
-                StringBuilder sldFilename = new StringBuilder(sldData.getLayerName());
+    /**
+     * Save a single converted SLD and optionally its external resources.
+     *
+     * @param destinationFolder the destination folder
+     * @param saveExternalResources the save external resources flag
+     * @param yesToAll the yes to all flag of the batch
+     * @param sldData the sld data
+     * @param sld the sld
+     * @param sldString the encoded sld
+     */
+    private void saveSLD(
+            File destinationFolder,
+            boolean saveExternalResources,
+            AtomicBoolean yesToAll,
+            SLDDataInterface sldData,
+            StyledLayerDescriptor sld,
+            String sldString) {
+        StringBuilder sldFilename = new StringBuilder(sldData.getLayerName());
 
-                // Ensure we don't get duplicate sld file extensions
-                if (!sldFilename.toString().endsWith(suffix)) {
-                    sldFilename.append(suffix);
-                }
+        // Ensure we don't get duplicate sld file extensions
+        if (!sldFilename.toString().endsWith(suffix)) {
+            sldFilename.append(suffix);
+        }
 
-                File fileToSave = new File(destinationFolder, sldFilename.toString());
+        File fileToSave = new File(destinationFolder, sldFilename.toString());
 
-                ConsoleManager.getInstance()
-                        .information(
-                                this,
-                                Localisation.getField(SaveSLDTool.class, "SaveSLDTool.savingSLD")
-                                        + " "
-                                        + sldData.getLayerName());
+        ConsoleManager.getInstance()
+                .information(
+                        this,
+                        Localisation.getField(SaveSLDTool.class, "SaveSLDTool.savingSLD")
+                                + " "
+                                + sldData.getLayerName());
 
-                // Write SLD string to file
-                try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
-                    out.write(sldString);
-                } catch (IOException e) {
-                    ConsoleManager.getInstance().exception(this, e);
-                }
+        // Write SLD string to file
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
+            out.write(sldString);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
 
-                // Save external images if requested
-                if (saveExternalResources) {
-                    yesToAll = saveExternalResources(destinationFolder, yesToAll, sldData, sld);
-                }
-            }
+        // Save external images if requested
+        if (saveExternalResources) {
+            yesToAll.set(
+                    saveExternalResources(destinationFolder, yesToAll.get(), sldData, sld));
         }
     }
 
@@ -157,7 +182,7 @@ public class SaveSLD implements SaveSLDInterface {
                 boolean writeOutputFileFlag = true;
 
                 if (output.exists() && !yesToAll) {
-                    overwriteDestinationDlg.overwrite(output);
+                    askOverwrite(output);
 
                     yesToAll = overwriteDestinationDlg.isYesToAll();
                     writeOutputFileFlag = overwriteDestinationDlg.isWriteOutputFile();
@@ -171,6 +196,26 @@ public class SaveSLD implements SaveSLDInterface {
         return yesToAll;
     }
 
+    /**
+     * Ask whether the output file should be overwritten, the question is always asked on the event
+     * dispatch thread even if styles are saved on another thread.
+     *
+     * @param output the output file
+     */
+    private void askOverwrite(File output) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            overwriteDestinationDlg.overwrite(output);
+        } else {
+            try {
+                SwingUtilities.invokeAndWait(() -> overwriteDestinationDlg.overwrite(output));
+            } catch (InvocationTargetException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Write output file.
      *
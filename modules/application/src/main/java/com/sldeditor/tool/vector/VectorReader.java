@@ -32,12 +32,12 @@ import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.datasource.impl.DataSourceProperties;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
 import com.sldeditor.datasource.impl.GeometryTypeMapping;
+import com.sldeditor.datasource.pool.DataStorePool;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.Map;
 import org.geotools.data.DataStore;
-import org.geotools.data.DataStoreFinder;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.styling.StyledLayerDescriptor;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -129,7 +129,7 @@ public class VectorReader implements VectorReaderInterface {
 
         DataStore dataStore = null;
         try {
-            dataStore = DataStoreFinder.getDataStore(map);
+            dataStore = DataStorePool.getInstance().borrow(map);
         } catch (IOException e) {
             ConsoleManager.getInstance().exception(this, e);
             return null;
@@ -156,7 +156,7 @@ public class VectorReader implements VectorReaderInterface {
                 ConsoleManager.getInstance().exception(this, e);
                 return null;
             } finally {
-                dataStore.dispose();
+                DataStorePool.getInstance().release(dataStore);
             }
 
             switch (geometryTypeEnum) {
@@ -379,7 +379,8 @@ public class VectorTool implements ToolInterface {
 
         if (dataSource != null) {
             String dataSourceName = ExternalFilenames.removeSuffix(vectorFile.getName());
-            dataSource.connect(dataSourceName, sldEditorFile, CheckAttributeFactory.getCheckList());
+            dataSource.connectAsync(
+                    dataSourceName, sldEditorFile, CheckAttributeFactory.getCheckList());
         }
     }
 
@@ -417,7 +418,7 @@ public class VectorTool implements ToolInterface {
             DataSourceInterface dataSource = DataSourceFactory.createDataSource(null);
 
             if (dataSource != null) {
-                dataSource.connect(
+                dataSource.connectAsync(
                         featureClassNode.toString(),
                         SLDEditorFile.getInstance(),
                         CheckAttributeFactory.getCheckList());
@@ -139,6 +139,20 @@ public class SLDEditorDefaultLayout implements UILayoutInterface {
                 Localisation.getString(
                         SLDEditorDefaultLayout.class, "panels.vendorOption.tooltip"));
 
+        // Style profiler
+        tabbedPane.addTab(
+                Localisation.getString(SLDEditorDefaultLayout.class, "panels.profiler"),
+                null,
+                uiMgr.getStyleProfile(),
+                Localisation.getString(SLDEditorDefaultLayout.class, "panels.profiler.tooltip"));
+
+        // Rule hit counts
+        tabbedPane.addTab(
+                Localisation.getString(SLDEditorDefaultLayout.class, "panels.ruleHits"),
+                null,
+                uiMgr.getRuleHit(),
+                Localisation.getString(SLDEditorDefaultLayout.class, "panels.ruleHits.tooltip"));
+
         panel.add(tabbedPane);
         tabbedPane.addChangeListener(
                 new ChangeListener() {
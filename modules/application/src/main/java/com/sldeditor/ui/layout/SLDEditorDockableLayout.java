@@ -97,6 +97,16 @@ public class SLDEditorDockableLayout implements UILayoutInterface {
                                 SLDEditorDockableLayout.class, "panels.vendorOption"),
                         uiMgr.getVendorOption());
 
+        SingleCDockable styleProfile =
+                create(
+                        Localisation.getString(SLDEditorDockableLayout.class, "panels.profiler"),
+                        uiMgr.getStyleProfile());
+
+        SingleCDockable ruleHit =
+                create(
+                        Localisation.getString(SLDEditorDockableLayout.class, "panels.ruleHits"),
+                        uiMgr.getRuleHit());
+
         SingleCDockable console =
                 create(
                         Localisation.getString(SLDEditorDockableLayout.class, "panels.console"),
@@ -108,6 +118,8 @@ public class SLDEditorDockableLayout implements UILayoutInterface {
         control.addDockable(map);
         control.addDockable(dataSource);
         control.addDockable(vendorOption);
+        control.addDockable(styleProfile);
+        control.addDockable(ruleHit);
         control.addDockable(console);
 
         ToolManager toolManagerInstance = ToolManager.getInstance();
@@ -126,6 +138,8 @@ public class SLDEditorDockableLayout implements UILayoutInterface {
         grid.add(1, 0, 2, 4, map);
         grid.add(1, 0, 2, 4, dataSource);
         grid.add(1, 0, 2, 4, vendorOption);
+        grid.add(1, 0, 2, 4, styleProfile);
+        grid.add(1, 0, 2, 4, ruleHit);
         grid.add(1, 0, 2, 4, symbol);
 
         grid.add(0, 4, 3, 1, console);
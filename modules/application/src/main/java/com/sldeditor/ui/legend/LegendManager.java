@@ -24,6 +24,7 @@ import com.sldeditor.common.data.SLDUtils;
 import com.sldeditor.common.data.SelectedSymbol;
 import com.sldeditor.common.utils.ColourUtils;
 import com.sldeditor.datasource.RenderSymbolInterface;
+import com.sldeditor.render.graphic.ExternalGraphicCache;
 import com.sldeditor.ui.legend.option.LegendOptionData;
 import com.sldeditor.ui.legend.option.LegendOptionDataUpdateInterface;
 import com.sldeditor.ui.legend.option.LegendOptionPanel;
@@ -47,6 +48,7 @@ import javax.imageio.metadata.IIOInvalidTreeException;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import javax.imageio.stream.ImageOutputStream;
+import javax.swing.SwingUtilities;
 import org.geoserver.platform.resource.Files;
 import org.geoserver.wms.GetLegendGraphicRequest;
 import org.geoserver.wms.GetLegendGraphicRequest.LegendRequest;
@@ -59,6 +61,9 @@ import org.geotools.styling.StyledLayerDescriptor;
 /**
  * Manager object, implemented as a singleton, that controls the creation of SLD legend images.
  *
+ * <p>The graphic drawn for each rule is cached, so when a style changes only the rules that have
+ * changed are drawn again before the legend is composed.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class LegendManager implements LegendOptionDataUpdateInterface {
@@ -84,6 +89,14 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
     /** The legend option panel. */
     private LegendOptionPanel legendOptionPanel = null;
 
+    /** The cache of legend graphics drawn for each rule. */
+    private LegendTileCache tileCache = new LegendTileCache();
+
+    /** Private default constructor. */
+    private LegendManager() {
+        legendBuilder.setTileCache(tileCache);
+    }
+
     /**
      * Creates the legend.
      *
@@ -190,6 +203,17 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
                 createMultipleStyleLegend(sld, styleMap, selectedStyledLayer);
             }
 
+            // External graphics are read from their local copies. On the event dispatch thread
+            // graphics still being fetched are drawn as placeholders and the legend is drawn
+            // again once they have been fetched.
+            Runnable fetchedCallback =
+                    SwingUtilities.isEventDispatchThread()
+                            ? () -> SwingUtilities.invokeLater(this::graphicsFetched)
+                            : null;
+            styleMap.replaceAll(
+                    (styleName, style) ->
+                            ExternalGraphicCache.getInstance().localise(style, fetchedCallback));
+
             // Merge symbolizers into 1 image
             if (!separateSymbolizers) {
                 mergeSymbolizers(imageMap, request, styleMap);
@@ -374,6 +398,22 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
         }
     }
 
+    /** Called on the event dispatch thread when the external graphics of a legend are fetched. */
+    private void graphicsFetched() {
+        if (refreshSymbol != null) {
+            refreshSymbol.renderSymbol();
+        }
+    }
+
+    /**
+     * Gets the cache of legend graphics drawn for each rule.
+     *
+     * @return the tile cache
+     */
+    public LegendTileCache getTileCache() {
+        return tileCache;
+    }
+
     /**
      * Gets the renderer update.
      *
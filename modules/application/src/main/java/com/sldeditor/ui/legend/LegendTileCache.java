@@ -0,0 +1,233 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.legend;
+
+import java.awt.image.RenderedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.geotools.styling.Graphic;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+import org.opengis.style.GraphicLegend;
+
+/**
+ * Least recently used cache of the legend graphic drawn for each rule.
+ *
+ * <p>Tiles are keyed by a copy of the rule's symbolizers and legend graphic, compared by value,
+ * together with the legend options that affect how the tile is drawn. A rule that has not changed
+ * since the last legend was created reuses its tile, only the final legend then has to be
+ * composed again.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class LegendTileCache {
+
+    /** The Constant DEFAULT_MAX_TILES. */
+    public static final int DEFAULT_MAX_TILES = 2000;
+
+    /** The tile map, in least recently used order. */
+    private final Map<TileKey, RenderedImage> tileMap;
+
+    /** The hit count. */
+    private long hitCount = 0;
+
+    /** The miss count. */
+    private long missCount = 0;
+
+    /** Instantiates a new legend tile cache holding the default number of tiles. */
+    public LegendTileCache() {
+        this(DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Instantiates a new legend tile cache.
+     *
+     * @param maxTiles the maximum number of tiles held
+     */
+    public LegendTileCache(int maxTiles) {
+        final int maxSize = Math.max(1, maxTiles);
+        tileMap =
+                new LinkedHashMap<TileKey, RenderedImage>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<TileKey, RenderedImage> eldest) {
+                        return size() > maxSize;
+                    }
+                };
+    }
+
+    /**
+     * Creates the key identifying the tile of a rule.
+     *
+     * @param rule the rule
+     * @param tileParameters the legend options that affect how the tile is drawn
+     * @return the tile key
+     */
+    public static TileKey createKey(Rule rule, Object... tileParameters) {
+        return new TileKey(rule, tileParameters);
+    }
+
+    /**
+     * Gets the tile of a rule.
+     *
+     * @param key the tile key
+     * @return the tile, null if not cached
+     */
+    public synchronized RenderedImage get(TileKey key) {
+        RenderedImage tile = tileMap.get(key);
+        if (tile == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return tile;
+    }
+
+    /**
+     * Adds the tile of a rule.
+     *
+     * @param key the tile key
+     * @param tile the tile
+     */
+    public synchronized void put(TileKey key, RenderedImage tile) {
+        if ((key != null) && (tile != null)) {
+            tileMap.put(key, tile);
+        }
+    }
+
+    /** Clear all cached tiles. */
+    public synchronized void clear() {
+        tileMap.clear();
+    }
+
+    /**
+     * Gets the number of cached tiles.
+     *
+     * @return the number of cached tiles
+     */
+    public synchronized int size() {
+        return tileMap.size();
+    }
+
+    /**
+     * Gets the number of requests that were served from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of requests that were not in the cache.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Key identifying the tile of a rule. The symbolizers and legend graphic are copied so that
+     * later edits to the rule do not alter keys already in the cache.
+     */
+    public static class TileKey {
+
+        /** The symbolizer list. */
+        private final List<Symbolizer> symbolizerList;
+
+        /** The legend graphic. */
+        private final GraphicLegend legend;
+
+        /** The tile parameter list. */
+        private final List<Object> tileParameterList;
+
+        /** The hash code, calculated once. */
+        private final int hashCode;
+
+        /**
+         * Instantiates a new tile key.
+         *
+         * @param rule the rule
+         * @param tileParameters the legend options that affect how the tile is drawn
+         */
+        private TileKey(Rule rule, Object[] tileParameters) {
+            DuplicatingStyleVisitor duplicator = new DuplicatingStyleVisitor();
+            List<Symbolizer> copyList = new ArrayList<>();
+            for (Symbolizer symbolizer : rule.symbolizers()) {
+                symbolizer.accept(duplicator);
+                copyList.add((Symbolizer) duplicator.getCopy());
+            }
+            symbolizerList = Collections.unmodifiableList(copyList);
+
+            GraphicLegend ruleLegend = rule.getLegend();
+            if (ruleLegend instanceof Graphic) {
+                duplicator.visit((Graphic) ruleLegend);
+                legend = (GraphicLegend) duplicator.getCopy();
+            } else {
+                legend = ruleLegend;
+            }
+
+            tileParameterList =
+                    (tileParameters == null)
+                            ? Collections.emptyList()
+                            : Collections.unmodifiableList(Arrays.asList(tileParameters.clone()));
+
+            hashCode = Arrays.hashCode(new Object[] {symbolizerList, legend, tileParameterList});
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TileKey)) {
+                return false;
+            }
+            TileKey other = (TileKey) obj;
+            return (hashCode == other.hashCode)
+                    && symbolizerList.equals(other.symbolizerList)
+                    && Objects.equals(legend, other.legend)
+                    && tileParameterList.equals(other.tileParameterList);
+        }
+    }
+}
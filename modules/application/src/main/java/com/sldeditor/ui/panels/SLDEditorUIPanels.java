@@ -23,6 +23,8 @@ import com.sldeditor.common.data.SelectedSymbol;
 import com.sldeditor.common.vendoroption.minversion.VendorOptionPresent;
 import com.sldeditor.common.vendoroption.minversion.VendorOptionUI;
 import com.sldeditor.datasource.config.DataSourceConfigPanel;
+import com.sldeditor.datasource.rulehit.RuleHitPanel;
+import com.sldeditor.render.profile.StyleProfilePanel;
 import com.sldeditor.ui.detail.GraphicPanelFieldManager;
 import com.sldeditor.ui.iface.SymbolPanelInterface;
 import com.sldeditor.ui.tree.SLDTree;
@@ -48,6 +50,10 @@ import javax.swing.JPanel;
  *
  * <p>- DataSourceConfigPanel
  *
+ * <p>- StyleProfilePanel
+ *
+ * <p>- RuleHitPanel
+ *
  * <p>- Panel layout for the SLD viewing/editing component
  *
  * @author Robert Ward (SCISYS)
@@ -89,6 +95,12 @@ public class SLDEditorUIPanels implements GetMinimumVersionInterface {
     /** The data source config. */
     private DataSourceConfigPanel dataSourceConfig = null;
 
+    /** The style profile panel. */
+    private StyleProfilePanel styleProfile = null;
+
+    /** The rule hit panel. */
+    private RuleHitPanel ruleHit = null;
+
     /** The vendor option UI. */
     private VendorOptionUI vendorOptionUI = null;
 
@@ -218,6 +230,32 @@ public class SLDEditorUIPanels implements GetMinimumVersionInterface {
         return dataSourceConfig;
     }
 
+    /**
+     * Gets the style profile panel, creates it if it hasn't been already.
+     *
+     * @return the style profile panel
+     */
+    public StyleProfilePanel getStyleProfile() {
+        if (styleProfile == null) {
+            styleProfile = new StyleProfilePanel();
+        }
+
+        return styleProfile;
+    }
+
+    /**
+     * Gets the rule hit panel, creates it if it hasn't been already.
+     *
+     * @return the rule hit panel
+     */
+    public RuleHitPanel getRuleHit() {
+        if (ruleHit == null) {
+            ruleHit = new RuleHitPanel();
+        }
+
+        return ruleHit;
+    }
+
     /**
      * Gets the symbol tree.
      *
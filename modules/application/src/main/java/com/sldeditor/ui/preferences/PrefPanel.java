@@ -49,7 +49,9 @@ import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
 import javax.swing.JTable;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.UIManager;
 import javax.swing.border.TitledBorder;
 
@@ -100,6 +102,9 @@ public class PrefPanel extends JDialog {
 
     private ColourButton colourButton;
 
+    /** The preview cache memory spinner, in megabytes. */
+    private JSpinner previewCacheMemorySpinner;
+
     /** Default constructor. */
     public PrefPanel() {
         setTitle(Localisation.getString(PrefPanel.class, "PrefPanel.title"));
@@ -152,6 +157,22 @@ public class PrefPanel extends JDialog {
 
         panel.add(renderBackgroundPanel);
 
+        // Preview cache memory
+        JPanel previewCacheMemoryPanel = new JPanel();
+        previewCacheMemoryPanel.setLayout(new FlowLayout(FlowLayout.LEADING));
+        previewCacheMemoryPanel.add(
+                new JLabel(Localisation.getField(PrefPanel.class, "PrefPanel.previewCacheMemory")));
+        previewCacheMemorySpinner =
+                new JSpinner(
+                        new SpinnerNumberModel(
+                                PrefData.DEFAULT_PREVIEW_CACHE_MEMORY,
+                                PrefData.MIN_PREVIEW_CACHE_MEMORY,
+                                Integer.MAX_VALUE,
+                                PrefData.MIN_PREVIEW_CACHE_MEMORY));
+        previewCacheMemoryPanel.add(previewCacheMemorySpinner);
+
+        panel.add(previewCacheMemoryPanel);
+
         // Ui layout class
         uiLayoutMap = UILayoutFactory.getAllLayouts();
         String[] uiLayoutNameList = new String[uiLayoutMap.size()];
@@ -299,6 +320,7 @@ public class PrefPanel extends JDialog {
             chckbxSetSaveLastFolderViewed.setSelected(prefData.isSaveLastFolderView());
             model.setSelectedVendorOptionVersions(prefData.getVendorOptionVersionList());
             colourButton.setColour(prefData.getBackgroundColour());
+            previewCacheMemorySpinner.setValue(prefData.getPreviewCacheMemory());
 
             for (Entry<String, String> entry : uiLayoutMap.entrySet()) {
                 String className = entry.getValue();
@@ -329,6 +351,7 @@ public class PrefPanel extends JDialog {
         prefData.setUiLayoutClass(uiLayoutClass);
         prefData.setSaveLastFolderView(chckbxSetSaveLastFolderViewed.isSelected());
         prefData.setBackgroundColour(colourButton.getColour());
+        prefData.setPreviewCacheMemory((Integer) previewCacheMemorySpinner.getValue());
 
         return prefData;
     }
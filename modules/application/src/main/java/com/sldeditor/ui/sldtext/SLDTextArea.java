@@ -20,10 +20,12 @@
 package com.sldeditor.ui.sldtext;
 
 import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SelectedSymbol;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDOutputFormatEnum;
 import com.sldeditor.common.output.SLDOutputInterface;
 import com.sldeditor.common.output.SLDWriterInterface;
+import com.sldeditor.common.output.impl.IncrementalSLDWriterImpl;
 import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.datasource.SLDEditorDataUpdateInterface;
@@ -36,6 +38,7 @@ import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
@@ -43,6 +46,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.Timer;
 import org.geotools.styling.StyledLayerDescriptor;
 
 /**
@@ -69,6 +73,15 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
     /** The resource locator. */
     private URL resourceLocator = null;
 
+    /** The Constant HIDDEN_UPDATE_DELAY, in milliseconds. */
+    private static final int HIDDEN_UPDATE_DELAY = 1000;
+
+    /** The SLD writer, only re-encodes the rules that have changed. */
+    private IncrementalSLDWriterImpl incrementalWriter = new IncrementalSLDWriterImpl();
+
+    /** The timer used to delay updates to the text while the text area is not visible. */
+    private Timer hiddenUpdateTimer = null;
+
     /**
      * Gets the panel.
      *
@@ -88,6 +101,11 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
         RenderPanelFactory.addSLDOutputListener(this);
 
         SLDEditorFile.getInstance().addSLDEditorFileUpdateListener(this);
+
+        SelectedSymbol.getInstance().addDirtyListener(incrementalWriter);
+
+        hiddenUpdateTimer = new Timer(HIDDEN_UPDATE_DELAY, e -> outputText());
+        hiddenUpdateTimer.setRepeats(false);
     }
 
     /**
@@ -155,6 +173,17 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
         sldSourceTextArea.setLineWrap(true);
 
         sldSourcePanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Bring the text up to date as soon as it is displayed
+        sldSourceTextArea.addHierarchyListener(
+                e -> {
+                    if (((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+                            && sldSourceTextArea.isShowing()
+                            && hiddenUpdateTimer.isRunning()) {
+                        hiddenUpdateTimer.stop();
+                        outputText();
+                    }
+                });
         return sldSourcePanel;
     }
 
@@ -169,15 +198,65 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
         this.displayedSld = sld;
         this.resourceLocator = sldData.getResourceLocator();
 
-        outputText();
+        // The detail panels update the selected symbolizer in place,
+        // so the selected rule always needs to be encoded again
+        incrementalWriter.sldObjectDirty(SelectedSymbol.getInstance().getRule());
+
+        if ((sldSourceTextArea != null) && !sldSourceTextArea.isShowing()) {
+            hiddenUpdateTimer.restart();
+        } else {
+            outputText();
+        }
     }
 
     /** Output text. */
     private void outputText() {
-        SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(outputFormat);
+        hiddenUpdateTimer.stop();
+
+        SLDWriterInterface sldWriter =
+                (outputFormat == SLDOutputFormatEnum.SLD)
+                        ? incrementalWriter
+                        : SLDWriterFactory.createWriter(outputFormat);
 
         String encodedSLD = sldWriter.encodeSLD(resourceLocator, displayedSld);
-        sldSourceTextArea.setText(encodedSLD);
+        spliceText(encodedSLD);
+    }
+
+    /**
+     * Replace only the part of the displayed text that has changed, so the document is not
+     * rebuilt and the caret and scroll position are kept.
+     *
+     * @param encodedSLD the encoded SLD
+     */
+    private void spliceText(String encodedSLD) {
+        if (sldSourceTextArea == null) {
+            return;
+        }
+
+        String currentText = sldSourceTextArea.getText();
+        int currentLength = currentText.length();
+        int newLength = encodedSLD.length();
+        int maxLength = Math.min(currentLength, newLength);
+
+        int prefix = 0;
+        while ((prefix < maxLength) && (currentText.charAt(prefix) == encodedSLD.charAt(prefix))) {
+            prefix++;
+        }
+
+        if ((prefix == currentLength) && (prefix == newLength)) {
+            // No change
+            return;
+        }
+
+        int suffix = 0;
+        while ((suffix < (maxLength - prefix))
+                && (currentText.charAt(currentLength - 1 - suffix)
+                        == encodedSLD.charAt(newLength - 1 - suffix))) {
+            suffix++;
+        }
+
+        sldSourceTextArea.replaceRange(
+                encodedSLD.substring(prefix, newLength - suffix), prefix, currentLength - suffix);
     }
 
     /**
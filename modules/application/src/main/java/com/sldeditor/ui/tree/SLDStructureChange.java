@@ -0,0 +1,444 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.NamedLayerImpl;
+import org.geotools.styling.RasterSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.UserLayerImpl;
+
+/**
+ * Records a single structural change made to the SLD object graph, e.g. a rule added to a
+ * feature type style, a symbolizer removed from a rule or a style moved within a layer.
+ *
+ * <p>The change is applied and reverted in place on the SLD objects so an undo/redo does not have
+ * to re-parse the whole SLD. The parent is recorded as a path of indices (layer, style, feature
+ * type style, rule, symbolizer) from the SLD rather than a reference, the SLD objects are replaced
+ * when they are edited so the parent is resolved against the current SLD each time.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SLDStructureChange {
+
+    /** The type of structural change. */
+    public enum ChangeType {
+        /** Child added to the parent. */
+        ADD,
+        /** Child removed from the parent. */
+        REMOVE,
+        /** Child moved within the parent. */
+        MOVE,
+        /** Raster symbolizer image outline replaced. */
+        IMAGE_OUTLINE
+    }
+
+    /** The estimated memory cost of a structural change in bytes. */
+    public static final long ESTIMATED_SIZE = 64L;
+
+    /** The change type. */
+    private final ChangeType changeType;
+
+    /** The indices of the parent SLD object from the SLD, empty for the SLD itself. */
+    private final int[] parentPath;
+
+    /**
+     * The child SLD object, for an image outline change the outline after the change. Updated
+     * with the object taken out of the SLD whenever the child is removed, so any edits made to it
+     * are kept when it is re-inserted.
+     */
+    private Object child;
+
+    /** The image outline before the change. */
+    private Symbolizer previousImageOutline;
+
+    /** The index of the child before the change. */
+    private final int fromIndex;
+
+    /** The index of the child after the change. */
+    private final int toIndex;
+
+    /**
+     * Instantiates a new SLD structure change.
+     *
+     * @param changeType the change type
+     * @param parentPath the parent path
+     * @param child the child
+     * @param previousImageOutline the previous image outline
+     * @param fromIndex the from index
+     * @param toIndex the to index
+     */
+    private SLDStructureChange(
+            ChangeType changeType,
+            int[] parentPath,
+            Object child,
+            Symbolizer previousImageOutline,
+            int fromIndex,
+            int toIndex) {
+        this.changeType = changeType;
+        this.parentPath = parentPath;
+        this.child = child;
+        this.previousImageOutline = previousImageOutline;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    /**
+     * Record a child that has just been added to its parent.
+     *
+     * @param sld the SLD containing the parent
+     * @param parent the parent
+     * @param child the child
+     * @return the SLD structure change, null if the parent is not supported or not in the SLD
+     */
+    public static SLDStructureChange added(
+            StyledLayerDescriptor sld, Object parent, Object child) {
+        List<Object> childList = getChildList(parent);
+        int[] parentPath = getPath(sld, parent);
+        if ((childList == null) || (parentPath == null)) {
+            return null;
+        }
+        return new SLDStructureChange(
+                ChangeType.ADD, parentPath, child, null, -1, indexOf(childList, child));
+    }
+
+    /**
+     * Record a child that is about to be removed from its parent, must be called before the
+     * child is removed.
+     *
+     * @param sld the SLD containing the parent
+     * @param parent the parent
+     * @param child the child
+     * @return the SLD structure change, null if the parent is not supported or not in the SLD
+     */
+    public static SLDStructureChange removed(
+            StyledLayerDescriptor sld, Object parent, Object child) {
+        List<Object> childList = getChildList(parent);
+        int[] parentPath = getPath(sld, parent);
+        if ((childList == null) || (parentPath == null)) {
+            return null;
+        }
+        return new SLDStructureChange(
+                ChangeType.REMOVE, parentPath, child, null, indexOf(childList, child), -1);
+    }
+
+    /**
+     * Record a child that has been moved within its parent.
+     *
+     * @param sld the SLD containing the parent
+     * @param parent the parent
+     * @param child the child
+     * @param fromIndex the index before the move
+     * @param toIndex the index after the move
+     * @return the SLD structure change, null if the parent is not supported or not in the SLD
+     */
+    public static SLDStructureChange moved(
+            StyledLayerDescriptor sld, Object parent, Object child, int fromIndex, int toIndex) {
+        int[] parentPath = getPath(sld, parent);
+        if ((getChildList(parent) == null) || (parentPath == null)) {
+            return null;
+        }
+        return new SLDStructureChange(
+                ChangeType.MOVE, parentPath, child, null, fromIndex, toIndex);
+    }
+
+    /**
+     * Record the image outline of a raster symbolizer being replaced.
+     *
+     * @param sld the SLD containing the raster symbolizer
+     * @param rasterSymbolizer the raster symbolizer
+     * @param oldImageOutline the image outline before the change
+     * @param newImageOutline the image outline after the change
+     * @return the SLD structure change, null if the raster symbolizer is not in the SLD
+     */
+    public static SLDStructureChange imageOutline(
+            StyledLayerDescriptor sld,
+            RasterSymbolizer rasterSymbolizer,
+            Symbolizer oldImageOutline,
+            Symbolizer newImageOutline) {
+        int[] parentPath = getPath(sld, rasterSymbolizer);
+        if ((rasterSymbolizer == null) || (parentPath == null)) {
+            return null;
+        }
+        return new SLDStructureChange(
+                ChangeType.IMAGE_OUTLINE, parentPath, newImageOutline, oldImageOutline, -1, -1);
+    }
+
+    /**
+     * Apply the change to the SLD, i.e. redo.
+     *
+     * @param sld the current SLD
+     * @return true, if the parent was found and the change applied
+     */
+    public boolean apply(StyledLayerDescriptor sld) {
+        Object parent = getParent(sld);
+        if (parent == null) {
+            return false;
+        }
+
+        switch (changeType) {
+            case ADD:
+                insert(parent, toIndex);
+                break;
+            case REMOVE:
+                remove(parent, fromIndex);
+                break;
+            case MOVE:
+                remove(parent, fromIndex);
+                insert(parent, toIndex);
+                break;
+            case IMAGE_OUTLINE:
+                RasterSymbolizer rasterSymbolizer = (RasterSymbolizer) parent;
+                previousImageOutline = rasterSymbolizer.getImageOutline();
+                rasterSymbolizer.setImageOutline((Symbolizer) child);
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Revert the change to the SLD, i.e. undo.
+     *
+     * @param sld the current SLD
+     * @return true, if the parent was found and the change reverted
+     */
+    public boolean revert(StyledLayerDescriptor sld) {
+        Object parent = getParent(sld);
+        if (parent == null) {
+            return false;
+        }
+
+        switch (changeType) {
+            case ADD:
+                remove(parent, toIndex);
+                break;
+            case REMOVE:
+                insert(parent, fromIndex);
+                break;
+            case MOVE:
+                remove(parent, toIndex);
+                insert(parent, fromIndex);
+                break;
+            case IMAGE_OUTLINE:
+                RasterSymbolizer rasterSymbolizer = (RasterSymbolizer) parent;
+                child = rasterSymbolizer.getImageOutline();
+                rasterSymbolizer.setImageOutline(previousImageOutline);
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Insert the child into the parent, appended if the index is out of range.
+     *
+     * @param parent the parent
+     * @param index the index
+     */
+    private void insert(Object parent, int index) {
+        List<Object> childList = getChildList(parent);
+        if ((index >= 0) && (index <= childList.size())) {
+            childList.add(index, child);
+        } else {
+            childList.add(child);
+        }
+    }
+
+    /**
+     * Remove the child at the index from the parent, keeping the object removed so it can be
+     * inserted again.
+     *
+     * @param parent the parent
+     * @param index the index
+     */
+    private void remove(Object parent, int index) {
+        List<Object> childList = getChildList(parent);
+        if ((index >= 0) && (index < childList.size())) {
+            child = childList.remove(index);
+        }
+    }
+
+    /**
+     * Gets the parent SLD object in the current SLD.
+     *
+     * @param sld the current SLD
+     * @return the parent, null if it no longer exists or is not of the expected type
+     */
+    public Object getParent(StyledLayerDescriptor sld) {
+        Object parent = sld;
+        for (int index : parentPath) {
+            List<Object> childList = getChildList(parent);
+            if ((childList == null) || (index < 0) || (index >= childList.size())) {
+                return null;
+            }
+            parent = childList.get(index);
+        }
+
+        boolean expectedType =
+                (changeType == ChangeType.IMAGE_OUTLINE)
+                        ? (parent instanceof RasterSymbolizer)
+                        : (getChildList(parent) != null);
+        return expectedType ? parent : null;
+    }
+
+    /**
+     * Gets the path of indices from the SLD to an SLD object.
+     *
+     * @param sld the SLD
+     * @param target the SLD object to find
+     * @return the path, null if the object is not in the SLD
+     */
+    private static int[] getPath(StyledLayerDescriptor sld, Object target) {
+        if ((sld == null) || (target == null)) {
+            return null;
+        }
+
+        List<Integer> path = new ArrayList<>();
+        if (!findPath(sld, target, path)) {
+            return null;
+        }
+
+        int[] parentPath = new int[path.size()];
+        for (int index = 0; index < parentPath.length; index++) {
+            parentPath[index] = path.get(index);
+        }
+        return parentPath;
+    }
+
+    /**
+     * Search for an SLD object below a parent by identity, building the path as it goes.
+     *
+     * @param parent the parent
+     * @param target the SLD object to find
+     * @param path the path to the parent, extended to the target if found
+     * @return true, if found
+     */
+    private static boolean findPath(Object parent, Object target, List<Integer> path) {
+        if (parent == target) {
+            return true;
+        }
+
+        List<Object> childList = getChildList(parent);
+        if (childList != null) {
+            for (int index = 0; index < childList.size(); index++) {
+                path.add(index);
+                if (findPath(childList.get(index), target, path)) {
+                    return true;
+                }
+                path.remove(path.size() - 1);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the live list of children of an SLD object.
+     *
+     * @param parent the parent
+     * @return the child list, null if not supported
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object> getChildList(Object parent) {
+        List<?> childList = null;
+        if (parent instanceof StyledLayerDescriptor) {
+            childList = ((StyledLayerDescriptor) parent).layers();
+        } else if (parent instanceof NamedLayerImpl) {
+            childList = ((NamedLayerImpl) parent).styles();
+        } else if (parent instanceof UserLayerImpl) {
+            childList = ((UserLayerImpl) parent).userStyles();
+        } else if (parent instanceof Style) {
+            childList = ((Style) parent).featureTypeStyles();
+        } else if (parent instanceof FeatureTypeStyle) {
+            childList = ((FeatureTypeStyle) parent).rules();
+        } else if (parent instanceof Rule) {
+            childList = ((Rule) parent).symbolizers();
+        }
+        return (List<Object>) childList;
+    }
+
+    /**
+     * Find the index of an object in a list by identity, equals() on the GeoTools styling
+     * objects compares contents so indexOf() can find the wrong item.
+     *
+     * @param childList the child list
+     * @param child the child
+     * @return the index, -1 if not found
+     */
+    private static int indexOf(List<Object> childList, Object child) {
+        for (int index = 0; index < childList.size(); index++) {
+            if (childList.get(index) == child) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the change type.
+     *
+     * @return the change type
+     */
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * Gets the path of indices from the SLD to the parent whose children have changed.
+     *
+     * @return the parent path
+     */
+    public int[] getParentPath() {
+        return parentPath.clone();
+    }
+
+    /**
+     * Gets the child SLD object.
+     *
+     * @return the child
+     */
+    public Object getChild() {
+        return child;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "%s %s -> %s (%d, %d)",
+                changeType,
+                (child == null) ? null : child.getClass().getSimpleName(),
+                Arrays.toString(parentPath),
+                fromIndex,
+                toIndex);
+    }
+}
@@ -30,6 +30,7 @@ import com.sldeditor.common.tree.leaf.SLDTreeLeafFactory;
 import com.sldeditor.common.undo.UndoActionInterface;
 import com.sldeditor.common.undo.UndoInterface;
 import com.sldeditor.common.xml.ui.SelectedTreeItemEnum;
+import com.sldeditor.datasource.DataSourceConnectionListener;
 import com.sldeditor.datasource.DataSourceInterface;
 import com.sldeditor.datasource.DataSourceUpdatedInterface;
 import com.sldeditor.datasource.RenderSymbolInterface;
@@ -43,6 +44,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -134,6 +136,10 @@ public class SLDTree extends JPanel
                 if ((render instanceof DataSourceUpdatedInterface) && (dataSource != null)) {
                     dataSource.addListener(render);
                 }
+
+                if ((render instanceof DataSourceConnectionListener) && (dataSource != null)) {
+                    dataSource.addConnectionListener((DataSourceConnectionListener) render);
+                }
             }
         }
 
@@ -260,29 +266,36 @@ public class SLDTree extends JPanel
             treeModel.nodeChanged(rootNode);
 
             if (sld != null) {
-                List<StyledLayer> styledLayerList = sld.layers();
+                for (StyledLayer styledLayer : sld.layers()) {
+                    populateStyledLayer(styledLayer);
+                }
+            }
+        }
+    }
 
-                for (StyledLayer styledLayer : styledLayerList) {
-                    DefaultMutableTreeNode styledLayerTreeNode = null;
-                    List<Style> styleList = null;
+    /**
+     * Populate styled layer.
+     *
+     * @param styledLayer the styled layer
+     */
+    private void populateStyledLayer(StyledLayer styledLayer) {
+        DefaultMutableTreeNode styledLayerTreeNode = null;
+        List<Style> styleList = null;
 
-                    if (styledLayer instanceof NamedLayerImpl) {
-                        NamedLayerImpl namedLayerImpl = (NamedLayerImpl) styledLayer;
-                        styleList = namedLayerImpl.styles();
+        if (styledLayer instanceof NamedLayerImpl) {
+            NamedLayerImpl namedLayerImpl = (NamedLayerImpl) styledLayer;
+            styleList = namedLayerImpl.styles();
 
-                        styledLayerTreeNode = addObject(rootNode, namedLayerImpl, true);
-                    } else if (styledLayer instanceof UserLayerImpl) {
-                        UserLayerImpl userLayerImpl = (UserLayerImpl) styledLayer;
-                        styleList = userLayerImpl.userStyles();
+            styledLayerTreeNode = addObject(rootNode, namedLayerImpl, true);
+        } else if (styledLayer instanceof UserLayerImpl) {
+            UserLayerImpl userLayerImpl = (UserLayerImpl) styledLayer;
+            styleList = userLayerImpl.userStyles();
 
-                        styledLayerTreeNode = addObject(rootNode, userLayerImpl, true);
-                    }
+            styledLayerTreeNode = addObject(rootNode, userLayerImpl, true);
+        }
 
-                    if (styleList != null) {
-                        populateStyles(styledLayerTreeNode, styleList);
-                    }
-                }
-            }
+        if (styleList != null) {
+            populateStyles(styledLayerTreeNode, styleList);
         }
     }
 
@@ -294,19 +307,104 @@ public class SLDTree extends JPanel
      */
     private void populateStyles(DefaultMutableTreeNode styledLayerTreeNode, List<Style> styleList) {
         for (Style style : styleList) {
-            DefaultMutableTreeNode styleTreeNode = addObject(styledLayerTreeNode, style, true);
+            populateStyle(styledLayerTreeNode, style);
+        }
+    }
 
-            for (FeatureTypeStyle fts : style.featureTypeStyles()) {
-                DefaultMutableTreeNode ftsTreeNode = addObject(styleTreeNode, fts, true);
+    /**
+     * Populate style.
+     *
+     * @param styledLayerTreeNode the styled layer tree node
+     * @param style the style
+     */
+    private void populateStyle(DefaultMutableTreeNode styledLayerTreeNode, Style style) {
+        DefaultMutableTreeNode styleTreeNode = addObject(styledLayerTreeNode, style, true);
 
-                for (Rule rule : fts.rules()) {
-                    DefaultMutableTreeNode ruleTreeNode = addObject(ftsTreeNode, rule, true);
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            populateFeatureTypeStyle(styleTreeNode, fts);
+        }
+    }
 
-                    for (Symbolizer symbolizer : rule.symbolizers()) {
-                        populateSymbolizer(ruleTreeNode, symbolizer);
-                    }
-                }
+    /**
+     * Populate feature type style.
+     *
+     * @param styleTreeNode the style tree node
+     * @param fts the feature type style
+     */
+    private void populateFeatureTypeStyle(
+            DefaultMutableTreeNode styleTreeNode, FeatureTypeStyle fts) {
+        DefaultMutableTreeNode ftsTreeNode = addObject(styleTreeNode, fts, true);
+
+        for (Rule rule : fts.rules()) {
+            populateRule(ftsTreeNode, rule);
+        }
+    }
+
+    /**
+     * Populate rule.
+     *
+     * @param ftsTreeNode the feature type style tree node
+     * @param rule the rule
+     */
+    private void populateRule(DefaultMutableTreeNode ftsTreeNode, Rule rule) {
+        DefaultMutableTreeNode ruleTreeNode = addObject(ftsTreeNode, rule, true);
+
+        for (Symbolizer symbolizer : rule.symbolizers()) {
+            populateSymbolizer(ruleTreeNode, symbolizer);
+        }
+    }
+
+    /**
+     * Re-populate the children of a single node from its SLD object, the rest of the tree is
+     * left untouched.
+     *
+     * @param parentNode the parent node
+     */
+    private void repopulateChildren(DefaultMutableTreeNode parentNode) {
+        while (parentNode.getChildCount() > 0) {
+            DefaultMutableTreeNode childNode =
+                    (DefaultMutableTreeNode) parentNode.getChildAt(0);
+            removeFromNodeMap(childNode);
+            treeModel.removeNodeFromParent(childNode);
+        }
+
+        Object parentObj = parentNode.getUserObject();
+
+        if (parentObj instanceof StyledLayerDescriptor) {
+            for (StyledLayer styledLayer : ((StyledLayerDescriptor) parentObj).layers()) {
+                populateStyledLayer(styledLayer);
+            }
+        } else if (parentObj instanceof NamedLayerImpl) {
+            populateStyles(parentNode, ((NamedLayerImpl) parentObj).styles());
+        } else if (parentObj instanceof UserLayerImpl) {
+            populateStyles(parentNode, ((UserLayerImpl) parentObj).userStyles());
+        } else if (parentObj instanceof Style) {
+            for (FeatureTypeStyle fts : ((Style) parentObj).featureTypeStyles()) {
+                populateFeatureTypeStyle(parentNode, fts);
+            }
+        } else if (parentObj instanceof FeatureTypeStyle) {
+            for (Rule rule : ((FeatureTypeStyle) parentObj).rules()) {
+                populateRule(parentNode, rule);
+            }
+        } else if (parentObj instanceof Rule) {
+            for (Symbolizer symbolizer : ((Rule) parentObj).symbolizers()) {
+                populateSymbolizer(parentNode, symbolizer);
             }
+        } else if (parentObj instanceof RasterSymbolizer) {
+            handleRasterSymbolizer((RasterSymbolizer) parentObj, parentNode);
+        }
+    }
+
+    /**
+     * Removes a node and all its descendants from the node map.
+     *
+     * @param node the node
+     */
+    private void removeFromNodeMap(DefaultMutableTreeNode node) {
+        Enumeration<?> enumeration = node.breadthFirstEnumeration();
+        while (enumeration.hasMoreElements()) {
+            DefaultMutableTreeNode descendant = (DefaultMutableTreeNode) enumeration.nextElement();
+            nodeMap.remove(SLDTreeItemWrapper.generateKey(descendant.getUserObject()));
         }
     }
 
@@ -671,7 +769,54 @@ public class SLDTree extends JPanel
     @Override
     public void undoAction(UndoInterface undoRedoObject) {
         if (undoRedoObject != null) {
-            repopulateTree((String) undoRedoObject.getOldValue());
+            Object oldValue = undoRedoObject.getOldValue();
+            if (oldValue instanceof SLDStructureChange) {
+                SLDStructureChange change = (SLDStructureChange) oldValue;
+                StyledLayerDescriptor sld = SelectedSymbol.getInstance().getSld();
+                if (change.revert(sld)) {
+                    structureChanged(sld, change);
+                }
+            } else {
+                repopulateTree((String) oldValue);
+            }
+        }
+    }
+
+    /**
+     * Update the tree after a structural change has been applied in place to the SLD for an
+     * undo/redo operation. Only the children of the changed SLD object are re-populated.
+     *
+     * @param sld the current SLD
+     * @param change the structural change
+     */
+    private void structureChanged(StyledLayerDescriptor sld, SLDStructureChange change) {
+        Object parentObj = change.getParent(sld);
+        DefaultMutableTreeNode parentNode =
+                (parentObj == rootNode.getUserObject())
+                        ? rootNode
+                        : nodeMap.get(SLDTreeItemWrapper.generateKey(parentObj));
+
+        if (parentNode == null) {
+            textUpdated();
+        } else {
+            repopulateChildren(parentNode);
+
+            // Select the item changed if it is still in the tree, otherwise its parent
+            DefaultMutableTreeNode nodeToSelect =
+                    nodeMap.get(SLDTreeItemWrapper.generateKey(change.getChild()));
+            if (nodeToSelect == null) {
+                nodeToSelect = parentNode;
+            }
+            symbolTree.setSelectionPath(getPath(nodeToSelect));
+        }
+
+        SelectedSymbol.getInstance().fireDirty(parentObj);
+        SLDTreeManager.getInstance().rebuildTree(this);
+
+        if (renderList != null) {
+            for (RenderSymbolInterface render : renderList) {
+                render.renderSymbol();
+            }
         }
     }
 
@@ -703,7 +848,16 @@ public class SLDTree extends JPanel
     @Override
     public void redoAction(UndoInterface undoRedoObject) {
         if (undoRedoObject != null) {
-            repopulateTree((String) undoRedoObject.getNewValue());
+            Object newValue = undoRedoObject.getNewValue();
+            if (newValue instanceof SLDStructureChange) {
+                SLDStructureChange change = (SLDStructureChange) newValue;
+                StyledLayerDescriptor sld = SelectedSymbol.getInstance().getSld();
+                if (change.apply(sld)) {
+                    structureChanged(sld, change);
+                }
+            } else {
+                repopulateTree((String) newValue);
+            }
         }
     }
 
@@ -378,9 +378,23 @@ public class SLDTreeTools {
         DefaultMutableTreeNode lastNode = (DefaultMutableTreeNode) path.getLastPathComponent();
         Object obj = lastNode.getUserObject();
 
-        // CHECKSTYLE:OFF
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-        // CHECKSTYLE:ON
+        // Record the change before the item is removed so its position is known
+        DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) lastNode.getParent();
+        Object parentObj = (parentNode == null) ? null : parentNode.getUserObject();
+        SLDStructureChange change = null;
+        if (parentObj instanceof RasterSymbolizer) {
+            RasterSymbolizer rasterSymbolizer = (RasterSymbolizer) parentObj;
+            change =
+                    SLDStructureChange.imageOutline(
+                            SelectedSymbol.getInstance().getSld(),
+                            rasterSymbolizer,
+                            rasterSymbolizer.getImageOutline(),
+                            null);
+        } else {
+            change =
+                    SLDStructureChange.removed(
+                            SelectedSymbol.getInstance().getSld(), parentObj, obj);
+        }
 
         if (obj instanceof NamedLayer) {
             SelectedSymbol.getInstance().removeUserNamedLayer((NamedLayer) obj);
@@ -398,12 +412,10 @@ public class SLDTreeTools {
             SelectedSymbol.getInstance().removeRule((Rule) obj);
             removeTreeNode(lastNode);
         } else if (obj instanceof Symbolizer) {
-            DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) lastNode.getParent();
             if (parentNode != null) {
-                if (parentNode.getUserObject() instanceof RasterSymbolizer) {
+                if (parentObj instanceof RasterSymbolizer) {
                     SelectedSymbol.getInstance()
-                            .removeRasterImageOutline(
-                                    (RasterSymbolizer) parentNode.getUserObject());
+                            .removeRasterImageOutline((RasterSymbolizer) parentObj);
                 } else {
                     SelectedSymbol.getInstance().removeSymbolizer((Symbolizer) obj);
                 }
@@ -422,15 +434,21 @@ public class SLDTreeTools {
             }
         }
 
-        Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        addUndoEvent(change);
+    }
 
-        UndoManager.getInstance()
-                .addUndoEvent(
-                        new UndoEvent(
-                                sldTree.getUndoObject(),
-                                getClass().getName(),
-                                oldValueObj,
-                                newValueObj));
+    /**
+     * Adds an undo event for a structural change to the SLD.
+     *
+     * @param change the structural change
+     */
+    private void addUndoEvent(SLDStructureChange change) {
+        if ((change != null) && (sldTree != null)) {
+            UndoManager.getInstance()
+                    .addUndoEvent(
+                            new UndoEvent(
+                                    sldTree.getUndoObject(), getClass().getName(), change, change));
+        }
     }
 
     /**
@@ -497,10 +515,12 @@ public class SLDTreeTools {
 
         Object obj = lastNode.getUserObject();
 
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        // A new SLD replaces the whole structure, store its state before the add
+        Object oldValueObj = null;
 
         if (obj instanceof String) {
+            oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+
             StyledLayerDescriptor sld = DefaultSymbols.createNewSLD();
 
             SelectedSymbol.getInstance().createNewSLD(sld);
@@ -554,16 +574,25 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            if (obj instanceof String) {
+                // Store current state of the SLD after the add
+                Object newValueObj =
+                        sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+
+                UndoManager.getInstance()
+                        .addUndoEvent(
+                                new UndoEvent(
+                                        sldTree.getUndoObject(),
+                                        getClass().getName(),
+                                        oldValueObj,
+                                        newValueObj));
+            } else {
+                addUndoEvent(
+                        SLDStructureChange.added(
+                                SelectedSymbol.getInstance().getSld(),
+                                obj,
+                                newNode.getUserObject()));
+            }
         }
     }
 
@@ -607,19 +636,30 @@ public class SLDTreeTools {
         return rootNode;
     }
 
+    /**
+     * Gets the selected raster symbolizer.
+     *
+     * @return the selected raster symbolizer, null if a raster symbolizer is not selected
+     */
+    private RasterSymbolizer getSelectedRasterSymbolizer() {
+        Symbolizer symbolizer = SelectedSymbol.getInstance().getSymbolizer();
+        if (symbolizer instanceof RasterSymbolizer) {
+            return (RasterSymbolizer) symbolizer;
+        }
+        return null;
+    }
+
     /** Adds the new marker symbolizer. */
     public void addNewMarker() {
         if (symbolTree == null) {
             return;
         }
 
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         PointSymbolizer newPointSymbolizer = DefaultSymbols.createDefaultPointSymbolizer();
 
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
 
+        Rule rule = SelectedSymbol.getInstance().getRule();
         SelectedSymbol.getInstance().addSymbolizerToRule(newPointSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, newPointSymbolizer, true);
 
@@ -634,16 +674,9 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.added(
+                            SelectedSymbol.getInstance().getSld(), rule, newPointSymbolizer));
         }
     }
 
@@ -652,12 +685,10 @@ public class SLDTreeTools {
         if (symbolTree == null) {
             return;
         }
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         RasterSymbolizer newRasterSymbolizer = DefaultSymbols.createDefaultRasterSymbolizer();
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
 
+        Rule rule = SelectedSymbol.getInstance().getRule();
         SelectedSymbol.getInstance().addSymbolizerToRule(newRasterSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, newRasterSymbolizer, true);
 
@@ -669,16 +700,9 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.added(
+                            SelectedSymbol.getInstance().getSld(), rule, newRasterSymbolizer));
         }
     }
 
@@ -696,12 +720,10 @@ public class SLDTreeTools {
         if (symbolTree == null) {
             return;
         }
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         PointSymbolizer pointSymbolizer = DefaultSymbols.createArrow(isSourceArrow);
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
 
+        Rule rule = SelectedSymbol.getInstance().getRule();
         SelectedSymbol.getInstance().addSymbolizerToRule(pointSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, pointSymbolizer, true);
 
@@ -719,16 +741,9 @@ public class SLDTreeTools {
                 }
             }
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.added(
+                            SelectedSymbol.getInstance().getSld(), rule, pointSymbolizer));
         }
     }
 
@@ -743,12 +758,10 @@ public class SLDTreeTools {
             return;
         }
 
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         TextSymbolizer newTextSymbolizer = DefaultSymbols.createDefaultTextSymbolizer();
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
 
+        Rule rule = SelectedSymbol.getInstance().getRule();
         SelectedSymbol.getInstance().addSymbolizerToRule(newTextSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, newTextSymbolizer, true);
 
@@ -760,16 +773,9 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.added(
+                            SelectedSymbol.getInstance().getSld(), rule, newTextSymbolizer));
         }
     }
 
@@ -778,13 +784,11 @@ public class SLDTreeTools {
         if (symbolTree == null) {
             return;
         }
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         LineSymbolizer newLineSymbolizer = DefaultSymbols.createDefaultLineSymbolizer();
 
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
 
+        Rule rule = SelectedSymbol.getInstance().getRule();
         SelectedSymbol.getInstance().addSymbolizerToRule(newLineSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, newLineSymbolizer, true);
 
@@ -799,16 +803,9 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.added(
+                            SelectedSymbol.getInstance().getSld(), rule, newLineSymbolizer));
         }
     }
 
@@ -817,13 +814,14 @@ public class SLDTreeTools {
         if (symbolTree == null) {
             return;
         }
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         LineSymbolizer newLineSymbolizer = DefaultSymbols.createDefaultLineSymbolizer();
 
         DefaultMutableTreeNode ruleNode = getRasterTreeNode();
 
+        RasterSymbolizer rasterSymbolizer = getSelectedRasterSymbolizer();
+        Symbolizer oldImageOutline =
+                (rasterSymbolizer == null) ? null : rasterSymbolizer.getImageOutline();
+
         SelectedSymbol.getInstance().addImageOutlineSymbolizerToRaster(newLineSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, newLineSymbolizer, true);
 
@@ -838,16 +836,12 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.imageOutline(
+                            SelectedSymbol.getInstance().getSld(),
+                            rasterSymbolizer,
+                            oldImageOutline,
+                            newLineSymbolizer));
         }
     }
 
@@ -856,13 +850,11 @@ public class SLDTreeTools {
         if (symbolTree == null) {
             return;
         }
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         PolygonSymbolizer newPolygonSymbolizer = DefaultSymbols.createDefaultPolygonSymbolizer();
 
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
 
+        Rule rule = SelectedSymbol.getInstance().getRule();
         SelectedSymbol.getInstance().addSymbolizerToRule(newPolygonSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(ruleNode, newPolygonSymbolizer, true);
 
@@ -881,16 +873,9 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.added(
+                            SelectedSymbol.getInstance().getSld(), rule, newPolygonSymbolizer));
         }
     }
 
@@ -899,13 +884,14 @@ public class SLDTreeTools {
         if (symbolTree == null) {
             return;
         }
-        // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
         PolygonSymbolizer newPolygonSymbolizer = DefaultSymbols.createDefaultPolygonSymbolizer();
 
         DefaultMutableTreeNode rasterNode = getRasterTreeNode();
 
+        RasterSymbolizer rasterSymbolizer = getSelectedRasterSymbolizer();
+        Symbolizer oldImageOutline =
+                (rasterSymbolizer == null) ? null : rasterSymbolizer.getImageOutline();
+
         SelectedSymbol.getInstance().addImageOutlineSymbolizerToRaster(newPolygonSymbolizer);
         DefaultMutableTreeNode newNode = sldTree.addObject(rasterNode, newPolygonSymbolizer, true);
 
@@ -924,16 +910,12 @@ public class SLDTreeTools {
 
             symbolTree.setSelectionPath(newPath);
 
-            // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-            UndoManager.getInstance()
-                    .addUndoEvent(
-                            new UndoEvent(
-                                    sldTree.getUndoObject(),
-                                    getClass().getName(),
-                                    oldValueObj,
-                                    newValueObj));
+            addUndoEvent(
+                    SLDStructureChange.imageOutline(
+                            SelectedSymbol.getInstance().getSld(),
+                            rasterSymbolizer,
+                            oldImageOutline,
+                            newPolygonSymbolizer));
         }
     }
 
@@ -996,10 +978,8 @@ public class SLDTreeTools {
         // Calculate index offset value based on direction
         int direction = moveUp ? -1 : 1;
 
-        // Store current state of the SLD before the move
-        // CHECKSTYLE:OFF
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-        // CHECKSTYLE:ON
+        SLDStructureChange change = null;
+        StyledLayerDescriptor currentSld = SelectedSymbol.getInstance().getSld();
 
         if (obj instanceof StyledLayer) {
             StyledLayerDescriptor sld = (StyledLayerDescriptor) parentObj;
@@ -1023,6 +1003,9 @@ public class SLDTreeTools {
 
                 treeModel.removeNodeFromParent(lastNode);
                 treeModel.insertNodeInto(lastNode, parentNode, index + direction);
+                change =
+                        SLDStructureChange.moved(
+                                currentSld, parentObj, obj, index, index + direction);
             } else {
                 return;
             }
@@ -1038,6 +1021,9 @@ public class SLDTreeTools {
 
                     treeModel.removeNodeFromParent(lastNode);
                     treeModel.insertNodeInto(lastNode, parentNode, index + direction);
+                    change =
+                            SLDStructureChange.moved(
+                                    currentSld, parentObj, obj, index, index + direction);
                 } else {
                     return;
                 }
@@ -1053,6 +1039,9 @@ public class SLDTreeTools {
 
                 treeModel.removeNodeFromParent(lastNode);
                 treeModel.insertNodeInto(lastNode, parentNode, index + direction);
+                change =
+                        SLDStructureChange.moved(
+                                currentSld, parentObj, obj, index, index + direction);
             } else {
                 return;
             }
@@ -1066,6 +1055,9 @@ public class SLDTreeTools {
 
                 treeModel.removeNodeFromParent(lastNode);
                 treeModel.insertNodeInto(lastNode, parentNode, index + direction);
+                change =
+                        SLDStructureChange.moved(
+                                currentSld, parentObj, obj, index, index + direction);
             } else {
                 return;
             }
@@ -1079,6 +1071,9 @@ public class SLDTreeTools {
 
                 treeModel.removeNodeFromParent(lastNode);
                 treeModel.insertNodeInto(lastNode, parentNode, index + direction);
+                change =
+                        SLDStructureChange.moved(
+                                currentSld, parentObj, obj, index, index + direction);
             } else {
                 return;
             }
@@ -1109,16 +1104,7 @@ public class SLDTreeTools {
             }
         }
 
-        // Store current state of the SLD after the move
-        Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
-
-        UndoManager.getInstance()
-                .addUndoEvent(
-                        new UndoEvent(
-                                sldTree.getUndoObject(),
-                                getClass().getName(),
-                                oldValueObj,
-                                newValueObj));
+        addUndoEvent(change);
     }
 
     /**
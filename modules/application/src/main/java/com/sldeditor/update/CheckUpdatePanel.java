@@ -21,6 +21,7 @@ package com.sldeditor.update;
 
 import com.sldeditor.common.Controller;
 import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.task.TaskManager;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
@@ -157,8 +158,9 @@ public class CheckUpdatePanel extends JDialog {
                                 CheckUpdatePanel.class, "CheckUpdatePanel.currentVersion"),
                         currentVersion));
 
-        Thread thread1 =
-                new Thread(
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.BACKGROUND_POOL,
                         new Runnable() {
                             @Override
                             public void run() {
@@ -169,8 +171,6 @@ public class CheckUpdatePanel extends JDialog {
                             }
                         });
 
-        thread1.start();
-
         setVisible(true);
     }
 
@@ -187,8 +187,9 @@ public class CheckUpdatePanel extends JDialog {
                                 CheckUpdatePanel.class, "CheckUpdatePanel.currentVersion"),
                         currentVersion));
 
-        Thread thread1 =
-                new Thread(
+        TaskManager.getInstance()
+                .submit(
+                        TaskManager.BACKGROUND_POOL,
                         new Runnable() {
                             @Override
                             public void run() {
@@ -198,8 +199,6 @@ public class CheckUpdatePanel extends JDialog {
                                 checkForLatestVersion(currentVersion, client, true);
                             }
                         });
-
-        thread1.start();
     }
 
     /**
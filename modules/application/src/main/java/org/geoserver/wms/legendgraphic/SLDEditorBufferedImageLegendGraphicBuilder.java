@@ -6,13 +6,15 @@
 
 package org.geoserver.wms.legendgraphic;
 
+import com.sldeditor.filter.v2.envvar.EnvironmentVariableManager;
+import com.sldeditor.render.graphic.ExternalGraphicCache;
+import com.sldeditor.ui.legend.LegendTileCache;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.IndexColorModel;
 import java.awt.image.RenderedImage;
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -22,7 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.imageio.ImageIO;
 import org.geoserver.catalog.LegendInfo;
 import org.geoserver.platform.ServiceException;
 import org.geoserver.wms.GetLegendGraphicRequest;
@@ -140,6 +141,9 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
      */
     private final double MINIMUM_SYMBOL_SIZE = 3.0;
 
+    /** Cache of the legend graphic drawn for each rule, null to draw every rule. */
+    private LegendTileCache tileCache = null;
+
     /**
      * Default constructor. Subclasses may provide its own with a String parameter to establish its
      * desired output format, if they support more than one (e.g. a JAI based one)
@@ -148,6 +152,15 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
         super();
     }
 
+    /**
+     * Sets the cache of the legend graphic drawn for each rule.
+     *
+     * @param tileCache the tile cache, null to draw every rule
+     */
+    public void setTileCache(LegendTileCache tileCache) {
+        this.tileCache = tileCache;
+    }
+
     /**
      * Takes a GetLegendGraphicRequest and produces a BufferedImage that then can be used by a
      * subclass to encode it to the appropriate output format.
@@ -358,18 +371,47 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
                         calcSymbolScale(
                                 w, h, layer, sampleFeature, applicableRules, minimumSymbolSize);
 
+                final Color backgroundColour = LegendUtils.getBackgroundColor(request);
+
                 for (int i = 0; i < ruleCount; i++) {
 
+                    // Reuse the graphic of a rule that has not changed, environment variable
+                    // values can change the graphic of an unchanged rule
+                    LegendTileCache.TileKey tileKey = null;
+                    if (tileCache != null) {
+                        tileKey =
+                                LegendTileCache.createKey(
+                                        applicableRules[i],
+                                        w,
+                                        h,
+                                        transparent,
+                                        backgroundColour,
+                                        scaleDenominator,
+                                        symbolScale,
+                                        imageSizeFactor,
+                                        minimumSymbolSize,
+                                        layer,
+                                        hasVectorTransformation,
+                                        EnvironmentVariableManager.getInstance()
+                                                .getEnvVarList());
+                        RenderedImage cachedImage = tileCache.get(tileKey);
+                        if (cachedImage != null) {
+                            if (titleImage != null) {
+                                layersImages.add(titleImage);
+                                titleImage = null;
+                            }
+                            legendsStack.add(cachedImage);
+                            continue;
+                        }
+                    }
+
                     final RenderedImage image =
                             ImageUtils.createImage(w, h, (IndexColorModel) null, transparent);
                     final Map<RenderingHints.Key, Object> hintsMap =
                             new HashMap<RenderingHints.Key, Object>();
                     final Graphics2D graphics =
                             ImageUtils.prepareTransparency(
-                                    transparent,
-                                    LegendUtils.getBackgroundColor(request),
-                                    image,
-                                    hintsMap);
+                                    transparent, backgroundColour, image, hintsMap);
                     graphics.setRenderingHint(
                             RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
@@ -589,6 +631,10 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
                     }
                     legendsStack.add(image);
                     graphics.dispose();
+
+                    if (tileKey != null) {
+                        tileCache.put(tileKey, image);
+                    }
                 }
                 int labelMargin = 3;
                 if (!StringUtils.isEmpty(request.getLegendOptions().get("labelMargin"))) {
@@ -839,30 +885,29 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
             LOGGER.fine("Unable to obtain " + onlineResource);
             return null; // should log this!
         }
-        try {
-            BufferedImage image = ImageIO.read(url);
+        BufferedImage image =
+                ExternalGraphicCache.getInstance().getImage(url, legendInfo.getFormat(), 0, 0);
+        if (image == null) {
+            LOGGER.log(Level.FINE, "Unable to legend graphic:" + url);
+            return null; // unable to access image
+        }
 
-            if (image.getWidth() == w && image.getHeight() == h) {
-                return image;
-            }
-            final BufferedImage rescale =
-                    ImageUtils.createImage(w, h, (IndexColorModel) null, true);
+        if (image.getWidth() == w && image.getHeight() == h) {
+            return image;
+        }
+        final BufferedImage rescale = ImageUtils.createImage(w, h, (IndexColorModel) null, true);
 
-            Graphics2D g = (Graphics2D) rescale.getGraphics();
-            g.setColor(new Color(255, 255, 255, 0));
-            g.fillRect(0, 0, w, h);
+        Graphics2D g = (Graphics2D) rescale.getGraphics();
+        g.setColor(new Color(255, 255, 255, 0));
+        g.fillRect(0, 0, w, h);
 
-            double aspect = ((double) h) / ((double) image.getHeight());
-            int legendWidth = (int) (aspect * ((double) image.getWidth()));
+        double aspect = ((double) h) / ((double) image.getHeight());
+        int legendWidth = (int) (aspect * ((double) image.getWidth()));
 
-            g.drawImage(image, 0, 0, legendWidth, h, null);
-            g.dispose();
+        g.drawImage(image, 0, 0, legendWidth, h, null);
+        g.dispose();
 
-            return rescale;
-        } catch (IOException notFound) {
-            LOGGER.log(Level.FINE, "Unable to legend graphic:" + url, notFound);
-            return null; // unable to access image
-        }
+        return rescale;
     }
 
     /**
@@ -0,0 +1,115 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.batch.BatchOptions;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for BatchOptions class.
+ *
+ * <p>{@link com.sldeditor.batch.BatchOptions}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class BatchOptionsTest {
+
+    /**
+     * Test method for {@link com.sldeditor.batch.BatchOptions#parse(java.lang.String[])}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testParse() throws IOException {
+        File inputFolder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        inputFolder.deleteOnExit();
+        String input = inputFolder.getAbsolutePath();
+
+        BatchOptions options = BatchOptions.parse(new String[] {input});
+        assertEquals(1, options.getInputList().size());
+        assertNull(options.getOutputFolder());
+        assertNull(options.getOutputFormat());
+        assertFalse(options.isLegend());
+        assertFalse(options.isCheck());
+        assertNull(options.getAttributeList());
+        assertNull(options.getSummaryFile());
+        assertTrue(options.getThreads() > 0);
+
+        options =
+                BatchOptions.parse(
+                        new String[] {
+                            BatchOptions.ARG_INPUT,
+                            input,
+                            BatchOptions.ARG_OUTPUT,
+                            "out",
+                            BatchOptions.ARG_FORMAT,
+                            "YSLD",
+                            BatchOptions.ARG_LEGEND,
+                            BatchOptions.ARG_ATTRIBUTES,
+                            "name, type",
+                            BatchOptions.ARG_THREADS,
+                            "3",
+                            BatchOptions.ARG_SUMMARY,
+                            "summary.json"
+                        });
+        assertEquals(new File(input), options.getInputList().get(0));
+        assertEquals(new File("out"), options.getOutputFolder());
+        assertEquals(SLDOutputFormatEnum.YSLD, options.getOutputFormat());
+        assertTrue(options.isLegend());
+        assertTrue(options.isCheck());
+        assertEquals(2, options.getAttributeList().size());
+        assertEquals("type", options.getAttributeList().get(1));
+        assertEquals(3, options.getThreads());
+        assertEquals(new File("summary.json"), options.getSummaryFile());
+
+        // Invalid arguments
+        assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(new String[] {}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BatchOptions.parse(new String[] {input, "--unknown"}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BatchOptions.parse(new String[] {input, BatchOptions.ARG_THREADS}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BatchOptions.parse(new String[] {input, BatchOptions.ARG_THREADS, "0"}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        BatchOptions.parse(
+                                new String[] {input, BatchOptions.ARG_FORMAT, "mapbox"}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BatchOptions.parse(new String[] {input, BatchOptions.ARG_LEGEND}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BatchOptions.parse(new String[] {new File(inputFolder, "x").getPath()}));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sldeditor.batch.BatchOptions;
+import com.sldeditor.batch.SLDEditorBatch;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for SLDEditorBatch class.
+ *
+ * <p>{@link com.sldeditor.batch.SLDEditorBatch}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class SLDEditorBatchTest {
+
+    /** The temporary folder. */
+    private File tempFolder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFolder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tidyUp() throws IOException {
+        FileUtils.deleteDirectory(tempFolder);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.batch.SLDEditorBatch#run(java.lang.String[],
+     * java.io.PrintStream, java.io.PrintStream)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testRun() throws IOException {
+        File inputFolder = new File(tempFolder, "input");
+        copyResource("/point/sld/point_attribute.sld", new File(inputFolder, "sld"));
+        copyResource("/point/ysld/point_simplepoint.ysld", new File(inputFolder, "ysld"));
+
+        File outputFolder = new File(tempFolder, "output");
+        File summaryFile = new File(tempFolder, "summary.json");
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode =
+                SLDEditorBatch.run(
+                        new String[] {
+                            inputFolder.getAbsolutePath(),
+                            BatchOptions.ARG_OUTPUT,
+                            outputFolder.getAbsolutePath(),
+                            BatchOptions.ARG_FORMAT,
+                            "ysld",
+                            BatchOptions.ARG_ATTRIBUTES,
+                            "pop",
+                            BatchOptions.ARG_THREADS,
+                            "2",
+                            BatchOptions.ARG_SUMMARY,
+                            summaryFile.getAbsolutePath()
+                        },
+                        System.out,
+                        new PrintStream(err));
+
+        assertEquals(SLDEditorBatch.EXIT_OK, exitCode);
+
+        // Output folder mirrors the input folder
+        assertTrue(new File(outputFolder, "sld/point_attribute.ysld").exists());
+        assertTrue(new File(outputFolder, "ysld/point_simplepoint.ysld").exists());
+
+        String json = new String(Files.readAllBytes(summaryFile.toPath()), StandardCharsets.UTF_8);
+        JsonObject summary = new JsonParser().parse(json).getAsJsonObject();
+        assertEquals(2, summary.get("total").getAsInt());
+        assertEquals(2, summary.get("succeeded").getAsInt());
+        assertEquals(0, summary.get("failed").getAsInt());
+
+        JsonArray files = summary.get("files").getAsJsonArray();
+        assertEquals(2, files.size());
+        JsonObject sldResult = files.get(0).getAsJsonObject();
+        assertTrue(sldResult.get("file").getAsString().endsWith("point_attribute.sld"));
+        assertTrue(sldResult.has("parseTime"));
+        assertTrue(sldResult.has("totalTime"));
+        assertEquals("pop", sldResult.get("attributes").getAsJsonArray().get(0).getAsString());
+        assertEquals(0, sldResult.get("missingAttributes").getAsJsonArray().size());
+
+        // Attribute not provided by the data source
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exitCode =
+                SLDEditorBatch.run(
+                        new String[] {
+                            new File(inputFolder, "sld").getAbsolutePath(),
+                            BatchOptions.ARG_ATTRIBUTES,
+                            "name"
+                        },
+                        new PrintStream(out),
+                        new PrintStream(err));
+        assertEquals(SLDEditorBatch.EXIT_FAILED, exitCode);
+        summary = new JsonParser().parse(out.toString()).getAsJsonObject();
+        assertEquals(1, summary.get("failed").getAsInt());
+
+        // Invalid arguments
+        exitCode = SLDEditorBatch.run(new String[] {}, System.out, new PrintStream(err));
+        assertEquals(SLDEditorBatch.EXIT_INVALID_ARGUMENTS, exitCode);
+    }
+
+    /**
+     * Copy a test resource to a folder.
+     *
+     * @param resource the resource
+     * @param folder the destination folder
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void copyResource(String resource, File folder) throws IOException {
+        folder.mkdirs();
+        String filename = resource.substring(resource.lastIndexOf('/') + 1);
+        try (InputStream inputStream = SLDEditorBatchTest.class.getResourceAsStream(resource)) {
+            Files.copy(
+                    inputStream,
+                    new File(folder, filename).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
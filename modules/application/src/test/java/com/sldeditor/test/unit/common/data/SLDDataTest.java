@@ -15,6 +15,7 @@ import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.output.SLDOutputFormatEnum;
 import com.sldeditor.common.vendoroption.VersionData;
 import com.sldeditor.datasource.attribute.DataSourceAttributeData;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
 import com.sldeditor.ui.legend.option.LegendOptionData;
 import java.io.File;
 import java.io.IOException;
@@ -270,4 +271,18 @@ public class SLDDataTest {
         data.setLegendOptions(legendOptions);
         assertEquals(legendOptions, data.getLegendOptions());
     }
+
+    /** Test data source sampling options. */
+    @Test
+    public void testSamplingOptions() {
+        SLDData data = new SLDData(null, null);
+        assertNotNull(data.getSamplingOptions());
+
+        data.setSamplingOptions(null);
+        assertNotNull(data.getSamplingOptions());
+
+        DataSourceSamplingOptions samplingOptions = new DataSourceSamplingOptions();
+        data.setSamplingOptions(samplingOptions);
+        assertEquals(samplingOptions, data.getSamplingOptions());
+    }
 }
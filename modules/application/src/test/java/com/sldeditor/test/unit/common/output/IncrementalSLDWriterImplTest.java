@@ -0,0 +1,98 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.output;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.output.impl.IncrementalSLDWriterImpl;
+import com.sldeditor.common.output.impl.SLDWriterImpl;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.PointSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The unit test for IncrementalSLDWriterImpl.
+ *
+ * <p>{@link com.sldeditor.common.output.impl.IncrementalSLDWriterImpl}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class IncrementalSLDWriterImplTest {
+
+    private String testSld =
+            "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><StyledLayerDescriptor version=\"1.0.0\" xsi:schemaLocation=\"http://www.opengis.net/sld StyledLayerDescriptor.xsd\" xmlns=\"http://www.opengis.net/sld\" xmlns:ogc=\"http://www.opengis.net/ogc\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">  <NamedLayer><Name>Simple Point</Name><UserStyle><Title>SLD Cook Book: Simple Point</Title><FeatureTypeStyle><Rule><Name>Rule 1</Name><PointSymbolizer><Graphic><Mark><WellKnownName>circle</WellKnownName><Fill><CssParameter name=\"fill\">#FF0000</CssParameter></Fill></Mark><Size>6</Size></Graphic></PointSymbolizer></Rule><Rule><Name>Rule 2</Name><PointSymbolizer><Graphic><Mark><WellKnownName>square</WellKnownName><Fill><CssParameter name=\"fill\">#00FF00</CssParameter></Fill></Mark><Size>8</Size></Graphic></PointSymbolizer></Rule></FeatureTypeStyle></UserStyle></NamedLayer></StyledLayerDescriptor>";
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.output.impl.IncrementalSLDWriterImpl#encodeSLD(java.net.URL,
+     * org.geotools.styling.StyledLayerDescriptor)}.
+     */
+    @Test
+    public void testEncodeSLD() {
+        IncrementalSLDWriterImpl writer = new IncrementalSLDWriterImpl();
+        SLDWriterImpl fullWriter = new SLDWriterImpl();
+
+        assertEquals("", writer.encodeSLD(null, null));
+
+        StyledLayerDescriptor sld = SLDUtils.createSLDFromString(new SLDData(null, testSld));
+
+        // First encode populates the cache
+        String result = writer.encodeSLD(null, sld);
+        assertEquals(fullWriter.encodeSLD(null, sld), result);
+        assertEquals(2, writer.getCacheSize());
+
+        // Encoding again uses the cached fragments
+        assertEquals(result, writer.encodeSLD(null, sld));
+
+        // Modify the second rule in place and mark it as dirty
+        Rule rule2 =
+                SLDUtils.getStylesList(sld.layers().get(0))
+                        .get(0)
+                        .featureTypeStyles()
+                        .get(0)
+                        .rules()
+                        .get(1);
+        PointSymbolizer symbolizer = (PointSymbolizer) rule2.symbolizers().get(0);
+        symbolizer.getGraphic().setSize(CommonFactoryFinder.getFilterFactory().literal(12));
+        writer.sldObjectDirty(symbolizer);
+
+        String updatedResult = writer.encodeSLD(null, sld);
+        assertNotEquals(result, updatedResult);
+        assertEquals(fullWriter.encodeSLD(null, sld), updatedResult);
+
+        // Remove a rule, cache only contains the remaining rule
+        SLDUtils.getStylesList(sld.layers().get(0))
+                .get(0)
+                .featureTypeStyles()
+                .get(0)
+                .rules()
+                .remove(0);
+        assertEquals(fullWriter.encodeSLD(null, sld), writer.encodeSLD(null, sld));
+        assertEquals(1, writer.getCacheSize());
+
+        writer.sldAllDirty();
+        assertEquals(0, writer.getCacheSize());
+    }
+}
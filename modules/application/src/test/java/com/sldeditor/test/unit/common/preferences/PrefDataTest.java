@@ -56,6 +56,7 @@ public class PrefDataTest {
 
         prefData.setUiLayoutClass(uiLayoutClass);
         prefData.setLastFolderViewed("last folder");
+        prefData.setPreviewCacheMemory(42);
 
         PrefData newObj = new PrefData(prefData);
 
@@ -68,6 +69,7 @@ public class PrefDataTest {
         assertEquals(newObj.getLastFolderViewed(), prefData.getLastFolderViewed());
         assertEquals(newObj.isCheckAppVersionOnStartUp(), prefData.isCheckAppVersionOnStartUp());
         assertEquals(newObj.getFileEncoding(), prefData.getFileEncoding());
+        assertEquals(newObj.getPreviewCacheMemory(), prefData.getPreviewCacheMemory());
     }
 
     /** Test method for {@link com.sldeditor.common.preferences.PrefData#isUseAntiAlias()}. */
@@ -200,4 +202,18 @@ public class PrefDataTest {
         prefData.setFileEncoding(Charset.forName(charsetName));
         assertEquals(charsetName, prefData.getFileEncoding().name());
     }
+
+    /**
+     * Test method for {@link com.sldeditor.common.preferences.PrefData#setPreviewCacheMemory(int)}.
+     * Test method for {@link com.sldeditor.common.preferences.PrefData#getPreviewCacheMemory()}.
+     */
+    @Test
+    public void testPreviewCacheMemory() {
+        PrefData prefData = new PrefData();
+        assertEquals(PrefData.DEFAULT_PREVIEW_CACHE_MEMORY, prefData.getPreviewCacheMemory());
+
+        prefData.setPreviewCacheMemory(64);
+        assertEquals(64, prefData.getPreviewCacheMemory());
+        assertFalse(prefData.equals(new PrefData()));
+    }
 }
@@ -36,6 +36,7 @@ import com.sldeditor.common.vendoroption.GeoServerVendorOption;
 import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VersionData;
 import com.sldeditor.common.xml.ui.FieldIdEnum;
+import com.sldeditor.datasource.cache.PreviewDataCache;
 import java.awt.Color;
 import java.io.File;
 import java.nio.charset.Charset;
@@ -237,11 +238,19 @@ public class PrefManagerTest {
         String uiLayoutClass = "perfect curve";
 
         prefData.setUiLayoutClass(uiLayoutClass);
+        prefData.setPreviewCacheMemory(64);
 
         PrefManager.getInstance().setPrefData(prefData);
 
         assertEquals(
                 backgroundColour, PrefManager.getInstance().getPrefData().getBackgroundColour());
+        assertEquals(64, PrefManager.getInstance().getPrefData().getPreviewCacheMemory());
+        assertEquals(64L * 1024L * 1024L, PreviewDataCache.getInstance().getMaxMemory());
+
+        prefData.setPreviewCacheMemory(256);
+        PrefManager.getInstance().setPrefData(prefData);
+        assertEquals(
+                PreviewDataCache.DEFAULT_MAX_MEMORY, PreviewDataCache.getInstance().getMaxMemory());
         assertEquals(uiLayoutClass, PrefManager.getInstance().getPrefData().getUiLayoutClass());
         assertEquals(true, PrefManager.getInstance().getPrefData().isUseAntiAlias());
         assertEquals(charsetName, PrefManager.getInstance().getPrefData().getFileEncoding().name());
@@ -51,6 +51,40 @@ class PropertyFileFolderTest {
 
     private final String newConfigFilename = "sldeditor.properties";
 
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.property.PropertyFileFolder#getConfigFolder(java.lang.String)}.
+     */
+    @Test
+    void testGetConfigFolder() {
+        Path tempFolder = null;
+        try {
+            tempFolder = Files.createTempDirectory("sldeditor_testGetConfigFolder");
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail("Failed to create temp folder in temp folder!");
+        }
+
+        String userHome = tempFolder.toFile().getAbsolutePath();
+        File configFolder = new File(PropertyFileFolder.getConfigFolder(userHome));
+        assertTrue(configFolder.exists());
+
+        // The configuration files are stored in the same folder
+        assertEquals(
+                new File(configFolder, newConfigFilename).getAbsolutePath(),
+                PropertyFileFolder.getFolder(userHome, oldConfigFilename, newConfigFilename));
+
+        try {
+            Files.walk(tempFolder)
+                    .sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
     /**
      * Test method for {@link
      * com.sldeditor.common.property.PropertyFileFolder#getFolder(java.lang.String,
@@ -0,0 +1,199 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.common.task.TaskPoolMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for TaskManager class.
+ *
+ * <p>{@link com.sldeditor.common.task.TaskManager}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class TaskManagerTest {
+
+    /**
+     * Test method for {@link com.sldeditor.common.task.TaskManager#submit(String,
+     * java.util.concurrent.Callable)}, the pool size limits the number of concurrent tasks.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSubmit() throws Exception {
+        String poolName = "test-submit";
+        TaskManager taskManager = TaskManager.getInstance();
+        taskManager.setPoolSize(poolName, 2);
+        assertNull(taskManager.getMetrics(poolName));
+
+        AtomicInteger active = new AtomicInteger(0);
+        AtomicInteger maxActive = new AtomicInteger(0);
+        List<String> threadNameList = new ArrayList<>();
+        List<Future<Integer>> futureList = new ArrayList<>();
+        for (int index = 0; index < 6; index++) {
+            final int value = index;
+            futureList.add(
+                    taskManager.submit(
+                            poolName,
+                            () -> {
+                                maxActive.accumulateAndGet(
+                                        active.incrementAndGet(), Math::max);
+                                synchronized (threadNameList) {
+                                    threadNameList.add(Thread.currentThread().getName());
+                                }
+                                Thread.sleep(20);
+                                active.decrementAndGet();
+                                return value;
+                            }));
+        }
+
+        for (int index = 0; index < futureList.size(); index++) {
+            assertEquals(index, futureList.get(index).get(5, TimeUnit.SECONDS).intValue());
+        }
+
+        assertTrue(maxActive.get() <= 2);
+        for (String threadName : threadNameList) {
+            assertTrue(threadName.startsWith("sldeditor-" + poolName + "-"), threadName);
+        }
+
+        TaskPoolMetrics metrics = waitForIdle(poolName, 6);
+        assertEquals(poolName, metrics.getPoolName());
+        assertEquals(2, metrics.getPoolSize());
+        assertEquals(6, metrics.getSubmitted());
+        assertEquals(6, metrics.getCompleted());
+        assertEquals(0, metrics.getFailed());
+        assertEquals(0, metrics.getQueueDepth());
+        assertTrue(metrics.getAverageRunTime() > 0.0);
+        assertTrue(metrics.getMaxQueueTime() >= metrics.getAverageQueueTime());
+        assertTrue(
+                taskManager
+                        .getMetrics()
+                        .stream()
+                        .anyMatch(m -> m.getPoolName().equals(poolName)));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.common.task.TaskManager#cancel(String)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testCancel() throws Exception {
+        String poolName = "test-cancel";
+        TaskManager taskManager = TaskManager.getInstance();
+        taskManager.setPoolSize(poolName, 1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Future<?> running =
+                taskManager.submit(
+                        poolName,
+                        () -> {
+                            started.countDown();
+                            try {
+                                Thread.sleep(10000);
+                            } catch (InterruptedException e) {
+                                interrupted.countDown();
+                            }
+                        });
+        AtomicInteger queuedRuns = new AtomicInteger(0);
+        Future<?> queued = taskManager.submit(poolName, () -> queuedRuns.incrementAndGet());
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, taskManager.getMetrics(poolName).getQueueDepth());
+
+        assertEquals(2, taskManager.cancel(poolName));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(running.isCancelled());
+        assertTrue(queued.isCancelled());
+
+        TaskPoolMetrics metrics = waitForIdle(poolName, 2);
+        assertEquals(2, metrics.getCancelled());
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(0, queuedRuns.get());
+
+        assertEquals(0, taskManager.cancel("unknown"));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.common.task.TaskManager#submit(String, Runnable)},
+     * exceptions thrown by a task are counted.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testFailedTask() throws Exception {
+        String poolName = "test-failed";
+        TaskManager taskManager = TaskManager.getInstance();
+
+        Future<?> future =
+                taskManager.submit(
+                        poolName,
+                        () -> {
+                            throw new IllegalStateException("test");
+                        });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        TaskPoolMetrics metrics = waitForIdle(poolName, 1);
+        assertEquals(TaskManager.DEFAULT_POOL_SIZE, metrics.getPoolSize());
+        assertEquals(1, metrics.getFailed());
+        assertEquals(0, metrics.getCompleted());
+    }
+
+    /**
+     * Wait for the tasks in a pool to be recorded as done.
+     *
+     * @param poolName the pool name
+     * @param expectedDone the expected number of tasks done
+     * @return the metrics
+     * @throws InterruptedException the interrupted exception
+     */
+    private TaskPoolMetrics waitForIdle(String poolName, int expectedDone)
+            throws InterruptedException {
+        TaskPoolMetrics metrics = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            metrics = TaskManager.getInstance().getMetrics(poolName);
+            if (metrics.getCompleted() + metrics.getFailed() + metrics.getCancelled()
+                    >= expectedDone) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        return metrics;
+    }
+}
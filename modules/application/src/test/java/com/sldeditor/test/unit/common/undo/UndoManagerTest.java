@@ -336,4 +336,53 @@ public class UndoManagerTest {
         assertNull(parentListener.redoAction);
         UndoManager.getInstance().setPopulationCheck(null);
     }
+
+    /** Test method for {@link com.sldeditor.common.undo.UndoManager#setMemoryBudget(long)}. */
+    @Test
+    public void testMemoryBudget() {
+        UndoManager.destroyInstance();
+        DummyUndoParent parentListener = new DummyUndoParent();
+        UndoManager instance = UndoManager.getInstance();
+        assertEquals(UndoManager.DEFAULT_MEMORY_BUDGET, instance.getMemoryBudget());
+
+        // Each event holds two 1000 character strings, roughly 4kB
+        String oldValue = String.format("%1000s", "old");
+        String newValue = String.format("%1000s", "new");
+        instance.setMemoryBudget(10000L);
+
+        UndoEvent event1 = new UndoEvent(parentListener, "event1", oldValue, newValue);
+        UndoEvent event2 = new UndoEvent(parentListener, "event2", oldValue, newValue);
+        UndoEvent event3 = new UndoEvent(parentListener, "event3", oldValue, newValue);
+
+        instance.addUndoEvent(event1);
+        instance.addUndoEvent(event2);
+        assertEquals(2, instance.getUndoListSize());
+        long twoEvents = instance.getMemoryUsed();
+        assertTrue(twoEvents <= 10000L);
+
+        // Oldest event discarded
+        instance.addUndoEvent(event3);
+        assertEquals(2, instance.getUndoListSize());
+        assertEquals(twoEvents, instance.getMemoryUsed());
+
+        instance.undo();
+        assertEquals(event3, parentListener.undoAction);
+        instance.undo();
+        assertEquals(event2, parentListener.undoAction);
+        parentListener.undoAction = null;
+        instance.undo();
+        assertNull(parentListener.undoAction);
+
+        // Reducing the budget always keeps the most recent event
+        instance.redo();
+        instance.redo();
+        instance.setMemoryBudget(1L);
+        assertEquals(1, instance.getUndoListSize());
+        instance.undo();
+        assertEquals(event3, parentListener.undoAction);
+
+        instance.fileSaved();
+        assertEquals(0L, instance.getMemoryUsed());
+        UndoManager.destroyInstance();
+    }
 }
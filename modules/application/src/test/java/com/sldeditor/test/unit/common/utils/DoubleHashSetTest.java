@@ -0,0 +1,90 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.utils.DoubleHashSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for DoubleHashSet class.
+ *
+ * <p>{@link com.sldeditor.common.utils.DoubleHashSet}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class DoubleHashSetTest {
+
+    /** Test method for {@link com.sldeditor.common.utils.DoubleHashSet#add(double)}. */
+    @Test
+    void testAdd() {
+        DoubleHashSet set = new DoubleHashSet();
+        assertTrue(set.isEmpty());
+
+        assertTrue(set.add(1.5));
+        assertFalse(set.add(1.5));
+        assertTrue(set.add(-3.0));
+        assertTrue(set.add(Double.NaN));
+        assertFalse(set.add(Double.NaN));
+        assertEquals(3, set.size());
+
+        assertTrue(set.contains(1.5));
+        assertTrue(set.contains(Double.NaN));
+        assertFalse(set.contains(2.0));
+
+        // Grow well past the initial capacity
+        for (int value = 0; value < 10000; value++) {
+            set.add(value);
+            set.add(value);
+        }
+        assertEquals(10003, set.size());
+        for (int value = 0; value < 10000; value++) {
+            assertTrue(set.contains(value));
+        }
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1.5));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.utils.DoubleHashSet#addAll(com.sldeditor.common.utils.DoubleHashSet)}.
+     */
+    @Test
+    void testAddAll() {
+        DoubleHashSet set1 = new DoubleHashSet(2);
+        set1.add(3.0);
+        set1.add(1.0);
+
+        DoubleHashSet set2 = new DoubleHashSet();
+        set2.add(2.0);
+        set2.add(3.0);
+
+        set1.addAll(set2);
+        set1.addAll(null);
+
+        assertArrayEquals(new double[] {1.0, 2.0, 3.0}, set1.toSortedArray(), 0.0);
+    }
+}
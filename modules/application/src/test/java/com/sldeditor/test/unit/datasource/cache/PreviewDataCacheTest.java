@@ -0,0 +1,277 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.cache.PreviewDataCache;
+import com.sldeditor.datasource.cache.PreviewFeatureData;
+import com.sldeditor.datasource.cache.PreviewFeatureSource;
+import java.io.IOException;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.factory.Hints;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Unit test for PreviewDataCache class.
+ *
+ * <p>{@link com.sldeditor.datasource.cache.PreviewDataCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class PreviewDataCacheTest {
+
+    /** The Constant NO_OF_LINES, lines are created along a diagonal. */
+    private static final int NO_OF_LINES = 100;
+
+    /** The Constant POINTS_PER_LINE. */
+    private static final int POINTS_PER_LINE = 1000;
+
+    /** The filter factory. */
+    private static FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+
+    /** Release any cached data. */
+    @AfterEach
+    void tearDown() {
+        PreviewDataCache.destroyInstance();
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.cache.PreviewDataCache#getFeatureSource(FeatureSource)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetFeatureSource() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                dataStore.getFeatureSource("test");
+
+        PreviewDataCache cache = PreviewDataCache.getInstance();
+        assertNull(cache.getFeatureSource(null));
+
+        FeatureSource<SimpleFeatureType, SimpleFeature> cachedSource =
+                cache.getFeatureSource(source);
+        assertTrue(cachedSource instanceof PreviewFeatureSource);
+        assertEquals(source.getSchema(), cachedSource.getSchema());
+        assertEquals(source.getBounds(), cachedSource.getBounds());
+        assertEquals(NO_OF_LINES, cachedSource.getCount(Query.ALL));
+        assertTrue(cache.getEstimatedMemory() > 0);
+
+        // A new feature source for the same data is served from the cache
+        assertSame(cachedSource, cache.getFeatureSource(dataStore.getFeatureSource("test")));
+        assertSame(cachedSource, cache.getFeatureSource(cachedSource));
+
+        cache.evict(dataStore);
+        assertEquals(0, cache.getEstimatedMemory());
+        assertNotSame(cachedSource, cache.getFeatureSource(source));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.cache.PreviewFeatureSource#getFeatures(org.geotools.data.Query)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetFeatures() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> cachedSource =
+                PreviewDataCache.getInstance().getFeatureSource(dataStore.getFeatureSource("test"));
+
+        // Bounding box covering the first 10 lines
+        Filter bboxFilter = ff.bbox("geom", -0.5, -0.5, 9.5, 9.5, null);
+        assertEquals(10, cachedSource.getFeatures(bboxFilter).size());
+
+        Filter attributeFilter = ff.and(bboxFilter, ff.less(ff.property("id"), ff.literal(5)));
+        assertEquals(5, cachedSource.getFeatures(attributeFilter).size());
+        assertEquals(0, cachedSource.getFeatures(Filter.EXCLUDE).size());
+
+        Query query = new Query("test", Filter.INCLUDE);
+        query.setMaxFeatures(3);
+        assertEquals(3, cachedSource.getFeatures(query).size());
+
+        // Full resolution by default
+        assertEquals(POINTS_PER_LINE, getMaxPoints(cachedSource.getFeatures(bboxFilter)));
+
+        // Generalised geometries when the renderer asks for them
+        Query generalisedQuery = new Query("test", bboxFilter);
+        generalisedQuery.setHints(new Hints(Hints.GEOMETRY_DISTANCE, 10.0));
+        assertTrue(
+                getMaxPoints(cachedSource.getFeatures(generalisedQuery)) < POINTS_PER_LINE / 10);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.cache.PreviewFeatureSource#getFeatures(org.geotools.data.Query)},
+     * with a sort order.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetFeaturesSorted() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> cachedSource =
+                PreviewDataCache.getInstance().getFeatureSource(dataStore.getFeatureSource("test"));
+
+        SortBy[] descending = new SortBy[] {ff.sort("id", SortOrder.DESCENDING)};
+        assertTrue(cachedSource.getQueryCapabilities().supportsSorting(descending));
+        assertFalse(
+                cachedSource
+                        .getQueryCapabilities()
+                        .supportsSorting(new SortBy[] {ff.sort("unknown", SortOrder.ASCENDING)}));
+
+        // Sorted before the maximum number of features is applied
+        Query query = new Query("test", Filter.INCLUDE);
+        query.setSortBy(descending);
+        query.setMaxFeatures(3);
+        List<SimpleFeature> featureList = DataUtilities.list(cachedSource.getFeatures(query));
+        assertEquals(3, featureList.size());
+        assertEquals(NO_OF_LINES - 1, featureList.get(0).getAttribute("id"));
+        assertEquals(NO_OF_LINES - 3, featureList.get(2).getAttribute("id"));
+
+        query = new Query("test", Filter.INCLUDE);
+        query.setSortBy(new SortBy[] {ff.sort("id", SortOrder.ASCENDING)});
+        featureList = DataUtilities.list(cachedSource.getFeatures(query));
+        assertEquals(NO_OF_LINES, featureList.size());
+        for (int index = 0; index < NO_OF_LINES; index++) {
+            assertEquals(index, featureList.get(index).getAttribute("id"));
+        }
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.cache.PreviewFeatureData}, geometries
+     * spilled to disk are returned unchanged.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSpillToDisk() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                dataStore.getFeatureSource("test");
+
+        PreviewFeatureData data = PreviewFeatureData.load(source, 0, null);
+        try {
+            assertEquals(NO_OF_LINES, data.getFeatureCount());
+            assertTrue(data.getSpilledCount() > 0);
+
+            for (SimpleFeature feature : data.query(null, 0.0)) {
+                SimpleFeature original =
+                        DataUtilities.first(
+                                DataUtilities.simple(
+                                        source.getFeatures(
+                                                ff.id(ff.featureId(feature.getID())))));
+                assertTrue(
+                        ((Geometry) original.getDefaultGeometry())
+                                .equalsExact((Geometry) feature.getDefaultGeometry()));
+                assertEquals(original.getAttribute("id"), feature.getAttribute("id"));
+            }
+
+            int level = data.getLevel(data.getTolerance(PreviewFeatureData.GENERALISED_LEVELS));
+            assertEquals(PreviewFeatureData.GENERALISED_LEVELS, level);
+            assertEquals(0, data.getLevel(0.0));
+            for (SimpleFeature feature : data.query(null, Double.MAX_VALUE)) {
+                assertTrue(
+                        ((Geometry) feature.getDefaultGeometry()).getNumPoints()
+                                < POINTS_PER_LINE);
+            }
+        } finally {
+            data.dispose();
+        }
+    }
+
+    /**
+     * Gets the maximum number of points in the geometries of a feature collection.
+     *
+     * @param featureCollection the feature collection
+     * @return the max points
+     */
+    private int getMaxPoints(SimpleFeatureCollection featureCollection) {
+        int maxPoints = 0;
+        try (SimpleFeatureIterator iterator = featureCollection.features()) {
+            while (iterator.hasNext()) {
+                Geometry geometry = (Geometry) iterator.next().getDefaultGeometry();
+                maxPoints = Math.max(maxPoints, geometry.getNumPoints());
+            }
+        }
+        return maxPoints;
+    }
+
+    /**
+     * Creates a data store containing wiggly lines, line n runs from (n, n) to (n + 1, n) with
+     * small deviations that are removed by generalisation.
+     *
+     * @return the memory data store
+     * @throws SchemaException the schema exception
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private MemoryDataStore createDataStore() throws SchemaException, IOException {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:LineString:srid=4326,id:Integer");
+        GeometryFactory geometryFactory = new GeometryFactory();
+
+        MemoryDataStore dataStore = new MemoryDataStore(featureType);
+        for (int line = 0; line < NO_OF_LINES; line++) {
+            Coordinate[] coordinates = new Coordinate[POINTS_PER_LINE];
+            for (int index = 0; index < POINTS_PER_LINE; index++) {
+                double offset = ((index % 2) == 0) ? 0.0 : 0.00001;
+                coordinates[index] =
+                        new Coordinate(
+                                line + ((double) index / (POINTS_PER_LINE - 1)), line + offset);
+            }
+
+            dataStore.addFeature(
+                    SimpleFeatureBuilder.build(
+                            featureType,
+                            new Object[] {
+                                geometryFactory.createLineString(coordinates),
+                                Integer.valueOf(line)
+                            },
+                            "test." + line));
+        }
+        return dataStore;
+    }
+}
@@ -31,10 +31,13 @@ import com.sldeditor.datasource.extension.filesystem.node.file.FileTreeNode;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -125,4 +128,127 @@ public class FileTreeNodeTest {
             fail(e.getMessage());
         }
     }
+
+    /**
+     * Test method for {@link FileTreeNode#populateDirectoriesInBackground()}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InvocationTargetException the invocation target exception
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testPopulateDirectoriesInBackground()
+            throws IOException, InvocationTargetException, InterruptedException {
+        Map<String, FileHandlerInterface> fileHandlerMap = new LinkedHashMap<>();
+        FileHandlerInterface fileHandler = new DummyFileHandler();
+        for (String fileExtension : fileHandler.getFileExtensionList()) {
+            fileHandlerMap.put(fileExtension, fileHandler);
+        }
+        FileTreeNode.setFileHandlerMap(fileHandlerMap);
+
+        Path tmpFolder = Files.createTempDirectory(getClass().getSimpleName());
+        File folder = tmpFolder.toFile();
+
+        // More files than are added to the tree in a single batch
+        int noOfFiles = 1100;
+        for (int index = 0; index < noOfFiles; index++) {
+            new File(folder, String.format("file%04d.test", index)).createNewFile();
+        }
+        new File(folder, "ignored.abc").createNewFile();
+        new File(folder, "b_folder").mkdir();
+        new File(folder, "A_folder").mkdir();
+
+        try {
+            FileTreeNode node = new FileTreeNode(folder.getParentFile(), folder.getName());
+
+            AtomicInteger childCount = new AtomicInteger();
+            SwingUtilities.invokeAndWait(
+                    () -> {
+                        assertFalse(node.populateDirectoriesInBackground());
+                        // Already loading
+                        assertFalse(node.populateDirectoriesInBackground());
+                        childCount.set(node.getChildCount());
+                    });
+
+            int expectedChildCount = noOfFiles + 2;
+            for (int attempt = 0;
+                    (attempt < 100) && (childCount.get() < expectedChildCount);
+                    attempt++) {
+                Thread.sleep(100);
+                SwingUtilities.invokeAndWait(() -> childCount.set(node.getChildCount()));
+            }
+            assertEquals(expectedChildCount, childCount.get());
+
+            // Folders first, then files, sorted alphabetically
+            FileTreeNode child1 = (FileTreeNode) node.getChildAt(0);
+            assertEquals("A_folder", child1.getName());
+            assertTrue(child1.isDir());
+            assertEquals(0, child1.getChildCount());
+            assertEquals("b_folder", ((FileTreeNode) node.getChildAt(1)).getName());
+            FileTreeNode child3 = (FileTreeNode) node.getChildAt(2);
+            assertEquals("file0000.test", child3.getName());
+            assertTrue(child3.isLeaf());
+            assertEquals(
+                    "file1099.test",
+                    ((FileTreeNode) node.getChildAt(expectedChildCount - 1)).getName());
+
+            // Populated, nothing more to read
+            SwingUtilities.invokeAndWait(
+                    () -> assertFalse(node.populateDirectoriesInBackground()));
+            assertEquals(expectedChildCount, node.getChildCount());
+        } finally {
+            FileUtils.deleteDirectory(folder);
+        }
+    }
+
+    /**
+     * Test method for {@link FileTreeNode#populateDirectories(boolean)}, called while the folder
+     * is being read in the background.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InvocationTargetException the invocation target exception
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testPopulateDirectoriesWhileLoading()
+            throws IOException, InvocationTargetException, InterruptedException {
+        Map<String, FileHandlerInterface> fileHandlerMap = new LinkedHashMap<>();
+        FileHandlerInterface fileHandler = new DummyFileHandler();
+        for (String fileExtension : fileHandler.getFileExtensionList()) {
+            fileHandlerMap.put(fileExtension, fileHandler);
+        }
+        FileTreeNode.setFileHandlerMap(fileHandlerMap);
+
+        Path tmpFolder = Files.createTempDirectory(getClass().getSimpleName());
+        File folder = tmpFolder.toFile();
+
+        int noOfFiles = 1100;
+        for (int index = 0; index < noOfFiles; index++) {
+            new File(folder, String.format("file%04d.test", index)).createNewFile();
+        }
+        new File(folder, "A_folder").mkdir();
+
+        try {
+            FileTreeNode node = new FileTreeNode(folder.getParentFile(), folder.getName());
+            int expectedChildCount = noOfFiles + 1;
+
+            AtomicInteger childCount = new AtomicInteger();
+            SwingUtilities.invokeAndWait(
+                    () -> {
+                        node.populateDirectoriesInBackground();
+
+                        // The background read is replaced by reading the folder immediately
+                        assertTrue(node.populateDirectories(true));
+                        childCount.set(node.getChildCount());
+                    });
+            assertEquals(expectedChildCount, childCount.get());
+
+            // Batches from the discarded background read are not added
+            Thread.sleep(500);
+            SwingUtilities.invokeAndWait(() -> childCount.set(node.getChildCount()));
+            assertEquals(expectedChildCount, childCount.get());
+        } finally {
+            FileUtils.deleteDirectory(folder);
+        }
+    }
 }
@@ -0,0 +1,302 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.datasource.DataSourceConnectionListener;
+import com.sldeditor.datasource.impl.DataSourceConnection;
+import com.sldeditor.datasource.impl.DataSourceConnectionStage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for DataSourceConnection class.
+ *
+ * <p>{@link com.sldeditor.datasource.impl.DataSourceConnection}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class DataSourceConnectionTest {
+
+    /** Records the listener notifications. */
+    class TestListener implements DataSourceConnectionListener {
+
+        /** The stages started. */
+        List<DataSourceConnectionStage> stageList =
+                Collections.synchronizedList(new ArrayList<>());
+
+        /** The number of times the connection completed. */
+        int completedCount = 0;
+
+        /* (non-Javadoc)
+         * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionStageStarted(com.sldeditor.datasource.impl.DataSourceConnection, com.sldeditor.datasource.impl.DataSourceConnectionStage)
+         */
+        @Override
+        public void connectionStageStarted(
+                DataSourceConnection connection, DataSourceConnectionStage stage) {
+            stageList.add(stage);
+        }
+
+        /* (non-Javadoc)
+         * @see com.sldeditor.datasource.DataSourceConnectionListener#connectionCompleted(com.sldeditor.datasource.impl.DataSourceConnection)
+         */
+        @Override
+        public void connectionCompleted(DataSourceConnection connection) {
+            completedCount++;
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceConnection#start(boolean)}, stages run in order on
+     * the calling thread.
+     */
+    @Test
+    void testStartInline() {
+        DataSourceConnection connection = new DataSourceConnection();
+        TestListener listener = new TestListener();
+        connection.addListener(listener);
+
+        List<DataSourceConnectionStage> runList = new ArrayList<>();
+        // Added out of order, run in stage order
+        connection.addStage(
+                DataSourceConnectionStage.NOTIFY,
+                () -> runList.add(DataSourceConnectionStage.NOTIFY));
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT,
+                () -> runList.add(DataSourceConnectionStage.CONNECT));
+        connection.addStage(
+                DataSourceConnectionStage.SCHEMA,
+                () -> runList.add(DataSourceConnectionStage.SCHEMA));
+
+        assertEquals(DataSourceConnection.Status.PENDING, connection.getStatus());
+        assertFalse(connection.isDone());
+
+        connection.start(false);
+
+        assertTrue(connection.isDone());
+        assertFalse(connection.isCancelled());
+        assertEquals(DataSourceConnection.Status.COMPLETED, connection.getStatus());
+        assertEquals(DataSourceConnectionStage.NOTIFY, connection.getStage());
+        assertEquals(3, runList.size());
+        assertEquals(DataSourceConnectionStage.CONNECT, runList.get(0));
+        assertEquals(DataSourceConnectionStage.SCHEMA, runList.get(1));
+        assertEquals(DataSourceConnectionStage.NOTIFY, runList.get(2));
+        assertEquals(runList, listener.stageList);
+        assertEquals(1, listener.completedCount);
+
+        // Starting again does nothing
+        connection.start(false);
+        assertEquals(3, runList.size());
+        assertEquals(1, listener.completedCount);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceConnection#start(boolean)}, a failing stage stops
+     * the connection.
+     */
+    @Test
+    void testStartFailed() {
+        DataSourceConnection connection = new DataSourceConnection();
+
+        List<DataSourceConnectionStage> runList = new ArrayList<>();
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT,
+                () -> {
+                    throw new IllegalStateException("test");
+                });
+        connection.addStage(
+                DataSourceConnectionStage.NOTIFY,
+                () -> runList.add(DataSourceConnectionStage.NOTIFY));
+
+        connection.start(false);
+
+        assertEquals(DataSourceConnection.Status.FAILED, connection.getStatus());
+        assertTrue(runList.isEmpty());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceConnection#start(boolean)}, run on the task pools.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws InvocationTargetException the invocation target exception
+     */
+    @Test
+    void testStartAsync() throws InterruptedException, InvocationTargetException {
+        DataSourceConnection connection = new DataSourceConnection();
+        TestListener listener = new TestListener();
+        connection.addListener(listener);
+
+        List<Boolean> onEdtList = Collections.synchronizedList(new ArrayList<>());
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT,
+                () -> onEdtList.add(SwingUtilities.isEventDispatchThread()));
+        connection.addStage(
+                DataSourceConnectionStage.NOTIFY,
+                () -> onEdtList.add(SwingUtilities.isEventDispatchThread()));
+
+        connection.start(true);
+        assertTrue(connection.await(10, TimeUnit.SECONDS));
+
+        // Flush the listener notifications
+        SwingUtilities.invokeAndWait(() -> {});
+
+        assertEquals(DataSourceConnection.Status.COMPLETED, connection.getStatus());
+        assertEquals(2, onEdtList.size());
+        assertFalse(onEdtList.get(0));
+        assertTrue(onEdtList.get(1));
+        assertEquals(2, listener.stageList.size());
+        assertEquals(1, listener.completedCount);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceConnection#setStageTimeout(long)}.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testStageTimeout() throws InterruptedException {
+        DataSourceConnection connection = new DataSourceConnection();
+        connection.setStageTimeout(50L);
+
+        List<DataSourceConnectionStage> runList = Collections.synchronizedList(new ArrayList<>());
+        connection.addStage(DataSourceConnectionStage.CONNECT, () -> Thread.sleep(5000L));
+        connection.addStage(
+                DataSourceConnectionStage.SCHEMA,
+                () -> runList.add(DataSourceConnectionStage.SCHEMA));
+
+        connection.start(true);
+        assertTrue(connection.await(10, TimeUnit.SECONDS));
+
+        assertEquals(DataSourceConnection.Status.FAILED, connection.getStatus());
+        assertEquals(DataSourceConnectionStage.CONNECT, connection.getStage());
+        assertTrue(runList.isEmpty());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceConnection#setStageTimeout(long)}, time spent
+     * queued behind other background tasks does not count against the stage timeout.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testStageTimeoutWhileQueued() throws InterruptedException {
+        // Occupy every background thread for longer than the stage timeout
+        CountDownLatch release = new CountDownLatch(1);
+        for (int index = 0; index < 2; index++) {
+            TaskManager.getInstance()
+                    .submit(
+                            TaskManager.BACKGROUND_POOL,
+                            () -> {
+                                try {
+                                    release.await(5, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            });
+        }
+
+        DataSourceConnection connection = new DataSourceConnection();
+        connection.setStageTimeout(200L);
+
+        List<DataSourceConnectionStage> runList = Collections.synchronizedList(new ArrayList<>());
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT,
+                () -> runList.add(DataSourceConnectionStage.CONNECT));
+
+        connection.start(true);
+        Thread.sleep(500L);
+        assertFalse(connection.isDone());
+
+        release.countDown();
+        assertTrue(connection.await(10, TimeUnit.SECONDS));
+        assertEquals(DataSourceConnection.Status.COMPLETED, connection.getStatus());
+        assertEquals(1, runList.size());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.impl.DataSourceConnection#cancel()}.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testCancel() throws InterruptedException {
+        DataSourceConnection connection = new DataSourceConnection();
+
+        CountDownLatch stageStarted = new CountDownLatch(1);
+        List<DataSourceConnectionStage> runList = Collections.synchronizedList(new ArrayList<>());
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT,
+                () -> {
+                    stageStarted.countDown();
+                    Thread.sleep(5000L);
+                });
+        connection.addStage(
+                DataSourceConnectionStage.SCHEMA,
+                () -> runList.add(DataSourceConnectionStage.SCHEMA));
+
+        connection.start(true);
+        assertTrue(stageStarted.await(10, TimeUnit.SECONDS));
+
+        connection.cancel();
+        assertTrue(connection.await(10, TimeUnit.SECONDS));
+
+        assertTrue(connection.isCancelled());
+        assertEquals(DataSourceConnection.Status.CANCELLED, connection.getStatus());
+        assertTrue(runList.isEmpty());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.impl.DataSourceConnection#cancel()}, before
+     * the connection has started.
+     */
+    @Test
+    void testCancelBeforeStart() {
+        DataSourceConnection connection = new DataSourceConnection();
+
+        List<DataSourceConnectionStage> runList = new ArrayList<>();
+        connection.addStage(
+                DataSourceConnectionStage.CONNECT,
+                () -> runList.add(DataSourceConnectionStage.CONNECT));
+
+        connection.cancel();
+        assertFalse(connection.isDone());
+
+        connection.start(false);
+
+        assertTrue(connection.isDone());
+        assertEquals(DataSourceConnection.Status.CANCELLED, connection.getStatus());
+        assertTrue(runList.isEmpty());
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.test.unit.datasource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.impl.DataSourceSampler;
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for DataSourceSampler class.
+ *
+ * <p>{@link com.sldeditor.datasource.impl.DataSourceSampler}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class DataSourceSamplerTest {
+
+    /** The Constant DENSE_POINTS, number of points in the dense corner. */
+    private static final int DENSE_POINTS = 1000;
+
+    /** The Constant SPARSE_POINTS, number of points along the diagonal, one per grid cell. */
+    private static final int SPARSE_POINTS = 9;
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceSampler#sample(SimpleFeatureSource,
+     * DataSourceSamplingOptions)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSample() throws Exception {
+        SimpleFeatureSource source = createDataStore().getFeatureSource("test");
+
+        DataSourceSamplingOptions options = new DataSourceSamplingOptions();
+        assertNull(DataSourceSampler.sample(source, options));
+        assertNull(DataSourceSampler.sample(null, options));
+
+        options.setEnabled(true);
+        options.setMaxFeatures(50);
+
+        // Unstratified takes the first features found
+        options.setStratified(false);
+        MemoryDataStore sample = DataSourceSampler.sample(source, options);
+        assertEquals(50, getSampleSize(sample, null));
+
+        // Stratified includes every feature from the sparse area
+        options.setStratified(true);
+        options.setGridSize(10);
+        sample = DataSourceSampler.sample(source, options);
+        assertEquals(50, getSampleSize(sample, null));
+        assertEquals(SPARSE_POINTS, getSampleSize(sample, new Envelope(1.0, 100.0, 1.0, 100.0)));
+
+        // Bounding box restricts the sample
+        options.setBbox(new Envelope(0.0, 1.0, 0.0, 1.0));
+        sample = DataSourceSampler.sample(source, options);
+        assertEquals(50, getSampleSize(sample, new Envelope(0.0, 1.0, 0.0, 1.0)));
+        assertEquals(50, getSampleSize(sample, null));
+
+        options.setMaxFeatures(DENSE_POINTS * 2);
+        sample = DataSourceSampler.sample(source, options);
+        assertEquals(DENSE_POINTS, getSampleSize(sample, null));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceSampler#determineExtent(SimpleFeatureSource,
+     * DataSourceSamplingOptions)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testDetermineExtent() throws Exception {
+        SimpleFeatureSource source = createDataStore().getFeatureSource("test");
+
+        DataSourceSamplingOptions options = new DataSourceSamplingOptions();
+        assertNull(DataSourceSampler.determineExtent(null, options));
+
+        ReferencedEnvelope extent = DataSourceSampler.determineExtent(source, options);
+        assertEquals(source.getFeatures().getBounds(), extent);
+
+        options.setBbox(new Envelope(5.0, 6.0, 7.0, 8.0));
+        extent = DataSourceSampler.determineExtent(source, options);
+        assertEquals(5.0, extent.getMinX());
+        assertEquals(8.0, extent.getMaxY());
+    }
+
+    /**
+     * Gets the number of sampled features, optionally within an envelope.
+     *
+     * @param sample the sample
+     * @param envelope the envelope, null for all features
+     * @return the sample size
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private int getSampleSize(MemoryDataStore sample, Envelope envelope) throws IOException {
+        int count = 0;
+        Set<String> idSet = new HashSet<>();
+        try (SimpleFeatureIterator iterator =
+                sample.getFeatureSource("test").getFeatures().features()) {
+            while (iterator.hasNext()) {
+                SimpleFeature feature = iterator.next();
+                assertTrue(idSet.add(feature.getID()));
+
+                Point point = (Point) feature.getDefaultGeometry();
+                if ((envelope == null) || envelope.contains(point.getCoordinate())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates the data store, dense points in the corner and a few points spread along the
+     * diagonal.
+     *
+     * @return the memory data store
+     * @throws SchemaException the schema exception
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private MemoryDataStore createDataStore() throws SchemaException, IOException {
+        SimpleFeatureType featureType = DataUtilities.createType("test", "geom:Point,id:int");
+        MemoryDataStore dataStore = new MemoryDataStore();
+        dataStore.createSchema(featureType);
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+
+        int id = 0;
+        for (int index = 0; index < DENSE_POINTS; index++) {
+            double offset = (double) index / DENSE_POINTS;
+            builder.add(geometryFactory.createPoint(new Coordinate(offset, 1.0 - offset)));
+            builder.add(id);
+            dataStore.addFeature(builder.buildFeature("test." + id));
+            id++;
+        }
+
+        for (int index = 1; index <= SPARSE_POINTS; index++) {
+            double position = (index * 10.0) + 5.0;
+            builder.add(geometryFactory.createPoint(new Coordinate(position, position)));
+            builder.add(id);
+            dataStore.addFeature(builder.buildFeature("test." + id));
+            id++;
+        }
+        return dataStore;
+    }
+}
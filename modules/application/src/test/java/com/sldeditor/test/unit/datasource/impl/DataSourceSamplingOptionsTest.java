@@ -0,0 +1,110 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.test.unit.datasource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.impl.DataSourceSamplingOptions;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Unit test for DataSourceSamplingOptions class.
+ *
+ * <p>{@link com.sldeditor.datasource.impl.DataSourceSamplingOptions}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class DataSourceSamplingOptionsTest {
+
+    /** Test method for the default values and setters. */
+    @Test
+    void testDefaults() {
+        DataSourceSamplingOptions options = new DataSourceSamplingOptions();
+
+        assertFalse(options.isEnabled());
+        assertEquals(DataSourceSamplingOptions.DEFAULT_MAX_FEATURES, options.getMaxFeatures());
+        assertTrue(options.isStratified());
+        assertEquals(DataSourceSamplingOptions.DEFAULT_GRID_SIZE, options.getGridSize());
+        assertTrue(options.isUseEstimatedExtent());
+        assertNull(options.getBbox());
+
+        // Invalid values are ignored
+        options.setMaxFeatures(0);
+        options.setGridSize(-1);
+        assertEquals(DataSourceSamplingOptions.DEFAULT_MAX_FEATURES, options.getMaxFeatures());
+        assertEquals(DataSourceSamplingOptions.DEFAULT_GRID_SIZE, options.getGridSize());
+
+        options.setBbox(new Envelope());
+        assertNull(options.getBbox());
+
+        DataSourceSamplingOptions copy = new DataSourceSamplingOptions(options);
+        assertEquals(options, copy);
+        copy.setEnabled(true);
+        assertNotEquals(options, copy);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceSamplingOptions#encodeXML(org.w3c.dom.Document,
+     * org.w3c.dom.Element, java.lang.String)}. Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceSamplingOptions#decodeXML(org.w3c.dom.Document,
+     * java.lang.String)}.
+     *
+     * @throws ParserConfigurationException the parser configuration exception
+     */
+    @Test
+    void testEncodeDecodeXML() throws ParserConfigurationException {
+        DataSourceSamplingOptions options = new DataSourceSamplingOptions();
+        options.encodeXML(null, null, null);
+
+        DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document doc = documentBuilder.newDocument();
+        Element root = doc.createElement("root");
+        doc.appendChild(root);
+
+        String elementName = "sampling";
+
+        // Missing element gives the defaults
+        assertEquals(options, DataSourceSamplingOptions.decodeXML(doc, elementName));
+        assertEquals(options, DataSourceSamplingOptions.decodeXML(null, null));
+
+        options.setEnabled(true);
+        options.setMaxFeatures(500);
+        options.setStratified(false);
+        options.setGridSize(4);
+        options.setUseEstimatedExtent(false);
+        options.setBbox(new Envelope(-10.5, 20.0, 30.0, 45.25));
+        options.encodeXML(doc, root, elementName);
+
+        DataSourceSamplingOptions decoded =
+                DataSourceSamplingOptions.decodeXML(doc, elementName);
+        assertEquals(options, decoded);
+        assertEquals(new Envelope(-10.5, 20.0, 30.0, 45.25), decoded.getBbox());
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.pool.DataStorePool;
+import com.sldeditor.datasource.pool.DataStorePoolStatistics;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.DataStore;
+import org.geotools.data.memory.MemoryDataStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for DataStorePool class.
+ *
+ * <p>{@link com.sldeditor.datasource.pool.DataStorePool}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class DataStorePoolTest {
+
+    /** The temporary folder. */
+    private File tempFolder = null;
+
+    /** The shape file. */
+    private File shapeFile = null;
+
+    /**
+     * Creates the temporary folder.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        DataStorePool.destroyInstance();
+        tempFolder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        shapeFile = new File(tempFolder, "test.shp");
+    }
+
+    /** Removes the temporary folder. */
+    @AfterEach
+    void tearDown() {
+        DataStorePool.destroyInstance();
+        File[] files = tempFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        tempFolder.delete();
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.pool.DataStorePool#createKey(Map)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testCreateKey() throws IOException {
+        Map<String, Object> urlParams = new HashMap<>();
+        urlParams.put("url", shapeFile.toURI().toURL());
+        urlParams.put("charset", "UTF-8");
+
+        Map<String, Object> stringParams = new HashMap<>();
+        stringParams.put("charset", "UTF-8");
+        stringParams.put(
+                "url", new File(tempFolder, "./test.shp").toURI().toURL().toExternalForm());
+
+        Map<String, Object> fileParams = new HashMap<>();
+        fileParams.put("url", shapeFile);
+        fileParams.put("charset", "UTF-8");
+        fileParams.put("ignored", null);
+
+        String key = DataStorePool.createKey(urlParams);
+        assertEquals(key, DataStorePool.createKey(stringParams));
+        assertEquals(key, DataStorePool.createKey(fileParams));
+
+        fileParams.put("charset", "ISO-8859-1");
+        assertNotEquals(key, DataStorePool.createKey(fileParams));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.pool.DataStorePool#borrow(Map)}. Test
+     * method for {@link
+     * com.sldeditor.datasource.pool.DataStorePool#release(org.geotools.data.DataStore)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testBorrowAndRelease() throws IOException {
+        DataStorePool pool = DataStorePool.getInstance();
+
+        assertNull(pool.borrow(null));
+        Map<String, Object> unknownParams = new HashMap<>();
+        unknownParams.put("unknown", "parameter");
+        assertNull(pool.borrow(unknownParams));
+
+        Map<String, Object> urlParams = new HashMap<>();
+        urlParams.put("url", shapeFile.toURI().toURL());
+        DataStore dataStore1 = pool.borrow(urlParams);
+        assertNotNull(dataStore1);
+
+        Map<String, Object> stringParams = new HashMap<>();
+        stringParams.put("url", shapeFile.toURI().toURL().toExternalForm());
+        DataStore dataStore2 = pool.borrow(stringParams);
+        assertSame(dataStore1, dataStore2);
+        assertEquals(2, pool.getReferenceCount(dataStore1));
+
+        DataStorePoolStatistics statistics = pool.getStatistics();
+        assertEquals(1, statistics.getOpenCount());
+        assertEquals(1, statistics.getBorrowedCount());
+        assertEquals(0, statistics.getIdleCount());
+        assertEquals(3, statistics.getBorrowRequests());
+        assertEquals(1, statistics.getReuseCount());
+        assertEquals(1, statistics.getCreatedCount());
+        assertNotNull(statistics.toString());
+
+        pool.release(dataStore1);
+        pool.release(dataStore2);
+        assertEquals(0, pool.getReferenceCount(dataStore1));
+
+        // Idle data stores are kept open and reused
+        statistics = pool.getStatistics();
+        assertEquals(1, statistics.getOpenCount());
+        assertEquals(1, statistics.getIdleCount());
+        assertSame(dataStore1, pool.borrow(urlParams));
+        pool.release(dataStore1);
+
+        // Releasing a data store not borrowed from the pool disposes of it
+        boolean[] disposed = {false};
+        MemoryDataStore memoryDataStore =
+                new MemoryDataStore() {
+                    @Override
+                    public void dispose() {
+                        disposed[0] = true;
+                        super.dispose();
+                    }
+                };
+        pool.release(memoryDataStore);
+        assertTrue(disposed[0]);
+        pool.release(null);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.pool.DataStorePool#evictIdle()}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testEvictIdle() throws IOException {
+        DataStorePool pool = DataStorePool.getInstance();
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("url", shapeFile.toURI().toURL());
+        DataStore dataStore1 = pool.borrow(params);
+
+        pool.setIdleTimeout(0L);
+
+        // Borrowed data stores are never evicted
+        pool.evictIdle();
+        assertEquals(1, pool.getStatistics().getOpenCount());
+
+        pool.release(dataStore1);
+        pool.evictIdle();
+        DataStorePoolStatistics statistics = pool.getStatistics();
+        assertEquals(0, statistics.getOpenCount());
+        assertEquals(1, statistics.getEvictionCount());
+
+        DataStore dataStore2 = pool.borrow(params);
+        assertNotSame(dataStore1, dataStore2);
+        assertEquals(2, pool.getStatistics().getCreatedCount());
+
+        // Health checks of a working data store succeed
+        pool.setHealthCheckInterval(0L);
+        assertSame(dataStore2, pool.borrow(params));
+        assertEquals(0, pool.getStatistics().getHealthCheckFailures());
+        pool.release(dataStore2);
+        pool.release(dataStore2);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.pool.DataStorePool#clear()}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testClear() throws IOException {
+        DataStorePool pool = DataStorePool.getInstance();
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("url", shapeFile.toURI().toURL());
+        DataStore dataStore1 = pool.borrow(params);
+
+        pool.clear();
+
+        // Borrowed data stores stay open but are no longer handed out
+        assertEquals(1, pool.getStatistics().getOpenCount());
+        DataStore dataStore2 = pool.borrow(params);
+        assertNotSame(dataStore1, dataStore2);
+
+        pool.release(dataStore1);
+        pool.release(dataStore2);
+        assertEquals(1, pool.getStatistics().getOpenCount());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.pool.DataStorePool#getAvailableDataStores()}.
+     */
+    @Test
+    void testGetAvailableDataStores() {
+        List<String> list = DataStorePool.getInstance().getAvailableDataStores();
+        assertFalse(list.isEmpty());
+        assertSame(list, DataStorePool.getInstance().getAvailableDataStores());
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.rulehit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.rulehit.RuleHitAnalyser;
+import com.sldeditor.datasource.rulehit.RuleHitAnalysis;
+import com.sldeditor.datasource.rulehit.RuleHitCount;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.geotools.data.DataStore;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.filter.text.ecql.ECQL;
+import org.geotools.geopkg.GeoPkgDataStoreFactory;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for RuleHitAnalyser class.
+ *
+ * <p>{@link com.sldeditor.datasource.rulehit.RuleHitAnalyser}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class RuleHitAnalyserTest {
+
+    /** The Constant NO_OF_FEATURES. */
+    private static final int NO_OF_FEATURES = 1000;
+
+    /** Release any cached analyses. */
+    @AfterEach
+    void tearDown() {
+        RuleHitAnalyser.destroyInstance();
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.rulehit.RuleHitAnalyser#analyse}, at a
+     * scale where the all features rule does not apply.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testAnalyseAtScale() throws Exception {
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                createDataStore().getFeatureSource("test");
+
+        RuleHitAnalyser analyser = RuleHitAnalyser.getInstance();
+        // Several batches so the features are counted in parallel
+        analyser.setBatchSize(64);
+        assertNull(analyser.analyse(null, createStyle(), null));
+        assertNull(analyser.analyse(source, null, null));
+
+        RuleHitAnalysis analysis = analyser.analyse(source, createStyle(), 1000.0);
+        assertEquals(NO_OF_FEATURES, analysis.getFeatureCount());
+        assertEquals(1000.0, analysis.getScaleDenominator());
+        assertFalse(analysis.isPushedDown());
+        assertEquals(2, analysis.getFeatureTypeStyleCount());
+
+        List<RuleHitCount> ruleList = analysis.getRules();
+        assertEquals(6, ruleList.size());
+
+        RuleHitCount lowRule = ruleList.get(0);
+        assertEquals("fts[0]/rule[0]", lowRule.getPath());
+        assertEquals("low", lowRule.getName());
+        assertEquals(500, lowRule.getHitCount());
+        assertEquals(250, lowRule.getOverlapCount());
+        assertEquals(1, lowRule.getOverlaps().size());
+        assertEquals(250, lowRule.getOverlaps().get("fts[0]/rule[1]").longValue());
+        assertEquals(RuleHitCount.Status.MATCHED, lowRule.getStatus());
+
+        RuleHitCount midRule = ruleList.get(1);
+        assertEquals(500, midRule.getHitCount());
+        assertEquals(250, midRule.getOverlapCount());
+        assertEquals(250, midRule.getOverlaps().get("fts[0]/rule[0]").longValue());
+
+        RuleHitCount missingRule = ruleList.get(2);
+        assertEquals(0, missingRule.getHitCount());
+        assertEquals(RuleHitCount.Status.NEVER_MATCHED, missingRule.getStatus());
+
+        RuleHitCount allRule = ruleList.get(3);
+        assertEquals(0, allRule.getHitCount());
+        assertEquals(RuleHitCount.Status.OUT_OF_SCALE, allRule.getStatus());
+
+        // The else rule only matches the features no other rule does
+        RuleHitCount elseRule = ruleList.get(4);
+        assertTrue(elseRule.isElseFilter());
+        assertEquals(250, elseRule.getHitCount());
+        assertEquals(0, elseRule.getOverlapCount());
+        assertTrue(elseRule.getOverlaps().isEmpty());
+        assertEquals(0, analysis.getUnmatchedCount(0));
+
+        RuleHitCount nameRule = ruleList.get(5);
+        assertEquals("fts[1]/rule[0]", nameRule.getPath());
+        assertEquals(100, nameRule.getHitCount());
+        assertEquals(900, analysis.getUnmatchedCount(1));
+
+        List<RuleHitCount> neverMatchedList = analysis.getNeverMatchedRules();
+        assertEquals(1, neverMatchedList.size());
+        assertSame(missingRule, neverMatchedList.get(0));
+
+        List<RuleHitCount> hotList = analysis.getHotRules();
+        assertEquals(500, hotList.get(0).getHitCount());
+        for (int index = 1; index < hotList.size(); index++) {
+            assertTrue(hotList.get(index - 1).getHitCount() >= hotList.get(index).getHitCount());
+        }
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.rulehit.RuleHitAnalyser#analyse}, ignoring
+     * the rule scale ranges.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testAnalyseAllScales() throws Exception {
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                createDataStore().getFeatureSource("test");
+
+        RuleHitAnalysis analysis =
+                RuleHitAnalyser.getInstance().analyse(source, createStyle(), null);
+        assertNull(analysis.getScaleDenominator());
+
+        List<RuleHitCount> ruleList = analysis.getRules();
+        assertEquals(NO_OF_FEATURES, ruleList.get(0).getHitCount() * 2);
+        assertEquals(500, ruleList.get(0).getOverlapCount());
+
+        RuleHitCount allRule = ruleList.get(3);
+        assertEquals(NO_OF_FEATURES, allRule.getHitCount());
+        assertEquals(750, allRule.getOverlapCount());
+        assertEquals(RuleHitCount.Status.MATCHED, allRule.getStatus());
+
+        // Every feature is matched by the rule without a filter
+        RuleHitCount elseRule = ruleList.get(4);
+        assertEquals(0, elseRule.getHitCount());
+        assertEquals(RuleHitCount.Status.NEVER_MATCHED, elseRule.getStatus());
+        assertEquals(2, analysis.getNeverMatchedRules().size());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.rulehit.RuleHitAnalyser#analyse}, results
+     * are cached until the rules or data change.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testCache() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                dataStore.getFeatureSource("test");
+
+        RuleHitAnalyser analyser = RuleHitAnalyser.getInstance();
+        Style style = createStyle();
+        RuleHitAnalysis analysis = analyser.analyse(source, style, null);
+        assertSame(analysis, analyser.analyse(dataStore.getFeatureSource("test"), style, null));
+        assertSame(analysis, analyser.analyse(source, createStyle(), null));
+        assertEquals(1, analyser.getCacheSize());
+
+        // Different scale
+        assertNotSame(analysis, analyser.analyse(source, style, 1000.0));
+        assertEquals(2, analyser.getCacheSize());
+
+        // Filter changed
+        style.featureTypeStyles().get(0).rules().get(2).setFilter(ECQL.toFilter("value = 1"));
+        RuleHitAnalysis changedAnalysis = analyser.analyse(source, style, null);
+        assertNotSame(analysis, changedAnalysis);
+        assertEquals(1, changedAnalysis.getRules().get(2).getHitCount());
+
+        analyser.evict(new MemoryDataStore());
+        assertEquals(3, analyser.getCacheSize());
+        analyser.evict(dataStore);
+        assertEquals(0, analyser.getCacheSize());
+
+        // Only the most recently used analyses are kept
+        for (int index = 0; index <= RuleHitAnalyser.MAX_CACHE_SIZE; index++) {
+            analyser.analyse(source, style, 1000.0 + index);
+        }
+        assertEquals(RuleHitAnalyser.MAX_CACHE_SIZE, analyser.getCacheSize());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.rulehit.RuleHitAnalyser#analyse}, a
+     * stopped analysis returns null and does not stop other analyses.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testStop() throws Exception {
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                createDataStore().getFeatureSource("test");
+
+        RuleHitAnalyser analyser = RuleHitAnalyser.getInstance();
+        assertNull(analyser.analyse(source, createStyle(), null, new AtomicBoolean(true)));
+        assertEquals(0, analyser.getCacheSize());
+
+        RuleHitAnalysis analysis =
+                analyser.analyse(source, createStyle(), null, new AtomicBoolean(false));
+        assertEquals(NO_OF_FEATURES, analysis.getFeatureCount());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.rulehit.RuleHitAnalyser#analyse}, counts
+     * calculated by a database match the counts calculated by reading the features, including
+     * features with null attributes.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testAnalysePushDown() throws Exception {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Point:srid=4326,name:String,value:Integer");
+        List<SimpleFeature> featureList = createFeatures(featureType, true);
+
+        MemoryDataStore memoryDataStore = new MemoryDataStore(featureType);
+        memoryDataStore.addFeatures(featureList);
+
+        File file = File.createTempFile(getClass().getSimpleName(), ".gpkg");
+        file.delete();
+        Map<String, Object> params = new HashMap<>();
+        params.put(GeoPkgDataStoreFactory.DBTYPE.key, "geopkg");
+        params.put(GeoPkgDataStoreFactory.DATABASE.key, file.getAbsolutePath());
+        DataStore dataStore = new GeoPkgDataStoreFactory().createDataStore(params);
+        try {
+            dataStore.createSchema(featureType);
+            SimpleFeatureStore featureStore =
+                    (SimpleFeatureStore) dataStore.getFeatureSource("test");
+            featureStore.addFeatures(DataUtilities.collection(featureList));
+
+            RuleHitAnalyser analyser = RuleHitAnalyser.getInstance();
+            RuleHitAnalysis expected =
+                    analyser.analyse(
+                            memoryDataStore.getFeatureSource("test"), createStyle(), 1000.0);
+            assertFalse(expected.isPushedDown());
+
+            FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                    dataStore.getFeatureSource("test");
+            assertNull(analyser.analyse(source, createStyle(), 1000.0, new AtomicBoolean(true)));
+
+            RuleHitAnalysis analysis = analyser.analyse(source, createStyle(), 1000.0);
+            assertTrue(analysis.isPushedDown());
+            assertEquals(expected.getFeatureCount(), analysis.getFeatureCount());
+            for (int index = 0; index < expected.getRules().size(); index++) {
+                assertEquals(
+                        expected.getRules().get(index).getHitCount(),
+                        analysis.getRules().get(index).getHitCount());
+                assertEquals(
+                        expected.getRules().get(index).getStatus(),
+                        analysis.getRules().get(index).getStatus());
+            }
+            for (int ftsIndex = 0; ftsIndex < expected.getFeatureTypeStyleCount(); ftsIndex++) {
+                assertEquals(
+                        expected.getUnmatchedCount(ftsIndex), analysis.getUnmatchedCount(ftsIndex));
+            }
+
+            // The else rule matches the features with null values
+            assertEquals(325, analysis.getRules().get(4).getHitCount());
+            assertEquals(900, analysis.getUnmatchedCount(1));
+        } finally {
+            dataStore.dispose();
+            file.delete();
+        }
+    }
+
+    /**
+     * Creates the data store, features have values 0 to 999 and 10 different names.
+     *
+     * @return the memory data store
+     * @throws Exception the exception
+     */
+    private MemoryDataStore createDataStore() throws Exception {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Point:srid=4326,name:String,value:Integer");
+        MemoryDataStore dataStore = new MemoryDataStore(featureType);
+        dataStore.addFeatures(createFeatures(featureType, false));
+        return dataStore;
+    }
+
+    /**
+     * Creates the features, features have values 0 to 999 and 10 different names.
+     *
+     * @param featureType the feature type
+     * @param nullValues true to leave the value of every tenth feature null
+     * @return the features
+     */
+    private List<SimpleFeature> createFeatures(
+            SimpleFeatureType featureType, boolean nullValues) {
+        List<SimpleFeature> featureList = new ArrayList<>();
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < NO_OF_FEATURES; index++) {
+            builder.add(geometryFactory.createPoint(new Coordinate(index, index)));
+            builder.add("name" + (index % 10));
+            builder.add((nullValues && ((index % 10) == 0)) ? null : index);
+            featureList.add(builder.buildFeature("test." + index));
+        }
+        return featureList;
+    }
+
+    /**
+     * Creates the style.
+     *
+     * <p>The first feature type style has two overlapping rules, a rule that matches nothing, a
+     * rule matching everything only at small scales and an else rule. The second has a single
+     * rule matching one name.
+     *
+     * @return the style
+     * @throws Exception the exception
+     */
+    private Style createStyle() throws Exception {
+        StyleBuilder styleBuilder = new StyleBuilder(CommonFactoryFinder.getStyleFactory());
+
+        Rule lowRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        lowRule.setName("low");
+        lowRule.setFilter(ECQL.toFilter("value < 500"));
+
+        Rule midRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        midRule.setName("mid");
+        midRule.setFilter(ECQL.toFilter("value >= 250 AND value < 750"));
+
+        Rule missingRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        missingRule.setName("missing");
+        missingRule.setFilter(ECQL.toFilter("name = 'missing'"));
+
+        Rule allRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        allRule.setName("all");
+        allRule.setMinScaleDenominator(1000000.0);
+
+        Rule elseRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        elseRule.setName("other");
+        elseRule.setElseFilter(true);
+
+        Rule nameRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        nameRule.setName("name1");
+        nameRule.setFilter(ECQL.toFilter("name = 'name1'"));
+
+        FeatureTypeStyle fts1 =
+                styleBuilder.createFeatureTypeStyle(
+                        "test", new Rule[] {lowRule, midRule, missingRule, allRule, elseRule});
+        FeatureTypeStyle fts2 =
+                styleBuilder.createFeatureTypeStyle("test", new Rule[] {nameRule});
+        Style style = styleBuilder.createStyle();
+        style.featureTypeStyles().add(fts1);
+        style.featureTypeStyles().add(fts2);
+        return style;
+    }
+}
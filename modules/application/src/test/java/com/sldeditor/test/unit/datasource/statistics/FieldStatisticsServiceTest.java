@@ -0,0 +1,242 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.statistics.FieldStatistics;
+import com.sldeditor.datasource.statistics.FieldStatisticsService;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.DataStore;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geopkg.GeoPkgDataStoreFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for FieldStatisticsService class.
+ *
+ * <p>{@link com.sldeditor.datasource.statistics.FieldStatisticsService}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class FieldStatisticsServiceTest {
+
+    /** The Constant NO_OF_FEATURES. */
+    private static final int NO_OF_FEATURES = 1000;
+
+    /** Release any cached statistics. */
+    @AfterEach
+    void tearDown() {
+        FieldStatisticsService.destroyInstance();
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.statistics.FieldStatisticsService#getFieldStatistics(FeatureSource,
+     * String)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetFieldStatistics() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                dataStore.getFeatureSource("test");
+
+        FieldStatisticsService service = FieldStatisticsService.getInstance();
+        assertNull(service.getFieldStatistics(null, "value"));
+        assertNull(service.getFieldStatistics(source, null));
+        assertNull(service.getFieldStatistics(source, "unknown"));
+        assertNull(service.getFieldStatistics(source, "geom"));
+
+        // Numeric field, every 100th value is null
+        FieldStatistics statistics = service.getFieldStatistics(source, "value");
+        assertEquals("value", statistics.getFieldName());
+        assertEquals(NO_OF_FEATURES, statistics.getFeatureCount());
+        assertEquals(10, statistics.getNullCount());
+        assertEquals(1, statistics.getMin());
+        assertEquals(999, statistics.getMax());
+        assertEquals(990, statistics.getDistinctCount());
+        assertTrue(statistics.isDistinctExact());
+        assertFalse(statistics.isPushedDown());
+        assertTrue(statistics.isNumeric());
+
+        List<Object> uniqueValues = statistics.getUniqueValues();
+        assertEquals(990, uniqueValues.size());
+        assertEquals(1, uniqueValues.get(0));
+        assertEquals(999, uniqueValues.get(uniqueValues.size() - 1));
+
+        assertEquals(500.0, statistics.getQuantile(0.5), 10.0);
+        double[] breaks = statistics.getQuantileBreaks(4);
+        assertEquals(5, breaks.length);
+        assertEquals(1.0, breaks[0]);
+        assertEquals(250.0, breaks[1], 10.0);
+        assertEquals(999.0, breaks[4]);
+        assertNull(statistics.getQuantileBreaks(0));
+
+        // String field
+        FieldStatistics nameStatistics = service.getFieldStatistics(source, "name");
+        assertEquals(0, nameStatistics.getNullCount());
+        assertEquals("name0", nameStatistics.getMin());
+        assertEquals("name9", nameStatistics.getMax());
+        assertEquals(10, nameStatistics.getDistinctCount());
+        assertFalse(nameStatistics.isNumeric());
+        assertNull(nameStatistics.getQuantile(0.5));
+        assertNull(nameStatistics.getQuantileBreaks(4));
+
+        // Cached per field
+        assertEquals(2, service.getCacheSize());
+        assertSame(
+                statistics,
+                service.getFieldStatistics(dataStore.getFeatureSource("test"), "value"));
+
+        service.evict(new MemoryDataStore());
+        assertEquals(2, service.getCacheSize());
+        service.evict(dataStore);
+        assertEquals(0, service.getCacheSize());
+        assertNotSame(statistics, service.getFieldStatistics(source, "value"));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.statistics.FieldStatisticsService#setMaxUniqueValues(int)}, the
+     * distinct count is estimated once there are too many unique values.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSetMaxUniqueValues() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+        FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                dataStore.getFeatureSource("test");
+
+        FieldStatisticsService service = FieldStatisticsService.getInstance();
+        service.getFieldStatistics(source, "value");
+        service.setMaxUniqueValues(100);
+        assertEquals(0, service.getCacheSize());
+
+        FieldStatistics statistics = service.getFieldStatistics(source, "value");
+        assertFalse(statistics.isDistinctExact());
+        assertNull(statistics.getUniqueValues());
+        assertEquals(990, statistics.getDistinctCount(), 990 * 0.05);
+        assertEquals(1, statistics.getMin());
+        assertEquals(999, statistics.getMax());
+
+        // Few enough unique values to hold
+        assertTrue(service.getFieldStatistics(source, "name").isDistinctExact());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.statistics.FieldStatisticsService#getFieldStatistics(FeatureSource,
+     * String)}, statistics pushed down to a database.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetFieldStatisticsPushDown() throws Exception {
+        MemoryDataStore memoryDataStore = createDataStore();
+        SimpleFeatureType featureType = memoryDataStore.getSchema("test");
+
+        File file = File.createTempFile(getClass().getSimpleName(), ".gpkg");
+        file.delete();
+        Map<String, Object> params = new HashMap<>();
+        params.put(GeoPkgDataStoreFactory.DBTYPE.key, "geopkg");
+        params.put(GeoPkgDataStoreFactory.DATABASE.key, file.getAbsolutePath());
+        DataStore dataStore = new GeoPkgDataStoreFactory().createDataStore(params);
+        try {
+            dataStore.createSchema(featureType);
+            SimpleFeatureStore featureStore =
+                    (SimpleFeatureStore) dataStore.getFeatureSource("test");
+            featureStore.addFeatures(memoryDataStore.getFeatureSource("test").getFeatures());
+            FeatureSource<SimpleFeatureType, SimpleFeature> source =
+                    dataStore.getFeatureSource("test");
+
+            FieldStatisticsService service = FieldStatisticsService.getInstance();
+            FieldStatistics statistics = service.getFieldStatistics(source, "value");
+            assertTrue(statistics.isPushedDown());
+            assertEquals(NO_OF_FEATURES, statistics.getFeatureCount());
+            assertEquals(10, statistics.getNullCount());
+            assertEquals(1, ((Number) statistics.getMin()).intValue());
+            assertEquals(999, ((Number) statistics.getMax()).intValue());
+            assertEquals(990, statistics.getDistinctCount());
+            assertEquals(500.0, statistics.getQuantile(0.5), 10.0);
+
+            FieldStatistics nameStatistics = service.getFieldStatistics(source, "name");
+            assertTrue(nameStatistics.isPushedDown());
+            assertEquals(NO_OF_FEATURES, nameStatistics.getFeatureCount());
+            assertEquals(0, nameStatistics.getNullCount());
+            assertEquals("name0", nameStatistics.getMin());
+            assertEquals("name9", nameStatistics.getMax());
+            assertEquals(10, nameStatistics.getDistinctCount());
+            assertTrue(nameStatistics.isDistinctExact());
+
+            // Too many unique values to hold, the distinct count is estimated instead
+            service.setMaxUniqueValues(5);
+            nameStatistics = service.getFieldStatistics(source, "name");
+            assertFalse(nameStatistics.isDistinctExact());
+            assertNull(nameStatistics.getUniqueValues());
+            assertEquals(NO_OF_FEATURES, nameStatistics.getFeatureCount());
+        } finally {
+            dataStore.dispose();
+            file.delete();
+        }
+    }
+
+    /**
+     * Creates the data store.
+     *
+     * @return the memory data store
+     * @throws SchemaException the schema exception
+     */
+    private MemoryDataStore createDataStore() throws SchemaException {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Point:srid=4326,name:String,value:Integer");
+        MemoryDataStore dataStore = new MemoryDataStore(featureType);
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < NO_OF_FEATURES; index++) {
+            builder.add(geometryFactory.createPoint(new Coordinate(index, index)));
+            builder.add("name" + (index % 10));
+            builder.add((index % 100 == 0) ? null : Integer.valueOf(index));
+            dataStore.addFeature(builder.buildFeature("test." + index));
+        }
+        return dataStore;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.statistics.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for HyperLogLog class.
+ *
+ * <p>{@link com.sldeditor.datasource.statistics.HyperLogLog}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class HyperLogLogTest {
+
+    /** Test method for {@link com.sldeditor.datasource.statistics.HyperLogLog#getEstimate()}. */
+    @Test
+    void testGetEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(HyperLogLog.DEFAULT_PRECISION, sketch.getPrecision());
+        assertEquals(0, sketch.getEstimate());
+
+        // Duplicates and nulls are not counted
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int index = 0; index < 100; index++) {
+                sketch.add("value" + index);
+            }
+            sketch.add(null);
+        }
+        assertEquals(100, sketch.getEstimate(), 2);
+
+        for (int index = 0; index < 100000; index++) {
+            sketch.add(Integer.valueOf(index));
+        }
+        long estimate = sketch.getEstimate();
+        assertTrue(Math.abs(estimate - 100100) < 100100 * 0.03, "Estimate " + estimate);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.datasource.statistics.HyperLogLog#merge(HyperLogLog)}.
+     */
+    @Test
+    void testMerge() {
+        HyperLogLog sketch1 = new HyperLogLog(12);
+        HyperLogLog sketch2 = new HyperLogLog(12);
+        for (int index = 0; index < 20000; index++) {
+            sketch1.add(Integer.valueOf(index));
+            sketch2.add(Integer.valueOf(index + 10000));
+        }
+
+        sketch1.merge(sketch2);
+        sketch1.merge(null);
+        long estimate = sketch1.getEstimate();
+        assertTrue(Math.abs(estimate - 30000) < 30000 * 0.05, "Estimate " + estimate);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch1.merge(new HyperLogLog(10)));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.statistics.TDigest;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for TDigest class.
+ *
+ * <p>{@link com.sldeditor.datasource.statistics.TDigest}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class TDigestTest {
+
+    /** Test method for {@link com.sldeditor.datasource.statistics.TDigest#getQuantile(double)}. */
+    @Test
+    void testGetQuantile() {
+        TDigest digest = new TDigest();
+        assertTrue(Double.isNaN(digest.getQuantile(0.5)));
+        assertTrue(Double.isNaN(digest.getMin()));
+        assertTrue(Double.isNaN(digest.getMax()));
+
+        digest.add(42.0);
+        assertEquals(42.0, digest.getQuantile(0.0));
+        assertEquals(42.0, digest.getQuantile(1.0));
+
+        // Uniformly distributed values in a random order
+        digest = new TDigest();
+        Random random = new Random(1234L);
+        int count = 100000;
+        for (int index = 0; index < count; index++) {
+            digest.add(random.nextDouble() * 1000.0);
+        }
+        digest.add(Double.NaN);
+
+        assertEquals(count, digest.getCount());
+        assertTrue(digest.getCentroidCount() <= 2 * TDigest.DEFAULT_COMPRESSION);
+        assertEquals(digest.getMin(), digest.getQuantile(0.0));
+        assertEquals(digest.getMax(), digest.getQuantile(1.0));
+        assertEquals(10.0, digest.getQuantile(0.01), 2.0);
+        assertEquals(250.0, digest.getQuantile(0.25), 10.0);
+        assertEquals(500.0, digest.getQuantile(0.5), 10.0);
+        assertEquals(990.0, digest.getQuantile(0.99), 2.0);
+
+        TDigest finalDigest = digest;
+        assertThrows(IllegalArgumentException.class, () -> finalDigest.getQuantile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> finalDigest.getQuantile(1.1));
+        assertThrows(IllegalArgumentException.class, () -> new TDigest(5.0));
+    }
+
+    /** Test method for {@link com.sldeditor.datasource.statistics.TDigest#merge(TDigest)}. */
+    @Test
+    void testMerge() {
+        TDigest digest1 = new TDigest();
+        TDigest digest2 = new TDigest();
+        for (int index = 0; index < 5000; index++) {
+            digest1.add(index);
+            digest2.add(index + 5000);
+        }
+
+        digest1.merge(digest2);
+        digest1.merge(new TDigest());
+        digest1.merge(null);
+
+        assertEquals(10000, digest1.getCount());
+        assertEquals(0.0, digest1.getMin());
+        assertEquals(9999.0, digest1.getMax());
+        assertEquals(5000.0, digest1.getQuantile(0.5), 100.0);
+        assertEquals(9000.0, digest1.getQuantile(0.9), 100.0);
+    }
+}
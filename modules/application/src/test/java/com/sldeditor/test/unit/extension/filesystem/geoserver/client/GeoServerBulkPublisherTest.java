@@ -0,0 +1,225 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.extension.filesystem.geoserver.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher.PublishResult;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher.PublishStatus;
+import com.sldeditor.test.unit.extension.filesystem.geoserver.DummyGeoServerClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for GeoServerBulkPublisher class.
+ *
+ * <p>{@link com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerBulkPublisherTest {
+
+    /** Client that holds the styles in memory, uploads can be made to fail. */
+    class TestClient extends DummyGeoServerClient {
+        public Map<StyleWrapper, String> styleMap = new ConcurrentHashMap<>();
+
+        public Map<StyleWrapper, String> cachedStyleMap = new ConcurrentHashMap<>();
+
+        public StyleWrapper unreadableStyle = null;
+
+        public Map<StyleWrapper, AtomicInteger> failuresMap = new ConcurrentHashMap<>();
+
+        public AtomicInteger uploadAttempts = new AtomicInteger(0);
+
+        public AtomicInteger layerAttempts = new AtomicInteger(0);
+
+        @Override
+        public String getStyle(StyleWrapper styleWrapper) {
+            return cachedStyleMap.get(styleWrapper);
+        }
+
+        @Override
+        public String getStyleFromServer(StyleWrapper styleWrapper) {
+            if (styleWrapper.equals(unreadableStyle)) {
+                throw new IllegalStateException("Not readable");
+            }
+            return styleMap.get(styleWrapper);
+        }
+
+        @Override
+        public boolean uploadSLD(StyleWrapper styleWrapper, String sldBody) {
+            uploadAttempts.incrementAndGet();
+            AtomicInteger failures = failuresMap.get(styleWrapper);
+            if ((failures != null) && (failures.getAndDecrement() > 0)) {
+                return false;
+            }
+            styleMap.put(styleWrapper, sldBody);
+            return true;
+        }
+
+        @Override
+        public boolean updateLayerStyles(GeoServerLayer originalLayer) {
+            layerAttempts.incrementAndGet();
+            return !originalLayer.getLayerName().equals("broken");
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher#publish(java.util.List,
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerPublishProgressInterface)}.
+     */
+    @Test
+    public void testPublish() {
+        TestClient client = new TestClient();
+        GeoServerBulkPublisher publisher = new GeoServerBulkPublisher(client, 4, 3, 1L);
+
+        StyleWrapper unchanged = new StyleWrapper("ws", "unchanged");
+        StyleWrapper changed = new StyleWrapper("ws", "changed");
+        StyleWrapper added = new StyleWrapper("ws", "added");
+        StyleWrapper flaky = new StyleWrapper("ws", "flaky");
+        StyleWrapper broken = new StyleWrapper("ws", "broken");
+
+        client.styleMap.put(unchanged, "<sld>unchanged</sld>\n");
+        client.styleMap.put(changed, "<sld>old</sld>");
+        client.failuresMap.put(flaky, new AtomicInteger(2));
+        client.failuresMap.put(broken, new AtomicInteger(10));
+
+        List<SLDDataInterface> sldDataList = new ArrayList<>();
+        sldDataList.add(new SLDData(unchanged, "<sld>unchanged</sld>"));
+        sldDataList.add(new SLDData(changed, "<sld>new</sld>"));
+        sldDataList.add(new SLDData(added, "<sld>added</sld>"));
+        sldDataList.add(new SLDData(flaky, "<sld>flaky</sld>"));
+        sldDataList.add(new SLDData(broken, "<sld>broken</sld>"));
+
+        List<Integer> countList = Collections.synchronizedList(new ArrayList<>());
+        Map<StyleWrapper, PublishStatus> statusMap = new ConcurrentHashMap<>();
+        PublishResult result =
+                publisher.publish(
+                        sldDataList,
+                        (styleWrapper, status, count, total, stylesPerSecond) -> {
+                            assertEquals(5, total);
+                            assertTrue(stylesPerSecond >= 0.0);
+                            countList.add(count);
+                            statusMap.put(styleWrapper, status);
+                        });
+
+        assertEquals(3, result.getUploaded());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1, result.getFailedList().size());
+        assertEquals(broken, result.getFailedList().get(0));
+        assertFalse(result.isSuccessful());
+        assertTrue(result.getBytesUploaded() > 0);
+
+        assertEquals(5, countList.size());
+        for (int index = 0; index < countList.size(); index++) {
+            assertEquals(index + 1, countList.get(index).intValue());
+        }
+        assertEquals(PublishStatus.UNCHANGED, statusMap.get(unchanged));
+        assertEquals(PublishStatus.UPLOADED, statusMap.get(changed));
+        assertEquals(PublishStatus.UPLOADED, statusMap.get(added));
+        assertEquals(PublishStatus.UPLOADED, statusMap.get(flaky));
+        assertEquals(PublishStatus.FAILED, statusMap.get(broken));
+
+        assertEquals("<sld>new</sld>", client.styleMap.get(changed));
+        assertEquals("<sld>flaky</sld>", client.styleMap.get(flaky));
+
+        // changed + added + flaky (3 attempts) + broken (3 attempts)
+        assertEquals(8, client.uploadAttempts.get());
+
+        // Publish again, nothing to upload
+        client.failuresMap.clear();
+        client.styleMap.put(broken, "<sld>broken</sld>");
+        result = publisher.publish(sldDataList, null);
+        assertEquals(0, result.getUploaded());
+        assertEquals(5, result.getUnchanged());
+        assertTrue(result.isSuccessful());
+        assertEquals(8, client.uploadAttempts.get());
+
+        // Nothing to publish
+        result = publisher.publish(null, null);
+        assertEquals(0, result.getUploaded());
+        result = new GeoServerBulkPublisher(null).publish(sldDataList, null);
+        assertEquals(0, result.getUploaded());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher#publish(java.util.List,
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerPublishProgressInterface)}, the
+     * cached copy of a style deleted on the server is not used.
+     */
+    @Test
+    public void testPublishDeletedStyle() {
+        TestClient client = new TestClient();
+        GeoServerBulkPublisher publisher = new GeoServerBulkPublisher(client, 2, 1, 1L);
+
+        StyleWrapper deleted = new StyleWrapper("ws", "deleted");
+        StyleWrapper unreadable = new StyleWrapper("ws", "unreadable");
+
+        // Server returns 404, the cache still holds the same body
+        client.cachedStyleMap.put(deleted, "<sld>deleted</sld>");
+        client.styleMap.put(unreadable, "<sld>unreadable</sld>");
+        client.unreadableStyle = unreadable;
+
+        List<SLDDataInterface> sldDataList = new ArrayList<>();
+        sldDataList.add(new SLDData(deleted, "<sld>deleted</sld>"));
+        sldDataList.add(new SLDData(unreadable, "<sld>unreadable</sld>"));
+
+        PublishResult result = publisher.publish(sldDataList, null);
+        assertEquals(2, result.getUploaded());
+        assertEquals(0, result.getUnchanged());
+        assertEquals("<sld>deleted</sld>", client.styleMap.get(deleted));
+        assertEquals(2, client.uploadAttempts.get());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerBulkPublisher#updateLayerStyles(java.util.List)}.
+     */
+    @Test
+    public void testUpdateLayerStyles() {
+        TestClient client = new TestClient();
+        GeoServerBulkPublisher publisher = new GeoServerBulkPublisher(client, 2, 2, 1L);
+
+        List<GeoServerLayer> layerList = new ArrayList<>();
+        layerList.add(new GeoServerLayer("ws", "roads"));
+        layerList.add(new GeoServerLayer("ws", "broken"));
+        layerList.add(new GeoServerLayer("ws", "rivers"));
+
+        assertEquals(1, publisher.updateLayerStyles(layerList));
+        assertEquals(4, client.layerAttempts.get());
+
+        assertEquals(0, publisher.updateLayerStyles(null));
+        assertEquals(0, publisher.updateLayerStyles(new ArrayList<>()));
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.extension.filesystem.geoserver.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for GeoServerCatalogueCache class, SLD bodies are read from a local HTTP stub of the
+ * GeoServer REST API.
+ *
+ * <p>{@link com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogueCacheTest {
+
+    /** The Constant STYLE_PATH. */
+    private static final String STYLE_PATH = "/rest/styles/line.sld";
+
+    /** The Constant ETAG. */
+    private static final String ETAG = "\"v1\"";
+
+    /** The stub server. */
+    private HttpServer server = null;
+
+    /** The SLD body returned by the stub server. */
+    private String sldBody = "<sld>1</sld>";
+
+    /** The error response code sent by the stub server, 0 for none. */
+    private int errorResponseCode = 0;
+
+    /** The number of full responses sent by the stub server. */
+    private AtomicInteger fullResponses = new AtomicInteger(0);
+
+    /** The number of not modified responses sent by the stub server. */
+    private AtomicInteger notModifiedResponses = new AtomicInteger(0);
+
+    /** The cache folder. */
+    private File cacheFolder = null;
+
+    /** The connection. */
+    private GeoServerConnection connection = null;
+
+    /**
+     * Start the stub server.
+     *
+     * @throws Exception the exception
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/geoserver", this::handle);
+        server.start();
+
+        connection = new GeoServerConnection();
+        connection.setConnectionName("stub");
+        connection.setUrl(
+                new URL("http://localhost:" + server.getAddress().getPort() + "/geoserver"));
+        connection.setUserName("admin");
+        connection.setPassword("geoserver");
+
+        cacheFolder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        GeoServerCatalogueCache.destroyInstance();
+        GeoServerCatalogueCache.getInstance().setCacheFolder(cacheFolder);
+    }
+
+    /** Stop the stub server and remove the cache folder. */
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+
+        GeoServerCatalogueCache.getInstance().clear(connection);
+        GeoServerCatalogueCache.destroyInstance();
+        File[] files = cacheFolder.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        cacheFolder.delete();
+    }
+
+    /**
+     * Handle a stub request, supports If-None-Match.
+     *
+     * @param exchange the exchange
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (errorResponseCode != 0) {
+            exchange.sendResponseHeaders(errorResponseCode, -1);
+        } else if (!path.equals("/geoserver" + STYLE_PATH)) {
+            exchange.sendResponseHeaders(404, -1);
+        } else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))
+                && sldBody.equals("<sld>1</sld>")) {
+            notModifiedResponses.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+        } else {
+            fullResponses.incrementAndGet();
+            byte[] bytes = sldBody.getBytes(StandardCharsets.UTF_8);
+            if (sldBody.equals("<sld>1</sld>")) {
+                exchange.getResponseHeaders().add("ETag", ETAG);
+            }
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#updateStyles}
+     * and {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#updateLayers}.
+     */
+    @Test
+    public void testCatalogue() {
+        GeoServerCatalogueCache cache = GeoServerCatalogueCache.getInstance();
+        assertFalse(cache.hasCatalogue(connection));
+        assertNull(cache.getStyleMap(connection));
+        assertNull(cache.getLayerMap(connection));
+
+        Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+        styleMap.put("default", Arrays.asList(new StyleWrapper("default", "line")));
+        styleMap.put("ws1", Arrays.asList(new StyleWrapper("ws1", "water")));
+
+        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
+        GeoServerLayer layer = new GeoServerLayer("ws1", "rivers");
+        layer.setStyle(new StyleWrapper("ws1", "water"));
+        layerMap.put("ws1", Arrays.asList(layer));
+
+        assertTrue(cache.updateStyles(connection, styleMap));
+        assertFalse(cache.hasCatalogue(connection));
+        assertTrue(cache.updateLayers(connection, layerMap));
+        assertTrue(cache.hasCatalogue(connection));
+
+        // Same again, nothing changed
+        assertFalse(cache.updateStyles(connection, styleMap));
+        assertFalse(cache.updateLayers(connection, layerMap));
+
+        // Read back from disk
+        GeoServerCatalogueCache.destroyInstance();
+        cache = GeoServerCatalogueCache.getInstance();
+        cache.setCacheFolder(cacheFolder);
+        assertTrue(cache.hasCatalogue(connection));
+        assertEquals(styleMap, cache.getStyleMap(connection));
+
+        Map<String, List<GeoServerLayer>> actualLayerMap = cache.getLayerMap(connection);
+        assertEquals(1, actualLayerMap.size());
+        GeoServerLayer actualLayer = actualLayerMap.get("ws1").get(0);
+        assertEquals("ws1", actualLayer.getLayerWorkspace());
+        assertEquals("rivers", actualLayer.getLayerName());
+        assertEquals(new StyleWrapper("ws1", "water"), actualLayer.getStyle());
+        assertEquals(connection, actualLayer.getConnection());
+
+        // Style removed on the server
+        List<StyleWrapper> styleList = new ArrayList<>(styleMap.get("ws1"));
+        styleList.clear();
+        styleMap.put("ws1", styleList);
+        assertTrue(cache.updateStyles(connection, styleMap));
+        assertTrue(cache.getStyleMap(connection).get("ws1").isEmpty());
+
+        // Cache only held in memory
+        cache.setCacheFolder(null);
+        assertFalse(cache.hasCatalogue(connection));
+        cache.setCacheFolder(cacheFolder);
+        assertTrue(cache.hasCatalogue(connection));
+
+        cache.clear(connection);
+        assertFalse(cache.hasCatalogue(connection));
+        assertFalse(cache.hasCatalogue(null));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#getStyleBody}.
+     */
+    @Test
+    public void testGetStyleBody() {
+        GeoServerCatalogueCache cache = GeoServerCatalogueCache.getInstance();
+        StyleWrapper styleWrapper = new StyleWrapper("default", "line");
+
+        assertNull(cache.getStyleBody(null, styleWrapper, STYLE_PATH));
+        assertNull(cache.getStyleBody(connection, null, STYLE_PATH));
+        assertNull(cache.getStyleBody(connection, styleWrapper, "/rest/styles/unknown.sld"));
+
+        // First read downloads the body
+        assertEquals("<sld>1</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        assertEquals(1, fullResponses.get());
+
+        // Second read is revalidated with the ETag
+        assertEquals("<sld>1</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+
+        // Validators survive a restart
+        GeoServerCatalogueCache.destroyInstance();
+        cache = GeoServerCatalogueCache.getInstance();
+        cache.setCacheFolder(cacheFolder);
+        assertEquals("<sld>1</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        assertEquals(2, notModifiedResponses.get());
+
+        // Body changed on the server
+        sldBody = "<sld>2</sld>";
+        assertEquals("<sld>2</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        assertEquals(2, fullResponses.get());
+
+        // Uploaded body
+        cache.setStyleBody(connection, styleWrapper, "<sld>3</sld>");
+        sldBody = "<sld>3</sld>";
+        assertEquals("<sld>3</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        // Server error, cached body returned and kept
+        errorResponseCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
+        assertEquals("<sld>3</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        errorResponseCode = HttpURLConnection.HTTP_UNAVAILABLE;
+        assertEquals("<sld>3</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        errorResponseCode = 0;
+        assertEquals("<sld>3</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        // Not authorised, cached body not returned but kept
+        errorResponseCode = HttpURLConnection.HTTP_UNAUTHORIZED;
+        assertNull(cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        errorResponseCode = 0;
+        assertEquals("<sld>3</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        // Server not available, cached body returned
+        server.stop(0);
+        assertEquals("<sld>3</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        cache.removeStyleBody(connection, styleWrapper);
+        assertNull(cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#getStyleBody},
+     * style deleted on the server.
+     */
+    @Test
+    public void testGetStyleBodyDeleted() {
+        GeoServerCatalogueCache cache = GeoServerCatalogueCache.getInstance();
+        StyleWrapper styleWrapper = new StyleWrapper("default", "line");
+
+        assertEquals("<sld>1</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        errorResponseCode = HttpURLConnection.HTTP_NOT_FOUND;
+        assertNull(cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        // Read from the server even though a body is cached
+        errorResponseCode = 0;
+        assertEquals("<sld>1</sld>", cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+        assertEquals("<sld>1</sld>", cache.readStyleBody(connection, STYLE_PATH));
+        errorResponseCode = HttpURLConnection.HTTP_NOT_FOUND;
+        assertNull(cache.readStyleBody(connection, STYLE_PATH));
+        assertNull(cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+
+        // Cached body evicted, not returned when the server is unavailable
+        server.stop(0);
+        assertNull(cache.getStyleBody(connection, styleWrapper, STYLE_PATH));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#checksum}.
+     */
+    @Test
+    public void testChecksum() {
+        assertNull(GeoServerCatalogueCache.checksum(null));
+        assertEquals(
+                GeoServerCatalogueCache.checksum("<sld/>"),
+                GeoServerCatalogueCache.checksum("<sld/>"));
+        assertFalse(
+                GeoServerCatalogueCache.checksum("<sld/>")
+                        .equals(GeoServerCatalogueCache.checksum("<sld />")));
+        assertEquals(64, GeoServerCatalogueCache.checksum("<sld/>").length());
+    }
+}
@@ -103,6 +103,15 @@ public class GeoServerClientTest {
             this.layerMap = layerMap;
         }
 
+        @Override
+        public void readLayersPartial(
+                GeoServerConnection connection,
+                String workspaceName,
+                List<GeoServerLayer> layerList) {
+            System.out.println(
+                    String.format("Workspace : %s %d layers", workspaceName, layerList.size()));
+        }
+
         @Override
         public void readLayersProgress(GeoServerConnection connection, int count, int total) {
             System.out.println(String.format("Layers : %d/%d", count, total));
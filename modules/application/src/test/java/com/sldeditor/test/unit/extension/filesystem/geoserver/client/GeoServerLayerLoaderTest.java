@@ -0,0 +1,313 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.extension.filesystem.geoserver.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerLayerLoader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for GeoServerLayerLoader class, runs against a local HTTP stub of the GeoServer REST
+ * API.
+ *
+ * <p>{@link com.sldeditor.extension.filesystem.geoserver.client.GeoServerLayerLoader}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerLayerLoaderTest {
+
+    /** The Constant DEFAULT_WORKSPACE. */
+    private static final String DEFAULT_WORKSPACE = "<Default Workspace>";
+
+    /** The Constant CONNECTIONS_PER_HOST. */
+    private static final int CONNECTIONS_PER_HOST = 2;
+
+    /** The stub server. */
+    private HttpServer server = null;
+
+    /** The stub server executor. */
+    private ExecutorService serverExecutor = null;
+
+    /** The stub responses, keyed by path. */
+    private Map<String, String> responseMap = new HashMap<>();
+
+    /** The number of requests being handled. */
+    private AtomicInteger activeRequests = new AtomicInteger(0);
+
+    /** The maximum number of requests handled at the same time. */
+    private AtomicInteger maxActiveRequests = new AtomicInteger(0);
+
+    /** The connection. */
+    private GeoServerConnection connection = null;
+
+    /** Records the progress reported by the loader. */
+    class TestProgress implements GeoServerReadProgressInterface {
+        public List<String> partialWorkspaceList = new ArrayList<>();
+
+        public int lastCount = 0;
+
+        public int lastTotal = 0;
+
+        @Override
+        public void startPopulating(GeoServerConnection connection) {
+            // Not used
+        }
+
+        @Override
+        public void readStylesComplete(
+                GeoServerConnection connection,
+                Map<String, List<StyleWrapper>> styleMap,
+                boolean partialRefresh) {
+            // Not used
+        }
+
+        @Override
+        public void readStylesProgress(GeoServerConnection connection, int count, int total) {
+            // Not used
+        }
+
+        @Override
+        public void readLayersComplete(
+                GeoServerConnection connection, Map<String, List<GeoServerLayer>> layerMap) {
+            // Not used
+        }
+
+        @Override
+        public void readLayersPartial(
+                GeoServerConnection connection,
+                String workspaceName,
+                List<GeoServerLayer> layerList) {
+            partialWorkspaceList.add(workspaceName);
+        }
+
+        @Override
+        public void readLayersProgress(GeoServerConnection connection, int count, int total) {
+            lastCount = count;
+            lastTotal = total;
+        }
+    }
+
+    /**
+     * Start the stub server.
+     *
+     * @throws Exception the exception
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/geoserver", this::handle);
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        connection = new GeoServerConnection();
+        connection.setConnectionName("stub");
+        connection.setUrl(
+                new URL("http://localhost:" + server.getAddress().getPort() + "/geoserver"));
+        connection.setUserName("admin");
+        connection.setPassword("geoserver");
+
+        responseMap.put(
+                "/geoserver/rest/workspaces/ws1/layers.xml", layerList("roads", "rivers"));
+        responseMap.put("/geoserver/rest/workspaces/ws2/layers.xml", layerList("towns"));
+        responseMap.put(
+                "/geoserver/rest/layers.xml",
+                layerList("ws1:roads", "ws1:rivers", "ws2:towns", "ws3:lakes", "boundary"));
+        responseMap.put("/geoserver/rest/workspaces/ws1/layers/roads.xml", layer("roads", "line"));
+        responseMap.put(
+                "/geoserver/rest/workspaces/ws1/layers/rivers.xml", layer("rivers", "water"));
+        responseMap.put("/geoserver/rest/workspaces/ws2/layers/towns.xml", layer("towns", "point"));
+        responseMap.put("/geoserver/rest/workspaces/ws3/layers/lakes.xml", layer("lakes", "water"));
+        responseMap.put("/geoserver/rest/layers/boundary.xml", layer("boundary", "polygon"));
+    }
+
+    /** Stop the stub server. */
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Handle a stub request.
+     *
+     * @param exchange the exchange
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int active = activeRequests.incrementAndGet();
+        maxActiveRequests.accumulateAndGet(active, Math::max);
+        try {
+            // Give other requests the chance to overlap
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Finished before the response is sent so the client can not start another request first
+        activeRequests.decrementAndGet();
+
+        String response = responseMap.get(exchange.getRequestURI().getPath());
+        if (response == null) {
+            exchange.sendResponseHeaders(404, -1);
+        } else {
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Create a layer list response.
+     *
+     * @param names the layer names
+     * @return the response
+     */
+    private static String layerList(String... names) {
+        StringBuilder sb = new StringBuilder("<layers>");
+        for (String name : names) {
+            sb.append("<layer><name>").append(name).append("</name></layer>");
+        }
+        sb.append("</layers>");
+        return sb.toString();
+    }
+
+    /**
+     * Create a layer response.
+     *
+     * @param name the layer name
+     * @param style the default style name
+     * @return the response
+     */
+    private static String layer(String name, String style) {
+        return String.format(
+                "<layer><name>%s</name><type>VECTOR</type>"
+                        + "<defaultStyle><name>%s</name></defaultStyle></layer>",
+                name, style);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerLayerLoader#load(java.util.List,
+     * com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface)}.
+     */
+    @Test
+    public void testLoad() {
+        GeoServerLayerLoader loader =
+                new GeoServerLayerLoader(connection, DEFAULT_WORKSPACE, 8, CONNECTIONS_PER_HOST);
+        TestProgress progress = new TestProgress();
+
+        Map<String, List<GeoServerLayer>> layerMap =
+                loader.load(Arrays.asList("ws1", "ws2"), progress);
+
+        assertEquals(4, layerMap.size());
+
+        List<GeoServerLayer> ws1List = layerMap.get("ws1");
+        assertEquals(2, ws1List.size());
+        assertEquals("roads", ws1List.get(0).getLayerName());
+        assertEquals("ws1", ws1List.get(0).getLayerWorkspace());
+        assertEquals("line", ws1List.get(0).getStyle().getStyle());
+        assertEquals(DEFAULT_WORKSPACE, ws1List.get(0).getStyle().getWorkspace());
+        assertEquals("rivers", ws1List.get(1).getLayerName());
+
+        assertEquals("towns", layerMap.get("ws2").get(0).getLayerName());
+
+        // Layer only found in the full layer list, workspace taken from its qualified name
+        assertEquals("lakes", layerMap.get("ws3").get(0).getLayerName());
+
+        // Unqualified layer not in any workspace
+        GeoServerLayer boundary = layerMap.get(DEFAULT_WORKSPACE).get(0);
+        assertEquals("boundary", boundary.getLayerName());
+        assertEquals(DEFAULT_WORKSPACE, boundary.getLayerWorkspace());
+        assertEquals(connection, boundary.getConnection());
+
+        // Partial results reported for every workspace
+        assertEquals(4, progress.partialWorkspaceList.size());
+        assertTrue(progress.partialWorkspaceList.contains("ws3"));
+        assertEquals(5, progress.lastCount);
+        assertEquals(5, progress.lastTotal);
+
+        // Requests overlap but never exceed the per host limit
+        assertTrue(maxActiveRequests.get() <= CONNECTIONS_PER_HOST);
+
+        // Lower limit to the same host is honoured by the next loader
+        maxActiveRequests.set(0);
+        loader = new GeoServerLayerLoader(connection, DEFAULT_WORKSPACE, 8, 1);
+        assertEquals(4, loader.load(Arrays.asList("ws1", "ws2"), null).size());
+        assertEquals(1, maxActiveRequests.get());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerLayerLoader#load(java.util.List,
+     * com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface)}, layers that
+     * can not be read are skipped.
+     */
+    @Test
+    public void testLoadMissingLayer() {
+        responseMap.remove("/geoserver/rest/workspaces/ws1/layers/rivers.xml");
+
+        GeoServerLayerLoader loader = new GeoServerLayerLoader(connection, DEFAULT_WORKSPACE);
+        Map<String, List<GeoServerLayer>> layerMap = loader.load(Arrays.asList("ws1"), null);
+
+        assertEquals(1, layerMap.get("ws1").size());
+        assertEquals("roads", layerMap.get("ws1").get(0).getLayerName());
+        assertEquals("towns", layerMap.get("ws2").get(0).getLayerName());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerLayerLoader#load(java.util.List,
+     * com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface)}, with no
+     * connection.
+     */
+    @Test
+    public void testLoadNoConnection() {
+        GeoServerLayerLoader loader = new GeoServerLayerLoader(null, DEFAULT_WORKSPACE);
+        assertTrue(loader.load(Arrays.asList("ws1"), null).isEmpty());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.sldeditor.map.MapTileCache;
+import com.sldeditor.map.MapTileCache.TileKey;
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for MapTileCache class.
+ *
+ * <p>{@link com.sldeditor.map.MapTileCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class MapTileCacheTest {
+
+    /** Test method for {@link com.sldeditor.map.MapTileCache#put(TileKey, BufferedImage)}. */
+    @Test
+    void testPut() {
+        MapTileCache cache = new MapTileCache(2);
+
+        TileKey key1 = new TileKey(1, "layer", 0, 0, 0);
+        TileKey key2 = new TileKey(1, "layer", 0, 1, 0);
+        TileKey key3 = new TileKey(1, "layer", 0, 2, 0);
+        BufferedImage tile1 = createTile();
+        BufferedImage tile2 = createTile();
+        BufferedImage tile3 = createTile();
+
+        cache.put(key1, tile1);
+        cache.put(key2, tile2);
+        cache.put(null, tile3);
+        cache.put(key3, null);
+        assertEquals(2, cache.size());
+
+        // Access tile 1 so tile 2 is the least recently used
+        assertSame(tile1, cache.get(key1));
+        cache.put(key3, tile3);
+        assertEquals(2, cache.size());
+        assertSame(tile1, cache.get(key1));
+        assertNull(cache.get(key2));
+        assertSame(tile3, cache.get(key3));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(key1));
+    }
+
+    /** Test method for {@link com.sldeditor.map.MapTileCache#setMaxTiles(int)}. */
+    @Test
+    void testSetMaxTiles() {
+        MapTileCache cache = new MapTileCache();
+        assertEquals(MapTileCache.DEFAULT_MAX_TILES, cache.getMaxTiles());
+
+        cache.setMaxTiles(3);
+        TileKey key1 = new TileKey(1, "layer", 0, 0, 0);
+        TileKey key2 = new TileKey(1, "layer", 0, 1, 0);
+        TileKey key3 = new TileKey(1, "layer", 0, 2, 0);
+        cache.put(key1, createTile());
+        cache.put(key2, createTile());
+        cache.put(key3, createTile());
+        assertEquals(3, cache.size());
+
+        // Least recently used tiles are discarded when the cache shrinks
+        assertNotNull(cache.get(key1));
+        cache.setMaxTiles(1);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(key1));
+        assertNull(cache.get(key2));
+
+        cache.setMaxTiles(0);
+        assertEquals(1, cache.getMaxTiles());
+    }
+
+    /** Test method for {@link com.sldeditor.map.MapTileCache.TileKey}. */
+    @Test
+    void testTileKey() {
+        TileKey key = new TileKey(3, "layer", -5, 10, -20);
+        assertEquals(3, key.getStyleVersion());
+        assertEquals(-5, key.getZoomLevel());
+        assertEquals(10, key.getTileX());
+        assertEquals(-20, key.getTileY());
+        assertNotNull(key.toString());
+
+        TileKey sameKey = new TileKey(3, "layer", -5, 10, -20);
+        assertEquals(key, sameKey);
+        assertEquals(key.hashCode(), sameKey.hashCode());
+
+        assertNotEquals(key, new TileKey(4, "layer", -5, 10, -20));
+        assertNotEquals(key, new TileKey(3, "other", -5, 10, -20));
+        assertNotEquals(key, new TileKey(3, "layer", -4, 10, -20));
+        assertNotEquals(key, new TileKey(3, "layer", -5, 11, -20));
+        assertNotEquals(key, new TileKey(3, "layer", -5, 10, -21));
+        assertNotEquals(key, null);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.map.MapTileCache#getZoomLevel(double)} and {@link
+     * com.sldeditor.map.MapTileCache#getResolution(int)}.
+     */
+    @Test
+    void testZoomLevel() {
+        assertEquals(0, MapTileCache.getZoomLevel(1.0));
+        assertEquals(MapTileCache.ZOOM_LEVELS_PER_OCTAVE, MapTileCache.getZoomLevel(2.0));
+        assertEquals(-MapTileCache.ZOOM_LEVELS_PER_OCTAVE, MapTileCache.getZoomLevel(0.5));
+
+        // Nearby resolutions snap to the same zoom level
+        assertEquals(MapTileCache.getZoomLevel(100.0), MapTileCache.getZoomLevel(100.5));
+
+        for (int level = -100; level <= 100; level++) {
+            assertEquals(level, MapTileCache.getZoomLevel(MapTileCache.getResolution(level)));
+        }
+
+        // Snapped resolution is within half a zoom level of the requested one
+        double resolution = 0.0001234;
+        double snapped = MapTileCache.getResolution(MapTileCache.getZoomLevel(resolution));
+        double maxRatio = Math.pow(2.0, 0.5 / MapTileCache.ZOOM_LEVELS_PER_OCTAVE);
+        assertEquals(1.0, snapped / resolution, maxRatio - 1.0);
+    }
+
+    /**
+     * Creates the tile.
+     *
+     * @return the buffered image
+     */
+    private BufferedImage createTile() {
+        return new BufferedImage(
+                MapTileCache.TILE_SIZE, MapTileCache.TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+    }
+}
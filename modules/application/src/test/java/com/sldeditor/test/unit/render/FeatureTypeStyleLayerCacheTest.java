@@ -0,0 +1,164 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.FeatureTypeStyleLayerCache;
+import java.util.List;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.PointSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleFactoryImpl;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for FeatureTypeStyleLayerCache class.
+ *
+ * <p>{@link com.sldeditor.render.FeatureTypeStyleLayerCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class FeatureTypeStyleLayerCacheTest {
+
+    /** The style factory. */
+    private StyleFactoryImpl styleFactory =
+            (StyleFactoryImpl) CommonFactoryFinder.getStyleFactory();
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.FeatureTypeStyleLayerCache#update(org.geotools.styling.Style,
+     * java.util.function.Function)}.
+     */
+    @Test
+    void testUpdate() {
+        FeatureTypeStyleLayerCache<Style> cache = new FeatureTypeStyleLayerCache<>();
+        Style style = createStyle(3);
+
+        List<Style> layerList1 = cache.update(style, s -> s);
+        assertEquals(3, layerList1.size());
+        assertEquals(0, cache.getReusedCount());
+        for (Style layerStyle : layerList1) {
+            assertEquals(1, layerStyle.featureTypeStyles().size());
+        }
+        assertEquals("fts1", layerList1.get(1).featureTypeStyles().get(0).getName());
+
+        // Nothing changed, all layers reused
+        List<Style> layerList2 = cache.update(style, s -> s);
+        assertEquals(3, cache.getReusedCount());
+        for (int index = 0; index < layerList1.size(); index++) {
+            assertSame(layerList1.get(index), layerList2.get(index));
+        }
+
+        // Change the middle feature type style
+        style.featureTypeStyles().get(1).rules().get(0).setName("updated");
+        List<Style> layerList3 = cache.update(style, s -> s);
+        assertEquals(2, cache.getReusedCount());
+        assertSame(layerList1.get(0), layerList3.get(0));
+        assertNotSame(layerList1.get(1), layerList3.get(1));
+        assertSame(layerList1.get(2), layerList3.get(2));
+
+        // Layers created from the previous style are not affected by later edits
+        assertEquals(
+                "updated", layerList3.get(1).featureTypeStyles().get(0).rules().get(0).getName());
+        assertEquals(
+                "rule1", layerList1.get(1).featureTypeStyles().get(0).rules().get(0).getName());
+
+        // Remove a feature type style
+        style.featureTypeStyles().remove(0);
+        List<Style> layerList4 = cache.update(style, s -> s);
+        assertEquals(2, layerList4.size());
+        assertEquals(2, cache.getReusedCount());
+        assertSame(layerList3.get(1), layerList4.get(0));
+        assertSame(layerList3.get(2), layerList4.get(1));
+
+        cache.clear();
+        cache.update(style, s -> s);
+        assertEquals(0, cache.getReusedCount());
+
+        assertTrue(cache.update(null, s -> s).isEmpty());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.FeatureTypeStyleLayerCache#canSplit(org.geotools.styling.Style)}.
+     */
+    @Test
+    void testCanSplit() {
+        FeatureTypeStyleLayerCache<Style> cache = new FeatureTypeStyleLayerCache<>();
+
+        Style style = createStyle(2);
+        assertTrue(FeatureTypeStyleLayerCache.canSplit(style));
+
+        style.featureTypeStyles().get(1).getOptions().put("composite", "multiply");
+        assertFalse(FeatureTypeStyleLayerCache.canSplit(style));
+
+        // Blended styles are rendered as a single layer
+        List<Style> layerList = cache.update(style, s -> s);
+        assertEquals(1, layerList.size());
+        assertEquals(2, layerList.get(0).featureTypeStyles().size());
+
+        style = createStyle(2);
+        style.featureTypeStyles()
+                .get(0)
+                .rules()
+                .get(0)
+                .symbolizers()
+                .get(0)
+                .getOptions()
+                .put("composite", "destination-in");
+        assertFalse(FeatureTypeStyleLayerCache.canSplit(style));
+
+        style = createStyle(2);
+        style.featureTypeStyles().get(0).getOptions().put("sortByGroup", "group");
+        assertFalse(FeatureTypeStyleLayerCache.canSplit(style));
+    }
+
+    /**
+     * Creates a style with a number of feature type styles, each containing a single rule with a
+     * point symbolizer.
+     *
+     * @param noOfFeatureTypeStyles the no of feature type styles
+     * @return the style
+     */
+    private Style createStyle(int noOfFeatureTypeStyles) {
+        Style style = styleFactory.createStyle();
+        for (int index = 0; index < noOfFeatureTypeStyles; index++) {
+            PointSymbolizer symbolizer = styleFactory.createPointSymbolizer();
+            symbolizer.setGraphic(styleFactory.createDefaultGraphic());
+
+            Rule rule = styleFactory.createRule();
+            rule.setName("rule" + index);
+            rule.symbolizers().add(symbolizer);
+
+            FeatureTypeStyle fts = styleFactory.createFeatureTypeStyle();
+            fts.setName("fts" + index);
+            fts.rules().add(rule);
+            style.featureTypeStyles().add(fts);
+        }
+        return style;
+    }
+}
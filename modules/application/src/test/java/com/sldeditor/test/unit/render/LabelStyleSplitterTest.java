@@ -0,0 +1,144 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.LabelStyleSplitter;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.PointSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.TextSymbolizer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for LabelStyleSplitter class.
+ *
+ * <p>{@link com.sldeditor.render.LabelStyleSplitter}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class LabelStyleSplitterTest {
+
+    /** The style builder. */
+    private StyleBuilder styleBuilder = new StyleBuilder(CommonFactoryFinder.getStyleFactory());
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.LabelStyleSplitter#getGeometryStyle(org.geotools.styling.Style)}. Test
+     * method for {@link
+     * com.sldeditor.render.LabelStyleSplitter#getLabelStyle(org.geotools.styling.Style)}.
+     */
+    @Test
+    void testSplit() {
+        assertNull(LabelStyleSplitter.getGeometryStyle(null));
+        assertNull(LabelStyleSplitter.getLabelStyle(null));
+        assertFalse(LabelStyleSplitter.hasLabels(null));
+
+        Style style = createStyle();
+        assertTrue(LabelStyleSplitter.hasLabels(style));
+        assertTrue(LabelStyleSplitter.canSplit(style));
+
+        // Only the first feature type style has geometry symbolizers, rules are kept
+        Style geometryStyle = LabelStyleSplitter.getGeometryStyle(style);
+        assertEquals(1, geometryStyle.featureTypeStyles().size());
+        FeatureTypeStyle fts = geometryStyle.featureTypeStyles().get(0);
+        assertEquals(2, fts.rules().size());
+        assertEquals(1, fts.rules().get(0).symbolizers().size());
+        assertTrue(fts.rules().get(0).symbolizers().get(0) instanceof PointSymbolizer);
+        assertTrue(fts.rules().get(1).symbolizers().isEmpty());
+        assertTrue(fts.rules().get(1).isElseFilter());
+        assertFalse(LabelStyleSplitter.hasLabels(geometryStyle));
+
+        Style labelStyle = LabelStyleSplitter.getLabelStyle(style);
+        assertEquals(2, labelStyle.featureTypeStyles().size());
+        for (FeatureTypeStyle labelFts : labelStyle.featureTypeStyles()) {
+            for (Rule rule : labelFts.rules()) {
+                assertTrue(
+                        rule.symbolizers().stream().allMatch(s -> s instanceof TextSymbolizer));
+            }
+        }
+
+        // Original style is unchanged
+        assertEquals(2, style.featureTypeStyles().get(0).rules().get(0).symbolizers().size());
+
+        // A style without labels has no label style
+        assertNull(LabelStyleSplitter.getLabelStyle(geometryStyle));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.LabelStyleSplitter#canSplit(org.geotools.styling.Style)}.
+     */
+    @Test
+    void testCanSplit() {
+        assertFalse(LabelStyleSplitter.canSplit(null));
+
+        Style style = createStyle();
+        style.featureTypeStyles()
+                .get(0)
+                .rules()
+                .get(0)
+                .symbolizers()
+                .get(0)
+                .getOptions()
+                .put("labelObstacle", "true");
+        assertFalse(LabelStyleSplitter.canSplit(style));
+
+        style = createStyle();
+        style.featureTypeStyles().get(1).getOptions().put("composite", "multiply");
+        assertFalse(LabelStyleSplitter.canSplit(style));
+    }
+
+    /**
+     * Creates a style with a point and label rule, an else rule with a label and a second feature
+     * type style with just a label.
+     *
+     * @return the style
+     */
+    private Style createStyle() {
+        Rule rule1 =
+                styleBuilder.createRule(
+                        new Symbolizer[] {
+                            styleBuilder.createPointSymbolizer(),
+                            styleBuilder.createTextSymbolizer()
+                        });
+        Rule elseRule = styleBuilder.createRule(styleBuilder.createTextSymbolizer());
+        elseRule.setElseFilter(true);
+
+        FeatureTypeStyle fts1 = styleBuilder.createFeatureTypeStyle("test", rule1);
+        fts1.rules().add(elseRule);
+
+        FeatureTypeStyle fts2 =
+                styleBuilder.createFeatureTypeStyle(
+                        "test", styleBuilder.createRule(styleBuilder.createTextSymbolizer()));
+
+        Style style = styleBuilder.createStyle();
+        style.featureTypeStyles().add(fts1);
+        style.featureTypeStyles().add(fts2);
+        return style;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.RenderScheduler;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for RenderScheduler class.
+ *
+ * <p>{@link com.sldeditor.render.RenderScheduler}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class RenderSchedulerTest {
+
+    /** Test method for {@link com.sldeditor.render.RenderScheduler#submit}, off the EDT. */
+    @Test
+    void testSubmitOffEventDispatchThread() {
+        RenderScheduler scheduler = new RenderScheduler("test");
+
+        List<Integer> resultList = new ArrayList<>();
+        long version1 =
+                scheduler.submit(() -> Integer.valueOf(1), result -> resultList.add(result));
+        long version2 =
+                scheduler.submit(() -> Integer.valueOf(2), result -> resultList.add(result));
+
+        // Rendered immediately on the calling thread
+        assertEquals(2, resultList.size());
+        assertEquals(1, resultList.get(0).intValue());
+        assertEquals(2, resultList.get(1).intValue());
+        assertFalse(scheduler.isCurrent(version1));
+        assertTrue(scheduler.isCurrent(version2));
+
+        scheduler.cancel();
+        assertFalse(scheduler.isCurrent(version2));
+        scheduler.shutdown();
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.RenderScheduler#submit}, on the EDT only the
+     * latest request is delivered.
+     *
+     * @throws InvocationTargetException the invocation target exception
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testSubmitOnEventDispatchThread()
+            throws InvocationTargetException, InterruptedException {
+        RenderScheduler scheduler = new RenderScheduler("test");
+
+        CountDownLatch blockRender = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<Integer> resultList = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> onEdtList = Collections.synchronizedList(new ArrayList<>());
+
+        SwingUtilities.invokeAndWait(
+                () -> {
+                    // Hold the render thread so the following requests queue up
+                    scheduler.submit(
+                            () -> {
+                                try {
+                                    blockRender.await(5, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                return Integer.valueOf(0);
+                            },
+                            result -> resultList.add(result));
+
+                    for (int index = 1; index <= 5; index++) {
+                        final int value = index;
+                        scheduler.submit(
+                                () -> Integer.valueOf(value),
+                                result -> {
+                                    onEdtList.add(SwingUtilities.isEventDispatchThread());
+                                    resultList.add(result);
+                                    delivered.countDown();
+                                });
+                    }
+                });
+
+        blockRender.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+
+        // Flush any outstanding events
+        SwingUtilities.invokeAndWait(() -> {});
+
+        assertEquals(1, resultList.size());
+        assertEquals(5, resultList.get(0).intValue());
+        assertTrue(onEdtList.get(0));
+
+        scheduler.shutdown();
+    }
+}
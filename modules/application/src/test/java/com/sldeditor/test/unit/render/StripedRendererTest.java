@@ -0,0 +1,291 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.StripedRenderer;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.Layer;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for StripedRenderer class.
+ *
+ * <p>{@link com.sldeditor.render.StripedRenderer}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class StripedRendererTest {
+
+    /** The Constant IMAGE_SIZE. */
+    private static final int IMAGE_SIZE = 256;
+
+    /**
+     * Test method for {@link com.sldeditor.render.StripedRenderer#getStripeArea}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetStripeArea() throws Exception {
+        ReferencedEnvelope mapArea =
+                new ReferencedEnvelope(0.0, 100.0, 0.0, 50.0, DefaultGeographicCRS.WGS84);
+
+        ReferencedEnvelope stripeArea = StripedRenderer.getStripeArea(mapArea, 100, 0, 20);
+        assertEquals(0.0, stripeArea.getMinX());
+        assertEquals(100.0, stripeArea.getMaxX());
+        assertEquals(40.0, stripeArea.getMinY(), 1.0e-9);
+        assertEquals(50.0, stripeArea.getMaxY(), 1.0e-9);
+
+        // Latitude first, stripes split the first axis
+        ReferencedEnvelope latLonArea =
+                new ReferencedEnvelope(0.0, 50.0, 0.0, 100.0, CRS.decode("EPSG:4326"));
+        stripeArea = StripedRenderer.getStripeArea(latLonArea, 100, 80, 100);
+        assertEquals(0.0, stripeArea.getMinimum(0), 1.0e-9);
+        assertEquals(10.0, stripeArea.getMaximum(0), 1.0e-9);
+        assertEquals(0.0, stripeArea.getMinimum(1));
+        assertEquals(100.0, stripeArea.getMaximum(1));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.StripedRenderer#getStripeCount(int)}.
+     */
+    @Test
+    void testGetStripeCount() {
+        StripedRenderer renderer = new StripedRenderer();
+        renderer.setMaxStripes(4);
+        assertEquals(1, renderer.getStripeCount(StripedRenderer.MIN_STRIPE_HEIGHT - 1));
+        assertEquals(2, renderer.getStripeCount(StripedRenderer.MIN_STRIPE_HEIGHT * 2));
+        assertEquals(4, renderer.getStripeCount(StripedRenderer.MIN_STRIPE_HEIGHT * 100));
+
+        renderer.setMaxStripes(0);
+        assertEquals(1, renderer.getStripeCount(StripedRenderer.MIN_STRIPE_HEIGHT * 100));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.StripedRenderer#paint}, rendering in stripes
+     * gives the same image as rendering in a single pass.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testPaint() throws Exception {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Polygon:srid=4326,name:String");
+        MemoryDataStore dataStore = new MemoryDataStore();
+        dataStore.createSchema(featureType);
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < 10; index++) {
+            double x = index * 10.0;
+            double y = index * 5.0;
+            builder.add(
+                    geometryFactory.createPolygon(
+                            new Coordinate[] {
+                                new Coordinate(x, y),
+                                new Coordinate(x + 25.0, y),
+                                new Coordinate(x + 25.0, y + 30.0),
+                                new Coordinate(x, y + 30.0),
+                                new Coordinate(x, y)
+                            }));
+            builder.add("polygon " + index);
+            dataStore.addFeature(builder.buildFeature("test." + index));
+        }
+
+        StyleBuilder styleBuilder = new StyleBuilder(CommonFactoryFinder.getStyleFactory());
+        Style style =
+                styleBuilder.createStyle(
+                        styleBuilder.createPolygonSymbolizer(Color.YELLOW, Color.BLUE, 3.0));
+
+        ReferencedEnvelope mapArea =
+                new ReferencedEnvelope(-10.0, 130.0, -10.0, 90.0, DefaultGeographicCRS.WGS84);
+
+        StripedRenderer renderer = new StripedRenderer();
+        renderer.setMaxStripes(1);
+        BufferedImage singleImage =
+                paint(
+                        renderer,
+                        new FeatureLayer(dataStore.getFeatureSource("test"), style),
+                        mapArea);
+
+        renderer.setMaxStripes(4);
+        assertEquals(4, renderer.getStripeCount(IMAGE_SIZE));
+        BufferedImage stripedImage =
+                paint(
+                        renderer,
+                        new FeatureLayer(dataStore.getFeatureSource("test"), style),
+                        mapArea);
+
+        int differentPixels = 0;
+        int paintedPixels = 0;
+        for (int y = 0; y < IMAGE_SIZE; y++) {
+            for (int x = 0; x < IMAGE_SIZE; x++) {
+                if (singleImage.getRGB(x, y) != stripedImage.getRGB(x, y)) {
+                    differentPixels++;
+                }
+                if (singleImage.getRGB(x, y) != 0) {
+                    paintedPixels++;
+                }
+            }
+        }
+        assertTrue(paintedPixels > 0);
+        assertEquals(0, differentPixels);
+
+        // Labels are rendered over the whole image
+        Style labelStyle =
+                styleBuilder.createStyle(
+                        styleBuilder.createTextSymbolizer(
+                                Color.BLACK,
+                                styleBuilder.createFont("Serif", 12.0),
+                                "name"));
+        labelStyle
+                .featureTypeStyles()
+                .get(0)
+                .rules()
+                .get(0)
+                .symbolizers()
+                .add(styleBuilder.createPolygonSymbolizer(Color.YELLOW, Color.BLUE, 3.0));
+        BufferedImage labelImage =
+                paint(
+                        renderer,
+                        new FeatureLayer(dataStore.getFeatureSource("test"), labelStyle),
+                        mapArea);
+        int labelPixels = 0;
+        for (int y = 0; y < IMAGE_SIZE; y++) {
+            for (int x = 0; x < IMAGE_SIZE; x++) {
+                if (labelImage.getRGB(x, y) != stripedImage.getRGB(x, y)) {
+                    labelPixels++;
+                }
+            }
+        }
+        assertTrue(labelPixels > 0);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.StripedRenderer#paint}, symbols of features
+     * close to a stripe edge are not clipped by the neighbouring stripe.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testPaintStripeEdges() throws Exception {
+        SimpleFeatureType featureType = DataUtilities.createType("test", "geom:Point:srid=4326");
+        MemoryDataStore dataStore = new MemoryDataStore();
+        dataStore.createSchema(featureType);
+
+        // The first stripe boundary is at latitude 65, the points are just above it
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < 10; index++) {
+            builder.add(geometryFactory.createPoint(new Coordinate(index * 12.0, 66.0)));
+            dataStore.addFeature(builder.buildFeature("test." + index));
+        }
+
+        StyleBuilder styleBuilder = new StyleBuilder(CommonFactoryFinder.getStyleFactory());
+        Style style =
+                styleBuilder.createStyle(
+                        styleBuilder.createPointSymbolizer(
+                                styleBuilder.createGraphic(
+                                        null,
+                                        styleBuilder.createMark("circle", Color.RED),
+                                        null,
+                                        1.0,
+                                        30.0,
+                                        0.0)));
+
+        ReferencedEnvelope mapArea =
+                new ReferencedEnvelope(-10.0, 130.0, -10.0, 90.0, DefaultGeographicCRS.WGS84);
+
+        StripedRenderer renderer = new StripedRenderer();
+        renderer.setMaxStripes(1);
+        BufferedImage singleImage =
+                paint(
+                        renderer,
+                        new FeatureLayer(dataStore.getFeatureSource("test"), style),
+                        mapArea);
+
+        renderer.setMaxStripes(4);
+        BufferedImage stripedImage =
+                paint(
+                        renderer,
+                        new FeatureLayer(dataStore.getFeatureSource("test"), style),
+                        mapArea);
+
+        int differentPixels = 0;
+        int paintedPixels = 0;
+        for (int y = StripedRenderer.MIN_STRIPE_HEIGHT;
+                y < StripedRenderer.MIN_STRIPE_HEIGHT * 2;
+                y++) {
+            for (int x = 0; x < IMAGE_SIZE; x++) {
+                if (singleImage.getRGB(x, y) != stripedImage.getRGB(x, y)) {
+                    differentPixels++;
+                }
+                if (singleImage.getRGB(x, y) != 0) {
+                    paintedPixels++;
+                }
+            }
+        }
+        assertTrue(paintedPixels > 0);
+        assertEquals(0, differentPixels);
+    }
+
+    /**
+     * Paint a layer into a new image.
+     *
+     * @param renderer the renderer
+     * @param layer the layer
+     * @param mapArea the map area
+     * @return the image
+     */
+    private BufferedImage paint(
+            StripedRenderer renderer, Layer layer, ReferencedEnvelope mapArea) {
+        BufferedImage image =
+                new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        List<Layer> layerList = new ArrayList<>();
+        layerList.add(layer);
+        try {
+            renderer.paint(
+                    graphics, new Rectangle(0, 0, IMAGE_SIZE, IMAGE_SIZE), mapArea, layerList);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.render.graphic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.task.TaskManager;
+import com.sldeditor.render.graphic.ExternalGraphicCache;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.geotools.styling.ExternalGraphic;
+import org.geotools.styling.Graphic;
+import org.geotools.styling.PointSymbolizer;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for ExternalGraphicCache class.
+ *
+ * <p>{@link com.sldeditor.render.graphic.ExternalGraphicCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class ExternalGraphicCacheTest {
+
+    /** The test folder. */
+    private Path testFolder;
+
+    /** The cache folder. */
+    private File cacheFolder;
+
+    /** The graphic file. */
+    private File graphicFile;
+
+    /**
+     * Create the cache folder and a graphic.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        testFolder = Files.createTempDirectory(getClass().getSimpleName());
+        cacheFolder = new File(testFolder.toFile(), "cache");
+        graphicFile = new File(testFolder.toFile(), "graphic.png");
+        writeGraphic(graphicFile, Color.RED);
+
+        ExternalGraphicCache.destroyInstance();
+        ExternalGraphicCache.getInstance().setCacheFolder(cacheFolder);
+    }
+
+    /**
+     * Delete the test folder.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        ExternalGraphicCache.destroyInstance();
+        try (Stream<Path> pathStream = Files.walk(testFolder)) {
+            pathStream
+                    .sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.graphic.ExternalGraphicCache#getLocalFile(URL)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testGetLocalFile() throws IOException {
+        ExternalGraphicCache cache = ExternalGraphicCache.getInstance();
+        URL url = graphicFile.toURI().toURL();
+
+        File localFile = cache.getLocalFile(url);
+        assertNotNull(localFile);
+        assertEquals(cacheFolder, localFile.getParentFile());
+        assertTrue(localFile.getName().endsWith(".png"));
+        assertTrue(new File(cacheFolder, "index.properties").exists());
+
+        // Fetched once
+        assertEquals(localFile, cache.getLocalFile(url));
+
+        // The local copy of a graphic in the cache folder is itself
+        assertEquals(localFile, cache.getLocalFile(localFile.toURI().toURL()));
+
+        // Modified graphic replaces the previous copy
+        writeGraphic(graphicFile, Color.BLUE);
+        assertTrue(graphicFile.setLastModified(graphicFile.lastModified() - 10000));
+        File modifiedFile = cache.getLocalFile(url);
+        assertNotNull(modifiedFile);
+        assertNotEquals(localFile, modifiedFile);
+        assertFalse(localFile.exists());
+
+        // Copies on disk are used in the next session
+        cache.setCacheFolder(cacheFolder);
+        assertEquals(modifiedFile, cache.getLocalFile(url));
+
+        // Missing graphic
+        File missingFile = new File(testFolder.toFile(), "missing.png");
+        assertNull(cache.getLocalFile(missingFile.toURI().toURL()));
+        assertNull(cache.getLocalFile(null));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.graphic.ExternalGraphicCache#getImage(URL, String, int, int)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testGetImage() throws IOException {
+        ExternalGraphicCache cache = ExternalGraphicCache.getInstance();
+        URL url = graphicFile.toURI().toURL();
+
+        BufferedImage image = cache.getImage(url, "image/png", 0, 0);
+        assertNotNull(image);
+        assertEquals(16, image.getWidth());
+        assertEquals(16, image.getHeight());
+        assertEquals(Color.RED.getRGB(), image.getRGB(8, 8));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertSame(image, cache.getImage(url, "image/png", 0, 0));
+        assertEquals(1, cache.getHitCount());
+
+        BufferedImage scaledImage = cache.getImage(url, "image/png", 32, 24);
+        assertEquals(32, scaledImage.getWidth());
+        assertEquals(24, scaledImage.getHeight());
+        assertEquals((16 * 16 + 32 * 24) * 4L, cache.getMemoryUsed());
+
+        // Least recently used image is evicted
+        cache.setMemoryBudget(32 * 24 * 4L);
+        assertEquals(32 * 24 * 4L, cache.getMemoryUsed());
+        assertSame(scaledImage, cache.getImage(url, "image/png", 32, 24));
+        assertNotSame(image, cache.getImage(url, "image/png", 0, 0));
+
+        cache.clear();
+        assertEquals(0, cache.getMemoryUsed());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.graphic.ExternalGraphicCache#localise(org.geotools.styling.Style)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testLocalise() throws IOException {
+        ExternalGraphicCache cache = ExternalGraphicCache.getInstance();
+        assertNull(cache.localise(null));
+
+        StyleBuilder styleBuilder = new StyleBuilder();
+
+        // No external graphics
+        Style markStyle =
+                styleBuilder.createStyle(
+                        styleBuilder.createPointSymbolizer(styleBuilder.createGraphic()));
+        assertSame(markStyle, cache.localise(markStyle));
+
+        ExternalGraphic externalGraphic =
+                styleBuilder.createExternalGraphic(graphicFile.toURI().toURL(), "image/png");
+        Graphic graphic = styleBuilder.createGraphic(externalGraphic, null, null);
+        Style style = styleBuilder.createStyle(styleBuilder.createPointSymbolizer(graphic));
+
+        Style localStyle = cache.localise(style);
+        assertNotSame(style, localStyle);
+
+        PointSymbolizer symbolizer =
+                (PointSymbolizer)
+                        localStyle.featureTypeStyles().get(0).rules().get(0).symbolizers().get(0);
+        ExternalGraphic localGraphic =
+                (ExternalGraphic) symbolizer.getGraphic().graphicalSymbols().get(0);
+        assertEquals(
+                cache.getLocalFile(graphicFile.toURI().toURL()).toURI().toURL(),
+                localGraphic.getLocation());
+        assertEquals("image/png", localGraphic.getFormat());
+
+        // Original style is unchanged
+        assertEquals(graphicFile.toURI().toURL(), externalGraphic.getLocation());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.graphic.ExternalGraphicCache#localise(org.geotools.styling.Style,
+     * Runnable)}, graphics still being fetched are replaced by a placeholder.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testLocaliseWithoutWaiting() throws Exception {
+        ExternalGraphicCache cache = ExternalGraphicCache.getInstance();
+        URL url = graphicFile.toURI().toURL();
+
+        StyleBuilder styleBuilder = new StyleBuilder();
+        ExternalGraphic externalGraphic = styleBuilder.createExternalGraphic(url, "image/png");
+        Graphic graphic = styleBuilder.createGraphic(externalGraphic, null, null);
+        Style style = styleBuilder.createStyle(styleBuilder.createPointSymbolizer(graphic));
+
+        // Keep the graphic task pool busy so the fetch is still pending
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        for (int index = 0; index < 16; index++) {
+            TaskManager.getInstance()
+                    .submit(
+                            TaskManager.GRAPHIC_POOL,
+                            () -> {
+                                blockLatch.await();
+                                return null;
+                            });
+        }
+
+        CountDownLatch fetchedLatch = new CountDownLatch(1);
+        URL placeholderLocation;
+        try {
+            Style placeholderStyle = cache.localise(style, fetchedLatch::countDown);
+            placeholderLocation = getLocation(placeholderStyle);
+            assertNotEquals(url, placeholderLocation);
+            assertTrue(new File(placeholderLocation.toURI()).exists());
+            assertEquals(1, fetchedLatch.getCount());
+        } finally {
+            blockLatch.countDown();
+        }
+
+        assertTrue(fetchedLatch.await(10, TimeUnit.SECONDS));
+
+        // Fetched graphics are used without a callback
+        CountDownLatch unusedLatch = new CountDownLatch(1);
+        Style localStyle = cache.localise(style, unusedLatch::countDown);
+        assertEquals(cache.getLocalFile(url).toURI().toURL(), getLocation(localStyle));
+        assertNotEquals(placeholderLocation, getLocation(localStyle));
+        assertEquals(1, unusedLatch.getCount());
+    }
+
+    /**
+     * Gets the location of the external graphic of the first symbolizer.
+     *
+     * @param style the style
+     * @return the location
+     * @throws MalformedURLException the malformed URL exception
+     */
+    private static URL getLocation(Style style) throws MalformedURLException {
+        PointSymbolizer symbolizer =
+                (PointSymbolizer)
+                        style.featureTypeStyles().get(0).rules().get(0).symbolizers().get(0);
+        return ((ExternalGraphic) symbolizer.getGraphic().graphicalSymbols().get(0))
+                .getLocation();
+    }
+
+    /**
+     * Write a graphic filled with a colour.
+     *
+     * @param file the file
+     * @param colour the colour
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static void writeGraphic(File file, Color colour) throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(colour);
+        graphics.fillRect(0, 0, 16, 16);
+        graphics.dispose();
+        ImageIO.write(image, "png", file);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.test.unit.render.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sldeditor.render.profile.StyleProfile;
+import com.sldeditor.render.profile.StyleProfileEntry;
+import com.sldeditor.render.profile.StyleProfileEntry.ElementType;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for StyleProfile class.
+ *
+ * <p>{@link com.sldeditor.render.profile.StyleProfile}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class StyleProfileTest {
+
+    /**
+     * Test method for {@link com.sldeditor.render.profile.StyleProfile#getHotSpots()}.
+     */
+    @Test
+    void testGetHotSpots() {
+        StyleProfile profile = createProfile();
+
+        List<StyleProfileEntry> hotSpotList = profile.getHotSpots();
+        assertEquals(3, hotSpotList.size());
+        assertEquals("fts[0]", hotSpotList.get(0).getPath());
+        assertEquals("fts[0]/rule[0]/symbolizer[0]", hotSpotList.get(1).getPath());
+        assertEquals("fts[0]/rule[0]", hotSpotList.get(2).getPath());
+
+        // Style order is unchanged
+        assertEquals("fts[0]/rule[0]", profile.getEntries().get(1).getPath());
+        assertEquals(2.5, profile.getTotalRenderTimeMilliseconds(), 1.0e-9);
+    }
+
+    /** Test method for {@link com.sldeditor.render.profile.StyleProfile#toCsv()}. */
+    @Test
+    void testToCsv() {
+        String[] lines = createProfile().toCsv().split("\n");
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("rank,type,path,name,time_ms"));
+        assertEquals("1,FEATURE_TYPE_STYLE,fts[0],,2.000,10,8,8,0", lines[1]);
+        assertEquals(
+                "2,SYMBOLIZER,fts[0]/rule[0]/symbolizer[0],\"Text, \"\"quoted\"\"\",1.500,10,4,0,4",
+                lines[2]);
+        assertEquals("3,RULE,fts[0]/rule[0],rule 1,1.000,10,4,4,4", lines[3]);
+    }
+
+    /** Test method for {@link com.sldeditor.render.profile.StyleProfile#toJson()}. */
+    @Test
+    void testToJson() {
+        JsonObject json = new JsonParser().parse(createProfile().toJson()).getAsJsonObject();
+
+        assertEquals(3, json.get("iterations").getAsInt());
+        assertEquals(2500000L, json.get("totalRenderTime").getAsLong());
+
+        JsonArray entries = json.getAsJsonArray("entries");
+        assertEquals(3, entries.size());
+        assertEquals("fts[0]", entries.get(0).getAsJsonObject().get("path").getAsString());
+        assertEquals(
+                "SYMBOLIZER", entries.get(1).getAsJsonObject().get("type").getAsString());
+        assertEquals(4, entries.get(1).getAsJsonObject().get("labels").getAsInt());
+    }
+
+    /**
+     * Creates the profile.
+     *
+     * @return the style profile
+     */
+    private StyleProfile createProfile() {
+        List<StyleProfileEntry> entryList = new ArrayList<>();
+
+        StyleProfileEntry ftsEntry =
+                new StyleProfileEntry(ElementType.FEATURE_TYPE_STYLE, "fts[0]", null);
+        ftsEntry.setRenderTime(2000000);
+        ftsEntry.setFeaturesEvaluated(10);
+        ftsEntry.setFeaturesFiltered(8);
+        ftsEntry.setFeaturesPainted(8);
+        entryList.add(ftsEntry);
+
+        StyleProfileEntry ruleEntry =
+                new StyleProfileEntry(ElementType.RULE, "fts[0]/rule[0]", "rule 1");
+        ruleEntry.setRenderTime(1000000);
+        ruleEntry.setFeaturesEvaluated(10);
+        ruleEntry.setFeaturesFiltered(4);
+        ruleEntry.setFeaturesPainted(4);
+        ruleEntry.setLabels(4);
+        entryList.add(ruleEntry);
+
+        StyleProfileEntry symbolizerEntry =
+                new StyleProfileEntry(
+                        ElementType.SYMBOLIZER,
+                        "fts[0]/rule[0]/symbolizer[0]",
+                        "Text, \"quoted\"");
+        symbolizerEntry.setRenderTime(1500000);
+        symbolizerEntry.setFeaturesEvaluated(10);
+        symbolizerEntry.setFeaturesFiltered(4);
+        symbolizerEntry.setLabels(4);
+        entryList.add(symbolizerEntry);
+
+        return new StyleProfile(3, 2500000, entryList);
+    }
+}
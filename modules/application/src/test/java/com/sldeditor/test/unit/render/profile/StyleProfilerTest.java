@@ -0,0 +1,250 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.test.unit.render.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.profile.StyleProfile;
+import com.sldeditor.render.profile.StyleProfileEntry;
+import com.sldeditor.render.profile.StyleProfileEntry.ElementType;
+import com.sldeditor.render.profile.StyleProfiler;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.filter.text.ecql.ECQL;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.geotools.styling.Symbolizer;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for StyleProfiler class.
+ *
+ * <p>{@link com.sldeditor.render.profile.StyleProfiler}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class StyleProfilerTest {
+
+    /**
+     * Test method for {@link com.sldeditor.render.profile.StyleProfiler#profile}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testProfile() throws Exception {
+        MemoryDataStore dataStore = createDataStore();
+
+        StyleProfiler profiler = new StyleProfiler();
+        profiler.setIterations(1);
+        StyleProfile profile =
+                profiler.profile(
+                        dataStore.getFeatureSource("test"),
+                        createStyle(),
+                        new ReferencedEnvelope(
+                                -10.0, 100.0, -10.0, 60.0, DefaultGeographicCRS.WGS84),
+                        new Rectangle(0, 0, 256, 256));
+
+        assertEquals(1, profile.getIterations());
+        assertTrue(profile.getTotalRenderTime() > 0);
+
+        List<StyleProfileEntry> entryList = profile.getEntries();
+        assertEquals(6, entryList.size());
+
+        StyleProfileEntry ftsEntry = entryList.get(0);
+        assertEquals(ElementType.FEATURE_TYPE_STYLE, ftsEntry.getType());
+        assertEquals("fts[0]", ftsEntry.getPath());
+        assertEquals(10, ftsEntry.getFeaturesEvaluated());
+        assertEquals(10, ftsEntry.getFeaturesFiltered());
+        assertEquals(10, ftsEntry.getFeaturesPainted());
+        assertEquals(3, ftsEntry.getLabels());
+
+        StyleProfileEntry ruleEntry = entryList.get(1);
+        assertEquals(ElementType.RULE, ruleEntry.getType());
+        assertEquals("fts[0]/rule[0]", ruleEntry.getPath());
+        assertEquals("low", ruleEntry.getName());
+        assertEquals(10, ruleEntry.getFeaturesEvaluated());
+        assertEquals(3, ruleEntry.getFeaturesFiltered());
+        assertEquals(3, ruleEntry.getFeaturesPainted());
+        assertEquals(3, ruleEntry.getLabels());
+
+        StyleProfileEntry pointEntry = entryList.get(2);
+        assertEquals(ElementType.SYMBOLIZER, pointEntry.getType());
+        assertEquals("fts[0]/rule[0]/symbolizer[0]", pointEntry.getPath());
+        assertEquals(3, pointEntry.getFeaturesFiltered());
+        assertEquals(3, pointEntry.getFeaturesPainted());
+        assertEquals(0, pointEntry.getLabels());
+
+        StyleProfileEntry textEntry = entryList.get(3);
+        assertEquals("fts[0]/rule[0]/symbolizer[1]", textEntry.getPath());
+        assertEquals(3, textEntry.getLabels());
+
+        // The else rule only applies to the features the first rule does not
+        StyleProfileEntry elseEntry = entryList.get(4);
+        assertEquals("fts[0]/rule[1]", elseEntry.getPath());
+        assertEquals(10, elseEntry.getFeaturesEvaluated());
+        assertEquals(7, elseEntry.getFeaturesFiltered());
+        assertEquals(7, elseEntry.getFeaturesPainted());
+
+        StyleProfileEntry elseSymbolizerEntry = entryList.get(5);
+        assertEquals("fts[0]/rule[1]/symbolizer[0]", elseSymbolizerEntry.getPath());
+        assertEquals(7, elseSymbolizerEntry.getFeaturesPainted());
+
+        List<StyleProfileEntry> hotSpotList = profile.getHotSpots();
+        for (int index = 1; index < hotSpotList.size(); index++) {
+            assertTrue(
+                    hotSpotList.get(index - 1).getRenderTime()
+                            >= hotSpotList.get(index).getRenderTime());
+        }
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.profile.StyleProfiler#profile}, rules outside
+     * their scale range are not counted.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testProfileOutOfScale() throws Exception {
+        Style style = createStyle();
+        style.featureTypeStyles().get(0).rules().get(0).setMaxScaleDenominator(1000.0);
+
+        StyleProfiler profiler = new StyleProfiler();
+        profiler.setIterations(1);
+        StyleProfile profile =
+                profiler.profile(
+                        createDataStore().getFeatureSource("test"),
+                        style,
+                        new ReferencedEnvelope(
+                                -10.0, 100.0, -10.0, 60.0, DefaultGeographicCRS.WGS84),
+                        new Rectangle(0, 0, 256, 256));
+
+        List<StyleProfileEntry> entryList = profile.getEntries();
+        StyleProfileEntry ruleEntry = entryList.get(1);
+        assertEquals(0, ruleEntry.getFeaturesEvaluated());
+        assertEquals(0, ruleEntry.getFeaturesFiltered());
+        assertEquals(0, ruleEntry.getFeaturesPainted());
+
+        // The else rule applies to every feature
+        StyleProfileEntry elseEntry = entryList.get(4);
+        assertEquals(10, elseEntry.getFeaturesEvaluated());
+        assertEquals(10, elseEntry.getFeaturesFiltered());
+        assertEquals(10, elseEntry.getFeaturesPainted());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.profile.StyleProfiler#isolate}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testIsolate() throws Exception {
+        Style style = createStyle();
+
+        Style ftsStyle = StyleProfiler.isolate(style, 0, -1, -1);
+        assertEquals(1, ftsStyle.featureTypeStyles().size());
+        assertEquals(2, ftsStyle.featureTypeStyles().get(0).rules().size());
+
+        Style ruleStyle = StyleProfiler.isolate(style, 0, 0, -1);
+        List<Rule> ruleList = ruleStyle.featureTypeStyles().get(0).rules();
+        assertEquals(1, ruleList.size());
+        assertEquals(2, ruleList.get(0).symbolizers().size());
+
+        Style symbolizerStyle = StyleProfiler.isolate(style, 0, 0, 1);
+        ruleList = symbolizerStyle.featureTypeStyles().get(0).rules();
+        assertEquals(1, ruleList.size());
+        assertEquals(1, ruleList.get(0).symbolizers().size());
+
+        // The else rule keeps the other rule, without symbolizers
+        Style elseStyle = StyleProfiler.isolate(style, 0, 1, -1);
+        ruleList = elseStyle.featureTypeStyles().get(0).rules();
+        assertEquals(2, ruleList.size());
+        assertTrue(ruleList.get(0).symbolizers().isEmpty());
+        assertTrue(ruleList.get(1).isElseFilter());
+        assertEquals(1, ruleList.get(1).symbolizers().size());
+
+        // Original style is not modified
+        assertEquals(2, style.featureTypeStyles().get(0).rules().get(0).symbolizers().size());
+    }
+
+    /**
+     * Creates the data store, 10 points with values 0 to 9.
+     *
+     * @return the memory data store
+     * @throws Exception the exception
+     */
+    private MemoryDataStore createDataStore() throws Exception {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Point:srid=4326,name:String,value:Integer");
+        MemoryDataStore dataStore = new MemoryDataStore();
+        dataStore.createSchema(featureType);
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < 10; index++) {
+            builder.add(geometryFactory.createPoint(new Coordinate(index * 10.0, index * 5.0)));
+            builder.add("point " + index);
+            builder.add(index);
+            dataStore.addFeature(builder.buildFeature("test." + index));
+        }
+        return dataStore;
+    }
+
+    /**
+     * Creates the style, a rule with a point and a label and an else rule with a point.
+     *
+     * @return the style
+     * @throws Exception the exception
+     */
+    private Style createStyle() throws Exception {
+        StyleBuilder styleBuilder = new StyleBuilder(CommonFactoryFinder.getStyleFactory());
+
+        Rule lowRule =
+                styleBuilder.createRule(
+                        new Symbolizer[] {
+                            styleBuilder.createPointSymbolizer(),
+                            styleBuilder.createTextSymbolizer(
+                                    Color.BLACK, styleBuilder.createFont("Serif", 10.0), "name")
+                        });
+        lowRule.setName("low");
+        lowRule.setFilter(ECQL.toFilter("value < 3"));
+
+        Rule elseRule = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+        elseRule.setName("other");
+        elseRule.setElseFilter(true);
+
+        FeatureTypeStyle fts =
+                styleBuilder.createFeatureTypeStyle("test", new Rule[] {lowRule, elseRule});
+        Style style = styleBuilder.createStyle();
+        style.featureTypeStyles().add(fts);
+        return style;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.tool.convert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import com.sldeditor.test.unit.datasource.impl.DummyInternalSLDFile2;
+import com.sldeditor.test.unit.tool.scale.DummyScaleSLDFile;
+import com.sldeditor.tool.convert.BatchConverter;
+import com.sldeditor.tool.convert.BatchConverter.BatchConversionResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for BatchConverter class.
+ *
+ * <p>{@link com.sldeditor.tool.convert.BatchConverter}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class BatchConverterTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.convert.BatchConverter#convert(java.util.List,
+     * com.sldeditor.tool.convert.BatchConversionOutputInterface)}.
+     */
+    @Test
+    void testConvert() {
+        List<SLDDataInterface> sldDataList = new ArrayList<SLDDataInterface>();
+        sldDataList.add(new DummyScaleSLDFile().getSLDData());
+        sldDataList.add(new DummyInternalSLDFile2().getSLDData());
+        sldDataList.add(new SLDData(new StyleWrapper("invalid"), null));
+
+        BatchConverter converter = new BatchConverter(SLDOutputFormatEnum.YSLD, 2);
+
+        Map<SLDDataInterface, String> outputMap = new HashMap<SLDDataInterface, String>();
+        BatchConversionResult result =
+                converter.convert(
+                        sldDataList, (sldData, sld, ysld) -> outputMap.put(sldData, ysld));
+
+        assertEquals(3, result.getTotal());
+        assertEquals(2, result.getConverted());
+        assertEquals(1, result.getFailed());
+        assertFalse(result.isCancelled());
+
+        assertEquals(2, outputMap.size());
+        for (int index = 0; index < 2; index++) {
+            String ysld = outputMap.get(sldDataList.get(index));
+            assertTrue(ysld != null && !ysld.isEmpty());
+            assertFalse(ysld.startsWith("<?xml"));
+        }
+
+        // Nothing to convert
+        result = converter.convert(null, (sldData, sld, ysld) -> outputMap.clear());
+        assertEquals(0, result.getTotal());
+        assertEquals(2, outputMap.size());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.tool.convert.BatchConverter#start(java.util.List,
+     * com.sldeditor.tool.convert.BatchConversionOutputInterface)}, off the event dispatch thread
+     * the conversion completes before returning.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    void testStart() throws InterruptedException, ExecutionException {
+        List<SLDDataInterface> sldDataList = new ArrayList<SLDDataInterface>();
+        sldDataList.add(new DummyInternalSLDFile2().getSLDData());
+
+        BatchConverter converter = new BatchConverter(SLDOutputFormatEnum.SLD);
+
+        List<String> outputList = new ArrayList<String>();
+        Future<BatchConversionResult> future =
+                converter.start(
+                        sldDataList, (sldData, sld, sldString) -> outputList.add(sldString));
+
+        assertTrue(future.isDone());
+        assertEquals(1, future.get().getConverted());
+        assertEquals(1, outputList.size());
+        assertTrue(outputList.get(0).contains("StyledLayerDescriptor"));
+    }
+
+    /** Test method for {@link com.sldeditor.tool.convert.BatchConverter#cancel()}. */
+    @Test
+    void testCancel() {
+        List<SLDDataInterface> sldDataList = new ArrayList<SLDDataInterface>();
+        for (int index = 0; index < 50; index++) {
+            sldDataList.add(new DummyInternalSLDFile2().getSLDData());
+        }
+
+        BatchConverter converter = new BatchConverter(SLDOutputFormatEnum.SLD, 2);
+
+        List<String> outputList = new ArrayList<String>();
+        BatchConversionResult result =
+                converter.convert(
+                        sldDataList,
+                        (sldData, sld, sldString) -> {
+                            outputList.add(sldString);
+                            converter.cancel();
+                        });
+
+        assertTrue(converter.isCancelled());
+        assertTrue(result.isCancelled());
+        assertEquals(1, result.getConverted());
+        assertEquals(1, outputList.size());
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.tool.raster;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.sldeditor.tool.raster.RasterValueScanner;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for RasterValueScanner class.
+ *
+ * <p>{@link com.sldeditor.tool.raster.RasterValueScanner}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class RasterValueScannerTest {
+
+    /** The Constant TILE_SIZE. */
+    private static final int TILE_SIZE = 16;
+
+    /** Image split into tiles, the last row and column of tiles are partially outside. */
+    class TiledImage implements RenderedImage {
+
+        /** The image holding the samples. */
+        private final BufferedImage image;
+
+        /**
+         * Instantiates a new tiled image.
+         *
+         * @param image the image
+         */
+        TiledImage(BufferedImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public Vector<RenderedImage> getSources() {
+            return null;
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return null;
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            return null;
+        }
+
+        @Override
+        public ColorModel getColorModel() {
+            return image.getColorModel();
+        }
+
+        @Override
+        public SampleModel getSampleModel() {
+            return image.getSampleModel();
+        }
+
+        @Override
+        public int getWidth() {
+            return image.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return image.getHeight();
+        }
+
+        @Override
+        public int getMinX() {
+            return 0;
+        }
+
+        @Override
+        public int getMinY() {
+            return 0;
+        }
+
+        @Override
+        public int getNumXTiles() {
+            return (getWidth() + TILE_SIZE - 1) / TILE_SIZE;
+        }
+
+        @Override
+        public int getNumYTiles() {
+            return (getHeight() + TILE_SIZE - 1) / TILE_SIZE;
+        }
+
+        @Override
+        public int getMinTileX() {
+            return 0;
+        }
+
+        @Override
+        public int getMinTileY() {
+            return 0;
+        }
+
+        @Override
+        public int getTileWidth() {
+            return TILE_SIZE;
+        }
+
+        @Override
+        public int getTileHeight() {
+            return TILE_SIZE;
+        }
+
+        @Override
+        public int getTileGridXOffset() {
+            return 0;
+        }
+
+        @Override
+        public int getTileGridYOffset() {
+            return 0;
+        }
+
+        @Override
+        public Raster getTile(int tileX, int tileY) {
+            int x = tileX * TILE_SIZE;
+            int y = tileY * TILE_SIZE;
+            int width = Math.min(TILE_SIZE, getWidth() - x);
+            int height = Math.min(TILE_SIZE, getHeight() - y);
+
+            Raster child = image.getRaster().createChild(x, y, width, height, 0, 0, null);
+
+            return child.createTranslatedChild(x, y);
+        }
+
+        @Override
+        public Raster getData() {
+            return image.getData();
+        }
+
+        @Override
+        public Raster getData(java.awt.Rectangle rect) {
+            return image.getData(rect);
+        }
+
+        @Override
+        public WritableRaster copyData(WritableRaster raster) {
+            return image.copyData(raster);
+        }
+    }
+
+    /**
+     * Creates an image where the sample value at each pixel is (x + y) % modulus.
+     *
+     * @param width the width
+     * @param height the height
+     * @param modulus the modulus
+     * @return the rendered image
+     */
+    private RenderedImage createImage(int width, int height, int modulus) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                raster.setSample(x, y, 0, (x + y) % modulus);
+            }
+        }
+
+        return new TiledImage(image);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.raster.RasterValueScanner#getUniqueValues(java.awt.image.RenderedImage,
+     * int)}.
+     */
+    @Test
+    void testGetUniqueValues() {
+        RenderedImage image = createImage(50, 37, 7);
+
+        RasterValueScanner scanner = new RasterValueScanner(10, 4);
+        assertArrayEquals(
+                new double[] {0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0},
+                scanner.getUniqueValues(image, 0),
+                0.0);
+
+        // Too many unique values
+        scanner = new RasterValueScanner(6, 4);
+        assertNull(scanner.getUniqueValues(image, 0));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.raster.RasterValueScanner#getClassBreaks(java.awt.image.RenderedImage,
+     * int, int)}.
+     */
+    @Test
+    void testGetClassBreaks() {
+        // Every value from 0 to 999 appears the same number of times
+        RenderedImage image = createImage(1000, 20, 1000);
+
+        RasterValueScanner scanner = new RasterValueScanner(10, 2);
+        double[] breaks = scanner.getClassBreaks(image, 0, 4);
+
+        assertEquals(5, breaks.length);
+        assertEquals(0.0, breaks[0], 0.0);
+        assertEquals(250.0, breaks[1], 2.0);
+        assertEquals(500.0, breaks[2], 2.0);
+        assertEquals(750.0, breaks[3], 2.0);
+        assertEquals(999.0, breaks[4], 0.0);
+
+        // Single value
+        breaks = scanner.getClassBreaks(createImage(20, 20, 1), 0, 4);
+        assertArrayEquals(new double[] {0.0}, breaks, 0.0);
+    }
+}
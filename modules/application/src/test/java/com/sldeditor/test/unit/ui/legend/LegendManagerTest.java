@@ -29,6 +29,7 @@ import com.sldeditor.common.data.SLDUtils;
 import com.sldeditor.common.data.SelectedSymbol;
 import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.ui.legend.LegendManager;
+import com.sldeditor.ui.legend.LegendTileCache;
 import com.sldeditor.ui.legend.option.LegendOptionData;
 import java.awt.Color;
 import java.awt.Font;
@@ -362,6 +363,26 @@ public class LegendManagerTest {
         assertTrue(actualResult);
     }
 
+    /** Test that unchanged rules are drawn from the tile cache. */
+    @Test
+    public void testTileCache() {
+        StyledLayerDescriptor sld = testSLD1();
+
+        SelectedSymbol.getInstance().setSld(null);
+        LegendManager.getInstance().updateLegendOptionData(null);
+        LegendTileCache tileCache = LegendManager.getInstance().getTileCache();
+        tileCache.clear();
+
+        BufferedImage image1 = LegendManager.getInstance().createLegend(sld, "Heading", null);
+        long hitCount = tileCache.getHitCount();
+        assertTrue(tileCache.size() > 0);
+
+        BufferedImage image2 = LegendManager.getInstance().createLegend(sld, "Heading", null);
+        assertTrue(tileCache.getHitCount() > hitCount);
+        assertEquals(image1.getWidth(), image2.getWidth());
+        assertEquals(image1.getHeight(), image2.getHeight());
+    }
+
     @Test
     public void testSaveLegendImageStyledLayerDescriptorFileStringStringStringListOfString() {}
 
@@ -0,0 +1,123 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.ui.legend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.sldeditor.ui.legend.LegendTileCache;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import org.geotools.styling.PointSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.StyleBuilder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for LegendTileCache class.
+ *
+ * <p>{@link com.sldeditor.ui.legend.LegendTileCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class LegendTileCacheTest {
+
+    /** The style builder. */
+    private StyleBuilder styleBuilder = new StyleBuilder();
+
+    /**
+     * Test method for {@link com.sldeditor.ui.legend.LegendTileCache#createKey(Rule, Object...)}.
+     */
+    @Test
+    void testCreateKey() {
+        Rule rule1 = createRule(Color.RED);
+        Rule rule2 = createRule(Color.RED);
+        Rule rule3 = createRule(Color.BLUE);
+
+        // Keys are compared by value
+        LegendTileCache.TileKey key1 = LegendTileCache.createKey(rule1, 20, 20, true);
+        LegendTileCache.TileKey key2 = LegendTileCache.createKey(rule2, 20, 20, true);
+        assertEquals(key1, key2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+
+        assertNotEquals(key1, LegendTileCache.createKey(rule3, 20, 20, true));
+        assertNotEquals(key1, LegendTileCache.createKey(rule1, 40, 20, true));
+        assertNotEquals(key1, LegendTileCache.createKey(rule1, 20, 20, false));
+
+        // Editing the rule after the key has been created does not change the key
+        PointSymbolizer symbolizer = (PointSymbolizer) rule1.symbolizers().get(0);
+        symbolizer.getGraphic().setSize(styleBuilder.literalExpression(99));
+        assertEquals(key1, key2);
+        assertNotEquals(key1, LegendTileCache.createKey(rule1, 20, 20, true));
+    }
+
+    /** Test method for {@link com.sldeditor.ui.legend.LegendTileCache#get}. */
+    @Test
+    void testGetPut() {
+        LegendTileCache cache = new LegendTileCache(2);
+        BufferedImage image1 = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage image2 = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage image3 = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+
+        LegendTileCache.TileKey key1 = LegendTileCache.createKey(createRule(Color.RED), 20);
+        LegendTileCache.TileKey key2 = LegendTileCache.createKey(createRule(Color.GREEN), 20);
+        LegendTileCache.TileKey key3 = LegendTileCache.createKey(createRule(Color.BLUE), 20);
+
+        assertNull(cache.get(key1));
+        cache.put(key1, image1);
+        cache.put(key2, image2);
+        cache.put(null, image3);
+        cache.put(key3, null);
+        assertEquals(2, cache.size());
+
+        assertSame(image1, cache.get(LegendTileCache.createKey(createRule(Color.RED), 20)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Least recently used tile is evicted
+        cache.put(key3, image3);
+        assertEquals(2, cache.size());
+        assertNull(cache.get(key2));
+        assertNotNull(cache.get(key1));
+        assertNotNull(cache.get(key3));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Creates a rule containing a point symbolizer.
+     *
+     * @param colour the fill colour
+     * @return the rule
+     */
+    private Rule createRule(Color colour) {
+        PointSymbolizer symbolizer =
+                styleBuilder.createPointSymbolizer(
+                        styleBuilder.createGraphic(
+                                null,
+                                styleBuilder.createMark(StyleBuilder.MARK_CIRCLE, colour),
+                                null));
+        return styleBuilder.createRule(symbolizer);
+    }
+}
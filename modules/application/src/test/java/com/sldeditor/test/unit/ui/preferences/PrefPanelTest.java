@@ -62,6 +62,7 @@ public class PrefPanelTest {
         PrefManager.destroyInstance();
         PrefData prefData = PrefManager.getInstance().getPrefData();
         prefData.setUiLayoutClass("com.sldeditor.ui.layout.SLDEditorDefaultLayout");
+        prefData.setPreviewCacheMemory(64);
         panel.testPopulate(prefData);
 
         PrefData actual = panel.getPrefData();
@@ -0,0 +1,232 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.ui.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.defaultsymbol.DefaultSymbols;
+import com.sldeditor.ui.tree.SLDStructureChange;
+import com.sldeditor.ui.tree.SLDStructureChange.ChangeType;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.LineSymbolizer;
+import org.geotools.styling.NamedLayer;
+import org.geotools.styling.PolygonSymbolizer;
+import org.geotools.styling.RasterSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleFactory;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.Symbolizer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for SLDStructureChange class.
+ *
+ * <p>{@link com.sldeditor.ui.tree.SLDStructureChange}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SLDStructureChangeTest {
+
+    /** Test method for {@link com.sldeditor.ui.tree.SLDStructureChange#added}. */
+    @Test
+    public void testAdded() {
+        FeatureTypeStyle fts = DefaultSymbols.createNewFeatureTypeStyle();
+        Rule rule1 = DefaultSymbols.createNewRule();
+        Rule rule2 = DefaultSymbols.createNewRule();
+        fts.rules().add(rule1);
+        fts.rules().add(rule2);
+        StyledLayerDescriptor sld = createSLD(fts);
+
+        SLDStructureChange change = SLDStructureChange.added(sld, fts, rule2);
+        assertEquals(ChangeType.ADD, change.getChangeType());
+        assertArrayEquals(new int[] {0, 0, 0}, change.getParentPath());
+        assertSame(fts, change.getParent(sld));
+        assertSame(rule2, change.getChild());
+
+        assertTrue(change.revert(sld));
+        assertEquals(1, fts.rules().size());
+        assertSame(rule1, fts.rules().get(0));
+
+        assertTrue(change.apply(sld));
+        assertEquals(2, fts.rules().size());
+        assertSame(rule2, fts.rules().get(1));
+
+        // Unsupported parent
+        assertNull(SLDStructureChange.added(sld, "not an sld object", rule1));
+
+        // Parent not in the SLD
+        assertNull(
+                SLDStructureChange.added(
+                        sld, DefaultSymbols.createNewFeatureTypeStyle(), rule1));
+    }
+
+    /** Test method for {@link com.sldeditor.ui.tree.SLDStructureChange#removed}. */
+    @Test
+    public void testRemoved() {
+        Rule rule = DefaultSymbols.createNewRule();
+        LineSymbolizer line = DefaultSymbols.createDefaultLineSymbolizer();
+        PolygonSymbolizer polygon1 = DefaultSymbols.createDefaultPolygonSymbolizer();
+        PolygonSymbolizer polygon2 = DefaultSymbols.createDefaultPolygonSymbolizer();
+        rule.symbolizers().add(polygon1);
+        rule.symbolizers().add(line);
+        rule.symbolizers().add(polygon2);
+        FeatureTypeStyle fts = DefaultSymbols.createNewFeatureTypeStyle();
+        fts.rules().add(rule);
+        StyledLayerDescriptor sld = createSLD(fts);
+
+        // Symbolizers with the same contents are equal so position must be found by identity
+        SLDStructureChange change = SLDStructureChange.removed(sld, rule, polygon2);
+        assertArrayEquals(new int[] {0, 0, 0, 0}, change.getParentPath());
+        rule.symbolizers().remove(2);
+
+        assertTrue(change.revert(sld));
+        assertEquals(3, rule.symbolizers().size());
+        assertSame(polygon2, rule.symbolizers().get(2));
+
+        assertTrue(change.apply(sld));
+        assertEquals(2, rule.symbolizers().size());
+        assertSame(polygon1, rule.symbolizers().get(0));
+        assertSame(line, rule.symbolizers().get(1));
+    }
+
+    /** Test method for {@link com.sldeditor.ui.tree.SLDStructureChange#moved}. */
+    @Test
+    public void testMoved() {
+        FeatureTypeStyle fts = DefaultSymbols.createNewFeatureTypeStyle();
+        Rule rule1 = DefaultSymbols.createNewRule();
+        Rule rule2 = DefaultSymbols.createNewRule();
+        Rule rule3 = DefaultSymbols.createNewRule();
+        fts.rules().add(rule1);
+        fts.rules().add(rule2);
+        fts.rules().add(rule3);
+        StyledLayerDescriptor sld = createSLD(fts);
+
+        // Move rule 3 up
+        fts.rules().remove(2);
+        fts.rules().add(1, rule3);
+        SLDStructureChange change = SLDStructureChange.moved(sld, fts, rule3, 2, 1);
+
+        assertTrue(change.revert(sld));
+        assertSame(rule1, fts.rules().get(0));
+        assertSame(rule2, fts.rules().get(1));
+        assertSame(rule3, fts.rules().get(2));
+
+        assertTrue(change.apply(sld));
+        assertSame(rule1, fts.rules().get(0));
+        assertSame(rule3, fts.rules().get(1));
+        assertSame(rule2, fts.rules().get(2));
+    }
+
+    /** Test method for {@link com.sldeditor.ui.tree.SLDStructureChange#imageOutline}. */
+    @Test
+    public void testImageOutline() {
+        RasterSymbolizer raster = DefaultSymbols.createDefaultRasterSymbolizer();
+        LineSymbolizer line = DefaultSymbols.createDefaultLineSymbolizer();
+        raster.setImageOutline(line);
+        Rule rule = DefaultSymbols.createNewRule();
+        rule.symbolizers().add(raster);
+        FeatureTypeStyle fts = DefaultSymbols.createNewFeatureTypeStyle();
+        fts.rules().add(rule);
+        StyledLayerDescriptor sld = createSLD(fts);
+
+        SLDStructureChange change = SLDStructureChange.imageOutline(sld, raster, line, null);
+        raster.setImageOutline(null);
+
+        assertTrue(change.revert(sld));
+        assertSame(line, raster.getImageOutline());
+
+        assertTrue(change.apply(sld));
+        assertNull(raster.getImageOutline());
+
+        assertNull(SLDStructureChange.imageOutline(sld, null, line, null));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.ui.tree.SLDStructureChange#revert}, the parent has
+     * been replaced by editing it since the change was recorded.
+     */
+    @Test
+    public void testRevertAfterParentReplaced() {
+        Rule rule = DefaultSymbols.createNewRule();
+        LineSymbolizer line = DefaultSymbols.createDefaultLineSymbolizer();
+        PolygonSymbolizer polygon = DefaultSymbols.createDefaultPolygonSymbolizer();
+        rule.symbolizers().add(line);
+        rule.symbolizers().add(polygon);
+        FeatureTypeStyle fts = DefaultSymbols.createNewFeatureTypeStyle();
+        fts.rules().add(rule);
+        StyledLayerDescriptor sld = createSLD(fts);
+
+        SLDStructureChange change = SLDStructureChange.added(sld, rule, polygon);
+
+        // Edit the rule, the rule details panel replaces the rule with a new object
+        StyleFactory styleFactory = CommonFactoryFinder.getStyleFactory();
+        Rule editedRule =
+                styleFactory.createRule(
+                        rule.symbolizers().toArray(new Symbolizer[0]),
+                        rule.getDescription(),
+                        null,
+                        "edited",
+                        null,
+                        false,
+                        Double.POSITIVE_INFINITY,
+                        0.0);
+        fts.rules().set(0, editedRule);
+
+        // Undo the add of the symbolizer
+        assertTrue(change.revert(sld));
+        assertSame(editedRule, change.getParent(sld));
+        assertEquals(1, editedRule.symbolizers().size());
+        assertSame(line, editedRule.symbolizers().get(0));
+
+        // Redo
+        assertTrue(change.apply(sld));
+        assertEquals(2, editedRule.symbolizers().size());
+        assertSame(polygon, editedRule.symbolizers().get(1));
+
+        // Rule since removed, nothing to undo
+        fts.rules().clear();
+        assertNull(change.getParent(sld));
+        assertFalse(change.revert(sld));
+        assertFalse(change.apply(sld));
+    }
+
+    /**
+     * Creates an SLD containing a named layer, style and the feature type style.
+     *
+     * @param fts the feature type style
+     * @return the styled layer descriptor
+     */
+    private StyledLayerDescriptor createSLD(FeatureTypeStyle fts) {
+        Style style = DefaultSymbols.createNewStyle();
+        style.featureTypeStyles().add(fts);
+        NamedLayer namedLayer = DefaultSymbols.createNewNamedLayer();
+        namedLayer.addStyle(style);
+        StyledLayerDescriptor sld = DefaultSymbols.createNewSLD();
+        sld.addStyledLayer(namedLayer);
+        return sld;
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.benchmark;
+
+import com.sldeditor.common.data.SLDUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridCoverageFactory;
+import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
+import org.geotools.data.DataStore;
+import org.geotools.data.DataStoreFinder;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.Transaction;
+import org.geotools.data.shapefile.ShapefileDataStoreFactory;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.gce.geotiff.GeoTiffReader;
+import org.geotools.gce.geotiff.GeoTiffWriter;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.geopkg.GeoPkgDataStoreFactory;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.styling.SLDParser;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayer;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Generates the datasets and loads the styles the benchmarks render.
+ *
+ * <p>Datasets are generated from a fixed seed into a temporary folder, so every run renders the
+ * same features.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BenchmarkData {
+
+    /** The Constant FORMAT_SHAPEFILE. */
+    public static final String FORMAT_SHAPEFILE = "shapefile";
+
+    /** The Constant FORMAT_GEOPACKAGE. */
+    public static final String FORMAT_GEOPACKAGE = "geopackage";
+
+    /** The Constant POINTS. */
+    public static final String POINTS = "points";
+
+    /** The Constant LINES. */
+    public static final String LINES = "lines";
+
+    /** The Constant POLYGONS. */
+    public static final String POLYGONS = "polygons";
+
+    /** The Constant EXTENT, the area covered by every dataset. */
+    public static final ReferencedEnvelope EXTENT =
+            new ReferencedEnvelope(-10.0, 10.0, 40.0, 60.0, DefaultGeographicCRS.WGS84);
+
+    /** The Constant POINT_COUNT. */
+    private static final int POINT_COUNT = 20000;
+
+    /** The Constant LINE_COUNT. */
+    private static final int LINE_COUNT = 2000;
+
+    /** The Constant LINE_VERTICES. */
+    private static final int LINE_VERTICES = 50;
+
+    /** The Constant POLYGON_GRID, the number of polygons along each side of the extent. */
+    private static final int POLYGON_GRID = 60;
+
+    /** The Constant RASTER_SIZE. */
+    private static final int RASTER_SIZE = 1024;
+
+    /** The Constant CATEGORY_COUNT. */
+    private static final int CATEGORY_COUNT = 5;
+
+    /** The Constant SEED. */
+    private static final long SEED = 20180101L;
+
+    /** The Constant SLD_FOLDER. */
+    private static final String SLD_FOLDER = "/benchmark/sld/";
+
+    /** The folder the datasets are written to. */
+    private final File folder;
+
+    /** The data stores opened, disposed with the data. */
+    private final List<DataStore> dataStoreList = new ArrayList<>();
+
+    /** The feature sources already generated, keyed by dataset and format. */
+    private final Map<String, SimpleFeatureSource> featureSourceMap = new HashMap<>();
+
+    /** The raster reader, null until created. */
+    private AbstractGridCoverage2DReader rasterReader = null;
+
+    /**
+     * Instantiates a new benchmark data, writing datasets to a new temporary folder.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public BenchmarkData() throws IOException {
+        folder = Files.createTempDirectory("sldeditor-benchmark").toFile();
+    }
+
+    /**
+     * Gets a vector dataset, generating it if necessary.
+     *
+     * @param dataset the dataset, POINTS, LINES or POLYGONS
+     * @param format the format, FORMAT_SHAPEFILE or FORMAT_GEOPACKAGE
+     * @return the feature source
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public SimpleFeatureSource getFeatureSource(String dataset, String format)
+            throws IOException {
+        String key = dataset + "." + format;
+        SimpleFeatureSource featureSource = featureSourceMap.get(key);
+        if (featureSource == null) {
+            featureSource = createFeatureSource(dataset, format);
+            featureSourceMap.put(key, featureSource);
+        }
+        return featureSource;
+    }
+
+    /**
+     * Generate a vector dataset.
+     *
+     * @param dataset the dataset
+     * @param format the format
+     * @return the feature source
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private SimpleFeatureSource createFeatureSource(String dataset, String format)
+            throws IOException {
+        SimpleFeatureType featureType = createFeatureType(dataset);
+
+        DataStore dataStore;
+        if (FORMAT_GEOPACKAGE.equals(format)) {
+            Map<String, Serializable> params = new HashMap<>();
+            params.put(GeoPkgDataStoreFactory.DBTYPE.key, "geopkg");
+            params.put(
+                    GeoPkgDataStoreFactory.DATABASE.key,
+                    new File(folder, dataset + ".gpkg").getAbsolutePath());
+            dataStore = DataStoreFinder.getDataStore(params);
+        } else {
+            Map<String, Serializable> params = new HashMap<>();
+            params.put(
+                    ShapefileDataStoreFactory.URLP.key,
+                    new File(folder, dataset + ".shp").toURI().toURL());
+            params.put(ShapefileDataStoreFactory.CREATE_SPATIAL_INDEX.key, Boolean.TRUE);
+            dataStore = new ShapefileDataStoreFactory().createNewDataStore(params);
+        }
+
+        if (dataStore == null) {
+            throw new IOException("Unable to create " + format + " data store");
+        }
+        dataStoreList.add(dataStore);
+
+        dataStore.createSchema(featureType);
+        String typeName = dataStore.getTypeNames()[0];
+        SimpleFeatureStore featureStore = (SimpleFeatureStore) dataStore.getFeatureSource(typeName);
+
+        try (Transaction transaction = new DefaultTransaction("create")) {
+            featureStore.setTransaction(transaction);
+            featureStore.addFeatures(
+                    DataUtilities.collection(
+                            createFeatures(dataset, dataStore.getSchema(typeName))));
+            transaction.commit();
+        } finally {
+            featureStore.setTransaction(Transaction.AUTO_COMMIT);
+        }
+
+        return dataStore.getFeatureSource(typeName);
+    }
+
+    /**
+     * Gets the raster dataset, a generated elevation model written as a GeoTIFF.
+     *
+     * @return the grid coverage reader
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public AbstractGridCoverage2DReader getRasterReader() throws IOException {
+        if (rasterReader == null) {
+            float[][] elevation = new float[RASTER_SIZE][RASTER_SIZE];
+            for (int row = 0; row < RASTER_SIZE; row++) {
+                for (int col = 0; col < RASTER_SIZE; col++) {
+                    double x = col * 8.0 * Math.PI / RASTER_SIZE;
+                    double y = row * 8.0 * Math.PI / RASTER_SIZE;
+                    elevation[row][col] =
+                            (float) (500.0 + (300.0 * Math.sin(x) * Math.cos(y))
+                                    + (200.0 * Math.sin((x + y) / 3.0)));
+                }
+            }
+
+            GridCoverage2D coverage =
+                    new GridCoverageFactory().create("elevation", elevation, EXTENT);
+
+            File file = new File(folder, "elevation.tif");
+            GeoTiffWriter writer = new GeoTiffWriter(file);
+            try {
+                writer.write(coverage, null);
+            } finally {
+                writer.dispose();
+                coverage.dispose(true);
+            }
+            rasterReader = new GeoTiffReader(file);
+        }
+        return rasterReader;
+    }
+
+    /**
+     * Dispose of the data stores and delete the generated datasets.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void dispose() throws IOException {
+        for (DataStore dataStore : dataStoreList) {
+            dataStore.dispose();
+        }
+        dataStoreList.clear();
+        featureSourceMap.clear();
+
+        if (rasterReader != null) {
+            rasterReader.dispose();
+            rasterReader = null;
+        }
+
+        try (Stream<Path> pathStream = Files.walk(folder.toPath())) {
+            pathStream
+                    .sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    /**
+     * Load a style from the benchmark SLD corpus.
+     *
+     * @param name the SLD name, without the extension
+     * @return the styled layer descriptor
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static StyledLayerDescriptor loadSld(String name) throws IOException {
+        URL url = BenchmarkData.class.getResource(SLD_FOLDER + name + ".sld");
+        if (url == null) {
+            throw new IOException("Unknown benchmark style : " + name);
+        }
+
+        SLDParser styleReader = new SLDParser(CommonFactoryFinder.getStyleFactory(), url);
+        SLDUtils.setResourcelocator(styleReader, url);
+        return styleReader.parseSLD();
+    }
+
+    /**
+     * Gets the first style in an SLD.
+     *
+     * @param sld the sld
+     * @return the style, null if there is none
+     */
+    public static Style getStyle(StyledLayerDescriptor sld) {
+        for (StyledLayer styledLayer : sld.layers()) {
+            List<Style> styleList = SLDUtils.getStylesList(styledLayer);
+            if ((styleList != null) && !styleList.isEmpty()) {
+                return styleList.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the feature type of a dataset.
+     *
+     * @param dataset the dataset
+     * @return the simple feature type
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static SimpleFeatureType createFeatureType(String dataset) throws IOException {
+        String geometryType;
+        if (POINTS.equals(dataset)) {
+            geometryType = "Point";
+        } else if (LINES.equals(dataset)) {
+            geometryType = "LineString";
+        } else if (POLYGONS.equals(dataset)) {
+            geometryType = "Polygon";
+        } else {
+            throw new IOException("Unknown benchmark dataset : " + dataset);
+        }
+
+        try {
+            return DataUtilities.createType(
+                    dataset,
+                    String.format(
+                            "the_geom:%s:srid=4326,name:String,category:Integer,value:Double",
+                            geometryType));
+        } catch (SchemaException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Creates the features of a dataset.
+     *
+     * @param dataset the dataset
+     * @param featureType the feature type of the data store
+     * @return the features
+     */
+    private static List<SimpleFeature> createFeatures(
+            String dataset, SimpleFeatureType featureType) {
+        Random random = new Random(SEED);
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        List<SimpleFeature> featureList = new ArrayList<>();
+
+        double minX = EXTENT.getMinX();
+        double minY = EXTENT.getMinY();
+        double width = EXTENT.getWidth();
+        double height = EXTENT.getHeight();
+
+        if (POINTS.equals(dataset)) {
+            for (int index = 0; index < POINT_COUNT; index++) {
+                // Cluster the points so the heat map has hot spots
+                double x = minX + (width * (Math.abs(random.nextGaussian() * 0.2 + 0.5) % 1.0));
+                double y = minY + (height * (Math.abs(random.nextGaussian() * 0.2 + 0.5) % 1.0));
+                builder.add(geometryFactory.createPoint(new Coordinate(x, y)));
+                featureList.add(buildFeature(builder, random, index));
+            }
+        } else if (LINES.equals(dataset)) {
+            double step = width / 200.0;
+            for (int index = 0; index < LINE_COUNT; index++) {
+                Coordinate[] coordinates = new Coordinate[LINE_VERTICES];
+                double x = minX + (random.nextDouble() * width);
+                double y = minY + (random.nextDouble() * height);
+                for (int vertex = 0; vertex < LINE_VERTICES; vertex++) {
+                    coordinates[vertex] = new Coordinate(x, y);
+                    x += (random.nextDouble() - 0.5) * step;
+                    y += (random.nextDouble() - 0.5) * step;
+                }
+                builder.add(geometryFactory.createLineString(coordinates));
+                featureList.add(buildFeature(builder, random, index));
+            }
+        } else {
+            double cellWidth = width / POLYGON_GRID;
+            double cellHeight = height / POLYGON_GRID;
+            int index = 0;
+            for (int row = 0; row < POLYGON_GRID; row++) {
+                for (int col = 0; col < POLYGON_GRID; col++) {
+                    double x = minX + (col * cellWidth);
+                    double y = minY + (row * cellHeight);
+                    double inset = random.nextDouble() * cellWidth * 0.2;
+                    builder.add(
+                            geometryFactory.createPolygon(
+                                    new Coordinate[] {
+                                        new Coordinate(x + inset, y),
+                                        new Coordinate(x + cellWidth, y + inset),
+                                        new Coordinate(x + cellWidth - inset, y + cellHeight),
+                                        new Coordinate(x, y + cellHeight - inset),
+                                        new Coordinate(x + inset, y)
+                                    }));
+                    featureList.add(buildFeature(builder, random, index));
+                    index++;
+                }
+            }
+        }
+        return featureList;
+    }
+
+    /**
+     * Add the attributes to the geometry already added to the builder and build the feature.
+     *
+     * @param builder the builder
+     * @param random the random number generator
+     * @param index the feature index
+     * @return the simple feature
+     */
+    private static SimpleFeature buildFeature(
+            SimpleFeatureBuilder builder, Random random, int index) {
+        builder.add("Feature " + index);
+        builder.add(random.nextInt(CATEGORY_COUNT));
+        builder.add(random.nextDouble());
+        return builder.buildFeature(null);
+    }
+}
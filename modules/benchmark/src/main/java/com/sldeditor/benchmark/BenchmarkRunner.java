@@ -0,0 +1,76 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, the main class of the benchmarks jar.
+ *
+ * <p>Accepts the standard JMH command line options, e.g. a benchmark name regular expression or
+ * <code>-p style=labels</code>. By default the GC profiler is enabled so the allocation rate is
+ * reported alongside the throughput and latency percentiles, and the results are also written to
+ * <code>benchmark-results.json</code>.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BenchmarkRunner {
+
+    /** The Constant RESULT_FILE. */
+    private static final String RESULT_FILE = "benchmark-results.json";
+
+    /** Private default constructor. */
+    private BenchmarkRunner() {
+        // Private default constructor
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the command line arguments
+     * @throws RunnerException the runner exception
+     * @throws CommandLineOptionException the command line option exception
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+        }
+        builder.addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result(RESULT_FILE);
+        }
+
+        // Any other option not set above is taken from the command line
+        Options options = builder.parent(commandLineOptions).build();
+        new Runner(options).run();
+    }
+}
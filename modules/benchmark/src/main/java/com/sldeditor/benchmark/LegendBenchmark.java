@@ -0,0 +1,85 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.benchmark;
+
+import com.sldeditor.ui.legend.LegendManager;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks creating the legend image of each style in the benchmark corpus, through the
+ * LegendManager and SLDEditorBufferedImageLegendGraphicBuilder.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LegendBenchmark {
+
+    /** The style to create the legend for, the name of an SLD in the benchmark corpus. */
+    @Param({"point", "line", "polygon", "labels", "raster", "transformation"})
+    public String style;
+
+    /** Create a legend image per symbolizer rather than one merged image. */
+    @Param({"false", "true"})
+    public boolean separateSymbolizers;
+
+    /** The sld. */
+    private StyledLayerDescriptor sld;
+
+    /**
+     * Load the style.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        sld = BenchmarkData.loadSld(style);
+    }
+
+    /**
+     * Create the legend.
+     *
+     * @return the legend images
+     */
+    @Benchmark
+    public Map<String, BufferedImage> createLegend() {
+        return LegendManager.getInstance()
+                .createLegend(sld, "Benchmark", style + ".sld", separateSymbolizers);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.benchmark;
+
+import com.sldeditor.filter.v2.envvar.EnvironmentVariableManager;
+import com.sldeditor.filter.v2.envvar.WMSEnvVarValues;
+import com.sldeditor.render.StripedRenderer;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.GridReaderLayer;
+import org.geotools.map.Layer;
+import org.geotools.styling.Style;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering a map image through the same pipeline as the symbol render panel and the
+ * map preview.
+ *
+ * <p>With one stripe the image is rendered in a single pass, as a map preview tile is. With more
+ * stripes the image is rendered in parallel, as the symbol render panel does.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    /** The Constant IMAGE_SIZE, the width and height of the rendered image. */
+    private static final int IMAGE_SIZE = 768;
+
+    /** The style to render, the name of an SLD in the benchmark corpus. */
+    @Param({"point", "line", "polygon", "labels", "raster", "transformation"})
+    public String style;
+
+    /** The vector data format, not used when rendering the raster. */
+    @Param({BenchmarkData.FORMAT_SHAPEFILE, BenchmarkData.FORMAT_GEOPACKAGE})
+    public String format;
+
+    /** The maximum number of stripes rendered in parallel. */
+    @Param({"1", "4"})
+    public int stripes;
+
+    /** The benchmark data. */
+    private BenchmarkData data;
+
+    /** The layer to render. */
+    private Layer layer;
+
+    /** The renderer. */
+    private StripedRenderer renderer;
+
+    /** The paint area. */
+    private Rectangle paintArea = new Rectangle(0, 0, IMAGE_SIZE, IMAGE_SIZE);
+
+    /**
+     * Generate the data and load the style.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = new BenchmarkData();
+
+        Style sldStyle = BenchmarkData.getStyle(BenchmarkData.loadSld(style));
+        switch (style) {
+            case "raster":
+                layer = new GridReaderLayer(data.getRasterReader(), sldStyle);
+                break;
+            case "line":
+                layer =
+                        new FeatureLayer(
+                                data.getFeatureSource(BenchmarkData.LINES, format), sldStyle);
+                break;
+            case "polygon":
+            case "labels":
+                layer =
+                        new FeatureLayer(
+                                data.getFeatureSource(BenchmarkData.POLYGONS, format), sldStyle);
+                break;
+            default:
+                layer =
+                        new FeatureLayer(
+                                data.getFeatureSource(BenchmarkData.POINTS, format), sldStyle);
+                break;
+        }
+
+        // Rendering transformations read the image size and extent from the environment
+        WMSEnvVarValues wmsEnvVarValues = new WMSEnvVarValues();
+        wmsEnvVarValues.setImageWidth(IMAGE_SIZE);
+        wmsEnvVarValues.setImageHeight(IMAGE_SIZE);
+        wmsEnvVarValues.setMapBounds(BenchmarkData.EXTENT);
+        EnvironmentVariableManager.getInstance().setWMSEnvVarValues(wmsEnvVarValues);
+
+        renderer = new StripedRenderer();
+        renderer.setMaxStripes(stripes);
+        renderer.setRendererHints(new HashMap<>());
+    }
+
+    /**
+     * Dispose of the data.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        layer.dispose();
+        data.dispose();
+    }
+
+    /**
+     * Render the map image.
+     *
+     * @return the rendered image
+     */
+    @Benchmark
+    public BufferedImage renderMap() {
+        BufferedImage image =
+                new BufferedImage(paintArea.width, paintArea.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        try {
+            List<Layer> layerList = new ArrayList<>();
+            layerList.add(layer);
+            renderer.paint(graphics, paintArea, BenchmarkData.EXTENT, layerList);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
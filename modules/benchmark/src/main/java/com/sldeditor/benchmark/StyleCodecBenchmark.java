@@ -0,0 +1,240 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.benchmark;
+
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import com.sldeditor.common.output.SLDWriterInterface;
+import com.sldeditor.common.output.impl.InlineDatastoreVisitor;
+import com.sldeditor.common.output.impl.MapBoxWriterImpl;
+import com.sldeditor.common.output.impl.SLDWriterFactory;
+import com.sldeditor.datasource.SLDEditorFile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.ysld.Ysld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing, encoding and copying styles through the same code as opening, saving, undo
+ * and the tools, for generated styles of increasing size.
+ *
+ * <p>Allocation per operation is reported when the benchmarks are run with the GC profiler, as
+ * BenchmarkRunner does by default.
+ *
+ * <p>The MapBox writer does not convert styles, it hands back the MapBox file the style was
+ * opened from, so the MapBox benchmark measures that pass through.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StyleCodecBenchmark {
+
+    /** The number of rules in the style. */
+    @Param({"10", "200"})
+    public int ruleCount;
+
+    /** The number of comparisons in each rule filter. */
+    @Param({"1", "8"})
+    public int filterTerms;
+
+    /** The number of inline features, 0 for a named layer. */
+    @Param({"0", "500"})
+    public int inlineFeatures;
+
+    /** The SLD document. */
+    private String sldContents;
+
+    /** The YSLD document. */
+    private String ysldContents;
+
+    /** The parsed style. */
+    private StyledLayerDescriptor sld;
+
+    /** The SLD file. */
+    private File sldFile;
+
+    /** The MapBox file. */
+    private File mapBoxFile;
+
+    /** The SLD writer. */
+    private SLDWriterInterface sldWriter;
+
+    /** The YSLD writer. */
+    private SLDWriterInterface ysldWriter;
+
+    /**
+     * Generate the style and write it to file.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        sldContents = StyleGenerator.generateSld(ruleCount, filterTerms, inlineFeatures);
+
+        sldFile = File.createTempFile("sldeditor-benchmark", ".sld");
+        Files.write(sldFile.toPath(), sldContents.getBytes(StandardCharsets.UTF_8));
+
+        sldWriter = SLDWriterFactory.createWriter(SLDOutputFormatEnum.SLD);
+        ysldWriter = SLDWriterFactory.createWriter(SLDOutputFormatEnum.YSLD);
+
+        sld = SLDUtils.readSLDFile(sldFile);
+        if (sld == null) {
+            throw new IOException("Failed to parse generated style");
+        }
+        ysldContents = ysldWriter.encodeSLD(null, sld);
+
+        // The MapBox writer reads the file of the style currently open in the editor
+        mapBoxFile = File.createTempFile("sldeditor-benchmark", ".json");
+        Files.write(
+                mapBoxFile.toPath(),
+                StyleGenerator.generateMapBox(ruleCount, filterTerms)
+                        .getBytes(StandardCharsets.UTF_8));
+
+        SLDData sldData = new SLDData(new StyleWrapper(mapBoxFile.getName()), sldContents);
+        sldData.setSLDFile(mapBoxFile);
+        sldData.setOriginalFormat(SLDOutputFormatEnum.MAPBOX);
+        SLDEditorFile.getInstance().setSLDData(sldData);
+    }
+
+    /** Delete the style files. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SLDEditorFile.getInstance().setSLDData(null);
+
+        if (sldFile != null) {
+            sldFile.delete();
+        }
+        if (mapBoxFile != null) {
+            mapBoxFile.delete();
+        }
+    }
+
+    /**
+     * Parse the SLD from a string, as when a style is opened or an undo is applied.
+     *
+     * @return the styled layer descriptor
+     */
+    @Benchmark
+    public StyledLayerDescriptor parseSld() {
+        return SLDUtils.createSLDFromString(
+                new SLDData(new StyleWrapper("Benchmark"), sldContents));
+    }
+
+    /**
+     * Parse the SLD from a file.
+     *
+     * @return the styled layer descriptor
+     */
+    @Benchmark
+    public StyledLayerDescriptor readSldFile() {
+        return SLDUtils.readSLDFile(sldFile);
+    }
+
+    /**
+     * Encode the style as SLD, as when a style is saved or the SLD text view is updated.
+     *
+     * @return the SLD document
+     */
+    @Benchmark
+    public String encodeSld() {
+        return sldWriter.encodeSLD(null, sld);
+    }
+
+    /**
+     * Encode the style as YSLD.
+     *
+     * @return the YSLD document
+     */
+    @Benchmark
+    public String encodeYsld() {
+        return ysldWriter.encodeSLD(null, sld);
+    }
+
+    /**
+     * Parse the style from YSLD.
+     *
+     * @return the styled layer descriptor
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Benchmark
+    public StyledLayerDescriptor parseYsld() throws IOException {
+        return Ysld.parse(ysldContents);
+    }
+
+    /**
+     * Convert the SLD to YSLD and back again.
+     *
+     * @return the SLD document
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Benchmark
+    public String roundTripYsld() throws IOException {
+        StyledLayerDescriptor parsedSld =
+                SLDUtils.createSLDFromString(
+                        new SLDData(new StyleWrapper("Benchmark"), sldContents));
+        String ysld = ysldWriter.encodeSLD(null, parsedSld);
+        return sldWriter.encodeSLD(null, Ysld.parse(ysld));
+    }
+
+    /**
+     * Encode the style as MapBox, a new writer is used each time so the MapBox file is read
+     * rather than returned from the writer's cache.
+     *
+     * @return the MapBox document
+     */
+    @Benchmark
+    public String encodeMapBox() {
+        return new MapBoxWriterImpl().encodeSLD(null, sld);
+    }
+
+    /**
+     * Copy the style including its inline features, as the SLD writer and the tools do.
+     *
+     * @return the copy of the style
+     */
+    @Benchmark
+    public StyledLayerDescriptor copyInline() {
+        InlineDatastoreVisitor duplicator = new InlineDatastoreVisitor();
+        sld.accept(duplicator);
+        return (StyledLayerDescriptor) duplicator.getCopy();
+    }
+}
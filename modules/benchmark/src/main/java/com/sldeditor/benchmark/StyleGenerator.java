@@ -0,0 +1,218 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.benchmark;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates SLD and MapBox style documents of a given size for the style codec benchmarks.
+ *
+ * <p>Each rule has a point symbolizer, every fourth rule a text symbolizer as well, and a filter
+ * made up of the requested number of comparisons combined with ogc:And. When inline features are
+ * requested the style is written as a UserLayer containing that many inline points, otherwise as
+ * a NamedLayer.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StyleGenerator {
+
+    /** The Constant SEED, so every run generates the same styles. */
+    private static final long SEED = 20181018L;
+
+    /** The Constant TEXT_RULE_INTERVAL, how often a rule also has a text symbolizer. */
+    private static final int TEXT_RULE_INTERVAL = 4;
+
+    /** The Constant ATTRIBUTES, the inline feature attributes filters are built from. */
+    private static final String[] ATTRIBUTES = {"value", "category", "rank"};
+
+    /** The Constant OPERATORS, the comparison operators filters are built from. */
+    private static final String[] OPERATORS = {
+        "PropertyIsGreaterThanOrEqualTo", "PropertyIsLessThan", "PropertyIsNotEqualTo"
+    };
+
+    /** Private default constructor. */
+    private StyleGenerator() {
+        // Private default constructor
+    }
+
+    /**
+     * Generate an SLD document.
+     *
+     * @param ruleCount the number of rules
+     * @param filterTerms the number of comparisons in each rule filter, 0 for no filter
+     * @param inlineFeatures the number of inline features, 0 for a named layer
+     * @return the SLD document
+     */
+    public static String generateSld(int ruleCount, int filterTerms, int inlineFeatures) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<StyledLayerDescriptor version=\"1.0.0\"");
+        sb.append(" xsi:schemaLocation=\"http://www.opengis.net/sld StyledLayerDescriptor.xsd\"");
+        sb.append(" xmlns=\"http://www.opengis.net/sld\"");
+        sb.append(" xmlns:sld=\"http://www.opengis.net/sld\"");
+        sb.append(" xmlns:ogc=\"http://www.opengis.net/ogc\"");
+        sb.append(" xmlns:gml=\"http://www.opengis.net/gml\"");
+        sb.append(" xmlns:xlink=\"http://www.w3.org/1999/xlink\"");
+        sb.append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
+
+        if (inlineFeatures > 0) {
+            sb.append("<UserLayer>\n<Name>Inline</Name>\n<InlineFeature>\n<FeatureCollection>\n");
+            appendInlineFeatures(sb, inlineFeatures);
+            sb.append("</FeatureCollection>\n</InlineFeature>\n");
+            sb.append("<LayerFeatureConstraints><FeatureTypeConstraint/>");
+            sb.append("</LayerFeatureConstraints>\n");
+        } else {
+            sb.append("<NamedLayer>\n<Name>Benchmark</Name>\n");
+        }
+
+        sb.append("<UserStyle>\n<Name>Benchmark</Name>\n<FeatureTypeStyle>\n");
+        for (int ruleIndex = 0; ruleIndex < ruleCount; ruleIndex++) {
+            appendRule(sb, ruleIndex, filterTerms);
+        }
+        sb.append("</FeatureTypeStyle>\n</UserStyle>\n");
+        sb.append((inlineFeatures > 0) ? "</UserLayer>\n" : "</NamedLayer>\n");
+        sb.append("</StyledLayerDescriptor>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generate a MapBox style document with one circle layer per rule, as the MapBox writer only
+     * passes through the MapBox file the style was opened from.
+     *
+     * @param ruleCount the number of rules
+     * @param filterTerms the number of comparisons in each layer filter, 0 for no filter
+     * @return the MapBox style document
+     */
+    public static String generateMapBox(int ruleCount, int filterTerms) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"version\": 8,\n  \"name\": \"Benchmark\",\n");
+        sb.append("  \"sources\": {\"benchmark\": {\"type\": \"vector\"}},\n");
+        sb.append("  \"layers\": [\n");
+        for (int ruleIndex = 0; ruleIndex < ruleCount; ruleIndex++) {
+            sb.append("    {\"id\": \"rule").append(ruleIndex).append("\", ");
+            sb.append("\"type\": \"circle\", \"source\": \"benchmark\", ");
+            if (filterTerms > 0) {
+                sb.append("\"filter\": [\"all\"");
+                for (int term = 0; term < filterTerms; term++) {
+                    sb.append(", [\">=\", \"")
+                            .append(ATTRIBUTES[term % ATTRIBUTES.length])
+                            .append("\", ")
+                            .append(ruleIndex + term)
+                            .append("]");
+                }
+                sb.append("], ");
+            }
+            sb.append("\"paint\": {\"circle-radius\": ")
+                    .append(4 + (ruleIndex % 8))
+                    .append(", \"circle-color\": \"")
+                    .append(colour(ruleIndex))
+                    .append("\"}}");
+            sb.append((ruleIndex < ruleCount - 1) ? ",\n" : "\n");
+        }
+        sb.append("  ]\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Append the inline point features.
+     *
+     * @param sb the string builder
+     * @param inlineFeatures the number of inline features
+     */
+    private static void appendInlineFeatures(StringBuilder sb, int inlineFeatures) {
+        Random random = new Random(SEED);
+        for (int index = 0; index < inlineFeatures; index++) {
+            double x =
+                    BenchmarkData.EXTENT.getMinX()
+                            + random.nextDouble() * BenchmarkData.EXTENT.getWidth();
+            double y =
+                    BenchmarkData.EXTENT.getMinY()
+                            + random.nextDouble() * BenchmarkData.EXTENT.getHeight();
+
+            sb.append("<featureMember><gml:_Feature><geometryProperty><Point><coordinates>");
+            sb.append(String.format(Locale.ROOT, "%.6f,%.6f", x, y));
+            sb.append("</coordinates></Point></geometryProperty>");
+            sb.append("<name>Feature ").append(index).append("</name>");
+            sb.append("<value>").append(random.nextInt(1000)).append("</value>");
+            sb.append("<category>").append(index % 10).append("</category>");
+            sb.append("<rank>").append(random.nextInt(100)).append("</rank>");
+            sb.append("</gml:_Feature></featureMember>\n");
+        }
+    }
+
+    /**
+     * Append a rule.
+     *
+     * @param sb the string builder
+     * @param ruleIndex the rule index
+     * @param filterTerms the number of comparisons in the rule filter
+     */
+    private static void appendRule(StringBuilder sb, int ruleIndex, int filterTerms) {
+        sb.append("<Rule>\n<Name>rule").append(ruleIndex).append("</Name>\n");
+
+        if (filterTerms > 0) {
+            sb.append("<ogc:Filter>\n");
+            if (filterTerms > 1) {
+                sb.append("<ogc:And>\n");
+            }
+            for (int term = 0; term < filterTerms; term++) {
+                String operator = OPERATORS[term % OPERATORS.length];
+                sb.append("<ogc:").append(operator).append(">");
+                sb.append("<ogc:PropertyName>")
+                        .append(ATTRIBUTES[term % ATTRIBUTES.length])
+                        .append("</ogc:PropertyName>");
+                sb.append("<ogc:Literal>").append(ruleIndex + term).append("</ogc:Literal>");
+                sb.append("</ogc:").append(operator).append(">\n");
+            }
+            if (filterTerms > 1) {
+                sb.append("</ogc:And>\n");
+            }
+            sb.append("</ogc:Filter>\n");
+        }
+
+        sb.append("<PointSymbolizer><Graphic><Mark><WellKnownName>circle</WellKnownName>");
+        sb.append("<Fill><CssParameter name=\"fill\">")
+                .append(colour(ruleIndex))
+                .append("</CssParameter></Fill>");
+        sb.append("<Stroke><CssParameter name=\"stroke\">#000000</CssParameter></Stroke>");
+        sb.append("</Mark><Size>").append(8 + (ruleIndex % 8)).append("</Size>");
+        sb.append("</Graphic></PointSymbolizer>\n");
+
+        if ((ruleIndex % TEXT_RULE_INTERVAL) == 0) {
+            sb.append("<TextSymbolizer><Label><ogc:PropertyName>name</ogc:PropertyName></Label>");
+            sb.append("<Font><CssParameter name=\"font-family\">SansSerif</CssParameter>");
+            sb.append("<CssParameter name=\"font-size\">10</CssParameter></Font>");
+            sb.append("<Halo><Radius>1</Radius></Halo>");
+            sb.append("<Fill><CssParameter name=\"fill\">#000000</CssParameter></Fill>");
+            sb.append("</TextSymbolizer>\n");
+        }
+        sb.append("</Rule>\n");
+    }
+
+    /**
+     * Gets the fill colour of a rule.
+     *
+     * @param ruleIndex the rule index
+     * @return the colour as a hex string
+     */
+    private static String colour(int ruleIndex) {
+        return String.format(Locale.ROOT, "#%06X", (ruleIndex * 2654435761L) & 0xFFFFFF);
+    }
+}